@@ -23,6 +23,7 @@ import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.configuration.GlobalConfiguration;
 import org.apache.flink.configuration.IllegalConfigurationException;
+import org.apache.flink.connectors.hive.read.ColumnBatchFilterConverter;
 import org.apache.flink.connectors.hive.read.HiveTableInputFormat;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.DataStreamSource;
@@ -38,8 +39,11 @@ import org.apache.flink.table.catalog.hive.client.HiveShimLoader;
 import org.apache.flink.table.catalog.hive.descriptors.HiveCatalogValidator;
 import org.apache.flink.table.catalog.hive.util.HiveReflectionUtils;
 import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.dataformat.vector.filter.ColumnBatchFilter;
+import org.apache.flink.table.expressions.Expression;
 import org.apache.flink.table.functions.hive.conversion.HiveInspectors;
 import org.apache.flink.table.runtime.types.TypeInfoDataTypeConverter;
+import org.apache.flink.table.sources.FilterableTableSource;
 import org.apache.flink.table.sources.LimitableTableSource;
 import org.apache.flink.table.sources.PartitionableTableSource;
 import org.apache.flink.table.sources.ProjectableTableSource;
@@ -71,6 +75,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * A TableSource implementation to read data from Hive tables.
@@ -79,7 +84,8 @@ public class HiveTableSource implements
 		StreamTableSource<BaseRow>,
 		PartitionableTableSource,
 		ProjectableTableSource<BaseRow>,
-		LimitableTableSource<BaseRow> {
+		LimitableTableSource<BaseRow>,
+		FilterableTableSource<BaseRow> {
 
 	private static final Logger LOG = LoggerFactory.getLogger(HiveTableSource.class);
 
@@ -95,6 +101,9 @@ public class HiveTableSource implements
 	private int[] projectedFields;
 	private boolean isLimitPushDown = false;
 	private long limit = -1L;
+	// Predicates used by the vectorized ORC reader to skip rows. Null if filter is not pushed down.
+	@Nullable
+	private List<Expression> filterPredicates = null;
 
 	public HiveTableSource(JobConf jobConf, ObjectPath tablePath, CatalogTable catalogTable) {
 		this.jobConf = Preconditions.checkNotNull(jobConf);
@@ -113,7 +122,8 @@ public class HiveTableSource implements
 							boolean partitionPruned,
 							int[] projectedFields,
 							boolean isLimitPushDown,
-							long limit) {
+							long limit,
+							List<Expression> filterPredicates) {
 		this.jobConf = Preconditions.checkNotNull(jobConf);
 		this.tablePath = Preconditions.checkNotNull(tablePath);
 		this.catalogTable = Preconditions.checkNotNull(catalogTable);
@@ -124,6 +134,7 @@ public class HiveTableSource implements
 		this.projectedFields = projectedFields;
 		this.isLimitPushDown = isLimitPushDown;
 		this.limit = limit;
+		this.filterPredicates = filterPredicates;
 	}
 
 	@Override
@@ -173,8 +184,18 @@ public class HiveTableSource implements
 
 	@VisibleForTesting
 	HiveTableInputFormat getInputFormat(List<HiveTablePartition> allHivePartitions, boolean useMapRedReader) {
+		ColumnBatchFilter filter = null;
+		if (filterPredicates != null) {
+			TableSchema fullSchema = getTableSchema();
+			int[] selectedFields = projectedFields != null ?
+					projectedFields : IntStream.range(0, fullSchema.getFieldCount()).toArray();
+			filter = ColumnBatchFilterConverter.convert(
+					filterPredicates,
+					Arrays.stream(selectedFields).mapToObj(i -> fullSchema.getFieldNames()[i]).toArray(String[]::new),
+					Arrays.stream(selectedFields).mapToObj(i -> fullSchema.getFieldDataTypes()[i]).toArray(DataType[]::new));
+		}
 		return new HiveTableInputFormat(
-				jobConf, catalogTable, allHivePartitions, projectedFields, limit, hiveVersion, useMapRedReader);
+				jobConf, catalogTable, allHivePartitions, projectedFields, limit, hiveVersion, useMapRedReader, filter);
 	}
 
 	@Override
@@ -207,7 +228,7 @@ public class HiveTableSource implements
 	@Override
 	public TableSource<BaseRow> applyLimit(long limit) {
 		return new HiveTableSource(jobConf, tablePath, catalogTable, remainingPartitions, hiveVersion,
-						partitionPruned, projectedFields, true, limit);
+						partitionPruned, projectedFields, true, limit, filterPredicates);
 	}
 
 	@Override
@@ -222,11 +243,12 @@ public class HiveTableSource implements
 			return this;
 		} else {
 			return new HiveTableSource(jobConf, tablePath, catalogTable, remainingPartitions, hiveVersion,
-					true, projectedFields, isLimitPushDown, limit);
+					true, projectedFields, isLimitPushDown, limit, filterPredicates);
 		}
 	}
 
-	private List<HiveTablePartition> initAllPartitions() {
+	@VisibleForTesting
+	List<HiveTablePartition> initAllPartitions() {
 		List<HiveTablePartition> allHivePartitions = new ArrayList<>();
 		// Please note that the following directly accesses Hive metastore, which is only a temporary workaround.
 		// Ideally, we need to go thru Catalog API to get all info we need here, which requires some major
@@ -331,12 +353,32 @@ public class HiveTableSource implements
 		if (isLimitPushDown) {
 			explain += String.format(", LimitPushDown %s, Limit %d", isLimitPushDown, limit);
 		}
+		if (filterPredicates != null) {
+			explain += ", FilterPushDown: " + filterPredicates;
+		}
 		return TableConnectorUtils.generateRuntimeName(getClass(), getTableSchema().getFieldNames()) + explain;
 	}
 
+	@Override
+	public TableSource<BaseRow> applyPredicate(List<Expression> predicates) {
+		// The predicates are only used by the vectorized ORC reader to skip rows, and the other readers
+		// do not filter at all, so all of the predicates remain in the list and are still evaluated.
+		TableSchema schema = getTableSchema();
+		List<Expression> convertible = predicates.stream()
+				.filter(p -> ColumnBatchFilterConverter.isConvertible(p, schema.getFieldNames(), schema.getFieldDataTypes()))
+				.collect(Collectors.toList());
+		return new HiveTableSource(jobConf, tablePath, catalogTable, remainingPartitions, hiveVersion,
+				partitionPruned, projectedFields, isLimitPushDown, limit, convertible);
+	}
+
+	@Override
+	public boolean isFilterPushedDown() {
+		return filterPredicates != null;
+	}
+
 	@Override
 	public TableSource<BaseRow> projectFields(int[] fields) {
 		return new HiveTableSource(jobConf, tablePath, catalogTable, remainingPartitions, hiveVersion,
-				partitionPruned, fields, isLimitPushDown, limit);
+				partitionPruned, fields, isLimitPushDown, limit, filterPredicates);
 	}
 }
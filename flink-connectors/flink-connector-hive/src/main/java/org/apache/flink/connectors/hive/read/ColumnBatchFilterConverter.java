@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connectors.hive.read;
+
+import org.apache.flink.table.dataformat.vector.filter.AndFilter;
+import org.apache.flink.table.dataformat.vector.filter.BytesCompareFilter;
+import org.apache.flink.table.dataformat.vector.filter.ColumnBatchFilter;
+import org.apache.flink.table.dataformat.vector.filter.CompareOperator;
+import org.apache.flink.table.dataformat.vector.filter.DoubleCompareFilter;
+import org.apache.flink.table.dataformat.vector.filter.LongCompareFilter;
+import org.apache.flink.table.dataformat.vector.filter.NullFilter;
+import org.apache.flink.table.expressions.CallExpression;
+import org.apache.flink.table.expressions.Expression;
+import org.apache.flink.table.expressions.FieldReferenceExpression;
+import org.apache.flink.table.expressions.ResolvedExpression;
+import org.apache.flink.table.expressions.ValueLiteralExpression;
+import org.apache.flink.table.functions.BuiltInFunctionDefinitions;
+import org.apache.flink.table.functions.FunctionDefinition;
+import org.apache.flink.table.types.DataType;
+import org.apache.flink.table.types.logical.LogicalTypeRoot;
+
+import javax.annotation.Nullable;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Converts the predicates pushed into a Hive table source to a {@link ColumnBatchFilter}, which is
+ * evaluated by the vectorized ORC reader.
+ *
+ * <p>The filter is only used to skip rows early, the predicates are still evaluated by the planner.
+ * So a predicate which can not be converted is simply ignored, and only the simple comparisons of
+ * a column and a literal, and the null checks of a column are converted.
+ */
+public class ColumnBatchFilterConverter {
+
+	private ColumnBatchFilterConverter() {
+	}
+
+	/**
+	 * Converts the conjunction of the given predicates.
+	 *
+	 * @param predicates the predicates
+	 * @param fieldNames the names of the columns of the batches
+	 * @param fieldTypes the types of the columns of the batches
+	 * @return the filter, or null if none of the predicates can be converted
+	 */
+	@Nullable
+	public static ColumnBatchFilter convert(List<Expression> predicates, String[] fieldNames, DataType[] fieldTypes) {
+		List<ColumnBatchFilter> filters = new ArrayList<>();
+		for (Expression predicate : predicates) {
+			convert(predicate, fieldNames, fieldTypes).ifPresent(filters::add);
+		}
+		if (filters.isEmpty()) {
+			return null;
+		} else if (filters.size() == 1) {
+			return filters.get(0);
+		} else {
+			return new AndFilter(filters);
+		}
+	}
+
+	/**
+	 * Returns whether the given predicate can be converted to a filter.
+	 */
+	public static boolean isConvertible(Expression predicate, String[] fieldNames, DataType[] fieldTypes) {
+		return convert(predicate, fieldNames, fieldTypes).isPresent();
+	}
+
+	private static Optional<ColumnBatchFilter> convert(
+			Expression predicate, String[] fieldNames, DataType[] fieldTypes) {
+		if (!(predicate instanceof CallExpression)) {
+			return Optional.empty();
+		}
+		CallExpression call = (CallExpression) predicate;
+		FunctionDefinition function = call.getFunctionDefinition();
+		List<ResolvedExpression> args = call.getResolvedChildren();
+
+		if (function == BuiltInFunctionDefinitions.AND) {
+			return Optional.ofNullable(convert(new ArrayList<>(args), fieldNames, fieldTypes));
+		} else if (function == BuiltInFunctionDefinitions.IS_NULL || function == BuiltInFunctionDefinitions.IS_NOT_NULL) {
+			if (args.size() != 1 || !(args.get(0) instanceof FieldReferenceExpression)) {
+				return Optional.empty();
+			}
+			int column = indexOf(fieldNames, ((FieldReferenceExpression) args.get(0)).getName());
+			if (column < 0) {
+				return Optional.empty();
+			}
+			return Optional.of(new NullFilter(column, function == BuiltInFunctionDefinitions.IS_NULL));
+		}
+
+		CompareOperator operator = toCompareOperator(function);
+		if (operator == null || args.size() != 2) {
+			return Optional.empty();
+		}
+		FieldReferenceExpression field;
+		ValueLiteralExpression literal;
+		if (args.get(0) instanceof FieldReferenceExpression && args.get(1) instanceof ValueLiteralExpression) {
+			field = (FieldReferenceExpression) args.get(0);
+			literal = (ValueLiteralExpression) args.get(1);
+		} else if (args.get(0) instanceof ValueLiteralExpression && args.get(1) instanceof FieldReferenceExpression) {
+			field = (FieldReferenceExpression) args.get(1);
+			literal = (ValueLiteralExpression) args.get(0);
+			operator = operator.reverse();
+		} else {
+			return Optional.empty();
+		}
+		int column = indexOf(fieldNames, field.getName());
+		if (column < 0 || literal.isNull()) {
+			return Optional.empty();
+		}
+		return toCompareFilter(column, fieldTypes[column], operator, literal);
+	}
+
+	private static Optional<ColumnBatchFilter> toCompareFilter(
+			int column, DataType fieldType, CompareOperator operator, ValueLiteralExpression literal) {
+		LogicalTypeRoot fieldRoot = fieldType.getLogicalType().getTypeRoot();
+		LogicalTypeRoot literalRoot = literal.getOutputDataType().getLogicalType().getTypeRoot();
+		switch (fieldRoot) {
+			case TINYINT:
+			case SMALLINT:
+			case INTEGER:
+			case BIGINT:
+				if (!isIntegral(literalRoot)) {
+					return Optional.empty();
+				}
+				return literal.getValueAs(Number.class)
+					.map(value -> new LongCompareFilter(column, operator, value.longValue()));
+			case FLOAT:
+			case DOUBLE:
+				// the generated code compares the values as the same type only
+				if (literalRoot != fieldRoot) {
+					return Optional.empty();
+				}
+				return literal.getValueAs(Number.class)
+					.map(value -> new DoubleCompareFilter(column, operator, value.doubleValue()));
+			case DATE:
+				if (literalRoot != LogicalTypeRoot.DATE) {
+					return Optional.empty();
+				}
+				// the dates are read as the number of days since epoch
+				return literal.getValueAs(LocalDate.class)
+					.map(value -> new LongCompareFilter(column, operator, value.toEpochDay()));
+			case VARCHAR:
+				// CHAR columns are not supported, as their values are padded
+				if (literalRoot != LogicalTypeRoot.CHAR && literalRoot != LogicalTypeRoot.VARCHAR) {
+					return Optional.empty();
+				}
+				return literal.getValueAs(String.class)
+					.map(value -> new BytesCompareFilter(column, operator, value));
+			default:
+				return Optional.empty();
+		}
+	}
+
+	private static boolean isIntegral(LogicalTypeRoot root) {
+		return root == LogicalTypeRoot.TINYINT || root == LogicalTypeRoot.SMALLINT ||
+			root == LogicalTypeRoot.INTEGER || root == LogicalTypeRoot.BIGINT;
+	}
+
+	@Nullable
+	private static CompareOperator toCompareOperator(FunctionDefinition function) {
+		if (function == BuiltInFunctionDefinitions.EQUALS) {
+			return CompareOperator.EQUALS;
+		} else if (function == BuiltInFunctionDefinitions.NOT_EQUALS) {
+			return CompareOperator.NOT_EQUALS;
+		} else if (function == BuiltInFunctionDefinitions.LESS_THAN) {
+			return CompareOperator.LESS_THAN;
+		} else if (function == BuiltInFunctionDefinitions.LESS_THAN_OR_EQUAL) {
+			return CompareOperator.LESS_THAN_OR_EQUAL;
+		} else if (function == BuiltInFunctionDefinitions.GREATER_THAN) {
+			return CompareOperator.GREATER_THAN;
+		} else if (function == BuiltInFunctionDefinitions.GREATER_THAN_OR_EQUAL) {
+			return CompareOperator.GREATER_THAN_OR_EQUAL;
+		} else {
+			return null;
+		}
+	}
+
+	private static int indexOf(String[] fieldNames, String name) {
+		return Arrays.asList(fieldNames).indexOf(name);
+	}
+}
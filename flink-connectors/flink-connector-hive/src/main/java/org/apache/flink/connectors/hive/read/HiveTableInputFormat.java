@@ -28,6 +28,7 @@ import org.apache.flink.core.io.InputSplitAssigner;
 import org.apache.flink.table.catalog.CatalogTable;
 import org.apache.flink.table.catalog.hive.client.HiveShimLoader;
 import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.dataformat.vector.filter.ColumnBatchFilter;
 import org.apache.flink.table.types.DataType;
 
 import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
@@ -39,6 +40,8 @@ import org.apache.hadoop.util.ReflectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -85,6 +88,10 @@ public class HiveTableInputFormat extends HadoopInputFormatCommonBase<BaseRow, H
 
 	private boolean useMapRedReader;
 
+	// the filter used by the vectorized reader to skip rows, its columns are the selected fields
+	@Nullable
+	private ColumnBatchFilter filter;
+
 	public HiveTableInputFormat(
 			JobConf jobConf,
 			CatalogTable catalogTable,
@@ -93,6 +100,18 @@ public class HiveTableInputFormat extends HadoopInputFormatCommonBase<BaseRow, H
 			long limit,
 			String hiveVersion,
 			boolean useMapRedReader) {
+		this(jobConf, catalogTable, partitions, projectedFields, limit, hiveVersion, useMapRedReader, null);
+	}
+
+	public HiveTableInputFormat(
+			JobConf jobConf,
+			CatalogTable catalogTable,
+			List<HiveTablePartition> partitions,
+			int[] projectedFields,
+			long limit,
+			String hiveVersion,
+			boolean useMapRedReader,
+			@Nullable ColumnBatchFilter filter) {
 		super(jobConf.getCredentials());
 		this.partitionKeys = catalogTable.getPartitionKeys();
 		this.fieldTypes = catalogTable.getSchema().getFieldDataTypes();
@@ -105,6 +124,7 @@ public class HiveTableInputFormat extends HadoopInputFormatCommonBase<BaseRow, H
 		int rowArity = catalogTable.getSchema().getFieldCount();
 		selectedFields = projectedFields != null ? projectedFields : IntStream.range(0, rowArity).toArray();
 		this.useMapRedReader = useMapRedReader;
+		this.filter = filter;
 	}
 
 	@Override
@@ -115,7 +135,7 @@ public class HiveTableInputFormat extends HadoopInputFormatCommonBase<BaseRow, H
 	public void open(HiveTableInputSplit split) throws IOException {
 		if (!useMapRedReader && useOrcVectorizedRead(split.getHiveTablePartition())) {
 			this.reader = new HiveVectorizedOrcSplitReader(
-					hiveVersion, jobConf, fieldNames, fieldTypes, selectedFields, split);
+					hiveVersion, jobConf, fieldNames, fieldTypes, selectedFields, filter, split);
 		} else {
 			this.reader = new HiveMapredSplitReader(jobConf, partitionKeys, fieldTypes, selectedFields, split,
 					HiveShimLoader.loadHiveShim(hiveVersion));
@@ -251,6 +271,7 @@ public class HiveTableInputFormat extends HadoopInputFormatCommonBase<BaseRow, H
 		out.writeObject(limit);
 		out.writeObject(hiveVersion);
 		out.writeBoolean(useMapRedReader);
+		out.writeObject(filter);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -273,5 +294,6 @@ public class HiveTableInputFormat extends HadoopInputFormatCommonBase<BaseRow, H
 		limit = (long) in.readObject();
 		hiveVersion = (String) in.readObject();
 		useMapRedReader = in.readBoolean();
+		filter = (ColumnBatchFilter) in.readObject();
 	}
 }
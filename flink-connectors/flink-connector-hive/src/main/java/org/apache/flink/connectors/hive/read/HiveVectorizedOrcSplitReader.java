@@ -21,6 +21,7 @@ package org.apache.flink.connectors.hive.read;
 import org.apache.flink.core.fs.Path;
 import org.apache.flink.orc.OrcColumnarRowSplitReader;
 import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.dataformat.vector.filter.ColumnBatchFilter;
 import org.apache.flink.table.types.DataType;
 
 import org.apache.hadoop.conf.Configuration;
@@ -29,6 +30,8 @@ import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.InputSplit;
 import org.apache.hadoop.mapred.JobConf;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
 import java.util.ArrayList;
 
@@ -36,7 +39,8 @@ import static org.apache.flink.orc.OrcSplitReaderUtil.genPartColumnarRowReader;
 import static org.apache.flink.table.dataformat.vector.VectorizedColumnBatch.DEFAULT_SIZE;
 
 /**
- * Orc {@link SplitReader} to read files using {@link OrcColumnarRowSplitReader}.
+ * Orc {@link SplitReader} to read files using {@link OrcColumnarRowSplitReader}. The rows which do
+ * not pass the given {@link ColumnBatchFilter} are skipped batch by batch.
  */
 public class HiveVectorizedOrcSplitReader implements SplitReader {
 
@@ -48,6 +52,7 @@ public class HiveVectorizedOrcSplitReader implements SplitReader {
 			String[] fieldNames,
 			DataType[] fieldTypes,
 			int[] selectedFields,
+			@Nullable ColumnBatchFilter filter,
 			HiveTableInputSplit split) throws IOException {
 		StorageDescriptor sd = split.getHiveTablePartition().getStorageDescriptor();
 
@@ -70,6 +75,7 @@ public class HiveVectorizedOrcSplitReader implements SplitReader {
 				split.getHiveTablePartition().getPartitionSpec(),
 				selectedFields,
 				new ArrayList<>(),
+				filter,
 				DEFAULT_SIZE,
 				new Path(fileSplit.getPath().toString()),
 				fileSplit.getStart(),
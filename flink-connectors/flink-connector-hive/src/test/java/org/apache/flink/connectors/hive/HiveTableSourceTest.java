@@ -30,6 +30,7 @@ import org.apache.flink.runtime.clusterframework.BootstrapTools;
 import org.apache.flink.streaming.api.transformations.OneInputTransformation;
 import org.apache.flink.streaming.api.transformations.PartitionTransformation;
 import org.apache.flink.table.HiveVersionTestUtil;
+import org.apache.flink.table.api.DataTypes;
 import org.apache.flink.table.api.Table;
 import org.apache.flink.table.api.TableEnvironment;
 import org.apache.flink.table.api.TableUtils;
@@ -43,6 +44,11 @@ import org.apache.flink.table.catalog.exceptions.TableNotExistException;
 import org.apache.flink.table.catalog.exceptions.TableNotPartitionedException;
 import org.apache.flink.table.catalog.hive.HiveCatalog;
 import org.apache.flink.table.catalog.hive.HiveTestUtils;
+import org.apache.flink.table.expressions.CallExpression;
+import org.apache.flink.table.expressions.Expression;
+import org.apache.flink.table.expressions.FieldReferenceExpression;
+import org.apache.flink.table.expressions.ValueLiteralExpression;
+import org.apache.flink.table.functions.BuiltInFunctionDefinitions;
 import org.apache.flink.table.planner.delegation.PlannerBase;
 import org.apache.flink.table.planner.plan.nodes.exec.ExecNode;
 import org.apache.flink.table.planner.utils.TableTestUtil;
@@ -68,6 +74,8 @@ import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -464,6 +472,77 @@ public class HiveTableSourceTest {
 		}
 	}
 
+	@Test
+	public void testFilterPushDown() throws Exception {
+		// vector reader not available for 1.x and we're not testing orc for 2.0.x
+		Assume.assumeTrue(HiveVersionTestUtil.HIVE_210_OR_LATER);
+		hiveShell.execute("create database db1");
+		try {
+			hiveShell.execute("create table db1.src (x int,y string) stored as orc");
+			hiveShell.execute("insert into db1.src values (1,'a'),(2,'b'),(3,'c'),(4,null)");
+			TableEnvironment tableEnv = HiveTestUtils.createTableEnvWithBlinkPlannerBatchMode();
+			tableEnv.registerCatalog(hiveCatalog.getName(), hiveCatalog);
+			tableEnv.useCatalog(hiveCatalog.getName());
+			Table query = tableEnv.sqlQuery("select x from db1.src where x > 1 and y <> 'c' order by x");
+			String[] explain = tableEnv.explain(query).split("==.*==\n");
+			String optimizedPlan = explain[2];
+			assertTrue(optimizedPlan, optimizedPlan.contains("FilterPushDown: "));
+			// the predicates are still evaluated after the scan
+			assertTrue(optimizedPlan, optimizedPlan.contains("where="));
+			List<Row> results = TableUtils.collectToList(query);
+			assertEquals("[2]", results.toString());
+		} finally {
+			hiveShell.execute("drop database db1 cascade");
+		}
+	}
+
+	@Test
+	public void testFilterPushDownSkipsRowsInScan() throws Exception {
+		// vector reader not available for 1.x and we're not testing orc for 2.0.x
+		Assume.assumeTrue(HiveVersionTestUtil.HIVE_210_OR_LATER);
+		hiveShell.execute("create database db1");
+		try {
+			hiveShell.execute("create table db1.src (x int,y string) stored as orc");
+			hiveShell.execute("insert into db1.src values (1,'a'),(2,'b'),(3,'c'),(4,null)");
+			ObjectPath tablePath = new ObjectPath("db1", "src");
+			CatalogTable catalogTable = (CatalogTable) hiveCatalog.getTable(tablePath);
+			HiveTableSource tableSource = new HiveTableSource(
+					new JobConf(hiveCatalog.getHiveConf()), tablePath, catalogTable);
+
+			// x > 1 and y is not null
+			List<Expression> predicates = new ArrayList<>();
+			predicates.add(new CallExpression(
+					BuiltInFunctionDefinitions.GREATER_THAN,
+					Arrays.asList(
+							new FieldReferenceExpression("x", DataTypes.INT(), 0, 0),
+							new ValueLiteralExpression(1)),
+					DataTypes.BOOLEAN()));
+			predicates.add(new CallExpression(
+					BuiltInFunctionDefinitions.IS_NOT_NULL,
+					Collections.singletonList(new FieldReferenceExpression("y", DataTypes.STRING(), 0, 1)),
+					DataTypes.BOOLEAN()));
+			HiveTableSource filteredSource = (HiveTableSource) tableSource.applyPredicate(predicates);
+			assertTrue(filteredSource.isFilterPushedDown());
+			// the predicates are still evaluated after the scan
+			assertEquals(2, predicates.size());
+
+			// only the matching rows leave the vectorized reader
+			HiveTableInputFormat inputFormat = filteredSource.getInputFormat(filteredSource.initAllPartitions(), false);
+			List<Integer> scanned = new ArrayList<>();
+			for (HiveTableInputSplit split : inputFormat.createInputSplits(1)) {
+				inputFormat.open(split);
+				while (!inputFormat.reachedEnd()) {
+					scanned.add(inputFormat.nextRecord(null).getInt(0));
+				}
+				inputFormat.close();
+			}
+			Collections.sort(scanned);
+			assertEquals(Arrays.asList(2, 3), scanned);
+		} finally {
+			hiveShell.execute("drop database db1 cascade");
+		}
+	}
+
 	private void testVectorReader(boolean fallback) throws Exception {
 		File tmpDir = Files.createTempDirectory(null).toFile();
 		Runtime.getRuntime().addShutdownHook(new Thread(() -> FileUtils.deleteDirectoryQuietly(tmpDir)));
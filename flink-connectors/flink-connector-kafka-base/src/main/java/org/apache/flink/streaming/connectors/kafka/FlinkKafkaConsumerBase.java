@@ -53,6 +53,7 @@ import org.apache.flink.streaming.connectors.kafka.internals.KafkaTopicPartition
 import org.apache.flink.streaming.connectors.kafka.internals.KafkaTopicPartitionAssigner;
 import org.apache.flink.streaming.connectors.kafka.internals.KafkaTopicPartitionStateSentinel;
 import org.apache.flink.streaming.connectors.kafka.internals.KafkaTopicsDescriptor;
+import org.apache.flink.streaming.connectors.kafka.internals.WatermarkAlignmentTracker;
 import org.apache.flink.util.ExceptionUtils;
 import org.apache.flink.util.SerializedValue;
 
@@ -167,6 +168,15 @@ public abstract class FlinkKafkaConsumerBase<T> extends RichParallelSourceFuncti
 	/** Timestamp to determine startup offsets; only relevant when startup mode is {@link StartupMode#TIMESTAMP}. */
 	private Long startupOffsetsTimestamp;
 
+	/** The name of the group of sources whose watermarks are aligned, or null if alignment is disabled. */
+	private String watermarkAlignmentGroup;
+
+	/** The maximum amount of event time that partitions may be ahead of the aligned watermark. */
+	private long maxWatermarkDrift;
+
+	/** The time after which partitions without records do not hold back the aligned watermark. */
+	private long partitionIdleTimeout;
+
 	// ------------------------------------------------------------------------
 	//  runtime state (used individually by each parallel subtask)
 	// ------------------------------------------------------------------------
@@ -357,6 +367,39 @@ public abstract class FlinkKafkaConsumerBase<T> extends RichParallelSourceFuncti
 		return this;
 	}
 
+	/**
+	 * Aligns the event time of this consumer with all other consumers of the given alignment
+	 * group, across all of their parallel subtasks. Partitions whose watermark is more than the
+	 * given drift ahead of the minimum watermark of the group are paused until the other
+	 * partitions caught up, so that fast partitions do not flood downstream window state.
+	 *
+	 * <p>The watermarks are exchanged through the JobMaster. Partitions that did not receive
+	 * records for longer than the given idle timeout, as well as subtasks that stopped
+	 * reporting watermarks for that long, do not hold back the aligned watermark.
+	 *
+	 * <p>Watermark alignment requires an {@link AssignerWithPeriodicWatermarks} and is only
+	 * supported by the universal Kafka consumer; it is ignored by the other consumers.
+	 *
+	 * @param alignmentGroup The name of the group of consumers whose watermarks are aligned.
+	 * @param maxWatermarkDrift The maximum amount of event time (in milliseconds) that partitions
+	 *                          may be ahead of the minimum watermark of the group.
+	 * @param partitionIdleTimeout The time (in milliseconds) after which partitions without
+	 *                             records are considered idle.
+	 * @return The consumer object, to allow function chaining.
+	 */
+	public FlinkKafkaConsumerBase<T> setWatermarkAlignment(
+			String alignmentGroup,
+			long maxWatermarkDrift,
+			long partitionIdleTimeout) {
+		checkArgument(maxWatermarkDrift >= 0, "The maximum watermark drift must not be negative.");
+		checkArgument(partitionIdleTimeout > 0, "The partition idle timeout must be positive.");
+
+		this.watermarkAlignmentGroup = checkNotNull(alignmentGroup);
+		this.maxWatermarkDrift = maxWatermarkDrift;
+		this.partitionIdleTimeout = partitionIdleTimeout;
+		return this;
+	}
+
 	/**
 	 * Specifies the consumer to start reading from the earliest offset for all partitions.
 	 * This lets the consumer ignore any committed group offsets in Zookeeper / Kafka brokers.
@@ -709,18 +752,50 @@ public abstract class FlinkKafkaConsumerBase<T> extends RichParallelSourceFuncti
 			return;
 		}
 
-		// depending on whether we were restored with the current state version (1.3),
-		// remaining logic branches off into 2 paths:
-		//  1) New state - partition discovery loop executed as separate thread, with this
-		//                 thread running the main fetcher loop
-		//  2) Old state - partition discovery is disabled and only the main fetcher loop is executed
-		if (discoveryIntervalMillis == PARTITION_DISCOVERY_DISABLED) {
-			kafkaFetcher.runFetchLoop();
-		} else {
-			runWithPartitionDiscovery();
+		final WatermarkAlignmentTracker watermarkAlignmentTracker = createWatermarkAlignmentTracker();
+		try {
+			// depending on whether we were restored with the current state version (1.3),
+			// remaining logic branches off into 2 paths:
+			//  1) New state - partition discovery loop executed as separate thread, with this
+			//                 thread running the main fetcher loop
+			//  2) Old state - partition discovery is disabled and only the main fetcher loop is executed
+			if (discoveryIntervalMillis == PARTITION_DISCOVERY_DISABLED) {
+				kafkaFetcher.runFetchLoop();
+			} else {
+				runWithPartitionDiscovery();
+			}
+		} finally {
+			if (watermarkAlignmentTracker != null) {
+				watermarkAlignmentTracker.close();
+			}
 		}
 	}
 
+	private WatermarkAlignmentTracker createWatermarkAlignmentTracker() {
+		if (watermarkAlignmentGroup == null) {
+			return null;
+		}
+		if (periodicWatermarkAssigner == null) {
+			throw new IllegalStateException("Watermark alignment requires an AssignerWithPeriodicWatermarks.");
+		}
+		if (!kafkaFetcher.supportsWatermarkAlignment()) {
+			LOG.warn("Consumer subtask {} ignores the watermark alignment, because the fetcher does not support it.",
+				getRuntimeContext().getIndexOfThisSubtask());
+			return null;
+		}
+
+		StreamingRuntimeContext runtimeContext = (StreamingRuntimeContext) getRuntimeContext();
+		WatermarkAlignmentTracker tracker = new WatermarkAlignmentTracker(
+			runtimeContext.getGlobalAggregateManager(),
+			watermarkAlignmentGroup,
+			// the task names of different sources of a group may be the same
+			runtimeContext.getOperatorUniqueID() + "-" + runtimeContext.getIndexOfThisSubtask(),
+			maxWatermarkDrift,
+			partitionIdleTimeout);
+		kafkaFetcher.enableWatermarkAlignment(tracker, partitionIdleTimeout);
+		return tracker;
+	}
+
 	private void runWithPartitionDiscovery() throws Exception {
 		final AtomicReference<Exception> discoveryLoopErrorRef = new AtomicReference<>();
 		createAndStartDiscoveryLoop(discoveryLoopErrorRef);
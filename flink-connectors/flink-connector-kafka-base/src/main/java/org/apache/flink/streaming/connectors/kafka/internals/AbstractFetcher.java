@@ -47,6 +47,7 @@ import static org.apache.flink.streaming.connectors.kafka.internals.metrics.Kafk
 import static org.apache.flink.streaming.connectors.kafka.internals.metrics.KafkaConsumerMetricConstants.OFFSETS_BY_PARTITION_METRICS_GROUP;
 import static org.apache.flink.streaming.connectors.kafka.internals.metrics.KafkaConsumerMetricConstants.OFFSETS_BY_TOPIC_METRICS_GROUP;
 import static org.apache.flink.util.Preconditions.checkNotNull;
+import static org.apache.flink.util.Preconditions.checkState;
 
 /**
  * Base class for all fetchers, which implement the connections to Kafka brokers and
@@ -112,6 +113,12 @@ public abstract class AbstractFetcher<T, KPH> {
 	/** Only relevant for punctuated watermarks: The current cross partition watermark. */
 	private volatile long maxWatermarkSoFar = Long.MIN_VALUE;
 
+	/** Only relevant for periodic watermarks: The emitter of the cross partition watermark. */
+	private final PeriodicWatermarkEmitter<KPH> periodicEmitter;
+
+	/** The tracker of the aligned watermark, or null if watermark alignment is disabled. */
+	private volatile WatermarkAlignmentTracker watermarkAlignmentTracker;
+
 	// ------------------------------------------------------------------------
 	//  Metrics
 	// ------------------------------------------------------------------------
@@ -202,14 +209,15 @@ public abstract class AbstractFetcher<T, KPH> {
 
 		// if we have periodic watermarks, kick off the interval scheduler
 		if (timestampWatermarkMode == PERIODIC_WATERMARKS) {
-			@SuppressWarnings("unchecked")
-			PeriodicWatermarkEmitter periodicEmitter = new PeriodicWatermarkEmitter(
+			periodicEmitter = new PeriodicWatermarkEmitter<>(
 					subscribedPartitionStates,
 					sourceContext,
 					processingTimeProvider,
 					autoWatermarkInterval);
 
 			periodicEmitter.start();
+		} else {
+			periodicEmitter = null;
 		}
 	}
 
@@ -260,6 +268,60 @@ public abstract class AbstractFetcher<T, KPH> {
 		return subscribedPartitionStates;
 	}
 
+	// ------------------------------------------------------------------------
+	//  Watermark alignment
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Checks whether the version-specific fetcher can pause the consumption of partitions that
+	 * are ahead of the aligned watermark.
+	 */
+	public boolean supportsWatermarkAlignment() {
+		return false;
+	}
+
+	/**
+	 * Enables the alignment of the partition watermarks with the watermarks of other subtasks. The
+	 * local watermark of all non-idle partitions is periodically reported to the given tracker, and
+	 * partitions whose watermark is ahead of the tracker's maximum aligned watermark are paused.
+	 *
+	 * <p>Must be called before {@link #runFetchLoop()}.
+	 *
+	 * @param tracker The tracker of the aligned watermark.
+	 * @param partitionIdleTimeout The time after which partitions without records are excluded
+	 *                             from the local watermark that is reported to the tracker.
+	 */
+	public void enableWatermarkAlignment(WatermarkAlignmentTracker tracker, long partitionIdleTimeout) {
+		checkState(supportsWatermarkAlignment(), "The fetcher does not support watermark alignment.");
+		checkState(periodicEmitter != null, "Watermark alignment requires periodic watermarks.");
+
+		this.watermarkAlignmentTracker = checkNotNull(tracker);
+		periodicEmitter.enableAlignment(tracker, partitionIdleTimeout);
+	}
+
+	/**
+	 * Checks whether the current watermark of the given partition is ahead of the aligned
+	 * watermark, so that its consumption should be paused.
+	 */
+	protected final boolean isAheadOfAlignedWatermark(KafkaTopicPartitionState<KPH> partition) {
+		final WatermarkAlignmentTracker tracker = watermarkAlignmentTracker;
+		if (tracker == null) {
+			return false;
+		}
+
+		final long maxAlignedWatermark = tracker.getMaxAlignedWatermark();
+		if (maxAlignedWatermark == Long.MAX_VALUE) {
+			return false;
+		}
+
+		final long currentWatermark;
+		//noinspection SynchronizationOnLocalVariableOrMethodParameter
+		synchronized (partition) {
+			currentWatermark = ((KafkaTopicPartitionStateWithPeriodicWatermarks<?, ?>) partition).getCurrentWatermarkTimestamp();
+		}
+		return currentWatermark > maxAlignedWatermark;
+	}
+
 	// ------------------------------------------------------------------------
 	//  Core fetcher work methods
 	// ------------------------------------------------------------------------
@@ -672,6 +734,9 @@ public abstract class AbstractFetcher<T, KPH> {
 	/**
 	 * The periodic watermark emitter. In its given interval, it checks all partitions for
 	 * the current event time watermark, and possibly emits the next watermark.
+	 *
+	 * <p>If watermark alignment is enabled, it also reports the minimum watermark of all
+	 * partitions that are not idle to the {@link WatermarkAlignmentTracker}.
 	 */
 	private static class PeriodicWatermarkEmitter<KPH> implements ProcessingTimeCallback {
 
@@ -685,6 +750,10 @@ public abstract class AbstractFetcher<T, KPH> {
 
 		private long lastWatermarkTimestamp;
 
+		private volatile WatermarkAlignmentTracker alignmentTracker;
+
+		private volatile long partitionIdleTimeout;
+
 		//-------------------------------------------------
 
 		PeriodicWatermarkEmitter(
@@ -705,10 +774,19 @@ public abstract class AbstractFetcher<T, KPH> {
 			timerService.registerTimer(timerService.getCurrentProcessingTime() + interval, this);
 		}
 
+		void enableAlignment(WatermarkAlignmentTracker alignmentTracker, long partitionIdleTimeout) {
+			this.partitionIdleTimeout = partitionIdleTimeout;
+			this.alignmentTracker = alignmentTracker;
+		}
+
 		@Override
 		public void onProcessingTime(long timestamp) throws Exception {
 
+			final WatermarkAlignmentTracker alignmentTracker = this.alignmentTracker;
+			final long currentTime = timerService.getCurrentProcessingTime();
+
 			long minAcrossAll = Long.MAX_VALUE;
+			long minAcrossActive = Long.MAX_VALUE;
 			boolean isEffectiveMinAggregation = false;
 			for (KafkaTopicPartitionState<?> state : allPartitions) {
 
@@ -722,6 +800,15 @@ public abstract class AbstractFetcher<T, KPH> {
 
 				minAcrossAll = Math.min(minAcrossAll, curr);
 				isEffectiveMinAggregation = true;
+
+				if (alignmentTracker != null && !state.checkIdle(currentTime, partitionIdleTimeout)) {
+					minAcrossActive = Math.min(minAcrossActive, curr);
+				}
+			}
+
+			// share the watermark of the active partitions with the other subtasks
+			if (alignmentTracker != null) {
+				alignmentTracker.reportWatermark(minAcrossActive);
 			}
 
 			// emit next watermark, if there is one
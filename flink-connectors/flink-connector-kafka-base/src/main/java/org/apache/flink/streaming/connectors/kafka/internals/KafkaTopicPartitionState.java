@@ -46,6 +46,15 @@ public class KafkaTopicPartitionState<KPH> {
 	/** The offset of the Kafka partition that has been committed. */
 	private volatile long committedOffset;
 
+	/** Whether the consumption of the partition is paused because it is ahead of the aligned watermark. */
+	private volatile boolean alignmentPaused;
+
+	/** The offset at the last time the partition was observed to be active, used for idleness detection. */
+	private long lastActiveOffset;
+
+	/** The processing time at which the partition was last observed to be active. */
+	private long lastActiveTime = Long.MIN_VALUE;
+
 	// ------------------------------------------------------------------------
 
 	public KafkaTopicPartitionState(KafkaTopicPartition partition, KPH kafkaPartitionHandle) {
@@ -106,6 +115,31 @@ public class KafkaTopicPartitionState<KPH> {
 		return committedOffset;
 	}
 
+	public final void setAlignmentPaused(boolean alignmentPaused) {
+		this.alignmentPaused = alignmentPaused;
+	}
+
+	public final boolean isAlignmentPaused() {
+		return alignmentPaused;
+	}
+
+	/**
+	 * Checks whether the partition has neither emitted records nor been paused for longer than the
+	 * given timeout. Must be called periodically and by a single thread only.
+	 *
+	 * @param currentTime The current processing time.
+	 * @param idleTimeout The time after which an inactive partition is considered idle.
+	 */
+	public final boolean checkIdle(long currentTime, long idleTimeout) {
+		long currentOffset = offset;
+		if (lastActiveTime == Long.MIN_VALUE || currentOffset != lastActiveOffset || alignmentPaused) {
+			lastActiveOffset = currentOffset;
+			lastActiveTime = currentTime;
+			return false;
+		}
+		return currentTime - lastActiveTime > idleTimeout;
+	}
+
 	// ------------------------------------------------------------------------
 
 	@Override
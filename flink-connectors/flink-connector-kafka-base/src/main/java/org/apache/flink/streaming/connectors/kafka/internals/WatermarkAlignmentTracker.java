@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.connectors.kafka.internals;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.api.common.functions.AggregateFunction;
+import org.apache.flink.runtime.taskexecutor.GlobalAggregateManager;
+import org.apache.flink.runtime.util.ExecutorThreadFactory;
+import org.apache.flink.util.InstantiationUtil;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Tracks the minimum watermark of all subtasks that belong to the same watermark alignment group
+ * and derives the maximum watermark up to which partitions may be consumed, i.e., the global
+ * minimum plus the maximum allowed drift. The watermarks are shared through the
+ * {@link GlobalAggregateManager} of the JobMaster.
+ *
+ * <p>Subtasks report {@link Long#MAX_VALUE} while all of their partitions are idle, and
+ * subtasks that have not reported for longer than the update timeout are ignored, so that idle
+ * or finished subtasks do not hold back the alignment of the others.
+ *
+ * <p>The reports are sent asynchronously by a dedicated thread, because the updates of global
+ * aggregates are blocking remote calls. At most one report is in flight at any time.
+ */
+@Internal
+public class WatermarkAlignmentTracker implements AutoCloseable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(WatermarkAlignmentTracker.class);
+
+	private final GlobalAggregateManager aggregateManager;
+
+	private final String aggregateName;
+
+	private final String subtaskId;
+
+	private final WatermarkAggregateFunction aggregateFunction;
+
+	private final long maxWatermarkDrift;
+
+	private final ExecutorService executor;
+
+	private final AtomicBoolean updateInFlight = new AtomicBoolean();
+
+	/** The watermark up to which partitions may be consumed. */
+	private volatile long maxAlignedWatermark = Long.MAX_VALUE;
+
+	public WatermarkAlignmentTracker(
+			GlobalAggregateManager aggregateManager,
+			String aggregateName,
+			String subtaskId,
+			long maxWatermarkDrift,
+			long updateTimeoutMillis) {
+		this(
+			aggregateManager,
+			aggregateName,
+			subtaskId,
+			maxWatermarkDrift,
+			updateTimeoutMillis,
+			Executors.newSingleThreadExecutor(
+				new ExecutorThreadFactory("Kafka watermark alignment for " + aggregateName)));
+	}
+
+	/**
+	 * Creates a tracker which sends the reports with the given executor.
+	 *
+	 * @param subtaskId The id of the reporting subtask, which must be unique within the alignment
+	 *                  group, e.g., the unique id of the operator and the index of the subtask.
+	 */
+	@VisibleForTesting
+	WatermarkAlignmentTracker(
+			GlobalAggregateManager aggregateManager,
+			String aggregateName,
+			String subtaskId,
+			long maxWatermarkDrift,
+			long updateTimeoutMillis,
+			ExecutorService executor) {
+		this.aggregateManager = checkNotNull(aggregateManager);
+		this.aggregateName = checkNotNull(aggregateName);
+		this.subtaskId = checkNotNull(subtaskId);
+		this.maxWatermarkDrift = maxWatermarkDrift;
+		this.aggregateFunction = new WatermarkAggregateFunction(updateTimeoutMillis);
+		this.executor = checkNotNull(executor);
+	}
+
+	/**
+	 * Gets the maximum watermark that partitions may reach before their consumption is paused,
+	 * or {@link Long#MAX_VALUE} if there is currently no limit.
+	 */
+	public long getMaxAlignedWatermark() {
+		return maxAlignedWatermark;
+	}
+
+	/**
+	 * Reports the local watermark of this subtask without blocking. The report is skipped if the
+	 * previous one is still in flight.
+	 */
+	public void reportWatermark(long localWatermark) {
+		if (updateInFlight.compareAndSet(false, true)) {
+			try {
+				executor.execute(() -> {
+					try {
+						long globalWatermark = updateWatermark(localWatermark);
+						maxAlignedWatermark = globalWatermark > Long.MAX_VALUE - maxWatermarkDrift
+							? Long.MAX_VALUE
+							: globalWatermark + maxWatermarkDrift;
+					} catch (Exception e) {
+						// never pause partitions based on a stale global watermark
+						LOG.warn("Could not update the global watermark of alignment group {}.", aggregateName, e);
+						maxAlignedWatermark = Long.MAX_VALUE;
+					} finally {
+						updateInFlight.set(false);
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				// the tracker has been closed
+				updateInFlight.set(false);
+			}
+		}
+	}
+
+	/**
+	 * Reports the local watermark of this subtask and returns the minimum watermark across the
+	 * alignment group, or {@link Long#MAX_VALUE} if no subtask has an active watermark.
+	 *
+	 * <p>This is a blocking remote call to the JobMaster, it must not be called from the task thread.
+	 */
+	long updateWatermark(long localWatermark) throws IOException, ClassNotFoundException {
+		WatermarkUpdate update = new WatermarkUpdate(subtaskId, localWatermark);
+		byte[] result = aggregateManager.updateGlobalAggregate(
+			aggregateName,
+			InstantiationUtil.serializeObject(update),
+			aggregateFunction);
+		return InstantiationUtil.<Long>deserializeObject(result, getClass().getClassLoader());
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	/** Watermark aggregation input. */
+	private static class WatermarkUpdate implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String id;
+		private final long watermark;
+
+		WatermarkUpdate(String id, long watermark) {
+			this.id = id;
+			this.watermark = watermark;
+		}
+	}
+
+	/** Last reported watermark of a subtask. */
+	private static class WatermarkState {
+		private long watermark;
+		private long lastUpdated;
+	}
+
+	/**
+	 * Aggregate function for computing the minimum watermark of the subtasks of an alignment group.
+	 */
+	private static class WatermarkAggregateFunction
+			implements AggregateFunction<byte[], Map<String, WatermarkState>, byte[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long updateTimeoutMillis;
+
+		WatermarkAggregateFunction(long updateTimeoutMillis) {
+			this.updateTimeoutMillis = updateTimeoutMillis;
+		}
+
+		@Override
+		public Map<String, WatermarkState> createAccumulator() {
+			return new HashMap<>();
+		}
+
+		@Override
+		public Map<String, WatermarkState> add(byte[] valueBytes, Map<String, WatermarkState> accumulator) {
+			final WatermarkUpdate value;
+			try {
+				value = InstantiationUtil.deserializeObject(valueBytes, getClass().getClassLoader());
+			} catch (IOException | ClassNotFoundException e) {
+				throw new RuntimeException(e);
+			}
+			WatermarkState state = accumulator.computeIfAbsent(value.id, id -> new WatermarkState());
+			state.watermark = value.watermark;
+			state.lastUpdated = System.currentTimeMillis();
+			return accumulator;
+		}
+
+		@Override
+		public byte[] getResult(Map<String, WatermarkState> accumulator) {
+			long currentTime = System.currentTimeMillis();
+			long globalWatermark = Long.MAX_VALUE;
+			for (WatermarkState state : accumulator.values()) {
+				// ignore subtasks that stopped reporting
+				if (currentTime - state.lastUpdated <= updateTimeoutMillis) {
+					globalWatermark = Math.min(globalWatermark, state.watermark);
+				}
+			}
+			try {
+				return InstantiationUtil.serializeObject(globalWatermark);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		@Override
+		public Map<String, WatermarkState> merge(Map<String, WatermarkState> a, Map<String, WatermarkState> b) {
+			// keep the latest report of every subtask
+			for (Map.Entry<String, WatermarkState> entry : b.entrySet()) {
+				a.merge(entry.getKey(), entry.getValue(),
+					(stateA, stateB) -> stateA.lastUpdated >= stateB.lastUpdated ? stateA : stateB);
+			}
+			return a;
+		}
+	}
+}
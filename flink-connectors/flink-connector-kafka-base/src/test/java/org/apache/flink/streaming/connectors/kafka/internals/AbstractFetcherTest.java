@@ -18,9 +18,12 @@
 
 package org.apache.flink.streaming.connectors.kafka.internals;
 
+import org.apache.flink.api.common.functions.AggregateFunction;
 import org.apache.flink.core.testutils.CheckedThread;
 import org.apache.flink.core.testutils.OneShotLatch;
 import org.apache.flink.metrics.groups.UnregisteredMetricsGroup;
+import org.apache.flink.runtime.concurrent.Executors;
+import org.apache.flink.runtime.taskexecutor.GlobalAggregateManager;
 import org.apache.flink.streaming.api.functions.AssignerWithPeriodicWatermarks;
 import org.apache.flink.streaming.api.functions.AssignerWithPunctuatedWatermarks;
 import org.apache.flink.streaming.api.functions.source.SourceFunction.SourceContext;
@@ -391,6 +394,63 @@ public class AbstractFetcherTest {
 		assertEquals(100, sourceContext.getLatestWatermark().getTimestamp());
 	}
 
+	@Test
+	public void testWatermarkAlignment() throws Exception {
+		final String testTopic = "test topic name";
+		Map<KafkaTopicPartition, Long> originalPartitions = new HashMap<>();
+		originalPartitions.put(new KafkaTopicPartition(testTopic, 7), KafkaTopicPartitionStateSentinel.LATEST_OFFSET);
+		originalPartitions.put(new KafkaTopicPartition(testTopic, 13), KafkaTopicPartitionStateSentinel.LATEST_OFFSET);
+
+		TestSourceContext<Long> sourceContext = new TestSourceContext<>();
+
+		TestProcessingTimeService processingTimeService = new TestProcessingTimeService();
+
+		TestFetcher<Long> fetcher = new TestFetcher<>(
+				sourceContext,
+				originalPartitions,
+				new SerializedValue<AssignerWithPeriodicWatermarks<Long>>(new PeriodicTestExtractor()),
+				null, /* punctuated watermarks assigner*/
+				processingTimeService,
+				10);
+
+		final KafkaTopicPartitionState<Object> part1 = fetcher.subscribedPartitionStates().get(0);
+		final KafkaTopicPartitionState<Object> part2 = fetcher.subscribedPartitionStates().get(1);
+
+		// another subtask of the alignment group is at watermark 50
+		final TestGlobalAggregateManager aggregateManager = new TestGlobalAggregateManager();
+		final WatermarkAlignmentTracker otherSubtask =
+			new WatermarkAlignmentTracker(aggregateManager, "group", "other", 10L, Long.MAX_VALUE);
+		otherSubtask.updateWatermark(50L);
+
+		// the reports are sent synchronously by the periodic watermark emitter
+		try (WatermarkAlignmentTracker tracker = new WatermarkAlignmentTracker(
+				aggregateManager, "group", "subtask", 10L, Long.MAX_VALUE, Executors.newDirectExecutorService())) {
+			fetcher.enableWatermarkAlignment(tracker, 100L);
+			assertFalse(fetcher.isAheadOfAlignedWatermark(part1));
+
+			fetcher.emitRecord(100L, part1, 1L);
+			fetcher.emitRecord(55L, part2, 1L);
+
+			// the local watermark 55 is reported, the aligned maximum is the global minimum 50 plus the drift
+			processingTimeService.setCurrentTime(10);
+			assertEquals(60L, tracker.getMaxAlignedWatermark());
+			assertTrue(fetcher.isAheadOfAlignedWatermark(part1));
+			assertFalse(fetcher.isAheadOfAlignedWatermark(part2));
+
+			// the other subtask catches up, this subtask now holds back the alignment group
+			part1.setAlignmentPaused(true);
+			otherSubtask.updateWatermark(200L);
+			processingTimeService.setCurrentTime(20);
+			assertEquals(65L, tracker.getMaxAlignedWatermark());
+			assertTrue(fetcher.isAheadOfAlignedWatermark(part1));
+
+			// partition 2 becomes idle and no longer holds back the paused partition 1
+			processingTimeService.setCurrentTime(130);
+			assertEquals(110L, tracker.getMaxAlignedWatermark());
+			assertFalse(fetcher.isAheadOfAlignedWatermark(part1));
+		}
+	}
+
 	@Test
 	public void testConcurrentPartitionsDiscoveryAndLoopFetching() throws Exception {
 		// test data
@@ -509,6 +569,11 @@ public class AbstractFetcherTest {
 			throw new UnsupportedOperationException();
 		}
 
+		@Override
+		public boolean supportsWatermarkAlignment() {
+			return true;
+		}
+
 		@Override
 		public Object createKafkaPartitionHandle(KafkaTopicPartition partition) {
 			return new Object();
@@ -527,6 +592,25 @@ public class AbstractFetcherTest {
 		}
 	}
 
+	/**
+	 * A {@link GlobalAggregateManager} that keeps the aggregates in memory.
+	 */
+	private static class TestGlobalAggregateManager implements GlobalAggregateManager {
+
+		private final Map<String, Object> accumulators = new HashMap<>();
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public synchronized <IN, ACC, OUT> OUT updateGlobalAggregate(
+				String aggregateName,
+				Object aggregand,
+				AggregateFunction<IN, ACC, OUT> aggregateFunction) {
+			ACC accumulator = (ACC) accumulators.computeIfAbsent(aggregateName, name -> aggregateFunction.createAccumulator());
+			accumulators.put(aggregateName, aggregateFunction.add((IN) aggregand, accumulator));
+			return aggregateFunction.getResult((ACC) accumulators.get(aggregateName));
+		}
+	}
+
 	// ------------------------------------------------------------------------
 
 	private static class PeriodicTestExtractor implements AssignerWithPeriodicWatermarks<Long> {
@@ -43,9 +43,11 @@ import javax.annotation.Nonnull;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.apache.flink.util.Preconditions.checkNotNull;
@@ -118,6 +120,12 @@ public class KafkaConsumerThread extends Thread {
 	/** Flag tracking whether the latest commit request has completed. */
 	private volatile boolean commitInProgress;
 
+	/** The partitions that the main thread requested to be paused; replaced as a whole on every change. */
+	private volatile Set<TopicPartition> partitionsToPause = Collections.emptySet();
+
+	/** The partitions that are currently paused in the Kafka consumer; only accessed by this thread. */
+	private Set<TopicPartition> pausedPartitions = Collections.emptySet();
+
 	public KafkaConsumerThread(
 			Logger log,
 			Handover handover,
@@ -247,6 +255,16 @@ public class KafkaConsumerThread extends Thread {
 					continue;
 				}
 
+				// pause and resume partitions as requested by the main thread
+				final Set<TopicPartition> requestedPausedPartitions = partitionsToPause;
+				if (requestedPausedPartitions != pausedPartitions) {
+					List<TopicPartition> partitionsToResume = new ArrayList<>(pausedPartitions);
+					partitionsToResume.removeAll(requestedPausedPartitions);
+					consumer.resume(partitionsToResume);
+					consumer.pause(requestedPausedPartitions);
+					pausedPartitions = requestedPausedPartitions;
+				}
+
 				// get the next batch of records, unless we did not manage to hand the old batch over
 				if (records == null) {
 					try {
@@ -350,6 +368,17 @@ public class KafkaConsumerThread extends Thread {
 		}
 	}
 
+	/**
+	 * Tells this thread to pause fetching the given partitions and to resume fetching all other
+	 * partitions. This method does not block, the partitions are paused and resumed before the
+	 * next fetch. Records that have already been fetched are still handed over.
+	 *
+	 * @param partitions The partitions to pause; must not be modified afterwards
+	 */
+	void setPartitionsToPause(Set<TopicPartition> partitions) {
+		this.partitionsToPause = checkNotNull(partitions);
+	}
+
 	// ------------------------------------------------------------------------
 
 	/**
@@ -401,6 +430,10 @@ public class KafkaConsumerThread extends Thread {
 			consumerTmp.assign(newPartitionAssignments);
 			reassignmentStarted = true;
 
+			// the assignment may reset the paused partitions; replacing the set of paused
+			// partitions with a copy makes the main fetch loop pause them again
+			pausedPartitions = new HashSet<>(pausedPartitions);
+
 			// old partitions should be seeked to their previous position
 			for (Map.Entry<TopicPartition, Long> oldPartitionToPosition : oldPartitionAssignmentsToPosition.entrySet()) {
 				consumerTmp.seek(oldPartitionToPosition.getKey(), oldPartitionToPosition.getValue());
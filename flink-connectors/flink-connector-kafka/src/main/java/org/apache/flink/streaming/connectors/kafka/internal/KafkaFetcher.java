@@ -39,7 +39,9 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -70,6 +72,12 @@ public class KafkaFetcher<T> extends AbstractFetcher<T, TopicPartition> {
 	/** Flag to mark the main work loop as alive. */
 	private volatile boolean running = true;
 
+	/**
+	 * The records of partitions that are paused because they are ahead of the aligned watermark,
+	 * in the order in which they were fetched. They are emitted once the partitions are resumed.
+	 */
+	private final Map<TopicPartition, List<ConsumerRecord<byte[], byte[]>>> pausedPartitionRecords = new HashMap<>();
+
 	// ------------------------------------------------------------------------
 
 	public KafkaFetcher(
@@ -136,19 +144,21 @@ public class KafkaFetcher<T> extends AbstractFetcher<T, TopicPartition> {
 					List<ConsumerRecord<byte[], byte[]>> partitionRecords =
 						records.records(partition.getKafkaPartitionHandle());
 
-					for (ConsumerRecord<byte[], byte[]> record : partitionRecords) {
-						final T value = deserializer.deserialize(record);
-
-						if (deserializer.isEndOfStream(value)) {
-							// end of stream signaled
-							running = false;
-							break;
+					if (partition.isAlignmentPaused()) {
+						if (isAheadOfAlignedWatermark(partition)) {
+							pausedPartitionRecords.get(partition.getKafkaPartitionHandle()).addAll(partitionRecords);
+							continue;
 						}
-
-						// emit the actual record. this also updates offset state atomically
-						// and deals with timestamps and watermark generation
-						emitRecord(value, partition, record.offset(), record);
+						// emit the records that have been held back first
+						List<ConsumerRecord<byte[], byte[]>> bufferedRecords = resumePartition(partition);
+						bufferedRecords.addAll(partitionRecords);
+						partitionRecords = bufferedRecords;
+					} else if (!partitionRecords.isEmpty() && isAheadOfAlignedWatermark(partition)) {
+						pausePartition(partition).addAll(partitionRecords);
+						continue;
 					}
+
+					emitRecords(partitionRecords, partition);
 				}
 			}
 		}
@@ -168,6 +178,52 @@ public class KafkaFetcher<T> extends AbstractFetcher<T, TopicPartition> {
 		}
 	}
 
+	private void emitRecords(
+			List<ConsumerRecord<byte[], byte[]>> partitionRecords,
+			KafkaTopicPartitionState<TopicPartition> partition) throws Exception {
+
+		for (ConsumerRecord<byte[], byte[]> record : partitionRecords) {
+			final T value = deserializer.deserialize(record);
+
+			if (deserializer.isEndOfStream(value)) {
+				// end of stream signaled
+				running = false;
+				break;
+			}
+
+			// emit the actual record. this also updates offset state atomically
+			// and deals with timestamps and watermark generation
+			emitRecord(value, partition, record.offset(), record);
+		}
+	}
+
+	/**
+	 * Pauses fetching the given partition, until it is no longer ahead of the aligned watermark.
+	 * The offsets of the records that are held back in the meantime are not checkpointed, so the
+	 * records are fetched again on recovery.
+	 *
+	 * @return The buffer for the records of the partition that are fetched while it is paused.
+	 */
+	private List<ConsumerRecord<byte[], byte[]>> pausePartition(KafkaTopicPartitionState<TopicPartition> partition) {
+		List<ConsumerRecord<byte[], byte[]>> buffer = new ArrayList<>();
+		pausedPartitionRecords.put(partition.getKafkaPartitionHandle(), buffer);
+		partition.setAlignmentPaused(true);
+		consumerThread.setPartitionsToPause(new HashSet<>(pausedPartitionRecords.keySet()));
+		return buffer;
+	}
+
+	/**
+	 * Resumes fetching the given partition.
+	 *
+	 * @return The records of the partition that have been fetched while it was paused.
+	 */
+	private List<ConsumerRecord<byte[], byte[]>> resumePartition(KafkaTopicPartitionState<TopicPartition> partition) {
+		List<ConsumerRecord<byte[], byte[]>> buffer = pausedPartitionRecords.remove(partition.getKafkaPartitionHandle());
+		partition.setAlignmentPaused(false);
+		consumerThread.setPartitionsToPause(new HashSet<>(pausedPartitionRecords.keySet()));
+		return buffer;
+	}
+
 	@Override
 	public void cancel() {
 		// flag the main thread to exit. A thread interrupt will come anyways.
@@ -196,6 +252,11 @@ public class KafkaFetcher<T> extends AbstractFetcher<T, TopicPartition> {
 	//  Implement Methods of the AbstractFetcher
 	// ------------------------------------------------------------------------
 
+	@Override
+	public boolean supportsWatermarkAlignment() {
+		return true;
+	}
+
 	@Override
 	public TopicPartition createKafkaPartitionHandle(KafkaTopicPartition partition) {
 		return new TopicPartition(partition.getTopic(), partition.getPartition());
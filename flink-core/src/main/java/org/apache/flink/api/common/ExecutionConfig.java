@@ -123,6 +123,10 @@ public class ExecutionConfig implements Serializable, Archiveable<ArchivedExecut
 
 	private boolean objectReuse = false;
 
+	private boolean generatedSerializers = false;
+
+	private boolean sharedBroadcastState = false;
+
 	private boolean autoTypeRegistrationEnabled = true;
 
 	private boolean forceAvro = false;
@@ -723,6 +727,72 @@ public class ExecutionConfig implements Serializable, Archiveable<ArchivedExecut
 	public boolean isObjectReuseEnabled() {
 		return objectReuse;
 	}
+
+	/**
+	 * Enables generated serializers for the records that DataStream programs exchange between their
+	 * operators. A serializer class with unrolled field accesses is generated and compiled for each
+	 * POJO and tuple type, instead of using the reflective POJO and tuple serializers. The serialized
+	 * format does not change, and types that cannot be handled fall back to the regular serializers.
+	 *
+	 * <p>The serializers are compiled with Janino, which must be on the classpath.
+	 */
+	@PublicEvolving
+	public ExecutionConfig enableGeneratedSerializers() {
+		generatedSerializers = true;
+		return this;
+	}
+
+	/**
+	 * Disables generated serializers. @see #enableGeneratedSerializers()
+	 */
+	@PublicEvolving
+	public ExecutionConfig disableGeneratedSerializers() {
+		generatedSerializers = false;
+		return this;
+	}
+
+	/**
+	 * Returns whether generated serializers are enabled. @see #enableGeneratedSerializers()
+	 */
+	@PublicEvolving
+	public boolean isGeneratedSerializersEnabled() {
+		return generatedSerializers;
+	}
+
+	/**
+	 * Enables shared broadcast state. The parallel instances of an operator that run in the same
+	 * TaskManager share the elements of each broadcast state as of the last checkpoint barrier
+	 * instead of holding one copy each, and only the first parallel instance writes the broadcast
+	 * state into checkpoints and savepoints. Each instance keeps its own changes since the barrier,
+	 * so it never sees the updates of the other instances.
+	 *
+	 * <p>Since the instances continue from the same elements after a barrier, shared broadcast
+	 * state requires the exactly-once checkpointing mode, and the updates of the broadcast state
+	 * must not depend on the order of the broadcast elements. Shared broadcast state does not
+	 * support null keys and values.
+	 */
+	@PublicEvolving
+	public ExecutionConfig enableSharedBroadcastState() {
+		sharedBroadcastState = true;
+		return this;
+	}
+
+	/**
+	 * Disables shared broadcast state. @see #enableSharedBroadcastState()
+	 */
+	@PublicEvolving
+	public ExecutionConfig disableSharedBroadcastState() {
+		sharedBroadcastState = false;
+		return this;
+	}
+
+	/**
+	 * Returns whether shared broadcast state is enabled. @see #enableSharedBroadcastState()
+	 */
+	@PublicEvolving
+	public boolean isSharedBroadcastStateEnabled() {
+		return sharedBroadcastState;
+	}
 	
 	/**
 	 * @deprecated The code analysis code has been removed and this method has no effect.
@@ -992,6 +1062,8 @@ public class ExecutionConfig implements Serializable, Archiveable<ArchivedExecut
 				forceKryo == other.forceKryo &&
 				disableGenericTypes == other.disableGenericTypes &&
 				objectReuse == other.objectReuse &&
+				generatedSerializers == other.generatedSerializers &&
+				sharedBroadcastState == other.sharedBroadcastState &&
 				autoTypeRegistrationEnabled == other.autoTypeRegistrationEnabled &&
 				forceAvro == other.forceAvro &&
 				Objects.equals(codeAnalysisMode, other.codeAnalysisMode) &&
@@ -1020,6 +1092,8 @@ public class ExecutionConfig implements Serializable, Archiveable<ArchivedExecut
 			forceKryo,
 			disableGenericTypes,
 			objectReuse,
+			generatedSerializers,
+			sharedBroadcastState,
 			autoTypeRegistrationEnabled,
 			forceAvro,
 			codeAnalysisMode,
@@ -1046,6 +1120,8 @@ public class ExecutionConfig implements Serializable, Archiveable<ArchivedExecut
 			", disableGenericTypes=" + disableGenericTypes +
 			", enableAutoGeneratedUids=" + enableAutoGeneratedUids +
 			", objectReuse=" + objectReuse +
+			", generatedSerializers=" + generatedSerializers +
+			", sharedBroadcastState=" + sharedBroadcastState +
 			", autoTypeRegistrationEnabled=" + autoTypeRegistrationEnabled +
 			", forceAvro=" + forceAvro +
 			", codeAnalysisMode=" + codeAnalysisMode +
@@ -1189,12 +1265,16 @@ public class ExecutionConfig implements Serializable, Archiveable<ArchivedExecut
 			.ifPresent(this::setParallelism);
 		configuration.getOptional(PipelineOptions.OBJECT_REUSE)
 			.ifPresent(o -> this.objectReuse = o);
+		configuration.getOptional(PipelineOptions.GENERATED_SERIALIZERS)
+			.ifPresent(g -> this.generatedSerializers = g);
 		configuration.getOptional(TaskManagerOptions.TASK_CANCELLATION_INTERVAL)
 			.ifPresent(this::setTaskCancellationInterval);
 		configuration.getOptional(TaskManagerOptions.TASK_CANCELLATION_TIMEOUT)
 			.ifPresent(this::setTaskCancellationTimeout);
 		configuration.getOptional(ExecutionOptions.SNAPSHOT_COMPRESSION)
 			.ifPresent(this::setUseSnapshotCompression);
+		configuration.getOptional(ExecutionOptions.SHARED_BROADCAST_STATE)
+			.ifPresent(s -> this.sharedBroadcastState = s);
 		RestartStrategies.fromConfiguration(configuration)
 			.ifPresent(this::setRestartStrategy);
 		configuration.getOptional(PipelineOptions.KRYO_DEFAULT_SERIALIZERS)
@@ -365,9 +365,17 @@ public final class PojoSerializer<T> extends TypeSerializer<T> {
 	}
 
 	@Override
-	@SuppressWarnings({"unchecked", "rawtypes"})
 	public T deserialize(DataInputView source) throws IOException {
-		int flags = source.readByte();
+		return deserializeWithFlags(source.readByte(), source);
+	}
+
+	/**
+	 * Deserializes a record whose flags have already been read from the source. This allows
+	 * serializers that are generated for the POJO class to fall back to this serializer for
+	 * subclasses.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public T deserializeWithFlags(int flags, DataInputView source) throws IOException {
 		if((flags & IS_NULL) != 0) {
 			return null;
 		}
@@ -950,15 +958,15 @@ public final class PojoSerializer<T> extends TypeSerializer<T> {
 	// Configuration access
 	// --------------------------------------------------------------------------------------------
 
-	Class<T> getPojoClass() {
+	public Class<T> getPojoClass() {
 		return clazz;
 	}
 
-	Field[] getFields() {
+	public Field[] getFields() {
 		return fields;
 	}
 
-	TypeSerializer<?>[] getFieldSerializers() {
+	public TypeSerializer<?>[] getFieldSerializers() {
 		return fieldSerializers;
 	}
 
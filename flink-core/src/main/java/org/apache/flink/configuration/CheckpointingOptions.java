@@ -152,4 +152,16 @@ public class CheckpointingOptions {
 		.withDescription(String.format("The default size of the write buffer for the checkpoint streams that write to file systems. " +
 			"The actual write buffer size is determined to be the maximum of the value of this option and option '%s'.", FS_SMALL_FILE_THRESHOLD.key()));
 
+	/**
+	 * The maximum number of incremental checkpoints that the file system state backend writes on top of a full
+	 * checkpoint, before it writes the next full checkpoint.
+	 */
+	@Documentation.Section(Documentation.Sections.EXPERT_STATE_BACKENDS)
+	public static final ConfigOption<Integer> FS_INCREMENTAL_MAX_DELTA_CHECKPOINTS = ConfigOptions
+		.key("state.backend.fs.incremental.max-delta-checkpoints")
+		.defaultValue(10)
+		.withDescription(String.format("The maximum number of incremental checkpoints that the file system state " +
+			"backend writes on top of a full checkpoint, if '%s' is enabled. Longer chains of incremental checkpoints " +
+			"write less data per checkpoint, but take longer to restore.", INCREMENTAL_CHECKPOINTS.key()));
+
 }
@@ -40,6 +40,15 @@ public class ExecutionOptions {
 			.defaultValue(false)
 		.withDescription("Tells if we should use compression for the state snapshot data or not");
 
+	public static final ConfigOption<Boolean> SHARED_BROADCAST_STATE =
+		ConfigOptions.key("execution.shared-broadcast-state")
+			.booleanType()
+			.defaultValue(false)
+			.withDescription("When enabled the parallel instances of an operator that run in the same TaskManager" +
+				" share the elements of each broadcast state as of the last checkpoint barrier, and only the first" +
+				" instance writes it into checkpoints. This requires the exactly-once checkpointing mode, and" +
+				" the updates of the broadcast state must not depend on the order of the broadcast elements.");
+
 	public static final ConfigOption<Duration> BUFFER_TIMEOUT =
 		ConfigOptions.key("execution.buffer-timeout")
 			.durationType()
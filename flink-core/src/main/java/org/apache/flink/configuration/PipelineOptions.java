@@ -160,6 +160,15 @@ public class PipelineOptions {
 				" maximum parallelism. The maximum parallelism specifies the upper limit for dynamic scaling and" +
 				" the number of key groups used for partitioned state.");
 
+	public static final ConfigOption<Boolean> GENERATED_SERIALIZERS =
+		key("pipeline.generated-serializers")
+			.booleanType()
+			.defaultValue(false)
+		.withDescription("When enabled the records of POJO and tuple types are exchanged between the operators" +
+			" of DataStream programs with serializers that are generated and compiled for each type, instead of" +
+			" the reflective POJO and tuple serializers. The serializers of state are not affected. Requires" +
+			" Janino on the classpath.");
+
 	public static final ConfigOption<Boolean> OBJECT_REUSE =
 		key("pipeline.object-reuse")
 			.booleanType()
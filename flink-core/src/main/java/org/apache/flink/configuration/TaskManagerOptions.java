@@ -200,6 +200,31 @@ public class TaskManagerOptions {
 			.withDeprecatedKeys("taskmanager.debug.memory.logIntervalMs")
 			.withDescription("The interval (in ms) for the log thread to log the current memory usage.");
 
+	/**
+	 * The directory in which the compiled classes of the generated code of table programs are cached
+	 * across jobs.
+	 */
+	public static final ConfigOption<String> COMPILED_CODE_CACHE_DIR =
+		key("taskmanager.codegen.compiled-cache.dir")
+			.stringType()
+			.noDefaultValue()
+			.withDescription("The directory in which the compiled classes of the generated code of table programs" +
+				" are cached, so that the same code is not compiled again by other jobs or TaskManagers. It can be a" +
+				" directory of any Flink file system, e.g. a local directory to share the classes between the jobs of a" +
+				" TaskManager, or a directory of a distributed file system to share them between all TaskManagers." +
+				" By default no classes are cached across jobs.");
+
+	/**
+	 * The maximum total size of the compiled classes in the {@link #COMPILED_CODE_CACHE_DIR}.
+	 */
+	public static final ConfigOption<MemorySize> COMPILED_CODE_CACHE_MAX_SIZE =
+		key("taskmanager.codegen.compiled-cache.max-size")
+			.memoryType()
+			.defaultValue(MemorySize.parse("256m"))
+			.withDescription("The maximum total size of the compiled classes in the directory of " +
+				COMPILED_CODE_CACHE_DIR.key() + ". When a TaskManager has written a class and the size is exceeded," +
+				" it deletes the oldest classes.");
+
 	// ------------------------------------------------------------------------
 	//  Managed Memory Options
 	// ------------------------------------------------------------------------
@@ -506,6 +531,19 @@ public class TaskManagerOptions {
 			.withDescription("Time we wait for the timers in milliseconds to finish all pending timer threads" +
 				" when the stream task is cancelled.");
 
+	/**
+	 * The length of a tick of the timing wheel that coalesces the processing-time timers of an operator.
+	 */
+	@Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER)
+	public static final ConfigOption<Long> TASK_PROCESSING_TIMERS_TICK = ConfigOptions
+			.key("task.processing-timers.tick")
+			.longType()
+			.defaultValue(0L)
+			.withDescription("The length of a tick in milliseconds of the timing wheel that coalesces the" +
+				" processing-time timers of an operator. The timers that are due in a tick fire together, at most" +
+				" one tick after their time, in a single mailbox action of the task. A value of 0 deactivates the" +
+				" timing wheel, and every timer is scheduled on its own.");
+
 	/**
 	 * The maximum number of bytes that a checkpoint alignment may buffer.
 	 * If the checkpoint alignment buffers more than the configured amount of
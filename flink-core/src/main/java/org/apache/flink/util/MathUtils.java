@@ -207,6 +207,22 @@ public final class MathUtils {
 		return in ^ Long.MIN_VALUE;
 	}
 
+	/**
+	 * Computes the greatest common divisor of two positive numbers, using the Euclidean algorithm.
+	 *
+	 * @param a the first number, must be positive.
+	 * @param b the second number, must be positive.
+	 * @return the greatest common divisor of both numbers.
+	 */
+	public static long greatestCommonDivisor(long a, long b) {
+		while (b != 0) {
+			final long remainder = a % b;
+			a = b;
+			b = remainder;
+		}
+		return a;
+	}
+
 	// ============================================================================================
 
 	/**
@@ -142,4 +142,13 @@ public class MathUtilTest {
 		Assert.assertEquals(42L | Long.MIN_VALUE, MathUtils.flipSignBit(42L));
 		Assert.assertEquals(-42L & Long.MAX_VALUE, MathUtils.flipSignBit(-42L));
 	}
+
+	@Test
+	public void testGreatestCommonDivisor() {
+		Assert.assertEquals(1L, MathUtils.greatestCommonDivisor(1L, 1L));
+		Assert.assertEquals(5L, MathUtils.greatestCommonDivisor(5L, 5L));
+		Assert.assertEquals(60_000L, MathUtils.greatestCommonDivisor(86_400_000L, 60_000L));
+		Assert.assertEquals(10L, MathUtils.greatestCommonDivisor(30L, 20L));
+		Assert.assertEquals(1L, MathUtils.greatestCommonDivisor(7L, 3L));
+	}
 }
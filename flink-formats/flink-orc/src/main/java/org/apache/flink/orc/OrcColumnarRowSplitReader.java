@@ -23,16 +23,22 @@ import org.apache.flink.orc.shim.OrcShim;
 import org.apache.flink.table.dataformat.BaseRow;
 import org.apache.flink.table.dataformat.ColumnarRow;
 import org.apache.flink.table.dataformat.vector.VectorizedColumnBatch;
+import org.apache.flink.table.dataformat.vector.filter.ColumnBatchFilter;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.orc.TypeDescription;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
 import java.util.List;
 
 /**
  * {@link OrcSplitReader} to read ORC files into {@link BaseRow}.
+ *
+ * <p>If a {@link ColumnBatchFilter} is given, it is evaluated on every batch, and only the rows
+ * which pass the filter are returned.
  */
 public class OrcColumnarRowSplitReader extends OrcSplitReader<BaseRow> {
 
@@ -41,6 +47,28 @@ public class OrcColumnarRowSplitReader extends OrcSplitReader<BaseRow> {
 
 	private final ColumnarRow row;
 
+	// the filter evaluated on every batch, null if all rows are returned
+	@Nullable
+	private final ColumnBatchFilter filter;
+
+	// the ids of the rows in the current batch which pass the filter
+	private final int[] selected;
+
+	public OrcColumnarRowSplitReader(
+			OrcShim shim,
+			Configuration conf,
+			TypeDescription schema,
+			int[] selectedFields,
+			ColumnBatchGenerator batchGenerator,
+			List<Predicate> conjunctPredicates,
+			int batchSize,
+			Path path,
+			long splitStart,
+			long splitLength) throws IOException {
+		this(shim, conf, schema, selectedFields, batchGenerator, conjunctPredicates, null, batchSize, path,
+				splitStart, splitLength);
+	}
+
 	public OrcColumnarRowSplitReader(
 			OrcShim shim,
 			Configuration conf,
@@ -48,6 +76,7 @@ public class OrcColumnarRowSplitReader extends OrcSplitReader<BaseRow> {
 			int[] selectedFields,
 			ColumnBatchGenerator batchGenerator,
 			List<Predicate> conjunctPredicates,
+			@Nullable ColumnBatchFilter filter,
 			int batchSize,
 			Path path,
 			long splitStart,
@@ -65,19 +94,28 @@ public class OrcColumnarRowSplitReader extends OrcSplitReader<BaseRow> {
 
 		this.columnarBatch = batchGenerator.generate(rowBatch);
 		this.row = new ColumnarRow(columnarBatch);
+		this.filter = filter;
+		this.selected = filter == null ? null : new int[rowBatch.getMaxSize()];
 	}
 
 	@Override
 	protected int fillRows() {
 		int size = rowBatch.size;
 		columnarBatch.setNumRows(size);
-		return size;
+		if (filter == null) {
+			return size;
+		}
+		for (int i = 0; i < size; i++) {
+			selected[i] = i;
+		}
+		return filter.filter(columnarBatch, selected, size);
 	}
 
 	@Override
 	public BaseRow nextRecord(BaseRow reuse) {
 		// return the next row
-		row.setRowId(this.nextRow++);
+		int rowId = this.nextRow++;
+		row.setRowId(filter == null ? rowId : selected[rowId]);
 		return row;
 	}
 
@@ -120,17 +120,17 @@ public abstract class OrcSplitReader<T> implements Closeable {
 	 */
 	private boolean ensureBatch() throws IOException {
 
-		if (nextRow >= rowsInBatch) {
+		while (nextRow >= rowsInBatch) {
 			// No more rows available in the Rows array.
 			nextRow = 0;
 			// Try to read the next batch if rows from the ORC file.
 			boolean moreRows = shim.nextBatch(orcRowsReader, rowBatch);
 
-			if (moreRows) {
-				// Load the data into the Rows array.
-				rowsInBatch = fillRows();
+			if (!moreRows) {
+				return false;
 			}
-			return moreRows;
+			// Load the data into the Rows array, all of the rows may be filtered out.
+			rowsInBatch = fillRows();
 		}
 		// there is at least one Row left in the Rows array.
 		return true;
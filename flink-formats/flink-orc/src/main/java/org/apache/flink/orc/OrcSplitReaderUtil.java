@@ -24,6 +24,7 @@ import org.apache.flink.orc.shim.OrcShim;
 import org.apache.flink.table.api.DataTypes;
 import org.apache.flink.table.dataformat.vector.ColumnVector;
 import org.apache.flink.table.dataformat.vector.VectorizedColumnBatch;
+import org.apache.flink.table.dataformat.vector.filter.ColumnBatchFilter;
 import org.apache.flink.table.types.DataType;
 import org.apache.flink.table.types.logical.ArrayType;
 import org.apache.flink.table.types.logical.CharType;
@@ -36,6 +37,8 @@ import org.apache.flink.table.types.logical.VarCharType;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.orc.TypeDescription;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
@@ -66,6 +69,27 @@ public class OrcSplitReaderUtil {
 			Path path,
 			long splitStart,
 			long splitLength) throws IOException {
+		return genPartColumnarRowReader(hiveVersion, conf, fullFieldNames, fullFieldTypes, partitionSpec,
+				selectedFields, conjunctPredicates, null, batchSize, path, splitStart, splitLength);
+	}
+
+	/**
+	 * Util for generating partitioned {@link OrcColumnarRowSplitReader}, which only returns the rows
+	 * passing the given filter. The columns of the filter are the positions in the selected fields.
+	 */
+	public static OrcColumnarRowSplitReader genPartColumnarRowReader(
+			String hiveVersion,
+			Configuration conf,
+			String[] fullFieldNames,
+			DataType[] fullFieldTypes,
+			Map<String, Object> partitionSpec,
+			int[] selectedFields,
+			List<OrcSplitReader.Predicate> conjunctPredicates,
+			@Nullable ColumnBatchFilter filter,
+			int batchSize,
+			Path path,
+			long splitStart,
+			long splitLength) throws IOException {
 
 		List<String> nonPartNames = Arrays.stream(fullFieldNames)
 				.filter(n -> !partitionSpec.containsKey(n))
@@ -97,6 +121,7 @@ public class OrcSplitReaderUtil {
 				selectedOrcFields,
 				gen,
 				conjunctPredicates,
+				filter,
 				batchSize,
 				path,
 				splitStart,
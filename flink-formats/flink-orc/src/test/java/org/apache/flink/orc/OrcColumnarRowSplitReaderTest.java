@@ -25,6 +25,9 @@ import org.apache.flink.table.api.DataTypes;
 import org.apache.flink.table.dataformat.BaseRow;
 import org.apache.flink.table.dataformat.Decimal;
 import org.apache.flink.table.dataformat.SqlTimestamp;
+import org.apache.flink.table.dataformat.vector.filter.ColumnBatchFilter;
+import org.apache.flink.table.dataformat.vector.filter.CompareOperator;
+import org.apache.flink.table.dataformat.vector.filter.LongCompareFilter;
 import org.apache.flink.table.types.DataType;
 import org.apache.flink.types.Row;
 
@@ -113,6 +116,51 @@ public class OrcColumnarRowSplitReaderTest {
 		assertEquals(1844737280400L, totalF0);
 	}
 
+	@Test
+	public void testReadFileWithFilter() throws IOException {
+		FileInputSplit[] splits = createSplits(testFileFlat, 4);
+
+		long expectedCnt = 0;
+		long expectedTotalF0 = 0;
+		long cnt = 0;
+		long totalF0 = 0;
+		for (FileInputSplit split : splits) {
+			try (OrcColumnarRowSplitReader reader = createReader(
+					new int[] {0, 1},
+					testSchemaFlat,
+					new HashMap<>(),
+					null,
+					split)) {
+				while (!reader.reachedEnd()) {
+					int f0 = reader.nextRecord(null).getInt(0);
+					if (f0 > 960400) {
+						expectedCnt++;
+						expectedTotalF0 += f0;
+					}
+				}
+			}
+
+			try (OrcColumnarRowSplitReader reader = createReader(
+					new int[] {0, 1},
+					testSchemaFlat,
+					new HashMap<>(),
+					new LongCompareFilter(0, CompareOperator.GREATER_THAN, 960400),
+					split)) {
+				while (!reader.reachedEnd()) {
+					BaseRow row = reader.nextRecord(null);
+					Assert.assertTrue(row.getInt(0) > 960400);
+					Assert.assertNotNull(row.getString(1).toString());
+					totalF0 += row.getInt(0);
+					cnt++;
+				}
+			}
+		}
+		// the ids of the file are 1 to 1920800
+		assertEquals(960400, cnt);
+		assertEquals(expectedCnt, cnt);
+		assertEquals(expectedTotalF0, totalF0);
+	}
+
 	@Test
 	public void testReadDecimalTypeFile() throws IOException {
 		FileInputSplit[] splits = createSplits(testFileDecimal, 1);
@@ -401,6 +449,15 @@ public class OrcColumnarRowSplitReaderTest {
 			DataType[] fullTypes,
 			Map<String, Object> partitionSpec,
 			FileInputSplit split) throws IOException {
+		return createReader(selectedFields, fullTypes, partitionSpec, null, split);
+	}
+
+	private OrcColumnarRowSplitReader createReader(
+			int[] selectedFields,
+			DataType[] fullTypes,
+			Map<String, Object> partitionSpec,
+			ColumnBatchFilter filter,
+			FileInputSplit split) throws IOException {
 		return OrcSplitReaderUtil.genPartColumnarRowReader(
 				"2.3.0",
 				new Configuration(),
@@ -410,6 +467,7 @@ public class OrcColumnarRowSplitReaderTest {
 				partitionSpec,
 				selectedFields,
 				new ArrayList<>(),
+				filter,
 				BATCH_SIZE,
 				split.getPath(),
 				split.getStart(),
@@ -62,9 +62,16 @@ public class RoundRobinOperatorStateRepartitioner implements OperatorStateRepart
 
 		// We only round-robin repartition UNION state if new parallelism equals to the old one.
 		if (newParallelism == oldParallelism) {
-			Map<String, List<Tuple2<StreamStateHandle, OperatorStateHandle.StateMetaInfo>>> unionStates = collectUnionStates(previousParallelSubtaskStates);
+			Map<String, List<Tuple2<StreamStateHandle, OperatorStateHandle.StateMetaInfo>>> unionStates =
+				collectStates(previousParallelSubtaskStates, OperatorStateHandle.Mode.UNION);
 
-			if (unionStates.isEmpty()) {
+			// Shared broadcast states are only written by one of the subtasks and need to be
+			// distributed to all others.
+			Map<String, List<Tuple2<StreamStateHandle, OperatorStateHandle.StateMetaInfo>>> partialBroadcastStates =
+				collectStates(previousParallelSubtaskStates, OperatorStateHandle.Mode.BROADCAST);
+			partialBroadcastStates.values().removeIf(stateLocations -> stateLocations.size() >= newParallelism);
+
+			if (unionStates.isEmpty() && partialBroadcastStates.isEmpty()) {
 				return previousParallelSubtaskStates;
 			}
 
@@ -72,6 +79,7 @@ public class RoundRobinOperatorStateRepartitioner implements OperatorStateRepart
 			mergeMapList = initMergeMapList(previousParallelSubtaskStates);
 
 			repartitionUnionState(unionStates, mergeMapList);
+			distributePartialBroadcastState(partialBroadcastStates, mergeMapList);
 		} else {
 
 			// Reorganize: group by (State Name -> StreamStateHandle + Offsets)
@@ -111,12 +119,13 @@ public class RoundRobinOperatorStateRepartitioner implements OperatorStateRepart
 	}
 
 	/**
-	 * Collect union states from given parallelSubtaskStates.
+	 * Collect the states with the given distribution mode from given parallelSubtaskStates.
 	 */
-	private Map<String, List<Tuple2<StreamStateHandle, OperatorStateHandle.StateMetaInfo>>> collectUnionStates(
-		List<List<OperatorStateHandle>> parallelSubtaskStates) {
+	private Map<String, List<Tuple2<StreamStateHandle, OperatorStateHandle.StateMetaInfo>>> collectStates(
+		List<List<OperatorStateHandle>> parallelSubtaskStates,
+		OperatorStateHandle.Mode mode) {
 
-		Map<String, List<Tuple2<StreamStateHandle, OperatorStateHandle.StateMetaInfo>>> unionStates =
+		Map<String, List<Tuple2<StreamStateHandle, OperatorStateHandle.StateMetaInfo>>> states =
 			new HashMap<>(parallelSubtaskStates.size());
 
 		for (List<OperatorStateHandle> subTaskState : parallelSubtaskStates) {
@@ -129,17 +138,17 @@ public class RoundRobinOperatorStateRepartitioner implements OperatorStateRepart
 					operatorStateHandle.getStateNameToPartitionOffsets().entrySet();
 
 				partitionOffsetEntries.stream()
-					.filter(entry -> entry.getValue().getDistributionMode().equals(OperatorStateHandle.Mode.UNION))
+					.filter(entry -> entry.getValue().getDistributionMode().equals(mode))
 					.forEach(entry -> {
 						List<Tuple2<StreamStateHandle, OperatorStateHandle.StateMetaInfo>> stateLocations =
-							unionStates.computeIfAbsent(entry.getKey(), k -> new ArrayList<>(parallelSubtaskStates.size() * partitionOffsetEntries.size()));
+							states.computeIfAbsent(entry.getKey(), k -> new ArrayList<>(parallelSubtaskStates.size() * partitionOffsetEntries.size()));
 
 						stateLocations.add(Tuple2.of(operatorStateHandle.getDelegateStateHandle(), entry.getValue()));
 					});
 			}
 		}
 
-		return unionStates;
+		return states;
 	}
 
 	/**
@@ -375,6 +384,38 @@ public class RoundRobinOperatorStateRepartitioner implements OperatorStateRepart
 		}
 	}
 
+	/**
+	 * Distribute BROADCAST state that only some subtasks wrote to the subtasks that did not write
+	 * it, when the parallelism is unchanged.
+	 */
+	private void distributePartialBroadcastState(
+			Map<String, List<Tuple2<StreamStateHandle, OperatorStateHandle.StateMetaInfo>>> broadcastState,
+			List<Map<StreamStateHandle, OperatorStateHandle>> mergeMapList) {
+
+		for (Map.Entry<String, List<Tuple2<StreamStateHandle, OperatorStateHandle.StateMetaInfo>>> e :
+				broadcastState.entrySet()) {
+
+			Tuple2<StreamStateHandle, OperatorStateHandle.StateMetaInfo> handleWithMetaInfo = e.getValue().get(0);
+
+			for (Map<StreamStateHandle, OperatorStateHandle> mergeMap : mergeMapList) {
+				boolean hasState = mergeMap.values().stream()
+					.anyMatch(handle -> handle.getStateNameToPartitionOffsets().containsKey(e.getKey()));
+				if (hasState) {
+					continue;
+				}
+
+				OperatorStateHandle operatorStateHandle = mergeMap.get(handleWithMetaInfo.f0);
+				if (operatorStateHandle == null) {
+					operatorStateHandle = new OperatorStreamStateHandle(
+						new HashMap<>(broadcastState.size()),
+						handleWithMetaInfo.f0);
+					mergeMap.put(handleWithMetaInfo.f0, operatorStateHandle);
+				}
+				operatorStateHandle.getStateNameToPartitionOffsets().put(e.getKey(), handleWithMetaInfo.f1);
+			}
+		}
+	}
+
 	private static final class GroupByStateNameResults {
 		private final EnumMap<OperatorStateHandle.Mode,
 				Map<String, List<Tuple2<StreamStateHandle, OperatorStateHandle.StateMetaInfo>>>> byMode;
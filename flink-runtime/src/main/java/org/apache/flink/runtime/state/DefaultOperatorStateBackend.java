@@ -36,6 +36,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import java.io.IOException;
 import java.io.Serializable;
@@ -97,6 +98,12 @@ public class DefaultOperatorStateBackend implements OperatorStateBackend {
 
 	private final AbstractSnapshotStrategy<OperatorStateHandle> snapshotStrategy;
 
+	/**
+	 * The scope in which broadcast states are shared, or null if they are not shared.
+	 */
+	@Nullable
+	private final SharedBroadcastStateRegistry.Scope sharedBroadcastStateScope;
+
 	public DefaultOperatorStateBackend(
 		ExecutionConfig executionConfig,
 		CloseableRegistry closeStreamOnCancelRegistry,
@@ -105,6 +112,26 @@ public class DefaultOperatorStateBackend implements OperatorStateBackend {
 		Map<String, PartitionableListState<?>> accessedStatesByName,
 		Map<String, BackendWritableBroadcastState<?, ?>> accessedBroadcastStatesByName,
 		AbstractSnapshotStrategy<OperatorStateHandle> snapshotStrategy) {
+		this(
+			executionConfig,
+			closeStreamOnCancelRegistry,
+			registeredOperatorStates,
+			registeredBroadcastStates,
+			accessedStatesByName,
+			accessedBroadcastStatesByName,
+			snapshotStrategy,
+			null);
+	}
+
+	public DefaultOperatorStateBackend(
+		ExecutionConfig executionConfig,
+		CloseableRegistry closeStreamOnCancelRegistry,
+		Map<String, PartitionableListState<?>> registeredOperatorStates,
+		Map<String, BackendWritableBroadcastState<?, ?>> registeredBroadcastStates,
+		Map<String, PartitionableListState<?>> accessedStatesByName,
+		Map<String, BackendWritableBroadcastState<?, ?>> accessedBroadcastStatesByName,
+		AbstractSnapshotStrategy<OperatorStateHandle> snapshotStrategy,
+		@Nullable SharedBroadcastStateRegistry.Scope sharedBroadcastStateScope) {
 		this.closeStreamOnCancelRegistry = closeStreamOnCancelRegistry;
 		this.executionConfig = executionConfig;
 		this.registeredOperatorStates = registeredOperatorStates;
@@ -112,6 +139,7 @@ public class DefaultOperatorStateBackend implements OperatorStateBackend {
 		this.accessedStatesByName = accessedStatesByName;
 		this.accessedBroadcastStatesByName = accessedBroadcastStatesByName;
 		this.snapshotStrategy = snapshotStrategy;
+		this.sharedBroadcastStateScope = sharedBroadcastStateScope;
 	}
 
 	public ExecutionConfig getExecutionConfig() {
@@ -136,6 +164,11 @@ public class DefaultOperatorStateBackend implements OperatorStateBackend {
 	@Override
 	public void dispose() {
 		IOUtils.closeQuietly(closeStreamOnCancelRegistry);
+		for (BackendWritableBroadcastState<?, ?> broadcastState : registeredBroadcastStates.values()) {
+			if (broadcastState instanceof SharedHeapBroadcastState) {
+				((SharedHeapBroadcastState<?, ?>) broadcastState).close();
+			}
+		}
 		registeredOperatorStates.clear();
 		registeredBroadcastStates.clear();
 	}
@@ -171,12 +204,15 @@ public class DefaultOperatorStateBackend implements OperatorStateBackend {
 			(BackendWritableBroadcastState<K, V>) registeredBroadcastStates.get(name);
 
 		if (broadcastState == null) {
-			broadcastState = new HeapBroadcastState<>(
-					new RegisteredBroadcastStateBackendMetaInfo<>(
-							name,
-							OperatorStateHandle.Mode.BROADCAST,
-							broadcastStateKeySerializer,
-							broadcastStateValueSerializer));
+			RegisteredBroadcastStateBackendMetaInfo<K, V> stateMetaInfo =
+				new RegisteredBroadcastStateBackendMetaInfo<>(
+						name,
+						OperatorStateHandle.Mode.BROADCAST,
+						broadcastStateKeySerializer,
+						broadcastStateValueSerializer);
+			broadcastState = sharedBroadcastStateScope == null
+				? new HeapBroadcastState<>(stateMetaInfo)
+				: SharedHeapBroadcastState.create(stateMetaInfo, sharedBroadcastStateScope);
 			registeredBroadcastStates.put(name, broadcastState);
 		} else {
 			// has restored state; check compatibility of new state access
@@ -22,8 +22,12 @@ import org.apache.flink.api.common.ExecutionConfig;
 import org.apache.flink.core.fs.CloseableRegistry;
 import org.apache.flink.util.IOUtils;
 
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -45,6 +49,10 @@ public class DefaultOperatorStateBackendBuilder implements
 	protected final Collection<OperatorStateHandle> restoreStateHandles;
 	@VisibleForTesting
 	protected final CloseableRegistry cancelStreamRegistry;
+	/** The scope in which broadcast states are shared, or null if they are not shared. */
+	@Nullable
+	@VisibleForTesting
+	protected final SharedBroadcastStateRegistry.Scope sharedBroadcastStateScope;
 
 
 	public DefaultOperatorStateBackendBuilder(
@@ -53,11 +61,22 @@ public class DefaultOperatorStateBackendBuilder implements
 		boolean asynchronousSnapshots,
 		Collection<OperatorStateHandle> stateHandles,
 		CloseableRegistry cancelStreamRegistry) {
+		this(userClassloader, executionConfig, asynchronousSnapshots, stateHandles, cancelStreamRegistry, null);
+	}
+
+	public DefaultOperatorStateBackendBuilder(
+		ClassLoader userClassloader,
+		ExecutionConfig executionConfig,
+		boolean asynchronousSnapshots,
+		Collection<OperatorStateHandle> stateHandles,
+		CloseableRegistry cancelStreamRegistry,
+		@Nullable SharedBroadcastStateRegistry.Scope sharedBroadcastStateScope) {
 		this.userClassloader = userClassloader;
 		this.executionConfig = executionConfig;
 		this.asynchronousSnapshots = asynchronousSnapshots;
 		this.restoreStateHandles = stateHandles;
 		this.cancelStreamRegistry = cancelStreamRegistry;
+		this.sharedBroadcastStateScope = sharedBroadcastStateScope;
 	}
 
 	@Override
@@ -81,6 +100,9 @@ public class DefaultOperatorStateBackendBuilder implements
 		);
 		try {
 			restoreOperation.restore();
+			if (sharedBroadcastStateScope != null) {
+				shareRestoredBroadcastStates(registeredBroadcastStates);
+			}
 		} catch (Exception e) {
 			IOUtils.closeQuietly(cancelStreamRegistryForBackend);
 			throw new BackendBuildingException("Failed when trying to restore operator state backend", e);
@@ -92,7 +114,27 @@ public class DefaultOperatorStateBackendBuilder implements
 			registeredBroadcastStates,
 			new HashMap<>(),
 			new HashMap<>(),
-			snapshotStrategy
+			snapshotStrategy,
+			sharedBroadcastStateScope
 		);
 	}
+
+	/**
+	 * Replaces the restored broadcast states with shared broadcast states.
+	 */
+	private void shareRestoredBroadcastStates(
+			Map<String, BackendWritableBroadcastState<?, ?>> registeredBroadcastStates) throws Exception {
+		List<SharedHeapBroadcastState<?, ?>> sharedStates = new ArrayList<>(registeredBroadcastStates.size());
+		try {
+			for (Map.Entry<String, BackendWritableBroadcastState<?, ?>> entry : registeredBroadcastStates.entrySet()) {
+				SharedHeapBroadcastState<?, ?> sharedState =
+					SharedHeapBroadcastState.restore(entry.getValue(), sharedBroadcastStateScope);
+				sharedStates.add(sharedState);
+				entry.setValue(sharedState);
+			}
+		} catch (Exception e) {
+			sharedStates.forEach(SharedHeapBroadcastState::close);
+			throw e;
+		}
+	}
 }
@@ -94,6 +94,15 @@ class DefaultOperatorStateBackendSnapshotStrategy extends AbstractSnapshotStrate
 			if (!registeredBroadcastStates.isEmpty()) {
 				for (Map.Entry<String, BackendWritableBroadcastState<?, ?>> entry : registeredBroadcastStates.entrySet()) {
 					BackendWritableBroadcastState<?, ?> broadcastState = entry.getValue();
+					if (broadcastState instanceof SharedHeapBroadcastState) {
+						SharedHeapBroadcastState<?, ?> sharedState = (SharedHeapBroadcastState<?, ?>) broadcastState;
+						// every instance continues from the shared elements at its barrier,
+						// but only the first parallel instance writes them
+						sharedState.rebase(checkpointId);
+						if (!sharedState.isSnapshotOwner()) {
+							continue;
+						}
+					}
 					if (null != broadcastState) {
 						broadcastState = broadcastState.deepCopy();
 					}
@@ -104,6 +113,10 @@ class DefaultOperatorStateBackendSnapshotStrategy extends AbstractSnapshotStrate
 			Thread.currentThread().setContextClassLoader(snapshotClassLoader);
 		}
 
+		if (registeredOperatorStatesDeepCopies.isEmpty() && registeredBroadcastStatesDeepCopies.isEmpty()) {
+			return DoneFuture.of(SnapshotResult.empty());
+		}
+
 		AsyncSnapshotCallable<SnapshotResult<OperatorStateHandle>> snapshotCallable =
 			new AsyncSnapshotCallable<SnapshotResult<OperatorStateHandle>>() {
 
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.runtime.execution.Environment;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * Registry of the broadcast states that are shared by the parallel instances of an operator which
+ * run in the same TaskManager process, see
+ * {@link org.apache.flink.api.common.ExecutionConfig#enableSharedBroadcastState()}.
+ *
+ * <p>Each shared state holds the latest immutable {@link Version} of the elements, which is
+ * published at a checkpoint barrier, and is reference counted by the
+ * {@link SharedHeapBroadcastState SharedHeapBroadcastStates} that use it. It is released once the
+ * last of them is disposed.
+ */
+@Internal
+public final class SharedBroadcastStateRegistry {
+
+	private static final SharedBroadcastStateRegistry INSTANCE = new SharedBroadcastStateRegistry();
+
+	private final Object lock = new Object();
+
+	/** The shared maps by the id of their scope and the name of the state. */
+	@GuardedBy("lock")
+	private final Map<String, SharedMap<?, ?>> sharedMaps = new HashMap<>();
+
+	@VisibleForTesting
+	SharedBroadcastStateRegistry() {}
+
+	public static SharedBroadcastStateRegistry getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Creates the scope of the shared broadcast states of the operators of a task, or returns
+	 * null if shared broadcast state is not enabled for the job.
+	 *
+	 * <p>The broadcast states are shared by name between the parallel instances of the same
+	 * execution attempt of a job vertex, so that the instances of a restarted attempt never join
+	 * the states of the failed one. The first parallel instance owns the snapshots of the shared
+	 * states.
+	 */
+	@Nullable
+	public static Scope createScope(Environment env) {
+		ExecutionConfig executionConfig = env.getExecutionConfig();
+		if (executionConfig == null || !executionConfig.isSharedBroadcastStateEnabled()) {
+			return null;
+		}
+		return new Scope(
+			INSTANCE,
+			env.getJobID() + "/" + env.getJobVertexId() + "/" + env.getTaskInfo().getAttemptNumber(),
+			env.getTaskInfo().getIndexOfThisSubtask() == 0);
+	}
+
+	@SuppressWarnings("unchecked")
+	<K, V> SharedMap<K, V> acquire(String id) {
+		synchronized (lock) {
+			SharedMap<K, V> sharedMap = (SharedMap<K, V>) sharedMaps.computeIfAbsent(id, k -> new SharedMap<>());
+			sharedMap.references++;
+			return sharedMap;
+		}
+	}
+
+	void release(String id, SharedMap<?, ?> sharedMap) {
+		synchronized (lock) {
+			checkState(sharedMaps.get(id) == sharedMap && sharedMap.references > 0, "Shared broadcast state %s was released too often.", id);
+			if (--sharedMap.references == 0) {
+				sharedMaps.remove(id);
+			}
+		}
+	}
+
+	@VisibleForTesting
+	int getNumberOfSharedStates() {
+		synchronized (lock) {
+			return sharedMaps.size();
+		}
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * The scope in which broadcast states are shared, i.e., the parallel instances of a job vertex
+	 * in one TaskManager.
+	 */
+	public static final class Scope {
+
+		private final SharedBroadcastStateRegistry registry;
+
+		private final String id;
+
+		private final boolean snapshotOwner;
+
+		@VisibleForTesting
+		Scope(SharedBroadcastStateRegistry registry, String id, boolean snapshotOwner) {
+			this.registry = checkNotNull(registry);
+			this.id = checkNotNull(id);
+			this.snapshotOwner = snapshotOwner;
+		}
+
+		SharedBroadcastStateRegistry getRegistry() {
+			return registry;
+		}
+
+		String getStateId(String stateName) {
+			return id + "/" + stateName;
+		}
+
+		/**
+		 * Returns whether the snapshots of this task contain the shared broadcast states.
+		 */
+		boolean isSnapshotOwner() {
+			return snapshotOwner;
+		}
+	}
+
+	/**
+	 * The shared contents of a broadcast state.
+	 */
+	static final class SharedMap<K, V> {
+
+		@GuardedBy("SharedBroadcastStateRegistry.lock")
+		private int references;
+
+		@GuardedBy("this")
+		@Nullable
+		private Version<K, V> latestVersion;
+
+		/**
+		 * Returns the version of the elements that an instance starts from. The given elements
+		 * become the shared initial version, unless another instance initialized it before. Since
+		 * all instances restore the same elements, they then share that version.
+		 *
+		 * <p>If another instance already published a version at a checkpoint barrier, the
+		 * returned version holds the given elements but is not shared.
+		 */
+		synchronized Version<K, V> initialVersion(Map<K, V> elements) {
+			if (latestVersion == null) {
+				latestVersion = new Version<>(Version.INITIAL_CHECKPOINT_ID, elements);
+				return latestVersion;
+			} else if (latestVersion.checkpointId == Version.INITIAL_CHECKPOINT_ID) {
+				return latestVersion;
+			} else {
+				return new Version<>(Version.INITIAL_CHECKPOINT_ID, elements);
+			}
+		}
+
+		/**
+		 * Returns the version of the elements at the barrier of the given checkpoint. The first
+		 * instance to reach the barrier publishes its elements as that version, the others share
+		 * it. Returns null if another instance already published a version of a later checkpoint.
+		 */
+		@Nullable
+		synchronized Version<K, V> publish(long checkpointId, Supplier<Map<K, V>> elements) {
+			checkState(latestVersion != null, "The shared broadcast state was not initialized.");
+			if (latestVersion.checkpointId < checkpointId) {
+				latestVersion = new Version<>(checkpointId, elements.get());
+			}
+			return latestVersion.checkpointId == checkpointId ? latestVersion : null;
+		}
+	}
+
+	/**
+	 * An immutable version of the elements of a shared broadcast state, at the barrier of a
+	 * checkpoint.
+	 */
+	static final class Version<K, V> {
+
+		/** The checkpoint id of the version that the instances start from. */
+		static final long INITIAL_CHECKPOINT_ID = -1L;
+
+		final long checkpointId;
+
+		final Map<K, V> elements;
+
+		Version(long checkpointId, Map<K, V> elements) {
+			this.checkpointId = checkpointId;
+			this.elements = Collections.unmodifiableMap(elements);
+		}
+	}
+}
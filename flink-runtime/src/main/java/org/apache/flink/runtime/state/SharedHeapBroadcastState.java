@@ -0,0 +1,348 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.api.common.state.BroadcastState;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.fs.FSDataOutputStream;
+import org.apache.flink.util.Preconditions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link BroadcastState Broadcast State} whose elements are shared with the other parallel
+ * instances of the operator in the same TaskManager, through the {@link SharedBroadcastStateRegistry}.
+ *
+ * <p>The state reads an immutable, shared {@link SharedBroadcastStateRegistry.Version version} of
+ * the elements, and keeps its own changes on top of it. The changes of an instance are thus never
+ * visible to the other instances before their own barrier. At the barrier of a checkpoint, the
+ * first instance publishes its elements as the version of that checkpoint, and every instance
+ * that reaches the same barrier drops its changes and continues from that version. This relies on
+ * all instances holding the same elements at the barrier, which the exactly-once checkpointing
+ * mode guarantees as long as the updates do not depend on the order of the broadcast elements.
+ *
+ * <p>Only the {@link SharedBroadcastStateRegistry.Scope#isSnapshotOwner() snapshot owner} writes
+ * its elements into snapshots. On restore, the state is distributed from the snapshot owner to all
+ * parallel instances, and they share the restored elements.
+ *
+ * @param <K> The key type of the elements in the {@link BroadcastState Broadcast State}.
+ * @param <V> The value type of the elements in the {@link BroadcastState Broadcast State}.
+ */
+public class SharedHeapBroadcastState<K, V> implements BackendWritableBroadcastState<K, V>, Closeable {
+
+	/**
+	 * Meta information of the state, including state name, assignment mode, and serializer.
+	 */
+	private RegisteredBroadcastStateBackendMetaInfo<K, V> stateMetaInfo;
+
+	private final SharedBroadcastStateRegistry registry;
+
+	private final String stateId;
+
+	private final boolean snapshotOwner;
+
+	private final SharedBroadcastStateRegistry.SharedMap<K, V> sharedMap;
+
+	/**
+	 * The shared version of the elements that this instance continues from.
+	 */
+	private SharedBroadcastStateRegistry.Version<K, V> version;
+
+	/**
+	 * The changes of this instance since its version, a null value marks a removed element.
+	 */
+	private final Map<K, V> changes;
+
+	private boolean released;
+
+	private SharedHeapBroadcastState(
+			RegisteredBroadcastStateBackendMetaInfo<K, V> stateMetaInfo,
+			SharedBroadcastStateRegistry.Scope scope,
+			Map<K, V> initialElements) {
+		this.stateMetaInfo = Preconditions.checkNotNull(stateMetaInfo);
+		this.registry = scope.getRegistry();
+		this.stateId = scope.getStateId(stateMetaInfo.getName());
+		this.snapshotOwner = scope.isSnapshotOwner();
+		this.sharedMap = registry.acquire(stateId);
+		this.version = sharedMap.initialVersion(initialElements);
+		this.changes = new HashMap<>();
+	}
+
+	/**
+	 * Creates a new, empty shared broadcast state.
+	 */
+	static <K, V> SharedHeapBroadcastState<K, V> create(
+			RegisteredBroadcastStateBackendMetaInfo<K, V> stateMetaInfo,
+			SharedBroadcastStateRegistry.Scope scope) {
+		return new SharedHeapBroadcastState<>(stateMetaInfo, scope, new HashMap<>());
+	}
+
+	/**
+	 * Creates a shared broadcast state from a restored broadcast state. The instances that restore
+	 * at the same time share the restored elements.
+	 */
+	static <K, V> SharedHeapBroadcastState<K, V> restore(
+			BackendWritableBroadcastState<K, V> restoredState,
+			SharedBroadcastStateRegistry.Scope scope) throws Exception {
+		Map<K, V> restoredElements = new HashMap<>();
+		for (Map.Entry<K, V> entry : restoredState.entries()) {
+			restoredElements.put(entry.getKey(), entry.getValue());
+		}
+		return new SharedHeapBroadcastState<>(restoredState.getStateMetaInfo(), scope, restoredElements);
+	}
+
+	/**
+	 * Returns whether this instance writes the state into snapshots.
+	 */
+	boolean isSnapshotOwner() {
+		return snapshotOwner;
+	}
+
+	/**
+	 * Continues from the shared version of the elements at the barrier of the given checkpoint,
+	 * publishing the elements of this instance if it is the first to reach the barrier. The
+	 * changes of this instance are kept if the other instances already passed a later barrier.
+	 */
+	void rebase(long checkpointId) {
+		SharedBroadcastStateRegistry.Version<K, V> checkpointVersion =
+			sharedMap.publish(checkpointId, this::copyElements);
+		if (checkpointVersion != null) {
+			version = checkpointVersion;
+			changes.clear();
+		}
+	}
+
+	@VisibleForTesting
+	Map<K, V> getSharedElements() {
+		return version.elements;
+	}
+
+	@Override
+	public void setStateMetaInfo(RegisteredBroadcastStateBackendMetaInfo<K, V> stateMetaInfo) {
+		this.stateMetaInfo = stateMetaInfo;
+	}
+
+	@Override
+	public RegisteredBroadcastStateBackendMetaInfo<K, V> getStateMetaInfo() {
+		return stateMetaInfo;
+	}
+
+	/**
+	 * Creates a deep copy of the current elements of the state, which is detached from the shared
+	 * elements. Without changes since the shared version, the copy uses the immutable elements of
+	 * that version.
+	 */
+	@Override
+	public HeapBroadcastState<K, V> deepCopy() {
+		return new HeapBroadcastState<>(
+			stateMetaInfo.deepCopy(),
+			changes.isEmpty() ? version.elements : copyElements());
+	}
+
+	private Map<K, V> copyElements() {
+		TypeSerializer<K> keySerializer = stateMetaInfo.getKeySerializer();
+		TypeSerializer<V> valueSerializer = stateMetaInfo.getValueSerializer();
+		Map<K, V> copy = new HashMap<>(version.elements.size() + changes.size());
+		for (Map.Entry<K, V> entry : entries()) {
+			copy.put(keySerializer.copy(entry.getKey()), valueSerializer.copy(entry.getValue()));
+		}
+		return copy;
+	}
+
+	@Override
+	public void clear() {
+		version = new SharedBroadcastStateRegistry.Version<>(version.checkpointId, Collections.emptyMap());
+		changes.clear();
+	}
+
+	@Override
+	public String toString() {
+		return "SharedHeapBroadcastState{" +
+				"stateMetaInfo=" + stateMetaInfo +
+				", stateId=" + stateId +
+				", snapshotOwner=" + snapshotOwner +
+				", checkpointId=" + version.checkpointId +
+				'}';
+	}
+
+	@Override
+	public long write(FSDataOutputStream out) throws IOException {
+		return deepCopy().write(out);
+	}
+
+	@Override
+	public V get(K key) {
+		return changes.containsKey(key) ? changes.get(key) : version.elements.get(key);
+	}
+
+	@Override
+	public void put(K key, V value) {
+		Preconditions.checkNotNull(key, "Shared broadcast state does not support null keys.");
+		Preconditions.checkNotNull(value, "Shared broadcast state does not support null values.");
+		changes.put(key, value);
+	}
+
+	@Override
+	public void putAll(Map<K, V> map) {
+		for (Map.Entry<K, V> entry : map.entrySet()) {
+			put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	@Override
+	public void remove(K key) {
+		if (changes.containsKey(key) || version.elements.containsKey(key)) {
+			changes.put(key, null);
+		}
+	}
+
+	@Override
+	public boolean contains(K key) {
+		return changes.containsKey(key) ? changes.get(key) != null : version.elements.containsKey(key);
+	}
+
+	@Override
+	public Iterator<Map.Entry<K, V>> iterator() {
+		return new ElementsIterator(true);
+	}
+
+	@Override
+	public Iterable<Map.Entry<K, V>> entries() {
+		return this::iterator;
+	}
+
+	@Override
+	public Iterable<Map.Entry<K, V>> immutableEntries() {
+		return () -> new ElementsIterator(false);
+	}
+
+	/**
+	 * Releases the reference of this instance to the shared elements.
+	 */
+	@Override
+	public void close() {
+		if (!released) {
+			released = true;
+			registry.release(stateId, sharedMap);
+		}
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Iterates over the changed elements of this instance, and then over the unchanged elements of
+	 * the shared version. Removing an element or setting its value changes the state.
+	 */
+	private final class ElementsIterator implements Iterator<Map.Entry<K, V>> {
+
+		private final boolean mutable;
+
+		private final Iterator<Map.Entry<K, V>> changesIterator = changes.entrySet().iterator();
+
+		private final Iterator<Map.Entry<K, V>> versionIterator = version.elements.entrySet().iterator();
+
+		private Map.Entry<K, V> next;
+
+		private Map.Entry<K, V> current;
+
+		private ElementsIterator(boolean mutable) {
+			this.mutable = mutable;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (next == null && changesIterator.hasNext()) {
+				Map.Entry<K, V> change = changesIterator.next();
+				if (change.getValue() != null) {
+					next = change;
+				}
+			}
+			while (next == null && versionIterator.hasNext()) {
+				Map.Entry<K, V> element = versionIterator.next();
+				if (!changes.containsKey(element.getKey())) {
+					next = element;
+				}
+			}
+			return next != null;
+		}
+
+		@Override
+		public Map.Entry<K, V> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			current = mutable ? new Element(next.getKey(), next.getValue()) :
+				new AbstractMap.SimpleImmutableEntry<>(next.getKey(), next.getValue());
+			next = null;
+			return current;
+		}
+
+		@Override
+		public void remove() {
+			if (!mutable) {
+				throw new UnsupportedOperationException("The entries are immutable.");
+			}
+			Preconditions.checkState(current != null, "No element to remove.");
+			// removed elements are marked in the changes, which does not modify the iterated changes
+			SharedHeapBroadcastState.this.remove(current.getKey());
+			current = null;
+		}
+	}
+
+	/**
+	 * An element of the state, setting its value puts the value into the state.
+	 */
+	private final class Element implements Map.Entry<K, V> {
+
+		private final K key;
+
+		private V value;
+
+		private Element(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public K getKey() {
+			return key;
+		}
+
+		@Override
+		public V getValue() {
+			return value;
+		}
+
+		@Override
+		public V setValue(V value) {
+			put(key, value);
+			V previous = this.value;
+			this.value = value;
+			return previous;
+		}
+	}
+}
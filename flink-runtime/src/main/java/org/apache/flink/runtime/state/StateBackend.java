@@ -176,4 +176,12 @@ public interface StateBackend extends java.io.Serializable {
 		String operatorIdentifier,
 		@Nonnull Collection<OperatorStateHandle> stateHandles,
 		CloseableRegistry cancelStreamRegistry) throws Exception;
+
+	/**
+	 * Whether the state backend uses the managed memory of the slots for its keyed state backends.
+	 * The operators in the same slot can then not rely on getting managed memory of their own.
+	 */
+	default boolean useManagedMemory() {
+		return false;
+	}
 }
@@ -0,0 +1,30 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state;
+
+import org.apache.flink.util.MathUtils;
+
+/**
+ * Marker interface for byte-order producing serializers of priority queue elements whose serialized form
+ * starts with the timestamp of the element, written as {@link MathUtils#flipSignBit(long)} of the timestamp
+ * in big-endian byte order. State backends can use this to reason about the time range of serialized
+ * elements without de-serializing them, e.g. to keep only the elements that are due soon in memory.
+ */
+public interface TimestampPrefixedSerializer {
+}
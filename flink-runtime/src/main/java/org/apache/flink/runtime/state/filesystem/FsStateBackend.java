@@ -40,6 +40,7 @@ import org.apache.flink.runtime.state.KeyedStateHandle;
 import org.apache.flink.runtime.state.LocalRecoveryConfig;
 import org.apache.flink.runtime.state.OperatorStateBackend;
 import org.apache.flink.runtime.state.OperatorStateHandle;
+import org.apache.flink.runtime.state.SharedBroadcastStateRegistry;
 import org.apache.flink.runtime.state.TaskStateManager;
 import org.apache.flink.runtime.state.heap.HeapKeyedStateBackendBuilder;
 import org.apache.flink.runtime.state.heap.HeapPriorityQueueSetFactory;
@@ -120,6 +121,14 @@ public class FsStateBackend extends AbstractFileStateBackend implements Configur
 	 * */
 	private final int writeBufferSize;
 
+	/** Switch to enable incremental checkpoints of the keyed state.
+	 * A value of 'undefined' means not yet configured, in which case the default will be used. */
+	private final TernaryBoolean incrementalCheckpoints;
+
+	/** The maximum number of incremental checkpoints on top of a full checkpoint.
+	 * A value of '-1' means not yet configured, in which case the default will be used. */
+	private final int maxDeltaCheckpoints;
+
 	// -----------------------------------------------------------------------
 
 	/**
@@ -333,10 +342,51 @@ public class FsStateBackend extends AbstractFileStateBackend implements Configur
 			int fileStateSizeThreshold,
 			int writeBufferSize,
 			TernaryBoolean asynchronousSnapshots) {
+		this(checkpointDirectory, defaultSavepointDirectory, fileStateSizeThreshold, writeBufferSize,
+				asynchronousSnapshots, TernaryBoolean.UNDEFINED);
+	}
+
+	/**
+	 * Creates a new state backend that stores its checkpoint data in the file system and location
+	 * defined by the given URI.
+	 *
+	 * <p>A file system for the file system scheme in the URI (e.g., 'file://', 'hdfs://', or 'S3://')
+	 * must be accessible via {@link FileSystem#get(URI)}.
+	 *
+	 * <p>For a state backend targeting HDFS, this means that the URI must either specify the authority
+	 * (host and port), or that the Hadoop configuration that describes that information must be in the
+	 * classpath.
+	 *
+	 * @param checkpointDirectory        The path to write checkpoint metadata to.
+	 * @param defaultSavepointDirectory  The path to write savepoints to. If null, the value from
+	 *                                   the runtime configuration will be used, or savepoint
+	 *                                   target locations need to be passed when triggering a savepoint.
+	 * @param fileStateSizeThreshold     State below this size will be stored as part of the metadata,
+	 *                                   rather than in files. If -1, the value configured in the
+	 *                                   runtime configuration will be used, or the default value (1KB)
+	 *                                   if nothing is configured.
+	 * @param writeBufferSize            Write buffer size used to serialize state. If -1, the value configured in the
+	 *                                   runtime configuration will be used, or the default value (4KB)
+	 *                                   if nothing is configured.
+	 * @param asynchronousSnapshots      Flag to switch between synchronous and asynchronous
+	 *                                   snapshot mode. If UNDEFINED, the value configured in the
+	 *                                   runtime configuration will be used.
+	 * @param incrementalCheckpoints     Flag to enable incremental checkpoints of the keyed state, which
+	 *                                   requires asynchronous snapshots. If UNDEFINED, the value configured
+	 *                                   in the runtime configuration will be used.
+	 */
+	public FsStateBackend(
+			URI checkpointDirectory,
+			@Nullable URI defaultSavepointDirectory,
+			int fileStateSizeThreshold,
+			int writeBufferSize,
+			TernaryBoolean asynchronousSnapshots,
+			TernaryBoolean incrementalCheckpoints) {
 
 		super(checkNotNull(checkpointDirectory, "checkpoint directory is null"), defaultSavepointDirectory);
 
 		checkNotNull(asynchronousSnapshots, "asynchronousSnapshots");
+		checkNotNull(incrementalCheckpoints, "incrementalCheckpoints");
 		checkArgument(fileStateSizeThreshold >= -1 && fileStateSizeThreshold <= MAX_FILE_STATE_THRESHOLD,
 				"The threshold for file state size must be in [-1, %s], where '-1' means to use " +
 						"the value from the deployment's configuration.", MAX_FILE_STATE_THRESHOLD);
@@ -347,6 +397,8 @@ public class FsStateBackend extends AbstractFileStateBackend implements Configur
 		this.fileStateThreshold = fileStateSizeThreshold;
 		this.writeBufferSize = writeBufferSize;
 		this.asynchronousSnapshots = asynchronousSnapshots;
+		this.incrementalCheckpoints = incrementalCheckpoints;
+		this.maxDeltaCheckpoints = -1;
 	}
 
 	/**
@@ -386,6 +438,13 @@ public class FsStateBackend extends AbstractFileStateBackend implements Configur
 			configuration.getInteger(CheckpointingOptions.FS_WRITE_BUFFER_SIZE);
 
 		this.writeBufferSize = Math.max(bufferSize, this.fileStateThreshold);
+
+		this.incrementalCheckpoints = original.incrementalCheckpoints.resolveUndefined(
+				configuration.getBoolean(CheckpointingOptions.INCREMENTAL_CHECKPOINTS));
+
+		this.maxDeltaCheckpoints = original.maxDeltaCheckpoints >= 0 ?
+				original.maxDeltaCheckpoints :
+				Math.max(0, configuration.getInteger(CheckpointingOptions.FS_INCREMENTAL_MAX_DELTA_CHECKPOINTS));
 	}
 
 	// ------------------------------------------------------------------------
@@ -459,6 +518,29 @@ public class FsStateBackend extends AbstractFileStateBackend implements Configur
 		return asynchronousSnapshots.getOrDefault(CheckpointingOptions.ASYNC_SNAPSHOTS.defaultValue());
 	}
 
+	/**
+	 * Gets whether incremental checkpoints of the keyed state are enabled. Incremental checkpoints are only
+	 * created with asynchronous snapshots.
+	 *
+	 * <p>If not explicitly configured, this is the default value of
+	 * {@link CheckpointingOptions#INCREMENTAL_CHECKPOINTS}.
+	 */
+	public boolean isIncrementalCheckpointsEnabled() {
+		return incrementalCheckpoints.getOrDefault(CheckpointingOptions.INCREMENTAL_CHECKPOINTS.defaultValue());
+	}
+
+	/**
+	 * Gets the maximum number of incremental checkpoints that are written on top of a full checkpoint.
+	 *
+	 * <p>If not explicitly configured, this is the default value of
+	 * {@link CheckpointingOptions#FS_INCREMENTAL_MAX_DELTA_CHECKPOINTS}.
+	 */
+	public int getMaxDeltaCheckpoints() {
+		return maxDeltaCheckpoints >= 0 ?
+			maxDeltaCheckpoints :
+			CheckpointingOptions.FS_INCREMENTAL_MAX_DELTA_CHECKPOINTS.defaultValue();
+	}
+
 	// ------------------------------------------------------------------------
 	//  Reconfiguration
 	// ------------------------------------------------------------------------
@@ -526,6 +608,8 @@ public class FsStateBackend extends AbstractFileStateBackend implements Configur
 			localRecoveryConfig,
 			priorityQueueSetFactory,
 			isUsingAsynchronousSnapshots(),
+			isIncrementalCheckpointsEnabled(),
+			getMaxDeltaCheckpoints(),
 			cancelStreamRegistry).build();
 	}
 
@@ -541,7 +625,8 @@ public class FsStateBackend extends AbstractFileStateBackend implements Configur
 			env.getExecutionConfig(),
 			isUsingAsynchronousSnapshots(),
 			stateHandles,
-			cancelStreamRegistry).build();
+			cancelStreamRegistry,
+			SharedBroadcastStateRegistry.createScope(env)).build();
 	}
 
 	// ------------------------------------------------------------------------
@@ -554,6 +639,7 @@ public class FsStateBackend extends AbstractFileStateBackend implements Configur
 				"checkpoints: '" + getCheckpointPath() +
 				"', savepoints: '" + getSavepointPath() +
 				"', asynchronous: " + asynchronousSnapshots +
+				", incremental: " + incrementalCheckpoints +
 				", fileStateThreshold: " + fileStateThreshold + ")";
 	}
 }
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Base class for the {@link StateMap}s of a {@link CopyOnWriteStateTable}. Implementations provide snapshots with
+ * copy-on-write isolation, i.e. snapshots are created synchronously and can be written asynchronously while the map
+ * is modified, and can track changes for incremental snapshots.
+ *
+ * @param <K> type of key
+ * @param <N> type of namespace
+ * @param <S> type of state
+ */
+abstract class AbstractCopyOnWriteStateMap<K, N, S> extends StateMap<K, N, S> {
+
+	/**
+	 * Creates a snapshot of this map with copy-on-write isolation. This method must be called by the same Thread that
+	 * does modifications to the map.
+	 */
+	@Nonnull
+	@Override
+	public abstract AbstractCopyOnWriteStateMapSnapshot<K, N, S, ? extends AbstractCopyOnWriteStateMap<K, N, S>> stateSnapshot();
+
+	/**
+	 * Enables the tracking of changes for incremental snapshots. From then on, every access to a mapping updates its
+	 * state version, and removed mappings are remembered as tombstones until {@link #discardRemovedEntriesBefore(int)}.
+	 */
+	abstract void enableChangeTracking();
+
+	/**
+	 * Discards the tombstones of mappings that were removed before the given version of this map, because they are
+	 * contained in a confirmed snapshot.
+	 */
+	abstract void discardRemovedEntriesBefore(int version);
+}
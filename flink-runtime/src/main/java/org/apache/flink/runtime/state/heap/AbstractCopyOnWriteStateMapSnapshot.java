@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.memory.DataOutputView;
+import org.apache.flink.runtime.state.StateSnapshotTransformer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Base class for the snapshots of an {@link AbstractCopyOnWriteStateMap}.
+ *
+ * @param <K> type of key
+ * @param <N> type of namespace
+ * @param <S> type of state
+ * @param <T> type of the state map
+ */
+abstract class AbstractCopyOnWriteStateMapSnapshot<K, N, S, T extends AbstractCopyOnWriteStateMap<K, N, S>>
+	extends StateMapSnapshot<K, N, S, T> {
+
+	AbstractCopyOnWriteStateMapSnapshot(T owningStateMap) {
+		super(owningStateMap);
+	}
+
+	/**
+	 * Returns whether this snapshot has been released.
+	 */
+	public abstract boolean isReleased();
+
+	/**
+	 * Returns the internal version of the state map when this snapshot was created. Mappings that are changed after
+	 * this snapshot have a state version that is at least as high as this version.
+	 */
+	abstract int getSnapshotVersion();
+
+	/**
+	 * Writes only the changes of the state since the given version of the state map, i.e. the mappings that were
+	 * removed and the mappings that were accessed since then. The removed mappings are written first, so that a
+	 * mapping that was removed and then added again is restored correctly. Mappings that are filtered out by the
+	 * transformer are written as removed. The changes since version 0 are all mappings of this snapshot.
+	 *
+	 * <p>This requires the owning map to track changes, see {@link AbstractCopyOnWriteStateMap#enableChangeTracking()}.
+	 */
+	abstract void writeStateChanges(
+		TypeSerializer<K> keySerializer,
+		TypeSerializer<N> namespaceSerializer,
+		TypeSerializer<S> stateSerializer,
+		@Nonnull DataOutputView dov,
+		@Nullable StateSnapshotTransformer<S> stateSnapshotTransformer,
+		int sinceVersion) throws IOException;
+}
@@ -0,0 +1,683 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.api.common.typeutils.base.LongSerializer;
+import org.apache.flink.runtime.state.StateEntry;
+import org.apache.flink.runtime.state.StateTransformationFunction;
+import org.apache.flink.runtime.state.VoidNamespace;
+import org.apache.flink.runtime.state.VoidNamespaceSerializer;
+import org.apache.flink.runtime.state.internal.InternalKvState;
+import org.apache.flink.util.MathUtils;
+import org.apache.flink.util.Preconditions;
+
+import javax.annotation.Nonnull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of a {@link StateMap} with copy-on-write support for states with {@code Long} or {@code Integer} keys
+ * in the {@link VoidNamespace}, e.g. keyed value states outside of windows. {@link CopyOnWriteStateTable} uses this map
+ * instead of {@link CopyOnWriteStateMap} whenever the key and namespace serializers allow it.
+ *
+ * <p>The map uses open addressing with linear probing over parallel arrays that hold the primitive keys, the states, and
+ * the state versions. Compared to {@link CopyOnWriteStateMap}, this saves the entry object, the boxed key, and the hash
+ * chain pointer per mapping. Removals use backward shift deletion, so the map needs no tombstones.
+ *
+ * <p>Snapshots copy the (flat) arrays, so they are isolated from all structural changes of the map. State objects are
+ * shared between the map and its snapshots until they are accessed through the map: like in
+ * {@link CopyOnWriteStateMap}, a state with a version that is older than the latest snapshot is copied with the state
+ * serializer before it is handed out. All objects in a snapshot must be treated as read-only.
+ *
+ * <p>IMPORTANT: the map is not thread-safe, and snapshots must be created from the same thread that modifies the map.
+ * Snapshots may be written and released from a different thread.
+ *
+ * @param <K> type of key, either {@code Long} or {@code Integer}.
+ * @param <N> type of namespace, always {@link VoidNamespace}.
+ * @param <S> type of value.
+ */
+public class CopyOnWriteLongKeyStateMap<K, N, S> extends AbstractCopyOnWriteStateMap<K, N, S> {
+
+	/**
+	 * Default capacity for a {@link CopyOnWriteLongKeyStateMap}. Must be a power of two, greater than zero. This is
+	 * lower than for {@link CopyOnWriteStateMap}, because every slot costs all three arrays up front.
+	 */
+	public static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Maximum capacity for a {@link CopyOnWriteLongKeyStateMap}. Must be a power of two.
+	 */
+	private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+	/**
+	 * Marker for a mapping to a {@code null} state. A {@code null} in the state array marks an empty slot.
+	 */
+	static final Object NULL_STATE = new Object();
+
+	/**
+	 * Whether the keys are {@code Integer}s, otherwise they are {@code Long}s.
+	 */
+	private final boolean intKeys;
+
+	/**
+	 * The serializer of the state, used to copy states on write.
+	 */
+	private final TypeSerializer<S> stateSerializer;
+
+	/**
+	 * The keys of the mappings, by slot.
+	 */
+	private long[] keys;
+
+	/**
+	 * The states of the mappings, by slot. Empty slots are {@code null}, {@code null} states are {@link #NULL_STATE}.
+	 */
+	private Object[] states;
+
+	/**
+	 * The versions of the states, by slot. See {@link CopyOnWriteStateMap} for the semantics of state versions.
+	 */
+	private int[] stateVersions;
+
+	/**
+	 * The number of mappings in this map.
+	 */
+	private int size;
+
+	/**
+	 * The next size value at which to resize the arrays (capacity * 3/4).
+	 */
+	private int threshold;
+
+	/**
+	 * Incremented by "structural modifications" to allow (best effort) detection of concurrent modification.
+	 */
+	private int modCount;
+
+	/**
+	 * The current version of this map. Used for copy-on-write mechanics.
+	 */
+	private int stateMapVersion;
+
+	/**
+	 * The highest version of this map that is still required by any unreleased snapshot.
+	 */
+	private int highestRequiredSnapshotVersion;
+
+	/**
+	 * Versions of this map that are still required by unreleased snapshots.
+	 */
+	private final TreeSet<Integer> snapshotVersions;
+
+	/**
+	 * Whether this map tracks the versions of accessed mappings and the removed mappings for incremental snapshots.
+	 */
+	private boolean changeTrackingEnabled;
+
+	/**
+	 * Keys of the mappings that were removed since the last confirmed incremental snapshot. Only used with change
+	 * tracking.
+	 */
+	private long[] removedKeys;
+
+	/**
+	 * The versions of this map at the time of the removals in {@link #removedKeys}.
+	 */
+	private int[] removedVersions;
+
+	/**
+	 * The number of tracked removals.
+	 */
+	private int numberOfRemovedKeys;
+
+	/**
+	 * Constructs a new {@code CopyOnWriteLongKeyStateMap} with default capacity of {@code DEFAULT_CAPACITY}.
+	 *
+	 * @param keySerializer   the serializer of the keys, either a {@link LongSerializer} or an {@link IntSerializer}.
+	 * @param stateSerializer the serializer of the state for copy-on-write.
+	 */
+	CopyOnWriteLongKeyStateMap(TypeSerializer<K> keySerializer, TypeSerializer<S> stateSerializer) {
+		this(DEFAULT_CAPACITY, keySerializer, stateSerializer);
+	}
+
+	/**
+	 * Constructs a new {@code CopyOnWriteLongKeyStateMap} instance with the specified capacity.
+	 *
+	 * @param capacity        the initial capacity of this map, rounded up to a power of two.
+	 * @param keySerializer   the serializer of the keys, either a {@link LongSerializer} or an {@link IntSerializer}.
+	 * @param stateSerializer the serializer of the state for copy-on-write.
+	 */
+	CopyOnWriteLongKeyStateMap(int capacity, TypeSerializer<K> keySerializer, TypeSerializer<S> stateSerializer) {
+		Preconditions.checkArgument(isSupportedKeySerializer(keySerializer),
+			"Unsupported key serializer: " + keySerializer);
+		Preconditions.checkArgument(capacity > 0 && capacity <= MAXIMUM_CAPACITY, "Capacity: " + capacity);
+		this.intKeys = keySerializer instanceof IntSerializer;
+		this.stateSerializer = Preconditions.checkNotNull(stateSerializer);
+		this.snapshotVersions = new TreeSet<>();
+		this.stateMapVersion = 0;
+		this.highestRequiredSnapshotVersion = 0;
+		this.changeTrackingEnabled = false;
+		this.removedKeys = new long[0];
+		this.removedVersions = new int[0];
+		this.numberOfRemovedKeys = 0;
+		allocateArrays(MathUtils.roundUpToPowerOfTwo(capacity));
+	}
+
+	/**
+	 * Returns whether a {@link CopyOnWriteLongKeyStateMap} can hold the mappings of a state with the given key and
+	 * namespace serializers.
+	 */
+	static boolean isSupported(TypeSerializer<?> keySerializer, TypeSerializer<?> namespaceSerializer) {
+		return isSupportedKeySerializer(keySerializer) && namespaceSerializer instanceof VoidNamespaceSerializer;
+	}
+
+	private static boolean isSupportedKeySerializer(TypeSerializer<?> keySerializer) {
+		return keySerializer instanceof LongSerializer || keySerializer instanceof IntSerializer;
+	}
+
+	// Public API from StateMap ------------------------------------------------------------------------------
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public S get(K key, N namespace) {
+		final int index = indexOf(toLong(key));
+		if (index < 0) {
+			return null;
+		}
+
+		// copy-on-write check for state
+		if (stateVersions[index] < highestRequiredSnapshotVersion) {
+			states[index] = copyState(states[index]);
+			stateVersions[index] = stateMapVersion;
+		} else if (changeTrackingEnabled) {
+			// the caller might modify the returned state object in place, so we conservatively treat the
+			// access as a modification. The state is not shared with any snapshot, so this is safe.
+			stateVersions[index] = stateMapVersion;
+		}
+
+		return unwrap(states[index]);
+	}
+
+	@Override
+	public boolean containsKey(K key, N namespace) {
+		return indexOf(toLong(key)) >= 0;
+	}
+
+	@Override
+	public void put(K key, N namespace, S state) {
+		final int index = putSlot(toLong(key));
+		states[index] = wrap(state);
+		stateVersions[index] = stateMapVersion;
+	}
+
+	@Override
+	public S putAndGetOld(K key, N namespace, S state) {
+		final int index = putSlot(toLong(key));
+
+		// copy-on-write check for state
+		final S oldState = (stateVersions[index] < highestRequiredSnapshotVersion) ?
+			unwrap(copyState(states[index])) :
+			unwrap(states[index]);
+
+		states[index] = wrap(state);
+		stateVersions[index] = stateMapVersion;
+
+		return oldState;
+	}
+
+	@Override
+	public void remove(K key, N namespace) {
+		removeSlot(toLong(key));
+	}
+
+	@Override
+	public S removeAndGetOld(K key, N namespace) {
+		final long primitiveKey = toLong(key);
+		final int index = indexOf(primitiveKey);
+		if (index < 0) {
+			return null;
+		}
+
+		// copy-on-write check for state
+		final S oldState = (stateVersions[index] < highestRequiredSnapshotVersion) ?
+			unwrap(copyState(states[index])) :
+			unwrap(states[index]);
+
+		deleteSlot(index, primitiveKey);
+		return oldState;
+	}
+
+	@Override
+	public <T> void transform(
+		K key,
+		N namespace,
+		T value,
+		StateTransformationFunction<S, T> transformation) throws Exception {
+
+		final int index = putSlot(toLong(key));
+
+		// copy-on-write check for state
+		final S state = (stateVersions[index] < highestRequiredSnapshotVersion) ?
+			unwrap(copyState(states[index])) :
+			unwrap(states[index]);
+
+		states[index] = wrap(transformation.apply(state, value));
+		stateVersions[index] = stateMapVersion;
+	}
+
+	@Override
+	public Stream<K> getKeys(N namespace) {
+		if (!VoidNamespace.INSTANCE.equals(namespace)) {
+			return Stream.empty();
+		}
+
+		final long[] keysCopy = new long[size];
+		int count = 0;
+		for (int i = 0; i < states.length; i++) {
+			if (states[i] != null) {
+				keysCopy[count++] = keys[i];
+			}
+		}
+		return IntStream.range(0, count).mapToObj(i -> toKey(keysCopy[i]));
+	}
+
+	@Nonnull
+	@Override
+	public Iterator<StateEntry<K, N, S>> iterator() {
+		return new StateEntryIterator();
+	}
+
+	@Override
+	public InternalKvState.StateIncrementalVisitor<K, N, S> getStateIncrementalVisitor(int recommendedMaxNumberOfReturnedRecords) {
+		return new StateIncrementalVisitorImpl(recommendedMaxNumberOfReturnedRecords);
+	}
+
+	@Override
+	public int sizeOfNamespace(Object namespace) {
+		return VoidNamespace.INSTANCE.equals(namespace) ? size : 0;
+	}
+
+	// Snapshotting ----------------------------------------------------------------------------------------------------
+
+	@Nonnull
+	@Override
+	public CopyOnWriteLongKeyStateMapSnapshot<K, N, S> stateSnapshot() {
+		return new CopyOnWriteLongKeyStateMapSnapshot<>(this);
+	}
+
+	@Override
+	public void releaseSnapshot(StateMapSnapshot<K, N, S, ? extends StateMap<K, N, S>> snapshotToRelease) {
+
+		CopyOnWriteLongKeyStateMapSnapshot<K, N, S> copyOnWriteSnapshot =
+			(CopyOnWriteLongKeyStateMapSnapshot<K, N, S>) snapshotToRelease;
+
+		Preconditions.checkArgument(copyOnWriteSnapshot.isOwner(this),
+			"Cannot release snapshot which is owned by a different state map.");
+
+		releaseSnapshot(copyOnWriteSnapshot.getSnapshotVersion());
+	}
+
+	@VisibleForTesting
+	void releaseSnapshot(int snapshotVersion) {
+		// we guard against concurrent modifications of highestRequiredSnapshotVersion between snapshot and release.
+		// Only stale reads of from the result of #releaseSnapshot calls are ok.
+		synchronized (snapshotVersions) {
+			Preconditions.checkState(snapshotVersions.remove(snapshotVersion), "Attempt to release unknown snapshot version");
+			highestRequiredSnapshotVersion = snapshotVersions.isEmpty() ? 0 : snapshotVersions.last();
+		}
+	}
+
+	/**
+	 * Increases the version of this map and registers it as required by a new snapshot. This method must be called by
+	 * the same Thread that does modifications to the {@link CopyOnWriteLongKeyStateMap}.
+	 *
+	 * @return the version of the new snapshot.
+	 */
+	int registerSnapshotVersion() {
+		synchronized (snapshotVersions) {
+			// increase the map version for copy-on-write and register the snapshot
+			if (++stateMapVersion < 0) {
+				// this is just a safety net against overflows, but should never happen in practice (i.e., only after 2^31 snapshots)
+				throw new IllegalStateException("Version count overflow in CopyOnWriteLongKeyStateMap. Enforcing restart.");
+			}
+
+			highestRequiredSnapshotVersion = stateMapVersion;
+			snapshotVersions.add(highestRequiredSnapshotVersion);
+			return stateMapVersion;
+		}
+	}
+
+	long[] snapshotKeys() {
+		return keys.clone();
+	}
+
+	Object[] snapshotStates() {
+		return states.clone();
+	}
+
+	int[] snapshotStateVersions() {
+		return stateVersions.clone();
+	}
+
+	long[] snapshotRemovedKeys() {
+		return Arrays.copyOf(removedKeys, numberOfRemovedKeys);
+	}
+
+	int[] snapshotRemovedVersions() {
+		return Arrays.copyOf(removedVersions, numberOfRemovedKeys);
+	}
+
+	@VisibleForTesting
+	TreeSet<Integer> getSnapshotVersions() {
+		return snapshotVersions;
+	}
+
+	@Override
+	void enableChangeTracking() {
+		changeTrackingEnabled = true;
+	}
+
+	boolean isChangeTrackingEnabled() {
+		return changeTrackingEnabled;
+	}
+
+	@Override
+	void discardRemovedEntriesBefore(int version) {
+		int retained = 0;
+		for (int i = 0; i < numberOfRemovedKeys; i++) {
+			if (removedVersions[i] >= version) {
+				removedKeys[retained] = removedKeys[i];
+				removedVersions[retained] = removedVersions[i];
+				retained++;
+			}
+		}
+		numberOfRemovedKeys = retained;
+	}
+
+	public TypeSerializer<S> getStateSerializer() {
+		return stateSerializer;
+	}
+
+	// Key and state conversion ----------------------------------------------------------------------------------------
+
+	private long toLong(K key) {
+		return ((Number) key).longValue();
+	}
+
+	@SuppressWarnings("unchecked")
+	K toKey(long key) {
+		final Object boxedKey = intKeys ? (Object) (int) key : (Object) key;
+		return (K) boxedKey;
+	}
+
+	@SuppressWarnings("unchecked")
+	N getNamespace() {
+		return (N) VoidNamespace.INSTANCE;
+	}
+
+	@SuppressWarnings("unchecked")
+	static <S> S unwrap(Object state) {
+		return state == NULL_STATE ? null : (S) state;
+	}
+
+	private static Object wrap(Object state) {
+		return state == null ? NULL_STATE : state;
+	}
+
+	private Object copyState(Object state) {
+		return state == NULL_STATE ? NULL_STATE : stateSerializer.copy(unwrap(state));
+	}
+
+	// Open addressing -------------------------------------------------------------------------------------------------
+
+	private static int hash(long key) {
+		return MathUtils.longToIntWithBitMixing(key);
+	}
+
+	/**
+	 * Returns the slot of the given key, or -1 if there is no mapping for the key.
+	 */
+	private int indexOf(long key) {
+		final long[] tabKeys = keys;
+		final Object[] tabStates = states;
+		final int mask = tabStates.length - 1;
+		for (int index = hash(key) & mask; tabStates[index] != null; index = (index + 1) & mask) {
+			if (tabKeys[index] == key) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the slot of the given key, and adds an empty mapping for the key if there is none.
+	 */
+	private int putSlot(long key) {
+		int index = indexOf(key);
+		if (index >= 0) {
+			return index;
+		}
+
+		++modCount;
+		if (size >= threshold) {
+			doubleCapacity();
+		}
+
+		final int mask = states.length - 1;
+		index = hash(key) & mask;
+		while (states[index] != null) {
+			index = (index + 1) & mask;
+		}
+
+		keys[index] = key;
+		states[index] = NULL_STATE;
+		stateVersions[index] = stateMapVersion;
+		++size;
+		return index;
+	}
+
+	private void removeSlot(long key) {
+		final int index = indexOf(key);
+		if (index >= 0) {
+			deleteSlot(index, key);
+		}
+	}
+
+	/**
+	 * Removes the mapping in the given slot, and shifts the following mappings of the probe sequence back so that
+	 * lookups do not need tombstones.
+	 */
+	private void deleteSlot(int index, long key) {
+		final int mask = states.length - 1;
+		int gap = index;
+		for (int next = (gap + 1) & mask; states[next] != null; next = (next + 1) & mask) {
+			final int home = hash(keys[next]) & mask;
+			// the mapping can move into the gap if its home slot is not cyclically in (gap, next]
+			final boolean homeInRange = gap < next ? (gap < home && home <= next) : (gap < home || home <= next);
+			if (!homeInRange) {
+				keys[gap] = keys[next];
+				states[gap] = states[next];
+				stateVersions[gap] = stateVersions[next];
+				gap = next;
+			}
+		}
+		keys[gap] = 0L;
+		states[gap] = null;
+		stateVersions[gap] = 0;
+
+		++modCount;
+		--size;
+
+		if (changeTrackingEnabled) {
+			trackRemovedKey(key);
+		}
+	}
+
+	private void trackRemovedKey(long key) {
+		if (numberOfRemovedKeys == removedKeys.length) {
+			final int newLength = Math.max(16, removedKeys.length << 1);
+			removedKeys = Arrays.copyOf(removedKeys, newLength);
+			removedVersions = Arrays.copyOf(removedVersions, newLength);
+		}
+		removedKeys[numberOfRemovedKeys] = key;
+		removedVersions[numberOfRemovedKeys] = stateMapVersion;
+		++numberOfRemovedKeys;
+	}
+
+	private void allocateArrays(int capacity) {
+		keys = new long[capacity];
+		states = new Object[capacity];
+		stateVersions = new int[capacity];
+		threshold = (capacity >> 1) + (capacity >> 2); // 3/4 capacity
+	}
+
+	/**
+	 * Doubles the capacity of the arrays. Snapshots hold their own copies of the arrays, so they are not affected.
+	 */
+	private void doubleCapacity() {
+		final long[] oldKeys = keys;
+		final Object[] oldStates = states;
+		final int[] oldStateVersions = stateVersions;
+
+		final int oldCapacity = oldStates.length;
+		if (oldCapacity == MAXIMUM_CAPACITY) {
+			throw new IllegalStateException("Maximum capacity of CopyOnWriteLongKeyStateMap is reached.");
+		}
+
+		allocateArrays(oldCapacity << 1);
+		final int mask = states.length - 1;
+		for (int i = 0; i < oldCapacity; i++) {
+			if (oldStates[i] != null) {
+				int index = hash(oldKeys[i]) & mask;
+				while (states[index] != null) {
+					index = (index + 1) & mask;
+				}
+				keys[index] = oldKeys[i];
+				states[index] = oldStates[i];
+				stateVersions[index] = oldStateVersions[i];
+			}
+		}
+	}
+
+	// Iteration -------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Iterator over state entries in a {@link CopyOnWriteLongKeyStateMap} which does not tolerate concurrent
+	 * modifications.
+	 */
+	class StateEntryIterator implements Iterator<StateEntry<K, N, S>> {
+
+		private final int expectedModCount;
+		private int nextIndex;
+
+		StateEntryIterator() {
+			this.expectedModCount = modCount;
+			this.nextIndex = advance(0);
+		}
+
+		private int advance(int index) {
+			while (index < states.length && states[index] == null) {
+				index++;
+			}
+			return index;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return nextIndex < states.length;
+		}
+
+		@Override
+		public StateEntry<K, N, S> next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final int index = nextIndex;
+			nextIndex = advance(index + 1);
+			return new StateEntry.SimpleStateEntry<>(toKey(keys[index]), getNamespace(), unwrap(states[index]));
+		}
+	}
+
+	/**
+	 * Incremental visitor over state entries in a {@link CopyOnWriteLongKeyStateMap}. Mappings that are moved by
+	 * removals during the visit might be skipped or visited twice.
+	 */
+	class StateIncrementalVisitorImpl implements InternalKvState.StateIncrementalVisitor<K, N, S> {
+
+		private final int recommendedMaxNumberOfReturnedRecords;
+		private final Collection<StateEntry<K, N, S>> entriesToReturn;
+		private int nextIndex;
+
+		StateIncrementalVisitorImpl(int recommendedMaxNumberOfReturnedRecords) {
+			this.recommendedMaxNumberOfReturnedRecords = Math.max(1, recommendedMaxNumberOfReturnedRecords);
+			this.entriesToReturn = new ArrayList<>(this.recommendedMaxNumberOfReturnedRecords);
+			this.nextIndex = 0;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return size > 0 && nextIndex < states.length;
+		}
+
+		@Override
+		public Collection<StateEntry<K, N, S>> nextEntries() {
+			if (!hasNext()) {
+				return null;
+			}
+
+			entriesToReturn.clear();
+			final int end = Math.min(states.length, nextIndex + recommendedMaxNumberOfReturnedRecords);
+			for (; nextIndex < end; nextIndex++) {
+				if (states[nextIndex] != null) {
+					entriesToReturn.add(new StateEntry.SimpleStateEntry<>(
+						toKey(keys[nextIndex]), getNamespace(), unwrap(states[nextIndex])));
+				}
+			}
+			return entriesToReturn;
+		}
+
+		@Override
+		public void remove(StateEntry<K, N, S> stateEntry) {
+			CopyOnWriteLongKeyStateMap.this.remove(stateEntry.getKey(), stateEntry.getNamespace());
+		}
+
+		@Override
+		public void update(StateEntry<K, N, S> stateEntry, S newValue) {
+			CopyOnWriteLongKeyStateMap.this.put(stateEntry.getKey(), stateEntry.getNamespace(), newValue);
+		}
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.memory.DataOutputView;
+import org.apache.flink.runtime.state.StateSnapshotTransformer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+
+/**
+ * This class represents the snapshot of a {@link CopyOnWriteLongKeyStateMap}. The snapshot holds copies of the arrays
+ * of the map, but shares the state objects with the map. Like for {@link CopyOnWriteStateMapSnapshot}, all objects in
+ * this snapshot must be considered as READ-ONLY!
+ *
+ * <p>The format written by this snapshot is the same as the one of {@link CopyOnWriteStateMapSnapshot}.
+ *
+ * @param <K> type of key
+ * @param <N> type of namespace
+ * @param <S> type of state
+ */
+public class CopyOnWriteLongKeyStateMapSnapshot<K, N, S>
+	extends AbstractCopyOnWriteStateMapSnapshot<K, N, S, CopyOnWriteLongKeyStateMap<K, N, S>> {
+
+	/**
+	 * Version of the {@link CopyOnWriteLongKeyStateMap} when this snapshot was created. This can be used to release
+	 * the snapshot.
+	 */
+	private final int snapshotVersion;
+
+	/**
+	 * The keys of the map, by slot, as by the time this snapshot was created.
+	 */
+	@Nonnull
+	private final long[] keys;
+
+	/**
+	 * The states of the map, by slot, as by the time this snapshot was created. Empty slots are {@code null}.
+	 */
+	@Nonnull
+	private final Object[] states;
+
+	/**
+	 * The state versions of the map, by slot, or null if the map does not track changes.
+	 */
+	@Nullable
+	private final int[] stateVersions;
+
+	/**
+	 * The number of mappings in this snapshot.
+	 */
+	private final int size;
+
+	/**
+	 * Keys of the mappings that were removed before this snapshot was created, as far as they are still tracked by
+	 * the {@link CopyOnWriteLongKeyStateMap} for incremental snapshots.
+	 */
+	@Nonnull
+	private final long[] removedKeys;
+
+	/**
+	 * The versions of the {@link CopyOnWriteLongKeyStateMap} at the time of the removals in {@link #removedKeys}.
+	 */
+	@Nonnull
+	private final int[] removedVersions;
+
+	/**
+	 * Whether this snapshot has been released.
+	 */
+	private boolean released;
+
+	/**
+	 * Creates a new {@link CopyOnWriteLongKeyStateMapSnapshot}.
+	 *
+	 * @param owningStateMap the {@link CopyOnWriteLongKeyStateMap} for which this object represents a snapshot.
+	 */
+	CopyOnWriteLongKeyStateMapSnapshot(CopyOnWriteLongKeyStateMap<K, N, S> owningStateMap) {
+		super(owningStateMap);
+
+		this.snapshotVersion = owningStateMap.registerSnapshotVersion();
+		this.keys = owningStateMap.snapshotKeys();
+		this.states = owningStateMap.snapshotStates();
+		this.size = owningStateMap.size();
+		this.removedKeys = owningStateMap.snapshotRemovedKeys();
+		this.removedVersions = owningStateMap.snapshotRemovedVersions();
+		this.stateVersions = owningStateMap.isChangeTrackingEnabled() ?
+			owningStateMap.snapshotStateVersions() :
+			null;
+		this.released = false;
+	}
+
+	@Override
+	public void release() {
+		if (!released) {
+			owningStateMap.releaseSnapshot(this);
+			released = true;
+		}
+	}
+
+	@Override
+	public boolean isReleased() {
+		return released;
+	}
+
+	@Override
+	int getSnapshotVersion() {
+		return snapshotVersion;
+	}
+
+	@Override
+	public void writeState(
+		TypeSerializer<K> keySerializer,
+		TypeSerializer<N> namespaceSerializer,
+		TypeSerializer<S> stateSerializer,
+		@Nonnull DataOutputView dov,
+		@Nullable StateSnapshotTransformer<S> stateSnapshotTransformer) throws IOException {
+
+		final N namespace = owningStateMap.getNamespace();
+
+		if (stateSnapshotTransformer == null) {
+			dov.writeInt(size);
+			for (int i = 0; i < states.length; i++) {
+				if (states[i] != null) {
+					namespaceSerializer.serialize(namespace, dov);
+					keySerializer.serialize(owningStateMap.toKey(keys[i]), dov);
+					stateSerializer.serialize(CopyOnWriteLongKeyStateMap.unwrap(states[i]), dov);
+				}
+			}
+			return;
+		}
+
+		// transform all states first, because the number of mappings is written before the mappings
+		final Object[] transformedStates = new Object[states.length];
+		int numberOfTransformedStates = 0;
+		for (int i = 0; i < states.length; i++) {
+			if (states[i] != null) {
+				final S transformedState =
+					stateSnapshotTransformer.filterOrTransform(CopyOnWriteLongKeyStateMap.unwrap(states[i]));
+				if (transformedState != null) {
+					transformedStates[i] = transformedState;
+					numberOfTransformedStates++;
+				}
+			}
+		}
+
+		dov.writeInt(numberOfTransformedStates);
+		for (int i = 0; i < transformedStates.length; i++) {
+			if (transformedStates[i] != null) {
+				namespaceSerializer.serialize(namespace, dov);
+				keySerializer.serialize(owningStateMap.toKey(keys[i]), dov);
+				stateSerializer.serialize(CopyOnWriteLongKeyStateMap.unwrap(transformedStates[i]), dov);
+			}
+		}
+	}
+
+	@Override
+	void writeStateChanges(
+		TypeSerializer<K> keySerializer,
+		TypeSerializer<N> namespaceSerializer,
+		TypeSerializer<S> stateSerializer,
+		@Nonnull DataOutputView dov,
+		@Nullable StateSnapshotTransformer<S> stateSnapshotTransformer,
+		int sinceVersion) throws IOException {
+
+		final N namespace = owningStateMap.getNamespace();
+
+		// a snapshot since version 0 contains all mappings and is restored into an empty map
+		final boolean writeRemoved = sinceVersion > 0;
+
+		// the slots of the updated mappings and their (transformed) states
+		final Object[] updatedStates = new Object[states.length];
+		int numberOfUpdated = 0;
+		// the slots of the mappings that the transformer filtered out
+		final boolean[] filtered = new boolean[stateSnapshotTransformer != null && writeRemoved ? states.length : 0];
+		int numberOfFiltered = 0;
+
+		for (int i = 0; i < states.length; i++) {
+			if (states[i] == null || (stateVersions != null && stateVersions[i] < sinceVersion)) {
+				continue;
+			}
+			if (stateSnapshotTransformer == null) {
+				updatedStates[i] = states[i];
+				numberOfUpdated++;
+			} else {
+				final S transformedState =
+					stateSnapshotTransformer.filterOrTransform(CopyOnWriteLongKeyStateMap.unwrap(states[i]));
+				if (transformedState != null) {
+					updatedStates[i] = transformedState;
+					numberOfUpdated++;
+				} else if (writeRemoved) {
+					filtered[i] = true;
+					numberOfFiltered++;
+				}
+			}
+		}
+
+		int numberOfRemoved = 0;
+		if (writeRemoved) {
+			for (int removedVersion : removedVersions) {
+				if (removedVersion >= sinceVersion) {
+					numberOfRemoved++;
+				}
+			}
+		}
+
+		dov.writeInt(numberOfRemoved + numberOfFiltered);
+		if (writeRemoved) {
+			for (int i = 0; i < removedKeys.length; i++) {
+				if (removedVersions[i] >= sinceVersion) {
+					namespaceSerializer.serialize(namespace, dov);
+					keySerializer.serialize(owningStateMap.toKey(removedKeys[i]), dov);
+				}
+			}
+		}
+		for (int i = 0; i < filtered.length; i++) {
+			if (filtered[i]) {
+				namespaceSerializer.serialize(namespace, dov);
+				keySerializer.serialize(owningStateMap.toKey(keys[i]), dov);
+			}
+		}
+
+		dov.writeInt(numberOfUpdated);
+		for (int i = 0; i < updatedStates.length; i++) {
+			if (updatedStates[i] != null) {
+				namespaceSerializer.serialize(namespace, dov);
+				keySerializer.serialize(owningStateMap.toKey(keys[i]), dov);
+				stateSerializer.serialize(CopyOnWriteLongKeyStateMap.unwrap(updatedStates[i]), dov);
+			}
+		}
+	}
+}
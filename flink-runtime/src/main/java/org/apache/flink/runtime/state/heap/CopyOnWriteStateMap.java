@@ -99,7 +99,7 @@ import static org.apache.flink.util.CollectionUtil.MAX_ARRAY_SIZE;
  * @param <N> type of namespace.
  * @param <S> type of value.
  */
-public class CopyOnWriteStateMap<K, N, S> extends StateMap<K, N, S> {
+public class CopyOnWriteStateMap<K, N, S> extends AbstractCopyOnWriteStateMap<K, N, S> {
 
 	/**
 	 * The logger.
@@ -209,6 +209,17 @@ public class CopyOnWriteStateMap<K, N, S> extends StateMap<K, N, S> {
 	 */
 	private int modCount;
 
+	/**
+	 * Whether this map tracks the versions of accessed entries and the removed entries for incremental snapshots.
+	 */
+	private boolean changeTrackingEnabled;
+
+	/**
+	 * Tombstones for the mappings that were removed since the last confirmed incremental snapshot. The state version
+	 * of a tombstone is the version of this map at the time of the removal. Only used with change tracking.
+	 */
+	private final ArrayList<StateMapEntry<K, N, S>> removedEntries;
+
 	/**
 	 * Constructs a new {@code StateMap} with default capacity of {@code DEFAULT_CAPACITY}.
 	 *
@@ -242,6 +253,8 @@ public class CopyOnWriteStateMap<K, N, S> extends StateMap<K, N, S> {
 		this.stateMapVersion = 0;
 		this.highestRequiredSnapshotVersion = 0;
 		this.snapshotVersions = new TreeSet<>();
+		this.changeTrackingEnabled = false;
+		this.removedEntries = new ArrayList<>();
 
 		if (capacity < 0) {
 			throw new IllegalArgumentException("Capacity: " + capacity);
@@ -295,6 +308,10 @@ public class CopyOnWriteStateMap<K, N, S> extends StateMap<K, N, S> {
 					}
 					e.stateVersion = stateMapVersion;
 					e.state = getStateSerializer().copy(e.state);
+				} else if (changeTrackingEnabled) {
+					// the caller might modify the returned state object in place, so we conservatively treat the
+					// access as a modification. The state is not shared with any snapshot, so this is safe.
+					e.stateVersion = stateMapVersion;
 				}
 
 				return e.state;
@@ -444,6 +461,9 @@ public class CopyOnWriteStateMap<K, N, S> extends StateMap<K, N, S> {
 				} else {
 					--incrementalRehashTableSize;
 				}
+				if (changeTrackingEnabled) {
+					removedEntries.add(new StateMapEntry<>(key, namespace, null, hash, null, stateMapVersion, stateMapVersion));
+				}
 				return e;
 			}
 		}
@@ -531,6 +551,25 @@ public class CopyOnWriteStateMap<K, N, S> extends StateMap<K, N, S> {
 		return stateMapVersion;
 	}
 
+	@Override
+	void enableChangeTracking() {
+		changeTrackingEnabled = true;
+	}
+
+	/**
+	 * Creates a copy of the tombstones of removed mappings for a snapshot. This method must be called by the same
+	 * Thread that does modifications to the {@link CopyOnWriteStateMap}.
+	 */
+	@SuppressWarnings("unchecked")
+	StateMapEntry<K, N, S>[] snapshotRemovedEntries() {
+		return removedEntries.toArray(new StateMapEntry[0]);
+	}
+
+	@Override
+	void discardRemovedEntriesBefore(int version) {
+		removedEntries.removeIf(entry -> entry.stateVersion < version);
+	}
+
 	/**
 	 * Allocate a table of the given capacity and set the threshold accordingly.
 	 *
@@ -29,9 +29,11 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 
@@ -51,7 +53,7 @@ import java.util.Objects;
  * @param <S> type of state
  */
 public class CopyOnWriteStateMapSnapshot<K, N, S>
-	extends StateMapSnapshot<K, N, S, CopyOnWriteStateMap<K, N, S>> {
+	extends AbstractCopyOnWriteStateMapSnapshot<K, N, S, CopyOnWriteStateMap<K, N, S>> {
 
 	/**
 	 * Version of the {@link CopyOnWriteStateMap} when this snapshot was created. This can be used to release the snapshot.
@@ -70,6 +72,13 @@ public class CopyOnWriteStateMapSnapshot<K, N, S>
 	@Nonnegative
 	private final int numberOfEntriesInSnapshotData;
 
+	/**
+	 * Tombstones of the mappings that were removed before this snapshot was created, as far as they are still tracked
+	 * by the {@link CopyOnWriteStateMap} for incremental snapshots.
+	 */
+	@Nonnull
+	private final CopyOnWriteStateMap.StateMapEntry<K, N, S>[] removedEntries;
+
 	/**
 	 * Whether this snapshot has been released.
 	 */
@@ -86,6 +95,7 @@ public class CopyOnWriteStateMapSnapshot<K, N, S>
 		this.snapshotData = owningStateMap.snapshotMapArrays();
 		this.snapshotVersion = owningStateMap.getStateMapVersion();
 		this.numberOfEntriesInSnapshotData = owningStateMap.size();
+		this.removedEntries = owningStateMap.snapshotRemovedEntries();
 		this.released = false;
 	}
 
@@ -97,6 +107,7 @@ public class CopyOnWriteStateMapSnapshot<K, N, S>
 		}
 	}
 
+	@Override
 	public boolean isReleased() {
 		return released;
 	}
@@ -105,6 +116,7 @@ public class CopyOnWriteStateMapSnapshot<K, N, S>
 	 * Returns the internal version of the {@link CopyOnWriteStateMap} when this snapshot was created. This value must be used to
 	 * tell the {@link CopyOnWriteStateMap} when to release this snapshot.
 	 */
+	@Override
 	int getSnapshotVersion() {
 		return snapshotVersion;
 	}
@@ -130,6 +142,63 @@ public class CopyOnWriteStateMapSnapshot<K, N, S>
 		}
 	}
 
+	@Override
+	void writeStateChanges(
+		TypeSerializer<K> keySerializer,
+		TypeSerializer<N> namespaceSerializer,
+		TypeSerializer<S> stateSerializer,
+		@Nonnull DataOutputView dov,
+		@Nullable StateSnapshotTransformer<S> stateSnapshotTransformer,
+		int sinceVersion) throws IOException {
+
+		// a snapshot since version 0 contains all mappings and is restored into an empty map
+		final boolean writeRemoved = sinceVersion > 0;
+
+		final List<StateEntry<K, N, S>> removed = new ArrayList<>();
+		if (writeRemoved) {
+			for (CopyOnWriteStateMap.StateMapEntry<K, N, S> removedEntry : removedEntries) {
+				if (removedEntry.stateVersion >= sinceVersion) {
+					removed.add(removedEntry);
+				}
+			}
+		}
+
+		final List<StateEntry<K, N, S>> updated = new ArrayList<>();
+		final SnapshotIterator<K, N, S> snapshotIterator =
+			new NonTransformSnapshotIterator<>(numberOfEntriesInSnapshotData, snapshotData);
+		while (snapshotIterator.hasNext()) {
+			final CopyOnWriteStateMap.StateMapEntry<K, N, S> entry = snapshotIterator.next();
+			if (entry.stateVersion < sinceVersion) {
+				continue;
+			}
+			if (stateSnapshotTransformer == null) {
+				updated.add(entry);
+			} else {
+				final S transformedValue = stateSnapshotTransformer.filterOrTransform(entry.state);
+				if (transformedValue == null) {
+					if (writeRemoved) {
+						removed.add(entry);
+					}
+				} else {
+					updated.add(new StateEntry.SimpleStateEntry<>(entry.key, entry.namespace, transformedValue));
+				}
+			}
+		}
+
+		dov.writeInt(removed.size());
+		for (StateEntry<K, N, S> stateEntry : removed) {
+			namespaceSerializer.serialize(stateEntry.getNamespace(), dov);
+			keySerializer.serialize(stateEntry.getKey(), dov);
+		}
+
+		dov.writeInt(updated.size());
+		for (StateEntry<K, N, S> stateEntry : updated) {
+			namespaceSerializer.serialize(stateEntry.getNamespace(), dov);
+			keySerializer.serialize(stateEntry.getKey(), dov);
+			stateSerializer.serialize(stateEntry.getState(), dov);
+		}
+	}
+
 	/**
 	 * Iterator over state entries in a {@link CopyOnWriteStateMapSnapshot}.
 	 */
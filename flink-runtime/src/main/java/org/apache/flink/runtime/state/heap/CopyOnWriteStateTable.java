@@ -27,7 +27,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * This implementation of {@link StateTable} uses {@link CopyOnWriteStateMap}. This implementation supports asynchronous snapshots.
+ * This implementation of {@link StateTable} uses {@link CopyOnWriteStateMap}, or {@link CopyOnWriteLongKeyStateMap} for
+ * states with {@code Long} or {@code Integer} keys in the {@link org.apache.flink.runtime.state.VoidNamespace}. This
+ * implementation supports asynchronous snapshots.
  *
  * @param <K> type of key.
  * @param <N> type of namespace.
@@ -50,7 +52,10 @@ public class CopyOnWriteStateTable<K, N, S> extends StateTable<K, N, S> {
 	}
 
 	@Override
-	protected CopyOnWriteStateMap<K, N, S> createStateMap() {
+	protected AbstractCopyOnWriteStateMap<K, N, S> createStateMap() {
+		if (CopyOnWriteLongKeyStateMap.isSupported(getKeySerializer(), getNamespaceSerializer())) {
+			return new CopyOnWriteLongKeyStateMap<>(getKeySerializer(), getStateSerializer());
+		}
 		return new CopyOnWriteStateMap<>(getStateSerializer());
 	}
 
@@ -72,11 +77,34 @@ public class CopyOnWriteStateTable<K, N, S> extends StateTable<K, N, S> {
 			getMetaInfo().getStateSnapshotTransformFactory().createForDeserializedState().orElse(null));
 	}
 
+	/**
+	 * Enables the tracking of changes in all state maps of this table, which is required to write
+	 * {@link CopyOnWriteStateTableSnapshot#getChangesKeyGroupWriter(int[]) incremental snapshots}.
+	 */
+	@SuppressWarnings("unchecked")
+	void enableChangeTracking() {
+		for (StateMap<K, N, S> stateMap : keyGroupedStateMaps) {
+			((AbstractCopyOnWriteStateMap<K, N, S>) stateMap).enableChangeTracking();
+		}
+	}
+
+	/**
+	 * Discards the tombstones of removed mappings that are contained in a confirmed snapshot.
+	 *
+	 * @param snapshotVersions the versions of the state maps in the confirmed snapshot, by key-group offset.
+	 */
+	@SuppressWarnings("unchecked")
+	void discardRemovedEntriesBefore(int[] snapshotVersions) {
+		for (int i = 0; i < keyGroupedStateMaps.length; i++) {
+			((AbstractCopyOnWriteStateMap<K, N, S>) keyGroupedStateMaps[i]).discardRemovedEntriesBefore(snapshotVersions[i]);
+		}
+	}
+
 	@SuppressWarnings("unchecked")
-	List<CopyOnWriteStateMapSnapshot<K, N, S>> getStateMapSnapshotList() {
-		List<CopyOnWriteStateMapSnapshot<K, N, S>> snapshotList = new ArrayList<>(keyGroupedStateMaps.length);
+	List<AbstractCopyOnWriteStateMapSnapshot<K, N, S, ?>> getStateMapSnapshotList() {
+		List<AbstractCopyOnWriteStateMapSnapshot<K, N, S, ?>> snapshotList = new ArrayList<>(keyGroupedStateMaps.length);
 		for (int i = 0; i < keyGroupedStateMaps.length; i++) {
-			CopyOnWriteStateMap<K, N, S> stateMap = (CopyOnWriteStateMap<K, N, S>) keyGroupedStateMaps[i];
+			AbstractCopyOnWriteStateMap<K, N, S> stateMap = (AbstractCopyOnWriteStateMap<K, N, S>) keyGroupedStateMaps[i];
 			snapshotList.add(stateMap.stateSnapshot());
 		}
 		return snapshotList;
@@ -23,6 +23,7 @@ import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.runtime.state.StateSnapshotTransformer;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import java.util.List;
 
@@ -46,7 +47,7 @@ public class CopyOnWriteStateTableSnapshot<K, N, S> extends AbstractStateTableSn
 	 * Snapshots of state partitioned by key-group.
 	 */
 	@Nonnull
-	private final List<CopyOnWriteStateMapSnapshot<K, N, S>> stateMapSnapshots;
+	private final List<AbstractCopyOnWriteStateMapSnapshot<K, N, S, ?>> stateMapSnapshots;
 
 	/**
 	 * Creates a new {@link CopyOnWriteStateTableSnapshot}.
@@ -72,7 +73,7 @@ public class CopyOnWriteStateTableSnapshot<K, N, S> extends AbstractStateTableSn
 	@Override
 	protected StateMapSnapshot<K, N, S, ? extends StateMap<K, N, S>> getStateMapSnapshotForKeyGroup(int keyGroup) {
 		int indexOffset = keyGroup - keyGroupOffset;
-		CopyOnWriteStateMapSnapshot<K, N, S> stateMapSnapshot = null;
+		AbstractCopyOnWriteStateMapSnapshot<K, N, S, ?> stateMapSnapshot = null;
 		if (indexOffset >= 0 && indexOffset < stateMapSnapshots.size()) {
 			stateMapSnapshot = stateMapSnapshots.get(indexOffset);
 		}
@@ -80,9 +81,40 @@ public class CopyOnWriteStateTableSnapshot<K, N, S> extends AbstractStateTableSn
 		return stateMapSnapshot;
 	}
 
+	/**
+	 * Returns the versions of the state maps in this snapshot, by key-group offset. Changes since this snapshot have
+	 * a version that is at least as high as the one of their state map.
+	 */
+	int[] getStateMapVersions() {
+		int[] versions = new int[stateMapSnapshots.size()];
+		for (int i = 0; i < versions.length; i++) {
+			versions[i] = stateMapSnapshots.get(i).getSnapshotVersion();
+		}
+		return versions;
+	}
+
+	/**
+	 * Returns a writer for the changes of the state since the snapshot with the given state map versions, as
+	 * returned by {@link #getStateMapVersions()}. If no versions are given, all mappings are written as changes.
+	 */
+	StateKeyGroupWriter getChangesKeyGroupWriter(@Nullable int[] sinceVersions) {
+		return (dov, keyGroupId) -> {
+			int indexOffset = keyGroupId - keyGroupOffset;
+			AbstractCopyOnWriteStateMapSnapshot<K, N, S, ?> stateMapSnapshot = stateMapSnapshots.get(indexOffset);
+			stateMapSnapshot.writeStateChanges(
+				localKeySerializer,
+				localNamespaceSerializer,
+				localStateSerializer,
+				dov,
+				stateSnapshotTransformer,
+				sinceVersions != null ? sinceVersions[indexOffset] : 0);
+			stateMapSnapshot.release();
+		};
+	}
+
 	@Override
 	public void release() {
-		for (CopyOnWriteStateMapSnapshot snapshot : stateMapSnapshots) {
+		for (AbstractCopyOnWriteStateMapSnapshot<K, N, S, ?> snapshot : stateMapSnapshots) {
 			if (!snapshot.isReleased()) {
 				snapshot.release();
 			}
@@ -0,0 +1,509 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.fs.CloseableRegistry;
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputView;
+import org.apache.flink.core.memory.DataOutputViewStreamWrapper;
+import org.apache.flink.runtime.checkpoint.CheckpointOptions;
+import org.apache.flink.runtime.state.AsyncSnapshotCallable;
+import org.apache.flink.runtime.state.CheckpointStreamFactory;
+import org.apache.flink.runtime.state.CheckpointedStateScope;
+import org.apache.flink.runtime.state.IncrementalRemoteKeyedStateHandle;
+import org.apache.flink.runtime.state.KeyGroupRange;
+import org.apache.flink.runtime.state.KeyedBackendSerializationProxy;
+import org.apache.flink.runtime.state.KeyedStateHandle;
+import org.apache.flink.runtime.state.LocalRecoveryConfig;
+import org.apache.flink.runtime.state.PlaceholderStreamStateHandle;
+import org.apache.flink.runtime.state.RegisteredKeyValueStateBackendMetaInfo;
+import org.apache.flink.runtime.state.SnapshotResult;
+import org.apache.flink.runtime.state.StateHandleID;
+import org.apache.flink.runtime.state.StateObject;
+import org.apache.flink.runtime.state.StateSerializerProvider;
+import org.apache.flink.runtime.state.StateSnapshot;
+import org.apache.flink.runtime.state.StateUtil;
+import org.apache.flink.runtime.state.StreamCompressionDecorator;
+import org.apache.flink.runtime.state.StreamStateHandle;
+import org.apache.flink.runtime.state.UncompressedStreamCompressionDecorator;
+import org.apache.flink.runtime.state.metainfo.StateMetaInfoSnapshot;
+import org.apache.flink.util.Preconditions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
+
+/**
+ * Snapshot strategy of the heap backend that writes incremental checkpoints. Instead of the full state, each
+ * checkpoint only writes the mappings that were modified or removed since the last confirmed checkpoint into a new
+ * delta file, and references the base and delta files of that checkpoint as shared state. After the configured
+ * number of deltas, the next checkpoint writes a new full base instead, which bounds the length of the chain that
+ * has to be replayed on restore.
+ *
+ * <p>Modifications are tracked by the versions of the entries in the {@link AbstractCopyOnWriteStateMap}, so this strategy
+ * requires asynchronous snapshots. Priority queue states, i.e. timers, are always written in full into a private
+ * file of the checkpoint. Savepoints are always written as full snapshots.
+ *
+ * <p>The chain is always rooted in a base that was written by this backend. After a restore, the first checkpoint
+ * therefore writes a new base. Local recovery is not supported for incremental snapshots.
+ */
+class HeapIncrementalSnapshotStrategy<K> extends HeapSnapshotStrategy<K> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(HeapIncrementalSnapshotStrategy.class);
+
+	/** Magic number at the beginning of the meta data of an incremental heap snapshot. */
+	static final int META_DATA_MAGIC_NUMBER = 0x48454150;
+
+	/** Version of the format of the meta data of an incremental heap snapshot. */
+	static final int META_DATA_VERSION = 1;
+
+	/** The id of the private file that holds the priority queue states. */
+	static final StateHandleID PRIORITY_QUEUE_STATE_ID = new StateHandleID("heap-priority-queues");
+
+	private final Map<String, StateTable<K, ?, ?>> registeredKVStates;
+	private final Map<String, HeapPriorityQueueSnapshotRestoreWrapper> registeredPQStates;
+	private final StreamCompressionDecorator keyGroupCompressionDecorator;
+	private final KeyGroupRange keyGroupRange;
+	private final CloseableRegistry cancelStreamRegistry;
+
+	/** The maximum number of delta files on top of a base before a new base is written. */
+	private final int maxDeltaCheckpoints;
+
+	/** The unique id of this backend in the {@link org.apache.flink.runtime.state.SharedStateRegistry}. */
+	private final UUID backendUID;
+
+	private final Object lock = new Object();
+
+	/** The files of the last confirmed checkpoint, null if no checkpoint was confirmed yet. */
+	@GuardedBy("lock")
+	@Nullable
+	private SnapshotChain confirmedChain;
+
+	/** The files of completed snapshots that were not confirmed yet, by checkpoint id. */
+	@GuardedBy("lock")
+	private final TreeMap<Long, SnapshotChain> pendingChains;
+
+	HeapIncrementalSnapshotStrategy(
+		SnapshotStrategySynchronicityBehavior<K> snapshotStrategySynchronicityTrait,
+		Map<String, StateTable<K, ?, ?>> registeredKVStates,
+		Map<String, HeapPriorityQueueSnapshotRestoreWrapper> registeredPQStates,
+		StreamCompressionDecorator keyGroupCompressionDecorator,
+		LocalRecoveryConfig localRecoveryConfig,
+		KeyGroupRange keyGroupRange,
+		CloseableRegistry cancelStreamRegistry,
+		StateSerializerProvider<K> keySerializerProvider,
+		int maxDeltaCheckpoints) {
+		super(
+			snapshotStrategySynchronicityTrait,
+			registeredKVStates,
+			registeredPQStates,
+			keyGroupCompressionDecorator,
+			localRecoveryConfig,
+			keyGroupRange,
+			cancelStreamRegistry,
+			keySerializerProvider);
+		Preconditions.checkArgument(snapshotStrategySynchronicityTrait.isAsynchronous(),
+			"Incremental heap snapshots require asynchronous snapshots.");
+		Preconditions.checkArgument(maxDeltaCheckpoints >= 0, "The maximum number of deltas must not be negative.");
+		this.registeredKVStates = registeredKVStates;
+		this.registeredPQStates = registeredPQStates;
+		this.keyGroupCompressionDecorator = keyGroupCompressionDecorator;
+		this.keyGroupRange = keyGroupRange;
+		this.cancelStreamRegistry = cancelStreamRegistry;
+		this.maxDeltaCheckpoints = maxDeltaCheckpoints;
+		this.backendUID = UUID.randomUUID();
+		this.pendingChains = new TreeMap<>();
+	}
+
+	@Nonnull
+	@Override
+	public RunnableFuture<SnapshotResult<KeyedStateHandle>> snapshot(
+		long checkpointId,
+		long timestamp,
+		@Nonnull CheckpointStreamFactory primaryStreamFactory,
+		@Nonnull CheckpointOptions checkpointOptions) throws IOException {
+
+		if (checkpointOptions.getCheckpointType().isSavepoint() ||
+			(registeredKVStates.isEmpty() && registeredPQStates.isEmpty())) {
+			return super.snapshot(checkpointId, timestamp, primaryStreamFactory, checkpointOptions);
+		}
+
+		Preconditions.checkState(registeredKVStates.size() + registeredPQStates.size() <= Short.MAX_VALUE,
+			"Too many states. Currently at most " + Short.MAX_VALUE + " states are supported");
+
+		final SnapshotChain previousChain;
+		synchronized (lock) {
+			previousChain = confirmedChain;
+		}
+		final boolean writeBase = previousChain == null || previousChain.getNumberOfDeltas() >= maxDeltaCheckpoints;
+
+		final List<StateMetaInfoSnapshot> kvMetaInfoSnapshots = new ArrayList<>(registeredKVStates.size());
+		final Map<StateUID, Integer> kvStateNamesToId = new HashMap<>(registeredKVStates.size());
+		final Map<StateUID, StateSnapshot.StateKeyGroupWriter> kvWriters = new HashMap<>(registeredKVStates.size());
+		final Map<String, int[]> stateMapVersions = new HashMap<>(registeredKVStates.size());
+		final List<StateSnapshot> stateSnapshots = new ArrayList<>(registeredKVStates.size() + registeredPQStates.size());
+
+		for (Map.Entry<String, StateTable<K, ?, ?>> kvState : registeredKVStates.entrySet()) {
+			final String stateName = kvState.getKey();
+			final CopyOnWriteStateTableSnapshot<K, ?, ?> tableSnapshot =
+				((CopyOnWriteStateTable<K, ?, ?>) kvState.getValue()).stateSnapshot();
+			final StateUID stateUid = StateUID.of(stateName, StateMetaInfoSnapshot.BackendStateType.KEY_VALUE);
+			final int[] versions = tableSnapshot.getStateMapVersions();
+
+			stateSnapshots.add(tableSnapshot);
+			kvMetaInfoSnapshots.add(tableSnapshot.getMetaInfoSnapshot());
+			kvStateNamesToId.put(stateUid, kvStateNamesToId.size());
+			stateMapVersions.put(stateName, versions);
+			kvWriters.put(stateUid, tableSnapshot.getChangesKeyGroupWriter(
+				writeBase ? null : previousChain.getStateMapVersions(stateName)));
+		}
+
+		final List<StateMetaInfoSnapshot> pqMetaInfoSnapshots = new ArrayList<>(registeredPQStates.size());
+		final Map<StateUID, Integer> pqStateNamesToId = new HashMap<>(registeredPQStates.size());
+		final Map<StateUID, StateSnapshot.StateKeyGroupWriter> pqWriters = new HashMap<>(registeredPQStates.size());
+
+		for (Map.Entry<String, HeapPriorityQueueSnapshotRestoreWrapper> pqState : registeredPQStates.entrySet()) {
+			final StateSnapshot pqSnapshot = pqState.getValue().stateSnapshot();
+			final StateUID stateUid =
+				StateUID.of(pqState.getKey(), StateMetaInfoSnapshot.BackendStateType.PRIORITY_QUEUE);
+
+			stateSnapshots.add(pqSnapshot);
+			pqMetaInfoSnapshots.add(pqSnapshot.getMetaInfoSnapshot());
+			pqStateNamesToId.put(stateUid, pqStateNamesToId.size());
+			pqWriters.put(stateUid, pqSnapshot.getKeyGroupWriter());
+		}
+
+		final boolean compressed =
+			!Objects.equals(UncompressedStreamCompressionDecorator.INSTANCE, keyGroupCompressionDecorator);
+		final TypeSerializer<K> keySerializer = getKeySerializer();
+		final KeyedBackendSerializationProxy<K> kvSerializationProxy =
+			new KeyedBackendSerializationProxy<>(keySerializer, kvMetaInfoSnapshots, compressed);
+		final KeyedBackendSerializationProxy<K> pqSerializationProxy =
+			new KeyedBackendSerializationProxy<>(keySerializer, pqMetaInfoSnapshots, compressed);
+
+		final StateHandleID fileId = new StateHandleID(
+			"heap-" + checkpointId + (writeBase ? ".base" : ".delta"));
+
+		//--------------------------------------------------- this becomes the end of sync part
+
+		final AsyncSnapshotCallable<SnapshotResult<KeyedStateHandle>> asyncSnapshotCallable =
+			new AsyncSnapshotCallable<SnapshotResult<KeyedStateHandle>>() {
+				@Override
+				protected SnapshotResult<KeyedStateHandle> callInternal() throws Exception {
+
+					final List<StateObject> createdHandles = new ArrayList<>(3);
+
+					try {
+						final List<SnapshotChain.ChainFile> files = new ArrayList<>();
+						final Map<StateHandleID, StreamStateHandle> sharedState = new HashMap<>();
+						if (!writeBase) {
+							for (SnapshotChain.ChainFile file : previousChain.getFiles()) {
+								files.add(file);
+								sharedState.put(file.getId(), new PlaceholderStreamStateHandle());
+							}
+						}
+
+						final CheckpointStreamFactory.CheckpointStateOutputStream fileStream =
+							primaryStreamFactory.createCheckpointStateOutputStream(CheckpointedStateScope.SHARED);
+						final long[] fileOffsets = writeStateFile(fileStream, kvSerializationProxy, kvWriters, kvStateNamesToId);
+						final StreamStateHandle fileHandle = closeAndGetHandle(fileStream);
+						createdHandles.add(fileHandle);
+						files.add(new SnapshotChain.ChainFile(fileId, fileOffsets));
+						sharedState.put(fileId, fileHandle);
+
+						final Map<StateHandleID, StreamStateHandle> privateState = new HashMap<>();
+						long[] pqOffsets = null;
+						if (!pqWriters.isEmpty()) {
+							final CheckpointStreamFactory.CheckpointStateOutputStream pqStream =
+								primaryStreamFactory.createCheckpointStateOutputStream(CheckpointedStateScope.EXCLUSIVE);
+							pqOffsets = writeStateFile(pqStream, pqSerializationProxy, pqWriters, pqStateNamesToId);
+							final StreamStateHandle pqHandle = closeAndGetHandle(pqStream);
+							createdHandles.add(pqHandle);
+							privateState.put(PRIORITY_QUEUE_STATE_ID, pqHandle);
+						}
+
+						final CheckpointStreamFactory.CheckpointStateOutputStream metaStream =
+							primaryStreamFactory.createCheckpointStateOutputStream(CheckpointedStateScope.EXCLUSIVE);
+						snapshotCloseableRegistry.registerCloseable(metaStream);
+						writeMetaData(new DataOutputViewStreamWrapper(metaStream), files, pqOffsets);
+						final StreamStateHandle metaHandle = closeAndGetHandle(metaStream);
+						createdHandles.add(metaHandle);
+
+						synchronized (lock) {
+							pendingChains.put(checkpointId, new SnapshotChain(files, stateMapVersions));
+						}
+
+						return SnapshotResult.of(new IncrementalRemoteKeyedStateHandle(
+							backendUID,
+							keyGroupRange,
+							checkpointId,
+							sharedState,
+							privateState,
+							metaHandle));
+					} catch (Exception e) {
+						StateUtil.bestEffortDiscardAllStateObjects(createdHandles);
+						throw e;
+					}
+				}
+
+				private long[] writeStateFile(
+					CheckpointStreamFactory.CheckpointStateOutputStream outStream,
+					KeyedBackendSerializationProxy<K> serializationProxy,
+					Map<StateUID, StateSnapshot.StateKeyGroupWriter> keyGroupWriters,
+					Map<StateUID, Integer> stateNamesToId) throws IOException {
+
+					snapshotCloseableRegistry.registerCloseable(outStream);
+					final DataOutputViewStreamWrapper outView = new DataOutputViewStreamWrapper(outStream);
+					serializationProxy.write(outView);
+					return writeKeyGroups(
+						outStream,
+						outView,
+						keyGroupRange,
+						keyGroupCompressionDecorator,
+						keyGroupWriters,
+						stateNamesToId);
+				}
+
+				private StreamStateHandle closeAndGetHandle(
+					CheckpointStreamFactory.CheckpointStateOutputStream outStream) throws IOException {
+
+					if (snapshotCloseableRegistry.unregisterCloseable(outStream)) {
+						return outStream.closeAndGetHandle();
+					} else {
+						throw new IOException("Stream already unregistered.");
+					}
+				}
+
+				@Override
+				protected void cleanupProvidedResources() {
+					for (StateSnapshot stateSnapshot : stateSnapshots) {
+						stateSnapshot.release();
+					}
+				}
+
+				@Override
+				protected void logAsyncSnapshotComplete(long startTime) {
+					logAsyncCompleted(primaryStreamFactory, startTime);
+				}
+			};
+
+		final FutureTask<SnapshotResult<KeyedStateHandle>> task =
+			asyncSnapshotCallable.toAsyncSnapshotFutureTask(cancelStreamRegistry);
+		finalizeSnapshotBeforeReturnHook(task);
+
+		return task;
+	}
+
+	@Override
+	void notifyCheckpointComplete(long checkpointId) {
+		final SnapshotChain completedChain;
+		synchronized (lock) {
+			completedChain = pendingChains.remove(checkpointId);
+			if (completedChain == null) {
+				return;
+			}
+			confirmedChain = completedChain;
+			// older snapshots can no longer become the base of an incremental snapshot
+			pendingChains.headMap(checkpointId).clear();
+		}
+
+		LOG.debug("Checkpoint {} with {} delta(s) is the new base for incremental heap snapshots.",
+			checkpointId, completedChain.getNumberOfDeltas());
+
+		// the removed mappings before the confirmed checkpoint are no longer needed for incremental snapshots
+		for (Map.Entry<String, StateTable<K, ?, ?>> kvState : registeredKVStates.entrySet()) {
+			final int[] versions = completedChain.getStateMapVersions(kvState.getKey());
+			if (versions != null) {
+				((CopyOnWriteStateTable<K, ?, ?>) kvState.getValue()).discardRemovedEntriesBefore(versions);
+			}
+		}
+	}
+
+	@Override
+	public <N, V> StateTable<K, N, V> newStateTable(
+		InternalKeyContext<K> keyContext,
+		RegisteredKeyValueStateBackendMetaInfo<N, V> newMetaInfo,
+		TypeSerializer<K> keySerializer) {
+		final StateTable<K, N, V> stateTable = super.newStateTable(keyContext, newMetaInfo, keySerializer);
+		((CopyOnWriteStateTable<K, N, V>) stateTable).enableChangeTracking();
+		return stateTable;
+	}
+
+	// ------------------------------------------------------------------------
+	//  meta data
+	// ------------------------------------------------------------------------
+
+	private static void writeMetaData(
+		DataOutputView out,
+		List<SnapshotChain.ChainFile> files,
+		@Nullable long[] pqOffsets) throws IOException {
+
+		out.writeInt(META_DATA_MAGIC_NUMBER);
+		out.writeInt(META_DATA_VERSION);
+
+		out.writeInt(files.size());
+		for (SnapshotChain.ChainFile file : files) {
+			out.writeUTF(file.getId().getKeyString());
+			writeOffsets(out, file.getOffsets());
+		}
+
+		out.writeBoolean(pqOffsets != null);
+		if (pqOffsets != null) {
+			writeOffsets(out, pqOffsets);
+		}
+	}
+
+	/**
+	 * Reads the meta data of an incremental heap snapshot, which lists the files of the snapshot in the order in
+	 * which they have to be applied on restore.
+	 */
+	static IncrementalSnapshotMetaData readMetaData(DataInputView in) throws IOException {
+		final int magicNumber = in.readInt();
+		if (magicNumber != META_DATA_MAGIC_NUMBER) {
+			throw new IOException("The incremental snapshot was not created by the heap keyed state backend. " +
+				"Incremental snapshots cannot be restored with a different type of state backend.");
+		}
+
+		final int version = in.readInt();
+		if (version != META_DATA_VERSION) {
+			throw new IOException("Unsupported version of incremental heap snapshot: " + version);
+		}
+
+		final int numFiles = in.readInt();
+		final List<SnapshotChain.ChainFile> files = new ArrayList<>(numFiles);
+		for (int i = 0; i < numFiles; i++) {
+			final StateHandleID fileId = new StateHandleID(in.readUTF());
+			files.add(new SnapshotChain.ChainFile(fileId, readOffsets(in)));
+		}
+
+		final long[] pqOffsets = in.readBoolean() ? readOffsets(in) : null;
+		return new IncrementalSnapshotMetaData(files, pqOffsets);
+	}
+
+	private static void writeOffsets(DataOutputView out, long[] offsets) throws IOException {
+		out.writeInt(offsets.length);
+		for (long offset : offsets) {
+			out.writeLong(offset);
+		}
+	}
+
+	private static long[] readOffsets(DataInputView in) throws IOException {
+		final long[] offsets = new long[in.readInt()];
+		for (int i = 0; i < offsets.length; i++) {
+			offsets[i] = in.readLong();
+		}
+		return offsets;
+	}
+
+	/**
+	 * The meta data of an incremental heap snapshot.
+	 */
+	static final class IncrementalSnapshotMetaData {
+
+		/** The base file, followed by the delta files in the order in which they were written. */
+		private final List<SnapshotChain.ChainFile> files;
+
+		/** The key-group offsets in the file of the priority queue states, null if there are none. */
+		@Nullable
+		private final long[] priorityQueueOffsets;
+
+		IncrementalSnapshotMetaData(List<SnapshotChain.ChainFile> files, @Nullable long[] priorityQueueOffsets) {
+			this.files = files;
+			this.priorityQueueOffsets = priorityQueueOffsets;
+		}
+
+		List<SnapshotChain.ChainFile> getFiles() {
+			return files;
+		}
+
+		@Nullable
+		long[] getPriorityQueueOffsets() {
+			return priorityQueueOffsets;
+		}
+	}
+
+	/**
+	 * The files that make up an incremental snapshot, and the versions of the state maps at the time of the snapshot.
+	 */
+	static final class SnapshotChain {
+
+		private final List<ChainFile> files;
+
+		/** The versions of the state maps by state name and key-group offset. */
+		private final Map<String, int[]> stateMapVersions;
+
+		SnapshotChain(List<ChainFile> files, Map<String, int[]> stateMapVersions) {
+			this.files = Collections.unmodifiableList(files);
+			this.stateMapVersions = stateMapVersions;
+		}
+
+		List<ChainFile> getFiles() {
+			return files;
+		}
+
+		int getNumberOfDeltas() {
+			return files.size() - 1;
+		}
+
+		@Nullable
+		int[] getStateMapVersions(String stateName) {
+			return stateMapVersions.get(stateName);
+		}
+
+		/**
+		 * A base or delta file of an incremental snapshot.
+		 */
+		static final class ChainFile {
+
+			private final StateHandleID id;
+
+			/** The offsets of the key-groups of the backend in the file. */
+			private final long[] offsets;
+
+			ChainFile(StateHandleID id, long[] offsets) {
+				this.id = id;
+				this.offsets = offsets;
+			}
+
+			StateHandleID getId() {
+				return id;
+			}
+
+			long[] getOffsets() {
+				return offsets;
+			}
+		}
+	}
+}
@@ -30,6 +30,9 @@ import org.apache.flink.runtime.state.LocalRecoveryConfig;
 import org.apache.flink.runtime.state.StreamCompressionDecorator;
 import org.apache.flink.runtime.state.ttl.TtlTimeProvider;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import javax.annotation.Nonnull;
 import java.util.Collection;
 import java.util.HashMap;
@@ -41,6 +44,9 @@ import java.util.Map;
  * @param <K> The data type that the key serializer serializes.
  */
 public class HeapKeyedStateBackendBuilder<K> extends AbstractKeyedStateBackendBuilder<K> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(HeapKeyedStateBackendBuilder.class);
+
 	/**
 	 * The configuration of local recovery.
 	 */
@@ -53,7 +59,46 @@ public class HeapKeyedStateBackendBuilder<K> extends AbstractKeyedStateBackendBu
 	 * Whether asynchronous snapshot is enabled.
 	 */
 	private final boolean asynchronousSnapshots;
+	/**
+	 * Whether incremental checkpoints are enabled.
+	 */
+	private final boolean incrementalCheckpoints;
+	/**
+	 * The maximum number of incremental checkpoints on top of a full checkpoint.
+	 */
+	private final int maxDeltaCheckpoints;
 
+	public HeapKeyedStateBackendBuilder(
+		TaskKvStateRegistry kvStateRegistry,
+		TypeSerializer<K> keySerializer,
+		ClassLoader userCodeClassLoader,
+		int numberOfKeyGroups,
+		KeyGroupRange keyGroupRange,
+		ExecutionConfig executionConfig,
+		TtlTimeProvider ttlTimeProvider,
+		@Nonnull Collection<KeyedStateHandle> stateHandles,
+		StreamCompressionDecorator keyGroupCompressionDecorator,
+		LocalRecoveryConfig localRecoveryConfig,
+		HeapPriorityQueueSetFactory priorityQueueSetFactory,
+		boolean asynchronousSnapshots,
+		CloseableRegistry cancelStreamRegistry) {
+		this(
+			kvStateRegistry,
+			keySerializer,
+			userCodeClassLoader,
+			numberOfKeyGroups,
+			keyGroupRange,
+			executionConfig,
+			ttlTimeProvider,
+			stateHandles,
+			keyGroupCompressionDecorator,
+			localRecoveryConfig,
+			priorityQueueSetFactory,
+			asynchronousSnapshots,
+			false,
+			0,
+			cancelStreamRegistry);
+	}
 
 	public HeapKeyedStateBackendBuilder(
 		TaskKvStateRegistry kvStateRegistry,
@@ -68,6 +113,8 @@ public class HeapKeyedStateBackendBuilder<K> extends AbstractKeyedStateBackendBu
 		LocalRecoveryConfig localRecoveryConfig,
 		HeapPriorityQueueSetFactory priorityQueueSetFactory,
 		boolean asynchronousSnapshots,
+		boolean incrementalCheckpoints,
+		int maxDeltaCheckpoints,
 		CloseableRegistry cancelStreamRegistry) {
 		super(
 			kvStateRegistry,
@@ -83,6 +130,8 @@ public class HeapKeyedStateBackendBuilder<K> extends AbstractKeyedStateBackendBu
 		this.localRecoveryConfig = localRecoveryConfig;
 		this.priorityQueueSetFactory = priorityQueueSetFactory;
 		this.asynchronousSnapshots = asynchronousSnapshots;
+		this.incrementalCheckpoints = incrementalCheckpoints;
+		this.maxDeltaCheckpoints = maxDeltaCheckpoints;
 	}
 
 	@Override
@@ -139,6 +188,22 @@ public class HeapKeyedStateBackendBuilder<K> extends AbstractKeyedStateBackendBu
 		SnapshotStrategySynchronicityBehavior<K> synchronicityTrait = asynchronousSnapshots ?
 			new AsyncSnapshotStrategySynchronicityBehavior<>() :
 			new SyncSnapshotStrategySynchronicityBehavior<>();
+		if (incrementalCheckpoints) {
+			if (asynchronousSnapshots) {
+				return new HeapIncrementalSnapshotStrategy<>(
+					synchronicityTrait,
+					registeredKVStates,
+					registeredPQStates,
+					keyGroupCompressionDecorator,
+					localRecoveryConfig,
+					keyGroupRange,
+					cancelStreamRegistry,
+					keySerializerProvider,
+					maxDeltaCheckpoints);
+			}
+			LOG.warn("Incremental checkpoints of the heap backend require asynchronous snapshots. " +
+				"Falling back to full checkpoints.");
+		}
 		return new HeapSnapshotStrategy<>(
 			synchronicityTrait,
 			registeredKVStates,
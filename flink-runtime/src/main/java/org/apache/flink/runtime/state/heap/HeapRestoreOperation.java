@@ -24,6 +24,7 @@ import org.apache.flink.api.java.tuple.Tuple2;
 import org.apache.flink.core.fs.CloseableRegistry;
 import org.apache.flink.core.fs.FSDataInputStream;
 import org.apache.flink.core.memory.DataInputViewStreamWrapper;
+import org.apache.flink.runtime.state.IncrementalRemoteKeyedStateHandle;
 import org.apache.flink.runtime.state.KeyExtractorFunction;
 import org.apache.flink.runtime.state.KeyGroupRange;
 import org.apache.flink.runtime.state.KeyGroupRangeOffsets;
@@ -40,6 +41,7 @@ import org.apache.flink.runtime.state.StateSerializerProvider;
 import org.apache.flink.runtime.state.StateSnapshotKeyGroupReader;
 import org.apache.flink.runtime.state.StateSnapshotRestore;
 import org.apache.flink.runtime.state.StreamCompressionDecorator;
+import org.apache.flink.runtime.state.StreamStateHandle;
 import org.apache.flink.runtime.state.UncompressedStreamCompressionDecorator;
 import org.apache.flink.runtime.state.metainfo.StateMetaInfoSnapshot;
 import org.apache.flink.util.Preconditions;
@@ -114,6 +116,13 @@ public class HeapRestoreOperation<K> implements RestoreOperation<Void> {
 				continue;
 			}
 
+			if (keyedStateHandle instanceof IncrementalRemoteKeyedStateHandle) {
+				keySerializerRestored = restoreIncrementalStateHandle(
+					(IncrementalRemoteKeyedStateHandle) keyedStateHandle,
+					keySerializerRestored);
+				continue;
+			}
+
 			if (!(keyedStateHandle instanceof KeyGroupsStateHandle)) {
 				throw new IllegalStateException("Unexpected state handle type, " +
 					"expected: " + KeyGroupsStateHandle.class +
@@ -133,14 +142,7 @@ public class HeapRestoreOperation<K> implements RestoreOperation<Void> {
 				serializationProxy.read(inView);
 
 				if (!keySerializerRestored) {
-					// check for key serializer compatibility; this also reconfigures the
-					// key serializer to be compatible, if it is required and is possible
-					TypeSerializerSchemaCompatibility<K> keySerializerSchemaCompat =
-						keySerializerProvider.setPreviousSerializerSnapshotForRestoredState(serializationProxy.getKeySerializerSnapshot());
-					if (keySerializerSchemaCompat.isCompatibleAfterMigration() || keySerializerSchemaCompat.isIncompatible()) {
-						throw new StateMigrationException("The new key serializer must be compatible.");
-					}
-
+					checkKeySerializerCompatibility(serializationProxy);
 					keySerializerRestored = true;
 				}
 
@@ -167,6 +169,144 @@ public class HeapRestoreOperation<K> implements RestoreOperation<Void> {
 		return null;
 	}
 
+	/**
+	 * Restores an incremental snapshot that was written by {@link HeapIncrementalSnapshotStrategy}, by applying the
+	 * base and delta files of the snapshot in order, followed by the priority queue states.
+	 *
+	 * @return whether the key serializer was restored.
+	 */
+	private boolean restoreIncrementalStateHandle(
+		IncrementalRemoteKeyedStateHandle stateHandle,
+		boolean keySerializerRestored) throws Exception {
+
+		final HeapIncrementalSnapshotStrategy.IncrementalSnapshotMetaData metaData;
+		FSDataInputStream metaInputStream = stateHandle.getMetaStateHandle().openInputStream();
+		cancelStreamRegistry.registerCloseable(metaInputStream);
+		try {
+			metaData = HeapIncrementalSnapshotStrategy.readMetaData(new DataInputViewStreamWrapper(metaInputStream));
+		} finally {
+			if (cancelStreamRegistry.unregisterCloseable(metaInputStream)) {
+				IOUtils.closeQuietly(metaInputStream);
+			}
+		}
+
+		final KeyGroupRange snapshotKeyGroupRange = stateHandle.getKeyGroupRange();
+
+		for (HeapIncrementalSnapshotStrategy.SnapshotChain.ChainFile file : metaData.getFiles()) {
+			final StreamStateHandle fileHandle = stateHandle.getSharedState().get(file.getId());
+			Preconditions.checkState(fileHandle != null,
+				"Missing file " + file.getId() + " of the incremental snapshot.");
+
+			FSDataInputStream fsDataInputStream = fileHandle.openInputStream();
+			cancelStreamRegistry.registerCloseable(fsDataInputStream);
+
+			try {
+				DataInputViewStreamWrapper inView = new DataInputViewStreamWrapper(fsDataInputStream);
+
+				KeyedBackendSerializationProxy<K> serializationProxy =
+					new KeyedBackendSerializationProxy<>(userCodeClassLoader);
+
+				serializationProxy.read(inView);
+
+				if (!keySerializerRestored) {
+					checkKeySerializerCompatibility(serializationProxy);
+					keySerializerRestored = true;
+				}
+
+				List<StateMetaInfoSnapshot> restoredMetaInfos =
+					serializationProxy.getStateMetaInfoSnapshots();
+
+				final Map<Integer, StateMetaInfoSnapshot> kvStatesById = new HashMap<>();
+
+				createOrCheckStateForMetaInfo(restoredMetaInfos, kvStatesById);
+
+				final StreamCompressionDecorator streamCompressionDecorator =
+					serializationProxy.isUsingKeyGroupCompression() ?
+						SnappyStreamCompressionDecorator.INSTANCE : UncompressedStreamCompressionDecorator.INSTANCE;
+
+				final KeyGroupRangeOffsets keyGroupOffsets =
+					new KeyGroupRangeOffsets(snapshotKeyGroupRange, file.getOffsets()).getIntersection(keyGroupRange);
+
+				for (Tuple2<Integer, Long> groupOffset : keyGroupOffsets) {
+					int keyGroupIndex = groupOffset.f0;
+
+					fsDataInputStream.seek(groupOffset.f1);
+
+					int writtenKeyGroupIndex = inView.readInt();
+					Preconditions.checkState(writtenKeyGroupIndex == keyGroupIndex,
+						"Unexpected key-group in restore.");
+
+					try (InputStream kgCompressionInStream =
+							streamCompressionDecorator.decorateWithCompression(fsDataInputStream)) {
+
+						DataInputViewStreamWrapper kgInView = new DataInputViewStreamWrapper(kgCompressionInStream);
+						for (int i = 0; i < restoredMetaInfos.size(); i++) {
+							final StateMetaInfoSnapshot stateMetaInfoSnapshot = kvStatesById.get((int) kgInView.readShort());
+							registeredKVStates.get(stateMetaInfoSnapshot.getName())
+								.changesKeyGroupReader()
+								.readMappingsInKeyGroup(kgInView, keyGroupIndex);
+						}
+					}
+				}
+			} finally {
+				if (cancelStreamRegistry.unregisterCloseable(fsDataInputStream)) {
+					IOUtils.closeQuietly(fsDataInputStream);
+				}
+			}
+		}
+
+		final long[] priorityQueueOffsets = metaData.getPriorityQueueOffsets();
+		if (priorityQueueOffsets != null) {
+			final StreamStateHandle priorityQueueHandle =
+				stateHandle.getPrivateState().get(HeapIncrementalSnapshotStrategy.PRIORITY_QUEUE_STATE_ID);
+			Preconditions.checkState(priorityQueueHandle != null,
+				"Missing priority queue states of the incremental snapshot.");
+
+			FSDataInputStream fsDataInputStream = priorityQueueHandle.openInputStream();
+			cancelStreamRegistry.registerCloseable(fsDataInputStream);
+
+			try {
+				DataInputViewStreamWrapper inView = new DataInputViewStreamWrapper(fsDataInputStream);
+
+				KeyedBackendSerializationProxy<K> serializationProxy =
+					new KeyedBackendSerializationProxy<>(userCodeClassLoader);
+
+				serializationProxy.read(inView);
+
+				List<StateMetaInfoSnapshot> restoredMetaInfos =
+					serializationProxy.getStateMetaInfoSnapshots();
+
+				final Map<Integer, StateMetaInfoSnapshot> kvStatesById = new HashMap<>();
+
+				createOrCheckStateForMetaInfo(restoredMetaInfos, kvStatesById);
+
+				readStateHandleStateData(
+					fsDataInputStream,
+					inView,
+					new KeyGroupRangeOffsets(snapshotKeyGroupRange, priorityQueueOffsets).getIntersection(keyGroupRange),
+					kvStatesById, restoredMetaInfos.size(),
+					serializationProxy.getReadVersion(),
+					serializationProxy.isUsingKeyGroupCompression());
+			} finally {
+				if (cancelStreamRegistry.unregisterCloseable(fsDataInputStream)) {
+					IOUtils.closeQuietly(fsDataInputStream);
+				}
+			}
+		}
+
+		return keySerializerRestored;
+	}
+
+	private void checkKeySerializerCompatibility(KeyedBackendSerializationProxy<K> serializationProxy) throws StateMigrationException {
+		// check for key serializer compatibility; this also reconfigures the
+		// key serializer to be compatible, if it is required and is possible
+		TypeSerializerSchemaCompatibility<K> keySerializerSchemaCompat =
+			keySerializerProvider.setPreviousSerializerSnapshotForRestoredState(serializationProxy.getKeySerializerSnapshot());
+		if (keySerializerSchemaCompat.isCompatibleAfterMigration() || keySerializerSchemaCompat.isIncompatible()) {
+			throw new StateMigrationException("The new key serializer must be compatible.");
+		}
+	}
+
 	private void createOrCheckStateForMetaInfo(
 		List<StateMetaInfoSnapshot> restoredMetaInfo,
 		Map<Integer, StateMetaInfoSnapshot> kvStatesById) {
@@ -170,29 +170,20 @@ class HeapSnapshotStrategy<K>
 					final DataOutputViewStreamWrapper outView = new DataOutputViewStreamWrapper(localStream);
 					serializationProxy.write(outView);
 
-					final long[] keyGroupRangeOffsets = new long[keyGroupRange.getNumberOfKeyGroups()];
-
-					for (int keyGroupPos = 0; keyGroupPos < keyGroupRange.getNumberOfKeyGroups(); ++keyGroupPos) {
-						int keyGroupId = keyGroupRange.getKeyGroupId(keyGroupPos);
-						keyGroupRangeOffsets[keyGroupPos] = localStream.getPos();
-						outView.writeInt(keyGroupId);
-
-						for (Map.Entry<StateUID, StateSnapshot> stateSnapshot :
-							cowStateStableSnapshots.entrySet()) {
-							StateSnapshot.StateKeyGroupWriter partitionedSnapshot =
-
-								stateSnapshot.getValue().getKeyGroupWriter();
-							try (
-								OutputStream kgCompressionOut =
-									keyGroupCompressionDecorator.decorateWithCompression(localStream)) {
-								DataOutputViewStreamWrapper kgCompressionView =
-									new DataOutputViewStreamWrapper(kgCompressionOut);
-								kgCompressionView.writeShort(stateNamesToId.get(stateSnapshot.getKey()));
-								partitionedSnapshot.writeStateInKeyGroup(kgCompressionView, keyGroupId);
-							} // this will just close the outer compression stream
-						}
+					final Map<StateUID, StateSnapshot.StateKeyGroupWriter> keyGroupWriters =
+						new HashMap<>(cowStateStableSnapshots.size());
+					for (Map.Entry<StateUID, StateSnapshot> stateSnapshot : cowStateStableSnapshots.entrySet()) {
+						keyGroupWriters.put(stateSnapshot.getKey(), stateSnapshot.getValue().getKeyGroupWriter());
 					}
 
+					final long[] keyGroupRangeOffsets = writeKeyGroups(
+						localStream,
+						outView,
+						keyGroupRange,
+						keyGroupCompressionDecorator,
+						keyGroupWriters,
+						stateNamesToId);
+
 					if (snapshotCloseableRegistry.unregisterCloseable(streamWithResultProvider)) {
 						KeyGroupRangeOffsets kgOffs = new KeyGroupRangeOffsets(keyGroupRange, keyGroupRangeOffsets);
 						SnapshotResult<StreamStateHandle> result =
@@ -225,6 +216,49 @@ class HeapSnapshotStrategy<K>
 		return task;
 	}
 
+	/**
+	 * Writes the state of all given writers, partitioned by key-group, to the given stream.
+	 *
+	 * @return the offsets of the key-groups in the stream.
+	 */
+	static long[] writeKeyGroups(
+		CheckpointStreamFactory.CheckpointStateOutputStream outStream,
+		DataOutputViewStreamWrapper outView,
+		KeyGroupRange keyGroupRange,
+		StreamCompressionDecorator keyGroupCompressionDecorator,
+		Map<StateUID, StateSnapshot.StateKeyGroupWriter> keyGroupWriters,
+		Map<StateUID, Integer> stateNamesToId) throws IOException {
+
+		final long[] keyGroupRangeOffsets = new long[keyGroupRange.getNumberOfKeyGroups()];
+
+		for (int keyGroupPos = 0; keyGroupPos < keyGroupRange.getNumberOfKeyGroups(); ++keyGroupPos) {
+			int keyGroupId = keyGroupRange.getKeyGroupId(keyGroupPos);
+			keyGroupRangeOffsets[keyGroupPos] = outStream.getPos();
+			outView.writeInt(keyGroupId);
+
+			for (Map.Entry<StateUID, StateSnapshot.StateKeyGroupWriter> keyGroupWriter : keyGroupWriters.entrySet()) {
+				try (
+					OutputStream kgCompressionOut =
+						keyGroupCompressionDecorator.decorateWithCompression(outStream)) {
+					DataOutputViewStreamWrapper kgCompressionView =
+						new DataOutputViewStreamWrapper(kgCompressionOut);
+					kgCompressionView.writeShort(stateNamesToId.get(keyGroupWriter.getKey()));
+					keyGroupWriter.getValue().writeStateInKeyGroup(kgCompressionView, keyGroupId);
+				} // this will just close the outer compression stream
+			}
+		}
+
+		return keyGroupRangeOffsets;
+	}
+
+	/**
+	 * Notifies the strategy that the checkpoint with the given id was completed. Strategies that write incremental
+	 * snapshots use this to determine the base of the next snapshot.
+	 */
+	void notifyCheckpointComplete(long checkpointId) {
+		// full snapshots do not depend on previous checkpoints
+	}
+
 	@Override
 	public void finalizeSnapshotBeforeReturnHook(Runnable runnable) {
 		snapshotStrategySynchronicityTrait.finalizeSnapshotBeforeReturnHook(runnable);
@@ -362,6 +362,14 @@ public abstract class StateTable<K, N, S>
 		return StateTableByKeyGroupReaders.readerForVersion(this, readVersion);
 	}
 
+	/**
+	 * Returns a reader that applies the changes written by an incremental snapshot of a key-group to this table.
+	 */
+	@Nonnull
+	public StateSnapshotKeyGroupReader changesKeyGroupReader() {
+		return StateTableByKeyGroupReaders.changesReader(this);
+	}
+
 	// StateEntryIterator  ---------------------------------------------------------------------------------------------
 
 	class StateEntryIterator implements StateIncrementalVisitor<K, N, S> {
@@ -65,6 +65,35 @@ class StateTableByKeyGroupReaders {
 		}
 	}
 
+	/**
+	 * Creates a new reader that applies the changes written by
+	 * {@link AbstractCopyOnWriteStateMapSnapshot#writeStateChanges} to the given table: first the removed mappings, then the
+	 * updated mappings.
+	 */
+	static <K, N, S> StateSnapshotKeyGroupReader changesReader(StateTable<K, N, S> stateTable) {
+		final TypeSerializer<N> namespaceSerializer = stateTable.getNamespaceSerializer();
+		final TypeSerializer<S> stateSerializer = stateTable.getStateSerializer();
+		final TypeSerializer<K> keySerializer = stateTable.keySerializer;
+		return (inView, keyGroupId) -> {
+			final StateMap<K, N, S> stateMap = stateTable.getMapForKeyGroup(keyGroupId);
+
+			int numRemoved = inView.readInt();
+			for (int i = 0; i < numRemoved; i++) {
+				N namespace = namespaceSerializer.deserialize(inView);
+				K key = keySerializer.deserialize(inView);
+				stateMap.remove(key, namespace);
+			}
+
+			int numUpdated = inView.readInt();
+			for (int i = 0; i < numUpdated; i++) {
+				N namespace = namespaceSerializer.deserialize(inView);
+				K key = keySerializer.deserialize(inView);
+				S state = stateSerializer.deserialize(inView);
+				stateMap.put(key, namespace, state);
+			}
+		};
+	}
+
 	private static <K, N, S> StateSnapshotKeyGroupReader createV2PlusReader(
 		StateTable<K, N, S> stateTable) {
 		final TypeSerializer<N> namespaceSerializer = stateTable.getNamespaceSerializer();
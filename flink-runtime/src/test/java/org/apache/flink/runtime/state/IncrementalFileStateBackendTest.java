@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state;
+
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.configuration.CheckpointingOptions;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.runtime.checkpoint.CheckpointOptions;
+import org.apache.flink.runtime.operators.testutils.MockEnvironment;
+import org.apache.flink.runtime.state.filesystem.FsStateBackend;
+import org.apache.flink.util.IOUtils;
+import org.apache.flink.util.TernaryBoolean;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests for the keyed state backend and operator state backend, as created by the
+ * {@link FsStateBackend} with incremental checkpoints.
+ */
+public class IncrementalFileStateBackendTest extends FileStateBackendTest {
+
+	private static final int MAX_DELTA_CHECKPOINTS = 2;
+
+	@Override
+	protected FsStateBackend getStateBackend() throws Exception {
+		File checkpointPath = tempFolder.newFolder();
+		Configuration configuration = new Configuration();
+		configuration.setInteger(CheckpointingOptions.FS_INCREMENTAL_MAX_DELTA_CHECKPOINTS, MAX_DELTA_CHECKPOINTS);
+		return new FsStateBackend(
+			checkpointPath.toURI(),
+			null,
+			-1,
+			-1,
+			TernaryBoolean.fromBoolean(useAsyncMode),
+			TernaryBoolean.TRUE).configure(configuration, getClass().getClassLoader());
+	}
+
+	@Test
+	public void testIncrementalSnapshotRestore() throws Exception {
+		assumeTrue(useAsyncMode);
+
+		CheckpointStreamFactory streamFactory = createStreamFactory();
+		SharedStateRegistry sharedStateRegistry = new SharedStateRegistry();
+		ValueStateDescriptor<String> kvId = new ValueStateDescriptor<>("id", String.class);
+
+		AbstractKeyedStateBackend<Integer> backend = createKeyedBackend(IntSerializer.INSTANCE);
+		try {
+			ValueState<String> state = backend.getPartitionedState(VoidNamespace.INSTANCE, VoidNamespaceSerializer.INSTANCE, kvId);
+
+			for (int i = 0; i < 100; i++) {
+				backend.setCurrentKey(i);
+				state.update("base-" + i);
+			}
+
+			KeyedStateHandle base = runSnapshot(
+				backend.snapshot(1L, 1L, streamFactory, CheckpointOptions.forCheckpointWithDefaultLocation()),
+				sharedStateRegistry);
+			assertEquals(1, ((IncrementalRemoteKeyedStateHandle) base).getSharedState().size());
+			backend.notifyCheckpointComplete(1L);
+
+			backend.setCurrentKey(1);
+			state.update("delta-1");
+			backend.setCurrentKey(2);
+			state.clear();
+			backend.setCurrentKey(3);
+			state.clear();
+			state.update("delta-3");
+			backend.setCurrentKey(100);
+			state.update("delta-100");
+
+			KeyedStateHandle delta = runSnapshot(
+				backend.snapshot(2L, 2L, streamFactory, CheckpointOptions.forCheckpointWithDefaultLocation()),
+				sharedStateRegistry);
+			assertEquals(2, ((IncrementalRemoteKeyedStateHandle) delta).getSharedState().size());
+
+			backend.dispose();
+			backend = restoreKeyedBackend(IntSerializer.INSTANCE, delta);
+			state = backend.getPartitionedState(VoidNamespace.INSTANCE, VoidNamespaceSerializer.INSTANCE, kvId);
+
+			for (int i = 0; i <= 100; i++) {
+				backend.setCurrentKey(i);
+				if (i == 1 || i == 3 || i == 100) {
+					assertEquals("delta-" + i, state.value());
+				} else if (i == 2) {
+					assertNull(state.value());
+				} else {
+					assertEquals("base-" + i, state.value());
+				}
+			}
+
+			// the first checkpoint after a restore is a full checkpoint of the restored backend
+			KeyedStateHandle restoredBase = runSnapshot(
+				backend.snapshot(3L, 3L, streamFactory, CheckpointOptions.forCheckpointWithDefaultLocation()),
+				sharedStateRegistry);
+			assertEquals(1, ((IncrementalRemoteKeyedStateHandle) restoredBase).getSharedState().size());
+		} finally {
+			IOUtils.closeQuietly(backend);
+			backend.dispose();
+		}
+	}
+
+	@Test
+	public void testFullSnapshotAfterMaxDeltaCheckpoints() throws Exception {
+		assumeTrue(useAsyncMode);
+
+		CheckpointStreamFactory streamFactory = createStreamFactory();
+		SharedStateRegistry sharedStateRegistry = new SharedStateRegistry();
+		ValueStateDescriptor<String> kvId = new ValueStateDescriptor<>("id", String.class);
+
+		AbstractKeyedStateBackend<Integer> backend = createKeyedBackend(IntSerializer.INSTANCE);
+		try {
+			ValueState<String> state = backend.getPartitionedState(VoidNamespace.INSTANCE, VoidNamespaceSerializer.INSTANCE, kvId);
+
+			KeyedStateHandle snapshot = null;
+			for (long checkpointId = 1L; checkpointId <= MAX_DELTA_CHECKPOINTS + 2; checkpointId++) {
+				backend.setCurrentKey((int) checkpointId);
+				state.update("value-" + checkpointId);
+
+				snapshot = runSnapshot(
+					backend.snapshot(checkpointId, checkpointId, streamFactory, CheckpointOptions.forCheckpointWithDefaultLocation()),
+					sharedStateRegistry);
+				backend.notifyCheckpointComplete(checkpointId);
+
+				int expectedFiles = (int) ((checkpointId - 1) % (MAX_DELTA_CHECKPOINTS + 1)) + 1;
+				assertEquals(expectedFiles, ((IncrementalRemoteKeyedStateHandle) snapshot).getSharedState().size());
+			}
+
+			backend.dispose();
+			backend = restoreKeyedBackend(IntSerializer.INSTANCE, snapshot);
+			state = backend.getPartitionedState(VoidNamespace.INSTANCE, VoidNamespaceSerializer.INSTANCE, kvId);
+
+			for (int i = 1; i <= MAX_DELTA_CHECKPOINTS + 2; i++) {
+				backend.setCurrentKey(i);
+				assertEquals("value-" + i, state.value());
+			}
+		} finally {
+			IOUtils.closeQuietly(backend);
+			backend.dispose();
+		}
+	}
+
+	@Test
+	public void testRescaleIncrementalSnapshot() throws Exception {
+		assumeTrue(useAsyncMode);
+
+		CheckpointStreamFactory streamFactory = createStreamFactory();
+		SharedStateRegistry sharedStateRegistry = new SharedStateRegistry();
+		ValueStateDescriptor<String> kvId = new ValueStateDescriptor<>("id", String.class);
+
+		AbstractKeyedStateBackend<Integer> backend = createKeyedBackend(IntSerializer.INSTANCE);
+		KeyedStateHandle delta;
+		try {
+			ValueState<String> state = backend.getPartitionedState(VoidNamespace.INSTANCE, VoidNamespaceSerializer.INSTANCE, kvId);
+
+			for (int i = 0; i < 50; i++) {
+				backend.setCurrentKey(i);
+				state.update("base-" + i);
+			}
+
+			runSnapshot(
+				backend.snapshot(1L, 1L, streamFactory, CheckpointOptions.forCheckpointWithDefaultLocation()),
+				sharedStateRegistry);
+			backend.notifyCheckpointComplete(1L);
+
+			for (int i = 0; i < 50; i += 2) {
+				backend.setCurrentKey(i);
+				state.update("delta-" + i);
+			}
+
+			delta = runSnapshot(
+				backend.snapshot(2L, 2L, streamFactory, CheckpointOptions.forCheckpointWithDefaultLocation()),
+				sharedStateRegistry);
+		} finally {
+			IOUtils.closeQuietly(backend);
+			backend.dispose();
+		}
+
+		KeyGroupRange[] ranges = {new KeyGroupRange(0, 4), new KeyGroupRange(5, 9)};
+		int restoredKeys = 0;
+		for (KeyGroupRange range : ranges) {
+			MockEnvironment env = MockEnvironment.builder().build();
+			AbstractKeyedStateBackend<Integer> restoredBackend = restoreKeyedBackend(
+				IntSerializer.INSTANCE,
+				10,
+				range,
+				Collections.singletonList(delta),
+				env);
+			try {
+				ValueState<String> state =
+					restoredBackend.getPartitionedState(VoidNamespace.INSTANCE, VoidNamespaceSerializer.INSTANCE, kvId);
+
+				for (int i = 0; i < 50; i++) {
+					if (range.contains(KeyGroupRangeAssignment.assignToKeyGroup(i, 10))) {
+						restoredBackend.setCurrentKey(i);
+						assertEquals((i % 2 == 0 ? "delta-" : "base-") + i, state.value());
+						restoredKeys++;
+					}
+				}
+
+				assertTrue(restoredBackend.getKeys(kvId.getName(), VoidNamespace.INSTANCE)
+					.allMatch(key -> range.contains(KeyGroupRangeAssignment.assignToKeyGroup(key, 10))));
+			} finally {
+				IOUtils.closeQuietly(restoredBackend);
+				restoredBackend.dispose();
+				env.close();
+			}
+		}
+		assertEquals(50, restoredKeys);
+	}
+}
@@ -0,0 +1,351 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.state.BroadcastState;
+import org.apache.flink.api.common.state.MapStateDescriptor;
+import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
+import org.apache.flink.core.fs.CloseableRegistry;
+import org.apache.flink.runtime.checkpoint.CheckpointOptions;
+import org.apache.flink.runtime.checkpoint.OperatorStateRepartitioner;
+import org.apache.flink.runtime.checkpoint.RoundRobinOperatorStateRepartitioner;
+import org.apache.flink.runtime.concurrent.FutureUtils;
+import org.apache.flink.runtime.state.memory.MemCheckpointStreamFactory;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link SharedHeapBroadcastState} and the {@link SharedBroadcastStateRegistry}.
+ */
+public class SharedHeapBroadcastStateTest extends TestLogger {
+
+	private static final MapStateDescriptor<Integer, String> STATE_DESCRIPTOR = new MapStateDescriptor<>(
+		"rules", BasicTypeInfo.INT_TYPE_INFO, BasicTypeInfo.STRING_TYPE_INFO);
+
+	@Test
+	public void testInstancesShareElementsAfterBarrier() throws Exception {
+		SharedBroadcastStateRegistry registry = new SharedBroadcastStateRegistry();
+
+		DefaultOperatorStateBackend backend1 = createBackend(registry, true, Collections.emptyList());
+		DefaultOperatorStateBackend backend2 = createBackend(registry, false, Collections.emptyList());
+
+		SharedHeapBroadcastState<Integer, String> state1 = getSharedState(backend1);
+		SharedHeapBroadcastState<Integer, String> state2 = getSharedState(backend2);
+		assertSame(state1.getSharedElements(), state2.getSharedElements());
+
+		state1.put(1, "a");
+		state1.put(2, "b");
+		state2.put(1, "a");
+
+		// the changes are not visible to the other instance
+		assertNull(state2.get(2));
+
+		state2.put(2, "b");
+		snapshot(backend1, 1L);
+		snapshot(backend2, 1L);
+
+		assertEquals(toMap(state1), toMap(state2));
+		assertSame(state1.getSharedElements(), state2.getSharedElements());
+		assertEquals(1, registry.getNumberOfSharedStates());
+
+		backend1.dispose();
+		assertEquals(1, registry.getNumberOfSharedStates());
+		backend2.dispose();
+		assertEquals(0, registry.getNumberOfSharedStates());
+	}
+
+	@Test
+	public void testOnlySnapshotOwnerWritesState() throws Exception {
+		SharedBroadcastStateRegistry registry = new SharedBroadcastStateRegistry();
+
+		DefaultOperatorStateBackend owner = createBackend(registry, true, Collections.emptyList());
+		DefaultOperatorStateBackend other = createBackend(registry, false, Collections.emptyList());
+
+		owner.getBroadcastState(STATE_DESCRIPTOR).put(1, "a");
+		other.getBroadcastState(STATE_DESCRIPTOR).put(1, "a");
+
+		OperatorStateHandle ownerHandle = snapshot(owner, 1L);
+		assertNotNull(ownerHandle);
+		assertTrue(ownerHandle.getStateNameToPartitionOffsets().containsKey(STATE_DESCRIPTOR.getName()));
+
+		assertNull(snapshot(other, 1L));
+
+		owner.dispose();
+		other.dispose();
+	}
+
+	@Test
+	public void testRestoreDistributesStateOfSnapshotOwner() throws Exception {
+		SharedBroadcastStateRegistry registry = new SharedBroadcastStateRegistry();
+
+		DefaultOperatorStateBackend owner = createBackend(registry, true, Collections.emptyList());
+		DefaultOperatorStateBackend other = createBackend(registry, false, Collections.emptyList());
+
+		owner.getBroadcastState(STATE_DESCRIPTOR).put(1, "a");
+		owner.getBroadcastState(STATE_DESCRIPTOR).put(2, "b");
+		other.getBroadcastState(STATE_DESCRIPTOR).put(1, "a");
+		other.getBroadcastState(STATE_DESCRIPTOR).put(2, "b");
+
+		OperatorStateHandle ownerHandle = snapshot(owner, 1L);
+		assertNull(snapshot(other, 1L));
+
+		Map<Integer, String> expected = toMap(owner.getBroadcastState(STATE_DESCRIPTOR));
+
+		owner.dispose();
+		other.dispose();
+		assertEquals(0, registry.getNumberOfSharedStates());
+
+		List<List<OperatorStateHandle>> previousStates = new ArrayList<>();
+		previousStates.add(Collections.singletonList(ownerHandle));
+		previousStates.add(Collections.emptyList());
+
+		OperatorStateRepartitioner repartitioner = RoundRobinOperatorStateRepartitioner.INSTANCE;
+		List<List<OperatorStateHandle>> restoredStates = repartitioner.repartitionState(previousStates, 2, 2);
+
+		assertEquals(2, restoredStates.size());
+
+		DefaultOperatorStateBackend restoredOwner = createBackend(registry, true, restoredStates.get(0));
+		DefaultOperatorStateBackend restoredOther = createBackend(registry, false, restoredStates.get(1));
+
+		BroadcastState<Integer, String> restoredState1 = restoredOwner.getBroadcastState(STATE_DESCRIPTOR);
+		BroadcastState<Integer, String> restoredState2 = restoredOther.getBroadcastState(STATE_DESCRIPTOR);
+
+		assertEquals(expected, toMap(restoredState1));
+		assertEquals(expected, toMap(restoredState2));
+		assertEquals(1, registry.getNumberOfSharedStates());
+
+		assertSame(
+			((SharedHeapBroadcastState<Integer, String>) restoredState1).getSharedElements(),
+			((SharedHeapBroadcastState<Integer, String>) restoredState2).getSharedElements());
+
+		restoredState1.remove(1);
+		assertNull(restoredState1.get(1));
+		assertEquals("a", restoredState2.get(1));
+
+		restoredOwner.dispose();
+		restoredOther.dispose();
+		assertEquals(0, registry.getNumberOfSharedStates());
+	}
+
+	@Test
+	public void testSnapshotsWithUnalignedBarriers() throws Exception {
+		SharedBroadcastStateRegistry registry = new SharedBroadcastStateRegistry();
+
+		DefaultOperatorStateBackend owner = createBackend(registry, true, Collections.emptyList());
+		DefaultOperatorStateBackend other = createBackend(registry, false, Collections.emptyList());
+
+		SharedHeapBroadcastState<Integer, String> ownerState = getSharedState(owner);
+		SharedHeapBroadcastState<Integer, String> otherState = getSharedState(other);
+
+		ownerState.put(1, "a");
+		otherState.put(1, "a");
+		snapshot(owner, 1L);
+		snapshot(other, 1L);
+
+		// the owner processes an element and passes the barrier of checkpoint 2 ...
+		ownerState.put(2, "b");
+		OperatorStateHandle ownerHandle = snapshot(owner, 2L);
+
+		// ... and processes an element after the barrier, while the other instance did not
+		// receive the element before the barrier yet
+		ownerState.remove(1);
+		ownerState.put(3, "c");
+		assertEquals(Collections.singletonMap(1, "a"), toMap(otherState));
+
+		// the other instance passes the barrier of checkpoint 2 and continues from the published elements
+		otherState.put(2, "b");
+		assertNull(snapshot(other, 2L));
+
+		Map<Integer, String> expected = new HashMap<>();
+		expected.put(1, "a");
+		expected.put(2, "b");
+		assertEquals(expected, toMap(otherState));
+		assertEquals(expected, otherState.getSharedElements());
+
+		Map<Integer, String> expectedOwner = new HashMap<>();
+		expectedOwner.put(2, "b");
+		expectedOwner.put(3, "c");
+		assertEquals(expectedOwner, toMap(ownerState));
+
+		// the snapshot of the owner does not contain the elements after its barrier
+		DefaultOperatorStateBackend restored =
+			createBackend(new SharedBroadcastStateRegistry(), true, Collections.singletonList(ownerHandle));
+		assertEquals(expected, toMap(restored.getBroadcastState(STATE_DESCRIPTOR)));
+
+		owner.dispose();
+		other.dispose();
+		restored.dispose();
+		assertEquals(0, registry.getNumberOfSharedStates());
+	}
+
+	@Test
+	public void testLaggingInstanceKeepsChanges() throws Exception {
+		SharedBroadcastStateRegistry registry = new SharedBroadcastStateRegistry();
+
+		DefaultOperatorStateBackend owner = createBackend(registry, true, Collections.emptyList());
+		DefaultOperatorStateBackend other = createBackend(registry, false, Collections.emptyList());
+
+		SharedHeapBroadcastState<Integer, String> ownerState = getSharedState(owner);
+		SharedHeapBroadcastState<Integer, String> otherState = getSharedState(other);
+
+		// the owner passes the barriers of checkpoint 1 and 2 before the other instance passes 1
+		ownerState.put(1, "a");
+		snapshot(owner, 1L);
+		ownerState.put(2, "b");
+		snapshot(owner, 2L);
+
+		otherState.put(1, "a");
+		snapshot(other, 1L);
+		assertEquals(Collections.singletonMap(1, "a"), toMap(otherState));
+		assertTrue(otherState.getSharedElements().isEmpty());
+
+		otherState.put(2, "b");
+		snapshot(other, 2L);
+		assertEquals(toMap(ownerState), toMap(otherState));
+		assertSame(ownerState.getSharedElements(), otherState.getSharedElements());
+
+		owner.dispose();
+		other.dispose();
+	}
+
+	@Test
+	public void testIteratorOverSharedAndChangedElements() throws Exception {
+		SharedBroadcastStateRegistry registry = new SharedBroadcastStateRegistry();
+		DefaultOperatorStateBackend backend = createBackend(registry, true, Collections.emptyList());
+		SharedHeapBroadcastState<Integer, String> state = getSharedState(backend);
+
+		state.put(1, "a");
+		state.put(2, "b");
+		state.put(3, "c");
+		snapshot(backend, 1L);
+
+		state.put(4, "d");
+		state.remove(3);
+
+		Iterator<Map.Entry<Integer, String>> iterator = state.iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<Integer, String> entry = iterator.next();
+			if (entry.getKey() == 1 || entry.getKey() == 4) {
+				iterator.remove();
+			} else {
+				entry.setValue(entry.getValue() + entry.getValue());
+			}
+		}
+
+		assertEquals(Collections.singletonMap(2, "bb"), toMap(state));
+		assertEquals(3, state.getSharedElements().size());
+		assertFalse(state.contains(1));
+		assertFalse(state.contains(3));
+
+		try {
+			state.immutableEntries().iterator().next().setValue("x");
+			fail("The entries should be immutable.");
+		} catch (UnsupportedOperationException ignored) {
+			// expected
+		}
+
+		backend.dispose();
+	}
+
+	@Test
+	public void testDeepCopyIsDetached() throws Exception {
+		SharedBroadcastStateRegistry registry = new SharedBroadcastStateRegistry();
+		SharedBroadcastStateRegistry.Scope scope = new SharedBroadcastStateRegistry.Scope(registry, "job/vertex", true);
+
+		SharedHeapBroadcastState<Integer, String> state = SharedHeapBroadcastState.create(
+			new RegisteredBroadcastStateBackendMetaInfo<>(
+				STATE_DESCRIPTOR.getName(),
+				OperatorStateHandle.Mode.BROADCAST,
+				STATE_DESCRIPTOR.getKeySerializer(),
+				STATE_DESCRIPTOR.getValueSerializer()),
+			scope);
+		state.put(1, "a");
+
+		BackendWritableBroadcastState<Integer, String> copy = state.deepCopy();
+		state.put(2, "b");
+
+		assertEquals(Collections.singletonMap(1, "a"), toMap(copy));
+		assertSame(HeapBroadcastState.class, copy.getClass());
+
+		state.close();
+		state.close();
+		assertEquals(0, registry.getNumberOfSharedStates());
+	}
+
+	private static DefaultOperatorStateBackend createBackend(
+			SharedBroadcastStateRegistry registry,
+			boolean snapshotOwner,
+			Collection<OperatorStateHandle> stateHandles) throws Exception {
+
+		SharedBroadcastStateRegistry.Scope scope =
+			new SharedBroadcastStateRegistry.Scope(registry, "job/vertex", snapshotOwner);
+
+		return new DefaultOperatorStateBackendBuilder(
+			SharedHeapBroadcastStateTest.class.getClassLoader(),
+			new ExecutionConfig(),
+			false,
+			stateHandles,
+			new CloseableRegistry(),
+			scope).build();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static SharedHeapBroadcastState<Integer, String> getSharedState(
+			DefaultOperatorStateBackend backend) throws Exception {
+		return (SharedHeapBroadcastState<Integer, String>) backend.getBroadcastState(STATE_DESCRIPTOR);
+	}
+
+	private static OperatorStateHandle snapshot(
+			DefaultOperatorStateBackend backend,
+			long checkpointId) throws Exception {
+		return FutureUtils.runIfNotDoneAndGet(
+			backend.snapshot(
+				checkpointId,
+				checkpointId,
+				new MemCheckpointStreamFactory(4096),
+				CheckpointOptions.forCheckpointWithDefaultLocation()))
+			.getJobManagerOwnedSnapshot();
+	}
+
+	private static Map<Integer, String> toMap(BroadcastState<Integer, String> state) throws Exception {
+		Map<Integer, String> map = new HashMap<>();
+		for (Map.Entry<Integer, String> entry : state.entries()) {
+			map.put(entry.getKey(), entry.getValue());
+		}
+		return map;
+	}
+}
@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.api.common.typeutils.base.LongSerializer;
+import org.apache.flink.api.common.typeutils.base.StringSerializer;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.runtime.state.ArrayListSerializer;
+import org.apache.flink.runtime.state.StateEntry;
+import org.apache.flink.runtime.state.VoidNamespace;
+import org.apache.flink.runtime.state.VoidNamespaceSerializer;
+import org.apache.flink.util.TestLogger;
+
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Test for {@link CopyOnWriteLongKeyStateMap}.
+ */
+public class CopyOnWriteLongKeyStateMapTest extends TestLogger {
+
+	private static final VoidNamespace NS = VoidNamespace.INSTANCE;
+
+	@Test
+	public void testIsSupported() {
+		Assert.assertTrue(CopyOnWriteLongKeyStateMap.isSupported(LongSerializer.INSTANCE, VoidNamespaceSerializer.INSTANCE));
+		Assert.assertTrue(CopyOnWriteLongKeyStateMap.isSupported(IntSerializer.INSTANCE, VoidNamespaceSerializer.INSTANCE));
+		Assert.assertFalse(CopyOnWriteLongKeyStateMap.isSupported(StringSerializer.INSTANCE, VoidNamespaceSerializer.INSTANCE));
+		Assert.assertFalse(CopyOnWriteLongKeyStateMap.isSupported(IntSerializer.INSTANCE, IntSerializer.INSTANCE));
+	}
+
+	/**
+	 * Testing the basic map operations.
+	 */
+	@Test
+	public void testPutGetRemoveContainsTransform() throws Exception {
+		final CopyOnWriteLongKeyStateMap<Integer, VoidNamespace, ArrayList<Integer>> stateMap =
+			new CopyOnWriteLongKeyStateMap<>(IntSerializer.INSTANCE, new ArrayListSerializer<>(IntSerializer.INSTANCE));
+
+		ArrayList<Integer> state1 = new ArrayList<>();
+		state1.add(41);
+		ArrayList<Integer> state2 = new ArrayList<>();
+		state2.add(42);
+
+		Assert.assertNull(stateMap.putAndGetOld(1, NS, state1));
+		Assert.assertEquals(state1, stateMap.get(1, NS));
+		Assert.assertEquals(1, stateMap.size());
+
+		Assert.assertNull(stateMap.putAndGetOld(-2, NS, state2));
+		Assert.assertEquals(state2, stateMap.get(-2, NS));
+		Assert.assertEquals(2, stateMap.size());
+
+		Assert.assertTrue(stateMap.containsKey(-2, NS));
+		Assert.assertFalse(stateMap.containsKey(3, NS));
+		stateMap.put(-2, NS, null);
+		Assert.assertTrue(stateMap.containsKey(-2, NS));
+		Assert.assertEquals(2, stateMap.size());
+		Assert.assertNull(stateMap.get(-2, NS));
+		stateMap.put(-2, NS, state2);
+
+		Assert.assertEquals(state2, stateMap.removeAndGetOld(-2, NS));
+		Assert.assertFalse(stateMap.containsKey(-2, NS));
+		Assert.assertEquals(1, stateMap.size());
+
+		stateMap.transform(1, NS, 7, (previousState, value) -> {
+			previousState.add(value);
+			return previousState;
+		});
+		Assert.assertEquals(Integer.valueOf(7), stateMap.get(1, NS).get(1));
+
+		stateMap.transform(5, NS, 8, (previousState, value) -> {
+			Assert.assertNull(previousState);
+			return new ArrayList<>(Collections.singletonList(value));
+		});
+		Assert.assertEquals(Collections.singletonList(8), stateMap.get(5, NS));
+		Assert.assertEquals(2, stateMap.size());
+
+		Iterator<StateEntry<Integer, VoidNamespace, ArrayList<Integer>>> iterator = stateMap.iterator();
+		int count = 0;
+		while (iterator.hasNext()) {
+			StateEntry<Integer, VoidNamespace, ArrayList<Integer>> entry = iterator.next();
+			Assert.assertThat(entry.getKey(), Matchers.instanceOf(Integer.class));
+			Assert.assertEquals(stateMap.get(entry.getKey(), NS), entry.getState());
+			count++;
+		}
+		Assert.assertEquals(2, count);
+	}
+
+	/**
+	 * Compares random modifications of the map and snapshots against a {@link HashMap}, including removals that shift
+	 * colliding entries and resizes of the map between snapshots.
+	 */
+	@Test
+	public void testRandomModificationsAndCopyOnWriteIsolation() throws Exception {
+		final CopyOnWriteLongKeyStateMap<Long, VoidNamespace, ArrayList<Integer>> stateMap =
+			new CopyOnWriteLongKeyStateMap<>(LongSerializer.INSTANCE, new ArrayListSerializer<>(IntSerializer.INSTANCE));
+		final HashMap<Long, ArrayList<Integer>> referenceMap = new HashMap<>();
+
+		final Random random = new Random(42);
+
+		CopyOnWriteLongKeyStateMapSnapshot<Long, VoidNamespace, ArrayList<Integer>> snapshot = null;
+		Map<Long, ArrayList<Integer>> referenceSnapshot = null;
+
+		for (int i = 0; i < 100_000; i++) {
+			final long key = random.nextInt(2000) - 1000;
+			final int op = random.nextInt(4);
+
+			if (op == 0) {
+				final ArrayList<Integer> state = stateMap.get(key, NS);
+				final ArrayList<Integer> referenceState = referenceMap.get(key);
+				Assert.assertEquals(referenceState, state);
+				if (state != null) {
+					state.add(i);
+					referenceState.add(i);
+				}
+			} else if (op == 1) {
+				final ArrayList<Integer> state = new ArrayList<>(Collections.singletonList(i));
+				Assert.assertEquals(referenceMap.put(key, new ArrayList<>(state)), stateMap.putAndGetOld(key, NS, state));
+			} else if (op == 2) {
+				Assert.assertEquals(referenceMap.remove(key), stateMap.removeAndGetOld(key, NS));
+			} else {
+				Assert.assertEquals(referenceMap.containsKey(key), stateMap.containsKey(key, NS));
+			}
+
+			Assert.assertEquals(referenceMap.size(), stateMap.size());
+
+			if (i % 10_000 == 0) {
+				if (snapshot != null) {
+					Assert.assertEquals(referenceSnapshot, readSnapshot(snapshot, LongSerializer.INSTANCE));
+					snapshot.release();
+				}
+				snapshot = stateMap.stateSnapshot();
+				referenceSnapshot = deepCopy(referenceMap);
+			}
+		}
+
+		Assert.assertEquals(referenceSnapshot, readSnapshot(snapshot, LongSerializer.INSTANCE));
+		snapshot.release();
+		Assert.assertThat(stateMap.getSnapshotVersions(), Matchers.empty());
+		Assert.assertEquals(referenceMap, readSnapshot(stateMap.stateSnapshot(), LongSerializer.INSTANCE));
+	}
+
+	/**
+	 * This tests for the copy-on-write contracts, e.g. ensures that no copy-on-write is active after all snapshots are
+	 * released.
+	 */
+	@Test
+	public void testCopyOnWriteContracts() {
+		final CopyOnWriteLongKeyStateMap<Integer, VoidNamespace, ArrayList<Integer>> stateMap =
+			new CopyOnWriteLongKeyStateMap<>(IntSerializer.INSTANCE, new ArrayListSerializer<>(IntSerializer.INSTANCE));
+
+		ArrayList<Integer> originalState1 = new ArrayList<>(Collections.singletonList(1));
+		ArrayList<Integer> originalState3 = new ArrayList<>(Collections.singletonList(3));
+		ArrayList<Integer> originalState4 = new ArrayList<>(Collections.singletonList(4));
+		ArrayList<Integer> originalState5 = new ArrayList<>(Collections.singletonList(5));
+
+		stateMap.put(1, NS, originalState1);
+		stateMap.put(4, NS, originalState4);
+		stateMap.put(5, NS, originalState5);
+
+		// no snapshot taken, we get the original back
+		Assert.assertSame(originalState1, stateMap.get(1, NS));
+		CopyOnWriteLongKeyStateMapSnapshot<Integer, VoidNamespace, ArrayList<Integer>> snapshot1 = stateMap.stateSnapshot();
+		// after snapshot1 is taken, we get a copy that is equal
+		final ArrayList<Integer> copyState = stateMap.get(1, NS);
+		Assert.assertNotSame(originalState1, copyState);
+		Assert.assertEquals(originalState1, copyState);
+
+		// we make an insert AFTER snapshot1
+		stateMap.put(3, NS, originalState3);
+
+		// on repeated lookups, we get the same copy because no further snapshot was taken
+		Assert.assertSame(copyState, stateMap.get(1, NS));
+
+		// after the second snapshot, copy-on-write is active again for old entries
+		CopyOnWriteLongKeyStateMapSnapshot<Integer, VoidNamespace, ArrayList<Integer>> snapshot2 = stateMap.stateSnapshot();
+		Assert.assertNotSame(copyState, stateMap.get(1, NS));
+		Assert.assertEquals(copyState, stateMap.get(1, NS));
+
+		// after releasing snapshot2, we still get the original of the untouched late insert (after snapshot1)
+		stateMap.releaseSnapshot(snapshot2);
+		Assert.assertSame(originalState3, stateMap.get(3, NS));
+		// but copy-on-write is still active for older inserts (before snapshot1)
+		Assert.assertNotSame(originalState4, stateMap.get(4, NS));
+
+		// after releasing snapshot1, no copy-on-write is active
+		stateMap.releaseSnapshot(snapshot1);
+		Assert.assertSame(originalState5, stateMap.get(5, NS));
+	}
+
+	/**
+	 * This tests that snapshot can be released correctly.
+	 */
+	@Test
+	public void testSnapshotRelease() {
+		final CopyOnWriteLongKeyStateMap<Long, VoidNamespace, Integer> stateMap =
+			new CopyOnWriteLongKeyStateMap<>(LongSerializer.INSTANCE, IntSerializer.INSTANCE);
+
+		for (int i = 0; i < 10; i++) {
+			stateMap.put((long) i, NS, i);
+		}
+
+		CopyOnWriteLongKeyStateMapSnapshot<Long, VoidNamespace, Integer> snapshot = stateMap.stateSnapshot();
+		Assert.assertFalse(snapshot.isReleased());
+		Assert.assertThat(stateMap.getSnapshotVersions(), Matchers.contains(snapshot.getSnapshotVersion()));
+
+		snapshot.release();
+		Assert.assertTrue(snapshot.isReleased());
+		Assert.assertThat(stateMap.getSnapshotVersions(), Matchers.empty());
+
+		// verify that snapshot will release itself only once
+		snapshot.release();
+		Assert.assertThat(stateMap.getSnapshotVersions(), Matchers.empty());
+	}
+
+	private static <K> Map<K, ArrayList<Integer>> readSnapshot(
+		StateMapSnapshot<K, VoidNamespace, ArrayList<Integer>, ?> snapshot,
+		TypeSerializer<K> keySerializer) throws IOException {
+
+		final ArrayListSerializer<Integer> stateSerializer = new ArrayListSerializer<>(IntSerializer.INSTANCE);
+		final DataOutputSerializer out = new DataOutputSerializer(1024);
+		snapshot.writeState(keySerializer, VoidNamespaceSerializer.INSTANCE, stateSerializer, out, null);
+
+		final DataInputDeserializer in = new DataInputDeserializer(out.getCopyOfBuffer());
+		final int numberOfMappings = in.readInt();
+		final Map<K, ArrayList<Integer>> result = new HashMap<>(numberOfMappings);
+		for (int i = 0; i < numberOfMappings; i++) {
+			Assert.assertEquals(NS, VoidNamespaceSerializer.INSTANCE.deserialize(in));
+			final K key = keySerializer.deserialize(in);
+			Assert.assertNull(result.put(key, stateSerializer.deserialize(in)));
+		}
+		return result;
+	}
+
+	private static Map<Long, ArrayList<Integer>> deepCopy(Map<Long, ArrayList<Integer>> map) {
+		final Map<Long, ArrayList<Integer>> copy = new HashMap<>(map.size());
+		for (Map.Entry<Long, ArrayList<Integer>> entry : map.entrySet()) {
+			copy.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+		}
+		return copy;
+	}
+}
@@ -22,9 +22,12 @@ import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.core.memory.DataInputDeserializer;
 import org.apache.flink.core.memory.DataOutputSerializer;
 import org.apache.flink.runtime.state.InternalPriorityQueue;
+import org.apache.flink.runtime.state.TimestampPrefixedSerializer;
 import org.apache.flink.runtime.state.heap.HeapPriorityQueueElement;
 import org.apache.flink.util.CloseableIterator;
 import org.apache.flink.util.FlinkRuntimeException;
+import org.apache.flink.util.MathUtils;
+import org.apache.flink.util.Preconditions;
 
 import org.apache.flink.shaded.guava18.com.google.common.primitives.UnsignedBytes;
 
@@ -51,6 +54,12 @@ import static org.apache.flink.contrib.streaming.state.RocksDBCachingPriorityQue
  * of up to the first n elements from RocksDB in memory to reduce interaction with RocksDB, in particular seek
  * operations. Cache uses a simple write-through policy.
  *
+ * <p>If a hot-tier horizon is configured for elements that are serialized by a {@link TimestampPrefixedSerializer},
+ * the cache is also bounded by time: every refill from RocksDB loads, in one range scan, the elements whose timestamp
+ * is less than the timestamp of the first element plus the horizon (up to the capacity of the cache), and elements
+ * that are added later than this bound are only written to RocksDB. This keeps all timers that are due soon on heap,
+ * and pages in later timers in range batches once the earlier ones have been polled.
+ *
  * @param <E> the type of the contained elements in the queue.
  */
 public class RocksDBCachingPriorityQueueSet<E extends HeapPriorityQueueElement>
@@ -105,6 +114,16 @@ public class RocksDBCachingPriorityQueueSet<E extends HeapPriorityQueueElement>
 	/** This flag is true iff all elements in RocksDB are also contained in the cache. */
 	private boolean allElementsInCache;
 
+	/**
+	 * The time range on top of the timestamp of the first element that is loaded into the cache on refill, or
+	 * a non-positive value if the cache is only bounded by its size.
+	 */
+	private final long hotTierHorizon;
+
+	/** Exclusive upper bound for elements in the cache as computed on the last refill, null if unbounded. */
+	@Nullable
+	private byte[] cacheUpperBound;
+
 	/** Index for management as a {@link HeapPriorityQueueElement}. */
 	private int internalIndex;
 
@@ -118,6 +137,33 @@ public class RocksDBCachingPriorityQueueSet<E extends HeapPriorityQueueElement>
 		@Nonnull DataInputDeserializer inputStream,
 		@Nonnull RocksDBWriteBatchWrapper batchWrapper,
 		@Nonnull OrderedByteArraySetCache orderedByteArraySetCache) {
+		this(
+			keyGroupId,
+			keyGroupPrefixBytes,
+			db,
+			columnFamilyHandle,
+			byteOrderProducingSerializer,
+			outputStream,
+			inputStream,
+			batchWrapper,
+			orderedByteArraySetCache,
+			0L);
+	}
+
+	RocksDBCachingPriorityQueueSet(
+		@Nonnegative int keyGroupId,
+		@Nonnegative int keyGroupPrefixBytes,
+		@Nonnull RocksDB db,
+		@Nonnull ColumnFamilyHandle columnFamilyHandle,
+		@Nonnull TypeSerializer<E> byteOrderProducingSerializer,
+		@Nonnull DataOutputSerializer outputStream,
+		@Nonnull DataInputDeserializer inputStream,
+		@Nonnull RocksDBWriteBatchWrapper batchWrapper,
+		@Nonnull OrderedByteArraySetCache orderedByteArraySetCache,
+		long hotTierHorizon) {
+		Preconditions.checkArgument(
+			hotTierHorizon <= 0L || byteOrderProducingSerializer instanceof TimestampPrefixedSerializer,
+			"A hot-tier horizon requires a TimestampPrefixedSerializer.");
 		this.db = db;
 		this.columnFamilyHandle = columnFamilyHandle;
 		this.byteOrderProducingSerializer = byteOrderProducingSerializer;
@@ -129,6 +175,7 @@ public class RocksDBCachingPriorityQueueSet<E extends HeapPriorityQueueElement>
 		this.groupPrefixBytes = createKeyGroupBytes(keyGroupId, keyGroupPrefixBytes);
 		this.seekHint = groupPrefixBytes;
 		this.internalIndex = HeapPriorityQueueElement.NOT_CONTAINED;
+		this.hotTierHorizon = hotTierHorizon;
 	}
 
 	@Nullable
@@ -187,7 +234,12 @@ public class RocksDBCachingPriorityQueueSet<E extends HeapPriorityQueueElement>
 
 		final boolean cacheFull = orderedCache.isFull();
 
-		if ((!cacheFull && allElementsInCache) ||
+		if (hotTierHorizon > 0L && allElementsInCache && orderedCache.isEmpty()) {
+			// the queue is empty, so the first element determines the new upper bound of the cache
+			cacheUpperBound = computeHorizonBound(toAddBytes);
+		}
+
+		if ((!cacheFull && allElementsInCache && isBelowCacheUpperBound(toAddBytes)) ||
 			LEXICOGRAPHIC_BYTE_COMPARATOR.compare(toAddBytes, orderedCache.peekLast()) < 0) {
 
 			if (cacheFull) {
@@ -337,14 +389,53 @@ public class RocksDBCachingPriorityQueueSet<E extends HeapPriorityQueueElement>
 	private void checkRefillCacheFromStore() {
 		if (!allElementsInCache && orderedCache.isEmpty()) {
 			try (final RocksBytesIterator iterator = orderedBytesIterator()) {
+				if (hotTierHorizon > 0L && iterator.hasNext()) {
+					cacheUpperBound = computeHorizonBound(iterator.peek());
+					iterator.setUpperBound(cacheUpperBound);
+				}
 				orderedCache.bulkLoadFromOrderedIterator(iterator);
-				allElementsInCache = !iterator.hasNext();
+				allElementsInCache = !iterator.hasNextIgnoringUpperBound();
 			} catch (Exception e) {
 				throw new FlinkRuntimeException("Exception while refilling store from iterator.", e);
 			}
 		}
 	}
 
+	private boolean isBelowCacheUpperBound(@Nonnull byte[] bytes) {
+		return cacheUpperBound == null || LEXICOGRAPHIC_BYTE_COMPARATOR.compare(bytes, cacheUpperBound) < 0;
+	}
+
+	/**
+	 * Computes the serialized form of the timestamp that is the horizon ahead of the timestamp of the given
+	 * element, prefixed with the key-group. All elements that are due before that timestamp compare less than
+	 * the returned bytes. Returns null if the horizon reaches beyond the largest timestamp.
+	 */
+	@Nullable
+	private byte[] computeHorizonBound(@Nonnull byte[] firstElementBytes) {
+		final int numPrefixBytes = groupPrefixBytes.length;
+		final long firstTimestamp = MathUtils.flipSignBit(readLong(firstElementBytes, numPrefixBytes));
+		if (firstTimestamp > Long.MAX_VALUE - hotTierHorizon) {
+			return null;
+		}
+
+		final long boundTimestamp = firstTimestamp + hotTierHorizon;
+
+		final byte[] bound = Arrays.copyOf(groupPrefixBytes, numPrefixBytes + Long.BYTES);
+		final long flippedBound = MathUtils.flipSignBit(boundTimestamp);
+		for (int i = 0; i < Long.BYTES; ++i) {
+			bound[numPrefixBytes + i] = (byte) (flippedBound >>> ((Long.BYTES - 1 - i) * Byte.SIZE));
+		}
+		return bound;
+	}
+
+	private static long readLong(byte[] bytes, int offset) {
+		long result = 0L;
+		for (int i = 0; i < Long.BYTES; ++i) {
+			result = (result << Byte.SIZE) | (bytes[offset + i] & 0xFF);
+		}
+		return result;
+	}
+
 	private static boolean isPrefixWith(byte[] bytes, byte[] prefixBytes) {
 		for (int i = 0; i < prefixBytes.length; ++i) {
 			if (bytes[i] != prefixBytes[i]) {
@@ -434,6 +525,10 @@ public class RocksDBCachingPriorityQueueSet<E extends HeapPriorityQueueElement>
 		@Nullable
 		private byte[] currentElement;
 
+		/** Exclusive upper bound for the returned elements, null if unbounded. */
+		@Nullable
+		private byte[] upperBound;
+
 		private RocksBytesIterator(@Nonnull RocksIteratorWrapper iterator) {
 			this.iterator = iterator;
 			try {
@@ -456,13 +551,33 @@ public class RocksDBCachingPriorityQueueSet<E extends HeapPriorityQueueElement>
 
 		@Override
 		public boolean hasNext() {
+			return currentElement != null &&
+				(upperBound == null || LEXICOGRAPHIC_BYTE_COMPARATOR.compare(currentElement, upperBound) < 0);
+		}
+
+		/**
+		 * Returns true if there are more elements in the key-group, including those beyond the upper bound.
+		 */
+		boolean hasNextIgnoringUpperBound() {
 			return currentElement != null;
 		}
 
+		/**
+		 * Returns the next element without advancing the iterator, ignoring the upper bound.
+		 */
+		@Nullable
+		byte[] peek() {
+			return currentElement;
+		}
+
+		void setUpperBound(@Nullable byte[] upperBound) {
+			this.upperBound = upperBound;
+		}
+
 		@Override
 		public byte[] next() {
 			final byte[] returnElement = this.currentElement;
-			if (returnElement == null) {
+			if (!hasNext()) {
 				throw new NoSuchElementException("Iterator has no more elements!");
 			}
 			iterator.next();
@@ -80,6 +80,37 @@ public class RocksDBIncrementalCheckpointUtils {
 		@Nonnegative int keyGroupPrefixBytes,
 		@Nonnegative long writeBatchSize) throws RocksDBException {
 
+		clipDBWithKeyGroupRange(
+			db,
+			columnFamilyHandles,
+			targetKeyGroupRange,
+			currentKeyGroupRange,
+			keyGroupPrefixBytes,
+			writeBatchSize,
+			false);
+	}
+
+	/**
+	 * The method to clip the db instance according to the target key group range. If {@code useDeleteRange}
+	 * is set, the records outside the target range are dropped with {@link RocksDB#deleteRange(ColumnFamilyHandle,
+	 * byte[], byte[])}, which writes a single range tombstone per column family instead of deleting every key.
+	 *
+	 * @param db the RocksDB instance to be clipped.
+	 * @param columnFamilyHandles the column families in the db instance.
+	 * @param targetKeyGroupRange the target key group range.
+	 * @param currentKeyGroupRange the key group range of the db instance.
+	 * @param keyGroupPrefixBytes Number of bytes required to prefix the key groups.
+	 * @param useDeleteRange whether to use range deletions instead of deleting record by record.
+	 */
+	public static void clipDBWithKeyGroupRange(
+		@Nonnull RocksDB db,
+		@Nonnull List<ColumnFamilyHandle> columnFamilyHandles,
+		@Nonnull KeyGroupRange targetKeyGroupRange,
+		@Nonnull KeyGroupRange currentKeyGroupRange,
+		@Nonnegative int keyGroupPrefixBytes,
+		@Nonnegative long writeBatchSize,
+		boolean useDeleteRange) throws RocksDBException {
+
 		final byte[] beginKeyGroupBytes = new byte[keyGroupPrefixBytes];
 		final byte[] endKeyGroupBytes = new byte[keyGroupPrefixBytes];
 
@@ -88,7 +119,7 @@ public class RocksDBIncrementalCheckpointUtils {
 				currentKeyGroupRange.getStartKeyGroup(), beginKeyGroupBytes);
 			RocksDBKeySerializationUtils.serializeKeyGroup(
 				targetKeyGroupRange.getStartKeyGroup(), endKeyGroupBytes);
-			deleteRange(db, columnFamilyHandles, beginKeyGroupBytes, endKeyGroupBytes, writeBatchSize);
+			deleteRange(db, columnFamilyHandles, beginKeyGroupBytes, endKeyGroupBytes, writeBatchSize, useDeleteRange);
 		}
 
 		if (currentKeyGroupRange.getEndKeyGroup() > targetKeyGroupRange.getEndKeyGroup()) {
@@ -96,7 +127,7 @@ public class RocksDBIncrementalCheckpointUtils {
 				targetKeyGroupRange.getEndKeyGroup() + 1, beginKeyGroupBytes);
 			RocksDBKeySerializationUtils.serializeKeyGroup(
 				currentKeyGroupRange.getEndKeyGroup() + 1, endKeyGroupBytes);
-			deleteRange(db, columnFamilyHandles, beginKeyGroupBytes, endKeyGroupBytes, writeBatchSize);
+			deleteRange(db, columnFamilyHandles, beginKeyGroupBytes, endKeyGroupBytes, writeBatchSize, useDeleteRange);
 		}
 	}
 
@@ -107,28 +138,34 @@ public class RocksDBIncrementalCheckpointUtils {
 	 * @param columnFamilyHandles the column family need to be clipped.
 	 * @param beginKeyBytes the begin key bytes
 	 * @param endKeyBytes the end key bytes
+	 * @param useDeleteRange whether to write a range tombstone instead of deleting record by record
 	 */
 	private static void deleteRange(
 		RocksDB db,
 		List<ColumnFamilyHandle> columnFamilyHandles,
 		byte[] beginKeyBytes,
 		byte[] endKeyBytes,
-		@Nonnegative long writeBatchSize) throws RocksDBException {
+		@Nonnegative long writeBatchSize,
+		boolean useDeleteRange) throws RocksDBException {
 
 		for (ColumnFamilyHandle columnFamilyHandle : columnFamilyHandles) {
-			try (RocksIteratorWrapper iteratorWrapper = RocksDBOperationUtils.getRocksIterator(db, columnFamilyHandle);
-				RocksDBWriteBatchWrapper writeBatchWrapper = new RocksDBWriteBatchWrapper(db, writeBatchSize)) {
-
-				iteratorWrapper.seek(beginKeyBytes);
-
-				while (iteratorWrapper.isValid()) {
-					final byte[] currentKey = iteratorWrapper.key();
-					if (beforeThePrefixBytes(currentKey, endKeyBytes)) {
-						writeBatchWrapper.remove(columnFamilyHandle, currentKey);
-					} else {
-						break;
+			if (useDeleteRange) {
+				db.deleteRange(columnFamilyHandle, beginKeyBytes, endKeyBytes);
+			} else {
+				try (RocksIteratorWrapper iteratorWrapper = RocksDBOperationUtils.getRocksIterator(db, columnFamilyHandle);
+					RocksDBWriteBatchWrapper writeBatchWrapper = new RocksDBWriteBatchWrapper(db, writeBatchSize)) {
+
+					iteratorWrapper.seek(beginKeyBytes);
+
+					while (iteratorWrapper.isValid()) {
+						final byte[] currentKey = iteratorWrapper.key();
+						if (beforeThePrefixBytes(currentKey, endKeyBytes)) {
+							writeBatchWrapper.remove(columnFamilyHandle, currentKey);
+						} else {
+							break;
+						}
+						iteratorWrapper.next();
 					}
-					iteratorWrapper.next();
 				}
 			}
 		}
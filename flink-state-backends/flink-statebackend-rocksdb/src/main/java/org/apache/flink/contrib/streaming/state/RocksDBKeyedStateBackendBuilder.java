@@ -60,9 +60,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
@@ -110,9 +112,18 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
 	private boolean enableIncrementalCheckpointing;
 	/** True if ttl compaction filter is enabled. */
 	private boolean enableTtlCompactionFilter;
+	/** True if key groups are ingested as SST files when restoring with rescaling. */
+	private boolean useIngestDbRestoreMode;
 	private RocksDBNativeMetricOptions nativeMetricOptions;
 	private int numberOfTransferingThreads;
+	/** The transfer service shared by all RocksDB instances of the TaskManager, null if not used. */
+	@Nullable
+	private RocksDBStateTransferService transferService;
 	private long writeBatchSize = RocksDBConfigurableOptions.WRITE_BATCH_SIZE.defaultValue().getBytes();
+	private int timerServiceCacheSize = RocksDBOptions.TIMER_SERVICE_CACHE_SIZE.defaultValue();
+	/** The horizon of timers kept on heap, null if the timer cache is only bounded by its size. */
+	@Nullable
+	private Duration timerServiceHotTierHorizon;
 
 	private RocksDB injectedTestDB; // for testing
 	private ColumnFamilyHandle injectedDefaultColumnFamilyHandle; // for testing
@@ -216,6 +227,11 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
 		return this;
 	}
 
+	RocksDBKeyedStateBackendBuilder<K> setUseIngestDbRestoreMode(boolean useIngestDbRestoreMode) {
+		this.useIngestDbRestoreMode = useIngestDbRestoreMode;
+		return this;
+	}
+
 	RocksDBKeyedStateBackendBuilder<K> setNativeMetricOptions(RocksDBNativeMetricOptions nativeMetricOptions) {
 		this.nativeMetricOptions = nativeMetricOptions;
 		return this;
@@ -226,12 +242,28 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
 		return this;
 	}
 
+	RocksDBKeyedStateBackendBuilder<K> setStateTransferService(@Nullable RocksDBStateTransferService transferService) {
+		this.transferService = transferService;
+		return this;
+	}
+
 	RocksDBKeyedStateBackendBuilder<K> setWriteBatchSize(long writeBatchSize) {
 		checkArgument(writeBatchSize >= 0, "Write batch size should be non negative.");
 		this.writeBatchSize = writeBatchSize;
 		return this;
 	}
 
+	RocksDBKeyedStateBackendBuilder<K> setTimerServiceCacheSize(int timerServiceCacheSize) {
+		checkArgument(timerServiceCacheSize > 0, "Timer service cache size should be positive.");
+		this.timerServiceCacheSize = timerServiceCacheSize;
+		return this;
+	}
+
+	RocksDBKeyedStateBackendBuilder<K> setTimerServiceHotTierHorizon(@Nullable Duration timerServiceHotTierHorizon) {
+		this.timerServiceHotTierHorizon = timerServiceHotTierHorizon;
+		return this;
+	}
+
 	private static void checkAndCreateDirectory(File directory) throws IOException {
 		if (directory.exists()) {
 			if (!directory.isDirectory()) {
@@ -410,7 +442,9 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
 				metricGroup,
 				restoreStateHandles,
 				ttlCompactFiltersManager,
-				writeBatchSize);
+				writeBatchSize,
+				useIngestDbRestoreMode,
+				transferService);
 		} else {
 			return new RocksDBFullRestoreOperation<>(
 				keyGroupRange,
@@ -467,7 +501,8 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
 				backendUID,
 				materializedSstFiles,
 				lastCompletedCheckpointId,
-				numberOfTransferingThreads);
+				numberOfTransferingThreads,
+				transferService);
 		} else {
 			checkpointSnapshotStrategy = savepointSnapshotStrategy;
 		}
@@ -494,7 +529,9 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
 					db,
 					writeBatchWrapper,
 					nativeMetricMonitor,
-					columnFamilyOptionsFactory
+					columnFamilyOptionsFactory,
+					timerServiceCacheSize,
+					timerServiceHotTierHorizon != null ? timerServiceHotTierHorizon.toMillis() : 0L
 				);
 				break;
 			default:
@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.contrib.streaming.state;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.runtime.state.StreamStateHandle;
+import org.apache.flink.runtime.state.filesystem.FileStateHandle;
+import org.apache.flink.runtime.state.memory.ByteStreamStateHandle;
+import org.apache.flink.util.StringUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * A local, size-bounded cache of immutable RocksDB SST files, shared by all RocksDB instances of a
+ * TaskManager. Files are stored under a hash of the identity of the remote {@link StreamStateHandle}
+ * they were uploaded to or downloaded from. Since shared state files in the checkpoint storage are never
+ * rewritten, this identity determines the content of the file, and a restore on the same TaskManager can
+ * hard link the cached file instead of downloading it again.
+ *
+ * <p>The cache is best effort: failures to add files are logged and ignored, and the least recently used
+ * files are evicted once the total size exceeds the configured maximum.
+ */
+public class RocksDBLocalStateFileCache {
+
+	private static final Logger LOG = LoggerFactory.getLogger(RocksDBLocalStateFileCache.class);
+
+	private static final String CACHED_FILE_SUFFIX = ".cached";
+
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+	/** The directory that holds the cached files. */
+	private final Path cacheDirectory;
+
+	/** The maximum total size of the cached files. */
+	private final long maxCacheSize;
+
+	/** Lock that serializes additions and evictions. */
+	private final Object lock = new Object();
+
+	public RocksDBLocalStateFileCache(@Nonnull Path cacheDirectory, long maxCacheSize) throws IOException {
+		checkArgument(maxCacheSize > 0, "The maximum cache size must be > 0");
+		this.cacheDirectory = checkNotNull(cacheDirectory);
+		this.maxCacheSize = maxCacheSize;
+		Files.createDirectories(cacheDirectory);
+	}
+
+	/**
+	 * Links the cached copy of the given remote handle to the target path.
+	 *
+	 * @return true if the file was in the cache and is now available at the target path.
+	 */
+	public boolean restore(StreamStateHandle remoteHandle, Path targetPath) throws IOException {
+		final Path cachedFile = getCachedFilePath(remoteHandle);
+		if (cachedFile == null || !Files.exists(cachedFile)) {
+			return false;
+		}
+
+		if (Files.size(cachedFile) != remoteHandle.getStateSize()) {
+			LOG.warn("Ignoring cached file {} with unexpected size for {}.", cachedFile, remoteHandle);
+			Files.deleteIfExists(cachedFile);
+			return false;
+		}
+
+		Files.createDirectories(targetPath.getParent());
+		linkOrCopy(cachedFile, targetPath);
+		touch(cachedFile);
+		return true;
+	}
+
+	/**
+	 * Adds the local file that has the same content as the given remote handle to the cache.
+	 */
+	public void add(StreamStateHandle remoteHandle, Path localFile) {
+		final Path cachedFile = getCachedFilePath(remoteHandle);
+		if (cachedFile == null) {
+			return;
+		}
+
+		try {
+			if (Files.exists(cachedFile)) {
+				touch(cachedFile);
+				return;
+			}
+
+			final Path tempFile = cacheDirectory.resolve(UUID.randomUUID() + TEMP_FILE_SUFFIX);
+			try {
+				linkOrCopy(localFile, tempFile);
+				Files.move(tempFile, cachedFile, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(tempFile);
+			}
+
+			synchronized (lock) {
+				evictIfNecessary();
+			}
+		} catch (IOException e) {
+			LOG.warn("Could not add {} to the local state file cache.", localFile, e);
+		}
+	}
+
+	@VisibleForTesting
+	long getCachedBytes() throws IOException {
+		long totalSize = 0L;
+		for (Path file : listCachedFiles()) {
+			totalSize += Files.size(file);
+		}
+		return totalSize;
+	}
+
+	private void evictIfNecessary() throws IOException {
+		List<Path> cachedFiles = listCachedFiles();
+
+		long totalSize = 0L;
+		for (Path file : cachedFiles) {
+			totalSize += Files.size(file);
+		}
+
+		if (totalSize <= maxCacheSize) {
+			return;
+		}
+
+		cachedFiles.sort(Comparator.comparing(RocksDBLocalStateFileCache::getLastModifiedTimeQuietly));
+		for (Path file : cachedFiles) {
+			if (totalSize <= maxCacheSize) {
+				break;
+			}
+			final long fileSize = Files.size(file);
+			if (Files.deleteIfExists(file)) {
+				totalSize -= fileSize;
+			}
+		}
+	}
+
+	private List<Path> listCachedFiles() throws IOException {
+		List<Path> cachedFiles = new ArrayList<>();
+		try (Stream<Path> files = Files.list(cacheDirectory)) {
+			files.filter(file -> file.getFileName().toString().endsWith(CACHED_FILE_SUFFIX))
+				.forEach(cachedFiles::add);
+		}
+		return cachedFiles;
+	}
+
+	@Nullable
+	private Path getCachedFilePath(StreamStateHandle remoteHandle) {
+		final String identity = getHandleIdentity(remoteHandle);
+		if (identity == null) {
+			return null;
+		}
+
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			byte[] hash = digest.digest(identity.getBytes(StandardCharsets.UTF_8));
+			return cacheDirectory.resolve(StringUtils.byteToHexString(hash) + CACHED_FILE_SUFFIX);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not supported by the JVM.", e);
+		}
+	}
+
+	/**
+	 * Returns a string that uniquely identifies the content of the remote handle, or null if the handle
+	 * type has no stable identity.
+	 */
+	@Nullable
+	private static String getHandleIdentity(StreamStateHandle remoteHandle) {
+		if (remoteHandle instanceof FileStateHandle) {
+			return "file:" + ((FileStateHandle) remoteHandle).getFilePath() + ':' + remoteHandle.getStateSize();
+		} else if (remoteHandle instanceof ByteStreamStateHandle) {
+			return "bytes:" + ((ByteStreamStateHandle) remoteHandle).getHandleName() + ':' + remoteHandle.getStateSize();
+		} else {
+			return null;
+		}
+	}
+
+	private static void linkOrCopy(Path source, Path target) throws IOException {
+		try {
+			Files.createLink(target, source);
+		} catch (IOException | UnsupportedOperationException e) {
+			// e.g. the cache directory is on a different file system
+			Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static void touch(Path file) throws IOException {
+		Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+	}
+
+	private static FileTime getLastModifiedTimeQuietly(Path file) {
+		try {
+			return Files.getLastModifiedTime(file);
+		} catch (IOException e) {
+			return FileTime.fromMillis(0L);
+		}
+	}
+}
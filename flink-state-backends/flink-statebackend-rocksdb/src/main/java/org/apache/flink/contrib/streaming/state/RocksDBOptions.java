@@ -23,6 +23,8 @@ import org.apache.flink.configuration.ConfigOption;
 import org.apache.flink.configuration.ConfigOptions;
 import org.apache.flink.configuration.MemorySize;
 
+import java.time.Duration;
+
 import static org.apache.flink.contrib.streaming.state.PredefinedOptions.DEFAULT;
 import static org.apache.flink.contrib.streaming.state.PredefinedOptions.FLASH_SSD_OPTIMIZED;
 import static org.apache.flink.contrib.streaming.state.PredefinedOptions.SPINNING_DISK_OPTIMIZED;
@@ -54,6 +56,30 @@ public class RocksDBOptions {
 			"are either %s (heap-based) or %s for an implementation based on RocksDB.",
 			HEAP.name(), ROCKSDB.name()));
 
+	/**
+	 * The number of timers per key-group that the RocksDB timer service keeps on heap.
+	 */
+	@Documentation.Section(Documentation.Sections.EXPERT_ROCKSDB)
+	public static final ConfigOption<Integer> TIMER_SERVICE_CACHE_SIZE = ConfigOptions
+		.key("state.backend.rocksdb.timer-service.cache-size")
+		.intType()
+		.defaultValue(128)
+		.withDescription(String.format("The maximum number of timers per key-group that the %s timer service " +
+			"caches on heap in front of RocksDB.", ROCKSDB.name()));
+
+	/**
+	 * The horizon of timers that the RocksDB timer service keeps on heap.
+	 */
+	@Documentation.Section(Documentation.Sections.EXPERT_ROCKSDB)
+	public static final ConfigOption<Duration> TIMER_SERVICE_HOT_TIER_HORIZON = ConfigOptions
+		.key("state.backend.rocksdb.timer-service.hot-tier-horizon")
+		.durationType()
+		.noDefaultValue()
+		.withDescription(String.format("If set, the %s timer service keeps all timers of a key-group that are due " +
+			"within this horizon of the earliest timer on heap, and loads later timers from RocksDB in one range scan " +
+			"once the earlier ones have fired. The number of timers on heap per key-group is still limited by '%s', " +
+			"which should be raised accordingly.", ROCKSDB.name(), TIMER_SERVICE_CACHE_SIZE.key()));
+
 	/**
 	 * The number of threads used to transfer (download and upload) files in RocksDBStateBackend.
 	 */
@@ -63,6 +89,69 @@ public class RocksDBOptions {
 		.defaultValue(1)
 		.withDescription("The number of threads (per stateful operator) used to transfer (download and upload) files in RocksDBStateBackend.");
 
+	/**
+	 * The number of threads of the transfer service shared by all RocksDB instances of a TaskManager.
+	 */
+	@Documentation.Section(Documentation.Sections.EXPERT_ROCKSDB)
+	public static final ConfigOption<Integer> SHARED_TRANSFER_THREAD_NUM = ConfigOptions
+		.key("state.backend.rocksdb.checkpoint.transfer.shared.thread.num")
+		.intType()
+		.defaultValue(0)
+		.withDescription(String.format("If greater than zero, all RocksDB instances of a TaskManager download and " +
+			"upload their files through one shared transfer service with this many threads, which caps the number " +
+			"of concurrent transfers per TaskManager. Downloads for restores are prioritized over uploads for " +
+			"checkpoints. In this case '%s' is ignored. The shared service is created with the settings of the " +
+			"first job that uses it on a TaskManager.", CHECKPOINT_TRANSFER_THREAD_NUM.key()));
+
+	/**
+	 * The maximum transfer bandwidth of the shared transfer service.
+	 */
+	@Documentation.Section(Documentation.Sections.EXPERT_ROCKSDB)
+	public static final ConfigOption<MemorySize> SHARED_TRANSFER_RATE_LIMIT = ConfigOptions
+		.key("state.backend.rocksdb.checkpoint.transfer.shared.rate-limit")
+		.memoryType()
+		.defaultValue(MemorySize.ZERO)
+		.withDescription(String.format("The maximum number of bytes per second that the shared transfer service " +
+			"of a TaskManager downloads and uploads in total. Zero means unlimited. This option only has an effect " +
+			"when '%s' is configured.", SHARED_TRANSFER_THREAD_NUM.key()));
+
+	/**
+	 * The local directory in which the shared transfer service caches SST files.
+	 */
+	@Documentation.Section(Documentation.Sections.EXPERT_ROCKSDB)
+	public static final ConfigOption<String> SHARED_TRANSFER_LOCAL_CACHE_DIRECTORY = ConfigOptions
+		.key("state.backend.rocksdb.checkpoint.transfer.shared.local-cache.dir")
+		.stringType()
+		.noDefaultValue()
+		.withDescription(String.format("A local directory (on the TaskManager) in which the shared transfer service " +
+			"keeps the SST files it uploaded or downloaded. Restores on the same TaskManager, for example after a " +
+			"failover, take the files from this cache instead of downloading them again. This option only has an " +
+			"effect when '%s' is configured.", SHARED_TRANSFER_THREAD_NUM.key()));
+
+	/**
+	 * The maximum size of the local SST file cache of the shared transfer service.
+	 */
+	@Documentation.Section(Documentation.Sections.EXPERT_ROCKSDB)
+	public static final ConfigOption<MemorySize> SHARED_TRANSFER_LOCAL_CACHE_MAX_SIZE = ConfigOptions
+		.key("state.backend.rocksdb.checkpoint.transfer.shared.local-cache.max-size")
+		.memoryType()
+		.defaultValue(MemorySize.parse("10gb"))
+		.withDescription(String.format("The maximum total size of the files in '%s'. The least recently used files " +
+			"are evicted when the cache grows beyond this size.", SHARED_TRANSFER_LOCAL_CACHE_DIRECTORY.key()));
+
+	/**
+	 * This determines whether key groups are ingested as SST files when restoring with rescaling.
+	 */
+	@Documentation.Section(Documentation.Sections.EXPERT_ROCKSDB)
+	public static final ConfigOption<Boolean> USE_INGEST_DB_RESTORE_MODE = ConfigOptions
+		.key("state.backend.rocksdb.restore.use-ingest-db-restore-mode")
+		.booleanType()
+		.defaultValue(false)
+		.withDescription("If set, restoring an incremental checkpoint with changed key-group ranges (rescaling) " +
+			"writes the key groups of each temporary instance into SST files and ingests them into the target " +
+			"instance instead of re-inserting them record by record, and clips the base instance with range " +
+			"deletions.");
+
 	/**
 	 * This determines if compaction filter to cleanup state with TTL is enabled.
 	 *
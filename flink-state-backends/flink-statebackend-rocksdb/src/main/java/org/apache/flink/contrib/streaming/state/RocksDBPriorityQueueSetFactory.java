@@ -29,6 +29,7 @@ import org.apache.flink.runtime.state.PriorityComparable;
 import org.apache.flink.runtime.state.PriorityComparator;
 import org.apache.flink.runtime.state.PriorityQueueSetFactory;
 import org.apache.flink.runtime.state.RegisteredPriorityQueueStateBackendMetaInfo;
+import org.apache.flink.runtime.state.TimestampPrefixedSerializer;
 import org.apache.flink.runtime.state.heap.HeapPriorityQueueElement;
 import org.apache.flink.runtime.state.heap.KeyGroupPartitionedPriorityQueue;
 import org.apache.flink.util.FlinkRuntimeException;
@@ -49,11 +50,6 @@ import java.util.function.Function;
  */
 public class RocksDBPriorityQueueSetFactory implements PriorityQueueSetFactory {
 
-	/**
-	 * Default cache size per key-group.
-	 */
-	private static final int DEFAULT_CACHES_SIZE = 128; //TODO make this configurable
-
 	/**
 	 * A shared buffer to serialize elements for the priority queue.
 	 */
@@ -75,6 +71,15 @@ public class RocksDBPriorityQueueSetFactory implements PriorityQueueSetFactory {
 	private final RocksDBNativeMetricMonitor nativeMetricMonitor;
 	private final Function<String, ColumnFamilyOptions> columnFamilyOptionsFactory;
 
+	/** The number of elements per key-group that are cached on heap. */
+	private final int cacheSize;
+
+	/**
+	 * The horizon in milliseconds of elements that are cached on heap, or 0 if the cache is only bounded by its
+	 * size. Only applies to serializers that are {@link TimestampPrefixedSerializer timestamp-prefixed}.
+	 */
+	private final long hotTierHorizon;
+
 	RocksDBPriorityQueueSetFactory(
 		KeyGroupRange keyGroupRange,
 		int keyGroupPrefixBytes,
@@ -83,7 +88,9 @@ public class RocksDBPriorityQueueSetFactory implements PriorityQueueSetFactory {
 		RocksDB db,
 		RocksDBWriteBatchWrapper writeBatchWrapper,
 		RocksDBNativeMetricMonitor nativeMetricMonitor,
-		Function<String, ColumnFamilyOptions> columnFamilyOptionsFactory) {
+		Function<String, ColumnFamilyOptions> columnFamilyOptionsFactory,
+		int cacheSize,
+		long hotTierHorizon) {
 		this.keyGroupRange = keyGroupRange;
 		this.keyGroupPrefixBytes = keyGroupPrefixBytes;
 		this.numberOfKeyGroups = numberOfKeyGroups;
@@ -92,6 +99,8 @@ public class RocksDBPriorityQueueSetFactory implements PriorityQueueSetFactory {
 		this.writeBatchWrapper = writeBatchWrapper;
 		this.nativeMetricMonitor = nativeMetricMonitor;
 		this.columnFamilyOptionsFactory = columnFamilyOptionsFactory;
+		this.cacheSize = cacheSize;
+		this.hotTierHorizon = hotTierHorizon;
 		this.sharedElementOutView = new DataOutputSerializer(128);
 		this.sharedElementInView = new DataInputDeserializer();
 	}
@@ -105,6 +114,8 @@ public class RocksDBPriorityQueueSetFactory implements PriorityQueueSetFactory {
 			tryRegisterPriorityQueueMetaInfo(stateName, byteOrderedElementSerializer);
 
 		final ColumnFamilyHandle columnFamilyHandle = stateCFHandle.columnFamilyHandle;
+		final long queueHotTierHorizon =
+			byteOrderedElementSerializer instanceof TimestampPrefixedSerializer ? hotTierHorizon : 0L;
 
 		return new KeyGroupPartitionedPriorityQueue<>(
 			KeyExtractorFunction.forKeyedObjects(),
@@ -117,7 +128,7 @@ public class RocksDBPriorityQueueSetFactory implements PriorityQueueSetFactory {
 					int numKeyGroups,
 					@Nonnull KeyExtractorFunction<T> keyExtractor,
 					@Nonnull PriorityComparator<T> elementPriorityComparator) {
-					TreeOrderedSetCache orderedSetCache = new TreeOrderedSetCache(DEFAULT_CACHES_SIZE);
+					TreeOrderedSetCache orderedSetCache = new TreeOrderedSetCache(cacheSize);
 					return new RocksDBCachingPriorityQueueSet<>(
 						keyGroupId,
 						keyGroupPrefixBytes,
@@ -127,7 +138,8 @@ public class RocksDBPriorityQueueSetFactory implements PriorityQueueSetFactory {
 						sharedElementOutView,
 						sharedElementInView,
 						writeBatchWrapper,
-						orderedSetCache
+						orderedSetCache,
+						queueHotTierHorizon
 					);
 				}
 			},
@@ -41,6 +41,7 @@ import org.apache.flink.runtime.state.KeyedStateHandle;
 import org.apache.flink.runtime.state.LocalRecoveryConfig;
 import org.apache.flink.runtime.state.OperatorStateBackend;
 import org.apache.flink.runtime.state.OperatorStateHandle;
+import org.apache.flink.runtime.state.SharedBroadcastStateRegistry;
 import org.apache.flink.runtime.state.StateBackend;
 import org.apache.flink.runtime.state.StreamCompressionDecorator;
 import org.apache.flink.runtime.state.filesystem.FsStateBackend;
@@ -64,6 +65,7 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.net.URI;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -73,8 +75,11 @@ import java.util.UUID;
 
 import static org.apache.flink.contrib.streaming.state.RocksDBConfigurableOptions.WRITE_BATCH_SIZE;
 import static org.apache.flink.contrib.streaming.state.RocksDBOptions.CHECKPOINT_TRANSFER_THREAD_NUM;
+import static org.apache.flink.contrib.streaming.state.RocksDBOptions.TIMER_SERVICE_CACHE_SIZE;
 import static org.apache.flink.contrib.streaming.state.RocksDBOptions.TIMER_SERVICE_FACTORY;
+import static org.apache.flink.contrib.streaming.state.RocksDBOptions.TIMER_SERVICE_HOT_TIER_HORIZON;
 import static org.apache.flink.contrib.streaming.state.RocksDBOptions.TTL_COMPACT_FILTER_ENABLED;
+import static org.apache.flink.contrib.streaming.state.RocksDBOptions.USE_INGEST_DB_RESTORE_MODE;
 import static org.apache.flink.util.Preconditions.checkArgument;
 import static org.apache.flink.util.Preconditions.checkNotNull;
 
@@ -114,6 +119,8 @@ public class RocksDBStateBackend extends AbstractStateBackend implements Configu
 	private static final int UNDEFINED_NUMBER_OF_TRANSFER_THREADS = -1;
 	private static final long UNDEFINED_WRITE_BATCH_SIZE = -1;
 
+	private static final int UNDEFINED_TIMER_SERVICE_CACHE_SIZE = -1;
+
 	// ------------------------------------------------------------------------
 
 	// -- configuration values, set in the application / configuration
@@ -149,13 +156,26 @@ public class RocksDBStateBackend extends AbstractStateBackend implements Configu
 	 */
 	private TernaryBoolean enableTtlCompactionFilter;
 
+	/** This determines if key groups are ingested as SST files when restoring with rescaling. */
+	private TernaryBoolean useIngestDbRestoreMode;
+
 	/** The configuration for memory settings (pool sizes, etc.). */
 	private final RocksDBMemoryConfiguration memoryConfiguration;
 
+	/** The configuration of the transfer service shared by all RocksDB instances of a TaskManager. */
+	private final RocksDBStateTransferConfiguration transferConfiguration;
+
 	/** This determines the type of priority queue state. */
 	@Nullable
 	private PriorityQueueStateType priorityQueueStateType;
 
+	/** The number of timers per key-group cached on heap by the RocksDB timer service. */
+	private int timerServiceCacheSize;
+
+	/** The horizon of timers kept on heap by the RocksDB timer service, null if not set. */
+	@Nullable
+	private Duration timerServiceHotTierHorizon;
+
 	/** The default rocksdb metrics options. */
 	private final RocksDBNativeMetricOptions defaultMetricOptions;
 
@@ -277,8 +297,11 @@ public class RocksDBStateBackend extends AbstractStateBackend implements Configu
 		this.numberOfTransferThreads = UNDEFINED_NUMBER_OF_TRANSFER_THREADS;
 		this.defaultMetricOptions = new RocksDBNativeMetricOptions();
 		this.enableTtlCompactionFilter = TernaryBoolean.UNDEFINED;
+		this.useIngestDbRestoreMode = TernaryBoolean.UNDEFINED;
 		this.memoryConfiguration = new RocksDBMemoryConfiguration();
+		this.transferConfiguration = new RocksDBStateTransferConfiguration();
 		this.writeBatchSize = UNDEFINED_WRITE_BATCH_SIZE;
+		this.timerServiceCacheSize = UNDEFINED_TIMER_SERVICE_CACHE_SIZE;
 	}
 
 	/**
@@ -328,16 +351,29 @@ public class RocksDBStateBackend extends AbstractStateBackend implements Configu
 		}
 		this.enableTtlCompactionFilter = original.enableTtlCompactionFilter
 			.resolveUndefined(config.getBoolean(TTL_COMPACT_FILTER_ENABLED));
+		this.useIngestDbRestoreMode = original.useIngestDbRestoreMode
+			.resolveUndefined(config.getBoolean(USE_INGEST_DB_RESTORE_MODE));
 
 		this.memoryConfiguration = RocksDBMemoryConfiguration.fromOtherAndConfiguration(original.memoryConfiguration, config);
 		this.memoryConfiguration.validate();
 
+		this.transferConfiguration = RocksDBStateTransferConfiguration.fromOtherAndConfiguration(
+			original.transferConfiguration, config);
+
 		if (null == original.priorityQueueStateType) {
 			this.priorityQueueStateType = config.getEnum(PriorityQueueStateType.class, TIMER_SERVICE_FACTORY);
 		} else {
 			this.priorityQueueStateType = original.priorityQueueStateType;
 		}
 
+		if (original.timerServiceCacheSize == UNDEFINED_TIMER_SERVICE_CACHE_SIZE) {
+			this.timerServiceCacheSize = config.getInteger(TIMER_SERVICE_CACHE_SIZE);
+		} else {
+			this.timerServiceCacheSize = original.timerServiceCacheSize;
+		}
+		this.timerServiceHotTierHorizon = original.timerServiceHotTierHorizon != null ?
+			original.timerServiceHotTierHorizon : config.get(TIMER_SERVICE_HOT_TIER_HORIZON);
+
 		// configure local directories
 		if (original.localRocksDbDirectories != null) {
 			this.localRocksDbDirectories = original.localRocksDbDirectories;
@@ -519,6 +555,9 @@ public class RocksDBStateBackend extends AbstractStateBackend implements Configu
 		}
 		final RocksDBResourceContainer resourceContainer = createOptionsAndResourceContainer(sharedResources);
 
+		final RocksDBStateTransferService transferService = transferConfiguration.isUsingSharedTransferService() ?
+			RocksDBStateTransferService.getOrCreateSharedInstance(transferConfiguration) : null;
+
 		ExecutionConfig executionConfig = env.getExecutionConfig();
 		StreamCompressionDecorator keyGroupCompressionDecorator = getCompressionDecorator(executionConfig);
 		RocksDBKeyedStateBackendBuilder<K> builder = new RocksDBKeyedStateBackendBuilder<>(
@@ -542,9 +581,13 @@ public class RocksDBStateBackend extends AbstractStateBackend implements Configu
 		)
 			.setEnableIncrementalCheckpointing(isIncrementalCheckpointsEnabled())
 			.setEnableTtlCompactionFilter(isTtlCompactionFilterEnabled())
+			.setUseIngestDbRestoreMode(isIngestDbRestoreModeEnabled())
 			.setNumberOfTransferingThreads(getNumberOfTransferThreads())
+			.setStateTransferService(transferService)
 			.setNativeMetricOptions(resourceContainer.getMemoryWatcherOptions(defaultMetricOptions))
-			.setWriteBatchSize(getWriteBatchSize());
+			.setWriteBatchSize(getWriteBatchSize())
+			.setTimerServiceCacheSize(getTimerServiceCacheSize())
+			.setTimerServiceHotTierHorizon(timerServiceHotTierHorizon);
 		return builder.build();
 	}
 
@@ -562,7 +605,8 @@ public class RocksDBStateBackend extends AbstractStateBackend implements Configu
 			env.getExecutionConfig(),
 			asyncSnapshots,
 			stateHandles,
-			cancelStreamRegistry).build();
+			cancelStreamRegistry,
+			SharedBroadcastStateRegistry.createScope(env)).build();
 	}
 
 	private RocksDBOptionsFactory configureOptionsFactory(
@@ -623,6 +667,23 @@ public class RocksDBStateBackend extends AbstractStateBackend implements Configu
 		return memoryConfiguration;
 	}
 
+	/**
+	 * Returns true if RocksDB takes its memory from the managed memory of the slots, which is
+	 * not the case if a fixed amount of memory per slot is configured.
+	 */
+	@Override
+	public boolean useManagedMemory() {
+		return !memoryConfiguration.isUsingFixedMemoryPerSlot() && memoryConfiguration.isUsingManagedMemory();
+	}
+
+	/**
+	 * Gets the transfer configuration object, which offers settings to share the download and upload of
+	 * files between all RocksDB instances of a TaskManager.
+	 */
+	public RocksDBStateTransferConfiguration getTransferConfiguration() {
+		return transferConfiguration;
+	}
+
 	/**
 	 * Sets the path where the RocksDB local database files should be stored on the local
 	 * file system. Setting this path overrides the default behavior, where the
@@ -770,6 +831,25 @@ public class RocksDBStateBackend extends AbstractStateBackend implements Configu
 		enableTtlCompactionFilter = TernaryBoolean.FALSE;
 	}
 
+	/**
+	 * Gets whether key groups are ingested as SST files when restoring an incremental checkpoint
+	 * with rescaling.
+	 */
+	public boolean isIngestDbRestoreModeEnabled() {
+		return useIngestDbRestoreMode.getOrDefault(USE_INGEST_DB_RESTORE_MODE.defaultValue());
+	}
+
+	/**
+	 * Sets whether key groups are ingested as SST files when restoring an incremental checkpoint
+	 * with rescaling. If enabled, the key groups of each temporary instance are written into SST files
+	 * and ingested into the target instance, rather than being copied record by record.
+	 *
+	 * @param useIngestDbRestoreMode True if SST ingestion should be used for rescaling restores.
+	 */
+	public void setUseIngestDbRestoreMode(boolean useIngestDbRestoreMode) {
+		this.useIngestDbRestoreMode = TernaryBoolean.fromBoolean(useIngestDbRestoreMode);
+	}
+
 	/**
 	 * Gets the type of the priority queue state. It will fallback to the default value, if it is not explicitly set.
 	 * @return The type of the priority queue state.
@@ -786,6 +866,41 @@ public class RocksDBStateBackend extends AbstractStateBackend implements Configu
 		this.priorityQueueStateType = checkNotNull(priorityQueueStateType);
 	}
 
+	/**
+	 * Gets the number of timers per key-group that the RocksDB timer service caches on heap.
+	 */
+	public int getTimerServiceCacheSize() {
+		return timerServiceCacheSize == UNDEFINED_TIMER_SERVICE_CACHE_SIZE ?
+			TIMER_SERVICE_CACHE_SIZE.defaultValue() : timerServiceCacheSize;
+	}
+
+	/**
+	 * Sets the number of timers per key-group that the RocksDB timer service caches on heap.
+	 */
+	public void setTimerServiceCacheSize(int timerServiceCacheSize) {
+		checkArgument(timerServiceCacheSize > 0, "The timer service cache size must be greater than zero.");
+		this.timerServiceCacheSize = timerServiceCacheSize;
+	}
+
+	/**
+	 * Gets the horizon of timers that the RocksDB timer service keeps on heap, or null if the cache is only
+	 * bounded by its size.
+	 */
+	@Nullable
+	public Duration getTimerServiceHotTierHorizon() {
+		return timerServiceHotTierHorizon;
+	}
+
+	/**
+	 * Sets the horizon of timers that the RocksDB timer service keeps on heap. See
+	 * {@link RocksDBOptions#TIMER_SERVICE_HOT_TIER_HORIZON} for details.
+	 */
+	public void setTimerServiceHotTierHorizon(Duration timerServiceHotTierHorizon) {
+		checkArgument(!timerServiceHotTierHorizon.isNegative() && !timerServiceHotTierHorizon.isZero(),
+			"The hot-tier horizon must be positive.");
+		this.timerServiceHotTierHorizon = timerServiceHotTierHorizon;
+	}
+
 	// ------------------------------------------------------------------------
 	//  Parametrize with RocksDB Options
 	// ------------------------------------------------------------------------
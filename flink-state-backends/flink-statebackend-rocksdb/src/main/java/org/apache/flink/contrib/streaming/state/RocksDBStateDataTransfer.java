@@ -17,7 +17,12 @@
 
 package org.apache.flink.contrib.streaming.state;
 
+import org.apache.flink.contrib.streaming.state.RocksDBStateTransferService.TransferType;
+
+import javax.annotation.Nullable;
+
 import java.io.Closeable;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -25,21 +30,59 @@ import static org.apache.flink.runtime.concurrent.Executors.newDirectExecutorSer
 
 /**
  * Data transfer base class for {@link RocksDBKeyedStateBackend}.
+ *
+ * <p>Transfers either run on a thread pool owned by this instance, or, if a {@link RocksDBStateTransferService}
+ * is given, on the threads of that service, which is shared by all RocksDB instances of the TaskManager.
  */
 class RocksDBStateDataTransfer implements Closeable {
 
-	protected final ExecutorService executorService;
+	/** The thread pool owned by this instance, null if the shared transfer service is used. */
+	@Nullable
+	private final ExecutorService executorService;
+
+	protected final Executor executor;
+
+	@Nullable
+	protected final RocksDBStateTransferService transferService;
 
 	RocksDBStateDataTransfer(int threadNum) {
-		if (threadNum > 1) {
-			executorService = Executors.newFixedThreadPool(threadNum);
+		this(threadNum, null, TransferType.DOWNLOAD);
+	}
+
+	RocksDBStateDataTransfer(
+		int threadNum,
+		@Nullable RocksDBStateTransferService transferService,
+		TransferType transferType) {
+
+		this.transferService = transferService;
+		if (transferService != null) {
+			executorService = null;
+			executor = transferService.getExecutor(transferType);
 		} else {
-			executorService = newDirectExecutorService();
+			executorService = threadNum > 1 ? Executors.newFixedThreadPool(threadNum) : newDirectExecutorService();
+			executor = executorService;
+		}
+	}
+
+	/**
+	 * Blocks until the given number of bytes may be transferred under the bandwidth limit of the shared
+	 * transfer service, if any.
+	 */
+	protected void acquireBandwidth(int numBytes) {
+		if (transferService != null) {
+			transferService.acquireBandwidth(numBytes);
 		}
 	}
 
+	@Nullable
+	protected RocksDBLocalStateFileCache getLocalCache() {
+		return transferService != null ? transferService.getLocalCache() : null;
+	}
+
 	@Override
 	public void close() {
-		executorService.shutdownNow();
+		if (executorService != null) {
+			executorService.shutdownNow();
+		}
 	}
 }
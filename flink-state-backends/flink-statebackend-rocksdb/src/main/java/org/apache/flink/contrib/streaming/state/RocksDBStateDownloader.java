@@ -17,6 +17,7 @@
 
 package org.apache.flink.contrib.streaming.state;
 
+import org.apache.flink.contrib.streaming.state.RocksDBStateTransferService.TransferType;
 import org.apache.flink.core.fs.CloseableRegistry;
 import org.apache.flink.core.fs.FSDataInputStream;
 import org.apache.flink.runtime.concurrent.FutureUtils;
@@ -27,6 +28,8 @@ import org.apache.flink.util.ExceptionUtils;
 import org.apache.flink.util.FlinkRuntimeException;
 import org.apache.flink.util.function.ThrowingRunnable;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.file.Files;
@@ -45,6 +48,10 @@ public class RocksDBStateDownloader extends RocksDBStateDataTransfer {
 		super(restoringThreadNum);
 	}
 
+	public RocksDBStateDownloader(int restoringThreadNum, @Nullable RocksDBStateTransferService transferService) {
+		super(restoringThreadNum, transferService, TransferType.DOWNLOAD);
+	}
+
 	/**
 	 * Transfer all state data to the target directory using specified number of threads.
 	 *
@@ -63,24 +70,25 @@ public class RocksDBStateDownloader extends RocksDBStateDataTransfer {
 		final Map<StateHandleID, StreamStateHandle> miscFiles =
 			restoreStateHandle.getPrivateState();
 
-		downloadDataForAllStateHandles(sstFiles, dest, closeableRegistry);
-		downloadDataForAllStateHandles(miscFiles, dest, closeableRegistry);
+		downloadDataForAllStateHandles(sstFiles, dest, closeableRegistry, true);
+		downloadDataForAllStateHandles(miscFiles, dest, closeableRegistry, false);
 	}
 
 	/**
 	 * Copies all the files from the given stream state handles to the given path, renaming the files w.r.t. their
-	 * {@link StateHandleID}.
+	 * {@link StateHandleID}. Only immutable files may be served from and added to the local file cache.
 	 */
 	private void downloadDataForAllStateHandles(
 		Map<StateHandleID, StreamStateHandle> stateHandleMap,
 		Path restoreInstancePath,
-		CloseableRegistry closeableRegistry) throws Exception {
+		CloseableRegistry closeableRegistry,
+		boolean cacheable) throws Exception {
 
 		try {
-			List<Runnable> runnables = createDownloadRunnables(stateHandleMap, restoreInstancePath, closeableRegistry);
+			List<Runnable> runnables = createDownloadRunnables(stateHandleMap, restoreInstancePath, closeableRegistry, cacheable);
 			List<CompletableFuture<Void>> futures = new ArrayList<>(runnables.size());
 			for (Runnable runnable : runnables) {
-				futures.add(CompletableFuture.runAsync(runnable, executorService));
+				futures.add(CompletableFuture.runAsync(runnable, executor));
 			}
 			FutureUtils.waitForAll(futures).get();
 		} catch (ExecutionException e) {
@@ -97,7 +105,9 @@ public class RocksDBStateDownloader extends RocksDBStateDataTransfer {
 	private List<Runnable> createDownloadRunnables(
 		Map<StateHandleID, StreamStateHandle> stateHandleMap,
 		Path restoreInstancePath,
-		CloseableRegistry closeableRegistry) {
+		CloseableRegistry closeableRegistry,
+		boolean cacheable) {
+		final RocksDBLocalStateFileCache localCache = cacheable ? getLocalCache() : null;
 		List<Runnable> runnables = new ArrayList<>(stateHandleMap.size());
 		for (Map.Entry<StateHandleID, StreamStateHandle> entry : stateHandleMap.entrySet()) {
 			StateHandleID stateHandleID = entry.getKey();
@@ -105,8 +115,15 @@ public class RocksDBStateDownloader extends RocksDBStateDataTransfer {
 
 			Path path = restoreInstancePath.resolve(stateHandleID.toString());
 
-			runnables.add(ThrowingRunnable.unchecked(
-				() -> downloadDataForStateHandle(path, remoteFileHandle, closeableRegistry)));
+			runnables.add(ThrowingRunnable.unchecked(() -> {
+				if (localCache != null && localCache.restore(remoteFileHandle, path)) {
+					return;
+				}
+				downloadDataForStateHandle(path, remoteFileHandle, closeableRegistry);
+				if (localCache != null) {
+					localCache.add(remoteFileHandle, path);
+				}
+			}));
 		}
 		return runnables;
 	}
@@ -137,6 +154,7 @@ public class RocksDBStateDownloader extends RocksDBStateDataTransfer {
 					break;
 				}
 
+				acquireBandwidth(numBytes);
 				outputStream.write(buffer, 0, numBytes);
 			}
 		} finally {
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.contrib.streaming.state;
+
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.configuration.MemorySize;
+
+import javax.annotation.Nullable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * The settings of the {@link RocksDBStateTransferService} that is shared by all RocksDB instances
+ * of a TaskManager.
+ */
+public final class RocksDBStateTransferConfiguration implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The number of threads of the shared transfer service. Null if not set. */
+	@Nullable
+	private Integer sharedThreadNum;
+
+	/** The maximum number of bytes per second transferred by the shared service. Null if not set. */
+	@Nullable
+	private MemorySize rateLimit;
+
+	/** The local directory for cached SST files. Null if not set. */
+	@Nullable
+	private String localCacheDirectory;
+
+	/** The maximum total size of the cached SST files. Null if not set. */
+	@Nullable
+	private MemorySize localCacheMaxSize;
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Sets the number of threads of the shared transfer service.
+	 * See {@link RocksDBOptions#SHARED_TRANSFER_THREAD_NUM} for details.
+	 */
+	public void setSharedThreadNum(int sharedThreadNum) {
+		checkArgument(sharedThreadNum >= 0, "The number of shared transfer threads must be >= 0");
+		this.sharedThreadNum = sharedThreadNum;
+	}
+
+	/**
+	 * Sets the maximum number of bytes per second transferred by the shared transfer service.
+	 * See {@link RocksDBOptions#SHARED_TRANSFER_RATE_LIMIT} for details.
+	 */
+	public void setRateLimit(MemorySize rateLimit) {
+		this.rateLimit = rateLimit;
+	}
+
+	/**
+	 * Sets the local directory in which the shared transfer service caches SST files.
+	 * See {@link RocksDBOptions#SHARED_TRANSFER_LOCAL_CACHE_DIRECTORY} for details.
+	 */
+	public void setLocalCacheDirectory(@Nullable String localCacheDirectory) {
+		this.localCacheDirectory = localCacheDirectory;
+	}
+
+	/**
+	 * Sets the maximum total size of the cached SST files.
+	 * See {@link RocksDBOptions#SHARED_TRANSFER_LOCAL_CACHE_MAX_SIZE} for details.
+	 */
+	public void setLocalCacheMaxSize(MemorySize localCacheMaxSize) {
+		checkArgument(localCacheMaxSize.getBytes() > 0, "The local cache size must be > 0");
+		this.localCacheMaxSize = localCacheMaxSize;
+	}
+
+	/**
+	 * Gets whether the RocksDB instances transfer their files through the shared transfer service.
+	 */
+	public boolean isUsingSharedTransferService() {
+		return getSharedThreadNum() > 0;
+	}
+
+	public int getSharedThreadNum() {
+		return sharedThreadNum != null ? sharedThreadNum : RocksDBOptions.SHARED_TRANSFER_THREAD_NUM.defaultValue();
+	}
+
+	public MemorySize getRateLimit() {
+		return rateLimit != null ? rateLimit : RocksDBOptions.SHARED_TRANSFER_RATE_LIMIT.defaultValue();
+	}
+
+	@Nullable
+	public String getLocalCacheDirectory() {
+		return localCacheDirectory;
+	}
+
+	public MemorySize getLocalCacheMaxSize() {
+		return localCacheMaxSize != null ? localCacheMaxSize : RocksDBOptions.SHARED_TRANSFER_LOCAL_CACHE_MAX_SIZE.defaultValue();
+	}
+
+	// ------------------------------------------------------------------------
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		RocksDBStateTransferConfiguration that = (RocksDBStateTransferConfiguration) o;
+		return getSharedThreadNum() == that.getSharedThreadNum() &&
+			getRateLimit().equals(that.getRateLimit()) &&
+			Objects.equals(localCacheDirectory, that.localCacheDirectory) &&
+			getLocalCacheMaxSize().equals(that.getLocalCacheMaxSize());
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(getSharedThreadNum(), getRateLimit(), localCacheDirectory, getLocalCacheMaxSize());
+	}
+
+	@Override
+	public String toString() {
+		return "RocksDBStateTransferConfiguration{" +
+			"sharedThreadNum=" + getSharedThreadNum() +
+			", rateLimit=" + getRateLimit() +
+			", localCacheDirectory=" + localCacheDirectory +
+			", localCacheMaxSize=" + getLocalCacheMaxSize() +
+			'}';
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Derives a RocksDBStateTransferConfiguration from another object and a configuration.
+	 * The values set on the other object take precedence, and the values from the configuration are
+	 * used if no values are set on the other config object.
+	 */
+	public static RocksDBStateTransferConfiguration fromOtherAndConfiguration(
+			RocksDBStateTransferConfiguration other,
+			Configuration config) {
+
+		final RocksDBStateTransferConfiguration newConfig = new RocksDBStateTransferConfiguration();
+
+		newConfig.sharedThreadNum = other.sharedThreadNum != null
+				? other.sharedThreadNum
+				: config.getInteger(RocksDBOptions.SHARED_TRANSFER_THREAD_NUM);
+
+		newConfig.rateLimit = other.rateLimit != null
+				? other.rateLimit
+				: config.get(RocksDBOptions.SHARED_TRANSFER_RATE_LIMIT);
+
+		newConfig.localCacheDirectory = other.localCacheDirectory != null
+				? other.localCacheDirectory
+				: config.getString(RocksDBOptions.SHARED_TRANSFER_LOCAL_CACHE_DIRECTORY);
+
+		newConfig.localCacheMaxSize = other.localCacheMaxSize != null
+				? other.localCacheMaxSize
+				: config.get(RocksDBOptions.SHARED_TRANSFER_LOCAL_CACHE_MAX_SIZE);
+
+		return newConfig;
+	}
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.contrib.streaming.state;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.runtime.util.ExecutorThreadFactory;
+
+import org.apache.flink.shaded.guava18.com.google.common.util.concurrent.RateLimiter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * A file transfer service that is shared by all RocksDB instances of a TaskManager. In contrast to the
+ * per-operator thread pools of {@link RocksDBStateDataTransfer}, it caps the number of concurrent
+ * transfers and the total transfer bandwidth of the TaskManager, runs downloads for restores ahead of
+ * uploads for checkpoints, and optionally keeps the transferred SST files in a
+ * {@link RocksDBLocalStateFileCache} so that restores on the same TaskManager can skip the download.
+ */
+public class RocksDBStateTransferService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(RocksDBStateTransferService.class);
+
+	private static final Object SHARED_INSTANCE_LOCK = new Object();
+
+	@GuardedBy("SHARED_INSTANCE_LOCK")
+	@Nullable
+	private static RocksDBStateTransferService sharedInstance;
+
+	/** The type of a transfer, which determines its priority in the shared queue. */
+	public enum TransferType {
+		/** Downloads block the restore of a task and go first. */
+		DOWNLOAD,
+		/** Uploads only delay the completion of a checkpoint. */
+		UPLOAD
+	}
+
+	private final RocksDBStateTransferConfiguration configuration;
+
+	private final ThreadPoolExecutor executor;
+
+	/** Sequence number that keeps transfers of the same type in FIFO order. */
+	private final AtomicLong sequenceNumber;
+
+	@Nullable
+	private final RateLimiter rateLimiter;
+
+	@Nullable
+	private final RocksDBLocalStateFileCache localCache;
+
+	@VisibleForTesting
+	RocksDBStateTransferService(RocksDBStateTransferConfiguration configuration) throws IOException {
+		checkArgument(configuration.isUsingSharedTransferService(),
+			"The number of shared transfer threads must be greater than zero.");
+
+		final int threadNum = configuration.getSharedThreadNum();
+		final long bytesPerSecond = configuration.getRateLimit().getBytes();
+		final String localCacheDirectory = configuration.getLocalCacheDirectory();
+
+		this.configuration = configuration;
+		this.executor = new ThreadPoolExecutor(
+			threadNum,
+			threadNum,
+			60L,
+			TimeUnit.SECONDS,
+			new PriorityBlockingQueue<>(),
+			new ExecutorThreadFactory("rocksdb-state-transfer"));
+		this.executor.allowCoreThreadTimeOut(true);
+		this.sequenceNumber = new AtomicLong();
+		this.rateLimiter = bytesPerSecond > 0 ? RateLimiter.create(bytesPerSecond) : null;
+		this.localCache = localCacheDirectory != null ?
+			new RocksDBLocalStateFileCache(Paths.get(localCacheDirectory), configuration.getLocalCacheMaxSize().getBytes()) :
+			null;
+	}
+
+	/**
+	 * Returns the transfer service of this TaskManager, creating it with the given settings if it does
+	 * not exist yet.
+	 */
+	public static RocksDBStateTransferService getOrCreateSharedInstance(
+		@Nonnull RocksDBStateTransferConfiguration configuration) throws IOException {
+
+		synchronized (SHARED_INSTANCE_LOCK) {
+			if (sharedInstance == null) {
+				LOG.info("Creating shared RocksDB state transfer service with {}.", configuration);
+				sharedInstance = new RocksDBStateTransferService(configuration);
+			} else if (!sharedInstance.configuration.equals(configuration)) {
+				LOG.warn("Ignoring {} because the shared RocksDB state transfer service already runs with {}.",
+					configuration, sharedInstance.configuration);
+			}
+			return sharedInstance;
+		}
+	}
+
+	/**
+	 * Returns an executor that runs the given transfers on the shared threads, ordered by their type.
+	 */
+	public Executor getExecutor(TransferType transferType) {
+		return runnable -> executor.execute(
+			new PrioritizedTransfer(transferType, sequenceNumber.getAndIncrement(), runnable));
+	}
+
+	/**
+	 * Blocks until the given number of bytes may be transferred without exceeding the rate limit.
+	 */
+	public void acquireBandwidth(int numBytes) {
+		if (rateLimiter != null && numBytes > 0) {
+			rateLimiter.acquire(numBytes);
+		}
+	}
+
+	@Nullable
+	public RocksDBLocalStateFileCache getLocalCache() {
+		return localCache;
+	}
+
+	@VisibleForTesting
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * A transfer in the queue of the shared executor.
+	 */
+	private static final class PrioritizedTransfer implements Runnable, Comparable<PrioritizedTransfer> {
+
+		private final TransferType transferType;
+
+		private final long sequenceNumber;
+
+		private final Runnable runnable;
+
+		private PrioritizedTransfer(TransferType transferType, long sequenceNumber, Runnable runnable) {
+			this.transferType = transferType;
+			this.sequenceNumber = sequenceNumber;
+			this.runnable = runnable;
+		}
+
+		@Override
+		public void run() {
+			runnable.run();
+		}
+
+		@Override
+		public int compareTo(PrioritizedTransfer other) {
+			int result = transferType.compareTo(other.transferType);
+			return result != 0 ? result : Long.compare(sequenceNumber, other.sequenceNumber);
+		}
+	}
+}
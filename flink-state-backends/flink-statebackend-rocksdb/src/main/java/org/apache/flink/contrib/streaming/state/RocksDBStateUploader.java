@@ -18,6 +18,7 @@
 
 package org.apache.flink.contrib.streaming.state;
 
+import org.apache.flink.contrib.streaming.state.RocksDBStateTransferService.TransferType;
 import org.apache.flink.core.fs.CloseableRegistry;
 import org.apache.flink.runtime.concurrent.FutureUtils;
 import org.apache.flink.runtime.state.CheckpointStreamFactory;
@@ -30,6 +31,7 @@ import org.apache.flink.util.IOUtils;
 import org.apache.flink.util.function.CheckedSupplier;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -51,6 +53,10 @@ public class RocksDBStateUploader extends RocksDBStateDataTransfer {
 		super(numberOfSnapshottingThreads);
 	}
 
+	public RocksDBStateUploader(int numberOfSnapshottingThreads, @Nullable RocksDBStateTransferService transferService) {
+		super(numberOfSnapshottingThreads, transferService, TransferType.UPLOAD);
+	}
+
 	/**
 	 * Upload all the files to checkpoint fileSystem using specified number of threads.
 	 *
@@ -63,11 +69,29 @@ public class RocksDBStateUploader extends RocksDBStateDataTransfer {
 		@Nonnull Map<StateHandleID, Path> files,
 		CheckpointStreamFactory checkpointStreamFactory,
 		CloseableRegistry closeableRegistry) throws Exception {
+		return uploadFilesToCheckpointFs(files, checkpointStreamFactory, closeableRegistry, false);
+	}
+
+	/**
+	 * Upload all the files to checkpoint fileSystem using specified number of threads.
+	 *
+	 * @param files The files will be uploaded to checkpoint filesystem.
+	 * @param checkpointStreamFactory The checkpoint streamFactory used to create outputstream.
+	 * @param cacheable True if the files are immutable and may be added to the local file cache of the
+	 *                  shared transfer service.
+	 *
+	 * @throws Exception Thrown if can not upload all the files.
+	 */
+	public Map<StateHandleID, StreamStateHandle> uploadFilesToCheckpointFs(
+		@Nonnull Map<StateHandleID, Path> files,
+		CheckpointStreamFactory checkpointStreamFactory,
+		CloseableRegistry closeableRegistry,
+		boolean cacheable) throws Exception {
 
 		Map<StateHandleID, StreamStateHandle> handles = new HashMap<>();
 
 		Map<StateHandleID, CompletableFuture<StreamStateHandle>> futures =
-			createUploadFutures(files, checkpointStreamFactory, closeableRegistry);
+			createUploadFutures(files, checkpointStreamFactory, closeableRegistry, cacheable);
 
 		try {
 			FutureUtils.waitForAll(futures.values()).get();
@@ -91,13 +115,22 @@ public class RocksDBStateUploader extends RocksDBStateDataTransfer {
 	private Map<StateHandleID, CompletableFuture<StreamStateHandle>> createUploadFutures(
 		Map<StateHandleID, Path> files,
 		CheckpointStreamFactory checkpointStreamFactory,
-		CloseableRegistry closeableRegistry) {
+		CloseableRegistry closeableRegistry,
+		boolean cacheable) {
 		Map<StateHandleID, CompletableFuture<StreamStateHandle>> futures = new HashMap<>(files.size());
+		final RocksDBLocalStateFileCache localCache = cacheable ? getLocalCache() : null;
 
 		for (Map.Entry<StateHandleID, Path> entry : files.entrySet()) {
 			final Supplier<StreamStateHandle> supplier =
-				CheckedSupplier.unchecked(() -> uploadLocalFileToCheckpointFs(entry.getValue(), checkpointStreamFactory, closeableRegistry));
-			futures.put(entry.getKey(), CompletableFuture.supplyAsync(supplier, executorService));
+				CheckedSupplier.unchecked(() -> {
+					StreamStateHandle handle =
+						uploadLocalFileToCheckpointFs(entry.getValue(), checkpointStreamFactory, closeableRegistry);
+					if (localCache != null && handle != null) {
+						localCache.add(handle, entry.getValue());
+					}
+					return handle;
+				});
+			futures.put(entry.getKey(), CompletableFuture.supplyAsync(supplier, executor));
 		}
 
 		return futures;
@@ -128,6 +161,7 @@ public class RocksDBStateUploader extends RocksDBStateDataTransfer {
 					break;
 				}
 
+				acquireBandwidth(numBytes);
 				outputStream.write(buffer, 0, numBytes);
 			}
 
@@ -24,6 +24,7 @@ import org.apache.flink.contrib.streaming.state.RocksDBKeyedStateBackend.RocksDb
 import org.apache.flink.contrib.streaming.state.RocksDBNativeMetricOptions;
 import org.apache.flink.contrib.streaming.state.RocksDBOperationUtils;
 import org.apache.flink.contrib.streaming.state.RocksDBStateDownloader;
+import org.apache.flink.contrib.streaming.state.RocksDBStateTransferService;
 import org.apache.flink.contrib.streaming.state.RocksDBWriteBatchWrapper;
 import org.apache.flink.contrib.streaming.state.RocksIteratorWrapper;
 import org.apache.flink.contrib.streaming.state.ttl.RocksDbTtlCompactFiltersManager;
@@ -51,13 +52,18 @@ import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.ColumnFamilyOptions;
 import org.rocksdb.DBOptions;
+import org.rocksdb.EnvOptions;
+import org.rocksdb.IngestExternalFileOptions;
+import org.rocksdb.Options;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
+import org.rocksdb.SstFileWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import java.io.File;
 import java.io.IOException;
@@ -68,6 +74,7 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -91,6 +98,9 @@ public class RocksDBIncrementalRestoreOperation<K> extends AbstractRocksDBRestor
 	private long lastCompletedCheckpointId;
 	private UUID backendUID;
 	private final long writeBatchSize;
+	private final boolean useIngestDbRestoreMode;
+	@Nullable
+	private final RocksDBStateTransferService transferService;
 
 	public RocksDBIncrementalRestoreOperation(
 		String operatorIdentifier,
@@ -109,7 +119,9 @@ public class RocksDBIncrementalRestoreOperation<K> extends AbstractRocksDBRestor
 		MetricGroup metricGroup,
 		@Nonnull Collection<KeyedStateHandle> restoreStateHandles,
 		@Nonnull RocksDbTtlCompactFiltersManager ttlCompactFiltersManager,
-		@Nonnegative long writeBatchSize) {
+		@Nonnegative long writeBatchSize,
+		boolean useIngestDbRestoreMode,
+		@Nullable RocksDBStateTransferService transferService) {
 		super(keyGroupRange,
 			keyGroupPrefixBytes,
 			numberOfTransferringThreads,
@@ -131,6 +143,8 @@ public class RocksDBIncrementalRestoreOperation<K> extends AbstractRocksDBRestor
 		this.backendUID = UUID.randomUUID();
 		checkArgument(writeBatchSize >= 0, "Write batch size have to be no negative.");
 		this.writeBatchSize = writeBatchSize;
+		this.useIngestDbRestoreMode = useIngestDbRestoreMode;
+		this.transferService = transferService;
 	}
 
 	/**
@@ -225,7 +239,7 @@ public class RocksDBIncrementalRestoreOperation<K> extends AbstractRocksDBRestor
 		Path temporaryRestoreInstancePath,
 		IncrementalRemoteKeyedStateHandle restoreStateHandle) throws Exception {
 
-		try (RocksDBStateDownloader rocksDBStateDownloader = new RocksDBStateDownloader(numberOfTransferringThreads)) {
+		try (RocksDBStateDownloader rocksDBStateDownloader = new RocksDBStateDownloader(numberOfTransferringThreads, transferService)) {
 			rocksDBStateDownloader.transferAllStateDataToDirectory(
 				restoreStateHandle,
 				temporaryRestoreInstancePath,
@@ -262,6 +276,10 @@ public class RocksDBIncrementalRestoreOperation<K> extends AbstractRocksDBRestor
 	 * Recovery from multi incremental states with rescaling. For rescaling, this method creates a temporary
 	 * RocksDB instance for a key-groups shard. All contents from the temporary instance are copied into the
 	 * real restore instance and then the temporary instance is discarded.
+	 *
+	 * <p>If the ingest-db restore mode is enabled, the overlapping key groups of each temporary instance are
+	 * written into one SST file per column family and ingested into the restore instance, which avoids
+	 * re-inserting every record through the write path of the restore instance.
 	 */
 	private void restoreWithRescaling(Collection<KeyedStateHandle> restoreStateHandles) throws Exception {
 
@@ -295,41 +313,126 @@ public class RocksDBIncrementalRestoreOperation<K> extends AbstractRocksDBRestor
 			Path temporaryRestoreInstancePath = instanceBasePath.getAbsoluteFile().toPath().resolve(UUID.randomUUID().toString());
 			try (RestoredDBInstance tmpRestoreDBInfo = restoreDBInstanceFromStateHandle(
 				(IncrementalRemoteKeyedStateHandle) rawStateHandle,
-				temporaryRestoreInstancePath);
-				RocksDBWriteBatchWrapper writeBatchWrapper = new RocksDBWriteBatchWrapper(this.db, writeBatchSize)) {
+				temporaryRestoreInstancePath)) {
+
+				if (useIngestDbRestoreMode) {
+					ingestKeyGroupsFromTemporaryInstance(
+						tmpRestoreDBInfo, startKeyGroupPrefixBytes, stopKeyGroupPrefixBytes);
+				} else {
+					copyKeyGroupsFromTemporaryInstance(
+						tmpRestoreDBInfo, startKeyGroupPrefixBytes, stopKeyGroupPrefixBytes);
+				}
+			} finally {
+				cleanUpPathQuietly(temporaryRestoreInstancePath);
+			}
+		}
+	}
+
+	/**
+	 * Copies all records of the target key-group range from the temporary instance into the base DB by
+	 * re-inserting them through a {@link RocksDBWriteBatchWrapper}.
+	 */
+	private void copyKeyGroupsFromTemporaryInstance(
+		RestoredDBInstance tmpRestoreDBInfo,
+		byte[] startKeyGroupPrefixBytes,
+		byte[] stopKeyGroupPrefixBytes) throws Exception {
+
+		try (RocksDBWriteBatchWrapper writeBatchWrapper = new RocksDBWriteBatchWrapper(this.db, writeBatchSize)) {
+
+			List<ColumnFamilyDescriptor> tmpColumnFamilyDescriptors = tmpRestoreDBInfo.columnFamilyDescriptors;
+			List<ColumnFamilyHandle> tmpColumnFamilyHandles = tmpRestoreDBInfo.columnFamilyHandles;
+
+			// iterating only the requested descriptors automatically skips the default column family handle
+			for (int i = 0; i < tmpColumnFamilyDescriptors.size(); ++i) {
+				ColumnFamilyHandle tmpColumnFamilyHandle = tmpColumnFamilyHandles.get(i);
+
+				ColumnFamilyHandle targetColumnFamilyHandle = getOrRegisterStateColumnFamilyHandle(
+					null, tmpRestoreDBInfo.stateMetaInfoSnapshots.get(i))
+					.columnFamilyHandle;
+
+				try (RocksIteratorWrapper iterator = RocksDBOperationUtils.getRocksIterator(tmpRestoreDBInfo.db, tmpColumnFamilyHandle)) {
+
+					iterator.seek(startKeyGroupPrefixBytes);
+
+					while (iterator.isValid()) {
 
-				List<ColumnFamilyDescriptor> tmpColumnFamilyDescriptors = tmpRestoreDBInfo.columnFamilyDescriptors;
-				List<ColumnFamilyHandle> tmpColumnFamilyHandles = tmpRestoreDBInfo.columnFamilyHandles;
+						if (RocksDBIncrementalCheckpointUtils.beforeThePrefixBytes(iterator.key(), stopKeyGroupPrefixBytes)) {
+							writeBatchWrapper.put(targetColumnFamilyHandle, iterator.key(), iterator.value());
+						} else {
+							// Since the iterator will visit the record according to the sorted order,
+							// we can just break here.
+							break;
+						}
+
+						iterator.next();
+					}
+				} // releases native iterator resources
+			}
+		}
+	}
+
+	/**
+	 * Writes all records of the target key-group range from the temporary instance into one SST file per
+	 * column family and ingests those files into the base DB. Since the iterator visits the records in
+	 * sorted order, they can be appended to the {@link SstFileWriter} directly.
+	 */
+	private void ingestKeyGroupsFromTemporaryInstance(
+		RestoredDBInstance tmpRestoreDBInfo,
+		byte[] startKeyGroupPrefixBytes,
+		byte[] stopKeyGroupPrefixBytes) throws Exception {
 
-				// iterating only the requested descriptors automatically skips the default column family handle
-				for (int i = 0; i < tmpColumnFamilyDescriptors.size(); ++i) {
-					ColumnFamilyHandle tmpColumnFamilyHandle = tmpColumnFamilyHandles.get(i);
+		final Path sstExportPath = instanceBasePath.getAbsoluteFile().toPath().resolve(UUID.randomUUID().toString());
+		Files.createDirectories(sstExportPath);
 
-					ColumnFamilyHandle targetColumnFamilyHandle = getOrRegisterStateColumnFamilyHandle(
-						null, tmpRestoreDBInfo.stateMetaInfoSnapshots.get(i))
-						.columnFamilyHandle;
+		List<ColumnFamilyDescriptor> tmpColumnFamilyDescriptors = tmpRestoreDBInfo.columnFamilyDescriptors;
+		List<ColumnFamilyHandle> tmpColumnFamilyHandles = tmpRestoreDBInfo.columnFamilyHandles;
 
-					try (RocksIteratorWrapper iterator = RocksDBOperationUtils.getRocksIterator(tmpRestoreDBInfo.db, tmpColumnFamilyHandle)) {
+		try (EnvOptions envOptions = new EnvOptions();
+			IngestExternalFileOptions ingestOptions = new IngestExternalFileOptions(true, false, true, true)) {
 
-						iterator.seek(startKeyGroupPrefixBytes);
+			// iterating only the requested descriptors automatically skips the default column family handle
+			for (int i = 0; i < tmpColumnFamilyDescriptors.size(); ++i) {
+				ColumnFamilyHandle tmpColumnFamilyHandle = tmpColumnFamilyHandles.get(i);
 
-						while (iterator.isValid()) {
+				ColumnFamilyHandle targetColumnFamilyHandle = getOrRegisterStateColumnFamilyHandle(
+					null, tmpRestoreDBInfo.stateMetaInfoSnapshots.get(i))
+					.columnFamilyHandle;
 
-							if (RocksDBIncrementalCheckpointUtils.beforeThePrefixBytes(iterator.key(), stopKeyGroupPrefixBytes)) {
-								writeBatchWrapper.put(targetColumnFamilyHandle, iterator.key(), iterator.value());
-							} else {
-								// Since the iterator will visit the record according to the sorted order,
-								// we can just break here.
-								break;
-							}
+				final String sstFilePath = sstExportPath.resolve(i + SST_FILE_SUFFIX).toString();
+				boolean hasEntries = false;
 
-							iterator.next();
+				try (Options sstWriterOptions = new Options(dbOptions, tmpColumnFamilyDescriptors.get(i).getOptions());
+					SstFileWriter sstFileWriter = new SstFileWriter(envOptions, sstWriterOptions);
+					RocksIteratorWrapper iterator = RocksDBOperationUtils.getRocksIterator(tmpRestoreDBInfo.db, tmpColumnFamilyHandle)) {
+
+					iterator.seek(startKeyGroupPrefixBytes);
+
+					while (iterator.isValid()
+						&& RocksDBIncrementalCheckpointUtils.beforeThePrefixBytes(iterator.key(), stopKeyGroupPrefixBytes)) {
+
+						if (!hasEntries) {
+							sstFileWriter.open(sstFilePath);
+							hasEntries = true;
 						}
-					} // releases native iterator resources
+						sstFileWriter.put(iterator.key(), iterator.value());
+						iterator.next();
+					}
+
+					// RocksDB refuses to finish SST files without entries, so we only finish and ingest non-empty ones
+					if (hasEntries) {
+						sstFileWriter.finish();
+					}
+				}
+
+				if (hasEntries) {
+					db.ingestExternalFile(
+						targetColumnFamilyHandle,
+						Collections.singletonList(sstFilePath),
+						ingestOptions);
 				}
-			} finally {
-				cleanUpPathQuietly(temporaryRestoreInstancePath);
 			}
+		} finally {
+			cleanUpPathQuietly(sstExportPath);
 		}
 	}
 
@@ -348,7 +451,8 @@ public class RocksDBIncrementalRestoreOperation<K> extends AbstractRocksDBRestor
 				keyGroupRange,
 				initialHandle.getKeyGroupRange(),
 				keyGroupPrefixBytes,
-				writeBatchSize);
+				writeBatchSize,
+				useIngestDbRestoreMode);
 		} catch (RocksDBException e) {
 			String errMsg = "Failed to clip DB after initialization.";
 			LOG.error(errMsg, e);
@@ -405,7 +509,7 @@ public class RocksDBIncrementalRestoreOperation<K> extends AbstractRocksDBRestor
 		Path temporaryRestoreInstancePath) throws Exception {
 
 		try (RocksDBStateDownloader rocksDBStateDownloader =
-				new RocksDBStateDownloader(numberOfTransferringThreads)) {
+				new RocksDBStateDownloader(numberOfTransferringThreads, transferService)) {
 			rocksDBStateDownloader.transferAllStateDataToDirectory(
 				restoreStateHandle,
 				temporaryRestoreInstancePath,
@@ -20,6 +20,7 @@ package org.apache.flink.contrib.streaming.state.snapshot;
 
 import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.contrib.streaming.state.RocksDBKeyedStateBackend.RocksDbKvStateInfo;
+import org.apache.flink.contrib.streaming.state.RocksDBStateTransferService;
 import org.apache.flink.contrib.streaming.state.RocksDBStateUploader;
 import org.apache.flink.core.fs.CloseableRegistry;
 import org.apache.flink.core.memory.DataOutputView;
@@ -121,7 +122,8 @@ public class RocksIncrementalSnapshotStrategy<K> extends RocksDBSnapshotStrategy
 		@Nonnull UUID backendUID,
 		@Nonnull SortedMap<Long, Set<StateHandleID>> materializedSstFiles,
 		long lastCompletedCheckpointId,
-		int numberOfTransferingThreads) {
+		int numberOfTransferingThreads,
+		@Nullable RocksDBStateTransferService transferService) {
 
 		super(
 			DESCRIPTION,
@@ -138,7 +140,7 @@ public class RocksIncrementalSnapshotStrategy<K> extends RocksDBSnapshotStrategy
 		this.backendUID = backendUID;
 		this.materializedSstFiles = materializedSstFiles;
 		this.lastCompletedCheckpointId = lastCompletedCheckpointId;
-		this.stateUploader = new RocksDBStateUploader(numberOfTransferingThreads);
+		this.stateUploader = new RocksDBStateUploader(numberOfTransferingThreads, transferService);
 		this.localDirectoryName = backendUID.toString().replaceAll("[\\-]", "");
 	}
 
@@ -423,7 +425,8 @@ public class RocksIncrementalSnapshotStrategy<K> extends RocksDBSnapshotStrategy
 				sstFiles.putAll(stateUploader.uploadFilesToCheckpointFs(
 					sstFilePaths,
 					checkpointStreamFactory,
-					snapshotCloseableRegistry));
+					snapshotCloseableRegistry,
+					true));
 				miscFiles.putAll(stateUploader.uploadFilesToCheckpointFs(
 					miscFilePaths,
 					checkpointStreamFactory,
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.contrib.streaming.state;
+
+import org.apache.flink.runtime.state.InternalPriorityQueue;
+import org.apache.flink.runtime.state.TimestampPrefixedSerializer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test of {@link RocksDBCachingPriorityQueueSet} with a hot-tier horizon, which bounds the cache by the
+ * timestamp prefix of the elements in addition to its size.
+ */
+public class KeyGroupPartitionedPriorityQueueWithRocksDBHotTierTest
+	extends KeyGroupPartitionedPriorityQueueWithRocksDBStoreTest {
+
+	private static final long HOT_TIER_HORIZON = 10L;
+
+	@Override
+	protected TestElementSerializer getElementSerializer() {
+		return TimestampPrefixedTestElementSerializer.INSTANCE;
+	}
+
+	@Override
+	protected long getHotTierHorizon() {
+		return HOT_TIER_HORIZON;
+	}
+
+	@Test
+	public void testPollsElementsBeyondHorizonInOrder() {
+		InternalPriorityQueue<TestElement> priorityQueue = newPriorityQueue(1);
+
+		// all elements share one key and therefore one key-group, spread over several horizons
+		final int numElements = 100;
+		for (int i = numElements - 1; i >= 0; --i) {
+			priorityQueue.add(new TestElement(0L, i * 3L));
+		}
+		priorityQueue.add(new TestElement(0L, Long.MAX_VALUE));
+
+		for (int i = 0; i < numElements; ++i) {
+			TestElement element = priorityQueue.poll();
+			Assert.assertNotNull(element);
+			Assert.assertEquals(i * 3L, element.getPriority());
+
+			// elements that are added behind the bound of the cache must still be found
+			if (i == numElements / 2) {
+				priorityQueue.add(new TestElement(0L, i * 3L + 1L));
+				Assert.assertEquals(i * 3L + 1L, priorityQueue.poll().getPriority());
+			}
+		}
+
+		Assert.assertEquals(Long.MAX_VALUE, priorityQueue.poll().getPriority());
+		Assert.assertNull(priorityQueue.poll());
+	}
+
+	/**
+	 * Serializer of test elements that declares the timestamp prefix of its serialized form.
+	 */
+	private static final class TimestampPrefixedTestElementSerializer
+		extends TestElementSerializer implements TimestampPrefixedSerializer {
+
+		static final TimestampPrefixedTestElementSerializer INSTANCE = new TimestampPrefixedTestElementSerializer();
+	}
+}
@@ -61,11 +61,20 @@ public class KeyGroupPartitionedPriorityQueueWithRocksDBStoreTest extends Intern
 				keyGroupPrefixBytes,
 				rocksDBResource.getRocksDB(),
 				rocksDBResource.getDefaultColumnFamily(),
-				TestElementSerializer.INSTANCE,
+				getElementSerializer(),
 				outputStreamWithPos,
 				inputStreamWithPos,
 				rocksDBResource.getBatchWrapper(),
-				orderedSetCache);
+				orderedSetCache,
+				getHotTierHorizon());
 		};
 	}
+
+	protected TestElementSerializer getElementSerializer() {
+		return TestElementSerializer.INSTANCE;
+	}
+
+	protected long getHotTierHorizon() {
+		return 0L;
+	}
 }
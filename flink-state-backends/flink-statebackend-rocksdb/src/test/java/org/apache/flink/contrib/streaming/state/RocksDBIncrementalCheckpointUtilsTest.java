@@ -50,22 +50,31 @@ public class RocksDBIncrementalCheckpointUtilsTest extends TestLogger {
 
 	@Test
 	public void testClipDBWithKeyGroupRange() throws Exception {
+		testClipDBWithKeyGroupRange(false);
+	}
+
+	@Test
+	public void testClipDBWithKeyGroupRangeUsingDeleteRange() throws Exception {
+		testClipDBWithKeyGroupRange(true);
+	}
+
+	private void testClipDBWithKeyGroupRange(boolean useDeleteRange) throws Exception {
 
-		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(0, 1), new KeyGroupRange(0, 2), 1);
+		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(0, 1), new KeyGroupRange(0, 2), 1, useDeleteRange);
 
-		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(0, 1), new KeyGroupRange(0, 1), 1);
+		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(0, 1), new KeyGroupRange(0, 1), 1, useDeleteRange);
 
-		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(0, 1), new KeyGroupRange(1, 2), 1);
+		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(0, 1), new KeyGroupRange(1, 2), 1, useDeleteRange);
 
-		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(0, 1), new KeyGroupRange(2, 4), 1);
+		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(0, 1), new KeyGroupRange(2, 4), 1, useDeleteRange);
 
-		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(Byte.MAX_VALUE - 15, Byte.MAX_VALUE), new KeyGroupRange(Byte.MAX_VALUE - 10, Byte.MAX_VALUE), 1);
+		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(Byte.MAX_VALUE - 15, Byte.MAX_VALUE), new KeyGroupRange(Byte.MAX_VALUE - 10, Byte.MAX_VALUE), 1, useDeleteRange);
 
-		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(Short.MAX_VALUE - 15, Short.MAX_VALUE), new KeyGroupRange(Short.MAX_VALUE - 10, Short.MAX_VALUE), 2);
+		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(Short.MAX_VALUE - 15, Short.MAX_VALUE), new KeyGroupRange(Short.MAX_VALUE - 10, Short.MAX_VALUE), 2, useDeleteRange);
 
-		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(Byte.MAX_VALUE - 15, Byte.MAX_VALUE - 1), new KeyGroupRange(Byte.MAX_VALUE - 10, Byte.MAX_VALUE), 1);
+		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(Byte.MAX_VALUE - 15, Byte.MAX_VALUE - 1), new KeyGroupRange(Byte.MAX_VALUE - 10, Byte.MAX_VALUE), 1, useDeleteRange);
 
-		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(Short.MAX_VALUE - 15, Short.MAX_VALUE - 1), new KeyGroupRange(Short.MAX_VALUE - 10, Short.MAX_VALUE), 2);
+		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(Short.MAX_VALUE - 15, Short.MAX_VALUE - 1), new KeyGroupRange(Short.MAX_VALUE - 10, Short.MAX_VALUE), 2, useDeleteRange);
 	}
 
 	@Test
@@ -102,7 +111,8 @@ public class RocksDBIncrementalCheckpointUtilsTest extends TestLogger {
 	private void testClipDBWithKeyGroupRangeHelper(
 		KeyGroupRange targetGroupRange,
 		KeyGroupRange currentGroupRange,
-		int keyGroupPrefixBytes) throws RocksDBException, IOException {
+		int keyGroupPrefixBytes,
+		boolean useDeleteRange) throws RocksDBException, IOException {
 
 		try (
 			RocksDB rocksDB = RocksDB.open(tmp.newFolder().getAbsolutePath());
@@ -146,7 +156,8 @@ public class RocksDBIncrementalCheckpointUtilsTest extends TestLogger {
 				targetGroupRange,
 				currentGroupRange,
 				keyGroupPrefixBytes,
-				RocksDBConfigurableOptions.WRITE_BATCH_SIZE.defaultValue().getBytes());
+				RocksDBConfigurableOptions.WRITE_BATCH_SIZE.defaultValue().getBytes(),
+				useDeleteRange);
 
 			for (int i = currentGroupRangeStart; i <= currentGroupRangeEnd; ++i) {
 				for (int j = 0; j < 100; ++j) {
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.contrib.streaming.state;
+
+import org.apache.flink.runtime.state.StreamStateHandle;
+import org.apache.flink.runtime.state.memory.ByteStreamStateHandle;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link RocksDBLocalStateFileCache}.
+ */
+public class RocksDBLocalStateFileCacheTest extends TestLogger {
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testAddAndRestore() throws Exception {
+		RocksDBLocalStateFileCache cache =
+			new RocksDBLocalStateFileCache(temporaryFolder.newFolder().toPath(), 1024L);
+
+		byte[] content = {1, 2, 3, 4};
+		StreamStateHandle handle = new ByteStreamStateHandle("state", content);
+		Path localFile = writeFile(content);
+
+		Path target = temporaryFolder.newFolder().toPath().resolve("restored");
+		assertFalse(cache.restore(handle, target));
+
+		cache.add(handle, localFile);
+		Files.delete(localFile);
+
+		assertTrue(cache.restore(handle, target));
+		assertArrayEquals(content, Files.readAllBytes(target));
+
+		// a handle with the same name but another size is a different file
+		assertFalse(cache.restore(new ByteStreamStateHandle("state", new byte[8]), target.resolveSibling("other")));
+	}
+
+	@Test
+	public void testEvictsLeastRecentlyUsedFiles() throws Exception {
+		RocksDBLocalStateFileCache cache =
+			new RocksDBLocalStateFileCache(temporaryFolder.newFolder().toPath(), 10L);
+
+		byte[] content = {1, 2, 3, 4};
+		StreamStateHandle first = new ByteStreamStateHandle("first", content);
+		StreamStateHandle second = new ByteStreamStateHandle("second", content);
+		StreamStateHandle third = new ByteStreamStateHandle("third", content);
+
+		cache.add(first, writeFile(content));
+		cache.add(second, writeFile(content));
+
+		// make the first file the least recently used one
+		Path restoreDirectory = temporaryFolder.newFolder().toPath();
+		assertTrue(cache.restore(first, restoreDirectory.resolve("first")));
+		Files.setLastModifiedTime(restoreDirectory.resolve("first"), FileTime.fromMillis(0L));
+
+		cache.add(third, writeFile(content));
+
+		assertEquals(8L, cache.getCachedBytes());
+		assertFalse(cache.restore(first, restoreDirectory.resolve("first-again")));
+		assertTrue(cache.restore(second, restoreDirectory.resolve("second")));
+		assertTrue(cache.restore(third, restoreDirectory.resolve("third")));
+	}
+
+	private Path writeFile(byte[] content) throws Exception {
+		Path file = temporaryFolder.newFile().toPath();
+		Files.write(file, content);
+		return file;
+	}
+}
@@ -36,6 +36,7 @@ import org.apache.flink.runtime.query.KvStateRegistry;
 import org.apache.flink.runtime.state.AbstractKeyedStateBackend;
 import org.apache.flink.runtime.state.KeyGroupRange;
 import org.apache.flink.runtime.state.StateBackend;
+import org.apache.flink.runtime.state.StateBackendLoader;
 import org.apache.flink.runtime.state.filesystem.FsStateBackend;
 import org.apache.flink.runtime.state.heap.HeapPriorityQueueSetFactory;
 import org.apache.flink.runtime.state.memory.MemoryStateBackend;
@@ -685,6 +686,43 @@ public class RocksDBStateBackendConfigTest {
 		assertTrue(memSettings.isUsingManagedMemory());
 	}
 
+	@Test
+	public void testUseManagedMemory() throws Exception {
+		final String checkpointPath = tempFolder.newFolder().toURI().toString();
+		final RocksDBStateBackend backend = new RocksDBStateBackend(checkpointPath);
+		assertTrue(backend.useManagedMemory());
+
+		backend.getMemoryConfiguration().setUseManagedMemory(false);
+		assertFalse(backend.useManagedMemory());
+
+		final RocksDBStateBackend fixedMemoryBackend = new RocksDBStateBackend(checkpointPath);
+		fixedMemoryBackend.getMemoryConfiguration().setFixedMemoryPerSlot("128MB");
+		assertFalse(fixedMemoryBackend.useManagedMemory());
+
+		final Configuration config = new Configuration();
+		config.setBoolean(RocksDBOptions.USE_MANAGED_MEMORY, false);
+		assertFalse(new RocksDBStateBackend(checkpointPath)
+			.configure(config, getClass().getClassLoader())
+			.useManagedMemory());
+
+		assertFalse(new MemoryStateBackend().useManagedMemory());
+	}
+
+	@Test
+	public void testUseManagedMemoryOfBackendFromClusterConfig() throws Exception {
+		final Configuration config = new Configuration();
+		config.setString(CheckpointingOptions.STATE_BACKEND, "rocksdb");
+		config.setString(CheckpointingOptions.CHECKPOINTS_DIRECTORY, tempFolder.newFolder().toURI().toString());
+
+		StateBackend backend = StateBackendLoader.loadStateBackendFromConfig(config, getClass().getClassLoader(), null);
+		assertThat(backend, instanceOf(RocksDBStateBackend.class));
+		assertTrue(backend.useManagedMemory());
+
+		config.setString(RocksDBOptions.FIX_PER_SLOT_MEMORY_SIZE.key(), "128MB");
+		backend = StateBackendLoader.loadStateBackendFromConfig(config, getClass().getClassLoader(), null);
+		assertFalse(backend.useManagedMemory());
+	}
+
 	@Test
 	public void testConfigureIllegalMemoryControlParameters() {
 		RocksDBMemoryConfiguration memSettings = new RocksDBMemoryConfiguration();
@@ -100,14 +100,20 @@ public class RocksDBStateBackendTest extends StateBackendTestBase<RocksDBStateBa
 	private ValueState<Integer> testState1;
 	private ValueState<String> testState2;
 
-	@Parameterized.Parameters(name = "Incremental checkpointing: {0}")
-	public static Collection<Boolean> parameters() {
-		return Arrays.asList(false, true);
+	@Parameterized.Parameters(name = "Incremental checkpointing: {0}, ingest-db restore mode: {1}")
+	public static Collection<Object[]> parameters() {
+		return Arrays.asList(
+			new Object[]{false, false},
+			new Object[]{true, false},
+			new Object[]{true, true});
 	}
 
 	@Parameterized.Parameter
 	public boolean enableIncrementalCheckpointing;
 
+	@Parameterized.Parameter(1)
+	public boolean useIngestDbRestoreMode;
+
 	@Rule
 	public final TemporaryFolder tempFolder = new TemporaryFolder();
 
@@ -136,6 +142,7 @@ public class RocksDBStateBackendTest extends StateBackendTestBase<RocksDBStateBa
 		configuration.setString(
 			RocksDBOptions.TIMER_SERVICE_FACTORY,
 			RocksDBStateBackend.PriorityQueueStateType.ROCKSDB.toString());
+		configuration.setBoolean(RocksDBOptions.USE_INGEST_DB_RESTORE_MODE, useIngestDbRestoreMode);
 		backend = backend.configure(configuration, Thread.currentThread().getContextClassLoader());
 		backend.setDbStoragePath(dbPath);
 		return backend;
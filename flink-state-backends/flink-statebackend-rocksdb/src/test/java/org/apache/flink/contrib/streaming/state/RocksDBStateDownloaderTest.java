@@ -143,6 +143,57 @@ public class RocksDBStateDownloaderTest extends TestLogger {
 		}
 	}
 
+	/**
+	 * Tests that shared state files downloaded through the shared transfer service are served from its local
+	 * file cache on the next restore.
+	 */
+	@Test
+	public void testRestoreFromLocalFileCache() throws Exception {
+		RocksDBStateTransferConfiguration configuration = new RocksDBStateTransferConfiguration();
+		configuration.setSharedThreadNum(2);
+		configuration.setLocalCacheDirectory(temporaryFolder.newFolder().getAbsolutePath());
+		RocksDBStateTransferService transferService = new RocksDBStateTransferService(configuration);
+
+		byte[] content = new byte[4096];
+		new Random().nextBytes(content);
+		StreamStateHandle metaStateHandle = new ByteStreamStateHandle("meta", new byte[0]);
+
+		try {
+			Map<StateHandleID, StreamStateHandle> sharedStates = new HashMap<>(1);
+			sharedStates.put(new StateHandleID("sharedState"), new ByteStreamStateHandle("state", content));
+
+			Path firstPath = temporaryFolder.newFolder().toPath();
+			try (RocksDBStateDownloader rocksDBStateDownloader = new RocksDBStateDownloader(1, transferService)) {
+				rocksDBStateDownloader.transferAllStateDataToDirectory(
+					new IncrementalRemoteKeyedStateHandle(
+						UUID.randomUUID(), KeyGroupRange.of(0, 1), 1, sharedStates, new HashMap<>(), metaStateHandle),
+					firstPath,
+					new CloseableRegistry());
+			}
+			assertStateContentEqual(content, firstPath.resolve("sharedState"));
+
+			// the remote file is not readable anymore, so the second restore must be served from the cache
+			sharedStates.put(new StateHandleID("sharedState"), new ByteStreamStateHandle("state", content) {
+				@Override
+				public FSDataInputStream openInputStream() throws IOException {
+					throw new SpecifiedException("The file should have been taken from the cache.");
+				}
+			});
+
+			Path secondPath = temporaryFolder.newFolder().toPath();
+			try (RocksDBStateDownloader rocksDBStateDownloader = new RocksDBStateDownloader(1, transferService)) {
+				rocksDBStateDownloader.transferAllStateDataToDirectory(
+					new IncrementalRemoteKeyedStateHandle(
+						UUID.randomUUID(), KeyGroupRange.of(0, 1), 1, sharedStates, new HashMap<>(), metaStateHandle),
+					secondPath,
+					new CloseableRegistry());
+			}
+			assertStateContentEqual(content, secondPath.resolve("sharedState"));
+		} finally {
+			transferService.shutdown();
+		}
+	}
+
 	private void assertStateContentEqual(byte[] expected, Path path) throws IOException {
 		byte[] actual = Files.readAllBytes(Paths.get(path.toUri()));
 		assertArrayEquals(expected, actual);
@@ -21,9 +21,11 @@ import org.apache.flink.annotation.PublicEvolving;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.api.java.Utils;
 import org.apache.flink.api.java.typeutils.TypeExtractor;
+import org.apache.flink.streaming.api.functions.async.AsyncBatchFunction;
 import org.apache.flink.streaming.api.functions.async.AsyncFunction;
 import org.apache.flink.streaming.api.operators.async.AsyncWaitOperator;
 import org.apache.flink.streaming.api.operators.async.AsyncWaitOperatorFactory;
+import org.apache.flink.util.Preconditions;
 
 import java.util.concurrent.TimeUnit;
 
@@ -57,6 +59,8 @@ public class AsyncDataStream {
 	 * @param timeout for the asynchronous operation to complete
 	 * @param bufSize The max number of inputs the {@link AsyncWaitOperator} can hold inside.
 	 * @param mode Processing mode for {@link AsyncWaitOperator}.
+	 * @param batchSize The max number of inputs per invocation of an {@link AsyncBatchFunction}, 0 to not batch.
+	 * @param batchTimeout The max time a batch waits for further inputs.
 	 * @param <IN> Input type.
 	 * @param <OUT> Output type.
 	 * @return A new {@link SingleOutputStreamOperator}
@@ -66,11 +70,13 @@ public class AsyncDataStream {
 			AsyncFunction<IN, OUT> func,
 			long timeout,
 			int bufSize,
-			OutputMode mode) {
+			OutputMode mode,
+			int batchSize,
+			long batchTimeout) {
 
 		TypeInformation<OUT> outTypeInfo = TypeExtractor.getUnaryOperatorReturnType(
 			func,
-			AsyncFunction.class,
+			func instanceof AsyncBatchFunction ? AsyncBatchFunction.class : AsyncFunction.class,
 			0,
 			1,
 			new int[]{1, 0},
@@ -83,7 +89,9 @@ public class AsyncDataStream {
 			in.getExecutionEnvironment().clean(func),
 			timeout,
 			bufSize,
-			mode);
+			mode,
+			batchSize,
+			batchTimeout);
 
 		return in.transform("async wait operator", outTypeInfo, operatorFactory);
 	}
@@ -106,7 +114,7 @@ public class AsyncDataStream {
 			long timeout,
 			TimeUnit timeUnit,
 			int capacity) {
-		return addOperator(in, func, timeUnit.toMillis(timeout), capacity, OutputMode.UNORDERED);
+		return addOperator(in, func, timeUnit.toMillis(timeout), capacity, OutputMode.UNORDERED, 0, 0L);
 	}
 
 	/**
@@ -129,7 +137,9 @@ public class AsyncDataStream {
 			func,
 			timeUnit.toMillis(timeout),
 			DEFAULT_QUEUE_CAPACITY,
-			OutputMode.UNORDERED);
+			OutputMode.UNORDERED,
+			0,
+			0L);
 	}
 
 	/**
@@ -151,7 +161,7 @@ public class AsyncDataStream {
 			long timeout,
 			TimeUnit timeUnit,
 			int capacity) {
-		return addOperator(in, func, timeUnit.toMillis(timeout), capacity, OutputMode.ORDERED);
+		return addOperator(in, func, timeUnit.toMillis(timeout), capacity, OutputMode.ORDERED, 0, 0L);
 	}
 
 	/**
@@ -176,6 +186,82 @@ public class AsyncDataStream {
 			func,
 			timeUnit.toMillis(timeout),
 			DEFAULT_QUEUE_CAPACITY,
-			OutputMode.ORDERED);
+			OutputMode.ORDERED,
+			0,
+			0L);
+	}
+
+	/**
+	 * Add an AsyncWaitOperator that invokes the {@link AsyncBatchFunction} with batches of inputs. The order of
+	 * output stream records may be reordered.
+	 *
+	 * <p>A batch is invoked once it has reached the batch size or the batch timeout has passed since its first
+	 * input arrived. The results of all completed batches are emitted together.
+	 *
+	 * @param in Input {@link DataStream}
+	 * @param func {@link AsyncBatchFunction}
+	 * @param timeout for the asynchronous operation of a batch to complete
+	 * @param timeUnit of the given timeout and batch timeout
+	 * @param capacity The max number of inputs that can be in flight
+	 * @param batchSize The max number of inputs per batch
+	 * @param batchTimeout The max time a batch waits for further inputs
+	 * @param <IN> Type of input record
+	 * @param <OUT> Type of output record
+	 * @return A new {@link SingleOutputStreamOperator}.
+	 */
+	public static <IN, OUT> SingleOutputStreamOperator<OUT> unorderedWaitBatched(
+			DataStream<IN> in,
+			AsyncBatchFunction<IN, OUT> func,
+			long timeout,
+			TimeUnit timeUnit,
+			int capacity,
+			int batchSize,
+			long batchTimeout) {
+		Preconditions.checkArgument(batchSize > 0, "The batch size must be positive.");
+		return addOperator(
+			in,
+			func,
+			timeUnit.toMillis(timeout),
+			capacity,
+			OutputMode.UNORDERED,
+			batchSize,
+			timeUnit.toMillis(batchTimeout));
+	}
+
+	/**
+	 * Add an AsyncWaitOperator that invokes the {@link AsyncBatchFunction} with batches of inputs. The order to
+	 * process input records is guaranteed to be the same as input ones.
+	 *
+	 * <p>A batch is invoked once it has reached the batch size or the batch timeout has passed since its first
+	 * input arrived. The results of all completed batches are emitted together.
+	 *
+	 * @param in Input {@link DataStream}
+	 * @param func {@link AsyncBatchFunction}
+	 * @param timeout for the asynchronous operation of a batch to complete
+	 * @param timeUnit of the given timeout and batch timeout
+	 * @param capacity The max number of inputs that can be in flight
+	 * @param batchSize The max number of inputs per batch
+	 * @param batchTimeout The max time a batch waits for further inputs
+	 * @param <IN> Type of input record
+	 * @param <OUT> Type of output record
+	 * @return A new {@link SingleOutputStreamOperator}.
+	 */
+	public static <IN, OUT> SingleOutputStreamOperator<OUT> orderedWaitBatched(
+			DataStream<IN> in,
+			AsyncBatchFunction<IN, OUT> func,
+			long timeout,
+			TimeUnit timeUnit,
+			int capacity,
+			int batchSize,
+			long batchTimeout) {
+		Preconditions.checkArgument(batchSize > 0, "The batch size must be positive.");
+		return addOperator(
+			in,
+			func,
+			timeUnit.toMillis(timeout),
+			capacity,
+			OutputMode.ORDERED,
+			batchSize,
+			timeUnit.toMillis(batchTimeout));
 	}
 }
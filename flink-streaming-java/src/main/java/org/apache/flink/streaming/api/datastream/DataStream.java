@@ -95,6 +95,8 @@ import org.apache.flink.streaming.runtime.partitioner.RebalancePartitioner;
 import org.apache.flink.streaming.runtime.partitioner.RescalePartitioner;
 import org.apache.flink.streaming.runtime.partitioner.ShufflePartitioner;
 import org.apache.flink.streaming.runtime.partitioner.StreamPartitioner;
+import org.apache.flink.streaming.util.keys.BinaryKey;
+import org.apache.flink.streaming.util.keys.BinaryKeyTypeInfo;
 import org.apache.flink.streaming.util.keys.KeySelectorUtil;
 import org.apache.flink.util.Preconditions;
 
@@ -345,6 +347,51 @@ public class DataStream<T> {
 				getType(), getExecutionConfig())));
 	}
 
+	/**
+	 * Partitions the operator state of a {@link DataStream} by the given key positions, keeping
+	 * the key in its serialized form. Instead of a {@link Tuple} of the key fields, the key is a
+	 * {@link BinaryKey} that holds the serialized key fields and a murmur hash over them. The hash
+	 * is computed once per record and the keyed state backends store the key by copying its bytes,
+	 * which is cheaper than hashing and serializing a tuple of composite key fields.
+	 *
+	 * <p>The keys of the resulting stream, for example the current key of a
+	 * {@link org.apache.flink.streaming.api.functions.KeyedProcessFunction}, are binary keys. Since
+	 * the keys are assigned to different key groups than tuple keys, state that was written with
+	 * {@link #keyBy(int...)} cannot be restored with this method and vice versa.
+	 *
+	 * <p>The key fields must have a deterministic serialized form, which rules out generic types,
+	 * also if they are nested in POJO or tuple key fields.
+	 *
+	 * @param fields
+	 *            The position of the fields on which the {@link DataStream}
+	 *            will be grouped.
+	 * @return The {@link DataStream} with partitioned state (i.e. KeyedStream)
+	 */
+	@PublicEvolving
+	public KeyedStream<T, BinaryKey> keyByBinary(int... fields) {
+		return keyByBinary(new Keys.ExpressionKeys<>(fields, getType()));
+	}
+
+	/**
+	 * Partitions the operator state of a {@link DataStream} using field expressions, keeping the
+	 * key in its serialized form. See {@link #keyByBinary(int...)} for the properties of the
+	 * binary keys.
+	 *
+	 * @param fields
+	 *            One or more field expressions on which the state of the {@link DataStream} operators will be
+	 *            partitioned.
+	 * @return The {@link DataStream} with partitioned state (i.e. KeyedStream)
+	 */
+	@PublicEvolving
+	public KeyedStream<T, BinaryKey> keyByBinary(String... fields) {
+		return keyByBinary(new Keys.ExpressionKeys<>(fields, getType()));
+	}
+
+	private KeyedStream<T, BinaryKey> keyByBinary(Keys<T> keys) {
+		return new KeyedStream<>(this, clean(KeySelectorUtil.getBinarySelectorForKeys(keys,
+				getType(), getExecutionConfig())), BinaryKeyTypeInfo.INSTANCE);
+	}
+
 	/**
 	 * Partitions a tuple DataStream on the specified key fields using a custom partitioner.
 	 * This method takes the key position to partition on, and a partitioner that accepts the key type.
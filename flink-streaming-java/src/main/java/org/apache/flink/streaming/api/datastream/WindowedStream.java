@@ -28,9 +28,11 @@ import org.apache.flink.api.common.functions.Function;
 import org.apache.flink.api.common.functions.ReduceFunction;
 import org.apache.flink.api.common.functions.RichFunction;
 import org.apache.flink.api.common.state.AggregatingStateDescriptor;
+import org.apache.flink.api.common.state.AppendingState;
 import org.apache.flink.api.common.state.FoldingStateDescriptor;
 import org.apache.flink.api.common.state.ListStateDescriptor;
 import org.apache.flink.api.common.state.ReducingStateDescriptor;
+import org.apache.flink.api.common.state.StateDescriptor;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.api.java.Utils;
@@ -51,12 +53,16 @@ import org.apache.flink.streaming.api.functions.windowing.WindowFunction;
 import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
 import org.apache.flink.streaming.api.windowing.assigners.BaseAlignedWindowAssigner;
 import org.apache.flink.streaming.api.windowing.assigners.MergingWindowAssigner;
+import org.apache.flink.streaming.api.windowing.assigners.SlidingEventTimeWindows;
 import org.apache.flink.streaming.api.windowing.assigners.WindowAssigner;
 import org.apache.flink.streaming.api.windowing.evictors.Evictor;
 import org.apache.flink.streaming.api.windowing.time.Time;
+import org.apache.flink.streaming.api.windowing.triggers.EventTimeTrigger;
 import org.apache.flink.streaming.api.windowing.triggers.Trigger;
+import org.apache.flink.streaming.api.windowing.windows.TimeWindow;
 import org.apache.flink.streaming.api.windowing.windows.Window;
 import org.apache.flink.streaming.runtime.operators.windowing.EvictingWindowOperator;
+import org.apache.flink.streaming.runtime.operators.windowing.SlicingWindowOperator;
 import org.apache.flink.streaming.runtime.operators.windowing.WindowOperator;
 import org.apache.flink.streaming.runtime.operators.windowing.functions.InternalAggregateProcessWindowFunction;
 import org.apache.flink.streaming.runtime.operators.windowing.functions.InternalIterableProcessWindowFunction;
@@ -122,6 +128,9 @@ public class WindowedStream<T, K, W extends Window> {
  	 */
 	private OutputTag<T> lateDataOutputTag;
 
+	/** Whether incremental aggregations of the windows are computed on slices of the windows. */
+	private boolean slicing = false;
+
 	@PublicEvolving
 	public WindowedStream(KeyedStream<T, K> input,
 			WindowAssigner<? super T, W> windowAssigner) {
@@ -191,10 +200,46 @@ public class WindowedStream<T, K, W extends Window> {
 		if (windowAssigner instanceof BaseAlignedWindowAssigner) {
 			throw new UnsupportedOperationException("Cannot use a " + windowAssigner.getClass().getSimpleName() + " with an Evictor.");
 		}
+		if (slicing) {
+			throw new UnsupportedOperationException("Cannot use an Evictor with window slicing.");
+		}
 		this.evictor = evictor;
 		return this;
 	}
 
+	/**
+	 * Enables the slicing of the windows for incremental aggregations, i.e. for {@code reduce()} and
+	 * {@code aggregate()}. Elements are aggregated per slice, where a slice is the greatest common
+	 * divisor of window size and slide, and the slices are merged when a window fires. With slicing,
+	 * every element updates a single accumulator and every key has at most one pending window timer,
+	 * instead of one of each for every window that the element is assigned to.
+	 *
+	 * <p>Slicing is only supported for {@link SlidingEventTimeWindows} that are larger than their
+	 * slide, with the default trigger and without an evictor. A {@code WindowFunction} or
+	 * {@code ProcessWindowFunction} can only be used together with a {@code ReduceFunction} or
+	 * {@code AggregateFunction}, and fold is not supported. Windows with slicing keep their state
+	 * in a different layout, so a job cannot switch between slicing and non-slicing windows when it
+	 * is restored from a savepoint.
+	 */
+	@PublicEvolving
+	public WindowedStream<T, K, W> enableSlicing() {
+		if (!(windowAssigner instanceof SlidingEventTimeWindows)) {
+			throw new UnsupportedOperationException("Window slicing is only supported for SlidingEventTimeWindows, but got " +
+				windowAssigner.getClass().getSimpleName() + ".");
+		}
+
+		final SlidingEventTimeWindows slidingWindows = (SlidingEventTimeWindows) windowAssigner;
+		if (slidingWindows.getSize() <= slidingWindows.getSlide()) {
+			throw new UnsupportedOperationException("Window slicing is only supported for windows that are larger than their slide.");
+		}
+		if (evictor != null) {
+			throw new UnsupportedOperationException("Cannot use window slicing with an Evictor.");
+		}
+
+		this.slicing = true;
+		return this;
+	}
+
 
 	// ------------------------------------------------------------------------
 	//  Operations on the keyed windows
@@ -298,20 +343,11 @@ public class WindowedStream<T, K, W extends Window> {
 					lateDataOutputTag);
 
 		} else {
-			ReducingStateDescriptor<T> stateDesc = new ReducingStateDescriptor<>("window-contents",
+			ReducingStateDescriptor<T> stateDesc = new ReducingStateDescriptor<>(getIncrementalWindowStateName(),
 				reduceFunction,
 				input.getType().createSerializer(getExecutionEnvironment().getConfig()));
 
-			operator =
-				new WindowOperator<>(windowAssigner,
-					windowAssigner.getWindowSerializer(getExecutionEnvironment().getConfig()),
-					keySel,
-					input.getKeyType().createSerializer(getExecutionEnvironment().getConfig()),
-					stateDesc,
-					new InternalSingleValueWindowFunction<>(function),
-					trigger,
-					allowedLateness,
-					lateDataOutputTag);
+			operator = createIncrementalWindowOperator(keySel, stateDesc, new InternalSingleValueWindowFunction<>(function));
 		}
 
 		return input.transform(opName, resultType, operator);
@@ -384,20 +420,11 @@ public class WindowedStream<T, K, W extends Window> {
 							lateDataOutputTag);
 
 		} else {
-			ReducingStateDescriptor<T> stateDesc = new ReducingStateDescriptor<>("window-contents",
+			ReducingStateDescriptor<T> stateDesc = new ReducingStateDescriptor<>(getIncrementalWindowStateName(),
 					reduceFunction,
 					input.getType().createSerializer(getExecutionEnvironment().getConfig()));
 
-			operator =
-					new WindowOperator<>(windowAssigner,
-							windowAssigner.getWindowSerializer(getExecutionEnvironment().getConfig()),
-							keySel,
-							input.getKeyType().createSerializer(getExecutionEnvironment().getConfig()),
-							stateDesc,
-							new InternalSingleValueProcessWindowFunction<>(function),
-							trigger,
-							allowedLateness,
-							lateDataOutputTag);
+			operator = createIncrementalWindowOperator(keySel, stateDesc, new InternalSingleValueProcessWindowFunction<>(function));
 		}
 
 		return input.transform(opName, resultType, operator);
@@ -505,6 +532,9 @@ public class WindowedStream<T, K, W extends Window> {
 		if (windowAssigner instanceof MergingWindowAssigner) {
 			throw new UnsupportedOperationException("Fold cannot be used with a merging WindowAssigner.");
 		}
+		if (slicing) {
+			throw new UnsupportedOperationException("Fold cannot be used with window slicing.");
+		}
 
 		if (windowAssigner instanceof BaseAlignedWindowAssigner) {
 			throw new UnsupportedOperationException("Fold cannot be used with a " +
@@ -617,6 +647,9 @@ public class WindowedStream<T, K, W extends Window> {
 		if (windowAssigner instanceof MergingWindowAssigner) {
 			throw new UnsupportedOperationException("Fold cannot be used with a merging WindowAssigner.");
 		}
+		if (slicing) {
+			throw new UnsupportedOperationException("Fold cannot be used with window slicing.");
+		}
 
 		//clean the closures
 		windowFunction = input.getExecutionEnvironment().clean(windowFunction);
@@ -833,18 +866,10 @@ public class WindowedStream<T, K, W extends Window> {
 					lateDataOutputTag);
 
 		} else {
-			AggregatingStateDescriptor<T, ACC, V> stateDesc = new AggregatingStateDescriptor<>("window-contents",
+			AggregatingStateDescriptor<T, ACC, V> stateDesc = new AggregatingStateDescriptor<>(getIncrementalWindowStateName(),
 					aggregateFunction, accumulatorType.createSerializer(getExecutionEnvironment().getConfig()));
 
-			operator = new WindowOperator<>(windowAssigner,
-					windowAssigner.getWindowSerializer(getExecutionEnvironment().getConfig()),
-					keySel,
-					input.getKeyType().createSerializer(getExecutionEnvironment().getConfig()),
-					stateDesc,
-					new InternalSingleValueWindowFunction<>(windowFunction),
-					trigger,
-					allowedLateness,
-					lateDataOutputTag);
+			operator = createIncrementalWindowOperator(keySel, stateDesc, new InternalSingleValueWindowFunction<>(windowFunction));
 		}
 
 		return input.transform(opName, resultType, operator);
@@ -983,18 +1008,10 @@ public class WindowedStream<T, K, W extends Window> {
 					lateDataOutputTag);
 
 		} else {
-			AggregatingStateDescriptor<T, ACC, V> stateDesc = new AggregatingStateDescriptor<>("window-contents",
+			AggregatingStateDescriptor<T, ACC, V> stateDesc = new AggregatingStateDescriptor<>(getIncrementalWindowStateName(),
 					aggregateFunction, accumulatorType.createSerializer(getExecutionEnvironment().getConfig()));
 
-			operator = new WindowOperator<>(windowAssigner,
-					windowAssigner.getWindowSerializer(getExecutionEnvironment().getConfig()),
-					keySel,
-					input.getKeyType().createSerializer(getExecutionEnvironment().getConfig()),
-					stateDesc,
-					new InternalSingleValueProcessWindowFunction<>(windowFunction),
-					trigger,
-					allowedLateness,
-					lateDataOutputTag);
+			operator = createIncrementalWindowOperator(keySel, stateDesc, new InternalSingleValueProcessWindowFunction<>(windowFunction));
 		}
 
 		return input.transform(opName, resultType, operator);
@@ -1075,6 +1092,10 @@ public class WindowedStream<T, K, W extends Window> {
 	}
 
 	private <R> SingleOutputStreamOperator<R> apply(InternalWindowFunction<Iterable<T>, R, K, W> function, TypeInformation<R> resultType, Function originalFunction) {
+		if (slicing) {
+			throw new UnsupportedOperationException("Cannot use window slicing with a window function that is applied to all "
+				+ "elements of a window. Use reduce() or aggregate() instead.");
+		}
 
 		final String opName = generateOperatorName(windowAssigner, trigger, evictor, originalFunction, null);
 		KeySelector<T, K> keySel = input.getKeySelector();
@@ -1191,20 +1212,11 @@ public class WindowedStream<T, K, W extends Window> {
 					lateDataOutputTag);
 
 		} else {
-			ReducingStateDescriptor<T> stateDesc = new ReducingStateDescriptor<>("window-contents",
+			ReducingStateDescriptor<T> stateDesc = new ReducingStateDescriptor<>(getIncrementalWindowStateName(),
 				reduceFunction,
 				input.getType().createSerializer(getExecutionEnvironment().getConfig()));
 
-			operator =
-				new WindowOperator<>(windowAssigner,
-					windowAssigner.getWindowSerializer(getExecutionEnvironment().getConfig()),
-					keySel,
-					input.getKeyType().createSerializer(getExecutionEnvironment().getConfig()),
-					stateDesc,
-					new InternalSingleValueWindowFunction<>(function),
-					trigger,
-					allowedLateness,
-					lateDataOutputTag);
+			operator = createIncrementalWindowOperator(keySel, stateDesc, new InternalSingleValueWindowFunction<>(function));
 		}
 
 		return input.transform(opName, resultType, operator);
@@ -1256,6 +1268,9 @@ public class WindowedStream<T, K, W extends Window> {
 		if (windowAssigner instanceof MergingWindowAssigner) {
 			throw new UnsupportedOperationException("Fold cannot be used with a merging WindowAssigner.");
 		}
+		if (slicing) {
+			throw new UnsupportedOperationException("Fold cannot be used with window slicing.");
+		}
 
 		//clean the closures
 		function = input.getExecutionEnvironment().clean(function);
@@ -1303,6 +1318,51 @@ public class WindowedStream<T, K, W extends Window> {
 		return input.transform(opName, resultType, operator);
 	}
 
+	/**
+	 * Returns the name of the state for incremental aggregations of the windows. Windows with slicing use a
+	 * different name, because their state has a different layout.
+	 */
+	private String getIncrementalWindowStateName() {
+		return slicing ? "window-slices" : "window-contents";
+	}
+
+	/**
+	 * Creates the operator for an incremental aggregation of the windows with the given state, which is a
+	 * {@link SlicingWindowOperator} if slicing is enabled.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private <ACC, R> OneInputStreamOperator<T, R> createIncrementalWindowOperator(
+			KeySelector<T, K> keySel,
+			StateDescriptor<? extends AppendingState<T, ACC>, ?> stateDesc,
+			InternalWindowFunction<ACC, R, K, W> windowFunction) {
+
+		if (slicing) {
+			if (!(trigger instanceof EventTimeTrigger)) {
+				throw new UnsupportedOperationException("Cannot use window slicing with a custom trigger.");
+			}
+
+			return new SlicingWindowOperator<>(
+				(SlidingEventTimeWindows) windowAssigner,
+				new TimeWindow.Serializer(),
+				keySel,
+				input.getKeyType().createSerializer(getExecutionEnvironment().getConfig()),
+				stateDesc,
+				(InternalWindowFunction) windowFunction,
+				allowedLateness,
+				lateDataOutputTag);
+		}
+
+		return new WindowOperator<>(windowAssigner,
+			windowAssigner.getWindowSerializer(getExecutionEnvironment().getConfig()),
+			keySel,
+			input.getKeyType().createSerializer(getExecutionEnvironment().getConfig()),
+			stateDesc,
+			windowFunction,
+			trigger,
+			allowedLateness,
+			lateDataOutputTag);
+	}
+
 	private static String generateFunctionName(Function function) {
 		Class<? extends Function> functionClass = function.getClass();
 		if (functionClass.isAnonymousClass()) {
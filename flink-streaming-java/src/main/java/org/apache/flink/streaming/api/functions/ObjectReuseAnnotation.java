@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.functions;
+
+import org.apache.flink.annotation.PublicEvolving;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This class defines the annotations with which functions declare how they handle the objects of
+ * their input and output records, so that records can be passed between chained operators without
+ * copying them, even if object reuse is disabled in the
+ * {@link org.apache.flink.api.common.ExecutionConfig}.
+ *
+ * <p>Without object reuse, a record that is passed to a chained operator is deep-copied with its
+ * serializer first, because the functions of both operators may otherwise interfere through the
+ * shared object. The copy is elided for a chained edge if the edge is the only output of the
+ * upstream operator, and either the downstream function is annotated with {@link ReadOnlyInput} or
+ * the upstream function is annotated with {@link ExclusiveOutput}.
+ *
+ * <p>The annotations are only considered for functions of map, flatMap, filter, process and sink
+ * operators, and for source functions. Other operators, for example windows or asynchronous I/O,
+ * hold on to their records and are always passed copies.
+ *
+ * <p><b>NOTE: The use of the annotations is optional. If used incorrectly, the functions can
+ * observe objects that are modified concurrently by other functions, which leads to wrong results!
+ * </b>
+ */
+@PublicEvolving
+public class ObjectReuseAnnotation {
+
+	/**
+	 * The ReadOnlyInput annotation declares that a function does not modify its input records and
+	 * does not hold any reference to them, or to objects reachable from them, after it returned.
+	 * The function may emit the input records, or objects reachable from them, unmodified.
+	 *
+	 * <p>For example, a filter function that only reads the fields of a record, or a map function
+	 * that creates a new output object from some fields of the input, can be annotated.
+	 */
+	@Documented
+	@Target(ElementType.TYPE)
+	@Retention(RetentionPolicy.RUNTIME)
+	public @interface ReadOnlyInput {
+	}
+
+	/**
+	 * The ExclusiveOutput annotation declares that a function emits only newly created objects,
+	 * which it neither modifies nor references after emitting them. Objects of its input records
+	 * must not be emitted.
+	 *
+	 * <p>For example, a map function that returns a new object for every input, or a source
+	 * function that creates a new record for every read event, can be annotated.
+	 */
+	@Documented
+	@Target(ElementType.TYPE)
+	@Retention(RetentionPolicy.RUNTIME)
+	public @interface ExclusiveOutput {
+	}
+
+	/**
+	 * Private constructor to prevent instantiation. This class is intended only as a container.
+	 */
+	private ObjectReuseAnnotation() {}
+}
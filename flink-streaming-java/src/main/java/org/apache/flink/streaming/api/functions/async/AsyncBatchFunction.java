@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.functions.async;
+
+import org.apache.flink.annotation.PublicEvolving;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * An {@link AsyncFunction} that triggers one async I/O operation for a batch of stream inputs, for
+ * example a single multi-get request to an external store for many records.
+ *
+ * <p>The batches are formed by the operator created through
+ * {@link org.apache.flink.streaming.api.datastream.AsyncDataStream#orderedWaitBatched} or
+ * {@link org.apache.flink.streaming.api.datastream.AsyncDataStream#unorderedWaitBatched}. A batch
+ * is triggered once it reached the maximum batch size, once the batch timeout has passed since its
+ * first input arrived, and whenever the operator needs the results of all buffered inputs, e.g., on
+ * watermarks. If the function is used in a non-batched operator, each input is triggered as a
+ * batch of one.
+ *
+ * <p>Example usage:
+ *
+ * <pre>{@code
+ * public class HBaseAsyncBatchFunc implements AsyncBatchFunction<String, String> {
+ *
+ *   public void asyncInvokeBatch(List<String> rows, BatchResultFuture<String> result) throws Exception {
+ *     CompletableFuture<List<Collection<String>>> future = hbase.asyncMultiGet(rows);
+ *     future.whenComplete((values, error) -> {
+ *       if (error == null) {
+ *         result.complete(values);
+ *       } else {
+ *         result.completeExceptionally(error);
+ *       }
+ *     });
+ *   }
+ * }
+ * }</pre>
+ *
+ * @param <IN> The type of the input elements.
+ * @param <OUT> The type of the returned elements.
+ */
+@PublicEvolving
+public interface AsyncBatchFunction<IN, OUT> extends AsyncFunction<IN, OUT> {
+
+	/**
+	 * Trigger async operation for a batch of stream inputs.
+	 *
+	 * @param inputs elements coming from an upstream task, in the order of their arrival
+	 * @param resultFuture to be completed with the result data of each input
+	 * @exception Exception in case of a user code error. An exception will make the task fail and
+	 * trigger fail-over process.
+	 */
+	void asyncInvokeBatch(List<IN> inputs, BatchResultFuture<OUT> resultFuture) throws Exception;
+
+	/**
+	 * {@link AsyncBatchFunction#asyncInvokeBatch} timeout occurred.
+	 * By default, the result future is exceptionally completed with a timeout exception.
+	 *
+	 * @param inputs elements coming from an upstream task
+	 * @param resultFuture to be completed with the result data of each input
+	 */
+	default void timeoutBatch(List<IN> inputs, BatchResultFuture<OUT> resultFuture) throws Exception {
+		resultFuture.completeExceptionally(
+			new TimeoutException("Async function call has timed out."));
+	}
+
+	@Override
+	default void asyncInvoke(IN input, ResultFuture<OUT> resultFuture) throws Exception {
+		asyncInvokeBatch(Collections.singletonList(input), new BatchResultFuture<OUT>() {
+			@Override
+			public void complete(List<? extends Collection<OUT>> results) {
+				resultFuture.complete(results.get(0));
+			}
+
+			@Override
+			public void completeExceptionally(Throwable error) {
+				resultFuture.completeExceptionally(error);
+			}
+		});
+	}
+}
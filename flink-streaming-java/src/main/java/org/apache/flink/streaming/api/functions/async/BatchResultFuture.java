@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.functions.async;
+
+import org.apache.flink.annotation.PublicEvolving;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link BatchResultFuture} collects data / error in user codes while processing a batch of inputs
+ * with a single async i/o operation.
+ *
+ * @param <OUT> Output type
+ */
+@PublicEvolving
+public interface BatchResultFuture<OUT> {
+	/**
+	 * Completes the result future with one collection of result objects per input of the batch.
+	 *
+	 * <p>Note that it should be called for exactly one time in the user code.
+	 * Calling this function for multiple times will cause data lose.
+	 *
+	 * @param results The results of each input, in the order of the inputs of the batch.
+	 */
+	void complete(List<? extends Collection<OUT>> results);
+
+	/**
+	 * Completes the result future of all inputs of the batch exceptionally with an exception.
+	 *
+	 * @param error A Throwable object.
+	 */
+	void completeExceptionally(Throwable error);
+}
@@ -85,6 +85,7 @@ public class StreamConfig implements Serializable {
 	private static final String OPERATOR_NAME = "operatorName";
 	private static final String OPERATOR_ID = "operatorID";
 	private static final String CHAIN_END = "chainEnd";
+	private static final String CHAINED_INPUT_COPY_ELIDED = "chainedInputCopyElided";
 
 	private static final String CHECKPOINTING_ENABLED = "checkpointing";
 	private static final String CHECKPOINT_MODE = "checkpointMode";
@@ -559,6 +560,18 @@ public class StreamConfig implements Serializable {
 		return config.getBoolean(CHAIN_END, false);
 	}
 
+	/**
+	 * Sets whether the records that a chained operator receives from its predecessor in the chain
+	 * need not be copied, even if object reuse is disabled.
+	 */
+	public void setChainedInputCopyElided(boolean copyElided) {
+		config.setBoolean(CHAINED_INPUT_COPY_ELIDED, copyElided);
+	}
+
+	public boolean isChainedInputCopyElided() {
+		return config.getBoolean(CHAINED_INPUT_COPY_ELIDED, false);
+	}
+
 	@Override
 	public String toString() {
 
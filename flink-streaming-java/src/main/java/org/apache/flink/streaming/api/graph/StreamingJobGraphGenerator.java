@@ -21,6 +21,7 @@ import org.apache.flink.annotation.Internal;
 import org.apache.flink.api.common.JobID;
 import org.apache.flink.api.common.functions.Function;
 import org.apache.flink.api.common.operators.ResourceSpec;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.api.java.tuple.Tuple2;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.configuration.IllegalConfigurationException;
@@ -48,9 +49,22 @@ import org.apache.flink.runtime.state.StateBackend;
 import org.apache.flink.streaming.api.CheckpointingMode;
 import org.apache.flink.streaming.api.checkpoint.WithMasterCheckpointHook;
 import org.apache.flink.streaming.api.environment.CheckpointConfig;
+import org.apache.flink.streaming.api.functions.ObjectReuseAnnotation;
+import org.apache.flink.streaming.api.functions.ObjectReuseAnnotation.ExclusiveOutput;
+import org.apache.flink.streaming.api.functions.ObjectReuseAnnotation.ReadOnlyInput;
+import org.apache.flink.streaming.api.operators.AbstractUdfStreamOperator;
 import org.apache.flink.streaming.api.operators.ChainingStrategy;
 import org.apache.flink.streaming.api.operators.InputSelectable;
+import org.apache.flink.streaming.api.operators.KeyedProcessOperator;
+import org.apache.flink.streaming.api.operators.ProcessOperator;
+import org.apache.flink.streaming.api.operators.SimpleOperatorFactory;
+import org.apache.flink.streaming.api.operators.StreamFilter;
+import org.apache.flink.streaming.api.operators.StreamFlatMap;
+import org.apache.flink.streaming.api.operators.StreamMap;
+import org.apache.flink.streaming.api.operators.StreamOperator;
 import org.apache.flink.streaming.api.operators.StreamOperatorFactory;
+import org.apache.flink.streaming.api.operators.StreamSink;
+import org.apache.flink.streaming.api.operators.StreamSource;
 import org.apache.flink.streaming.api.operators.UdfStreamOperatorFactory;
 import org.apache.flink.streaming.api.transformations.ShuffleMode;
 import org.apache.flink.streaming.controlplane.rescale.StreamJobGraphRescaler;
@@ -59,6 +73,7 @@ import org.apache.flink.streaming.runtime.partitioner.RescalePartitioner;
 import org.apache.flink.streaming.runtime.partitioner.StreamPartitioner;
 import org.apache.flink.streaming.runtime.tasks.StreamIterationHead;
 import org.apache.flink.streaming.runtime.tasks.StreamIterationTail;
+import org.apache.flink.streaming.util.typeutils.SerializerCodeGenerator;
 import org.apache.flink.util.FlinkRuntimeException;
 import org.apache.flink.util.SerializedValue;
 
@@ -93,6 +108,23 @@ public class StreamingJobGraphGenerator {
 
 	private static final Logger LOG = LoggerFactory.getLogger(StreamingJobGraphGenerator.class);
 
+	/** The operators whose functions may declare to only read their input records. */
+	private static final Set<Class<?>> READ_ONLY_INPUT_OPERATORS = new HashSet<>(Arrays.asList(
+		StreamMap.class,
+		StreamFlatMap.class,
+		StreamFilter.class,
+		ProcessOperator.class,
+		KeyedProcessOperator.class,
+		StreamSink.class));
+
+	/** The operators whose functions may declare to hand over their output records exclusively. */
+	private static final Set<Class<?>> EXCLUSIVE_OUTPUT_OPERATORS = new HashSet<>(Arrays.asList(
+		StreamSource.class,
+		StreamMap.class,
+		StreamFlatMap.class,
+		ProcessOperator.class,
+		KeyedProcessOperator.class));
+
 	private static final int MANAGED_MEMORY_FRACTION_SCALE = 16;
 
 	// ------------------------------------------------------------------------
@@ -210,6 +242,14 @@ public class StreamingJobGraphGenerator {
 						+ "\nThe user can force enable state checkpoints with the reduced guarantees by calling: env.enableCheckpointing(interval,true)");
 			}
 
+			// the parallel instances only hold the same shared broadcast state at aligned barriers
+			if (streamGraph.getExecutionConfig().isSharedBroadcastStateEnabled()
+				&& checkpointConfig.getCheckpointingMode() != CheckpointingMode.EXACTLY_ONCE) {
+				throw new UnsupportedOperationException(
+					"Shared broadcast state requires the exactly-once checkpointing mode, but the checkpointing mode is "
+						+ checkpointConfig.getCheckpointingMode() + ".");
+			}
+
 			ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
 			for (StreamNode node : streamGraph.getStreamNodes()) {
 				StreamOperatorFactory operatorFactory = node.getOperatorFactory();
@@ -339,6 +379,7 @@ public class StreamingJobGraphGenerator {
 				config.setChainIndex(chainIndex);
 				StreamNode node = streamGraph.getStreamNode(currentNodeId);
 				config.setOperatorName(node.getOperatorName());
+				config.setChainedInputCopyElided(isChainedInputCopyElidable(node.getInEdges().get(0), streamGraph));
 				chainedConfigs.get(startNodeId).put(currentNodeId, config);
 			}
 
@@ -474,6 +515,17 @@ public class StreamingJobGraphGenerator {
 		return new StreamConfig(jobVertex.getConfiguration());
 	}
 
+	/**
+	 * Creates the serializer of the records that are exchanged between operators, which is a
+	 * generated serializer if enabled in the {@link org.apache.flink.api.common.ExecutionConfig}.
+	 */
+	private <T> TypeSerializer<T> createRecordSerializer(TypeSerializer<T> serializer) {
+		if (serializer != null && streamGraph.getExecutionConfig().isGeneratedSerializersEnabled()) {
+			return SerializerCodeGenerator.generateSerializer(serializer);
+		}
+		return serializer;
+	}
+
 	@SuppressWarnings("unchecked")
 	private void setVertexConfig(Integer vertexID, StreamConfig config,
 			List<StreamEdge> chainableOutputs, List<StreamEdge> nonChainableOutputs) {
@@ -483,16 +535,16 @@ public class StreamingJobGraphGenerator {
 		config.setVertexID(vertexID);
 		config.setBufferTimeout(vertex.getBufferTimeout());
 
-		config.setTypeSerializerIn1(vertex.getTypeSerializerIn1());
-		config.setTypeSerializerIn2(vertex.getTypeSerializerIn2());
-		config.setTypeSerializerOut(vertex.getTypeSerializerOut());
+		config.setTypeSerializerIn1(createRecordSerializer(vertex.getTypeSerializerIn1()));
+		config.setTypeSerializerIn2(createRecordSerializer(vertex.getTypeSerializerIn2()));
+		config.setTypeSerializerOut(createRecordSerializer(vertex.getTypeSerializerOut()));
 
 		// iterate edges, find sideOutput edges create and save serializers for each outputTag type
 		for (StreamEdge edge : chainableOutputs) {
 			if (edge.getOutputTag() != null) {
 				config.setTypeSerializerSideOut(
 					edge.getOutputTag(),
-					edge.getOutputTag().getTypeInfo().createSerializer(streamGraph.getExecutionConfig())
+					createRecordSerializer(edge.getOutputTag().getTypeInfo().createSerializer(streamGraph.getExecutionConfig()))
 				);
 			}
 		}
@@ -500,7 +552,7 @@ public class StreamingJobGraphGenerator {
 			if (edge.getOutputTag() != null) {
 				config.setTypeSerializerSideOut(
 						edge.getOutputTag(),
-						edge.getOutputTag().getTypeInfo().createSerializer(streamGraph.getExecutionConfig())
+						createRecordSerializer(edge.getOutputTag().getTypeInfo().createSerializer(streamGraph.getExecutionConfig()))
 				);
 			}
 		}
@@ -614,6 +666,45 @@ public class StreamingJobGraphGenerator {
 				&& streamGraph.isChainingEnabled();
 	}
 
+	/**
+	 * Checks whether records can be passed over the given chained edge without copying them, even
+	 * if object reuse is disabled. This is the case if the edge is the only output of the upstream
+	 * operator, and the functions of the operators declare through the {@link ObjectReuseAnnotation}
+	 * that the downstream function only reads its input or that the upstream function hands its
+	 * output over exclusively.
+	 */
+	public static boolean isChainedInputCopyElidable(StreamEdge edge, StreamGraph streamGraph) {
+		StreamNode upStreamVertex = streamGraph.getSourceVertex(edge);
+		StreamNode downStreamVertex = streamGraph.getTargetVertex(edge);
+
+		// the records must not be passed to any other output
+		if (upStreamVertex.getOutEdges().size() != 1 || !upStreamVertex.getOutputSelectors().isEmpty()) {
+			return false;
+		}
+
+		Function upStreamFunction = getUserFunction(upStreamVertex, EXCLUSIVE_OUTPUT_OPERATORS);
+		Function downStreamFunction = getUserFunction(downStreamVertex, READ_ONLY_INPUT_OPERATORS);
+
+		return (downStreamFunction != null && downStreamFunction.getClass().isAnnotationPresent(ReadOnlyInput.class))
+			|| (upStreamFunction != null && upStreamFunction.getClass().isAnnotationPresent(ExclusiveOutput.class));
+	}
+
+	/**
+	 * Gets the user function of the given node, if its operator is one of the given operators, which
+	 * pass the records to and from their functions without holding on to them.
+	 */
+	@Nullable
+	private static Function getUserFunction(StreamNode node, Set<Class<?>> operatorClasses) {
+		StreamOperatorFactory<?> factory = node.getOperatorFactory();
+		if (factory instanceof SimpleOperatorFactory) {
+			StreamOperator<?> operator = ((SimpleOperatorFactory<?>) factory).getOperator();
+			if (operatorClasses.contains(operator.getClass())) {
+				return ((AbstractUdfStreamOperator<?, ?>) operator).getUserFunction();
+			}
+		}
+		return null;
+	}
+
 	private void setSlotSharingAndCoLocation() {
 		setSlotSharing();
 		setCoLocation();
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.operators;
+
+import org.apache.flink.annotation.Internal;
+
+import java.util.List;
+
+/**
+ * A {@link Triggerable} that accepts the event-time timers of a key in batches.
+ *
+ * <p>When the watermark advances, the {@link InternalTimerService} takes the timers that are due out of
+ * the timer queue, groups them by key and hands them over to {@link #onEventTimeBatch(Object, List)}
+ * ordered by key-group. The current key is only set once per batch, and the state of a key-group is
+ * accessed in one go, instead of once per timer in the order of the timestamps.
+ *
+ * <p>Because the timers of a batch are removed from the timer queue before the batch is handed over,
+ * deleting one of them in the callback has no effect. Timers that are registered in the callback and
+ * that are due with respect to the current watermark are handed over in a later batch.
+ *
+ * @param <K> Type of the keys to which timers are scoped.
+ * @param <N> Type of the namespace to which timers are scoped.
+ */
+@Internal
+public interface BatchTriggerable<K, N> extends Triggerable<K, N> {
+
+	/**
+	 * Invoked when event-time timers fire, with the due timers of a single key ordered by their
+	 * timestamps. The given key is the current key.
+	 */
+	void onEventTimeBatch(K key, List<InternalTimer<K, N>> timers) throws Exception;
+}
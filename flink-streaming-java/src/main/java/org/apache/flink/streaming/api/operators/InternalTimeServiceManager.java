@@ -54,6 +54,7 @@ public class InternalTimeServiceManager<K> {
 	static final String EVENT_TIMER_PREFIX = TIMER_STATE_PREFIX + "/event_";
 
 	private final KeyGroupRange localKeyGroupRange;
+	private final int totalKeyGroups;
 	private final KeyContext keyContext;
 
 	private final PriorityQueueSetFactory priorityQueueSetFactory;
@@ -65,11 +66,13 @@ public class InternalTimeServiceManager<K> {
 
 	InternalTimeServiceManager(
 		KeyGroupRange localKeyGroupRange,
+		int totalKeyGroups,
 		KeyContext keyContext,
 		PriorityQueueSetFactory priorityQueueSetFactory,
 		ProcessingTimeService processingTimeService, boolean useLegacySynchronousSnapshots) {
 
 		this.localKeyGroupRange = Preconditions.checkNotNull(localKeyGroupRange);
+		this.totalKeyGroups = totalKeyGroups;
 		this.priorityQueueSetFactory = Preconditions.checkNotNull(priorityQueueSetFactory);
 		this.keyContext = Preconditions.checkNotNull(keyContext);
 		this.processingTimeService = Preconditions.checkNotNull(processingTimeService);
@@ -101,6 +104,7 @@ public class InternalTimeServiceManager<K> {
 
 			timerService = new InternalTimerServiceImpl<>(
 				localKeyGroupRange,
+				totalKeyGroups,
 				keyContext,
 				processingTimeService,
 				createTimerPriorityQueue(PROCESSING_TIMER_PREFIX + name, timerSerializer),
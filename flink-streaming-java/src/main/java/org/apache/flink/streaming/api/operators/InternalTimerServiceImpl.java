@@ -23,6 +23,7 @@ import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.api.common.typeutils.TypeSerializerSchemaCompatibility;
 import org.apache.flink.runtime.state.InternalPriorityQueue;
 import org.apache.flink.runtime.state.KeyGroupRange;
+import org.apache.flink.runtime.state.KeyGroupRangeAssignment;
 import org.apache.flink.runtime.state.KeyGroupedInternalPriorityQueue;
 import org.apache.flink.streaming.runtime.tasks.ProcessingTimeService;
 import org.apache.flink.util.CloseableIterator;
@@ -32,7 +33,9 @@ import org.apache.flink.util.function.BiConsumerWithException;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ScheduledFuture;
 
@@ -44,6 +47,13 @@ import static org.apache.flink.util.Preconditions.checkNotNull;
  */
 public class InternalTimerServiceImpl<K, N> implements InternalTimerService<N> {
 
+	/**
+	 * The maximum number of event-time timers that are taken out of the queue at once when they are fired
+	 * in batches. This bounds the memory that is used when the watermark makes a large jump.
+	 */
+	@VisibleForTesting
+	static final int MAX_TIMERS_PER_BATCH = 4096;
+
 	private final ProcessingTimeService processingTimeService;
 
 	private final KeyContext keyContext;
@@ -65,6 +75,9 @@ public class InternalTimerServiceImpl<K, N> implements InternalTimerService<N> {
 
 	private final int localKeyGroupRangeStartIdx;
 
+	/** The total number of key-groups, i.e. the max parallelism. */
+	private final int totalKeyGroups;
+
 	/**
 	 * The local event time, as denoted by the last received
 	 * {@link org.apache.flink.streaming.api.watermark.Watermark Watermark}.
@@ -85,6 +98,9 @@ public class InternalTimerServiceImpl<K, N> implements InternalTimerService<N> {
 
 	private Triggerable<K, N> triggerTarget;
 
+	/** The trigger target, if it accepts event-time timers in batches. */
+	private BatchTriggerable<K, N> batchTriggerTarget;
+
 	private volatile boolean isInitialized;
 
 	private TypeSerializer<K> keyDeserializer;
@@ -96,11 +112,13 @@ public class InternalTimerServiceImpl<K, N> implements InternalTimerService<N> {
 
 	InternalTimerServiceImpl(
 		KeyGroupRange localKeyGroupRange,
+		int totalKeyGroups,
 		KeyContext keyContext,
 		ProcessingTimeService processingTimeService,
 		KeyGroupedInternalPriorityQueue<TimerHeapInternalTimer<K, N>> processingTimeTimersQueue,
 		KeyGroupedInternalPriorityQueue<TimerHeapInternalTimer<K, N>> eventTimeTimersQueue) {
 
+		this.totalKeyGroups = totalKeyGroups;
 		this.keyContext = checkNotNull(keyContext);
 		this.processingTimeService = checkNotNull(processingTimeService);
 		this.localKeyGroupRange = checkNotNull(localKeyGroupRange);
@@ -172,6 +190,8 @@ public class InternalTimerServiceImpl<K, N> implements InternalTimerService<N> {
 			this.namespaceDeserializer = null;
 
 			this.triggerTarget = Preconditions.checkNotNull(triggerTarget);
+			this.batchTriggerTarget = triggerTarget instanceof BatchTriggerable ?
+				(BatchTriggerable<K, N>) triggerTarget : null;
 
 			// re-register the restored timers (if any)
 			final InternalTimer<K, N> headTimer = processingTimeTimersQueue.peek();
@@ -268,6 +288,11 @@ public class InternalTimerServiceImpl<K, N> implements InternalTimerService<N> {
 	public void advanceWatermark(long time) throws Exception {
 		currentWatermark = time;
 
+		if (batchTriggerTarget != null) {
+			fireEventTimeTimersInBatches(time);
+			return;
+		}
+
 		InternalTimer<K, N> timer;
 
 		while ((timer = eventTimeTimersQueue.peek()) != null && timer.getTimestamp() <= time) {
@@ -277,6 +302,46 @@ public class InternalTimerServiceImpl<K, N> implements InternalTimerService<N> {
 		}
 	}
 
+	/**
+	 * Fires the event-time timers up to the given time through the {@link BatchTriggerable}. The due timers
+	 * are taken out of the queue in chunks of at most {@link #MAX_TIMERS_PER_BATCH} timers, grouped by key,
+	 * and the groups are handed over in the order of their key-groups. This is repeated until no timer is
+	 * due anymore, which includes the timers that were registered while firing.
+	 */
+	private void fireEventTimeTimersInBatches(long time) throws Exception {
+		final Map<K, List<InternalTimer<K, N>>> timersByKey = new HashMap<>();
+		final List<TimerBatch<K, N>> batches = new ArrayList<>();
+
+		InternalTimer<K, N> timer;
+
+		while ((timer = eventTimeTimersQueue.peek()) != null && timer.getTimestamp() <= time) {
+			int numTimers = 0;
+			do {
+				eventTimeTimersQueue.poll();
+				final K key = timer.getKey();
+				List<InternalTimer<K, N>> timers = timersByKey.get(key);
+				if (timers == null) {
+					timers = new ArrayList<>();
+					timersByKey.put(key, timers);
+					batches.add(new TimerBatch<>(
+						KeyGroupRangeAssignment.assignToKeyGroup(key, totalKeyGroups), key, timers));
+				}
+				timers.add(timer);
+			} while (++numTimers < MAX_TIMERS_PER_BATCH &&
+				(timer = eventTimeTimersQueue.peek()) != null && timer.getTimestamp() <= time);
+
+			batches.sort(null);
+
+			for (TimerBatch<K, N> batch : batches) {
+				keyContext.setCurrentKey(batch.key);
+				batchTriggerTarget.onEventTimeBatch(batch.key, batch.timers);
+			}
+
+			timersByKey.clear();
+			batches.clear();
+		}
+	}
+
 	/**
 	 * Snapshots the timers (both processing and event time ones) for a given {@code keyGroupIdx}.
 	 *
@@ -382,6 +447,29 @@ public class InternalTimerServiceImpl<K, N> implements InternalTimerService<N> {
 		return partitionElementsByKeyGroup(processingTimeTimersQueue);
 	}
 
+	/**
+	 * The due event-time timers of a key, ordered by their timestamps.
+	 */
+	private static final class TimerBatch<K, N> implements Comparable<TimerBatch<K, N>> {
+
+		private final int keyGroup;
+
+		private final K key;
+
+		private final List<InternalTimer<K, N>> timers;
+
+		TimerBatch(int keyGroup, K key, List<InternalTimer<K, N>> timers) {
+			this.keyGroup = keyGroup;
+			this.key = key;
+			this.timers = timers;
+		}
+
+		@Override
+		public int compareTo(TimerBatch<K, N> other) {
+			return Integer.compare(keyGroup, other.keyGroup);
+		}
+	}
+
 	private <T> List<Set<T>> partitionElementsByKeyGroup(KeyGroupedInternalPriorityQueue<T> keyGroupedQueue) {
 		List<Set<T>> result = new ArrayList<>(localKeyGroupRange.getNumberOfKeyGroups());
 		for (int keyGroup : localKeyGroupRange) {
@@ -26,7 +26,9 @@ import org.apache.flink.runtime.state.StateInitializationContext;
 import org.apache.flink.runtime.state.StateSnapshotContext;
 import org.apache.flink.streaming.api.datastream.AsyncDataStream;
 import org.apache.flink.streaming.api.datastream.AsyncDataStream.OutputMode;
+import org.apache.flink.streaming.api.functions.async.AsyncBatchFunction;
 import org.apache.flink.streaming.api.functions.async.AsyncFunction;
+import org.apache.flink.streaming.api.functions.async.BatchResultFuture;
 import org.apache.flink.streaming.api.functions.async.ResultFuture;
 import org.apache.flink.streaming.api.graph.StreamConfig;
 import org.apache.flink.streaming.api.operators.AbstractUdfStreamOperator;
@@ -43,13 +45,17 @@ import org.apache.flink.streaming.runtime.streamrecord.StreamElement;
 import org.apache.flink.streaming.runtime.streamrecord.StreamElementSerializer;
 import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
 import org.apache.flink.streaming.runtime.tasks.StreamTask;
+import org.apache.flink.streaming.util.typeutils.GeneratedSerializer;
 import org.apache.flink.util.Preconditions;
 
 import javax.annotation.Nonnull;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -65,6 +71,10 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * operator stores all currently in-flight {@link StreamElement} in it's operator state. Upon
  * recovery the recorded set of stream elements is replayed.
  *
+ * <p>If the operator is created with a batch size, the user function has to be an {@link AsyncBatchFunction}
+ * and is invoked with batches of inputs. The results of the batches are collected in a lock-free queue and
+ * applied to the stream element queue by a single mail, which then emits all completed elements.
+ *
  * <p>In case of chaining of this operator, it has to be made sure that the operators in the chain are
  * opened tail to head. The reason for this is that an opened {@link AsyncWaitOperator} starts
  * already emitting recovered {@link StreamElement} to downstream operators.
@@ -89,6 +99,12 @@ public class AsyncWaitOperator<IN, OUT>
 	/** Timeout for the async collectors. */
 	private final long timeout;
 
+	/** Maximum number of inputs per invocation of the {@link AsyncBatchFunction}, 0 if not batched. */
+	private final int batchSize;
+
+	/** Maximum time that a batch waits for further inputs. */
+	private final long batchTimeout;
+
 	/** {@link TypeSerializer} for inputs while making snapshots. */
 	private transient StreamElementSerializer<IN> inStreamElementSerializer;
 
@@ -103,12 +119,38 @@ public class AsyncWaitOperator<IN, OUT>
 
 	private transient TimestampedCollector<OUT> timestampedCollector;
 
+	/** Inputs of the batch that has not been passed to the {@link AsyncBatchFunction} yet. */
+	private transient List<IN> batchInputs;
+
+	/** Queue entries of the inputs of the current batch. */
+	private transient List<ResultFuture<OUT>> batchEntries;
+
+	/** Timer that triggers the current batch once the batch timeout has passed, it ignores any later batch. */
+	private transient ScheduledFuture<?> batchTimer;
+
+	/** Batches completed by the {@link AsyncBatchFunction} that have not been applied to the queue yet. */
+	private transient ConcurrentLinkedQueue<BatchHandler> completedBatches;
+
+	/** Whether a mail to apply the {@link #completedBatches} has been enqueued and not started yet. */
+	private transient AtomicBoolean completedBatchesFlushScheduled;
+
 	public AsyncWaitOperator(
 			@Nonnull AsyncFunction<IN, OUT> asyncFunction,
 			long timeout,
 			int capacity,
 			@Nonnull AsyncDataStream.OutputMode outputMode,
 			@Nonnull MailboxExecutor mailboxExecutor) {
+		this(asyncFunction, timeout, capacity, outputMode, 0, 0L, mailboxExecutor);
+	}
+
+	public AsyncWaitOperator(
+			@Nonnull AsyncFunction<IN, OUT> asyncFunction,
+			long timeout,
+			int capacity,
+			@Nonnull AsyncDataStream.OutputMode outputMode,
+			int batchSize,
+			long batchTimeout,
+			@Nonnull MailboxExecutor mailboxExecutor) {
 		super(asyncFunction);
 
 		// TODO this is a temporary fix for the problems described under FLINK-13063 at the cost of breaking chains for
@@ -122,6 +164,12 @@ public class AsyncWaitOperator<IN, OUT>
 
 		this.timeout = timeout;
 
+		Preconditions.checkArgument(batchSize >= 0, "The batch size must not be negative.");
+		Preconditions.checkArgument(batchSize == 0 || asyncFunction instanceof AsyncBatchFunction,
+			"Batching requires an AsyncBatchFunction.");
+		this.batchSize = batchSize;
+		this.batchTimeout = batchTimeout;
+
 		this.mailboxExecutor = mailboxExecutor;
 	}
 
@@ -129,8 +177,9 @@ public class AsyncWaitOperator<IN, OUT>
 	public void setup(StreamTask<?, ?> containingTask, StreamConfig config, Output<StreamRecord<OUT>> output) {
 		super.setup(containingTask, config, output);
 
-		this.inStreamElementSerializer = new StreamElementSerializer<>(
-			getOperatorConfig().<IN>getTypeSerializerIn1(getUserCodeClassloader()));
+		// the serializer is used for state, which must not be written with a generated serializer
+		this.inStreamElementSerializer = new StreamElementSerializer<>(GeneratedSerializer.unwrap(
+			getOperatorConfig().<IN>getTypeSerializerIn1(getUserCodeClassloader())));
 
 		switch (outputMode) {
 			case ORDERED:
@@ -144,6 +193,13 @@ public class AsyncWaitOperator<IN, OUT>
 		}
 
 		this.timestampedCollector = new TimestampedCollector<>(output);
+
+		if (batchSize > 0) {
+			this.batchInputs = new ArrayList<>(batchSize);
+			this.batchEntries = new ArrayList<>(batchSize);
+			this.completedBatches = new ConcurrentLinkedQueue<>();
+			this.completedBatchesFlushScheduled = new AtomicBoolean(false);
+		}
 	}
 
 	@Override
@@ -173,6 +229,11 @@ public class AsyncWaitOperator<IN, OUT>
 
 	@Override
 	public void processElement(StreamRecord<IN> element) throws Exception {
+		if (batchSize > 0) {
+			addToBatch(element);
+			return;
+		}
+
 		// add element first to the queue
 		final ResultFuture<OUT> entry = addToWorkQueue(element);
 
@@ -194,6 +255,9 @@ public class AsyncWaitOperator<IN, OUT>
 
 	@Override
 	public void processWatermark(Watermark mark) throws Exception {
+		// the watermark can only be emitted once all prior elements have been completed
+		invokeBatch();
+
 		addToWorkQueue(mark);
 
 		// watermarks are always completed
@@ -246,35 +310,120 @@ public class AsyncWaitOperator<IN, OUT>
 	 * <p>Between two insertion attempts, this method yields the execution to the mailbox, such that events as well
 	 * as asynchronous results can be processed.
 	 *
+	 * <p>A pending batch is invoked before yielding, as the queue may be full of its inputs.
+	 *
 	 * @param streamElement to add to the operator's queue
 	 * @throws InterruptedException if the current thread has been interrupted while yielding to mailbox
 	 * @return a handle that allows to set the result of the async computation for the given element.
 	 */
-	private ResultFuture<OUT> addToWorkQueue(StreamElement streamElement) throws InterruptedException {
+	private ResultFuture<OUT> addToWorkQueue(StreamElement streamElement) throws Exception {
 
 		Optional<ResultFuture<OUT>> queueEntry;
 		while (!(queueEntry = queue.tryPut(streamElement)).isPresent()) {
+			invokeBatch();
 			mailboxExecutor.yield();
 		}
 
 		return queueEntry.get();
 	}
 
-	private void waitInFlightInputsFinished() throws InterruptedException {
+	private void waitInFlightInputsFinished() throws Exception {
+		invokeBatch();
 
 		while (!queue.isEmpty()) {
 			mailboxExecutor.yield();
 		}
 	}
 
+	/**
+	 * Adds the given record to the operator's queue and to the current batch, which is invoked once it is full or
+	 * the batch timeout has passed.
+	 */
+	private void addToBatch(StreamRecord<IN> element) throws Exception {
+		final ResultFuture<OUT> entry = addToWorkQueue(element);
+
+		batchInputs.add(element.getValue());
+		batchEntries.add(entry);
+
+		if (batchEntries.size() >= batchSize) {
+			invokeBatch();
+		} else if (batchTimer == null) {
+			final long batchTimeoutTimestamp = batchTimeout + getProcessingTimeService().getCurrentProcessingTime();
+			final List<ResultFuture<OUT>> timedBatchEntries = batchEntries;
+
+			batchTimer = getProcessingTimeService().registerTimer(
+				batchTimeoutTimestamp,
+				timestamp -> {
+					// a timer that fired before its batch was invoked early can still run afterwards, ignore it then
+					if (timedBatchEntries == batchEntries) {
+						batchTimer = null;
+						invokeBatch();
+					}
+				});
+		}
+	}
+
+	/**
+	 * Passes the current batch, if any, to the {@link AsyncBatchFunction}.
+	 */
+	private void invokeBatch() throws Exception {
+		if (batchSize == 0 || batchEntries.isEmpty()) {
+			return;
+		}
+
+		if (batchTimer != null) {
+			batchTimer.cancel(false);
+			batchTimer = null;
+		}
+
+		final AsyncBatchFunction<IN, OUT> batchFunction = (AsyncBatchFunction<IN, OUT>) userFunction;
+		final BatchHandler batchHandler = new BatchHandler(batchInputs, batchEntries);
+		batchInputs = new ArrayList<>(batchSize);
+		batchEntries = new ArrayList<>(batchSize);
+
+		// register a timeout for the batch if timeout is configured
+		if (timeout > 0L) {
+			final long timeoutTimestamp = timeout + getProcessingTimeService().getCurrentProcessingTime();
+
+			final ScheduledFuture<?> timeoutTimer = getProcessingTimeService().registerTimer(
+				timeoutTimestamp,
+				timestamp -> batchFunction.timeoutBatch(batchHandler.inputs, batchHandler));
+
+			batchHandler.setTimeoutTimer(timeoutTimer);
+		}
+
+		batchFunction.asyncInvokeBatch(batchHandler.inputs, batchHandler);
+	}
+
+	/**
+	 * Applies the results of all completed batches to the queue and emits all completed elements. Runs as a single
+	 * mail for all batches that completed since the previous run.
+	 */
+	private void processCompletedBatches() {
+		// reset first, so that a batch completing from now on schedules another run
+		completedBatchesFlushScheduled.set(false);
+
+		BatchHandler batchHandler;
+		while ((batchHandler = completedBatches.poll()) != null) {
+			batchHandler.processResults();
+		}
+
+		outputCompletedElement();
+	}
+
 	/**
 	 * Outputs one completed element. Watermarks are always completed if it's their turn to be processed.
 	 *
 	 * <p>This method will be called from {@link #processWatermark(Watermark)} and from a mail processing the result
-	 * of an async function call.
+	 * of an async function call. In batch mode, all completed elements are emitted at once.
 	 */
 	private void outputCompletedElement() {
-		if (queue.hasCompletedElements()) {
+		if (batchSize > 0) {
+			// in batch mode, completions are already coalesced into a single mail
+			while (queue.hasCompletedElements()) {
+				queue.emitCompletedElement(timestampedCollector);
+			}
+		} else if (queue.hasCompletedElements()) {
 			// emit only one element to not block the mailbox thread unnecessarily
 			queue.emitCompletedElement(timestampedCollector);
 			// if there are more completed elements, emit them with subsequent mails
@@ -368,4 +517,98 @@ public class AsyncWaitOperator<IN, OUT>
 			processInMailbox(Collections.emptyList());
 		}
 	}
+
+	/**
+	 * A handler for the results of a batch of input records, passed to the {@link AsyncBatchFunction}.
+	 */
+	private class BatchHandler implements BatchResultFuture<OUT> {
+		/**
+		 * Optional timeout timer used to signal the timeout to the AsyncBatchFunction.
+		 */
+		private ScheduledFuture<?> timeoutTimer;
+		/**
+		 * The values of the input records of the batch.
+		 */
+		private final List<IN> inputs;
+		/**
+		 * The handles received from the queue to update the entries of the input records.
+		 */
+		private final List<ResultFuture<OUT>> resultFutures;
+		/**
+		 * The results per input record, null if the batch has been completed exceptionally.
+		 */
+		private volatile List<? extends Collection<OUT>> results;
+		/**
+		 * A guard against ill-written AsyncBatchFunction, as in {@link ResultHandler}.
+		 */
+		private final AtomicBoolean completed = new AtomicBoolean(false);
+
+		BatchHandler(List<IN> inputs, List<ResultFuture<OUT>> resultFutures) {
+			this.inputs = Collections.unmodifiableList(inputs);
+			this.resultFutures = resultFutures;
+		}
+
+		void setTimeoutTimer(ScheduledFuture<?> timeoutTimer) {
+			this.timeoutTimer = timeoutTimer;
+		}
+
+		@Override
+		public void complete(List<? extends Collection<OUT>> results) {
+			Preconditions.checkNotNull(results, "Results must not be null, use empty collections to emit nothing");
+
+			if (results.size() != resultFutures.size()) {
+				completeExceptionally(new IllegalArgumentException("Expected results for " + resultFutures.size() +
+					" inputs but got results for " + results.size() + " inputs."));
+				return;
+			}
+
+			// already completed (exceptionally or with previous complete call from ill-written AsyncBatchFunction),
+			// so ignore additional results
+			if (!completed.compareAndSet(false, true)) {
+				return;
+			}
+
+			this.results = results;
+			processInMailbox();
+		}
+
+		@Override
+		public void completeExceptionally(Throwable error) {
+			// already completed, so ignore exception
+			if (!completed.compareAndSet(false, true)) {
+				return;
+			}
+
+			// signal failure through task
+			getContainingTask().getEnvironment().failExternally(new Exception(
+					"Could not complete a batch of " + resultFutures.size() + " stream elements.",
+					error));
+
+			// complete with empty results, so that we remove timer and move ahead processing
+			processInMailbox();
+		}
+
+		private void processInMailbox() {
+			completedBatches.add(this);
+
+			// only the first completed batch since the last run enqueues a mail
+			if (completedBatchesFlushScheduled.compareAndSet(false, true)) {
+				mailboxExecutor.execute(
+					AsyncWaitOperator.this::processCompletedBatches,
+					"AsyncWaitOperator#processCompletedBatches");
+			}
+		}
+
+		private void processResults() {
+			if (timeoutTimer != null) {
+				// canceling in mailbox thread avoids https://issues.apache.org/jira/browse/FLINK-13635
+				timeoutTimer.cancel(true);
+			}
+
+			final List<? extends Collection<OUT>> results = this.results;
+			for (int i = 0; i < resultFutures.size(); i++) {
+				resultFutures.get(i).complete(results == null ? Collections.emptyList() : results.get(i));
+			}
+		}
+	}
 }
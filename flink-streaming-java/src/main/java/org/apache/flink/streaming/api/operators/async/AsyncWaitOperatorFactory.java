@@ -38,6 +38,8 @@ public class AsyncWaitOperatorFactory<IN, OUT> implements OneInputStreamOperator
 	private final long timeout;
 	private final int capacity;
 	private final AsyncDataStream.OutputMode outputMode;
+	private final int batchSize;
+	private final long batchTimeout;
 	private MailboxExecutor mailboxExecutor;
 	private ChainingStrategy strategy = ChainingStrategy.HEAD;
 
@@ -46,10 +48,22 @@ public class AsyncWaitOperatorFactory<IN, OUT> implements OneInputStreamOperator
 			long timeout,
 			int capacity,
 			AsyncDataStream.OutputMode outputMode) {
+		this(asyncFunction, timeout, capacity, outputMode, 0, 0L);
+	}
+
+	public AsyncWaitOperatorFactory(
+			AsyncFunction<IN, OUT> asyncFunction,
+			long timeout,
+			int capacity,
+			AsyncDataStream.OutputMode outputMode,
+			int batchSize,
+			long batchTimeout) {
 		this.asyncFunction = asyncFunction;
 		this.timeout = timeout;
 		this.capacity = capacity;
 		this.outputMode = outputMode;
+		this.batchSize = batchSize;
+		this.batchTimeout = batchTimeout;
 	}
 
 	@Override
@@ -64,6 +78,8 @@ public class AsyncWaitOperatorFactory<IN, OUT> implements OneInputStreamOperator
 				timeout,
 				capacity,
 				outputMode,
+				batchSize,
+				batchTimeout,
 				mailboxExecutor);
 		asyncWaitOperator.setup(containingTask, config, output);
 		return asyncWaitOperator;
@@ -0,0 +1,355 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.operators.windowing;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.api.common.functions.AggregateFunction;
+import org.apache.flink.api.common.functions.ReduceFunction;
+import org.apache.flink.api.common.state.AggregatingStateDescriptor;
+import org.apache.flink.api.common.state.AppendingState;
+import org.apache.flink.api.common.state.ReducingStateDescriptor;
+import org.apache.flink.api.common.state.StateDescriptor;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.runtime.state.internal.InternalAppendingState;
+import org.apache.flink.streaming.api.operators.BatchTriggerable;
+import org.apache.flink.streaming.api.operators.InternalTimer;
+import org.apache.flink.streaming.api.windowing.assigners.SlidingEventTimeWindows;
+import org.apache.flink.streaming.api.windowing.triggers.EventTimeTrigger;
+import org.apache.flink.streaming.api.windowing.windows.TimeWindow;
+import org.apache.flink.streaming.runtime.operators.windowing.functions.InternalWindowFunction;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.util.MathUtils;
+import org.apache.flink.util.OutputTag;
+
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * A {@link WindowOperator} for incrementally aggregated {@link SlidingEventTimeWindows} that does not keep
+ * an accumulator per window, but per slice.
+ *
+ * <p>The time is cut into non-overlapping slices whose length is the greatest common divisor of the window
+ * size and the slide, such that every window consists of a fixed number of whole slices. An element is
+ * added to the accumulator of exactly one slice, instead of the accumulators of {@code size / slide}
+ * windows. When a window fires, the accumulators of its slices are merged using
+ * {@link ReduceFunction#reduce(Object, Object)} or {@link AggregateFunction#merge(Object, Object)}.
+ *
+ * <p>The operator behaves like a {@link WindowOperator} with an {@link EventTimeTrigger}. Instead of a
+ * timer per window, a key only has a timer for its next window to fire. When that window fires, the timer
+ * of the following window is registered if that window has elements of the key. A slice is cleared when
+ * the last window that contains it is cleaned up.
+ *
+ * <p>When the timers of a key fire in a batch, windows that are due are fired one after the other, without
+ * registering timers for them.
+ *
+ * @param <K> The type of key returned by the {@code KeySelector}.
+ * @param <IN> The type of the incoming elements.
+ * @param <ACC> The type of the window contents that are given to the {@code InternalWindowFunction}.
+ * @param <OUT> The type of elements emitted by the {@code InternalWindowFunction}.
+ */
+@Internal
+public class SlicingWindowOperator<K, IN, ACC, OUT>
+	extends WindowOperator<K, IN, ACC, OUT, TimeWindow>
+	implements BatchTriggerable<K, TimeWindow> {
+
+	private static final long serialVersionUID = 1L;
+
+	// ------------------------------------------------------------------------
+	// these fields are set by the API stream graph builder to configure the operator
+
+	private final StateDescriptor<? extends AppendingState<IN, ACC>, ?> sliceStateDescriptor;
+
+	private final long size;
+
+	private final long slide;
+
+	private final long offset;
+
+	/** The length of the slices, i.e. the greatest common divisor of window size and slide. */
+	private final long sliceSize;
+
+	// ------------------------------------------------------------------------
+	// the fields below are instantiated once the operator runs in the runtime
+
+	/** The state that holds the accumulators of the slices. Each slice is a namespace. */
+	private transient InternalAppendingState<K, TimeWindow, IN, Object, ACC> sliceState;
+
+	/** For copying the accumulators of the slices before they are merged. */
+	private transient TypeSerializer<Object> accumulatorSerializer;
+
+	// ------------------------------------------------------------------------
+
+	public SlicingWindowOperator(
+			SlidingEventTimeWindows windowAssigner,
+			TypeSerializer<TimeWindow> windowSerializer,
+			KeySelector<IN, K> keySelector,
+			TypeSerializer<K> keySerializer,
+			StateDescriptor<? extends AppendingState<IN, ACC>, ?> sliceStateDescriptor,
+			InternalWindowFunction<ACC, OUT, K, TimeWindow> windowFunction,
+			long allowedLateness,
+			OutputTag<IN> lateDataOutputTag) {
+
+		super(windowAssigner, windowSerializer, keySelector,
+			keySerializer, null, windowFunction, EventTimeTrigger.create(), allowedLateness, lateDataOutputTag);
+
+		checkArgument(sliceStateDescriptor instanceof ReducingStateDescriptor ||
+				sliceStateDescriptor instanceof AggregatingStateDescriptor,
+			"Slicing is only supported for reducing and aggregating window state.");
+		checkArgument(sliceStateDescriptor.isSerializerInitialized(),
+			"window state serializer is not properly initialized");
+		checkArgument(windowAssigner.getSize() > windowAssigner.getSlide(),
+			"Slicing is only supported for windows that are larger than their slide.");
+
+		this.sliceStateDescriptor = sliceStateDescriptor;
+		this.size = windowAssigner.getSize();
+		this.slide = windowAssigner.getSlide();
+		this.offset = windowAssigner.getOffset();
+		this.sliceSize = MathUtils.greatestCommonDivisor(size, slide);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void open() throws Exception {
+		super.open();
+
+		sliceState = (InternalAppendingState<K, TimeWindow, IN, Object, ACC>)
+			getOrCreateKeyedState(windowSerializer, sliceStateDescriptor);
+		accumulatorSerializer = (TypeSerializer<Object>) sliceStateDescriptor.getSerializer();
+	}
+
+	@Override
+	public void processElement(StreamRecord<IN> element) throws Exception {
+		final long timestamp = element.getTimestamp();
+		if (timestamp == Long.MIN_VALUE) {
+			throw new RuntimeException("Record has Long.MIN_VALUE timestamp (= no timestamp marker). " +
+				"Is the time characteristic set to 'ProcessingTime', or did you forget to call " +
+				"'DataStream.assignTimestampsAndWatermarks(...)'?");
+		}
+
+		final long sliceStart = TimeWindow.getWindowStartWithOffset(timestamp, offset % sliceSize, sliceSize);
+		final long lastWindowStart = TimeWindow.getWindowStartWithOffset(sliceStart, offset, slide);
+
+		if (isWindowLate(window(lastWindowStart))) {
+			// the element is in no window that is still in-flight
+			if (isElementLate(element)) {
+				if (lateDataOutputTag != null) {
+					sideOutput(element);
+				} else {
+					this.numLateRecordsDropped.inc();
+				}
+			}
+			return;
+		}
+
+		sliceState.setCurrentNamespace(new TimeWindow(sliceStart, sliceStart + sliceSize));
+		sliceState.add(element.getValue());
+
+		triggerContext.key = this.<K>getKeyedStateBackend().getCurrentKey();
+
+		// go through the windows of the slice in the order of their end timestamps: windows that were already
+		// fired but are not cleaned up yet fire again, like with an EventTimeTrigger, and the first window that
+		// was not fired yet needs a timer
+		final long firstWindowStart = lastWindowStart - ((lastWindowStart - sliceStart + size - 1) / slide) * slide;
+		for (long start = firstWindowStart; start <= lastWindowStart; start += slide) {
+			final TimeWindow window = window(start);
+			if (isWindowLate(window)) {
+				continue;
+			}
+
+			triggerContext.window = window;
+			registerCleanupTimer(window);
+
+			if (window.maxTimestamp() <= internalTimerService.currentWatermark()) {
+				fireWindow(window);
+			} else {
+				internalTimerService.registerEventTimeTimer(window, window.maxTimestamp());
+				break;
+			}
+		}
+	}
+
+	@Override
+	public void onEventTime(InternalTimer<K, TimeWindow> timer) throws Exception {
+		triggerContext.key = timer.getKey();
+		onEventTime(timer.getNamespace(), timer.getTimestamp(), Long.MIN_VALUE, Long.MIN_VALUE);
+	}
+
+	@Override
+	public void onEventTimeBatch(K key, List<InternalTimer<K, TimeWindow>> timers) throws Exception {
+		triggerContext.key = key;
+
+		// the timers of the following windows are part of the batch already, so these windows are fired
+		// right away instead of registering their timers again
+		final long currentWatermark = internalTimerService.currentWatermark();
+		long lastFiredWindowStart = Long.MIN_VALUE;
+		for (InternalTimer<K, TimeWindow> timer : timers) {
+			lastFiredWindowStart = Math.max(lastFiredWindowStart,
+				onEventTime(timer.getNamespace(), timer.getTimestamp(), currentWatermark, lastFiredWindowStart));
+		}
+	}
+
+	/**
+	 * Fires and cleans up the given window. If the following window shares slices with elements and its end
+	 * is not after {@code chainedFiringTime}, it is fired and, if it is late, cleaned up right away instead of
+	 * registering timers for it.
+	 *
+	 * @return the start of the last window that was fired because of the timer.
+	 */
+	private long onEventTime(
+			TimeWindow window,
+			long timestamp,
+			long chainedFiringTime,
+			long lastFiredWindowStart) throws Exception {
+
+		triggerContext.window = window;
+
+		// a window that was already fired by following the windows of an earlier timer does not fire again
+		if (timestamp == window.maxTimestamp() && window.getStart() > lastFiredWindowStart) {
+			lastFiredWindowStart = window.getStart();
+			boolean hasElementsForNextWindow = fireWindow(window);
+
+			while (hasElementsForNextWindow) {
+				final TimeWindow nextWindow = window(lastFiredWindowStart + slide);
+				triggerContext.window = nextWindow;
+
+				if (nextWindow.maxTimestamp() > chainedFiringTime) {
+					internalTimerService.registerEventTimeTimer(nextWindow, nextWindow.maxTimestamp());
+					registerCleanupTimer(nextWindow);
+					break;
+				}
+
+				// the timers of the next window were either taken out of the queue for this batch already, or
+				// they must not fire anymore
+				internalTimerService.deleteEventTimeTimer(nextWindow, nextWindow.maxTimestamp());
+				hasElementsForNextWindow = fireWindow(nextWindow);
+				lastFiredWindowStart = nextWindow.getStart();
+
+				if (isWindowLate(nextWindow)) {
+					deleteCleanupTimer(nextWindow);
+					clearWindow(nextWindow);
+				} else {
+					registerCleanupTimer(nextWindow);
+				}
+			}
+
+			triggerContext.window = window;
+		}
+
+		if (isCleanupTime(window, timestamp)) {
+			clearWindow(window);
+		}
+
+		return lastFiredWindowStart;
+	}
+
+	/**
+	 * Clears the slices of the given window that no later window contains, i.e. the slices before the start
+	 * of the next window, and the per-window state of the window.
+	 */
+	private void clearWindow(TimeWindow window) throws Exception {
+		for (long sliceStart = window.getStart(); sliceStart < window.getStart() + slide; sliceStart += sliceSize) {
+			sliceState.setCurrentNamespace(new TimeWindow(sliceStart, sliceStart + sliceSize));
+			sliceState.clear();
+		}
+		processContext.window = window;
+		processContext.clear();
+	}
+
+	@Override
+	public void onProcessingTime(InternalTimer<K, TimeWindow> timer) throws Exception {
+		// only event-time timers are registered
+	}
+
+	/**
+	 * Merges the accumulators of the slices of the given window and emits the result, if the window has
+	 * any elements. The caller must ensure that the correct key is set in the state backend and the
+	 * triggerContext object.
+	 *
+	 * @return whether the slices that the window shares with the next window have elements.
+	 */
+	private boolean fireWindow(TimeWindow window) throws Exception {
+		final long nextWindowStart = window.getStart() + slide;
+
+		Object mergedAccumulator = null;
+		boolean hasElementsForNextWindow = false;
+
+		for (long sliceStart = window.getStart(); sliceStart < window.getEnd(); sliceStart += sliceSize) {
+			sliceState.setCurrentNamespace(new TimeWindow(sliceStart, sliceStart + sliceSize));
+			final Object accumulator = sliceState.getInternal();
+			if (accumulator == null) {
+				continue;
+			}
+
+			// the accumulators in the state must not be modified by the merge functions
+			final Object copiedAccumulator = accumulatorSerializer.copy(accumulator);
+			mergedAccumulator = mergedAccumulator == null ?
+				copiedAccumulator :
+				mergeAccumulators(mergedAccumulator, copiedAccumulator);
+			hasElementsForNextWindow |= sliceStart >= nextWindowStart;
+		}
+
+		if (mergedAccumulator != null) {
+			timestampedCollector.setAbsoluteTimestamp(window.maxTimestamp());
+			processContext.window = window;
+			userFunction.process(triggerContext.key, window, processContext, getResult(mergedAccumulator), timestampedCollector);
+		}
+
+		return hasElementsForNextWindow;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Object mergeAccumulators(Object first, Object second) throws Exception {
+		if (sliceStateDescriptor instanceof ReducingStateDescriptor) {
+			return ((ReducingStateDescriptor<Object>) sliceStateDescriptor).getReduceFunction().reduce(first, second);
+		} else {
+			return ((AggregatingStateDescriptor<?, Object, ?>) sliceStateDescriptor).getAggregateFunction().merge(first, second);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private ACC getResult(Object accumulator) {
+		if (sliceStateDescriptor instanceof ReducingStateDescriptor) {
+			return (ACC) accumulator;
+		} else {
+			return ((AggregatingStateDescriptor<?, Object, ACC>) sliceStateDescriptor).getAggregateFunction().getResult(accumulator);
+		}
+	}
+
+	private TimeWindow window(long start) {
+		return new TimeWindow(start, start + size);
+	}
+
+	// ------------------------------------------------------------------------
+	// Getters for testing
+	// ------------------------------------------------------------------------
+
+	@VisibleForTesting
+	long getSliceSize() {
+		return sliceSize;
+	}
+
+	@Override
+	@VisibleForTesting
+	public StateDescriptor<? extends AppendingState<IN, ACC>, ?> getStateDescriptor() {
+		return sliceStateDescriptor;
+	}
+}
@@ -435,7 +435,7 @@ public class OperatorChain<OUT, OP extends StreamOperator<OUT>> implements Strea
 		allOperators.add(chainedOperator);
 
 		WatermarkGaugeExposingOutput<StreamRecord<IN>> currentOperatorOutput;
-		if (containingTask.getExecutionConfig().isObjectReuseEnabled()) {
+		if (containingTask.getExecutionConfig().isObjectReuseEnabled() || operatorConfig.isChainedInputCopyElided()) {
 			currentOperatorOutput = new ChainingOutput<>(chainedOperator, this, outputTag);
 		}
 		else {
@@ -72,8 +72,8 @@ import org.apache.flink.streaming.runtime.streamstatus.StreamStatusMaintainer;
 import org.apache.flink.streaming.runtime.tasks.mailbox.MailboxDefaultAction;
 import org.apache.flink.streaming.runtime.tasks.mailbox.MailboxExecutorFactory;
 import org.apache.flink.streaming.runtime.tasks.mailbox.MailboxProcessor;
+import org.apache.flink.streaming.runtime.tasks.mailbox.MpscTaskMailbox;
 import org.apache.flink.streaming.runtime.tasks.mailbox.TaskMailbox;
-import org.apache.flink.streaming.runtime.tasks.mailbox.TaskMailboxImpl;
 import org.apache.flink.util.ExceptionUtils;
 import org.apache.flink.util.Preconditions;
 
@@ -94,6 +94,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 /**
  * Base class for all streaming tasks. A task is the unit of local processing that is deployed
@@ -262,7 +263,7 @@ public abstract class StreamTask<OUT, OP extends StreamOperator<OUT>>
 			@Nullable TimerService timerService,
 			Thread.UncaughtExceptionHandler uncaughtExceptionHandler,
 			StreamTaskActionExecutor.SynchronizedStreamTaskActionExecutor actionExecutor) {
-		this(environment, timerService, uncaughtExceptionHandler, actionExecutor, new TaskMailboxImpl(Thread.currentThread()));
+		this(environment, timerService, uncaughtExceptionHandler, actionExecutor, new MpscTaskMailbox(Thread.currentThread()));
 	}
 
 	protected StreamTask(
@@ -730,6 +731,13 @@ public abstract class StreamTask<OUT, OP extends StreamOperator<OUT>>
 		return checkpointStorage;
 	}
 
+	/**
+	 * Returns the state backend of the task, as configured by the application or the cluster.
+	 */
+	public StateBackend getStateBackend() {
+		return stateBackend;
+	}
+
 	public StreamConfig getConfiguration() {
 		return configuration;
 	}
@@ -1018,7 +1026,16 @@ public abstract class StreamTask<OUT, OP extends StreamOperator<OUT>>
 	public ProcessingTimeService getProcessingTimeService(int operatorIndex) {
 		Preconditions.checkState(timerService != null, "The timer service has not been initialized.");
 		MailboxExecutor mailboxExecutor = mailboxProcessor.getMailboxExecutor(operatorIndex);
-		return new ProcessingTimeServiceImpl(timerService, callback -> deferCallbackToMailbox(mailboxExecutor, callback));
+		Function<ProcessingTimeCallback, ProcessingTimeCallback> callbackWrapper =
+			callback -> deferCallbackToMailbox(mailboxExecutor, callback);
+
+		final long tickMillis = getEnvironment().getTaskManagerInfo().getConfiguration()
+			.getLong(TaskManagerOptions.TASK_PROCESSING_TIMERS_TICK);
+		if (tickMillis > 0) {
+			return new TimingWheelProcessingTimeService(timerService, callbackWrapper, tickMillis);
+		} else {
+			return new ProcessingTimeServiceImpl(timerService, callbackWrapper);
+		}
 	}
 
 	/**
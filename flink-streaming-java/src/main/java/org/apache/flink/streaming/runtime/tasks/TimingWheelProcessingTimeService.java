@@ -0,0 +1,448 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.tasks;
+
+import org.apache.flink.annotation.VisibleForTesting;
+
+import javax.annotation.Nonnull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * A {@link ProcessingTimeService} that coalesces the timers of an operator in a hierarchical timing wheel,
+ * instead of registering each of them with the {@link TimerService} of the task.
+ *
+ * <p>The processing time is divided into ticks of a configurable length. A timer fires at the end of the
+ * tick that contains its timestamp, i.e. never before its timestamp, but up to one tick later. Only the
+ * next tick that has timers to fire is registered with the {@link TimerService}, and all timers that are
+ * due at that tick are fired by a single callback. The callback is wrapped like the timers of a
+ * {@link ProcessingTimeServiceImpl}, so that the due timers are fired in one mailbox action.
+ *
+ * <p>Each level of the wheel has {@link #WHEEL_SIZE} buckets, and a bucket of a level spans all the buckets
+ * of the level below. Registering and cancelling a timer takes constant time. Timers that are too far in the
+ * future for a level are kept in the next coarser level, which is created when it is needed, and move down
+ * to the finer levels when their bucket expires.
+ */
+class TimingWheelProcessingTimeService implements ProcessingTimeService {
+
+	/** The number of buckets per level of the wheel. */
+	@VisibleForTesting
+	static final int WHEEL_SIZE = 64;
+
+	private static final int STATE_PENDING = 0;
+	private static final int STATE_FIRED = 1;
+	private static final int STATE_CANCELLED = 2;
+
+	private final TimerService timerService;
+
+	private final Function<ProcessingTimeCallback, ProcessingTimeCallback> processingTimeCallbackWrapper;
+
+	/** The length of a tick in milliseconds. */
+	private final long tickMillis;
+
+	private final Object lock = new Object();
+
+	/** The buckets of all levels that have an expiration, ordered by their expiration tick. */
+	private final PriorityQueue<Bucket> expiringBuckets;
+
+	/** The timers that are due with respect to the current tick of the wheel. */
+	private final Bucket dueTimers;
+
+	/** The finest level of the wheel, with buckets of a single tick. */
+	private final Level wheel;
+
+	/** The timer of the {@link TimerService} for the next tick that has timers to fire, if any. */
+	private ScheduledFuture<?> nextTickTimer;
+
+	/** The timestamp of {@link #nextTickTimer}, or {@link Long#MAX_VALUE} if there is none. */
+	private long nextTickTimestamp = Long.MAX_VALUE;
+
+	TimingWheelProcessingTimeService(
+			TimerService timerService,
+			Function<ProcessingTimeCallback, ProcessingTimeCallback> processingTimeCallbackWrapper,
+			long tickMillis) {
+
+		checkArgument(tickMillis > 0, "The tick of the timing wheel must be positive.");
+
+		this.timerService = checkNotNull(timerService);
+		this.processingTimeCallbackWrapper = checkNotNull(processingTimeCallbackWrapper);
+		this.tickMillis = tickMillis;
+		this.expiringBuckets = new PriorityQueue<>(Comparator.comparingLong(bucket -> bucket.expiration));
+		this.dueTimers = new Bucket();
+		this.wheel = new Level(1L, Math.floorDiv(timerService.getCurrentProcessingTime(), tickMillis));
+	}
+
+	@Override
+	public long getCurrentProcessingTime() {
+		return timerService.getCurrentProcessingTime();
+	}
+
+	@Override
+	public ScheduledFuture<?> registerTimer(long timestamp, ProcessingTimeCallback target) {
+		final WheelTimer timer = new WheelTimer(timestamp, target);
+
+		synchronized (lock) {
+			// the wheel has to catch up with the processing time, but it must not pass a bucket that has not
+			// expired yet, because new timers would end up in that bucket
+			final Bucket nextBucket = expiringBuckets.peek();
+			final long currentTick = Math.floorDiv(timerService.getCurrentProcessingTime(), tickMillis);
+			wheel.advanceClock(nextBucket == null ? currentTick : Math.min(currentTick, nextBucket.expiration));
+
+			addTimer(timer);
+			scheduleNextTick();
+		}
+
+		return timer;
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(ProcessingTimeCallback callback, long initialDelay, long period) {
+		return timerService.scheduleAtFixedRate(processingTimeCallbackWrapper.apply(callback), initialDelay, period);
+	}
+
+	private void onTick(long time) throws Exception {
+		final List<WheelTimer> firingTimers = new ArrayList<>();
+
+		synchronized (lock) {
+			if (time >= nextTickTimestamp) {
+				nextTickTimer = null;
+				nextTickTimestamp = Long.MAX_VALUE;
+			}
+
+			final long currentTick = Math.floorDiv(Math.max(time, timerService.getCurrentProcessingTime()), tickMillis);
+
+			// the timers of expired buckets either are due, or they move to a finer level
+			Bucket bucket;
+			while ((bucket = expiringBuckets.peek()) != null && bucket.expiration <= currentTick) {
+				expiringBuckets.poll();
+				wheel.advanceClock(bucket.expiration);
+				bucket.flush(this::addTimer);
+			}
+			wheel.advanceClock(currentTick);
+
+			dueTimers.flush(timer -> {
+				timer.state = STATE_FIRED;
+				firingTimers.add(timer);
+			});
+
+			scheduleNextTick();
+		}
+
+		firingTimers.sort(Comparator.comparingLong(timer -> timer.timestamp));
+		for (WheelTimer timer : firingTimers) {
+			timer.callback.onProcessingTime(timer.timestamp);
+		}
+	}
+
+	private void addTimer(WheelTimer timer) {
+		if (!wheel.add(timer)) {
+			dueTimers.add(timer);
+		}
+	}
+
+	/**
+	 * Makes sure that the {@link TimerService} has a timer for the next tick that has timers to fire.
+	 */
+	private void scheduleNextTick() {
+		final long nextTick;
+		if (!dueTimers.isEmpty()) {
+			nextTick = wheel.currentTick;
+		} else if (!expiringBuckets.isEmpty()) {
+			nextTick = expiringBuckets.peek().expiration;
+		} else {
+			return;
+		}
+
+		final long timestamp = tickToTimestamp(nextTick);
+		if (timestamp < nextTickTimestamp) {
+			if (nextTickTimer != null) {
+				nextTickTimer.cancel(false);
+			}
+			nextTickTimestamp = timestamp;
+			nextTickTimer = timerService.registerTimer(timestamp, processingTimeCallbackWrapper.apply(this::onTick));
+		}
+	}
+
+	/**
+	 * Returns the first tick that ends at or after the given timestamp.
+	 */
+	private long timestampToTick(long timestamp) {
+		return Math.floorDiv(timestamp, tickMillis) + (Math.floorMod(timestamp, tickMillis) == 0 ? 0 : 1);
+	}
+
+	private long tickToTimestamp(long tick) {
+		if (tick > Long.MAX_VALUE / tickMillis) {
+			return Long.MAX_VALUE;
+		} else if (tick < Long.MIN_VALUE / tickMillis) {
+			return Long.MIN_VALUE;
+		} else {
+			return tick * tickMillis;
+		}
+	}
+
+	/**
+	 * Returns the number of ticks from the first to the second tick, saturated at {@link Long#MIN_VALUE}
+	 * and {@link Long#MAX_VALUE}.
+	 */
+	private static long ticksBetween(long from, long to) {
+		final long difference = to - from;
+		if (((to ^ from) & (to ^ difference)) < 0) {
+			return to > from ? Long.MAX_VALUE : Long.MIN_VALUE;
+		}
+		return difference;
+	}
+
+	@VisibleForTesting
+	int getNumLevels() {
+		synchronized (lock) {
+			int numLevels = 0;
+			for (Level level = wheel; level != null; level = level.overflowLevel) {
+				numLevels++;
+			}
+			return numLevels;
+		}
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * A level of the timing wheel.
+	 */
+	private final class Level {
+
+		/** The number of ticks that a bucket of this level spans. */
+		private final long ticksPerBucket;
+
+		/** The number of ticks that all buckets of this level span together. */
+		private final long ticksPerLevel;
+
+		private final Bucket[] buckets;
+
+		/** The first tick of the current bucket of this level. */
+		private long currentTick;
+
+		/** The next coarser level, if it was needed so far. */
+		private Level overflowLevel;
+
+		Level(long ticksPerBucket, long currentTick) {
+			this.ticksPerBucket = ticksPerBucket;
+			this.ticksPerLevel = ticksPerBucket > Long.MAX_VALUE / WHEEL_SIZE ? Long.MAX_VALUE : ticksPerBucket * WHEEL_SIZE;
+			this.buckets = new Bucket[WHEEL_SIZE];
+			for (int i = 0; i < WHEEL_SIZE; i++) {
+				buckets[i] = new Bucket();
+			}
+			this.currentTick = currentTick - Math.floorMod(currentTick, ticksPerBucket);
+		}
+
+		/**
+		 * Adds the timer to the bucket of this or a coarser level that contains its tick.
+		 *
+		 * @return false, if the timer is due at the current tick.
+		 */
+		boolean add(WheelTimer timer) {
+			final long ticks = ticksBetween(currentTick, timer.tick);
+			if (ticks < ticksPerBucket) {
+				return false;
+			} else if (ticks < ticksPerLevel) {
+				final long virtualBucket = Math.floorDiv(timer.tick, ticksPerBucket);
+				final Bucket bucket = buckets[(int) Math.floorMod(virtualBucket, (long) WHEEL_SIZE)];
+				bucket.add(timer);
+				if (bucket.setExpiration(virtualBucket * ticksPerBucket)) {
+					expiringBuckets.add(bucket);
+				}
+				return true;
+			} else {
+				if (overflowLevel == null) {
+					overflowLevel = new Level(ticksPerLevel, currentTick);
+				}
+				return overflowLevel.add(timer);
+			}
+		}
+
+		void advanceClock(long tick) {
+			if (ticksBetween(currentTick, tick) >= ticksPerBucket) {
+				currentTick = tick - Math.floorMod(tick, ticksPerBucket);
+				if (overflowLevel != null) {
+					overflowLevel.advanceClock(currentTick);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A doubly linked list of timers with the tick at which the timers have to be looked at again.
+	 */
+	private final class Bucket {
+
+		/** The sentinel of the list. */
+		private final WheelTimer root = new WheelTimer();
+
+		private long expiration = Long.MIN_VALUE;
+
+		Bucket() {
+			root.previous = root;
+			root.next = root;
+		}
+
+		boolean isEmpty() {
+			return root.next == root;
+		}
+
+		void add(WheelTimer timer) {
+			timer.bucket = this;
+			timer.previous = root.previous;
+			timer.next = root;
+			root.previous.next = timer;
+			root.previous = timer;
+		}
+
+		void remove(WheelTimer timer) {
+			timer.previous.next = timer.next;
+			timer.next.previous = timer.previous;
+			timer.bucket = null;
+			timer.previous = null;
+			timer.next = null;
+		}
+
+		/**
+		 * Sets the expiration of the bucket.
+		 *
+		 * @return true, if the expiration changed and the bucket has to be put into the queue of expiring buckets.
+		 */
+		boolean setExpiration(long expiration) {
+			if (this.expiration == expiration) {
+				return false;
+			}
+			this.expiration = expiration;
+			return true;
+		}
+
+		/**
+		 * Removes all timers from the bucket and resets its expiration, before passing them to the consumer.
+		 */
+		void flush(Consumer<WheelTimer> consumer) {
+			WheelTimer timer = root.next;
+			root.previous = root;
+			root.next = root;
+			expiration = Long.MIN_VALUE;
+
+			while (timer != root) {
+				final WheelTimer next = timer.next;
+				timer.bucket = null;
+				timer.previous = null;
+				timer.next = null;
+				consumer.accept(timer);
+				timer = next;
+			}
+		}
+	}
+
+	/**
+	 * A timer of the wheel, which is also the future that is returned when the timer is registered.
+	 */
+	private final class WheelTimer implements ScheduledFuture<Object> {
+
+		private final long timestamp;
+
+		/** The tick at which the timer fires. */
+		private final long tick;
+
+		private final ProcessingTimeCallback callback;
+
+		private int state = STATE_PENDING;
+
+		private Bucket bucket;
+
+		private WheelTimer previous;
+
+		private WheelTimer next;
+
+		WheelTimer(long timestamp, ProcessingTimeCallback callback) {
+			this.timestamp = timestamp;
+			this.tick = timestampToTick(timestamp);
+			this.callback = checkNotNull(callback);
+		}
+
+		/** Creates the sentinel of a {@link Bucket}. */
+		WheelTimer() {
+			this.timestamp = Long.MIN_VALUE;
+			this.tick = Long.MIN_VALUE;
+			this.callback = null;
+		}
+
+		@Override
+		public long getDelay(@Nonnull TimeUnit unit) {
+			return unit.convert(timestamp - timerService.getCurrentProcessingTime(), TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public int compareTo(@Nonnull Delayed other) {
+			return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			synchronized (lock) {
+				if (state != STATE_PENDING) {
+					return false;
+				}
+				state = STATE_CANCELLED;
+				if (bucket != null) {
+					bucket.remove(this);
+				}
+				return true;
+			}
+		}
+
+		@Override
+		public boolean isCancelled() {
+			synchronized (lock) {
+				return state == STATE_CANCELLED;
+			}
+		}
+
+		@Override
+		public boolean isDone() {
+			synchronized (lock) {
+				return state != STATE_PENDING;
+			}
+		}
+
+		@Override
+		public Object get() {
+			throw new UnsupportedOperationException("The timers of a timing wheel cannot be awaited.");
+		}
+
+		@Override
+		public Object get(long timeout, @Nonnull TimeUnit unit) {
+			throw new UnsupportedOperationException("The timers of a timing wheel cannot be awaited.");
+		}
+	}
+}
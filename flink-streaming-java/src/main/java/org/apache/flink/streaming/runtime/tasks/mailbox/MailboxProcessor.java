@@ -89,7 +89,7 @@ public class MailboxProcessor implements Closeable {
 	public MailboxProcessor(
 			MailboxDefaultAction mailboxDefaultAction,
 			StreamTaskActionExecutor actionExecutor) {
-		this(mailboxDefaultAction, new TaskMailboxImpl(Thread.currentThread()), actionExecutor);
+		this(mailboxDefaultAction, new MpscTaskMailbox(Thread.currentThread()), actionExecutor);
 	}
 
 	public MailboxProcessor(
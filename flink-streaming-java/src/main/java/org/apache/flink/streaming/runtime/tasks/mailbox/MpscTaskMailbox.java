@@ -0,0 +1,410 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.tasks.mailbox;
+
+import org.apache.flink.annotation.VisibleForTesting;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.apache.flink.streaming.runtime.tasks.mailbox.TaskMailbox.State.CLOSED;
+import static org.apache.flink.streaming.runtime.tasks.mailbox.TaskMailbox.State.OPEN;
+import static org.apache.flink.streaming.runtime.tasks.mailbox.TaskMailbox.State.QUIESCED;
+
+/**
+ * Implementation of {@link TaskMailbox} that lets the writers enqueue their mails into lock-free multi-producer /
+ * single-consumer queues instead of contending on a lock with each other and with the mailbox thread.
+ *
+ * <p>The mailbox thread moves the enqueued mails into thread-confined deques from which it takes them with the same
+ * priority and batch semantics as {@link TaskMailboxImpl}. Mails that other threads put as head are kept in a
+ * separate queue and are moved in front of all other mails. The mailbox thread only parks in {@link #take(int)} if no
+ * new mail has been enqueued, and writers only unpark it if it actually parked.
+ *
+ * <p>The lock is only used by {@link #runExclusively(Runnable)} and the lifecycle methods. Writers check a flag that
+ * is set while such an exclusive section runs and then fall back to taking the lock themselves.
+ */
+@ThreadSafe
+public class MpscTaskMailbox implements TaskMailbox {
+
+	/**
+	 * Lock for exclusive sections, i.e., {@link #runExclusively(Runnable)} and the lifecycle methods.
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * Mails put by {@link #put(Mail)}.
+	 */
+	private final MpscQueue queue = new MpscQueue();
+
+	/**
+	 * Mails put by {@link #putFirst(Mail)} from threads other than the mailbox thread.
+	 */
+	private final MpscQueue headQueue = new MpscQueue();
+
+	/**
+	 * The number of writers that currently enqueue a mail without holding the lock.
+	 */
+	private final AtomicInteger activeWriters = new AtomicInteger();
+
+	/**
+	 * True while an exclusive section runs, forcing the writers to take the lock.
+	 */
+	private volatile boolean exclusive;
+
+	/**
+	 * True while the mailbox thread is (about to be) parked in {@link #take(int)}.
+	 */
+	private volatile boolean waiting;
+
+	/**
+	 * The state of the mailbox in the lifecycle of open, quiesced, and closed. Only changed in an exclusive section.
+	 */
+	private volatile State state = OPEN;
+
+	/**
+	 * Reference to the thread that executes the mailbox mails.
+	 */
+	@Nonnull
+	private final Thread taskMailboxThread;
+
+	/**
+	 * Mails that have been moved out of the queues but are not part of the {@link #batch} yet. Only accessed by the
+	 * mailbox thread.
+	 */
+	private final Deque<Mail> pending = new ArrayDeque<>();
+
+	/**
+	 * The current batch of mails. A new batch can be created with {@link #createBatch()} and consumed with {@link
+	 * #tryTakeFromBatch()}.
+	 */
+	private final Deque<Mail> batch = new ArrayDeque<>();
+
+	public MpscTaskMailbox(@Nonnull final Thread taskMailboxThread) {
+		this.taskMailboxThread = taskMailboxThread;
+	}
+
+	@VisibleForTesting
+	public MpscTaskMailbox() {
+		this(Thread.currentThread());
+	}
+
+	@Override
+	public boolean isMailboxThread() {
+		return Thread.currentThread() == taskMailboxThread;
+	}
+
+	@Override
+	public boolean hasMail() {
+		checkIsMailboxThread();
+		return !batch.isEmpty() || !pending.isEmpty() || hasNewMail();
+	}
+
+	@Override
+	public Optional<Mail> tryTake(int priority) {
+		checkIsMailboxThread();
+		checkTakeStateConditions();
+		Mail head = takeOrNull(batch, priority);
+		if (head == null) {
+			fetchNewMail();
+			head = takeOrNull(pending, priority);
+		}
+		return Optional.ofNullable(head);
+	}
+
+	@Override
+	public @Nonnull Mail take(int priority) throws InterruptedException, IllegalStateException {
+		checkIsMailboxThread();
+		checkTakeStateConditions();
+		Mail head = takeOrNull(batch, priority);
+		if (head != null) {
+			return head;
+		}
+		while (true) {
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			fetchNewMail();
+			head = takeOrNull(pending, priority);
+			if (head != null) {
+				return head;
+			}
+			waiting = true;
+			try {
+				// writers enqueue before they check the flag, so either we see the new mail or they unpark us
+				if (!hasNewMail()) {
+					LockSupport.park(this);
+				}
+			} finally {
+				waiting = false;
+			}
+		}
+	}
+
+	//------------------------------------------------------------------------------------------------------------------
+
+	@Override
+	public boolean createBatch() {
+		checkIsMailboxThread();
+		fetchNewMail();
+		Mail mail;
+		while ((mail = pending.pollFirst()) != null) {
+			batch.addLast(mail);
+		}
+		return !batch.isEmpty();
+	}
+
+	@Override
+	public Optional<Mail> tryTakeFromBatch() {
+		checkIsMailboxThread();
+		checkTakeStateConditions();
+		return Optional.ofNullable(batch.pollFirst());
+	}
+
+	//------------------------------------------------------------------------------------------------------------------
+
+	@Override
+	public void put(@Nonnull Mail mail) {
+		enqueue(queue, mail);
+	}
+
+	@Override
+	public void putFirst(@Nonnull Mail mail) {
+		if (isMailboxThread()) {
+			checkPutStateConditions();
+			batch.addFirst(mail);
+		} else {
+			enqueue(headQueue, mail);
+		}
+	}
+
+	private void enqueue(MpscQueue target, Mail mail) {
+		activeWriters.incrementAndGet();
+		if (!exclusive) {
+			try {
+				checkPutStateConditions();
+				target.offer(mail);
+			} finally {
+				activeWriters.decrementAndGet();
+			}
+		} else {
+			activeWriters.decrementAndGet();
+			final ReentrantLock lock = this.lock;
+			lock.lock();
+			try {
+				checkPutStateConditions();
+				target.offer(mail);
+			} finally {
+				lock.unlock();
+			}
+		}
+		if (waiting) {
+			LockSupport.unpark(taskMailboxThread);
+		}
+	}
+
+	//------------------------------------------------------------------------------------------------------------------
+
+	private boolean hasNewMail() {
+		return !queue.isEmpty() || !headQueue.isEmpty();
+	}
+
+	/**
+	 * Moves all enqueued mails into {@link #pending}. Mails put as head are moved in front of all other mails, the
+	 * last one first.
+	 */
+	private void fetchNewMail() {
+		Mail mail;
+		while ((mail = queue.poll()) != null) {
+			pending.addLast(mail);
+		}
+		while ((mail = headQueue.poll()) != null) {
+			pending.addFirst(mail);
+		}
+	}
+
+	@Nullable
+	private Mail takeOrNull(Deque<Mail> queue, int priority) {
+		if (queue.isEmpty()) {
+			return null;
+		}
+
+		Iterator<Mail> iterator = queue.iterator();
+		while (iterator.hasNext()) {
+			Mail mail = iterator.next();
+			if (mail.getPriority() >= priority) {
+				iterator.remove();
+				return mail;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public List<Mail> drain() {
+		List<Mail> drainedMails = new ArrayList<>(batch);
+		batch.clear();
+		fetchNewMail();
+		drainedMails.addAll(pending);
+		pending.clear();
+		return drainedMails;
+	}
+
+	private void checkIsMailboxThread() {
+		if (!isMailboxThread()) {
+			throw new IllegalStateException(
+				"Illegal thread detected. This method must be called from inside the mailbox thread!");
+		}
+	}
+
+	private void checkPutStateConditions() {
+		final State state = this.state;
+		if (state != OPEN) {
+			throw new IllegalStateException("Mailbox is in state " + state + ", but is required to be in state " +
+				OPEN + " for put operations.");
+		}
+	}
+
+	private void checkTakeStateConditions() {
+		final State state = this.state;
+		if (state == CLOSED) {
+			throw new IllegalStateException("Mailbox is in state " + state + ", but is required to be in state " +
+				OPEN + " or " + QUIESCED + " for take operations.");
+		}
+	}
+
+	@Override
+	public void quiesce() {
+		checkIsMailboxThread();
+		runExclusively(() -> {
+			if (state == OPEN) {
+				state = QUIESCED;
+			}
+		});
+	}
+
+	@Nonnull
+	@Override
+	public List<Mail> close() {
+		checkIsMailboxThread();
+		final List<Mail> droppedMails = new ArrayList<>();
+		runExclusively(() -> {
+			if (state != CLOSED) {
+				droppedMails.addAll(drain());
+				state = CLOSED;
+			}
+		});
+		return droppedMails.isEmpty() ? Collections.emptyList() : droppedMails;
+	}
+
+	@Nonnull
+	@Override
+	public State getState() {
+		return state;
+	}
+
+	@Override
+	public void runExclusively(Runnable runnable) {
+		final ReentrantLock lock = this.lock;
+		lock.lock();
+		final boolean wasExclusive = exclusive;
+		try {
+			exclusive = true;
+			// writers increment the counter before they check the flag, so either they see the flag or we see them
+			while (activeWriters.get() > 0) {
+				Thread.yield();
+			}
+			runnable.run();
+		} finally {
+			exclusive = wasExclusive;
+			lock.unlock();
+		}
+	}
+
+	// ------------------------------------------------------------------------
+	//  Queue
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Unbounded, intrusive multi-producer / single-consumer queue of mails. Producers swap themselves in as the new
+	 * tail and then link the previous tail to their node, so {@link #offer(Mail)} never blocks or retries.
+	 */
+	private static final class MpscQueue {
+
+		private final AtomicReference<Node> tail;
+
+		/** The last consumed node, only accessed by the consumer. */
+		private Node head;
+
+		MpscQueue() {
+			this.head = new Node(null);
+			this.tail = new AtomicReference<>(head);
+		}
+
+		void offer(Mail mail) {
+			final Node node = new Node(mail);
+			tail.getAndSet(node).next = node;
+		}
+
+		@Nullable
+		Mail poll() {
+			Node next = head.next;
+			if (next == null) {
+				if (tail.get() == head) {
+					return null;
+				}
+				// a producer has swapped the tail but not yet linked its node
+				while ((next = head.next) == null) {
+					Thread.yield();
+				}
+			}
+			final Mail mail = next.mail;
+			next.mail = null;
+			head = next;
+			return mail;
+		}
+
+		boolean isEmpty() {
+			return tail.get() == head;
+		}
+	}
+
+	private static final class Node {
+
+		private Mail mail;
+
+		private volatile Node next;
+
+		Node(Mail mail) {
+			this.mail = mail;
+		}
+	}
+}
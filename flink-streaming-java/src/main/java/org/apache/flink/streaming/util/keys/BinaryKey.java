@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.util.keys;
+
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.api.common.typeinfo.TypeInfo;
+import org.apache.flink.util.StringUtils;
+
+import java.util.Arrays;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * A key in its serialized form, as produced by the binary key mode of
+ * {@link org.apache.flink.streaming.api.datastream.DataStream#keyByBinary(int...)}.
+ *
+ * <p>Two binary keys are equal if their bytes are equal. The hash code is a murmur hash over the
+ * bytes, which is computed once per key and used by the partitioner, the key group assignment of
+ * the keyed state backends and the timer services alike. Since the key is kept in its serialized
+ * form, the keyed state backends serialize it by copying the bytes.
+ *
+ * <p>The bytes are owned by the key and must not be modified.
+ */
+@PublicEvolving
+@TypeInfo(BinaryKeyTypeInfo.Factory.class)
+public final class BinaryKey implements Comparable<BinaryKey> {
+
+	private static final int SEED = 0x2f1b6c3d;
+
+	private static final int C1 = 0xcc9e2d51;
+
+	private static final int C2 = 0x1b873593;
+
+	private final byte[] bytes;
+
+	/** The cached hash code, zero if it has not been computed yet. */
+	private int hash;
+
+	public BinaryKey(byte[] bytes) {
+		this.bytes = checkNotNull(bytes);
+	}
+
+	/**
+	 * Gets the serialized key. The returned array must not be modified.
+	 */
+	public byte[] getBytes() {
+		return bytes;
+	}
+
+	public int getLength() {
+		return bytes.length;
+	}
+
+	@Override
+	public int hashCode() {
+		int h = hash;
+		if (h == 0) {
+			h = murmurHash(bytes);
+			hash = h;
+		}
+		return h;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || obj.getClass() != BinaryKey.class) {
+			return false;
+		}
+		BinaryKey that = (BinaryKey) obj;
+		return (hash == 0 || that.hash == 0 || hash == that.hash) && Arrays.equals(bytes, that.bytes);
+	}
+
+	/**
+	 * Compares the keys lexicographically by their unsigned bytes.
+	 */
+	@Override
+	public int compareTo(BinaryKey other) {
+		byte[] otherBytes = other.bytes;
+		int length = Math.min(bytes.length, otherBytes.length);
+		for (int i = 0; i < length; i++) {
+			int cmp = (bytes[i] & 0xff) - (otherBytes[i] & 0xff);
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		return bytes.length - otherBytes.length;
+	}
+
+	@Override
+	public String toString() {
+		return "BinaryKey{" + StringUtils.byteToHexString(bytes) + '}';
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Computes the 32 bit murmur3 hash of the given bytes.
+	 */
+	static int murmurHash(byte[] bytes) {
+		final int length = bytes.length;
+		int h = SEED;
+		int i = 0;
+
+		for (; i + 4 <= length; i += 4) {
+			int k = (bytes[i] & 0xff)
+				| (bytes[i + 1] & 0xff) << 8
+				| (bytes[i + 2] & 0xff) << 16
+				| (bytes[i + 3] & 0xff) << 24;
+			h ^= mixK(k);
+			h = Integer.rotateLeft(h, 13);
+			h = h * 5 + 0xe6546b64;
+		}
+
+		int remaining = length - i;
+		if (remaining > 0) {
+			int k = bytes[i] & 0xff;
+			if (remaining > 1) {
+				k |= (bytes[i + 1] & 0xff) << 8;
+			}
+			if (remaining > 2) {
+				k |= (bytes[i + 2] & 0xff) << 16;
+			}
+			h ^= mixK(k);
+		}
+
+		h ^= length;
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+	private static int mixK(int k) {
+		k *= C1;
+		k = Integer.rotateLeft(k, 15);
+		return k * C2;
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.util.keys;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.api.common.typeutils.SimpleTypeSerializerSnapshot;
+import org.apache.flink.api.common.typeutils.TypeSerializerSnapshot;
+import org.apache.flink.api.common.typeutils.base.TypeSerializerSingleton;
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputView;
+
+import java.io.IOException;
+
+/**
+ * Serializer for {@link BinaryKey}. Since binary keys are already serialized, the serializer only
+ * writes the length and copies the bytes.
+ */
+@Internal
+public final class BinaryKeySerializer extends TypeSerializerSingleton<BinaryKey> {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final BinaryKey EMPTY = new BinaryKey(new byte[0]);
+
+	public static final BinaryKeySerializer INSTANCE = new BinaryKeySerializer();
+
+	@Override
+	public boolean isImmutableType() {
+		return true;
+	}
+
+	@Override
+	public BinaryKey createInstance() {
+		return EMPTY;
+	}
+
+	@Override
+	public BinaryKey copy(BinaryKey from) {
+		return from;
+	}
+
+	@Override
+	public BinaryKey copy(BinaryKey from, BinaryKey reuse) {
+		return from;
+	}
+
+	@Override
+	public int getLength() {
+		return -1;
+	}
+
+	@Override
+	public void serialize(BinaryKey record, DataOutputView target) throws IOException {
+		byte[] bytes = record.getBytes();
+		target.writeInt(bytes.length);
+		target.write(bytes);
+	}
+
+	@Override
+	public BinaryKey deserialize(DataInputView source) throws IOException {
+		byte[] bytes = new byte[source.readInt()];
+		source.readFully(bytes);
+		return new BinaryKey(bytes);
+	}
+
+	@Override
+	public BinaryKey deserialize(BinaryKey reuse, DataInputView source) throws IOException {
+		return deserialize(source);
+	}
+
+	@Override
+	public void copy(DataInputView source, DataOutputView target) throws IOException {
+		int length = source.readInt();
+		target.writeInt(length);
+		target.write(source, length);
+	}
+
+	@Override
+	public TypeSerializerSnapshot<BinaryKey> snapshotConfiguration() {
+		return new BinaryKeySerializerSnapshot();
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Serializer configuration snapshot for compatibility and format evolution.
+	 */
+	@SuppressWarnings("WeakerAccess")
+	public static final class BinaryKeySerializerSnapshot extends SimpleTypeSerializerSnapshot<BinaryKey> {
+
+		public BinaryKeySerializerSnapshot() {
+			super(() -> INSTANCE);
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.util.keys;
+
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeinfo.TypeInfoFactory;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+
+/**
+ * Type information for {@link BinaryKey}.
+ */
+@PublicEvolving
+public final class BinaryKeyTypeInfo extends TypeInformation<BinaryKey> {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final BinaryKeyTypeInfo INSTANCE = new BinaryKeyTypeInfo();
+
+	private BinaryKeyTypeInfo() {}
+
+	@Override
+	public boolean isBasicType() {
+		return false;
+	}
+
+	@Override
+	public boolean isTupleType() {
+		return false;
+	}
+
+	@Override
+	public int getArity() {
+		return 1;
+	}
+
+	@Override
+	public int getTotalFields() {
+		return 1;
+	}
+
+	@Override
+	public Class<BinaryKey> getTypeClass() {
+		return BinaryKey.class;
+	}
+
+	@Override
+	public boolean isKeyType() {
+		return true;
+	}
+
+	@Override
+	public TypeSerializer<BinaryKey> createSerializer(ExecutionConfig config) {
+		return BinaryKeySerializer.INSTANCE;
+	}
+
+	@Override
+	public String toString() {
+		return "BinaryKey";
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof BinaryKeyTypeInfo;
+	}
+
+	@Override
+	public int hashCode() {
+		return BinaryKeyTypeInfo.class.hashCode();
+	}
+
+	@Override
+	public boolean canEqual(Object obj) {
+		return obj instanceof BinaryKeyTypeInfo;
+	}
+
+	private Object readResolve() {
+		return INSTANCE;
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Type information factory that is referenced by the {@link BinaryKey} class, so that key
+	 * selectors which return binary keys are typed without further hints.
+	 */
+	public static final class Factory extends TypeInfoFactory<BinaryKey> {
+
+		@Override
+		public TypeInformation<BinaryKey> createTypeInfo(Type t, Map<String, TypeInformation<?>> genericParameters) {
+			return INSTANCE;
+		}
+	}
+}
@@ -27,11 +27,18 @@ import org.apache.flink.api.common.typeinfo.PrimitiveArrayTypeInfo;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.api.common.typeutils.CompositeType;
 import org.apache.flink.api.common.typeutils.TypeComparator;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.api.java.functions.KeySelector;
 import org.apache.flink.api.java.tuple.Tuple;
+import org.apache.flink.api.java.typeutils.GenericTypeInfo;
+import org.apache.flink.api.java.typeutils.MapTypeInfo;
 import org.apache.flink.api.java.typeutils.ResultTypeQueryable;
 import org.apache.flink.api.java.typeutils.TupleTypeInfo;
+import org.apache.flink.core.memory.DataOutputSerializer;
 
+import javax.annotation.Nullable;
+
+import java.io.IOException;
 import java.lang.reflect.Array;
 import java.util.Arrays;
 
@@ -65,6 +72,63 @@ public final class KeySelectorUtil {
 		return new ComparableKeySelector<>(comparator, numKeyFields, new TupleTypeInfo<>(typeInfos));
 	}
 
+	/**
+	 * Creates a key selector that extracts the given key fields directly into their serialized form,
+	 * a {@link BinaryKey}. The key fields must have a deterministic serialized form, which rules out
+	 * generic types that are serialized with Kryo and maps, also if they are nested in the key fields.
+	 */
+	public static <X> BinaryKeySelector<X> getBinarySelectorForKeys(Keys<X> keys, TypeInformation<X> typeInfo, ExecutionConfig executionConfig) {
+		if (!(typeInfo instanceof CompositeType)) {
+			throw new InvalidTypesException(
+					"This key operation requires a composite type such as Tuples, POJOs, or Case Classes.");
+		}
+
+		CompositeType<X> compositeType = (CompositeType<X>) typeInfo;
+
+		int[] logicalKeyPositions = keys.computeLogicalKeyPositions();
+		int numKeyFields = logicalKeyPositions.length;
+
+		TypeInformation<?>[] typeInfos = keys.getKeyFieldTypes();
+		TypeSerializer<?>[] fieldSerializers = new TypeSerializer<?>[numKeyFields];
+		for (int i = 0; i < numKeyFields; i++) {
+			TypeInformation<?> nonDeterministicType = findNonDeterministicType(typeInfos[i]);
+			if (nonDeterministicType != null) {
+				throw new InvalidTypesException("Binary keys cannot contain the type " + nonDeterministicType
+						+ " in the key field " + typeInfos[i] + ", because its serialized form is not guaranteed to be deterministic.");
+			}
+			fieldSerializers[i] = typeInfos[i].createSerializer(executionConfig);
+		}
+
+		boolean[] orders = new boolean[numKeyFields];
+		Arrays.fill(orders, true);
+
+		TypeComparator<X> comparator = compositeType.createComparator(logicalKeyPositions, orders, 0, executionConfig);
+		return new BinaryKeySelector<>(comparator, fieldSerializers);
+	}
+
+	/**
+	 * Returns the first type within the given type, including the type itself, whose serialized
+	 * form is not guaranteed to be deterministic, or null if there is none. Generic types are
+	 * serialized with Kryo, and maps are serialized in the iteration order of their entries.
+	 */
+	@Nullable
+	private static TypeInformation<?> findNonDeterministicType(TypeInformation<?> typeInfo) {
+		if (typeInfo instanceof GenericTypeInfo || typeInfo instanceof MapTypeInfo) {
+			return typeInfo;
+		} else if (typeInfo instanceof CompositeType) {
+			CompositeType<?> compositeType = (CompositeType<?>) typeInfo;
+			for (int i = 0; i < compositeType.getArity(); i++) {
+				TypeInformation<?> nonDeterministicType = findNonDeterministicType(compositeType.getTypeAt(i));
+				if (nonDeterministicType != null) {
+					return nonDeterministicType;
+				}
+			}
+			return null;
+		} else {
+			return null;
+		}
+	}
+
 	public static <X> ArrayKeySelector<X> getSelectorForArray(int[] positions, TypeInformation<X> typeInfo) {
 		if (positions == null || positions.length == 0 || positions.length > Tuple.MAX_ARITY) {
 			throw new IllegalArgumentException("Array keys must have between 1 and " + Tuple.MAX_ARITY + " fields.");
@@ -200,6 +264,58 @@ public final class KeySelectorUtil {
 
 	// ------------------------------------------------------------------------
 
+	/**
+	 * A key selector that extracts the key fields via a TypeComparator and serializes them into a
+	 * {@link BinaryKey}. The key fields are extracted into a reused array and serialized into a
+	 * reused buffer, so the only allocations per record are the bytes of the key and the key itself.
+	 *
+	 * @param <IN> The type from which the key is extracted.
+	 */
+	public static final class BinaryKeySelector<IN> implements KeySelector<IN, BinaryKey>, ResultTypeQueryable<BinaryKey> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final TypeComparator<IN> comparator;
+
+		private final TypeSerializer<Object>[] fieldSerializers;
+
+		/** Reusable array to hold the key objects. Since this is initially empty (all positions
+		 * are null), it does not have any serialization problems */
+		@SuppressWarnings("NonSerializableFieldInSerializableClass")
+		private final Object[] keyArray;
+
+		/** Reusable buffer for the serialized key. */
+		private transient DataOutputSerializer keyBuffer;
+
+		@SuppressWarnings("unchecked")
+		BinaryKeySelector(TypeComparator<IN> comparator, TypeSerializer<?>[] fieldSerializers) {
+			this.comparator = comparator;
+			this.fieldSerializers = (TypeSerializer<Object>[]) fieldSerializers;
+			this.keyArray = new Object[fieldSerializers.length];
+		}
+
+		@Override
+		public BinaryKey getKey(IN value) throws IOException {
+			if (keyBuffer == null) {
+				keyBuffer = new DataOutputSerializer(64);
+			}
+
+			comparator.extractKeys(value, keyArray, 0);
+			keyBuffer.clear();
+			for (int i = 0; i < fieldSerializers.length; i++) {
+				fieldSerializers[i].serialize(keyArray[i], keyBuffer);
+			}
+			return new BinaryKey(keyBuffer.getCopyOfBuffer());
+		}
+
+		@Override
+		public TypeInformation<BinaryKey> getProducedType() {
+			return BinaryKeyTypeInfo.INSTANCE;
+		}
+	}
+
+	// ------------------------------------------------------------------------
+
 	/**
 	 * A key selector for selecting individual array fields as keys and returns them as a Tuple.
 	 *
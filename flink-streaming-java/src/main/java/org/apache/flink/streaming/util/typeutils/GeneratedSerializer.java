@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.util.typeutils;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.common.typeutils.TypeSerializerSnapshot;
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputView;
+
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Base class of the serializers that the {@link SerializerCodeGenerator} generates for POJO and
+ * tuple types. A generated serializer writes and reads the same format as the serializer it was
+ * generated from, the original serializer, but accesses the fields of the records directly and
+ * inlines the serialization of primitive and string fields.
+ *
+ * <p>The generated classes exist only in the JVM that compiled them. A generated serializer is
+ * therefore serialized as its original serializer plus its source code, and compiled again when
+ * it is deserialized. If the compilation fails, the original serializer is used instead.
+ *
+ * <p>Generated serializers return the snapshot of their original serializer, but are not
+ * compatible with it. They must not be used as serializers of state.
+ *
+ * @param <T> The type of the records.
+ */
+@Internal
+public abstract class GeneratedSerializer<T> extends TypeSerializer<T> {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The serializer that this serializer was generated from. */
+	protected final TypeSerializer<T> originalSerializer;
+
+	/** The serializers of the fields, which may themselves be generated serializers. */
+	protected final TypeSerializer<Object>[] fieldSerializers;
+
+	private final String className;
+
+	private final String code;
+
+	@SuppressWarnings("unchecked")
+	protected GeneratedSerializer(
+			TypeSerializer<T> originalSerializer,
+			TypeSerializer<?>[] fieldSerializers,
+			String className,
+			String code) {
+		this.originalSerializer = checkNotNull(originalSerializer);
+		this.fieldSerializers = (TypeSerializer<Object>[]) checkNotNull(fieldSerializers);
+		this.className = checkNotNull(className);
+		this.code = checkNotNull(code);
+	}
+
+	public TypeSerializer<T> getOriginalSerializer() {
+		return originalSerializer;
+	}
+
+	String getClassName() {
+		return className;
+	}
+
+	String getCode() {
+		return code;
+	}
+
+	/**
+	 * Returns the original serializer if the given serializer is a generated serializer, or the
+	 * given serializer otherwise.
+	 */
+	public static <T> TypeSerializer<T> unwrap(TypeSerializer<T> serializer) {
+		return serializer instanceof GeneratedSerializer
+			? ((GeneratedSerializer<T>) serializer).originalSerializer
+			: serializer;
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Methods that are not performance critical, delegated to the original serializer
+	// --------------------------------------------------------------------------------------------
+
+	@Override
+	public boolean isImmutableType() {
+		return originalSerializer.isImmutableType();
+	}
+
+	@Override
+	public TypeSerializer<T> duplicate() {
+		TypeSerializer<T> duplicateOriginalSerializer = originalSerializer.duplicate();
+		boolean stateful = duplicateOriginalSerializer != originalSerializer;
+
+		TypeSerializer<?>[] duplicateFieldSerializers = new TypeSerializer[fieldSerializers.length];
+		for (int i = 0; i < fieldSerializers.length; i++) {
+			duplicateFieldSerializers[i] = fieldSerializers[i].duplicate();
+			if (duplicateFieldSerializers[i] != fieldSerializers[i]) {
+				stateful = true;
+			}
+		}
+
+		if (!stateful) {
+			return this;
+		}
+
+		try {
+			@SuppressWarnings("unchecked")
+			TypeSerializer<T> duplicate = getClass()
+				.getConstructor(TypeSerializer.class, TypeSerializer[].class, String.class, String.class)
+				.newInstance(duplicateOriginalSerializer, duplicateFieldSerializers, className, code);
+			return duplicate;
+		} catch (Exception e) {
+			throw new RuntimeException("Could not duplicate the generated serializer " + className + '.', e);
+		}
+	}
+
+	@Override
+	public int getLength() {
+		return originalSerializer.getLength();
+	}
+
+	@Override
+	public void copy(DataInputView source, DataOutputView target) throws IOException {
+		originalSerializer.copy(source, target);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj != null
+			&& obj.getClass() == getClass()
+			&& originalSerializer.equals(((GeneratedSerializer<?>) obj).originalSerializer);
+	}
+
+	@Override
+	public int hashCode() {
+		return originalSerializer.hashCode();
+	}
+
+	@Override
+	public TypeSerializerSnapshot<T> snapshotConfiguration() {
+		return originalSerializer.snapshotConfiguration();
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Utilities for the generated code
+	// --------------------------------------------------------------------------------------------
+
+	protected static Object getField(Field field, Object record) {
+		try {
+			return field.get(record);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException("Error during POJO access, this should not happen since we check the fields before.", e);
+		}
+	}
+
+	protected static void setField(Field field, Object record, Object value) {
+		try {
+			field.set(record, value);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException("Error during POJO access, this should not happen since we check the fields before.", e);
+		}
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Java Serialization
+	// --------------------------------------------------------------------------------------------
+
+	protected final Object writeReplace() throws ObjectStreamException {
+		return new SerializationProxy<>(originalSerializer, fieldSerializers, className, code);
+	}
+
+	/**
+	 * The serialized form of a generated serializer, which compiles the serializer again when it
+	 * is deserialized.
+	 */
+	private static final class SerializationProxy<T> implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final TypeSerializer<T> originalSerializer;
+		private final TypeSerializer<?>[] fieldSerializers;
+		private final String className;
+		private final String code;
+
+		SerializationProxy(
+				TypeSerializer<T> originalSerializer,
+				TypeSerializer<?>[] fieldSerializers,
+				String className,
+				String code) {
+			this.originalSerializer = originalSerializer;
+			this.fieldSerializers = fieldSerializers;
+			this.className = className;
+			this.code = code;
+		}
+
+		private Object readResolve() throws ObjectStreamException {
+			return SerializerCodeGenerator.instantiate(originalSerializer, fieldSerializers, className, code);
+		}
+	}
+}
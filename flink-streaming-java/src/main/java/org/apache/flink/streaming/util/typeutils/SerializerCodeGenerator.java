@@ -0,0 +1,671 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.util.typeutils;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.common.typeutils.base.BooleanSerializer;
+import org.apache.flink.api.common.typeutils.base.ByteSerializer;
+import org.apache.flink.api.common.typeutils.base.CharSerializer;
+import org.apache.flink.api.common.typeutils.base.DoubleSerializer;
+import org.apache.flink.api.common.typeutils.base.FloatSerializer;
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.api.common.typeutils.base.LongSerializer;
+import org.apache.flink.api.common.typeutils.base.ShortSerializer;
+import org.apache.flink.api.common.typeutils.base.StringSerializer;
+import org.apache.flink.api.java.typeutils.runtime.PojoSerializer;
+import org.apache.flink.api.java.typeutils.runtime.TupleSerializer;
+import org.apache.flink.util.ExceptionUtils;
+
+import org.apache.flink.shaded.guava18.com.google.common.cache.Cache;
+import org.apache.flink.shaded.guava18.com.google.common.cache.CacheBuilder;
+
+import org.codehaus.janino.SimpleCompiler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Generates specialized serializers for POJO and tuple types, which replace the reflective field
+ * accesses and the loops over the field serializers of the {@link PojoSerializer} and the
+ * {@link TupleSerializer} with unrolled code, and inline the serialization and copying of
+ * primitive and string fields. The generated serializers are compiled with Janino, which is an
+ * optional dependency.
+ *
+ * <p>A generated serializer writes the same format as the serializer it was generated from.
+ * Subclasses of POJO types and POJO fields that can neither be accessed directly nor through
+ * public getters and setters are handled like in the original serializer.
+ */
+@Internal
+public final class SerializerCodeGenerator {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SerializerCodeGenerator.class);
+
+	/** The flag with which the {@link PojoSerializer} marks records that are not subclasses. */
+	private static final int POJO_NO_SUBCLASS = 2;
+
+	private static final String DATA_INPUT_VIEW = "org.apache.flink.core.memory.DataInputView";
+	private static final String DATA_OUTPUT_VIEW = "org.apache.flink.core.memory.DataOutputView";
+	private static final String TYPE_SERIALIZER = TypeSerializer.class.getName();
+
+	private static final boolean JANINO_AVAILABLE = isJaninoAvailable();
+
+	private SerializerCodeGenerator() {}
+
+	/**
+	 * Generates a serializer for the type of the given serializer, if it is a {@link PojoSerializer}
+	 * or a {@link TupleSerializer}. The serializers of POJO and tuple fields are generated as well.
+	 *
+	 * @return the generated serializer, or the given serializer if no serializer could be generated.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> TypeSerializer<T> generateSerializer(TypeSerializer<T> serializer) {
+		if (!JANINO_AVAILABLE) {
+			return serializer;
+		}
+
+		final TypeSerializer<?>[] fieldSerializers;
+		final String className;
+		final String code;
+		if (serializer.getClass() == PojoSerializer.class) {
+			PojoSerializer<T> pojoSerializer = (PojoSerializer<T>) serializer;
+			fieldSerializers = generateSerializers(pojoSerializer.getFieldSerializers());
+			className = generateClassName("Pojo", pojoSerializer.getPojoClass());
+			code = generatePojoSerializerCode(className, pojoSerializer, fieldSerializers);
+		} else if (serializer.getClass() == TupleSerializer.class) {
+			TupleSerializer<?> tupleSerializer = (TupleSerializer<?>) serializer;
+			fieldSerializers = generateSerializers(tupleSerializer.getFieldSerializers());
+			className = generateClassName("Tuple", tupleSerializer.getTupleClass());
+			code = generateTupleSerializerCode(className, tupleSerializer.getTupleClass(), fieldSerializers);
+		} else {
+			return serializer;
+		}
+
+		if (code == null) {
+			LOG.debug("Could not generate a serializer for {}.", serializer);
+			return serializer;
+		}
+		return instantiate(serializer, fieldSerializers, className, code);
+	}
+
+	/**
+	 * Compiles the given serializer code and instantiates the serializer. Falls back to the given
+	 * original serializer if the code cannot be compiled, for example, because Janino is not on the
+	 * classpath.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> TypeSerializer<T> instantiate(
+			TypeSerializer<T> originalSerializer,
+			TypeSerializer<?>[] fieldSerializers,
+			String className,
+			String code) {
+
+		try {
+			Class<?> serializerClass = Compiler.compile(getClassLoader(originalSerializer), className, code);
+			return (TypeSerializer<T>) serializerClass
+				.getConstructor(TypeSerializer.class, TypeSerializer[].class, String.class, String.class)
+				.newInstance(originalSerializer, fieldSerializers, className, code);
+		} catch (Throwable t) {
+			ExceptionUtils.rethrowIfFatalErrorOrOOM(t);
+			LOG.warn("Could not compile the generated serializer {}, using {} instead.", className, originalSerializer, t);
+			return originalSerializer;
+		}
+	}
+
+	private static TypeSerializer<?>[] generateSerializers(TypeSerializer<?>[] serializers) {
+		TypeSerializer<?>[] generatedSerializers = new TypeSerializer<?>[serializers.length];
+		for (int i = 0; i < serializers.length; i++) {
+			generatedSerializers[i] = generateSerializer(serializers[i]);
+		}
+		return generatedSerializers;
+	}
+
+	private static ClassLoader getClassLoader(TypeSerializer<?> serializer) {
+		Class<?> recordClass = serializer instanceof PojoSerializer
+			? ((PojoSerializer<?>) serializer).getPojoClass()
+			: ((TupleSerializer<?>) serializer).getTupleClass();
+
+		// the class loader must see both the record class and the generated serializer base class
+		ClassLoader classLoader = recordClass.getClassLoader();
+		return classLoader != null ? classLoader : SerializerCodeGenerator.class.getClassLoader();
+	}
+
+	private static boolean isJaninoAvailable() {
+		try {
+			Class.forName("org.codehaus.janino.SimpleCompiler", false, SerializerCodeGenerator.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			LOG.info("Janino is not on the classpath, serializers will not be generated.");
+			return false;
+		}
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// POJO serializers
+	// --------------------------------------------------------------------------------------------
+
+	private static String generatePojoSerializerCode(
+			String className,
+			PojoSerializer<?> serializer,
+			TypeSerializer<?>[] fieldSerializers) {
+
+		final Class<?> pojoClass = serializer.getPojoClass();
+		final Field[] fields = serializer.getFields();
+		if (!isInstantiable(pojoClass)) {
+			return null;
+		}
+
+		final FieldAccess[] accesses = new FieldAccess[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			if (fields[i] == null) {
+				// fields that were removed from a restored POJO type
+				return null;
+			}
+			accesses[i] = createPojoFieldAccess(pojoClass, fields, i);
+		}
+
+		final String pojoType = typeName(pojoClass);
+		final StringBuilder code = new StringBuilder();
+		appendClassHeader(code, className, fieldSerializers);
+		code.append("\t\tthis.fields = ((").append(PojoSerializer.class.getName()).append(") originalSerializer).getFields();\n")
+			.append("\t}\n\n");
+
+		// copy
+		code.append("\tpublic Object copy(Object from) {\n")
+			.append("\t\tif (from == null || from.getClass() != ").append(pojoType).append(".class) {\n")
+			.append("\t\t\treturn originalSerializer.copy(from);\n")
+			.append("\t\t}\n")
+			.append("\t\t").append(pojoType).append(" f = (").append(pojoType).append(") from;\n")
+			.append("\t\t").append(pojoType).append(" r = new ").append(pojoType).append("();\n");
+		for (int i = 0; i < accesses.length; i++) {
+			FieldAccess access = accesses[i];
+			if (isImmutable(fieldSerializers[i], access)) {
+				code.append("\t\t").append(access.set("r", access.get("f"))).append('\n');
+			} else {
+				code.append("\t\t{\n")
+					.append("\t\t\tObject v = ").append(access.get("f")).append(";\n")
+					.append("\t\t\t").append(access.set("r", "v == null ? null : s" + i + ".copy(v)")).append('\n')
+					.append("\t\t}\n");
+			}
+		}
+		code.append("\t\treturn r;\n")
+			.append("\t}\n\n");
+
+		// copy with reuse
+		code.append("\tpublic Object copy(Object from, Object reuse) {\n")
+			.append("\t\tif (from == null || reuse == null || from.getClass() != ").append(pojoType)
+			.append(".class || reuse.getClass() != ").append(pojoType).append(".class) {\n")
+			.append("\t\t\treturn originalSerializer.copy(from, reuse);\n")
+			.append("\t\t}\n")
+			.append("\t\t").append(pojoType).append(" f = (").append(pojoType).append(") from;\n")
+			.append("\t\t").append(pojoType).append(" r = (").append(pojoType).append(") reuse;\n");
+		for (int i = 0; i < accesses.length; i++) {
+			FieldAccess access = accesses[i];
+			if (isImmutable(fieldSerializers[i], access)) {
+				code.append("\t\t").append(access.set("r", access.get("f"))).append('\n');
+			} else {
+				code.append("\t\t{\n")
+					.append("\t\t\tObject v = ").append(access.get("f")).append(";\n")
+					.append("\t\t\tif (v == null) {\n")
+					.append("\t\t\t\t").append(access.set("r", "null")).append('\n')
+					.append("\t\t\t} else {\n")
+					.append("\t\t\t\tObject o = ").append(access.get("r")).append(";\n")
+					.append("\t\t\t\t").append(access.set("r", "o != null ? s" + i + ".copy(v, o) : s" + i + ".copy(v)")).append('\n')
+					.append("\t\t\t}\n")
+					.append("\t\t}\n");
+			}
+		}
+		code.append("\t\treturn r;\n")
+			.append("\t}\n\n");
+
+		// serialize
+		code.append("\tpublic void serialize(Object value, ").append(DATA_OUTPUT_VIEW).append(" target) throws java.io.IOException {\n")
+			.append("\t\tif (value == null || value.getClass() != ").append(pojoType).append(".class) {\n")
+			.append("\t\t\toriginalSerializer.serialize(value, target);\n")
+			.append("\t\t\treturn;\n")
+			.append("\t\t}\n")
+			.append("\t\t").append(pojoType).append(" r = (").append(pojoType).append(") value;\n")
+			.append("\t\ttarget.writeByte(").append(POJO_NO_SUBCLASS).append(");\n");
+		for (int i = 0; i < accesses.length; i++) {
+			FieldAccess access = accesses[i];
+			InlinedType inlinedType = InlinedType.of(fieldSerializers[i], access.type);
+			if (access.type.isPrimitive() && inlinedType != null) {
+				code.append("\t\ttarget.writeBoolean(false);\n")
+					.append("\t\t").append(inlinedType.write(access.get("r"))).append('\n');
+			} else {
+				String variableType = inlinedType != null ? typeName(inlinedType.boxedType) : "Object";
+				String write = inlinedType != null ? inlinedType.write(inlinedType.unbox("v")) : "s" + i + ".serialize(v, target);";
+				code.append("\t\t{\n")
+					.append("\t\t\t").append(variableType).append(" v = (").append(variableType).append(") ").append(access.get("r")).append(";\n")
+					.append("\t\t\tif (v == null) {\n")
+					.append("\t\t\t\ttarget.writeBoolean(true);\n")
+					.append("\t\t\t} else {\n")
+					.append("\t\t\t\ttarget.writeBoolean(false);\n")
+					.append("\t\t\t\t").append(write).append('\n')
+					.append("\t\t\t}\n")
+					.append("\t\t}\n");
+			}
+		}
+		code.append("\t}\n\n");
+
+		// deserialize, with and without reuse
+		for (boolean withReuse : new boolean[] {false, true}) {
+			code.append("\tpublic Object deserialize(").append(withReuse ? "Object reuse, " : "")
+				.append(DATA_INPUT_VIEW).append(" source) throws java.io.IOException {\n")
+				.append("\t\tint flags = source.readByte();\n")
+				.append("\t\tif (flags != ").append(POJO_NO_SUBCLASS).append(") {\n")
+				.append("\t\t\treturn ((").append(PojoSerializer.class.getName()).append(") originalSerializer).deserializeWithFlags(flags, source);\n")
+				.append("\t\t}\n");
+			if (withReuse) {
+				code.append("\t\t").append(pojoType).append(" r = reuse != null && reuse.getClass() == ").append(pojoType)
+					.append(".class ? (").append(pojoType).append(") reuse : new ").append(pojoType).append("();\n");
+			} else {
+				code.append("\t\t").append(pojoType).append(" r = new ").append(pojoType).append("();\n");
+			}
+			for (int i = 0; i < accesses.length; i++) {
+				FieldAccess access = accesses[i];
+				InlinedType inlinedType = InlinedType.of(fieldSerializers[i], access.type);
+				if (access.type.isPrimitive() && inlinedType != null) {
+					code.append("\t\tif (!source.readBoolean()) {\n")
+						.append("\t\t\t").append(access.set("r", inlinedType.read())).append('\n')
+						.append("\t\t}\n");
+					continue;
+				}
+
+				code.append("\t\tif (source.readBoolean()) {\n")
+					.append("\t\t\t").append(access.set("r", "null")).append('\n')
+					.append("\t\t} else {\n");
+				if (inlinedType != null) {
+					code.append("\t\t\t").append(access.set("r", inlinedType.box(inlinedType.read()))).append('\n');
+				} else if (withReuse) {
+					code.append("\t\t\tObject o = ").append(access.get("r")).append(";\n")
+						.append("\t\t\t").append(access.set("r", "o != null ? s" + i + ".deserialize(o, source) : s" + i + ".deserialize(source)")).append('\n');
+				} else {
+					code.append("\t\t\t").append(access.set("r", "s" + i + ".deserialize(source)")).append('\n');
+				}
+				code.append("\t\t}\n");
+			}
+			code.append("\t\treturn r;\n")
+				.append("\t}\n\n");
+		}
+
+		code.append("}\n");
+		return code.toString();
+	}
+
+	/**
+	 * Accesses a POJO field directly if it is public, through its getter and setter if they are
+	 * public, and through reflection otherwise.
+	 */
+	private static FieldAccess createPojoFieldAccess(Class<?> pojoClass, Field[] fields, int index) {
+		final Field field = fields[index];
+		final String name = field.getName();
+		final Class<?> type = field.getType();
+
+		if (isAccessible(type)) {
+			boolean isHidden = false;
+			for (Field other : fields) {
+				isHidden |= other != field && name.equals(other.getName());
+			}
+
+			int modifiers = field.getModifiers();
+			if (Modifier.isPublic(modifiers) && !Modifier.isFinal(modifiers)
+					&& isAccessible(field.getDeclaringClass()) && !isHidden) {
+				return new FieldAccess(
+					type,
+					record -> record + '.' + name,
+					(record, value) -> record + '.' + name + " = " + value + ';');
+			}
+
+			Method getter = null;
+			Method setter = null;
+			String normalizedName = name.replaceAll("_", "");
+			for (Method method : pojoClass.getMethods()) {
+				if (!isAccessible(method.getDeclaringClass())) {
+					continue;
+				}
+				String methodName = method.getName();
+				if ((methodName.equalsIgnoreCase("get" + normalizedName) || methodName.equalsIgnoreCase("is" + normalizedName))
+						&& method.getParameterCount() == 0 && method.getReturnType() == type) {
+					getter = method;
+				} else if (methodName.equalsIgnoreCase("set" + normalizedName) && method.getParameterCount() == 1
+						&& method.getParameterTypes()[0] == type && method.getReturnType() == void.class) {
+					setter = method;
+				}
+			}
+			if (getter != null && setter != null) {
+				final String getterName = getter.getName();
+				final String setterName = setter.getName();
+				return new FieldAccess(
+					type,
+					record -> record + '.' + getterName + "()",
+					(record, value) -> record + '.' + setterName + '(' + value + ");");
+			}
+		}
+
+		return new FieldAccess(
+			Object.class,
+			record -> "getField(fields[" + index + "], " + record + ')',
+			(record, value) -> "setField(fields[" + index + "], " + record + ", " + value + ");");
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Tuple serializers
+	// --------------------------------------------------------------------------------------------
+
+	private static String generateTupleSerializerCode(
+			String className,
+			Class<?> tupleClass,
+			TypeSerializer<?>[] fieldSerializers) {
+
+		if (!isInstantiable(tupleClass)) {
+			return null;
+		}
+
+		// the fields of tuples have generic types, their erasure is Object
+		final FieldAccess[] accesses = new FieldAccess[fieldSerializers.length];
+		for (int i = 0; i < fieldSerializers.length; i++) {
+			final String name = "f" + i;
+			accesses[i] = new FieldAccess(
+				Object.class,
+				record -> record + '.' + name,
+				(record, value) -> record + '.' + name + " = " + value + ';');
+		}
+
+		final String tupleType = typeName(tupleClass);
+		final StringBuilder code = new StringBuilder();
+		appendClassHeader(code, className, fieldSerializers);
+		code.append("\t}\n\n");
+
+		// copy, with and without reuse
+		for (boolean withReuse : new boolean[] {false, true}) {
+			code.append("\tpublic Object copy(Object from").append(withReuse ? ", Object reuse" : "").append(") {\n")
+				.append("\t\tif (from == null) {\n")
+				.append("\t\t\treturn null;\n")
+				.append("\t\t}\n")
+				.append("\t\t").append(tupleType).append(" f = (").append(tupleType).append(") from;\n")
+				.append("\t\t").append(tupleType).append(" r = ")
+				.append(withReuse ? "(" + tupleType + ") reuse" : "new " + tupleType + "()").append(";\n");
+			for (int i = 0; i < accesses.length; i++) {
+				FieldAccess access = accesses[i];
+				String copy;
+				if (isImmutable(fieldSerializers[i], access)) {
+					copy = access.get("f");
+				} else if (withReuse) {
+					copy = "s" + i + ".copy(" + access.get("f") + ", " + access.get("r") + ')';
+				} else {
+					copy = "s" + i + ".copy(" + access.get("f") + ')';
+				}
+				code.append("\t\t").append(access.set("r", copy)).append('\n');
+			}
+			code.append("\t\treturn r;\n")
+				.append("\t}\n\n");
+		}
+
+		// serialize
+		code.append("\tpublic void serialize(Object value, ").append(DATA_OUTPUT_VIEW).append(" target) throws java.io.IOException {\n")
+			.append("\t\t").append(tupleType).append(" r = (").append(tupleType).append(") value;\n");
+		for (int i = 0; i < accesses.length; i++) {
+			FieldAccess access = accesses[i];
+			InlinedType inlinedType = InlinedType.of(fieldSerializers[i], access.type);
+			String write = inlinedType != null
+				? inlinedType.write(inlinedType.unbox("((" + typeName(inlinedType.boxedType) + ") " + access.get("r") + ')'))
+				: "s" + i + ".serialize(" + access.get("r") + ", target);";
+			code.append("\t\ttry {\n")
+				.append("\t\t\t").append(write).append('\n')
+				.append("\t\t} catch (NullPointerException e) {\n")
+				.append("\t\t\tthrow new org.apache.flink.types.NullFieldException(").append(i).append(", e);\n")
+				.append("\t\t}\n");
+		}
+		code.append("\t}\n\n");
+
+		// deserialize, with and without reuse
+		for (boolean withReuse : new boolean[] {false, true}) {
+			code.append("\tpublic Object deserialize(").append(withReuse ? "Object reuse, " : "")
+				.append(DATA_INPUT_VIEW).append(" source) throws java.io.IOException {\n")
+				.append("\t\t").append(tupleType).append(" r = ")
+				.append(withReuse ? "(" + tupleType + ") reuse" : "new " + tupleType + "()").append(";\n");
+			for (int i = 0; i < accesses.length; i++) {
+				FieldAccess access = accesses[i];
+				InlinedType inlinedType = InlinedType.of(fieldSerializers[i], access.type);
+				String read;
+				if (inlinedType != null) {
+					read = inlinedType.box(inlinedType.read());
+				} else if (withReuse) {
+					read = "s" + i + ".deserialize(" + access.get("r") + ", source)";
+				} else {
+					read = "s" + i + ".deserialize(source)";
+				}
+				code.append("\t\t").append(access.set("r", read)).append('\n');
+			}
+			code.append("\t\treturn r;\n")
+				.append("\t}\n\n");
+		}
+
+		code.append("}\n");
+		return code.toString();
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Utilities
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * Appends the class declaration, the fields, and the beginning of the constructor, which is
+	 * completed by the caller.
+	 */
+	private static void appendClassHeader(StringBuilder code, String className, TypeSerializer<?>[] fieldSerializers) {
+		code.append("public final class ").append(className)
+			.append(" extends ").append(GeneratedSerializer.class.getName()).append(" {\n\n")
+			.append("\tprivate java.lang.reflect.Field[] fields;\n");
+		for (int i = 0; i < fieldSerializers.length; i++) {
+			code.append("\tprivate final ").append(TYPE_SERIALIZER).append(" s").append(i).append(";\n");
+		}
+		code.append('\n')
+			.append("\tpublic Object createInstance() {\n")
+			.append("\t\treturn originalSerializer.createInstance();\n")
+			.append("\t}\n\n")
+			.append("\tpublic ").append(className).append('(')
+			.append(TYPE_SERIALIZER).append(" originalSerializer, ")
+			.append(TYPE_SERIALIZER).append("[] fieldSerializers, String className, String code) {\n")
+			.append("\t\tsuper(originalSerializer, fieldSerializers, className, code);\n");
+		for (int i = 0; i < fieldSerializers.length; i++) {
+			code.append("\t\tthis.s").append(i).append(" = fieldSerializers[").append(i).append("];\n");
+		}
+	}
+
+	private static String generateClassName(String kind, Class<?> recordClass) {
+		return "Generated" + kind + "Serializer$" + recordClass.getName().replaceAll("[^a-zA-Z0-9_]", "_");
+	}
+
+	private static boolean isImmutable(TypeSerializer<?> serializer, FieldAccess access) {
+		return access.type.isPrimitive() || serializer.isImmutableType();
+	}
+
+	private static boolean isInstantiable(Class<?> clazz) {
+		if (!isAccessible(clazz) || clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())) {
+			return false;
+		}
+		try {
+			clazz.getConstructor();
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Checks whether the generated code can refer to the class by its name.
+	 */
+	private static boolean isAccessible(Class<?> clazz) {
+		while (clazz.isArray()) {
+			clazz = clazz.getComponentType();
+		}
+		if (clazz.isPrimitive()) {
+			return true;
+		}
+		if (clazz.getCanonicalName() == null) {
+			return false;
+		}
+		for (Class<?> c = clazz; c != null; c = c.getEnclosingClass()) {
+			if (!Modifier.isPublic(c.getModifiers())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String typeName(Class<?> clazz) {
+		return clazz.getCanonicalName();
+	}
+
+	/**
+	 * Generates the code that reads and writes a field of the record in the given variable.
+	 */
+	private static final class FieldAccess {
+
+		/** The declared type of the field, or Object for reflective accesses. */
+		final Class<?> type;
+
+		private final Function<String, String> getter;
+
+		private final BiFunction<String, String, String> setter;
+
+		FieldAccess(Class<?> type, Function<String, String> getter, BiFunction<String, String, String> setter) {
+			this.type = type;
+			this.getter = getter;
+			this.setter = setter;
+		}
+
+		String get(String record) {
+			return getter.apply(record);
+		}
+
+		String set(String record, String value) {
+			return type.isPrimitive()
+				? setter.apply(record, value)
+				: setter.apply(record, "(" + typeName(type) + ") (" + value + ')');
+		}
+	}
+
+	/**
+	 * The types whose serializers are inlined into the generated code.
+	 */
+	private enum InlinedType {
+		BOOLEAN(BooleanSerializer.class, boolean.class, Boolean.class, "Boolean"),
+		BYTE(ByteSerializer.class, byte.class, Byte.class, "Byte"),
+		SHORT(ShortSerializer.class, short.class, Short.class, "Short"),
+		CHAR(CharSerializer.class, char.class, Character.class, "Char"),
+		INT(IntSerializer.class, int.class, Integer.class, "Int"),
+		LONG(LongSerializer.class, long.class, Long.class, "Long"),
+		FLOAT(FloatSerializer.class, float.class, Float.class, "Float"),
+		DOUBLE(DoubleSerializer.class, double.class, Double.class, "Double"),
+		STRING(StringSerializer.class, null, String.class, null);
+
+		private final Class<?> serializerClass;
+		private final Class<?> primitiveType;
+		final Class<?> boxedType;
+		private final String dataViewSuffix;
+
+		InlinedType(Class<?> serializerClass, Class<?> primitiveType, Class<?> boxedType, String dataViewSuffix) {
+			this.serializerClass = serializerClass;
+			this.primitiveType = primitiveType;
+			this.boxedType = boxedType;
+			this.dataViewSuffix = dataViewSuffix;
+		}
+
+		/**
+		 * Returns the inlined type of a field with the given serializer and declared type, or null
+		 * if the serializer is not inlined.
+		 */
+		static InlinedType of(TypeSerializer<?> serializer, Class<?> fieldType) {
+			for (InlinedType inlinedType : values()) {
+				if (serializer.getClass() == inlinedType.serializerClass) {
+					boolean matches = fieldType.isPrimitive()
+						? fieldType == inlinedType.primitiveType
+						: fieldType.isAssignableFrom(inlinedType.boxedType);
+					return matches ? inlinedType : null;
+				}
+			}
+			return null;
+		}
+
+		String write(String value) {
+			return dataViewSuffix != null
+				? "target.write" + dataViewSuffix + '(' + value + ");"
+				: "org.apache.flink.types.StringValue.writeString(" + value + ", target);";
+		}
+
+		String read() {
+			return dataViewSuffix != null
+				? "source.read" + dataViewSuffix + "()"
+				: "org.apache.flink.types.StringValue.readString(source)";
+		}
+
+		String box(String primitiveValue) {
+			return primitiveType != null
+				? typeName(boxedType) + ".valueOf(" + primitiveValue + ')'
+				: primitiveValue;
+		}
+
+		String unbox(String boxedValue) {
+			return primitiveType != null
+				? boxedValue + '.' + primitiveType.getName() + "Value()"
+				: boxedValue;
+		}
+	}
+
+	/**
+	 * Compiles the generated serializers. The compiled classes are cached, because Janino creates a
+	 * new class loader and class for every compilation.
+	 *
+	 * <p>A compiled class references the class loader that it has been compiled against through the
+	 * class loader of Janino, so the classes are only weakly referenced. Otherwise, they would keep
+	 * their weakly referenced keys, i.e. the user code class loaders of finished jobs, alive. A class
+	 * stays cached as long as serializers of it are in use.
+	 */
+	@VisibleForTesting
+	static final class Compiler {
+
+		private static final Cache<String, Cache<ClassLoader, Class<?>>> COMPILED_CACHE = CacheBuilder
+			.newBuilder()
+			.maximumSize(100)
+			.build();
+
+		static Class<?> compile(ClassLoader classLoader, String className, String code) throws Exception {
+			Cache<ClassLoader, Class<?>> compiledClasses = COMPILED_CACHE.get(code,
+				() -> CacheBuilder.newBuilder().maximumSize(5).weakKeys().weakValues().build());
+			return compiledClasses.get(classLoader, () -> doCompile(classLoader, className, code));
+		}
+
+		private static Class<?> doCompile(ClassLoader classLoader, String className, String code) throws Exception {
+			LOG.debug("Compiling generated serializer {}:\n{}", className, code);
+			SimpleCompiler compiler = new SimpleCompiler();
+			compiler.setParentClassLoader(classLoader);
+			compiler.cook(code);
+			return compiler.getClassLoader().loadClass(className);
+		}
+	}
+}
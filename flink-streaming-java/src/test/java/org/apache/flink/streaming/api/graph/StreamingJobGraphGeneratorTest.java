@@ -27,6 +27,7 @@ import org.apache.flink.api.common.io.OutputFormat;
 import org.apache.flink.api.common.operators.ResourceSpec;
 import org.apache.flink.api.common.operators.util.UserCodeWrapper;
 import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
+import org.apache.flink.api.common.typeinfo.TypeHint;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.api.java.io.DiscardingOutputFormat;
 import org.apache.flink.api.java.io.TypeSerializerInputFormat;
@@ -52,6 +53,8 @@ import org.apache.flink.streaming.api.datastream.IterativeStream;
 import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.streaming.api.environment.CheckpointConfig;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.streaming.api.functions.ObjectReuseAnnotation;
+import org.apache.flink.streaming.api.functions.sink.DiscardingSink;
 import org.apache.flink.streaming.api.functions.sink.SinkFunction;
 import org.apache.flink.streaming.api.functions.source.InputFormatSourceFunction;
 import org.apache.flink.streaming.api.functions.source.ParallelSourceFunction;
@@ -61,6 +64,7 @@ import org.apache.flink.streaming.runtime.partitioner.ForwardPartitioner;
 import org.apache.flink.streaming.runtime.partitioner.RebalancePartitioner;
 import org.apache.flink.streaming.runtime.partitioner.RescalePartitioner;
 import org.apache.flink.streaming.util.TestAnyModeReadingStreamOperator;
+import org.apache.flink.streaming.util.typeutils.GeneratedSerializer;
 import org.apache.flink.util.Collector;
 import org.apache.flink.util.TestLogger;
 
@@ -80,6 +84,7 @@ import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -224,6 +229,110 @@ public class StreamingJobGraphGeneratorTest extends TestLogger {
 		assertTrue(printConfig.isChainEnd());
 	}
 
+	/**
+	 * Verifies that chained edges do not copy records if the functions declare it to be safe through
+	 * the {@link ObjectReuseAnnotation}.
+	 */
+	@Test
+	public void testChainedInputCopyElision() {
+		StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+		env.setParallelism(2);
+
+		// fromElements -> CHAIN(head -> exclusive -> readOnly -> plain -> sink)
+		DataStream<Integer> head = env.fromElements(1, 2, 3)
+			.map(new IdentityMapper()).name("head");
+		head
+			.map(new ExclusiveOutputMapper()).name("exclusive")
+			.filter(new ReadOnlyInputFilter()).name("readOnly")
+			.map(new IdentityMapper()).name("plain")
+			.addSink(new ReadOnlyInputSink()).name("sink");
+
+		// CHAIN(source -> readOnly1, readOnly2)
+		DataStream<Integer> source = env.addSource(new ExclusiveOutputSource()).name("source");
+		source.filter(new ReadOnlyInputFilter()).name("readOnly1");
+		source.filter(new ReadOnlyInputFilter()).name("readOnly2");
+
+		JobGraph jobGraph = StreamingJobGraphGenerator.createJobGraph(env.getStreamGraph());
+
+		Map<String, StreamConfig> chainedConfigs = new HashMap<>();
+		for (JobVertex vertex : jobGraph.getVertices()) {
+			StreamConfig config = new StreamConfig(vertex.getConfiguration());
+			for (StreamConfig chainedConfig : config.getTransitiveChainedTaskConfigs(getClass().getClassLoader()).values()) {
+				chainedConfigs.put(chainedConfig.getOperatorName(), chainedConfig);
+			}
+		}
+
+		// neither the head nor the exclusive output mapper declare anything for their edge
+		assertFalse(chainedConfigs.get("exclusive").isChainedInputCopyElided());
+		assertTrue(chainedConfigs.get("readOnly").isChainedInputCopyElided());
+		// a filter forwards its input, so it cannot declare exclusive output
+		assertFalse(chainedConfigs.get("plain").isChainedInputCopyElided());
+		assertTrue(chainedConfigs.get("Sink: sink").isChainedInputCopyElided());
+
+		// the records of the source are passed to two operators
+		assertFalse(chainedConfigs.get("readOnly1").isChainedInputCopyElided());
+		assertFalse(chainedConfigs.get("readOnly2").isChainedInputCopyElided());
+	}
+
+	@Test
+	public void testGeneratedRecordSerializers() {
+		StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+		env.getConfig().enableGeneratedSerializers();
+
+		env.fromElements(Tuple2.of(1, "a"), Tuple2.of(2, "b"))
+			.rebalance()
+			.map(value -> value).returns(new TypeHint<Tuple2<Integer, String>>() {})
+			.addSink(new DiscardingSink<>());
+
+		JobGraph jobGraph = StreamingJobGraphGenerator.createJobGraph(env.getStreamGraph());
+		List<JobVertex> vertices = jobGraph.getVerticesSortedTopologicallyFromSources();
+		StreamConfig sourceConfig = new StreamConfig(vertices.get(0).getConfiguration());
+		StreamConfig mapConfig = new StreamConfig(vertices.get(1).getConfiguration());
+
+		ClassLoader classLoader = getClass().getClassLoader();
+		assertThat(sourceConfig.getTypeSerializerOut(classLoader), instanceOf(GeneratedSerializer.class));
+		assertThat(mapConfig.getTypeSerializerIn1(classLoader), instanceOf(GeneratedSerializer.class));
+	}
+
+	private static class IdentityMapper implements MapFunction<Integer, Integer> {
+		@Override
+		public Integer map(Integer value) {
+			return value;
+		}
+	}
+
+	@ObjectReuseAnnotation.ExclusiveOutput
+	private static class ExclusiveOutputMapper implements MapFunction<Integer, Integer> {
+		@Override
+		public Integer map(Integer value) {
+			return new Integer(value + 1);
+		}
+	}
+
+	@ObjectReuseAnnotation.ReadOnlyInput
+	private static class ReadOnlyInputFilter implements FilterFunction<Integer> {
+		@Override
+		public boolean filter(Integer value) {
+			return value > 1;
+		}
+	}
+
+	@ObjectReuseAnnotation.ReadOnlyInput
+	private static class ReadOnlyInputSink implements SinkFunction<Integer> {
+	}
+
+	@ObjectReuseAnnotation.ExclusiveOutput
+	private static class ExclusiveOutputSource implements ParallelSourceFunction<Integer> {
+		@Override
+		public void run(SourceContext<Integer> ctx) {
+			ctx.collect(new Integer(1));
+		}
+
+		@Override
+		public void cancel() {
+		}
+	}
+
 	/**
 	 * Verifies that the resources are merged correctly for chained operators (covers source and sink cases)
 	 * when generating job graph.
@@ -668,6 +777,17 @@ public class StreamingJobGraphGeneratorTest extends TestLogger {
 		StreamingJobGraphGenerator.createJobGraph(env.getStreamGraph());
 	}
 
+	@Test(expected = UnsupportedOperationException.class)
+	public void testNotSupportSharedBroadcastStateIfCheckpointingAtLeastOnce() {
+		StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+		env.enableCheckpointing(60_000L, CheckpointingMode.AT_LEAST_ONCE);
+		env.getConfig().enableSharedBroadcastState();
+
+		env.fromElements("1").print();
+
+		StreamingJobGraphGenerator.createJobGraph(env.getStreamGraph());
+	}
+
 	@Test
 	public void testManagedMemoryFractionForSpecifiedResourceSpec() throws Exception {
 		// these specific values are needed to produce the double precision issue,
@@ -41,8 +41,10 @@ import org.mockito.stubbing.Answer;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -92,6 +94,7 @@ public class InternalTimerServiceImplTest {
 
 		InternalTimerServiceImpl<Integer, String> service = createInternalTimerService(
 			testKeyGroupList,
+			128,
 			keyContext,
 			processingTimeService,
 			IntSerializer.INSTANCE,
@@ -120,6 +123,7 @@ public class InternalTimerServiceImplTest {
 
 		InternalTimerServiceImpl<Integer, String> timerService = createInternalTimerService(
 			keyGroupRange,
+			totalNoOfKeyGroups,
 			keyContext,
 			new TestProcessingTimeService(),
 			IntSerializer.INSTANCE,
@@ -504,6 +508,94 @@ public class InternalTimerServiceImplTest {
 		assertEquals(0, timerService.numEventTimeTimers());
 	}
 
+	/**
+	 * Verifies that the event-time timers are handed over to a {@link BatchTriggerable} per key, in the order
+	 * of the key-groups, and that timers which are registered while firing are fired in a later batch.
+	 */
+	@Test
+	public void testFireEventTimeTimersInBatches() throws Exception {
+		TestKeyContext keyContext = new TestKeyContext();
+		RecordingBatchTriggerable triggerable = new RecordingBatchTriggerable(keyContext);
+		InternalTimerServiceImpl<Integer, String> timerService =
+			createAndStartInternalTimerService(triggerable, keyContext, new TestProcessingTimeService(), testKeyGroupRange, createQueueFactory());
+		triggerable.timerService = timerService;
+
+		Set<Integer> keys = new HashSet<>();
+		for (int key = 0; keys.size() < 3; key++) {
+			if (testKeyGroupRange.contains(KeyGroupRangeAssignment.assignToKeyGroup(key, maxParallelism))) {
+				keys.add(key);
+			}
+		}
+
+		for (int key : keys) {
+			keyContext.setCurrentKey(key);
+			timerService.registerEventTimeTimer("hello", 20);
+			timerService.registerEventTimeTimer("chain", 10);
+			timerService.registerEventTimeTimer("hello", 5);
+			timerService.registerEventTimeTimer("hello", 30);
+		}
+
+		timerService.advanceWatermark(20);
+
+		// the first batches contain the timers that were due, one batch per key in the order of the key-groups
+		assertEquals(2 * keys.size(), triggerable.batches.size());
+		int previousKeyGroup = -1;
+		for (int i = 0; i < keys.size(); i++) {
+			Tuple3<Integer, Integer, List<InternalTimer<Integer, String>>> batch = triggerable.batches.get(i);
+			assertEquals(batch.f0, batch.f1);
+
+			int keyGroup = KeyGroupRangeAssignment.assignToKeyGroup(batch.f0, maxParallelism);
+			Assert.assertTrue(keyGroup >= previousKeyGroup);
+			previousKeyGroup = keyGroup;
+
+			assertEquals(Arrays.asList(
+				new TimerHeapInternalTimer<>(5, batch.f0, "hello"),
+				new TimerHeapInternalTimer<>(10, batch.f0, "chain"),
+				new TimerHeapInternalTimer<>(20, batch.f0, "hello")), batch.f2);
+		}
+
+		// the timers that were registered while firing follow
+		Set<Integer> keysOfChainedTimers = new HashSet<>();
+		for (int i = keys.size(); i < 2 * keys.size(); i++) {
+			Tuple3<Integer, Integer, List<InternalTimer<Integer, String>>> batch = triggerable.batches.get(i);
+			assertEquals(batch.f0, batch.f1);
+			assertEquals(Collections.singletonList(new TimerHeapInternalTimer<>(11, batch.f0, "chained")), batch.f2);
+			keysOfChainedTimers.add(batch.f0);
+		}
+		assertEquals(keys, keysOfChainedTimers);
+
+		assertEquals(keys.size(), timerService.numEventTimeTimers());
+		assertEquals(keys.size(), timerService.numEventTimeTimers("hello"));
+	}
+
+	/**
+	 * Verifies that the number of timers that are taken out of the queue at once is bounded.
+	 */
+	@Test
+	public void testBatchesOfEventTimeTimersAreBounded() throws Exception {
+		TestKeyContext keyContext = new TestKeyContext();
+		RecordingBatchTriggerable triggerable = new RecordingBatchTriggerable(keyContext);
+		InternalTimerServiceImpl<Integer, String> timerService =
+			createAndStartInternalTimerService(triggerable, keyContext, new TestProcessingTimeService(), testKeyGroupRange, createQueueFactory());
+		triggerable.timerService = timerService;
+
+		int key = getKeyInKeyGroupRange(testKeyGroupRange, maxParallelism);
+		keyContext.setCurrentKey(key);
+
+		int numTimers = InternalTimerServiceImpl.MAX_TIMERS_PER_BATCH + 10;
+		for (int i = 0; i < numTimers; i++) {
+			timerService.registerEventTimeTimer("hello", i);
+		}
+
+		timerService.advanceWatermark(numTimers);
+
+		assertEquals(2, triggerable.batches.size());
+		assertEquals(InternalTimerServiceImpl.MAX_TIMERS_PER_BATCH, triggerable.batches.get(0).f2.size());
+		assertEquals(10, triggerable.batches.get(1).f2.size());
+		assertEquals(InternalTimerServiceImpl.MAX_TIMERS_PER_BATCH, triggerable.batches.get(1).f2.get(0).getTimestamp());
+		assertEquals(0, timerService.numEventTimeTimers());
+	}
+
 	/**
 	 * This also verifies that we don't have leakage between keys/namespaces.
 	 *
@@ -860,6 +952,44 @@ public class InternalTimerServiceImplTest {
 		assertEquals(0, timerService2.numEventTimeTimers());
 	}
 
+	/**
+	 * A {@link BatchTriggerable} that records the batches of event-time timers as (key, current key, timers),
+	 * and registers a timer one millisecond later for each timer in the namespace "chain".
+	 */
+	private static class RecordingBatchTriggerable implements BatchTriggerable<Integer, String> {
+
+		private final KeyContext keyContext;
+
+		private final List<Tuple3<Integer, Integer, List<InternalTimer<Integer, String>>>> batches = new ArrayList<>();
+
+		private InternalTimerService<String> timerService;
+
+		RecordingBatchTriggerable(KeyContext keyContext) {
+			this.keyContext = keyContext;
+		}
+
+		@Override
+		public void onEventTimeBatch(Integer key, List<InternalTimer<Integer, String>> timers) {
+			batches.add(Tuple3.of(key, (Integer) keyContext.getCurrentKey(), new ArrayList<>(timers)));
+
+			for (InternalTimer<Integer, String> timer : timers) {
+				if (timer.getNamespace().equals("chain")) {
+					timerService.registerEventTimeTimer("chained", timer.getTimestamp() + 1);
+				}
+			}
+		}
+
+		@Override
+		public void onEventTime(InternalTimer<Integer, String> timer) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void onProcessingTime(InternalTimer<Integer, String> timer) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
 	private static class TestKeyContext implements KeyContext {
 
 		private Object key;
@@ -893,7 +1023,7 @@ public class InternalTimerServiceImplTest {
 		return result;
 	}
 
-	private static InternalTimerServiceImpl<Integer, String> createAndStartInternalTimerService(
+	private InternalTimerServiceImpl<Integer, String> createAndStartInternalTimerService(
 			Triggerable<Integer, String> triggerable,
 			KeyContext keyContext,
 			ProcessingTimeService processingTimeService,
@@ -901,6 +1031,7 @@ public class InternalTimerServiceImplTest {
 			PriorityQueueSetFactory priorityQueueSetFactory) {
 		InternalTimerServiceImpl<Integer, String> service = createInternalTimerService(
 			keyGroupList,
+			maxParallelism,
 			keyContext,
 			processingTimeService,
 			IntSerializer.INSTANCE,
@@ -911,7 +1042,7 @@ public class InternalTimerServiceImplTest {
 		return service;
 	}
 
-	private static InternalTimerServiceImpl<Integer, String> restoreTimerService(
+	private InternalTimerServiceImpl<Integer, String> restoreTimerService(
 			Map<Integer, byte[]> state,
 			int snapshotVersion,
 			Triggerable<Integer, String> triggerable,
@@ -923,6 +1054,7 @@ public class InternalTimerServiceImplTest {
 		// create an empty service
 		InternalTimerServiceImpl<Integer, String> service = createInternalTimerService(
 			keyGroupsList,
+			maxParallelism,
 			keyContext,
 			processingTimeService,
 			IntSerializer.INSTANCE,
@@ -975,6 +1107,7 @@ public class InternalTimerServiceImplTest {
 
 	private static <K, N> InternalTimerServiceImpl<K, N> createInternalTimerService(
 		KeyGroupRange keyGroupsList,
+		int totalKeyGroups,
 		KeyContext keyContext,
 		ProcessingTimeService processingTimeService,
 		TypeSerializer<K> keySerializer,
@@ -985,6 +1118,7 @@ public class InternalTimerServiceImplTest {
 
 		return new InternalTimerServiceImpl<>(
 			keyGroupsList,
+			totalKeyGroups,
 			keyContext,
 			processingTimeService,
 			createTimerQueue("__test_processing_timers", timerSerializer, priorityQueueSetFactory),
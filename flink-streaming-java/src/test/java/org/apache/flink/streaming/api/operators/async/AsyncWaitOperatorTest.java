@@ -41,7 +41,9 @@ import org.apache.flink.streaming.api.datastream.AsyncDataStream;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.streaming.api.functions.async.AsyncBatchFunction;
 import org.apache.flink.streaming.api.functions.async.AsyncFunction;
+import org.apache.flink.streaming.api.functions.async.BatchResultFuture;
 import org.apache.flink.streaming.api.functions.async.ResultFuture;
 import org.apache.flink.streaming.api.functions.async.RichAsyncFunction;
 import org.apache.flink.streaming.api.functions.sink.DiscardingSink;
@@ -940,6 +942,228 @@ public class AsyncWaitOperatorTest extends TestLogger {
 		assertThat(outputElements, Matchers.equalTo(expectedOutput));
 	}
 
+	/**
+	 * Tests that the batched AsyncWaitOperator invokes the function with full batches, with the pending batch on
+	 * watermarks, and with the pending batch on close.
+	 */
+	@Test
+	public void testBatchedOrdered() throws Exception {
+		testBatched(AsyncDataStream.OutputMode.ORDERED);
+	}
+
+	@Test
+	public void testBatchedUnordered() throws Exception {
+		testBatched(AsyncDataStream.OutputMode.UNORDERED);
+	}
+
+	private void testBatched(AsyncDataStream.OutputMode mode) throws Exception {
+		final DoublingAsyncBatchFunction function = new DoublingAsyncBatchFunction();
+		final OneInputStreamOperatorTestHarness<Integer, Integer> testHarness =
+			createBatchedTestHarness(function, TIMEOUT, 10, mode, 3, TIMEOUT);
+
+		testHarness.open();
+
+		synchronized (testHarness.getCheckpointLock()) {
+			for (int i = 1; i <= 4; i++) {
+				testHarness.processElement(new StreamRecord<>(i, i));
+			}
+			testHarness.processWatermark(new Watermark(4L));
+			for (int i = 5; i <= 9; i++) {
+				testHarness.processElement(new StreamRecord<>(i, i));
+			}
+		}
+
+		synchronized (testHarness.getCheckpointLock()) {
+			testHarness.close();
+		}
+
+		assertEquals(Arrays.asList(3, 1, 3, 2), function.batchSizes);
+
+		final ConcurrentLinkedQueue<Object> expectedOutput = new ConcurrentLinkedQueue<>();
+		for (int i = 1; i <= 4; i++) {
+			expectedOutput.add(new StreamRecord<>(2 * i, i));
+		}
+		expectedOutput.add(new Watermark(4L));
+		for (int i = 5; i <= 9; i++) {
+			expectedOutput.add(new StreamRecord<>(2 * i, i));
+		}
+
+		if (AsyncDataStream.OutputMode.ORDERED == mode) {
+			TestHarnessUtil.assertOutputEquals("Output was not correct.", expectedOutput, testHarness.getOutput());
+		} else {
+			Object[] jobOutputQueue = testHarness.getOutput().toArray();
+			Assert.assertEquals("Watermark should be at index 4", new Watermark(4L), jobOutputQueue[4]);
+
+			TestHarnessUtil.assertOutputEqualsSorted(
+				"Output for StreamRecords does not match",
+				expectedOutput,
+				testHarness.getOutput(),
+				new StreamRecordComparator());
+		}
+	}
+
+	/**
+	 * Tests that a pending batch is invoked once the batch timeout has passed.
+	 */
+	@Test
+	public void testBatchTimeout() throws Exception {
+		final DoublingAsyncBatchFunction function = new DoublingAsyncBatchFunction();
+		final OneInputStreamOperatorTestHarness<Integer, Integer> testHarness =
+			createBatchedTestHarness(function, TIMEOUT, 10, AsyncDataStream.OutputMode.ORDERED, 5, 10L);
+
+		testHarness.open();
+		testHarness.setProcessingTime(0L);
+
+		synchronized (testHarness.getCheckpointLock()) {
+			testHarness.processElement(new StreamRecord<>(1, 1L));
+			testHarness.processElement(new StreamRecord<>(2, 2L));
+		}
+		assertTrue(function.batchSizes.isEmpty());
+
+		testHarness.setProcessingTime(10L);
+		assertEquals(Collections.singletonList(2), function.batchSizes);
+
+		synchronized (testHarness.getCheckpointLock()) {
+			testHarness.close();
+		}
+
+		assertEquals(Collections.singletonList(2), function.batchSizes);
+		assertEquals(
+			Arrays.asList(new StreamRecord<>(2, 1L), new StreamRecord<>(4, 2L)),
+			new ArrayList<>(testHarness.getOutput()));
+	}
+
+	/**
+	 * Tests that the timer of a batch that has been invoked because it was full does not invoke the next batch.
+	 */
+	@Test
+	public void testBatchTimeoutOfInvokedBatch() throws Exception {
+		final DoublingAsyncBatchFunction function = new DoublingAsyncBatchFunction();
+		final OneInputStreamOperatorTestHarness<Integer, Integer> testHarness =
+			createBatchedTestHarness(function, TIMEOUT, 10, AsyncDataStream.OutputMode.ORDERED, 2, 10L);
+
+		testHarness.open();
+		testHarness.setProcessingTime(0L);
+
+		synchronized (testHarness.getCheckpointLock()) {
+			testHarness.processElement(new StreamRecord<>(1, 1L));
+			testHarness.processElement(new StreamRecord<>(2, 2L));
+		}
+		assertEquals(Collections.singletonList(2), function.batchSizes);
+
+		testHarness.setProcessingTime(5L);
+		synchronized (testHarness.getCheckpointLock()) {
+			testHarness.processElement(new StreamRecord<>(3, 3L));
+		}
+
+		// the timeout of the first batch has passed, but not the one of the second batch
+		testHarness.setProcessingTime(10L);
+		assertEquals(Collections.singletonList(2), function.batchSizes);
+
+		testHarness.setProcessingTime(15L);
+		assertEquals(Arrays.asList(2, 1), function.batchSizes);
+
+		synchronized (testHarness.getCheckpointLock()) {
+			testHarness.close();
+		}
+
+		assertEquals(
+			Arrays.asList(new StreamRecord<>(2, 1L), new StreamRecord<>(4, 2L), new StreamRecord<>(6, 3L)),
+			new ArrayList<>(testHarness.getOutput()));
+	}
+
+	/**
+	 * Tests that the results of batches that complete concurrently are applied and emitted in order.
+	 */
+	@Test
+	public void testConcurrentlyCompletedBatches() throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final DoublingAsyncBatchFunction function = new DoublingAsyncBatchFunction(executor);
+			final OneInputStreamOperatorTestHarness<Integer, Integer> testHarness =
+				createBatchedTestHarness(function, TIMEOUT, 16, AsyncDataStream.OutputMode.ORDERED, 4, TIMEOUT);
+
+			testHarness.open();
+
+			final ConcurrentLinkedQueue<Object> expectedOutput = new ConcurrentLinkedQueue<>();
+			synchronized (testHarness.getCheckpointLock()) {
+				for (int i = 0; i < 1000; i++) {
+					testHarness.processElement(new StreamRecord<>(i, i));
+					expectedOutput.add(new StreamRecord<>(2 * i, i));
+				}
+			}
+
+			synchronized (testHarness.getCheckpointLock()) {
+				testHarness.close();
+			}
+
+			TestHarnessUtil.assertOutputEquals("Output was not correct.", expectedOutput, testHarness.getOutput());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Tests that a batch completed with the wrong number of results fails the task.
+	 */
+	@Test
+	public void testBatchWithWrongNumberOfResults() throws Exception {
+		final OneInputStreamOperatorTestHarness<Integer, Integer> testHarness = createBatchedTestHarness(
+			(AsyncBatchFunction<Integer, Integer>) (inputs, resultFuture) ->
+				resultFuture.complete(Collections.singletonList(inputs)),
+			TIMEOUT,
+			10,
+			AsyncDataStream.OutputMode.ORDERED,
+			2,
+			TIMEOUT);
+
+		testHarness.getEnvironment().setExpectedExternalFailureCause(Throwable.class);
+		testHarness.open();
+
+		synchronized (testHarness.getCheckpointLock()) {
+			testHarness.processElement(new StreamRecord<>(1, 1L));
+			testHarness.processElement(new StreamRecord<>(2, 2L));
+		}
+
+		synchronized (testHarness.getCheckpointLock()) {
+			testHarness.close();
+		}
+
+		assertTrue(testHarness.getEnvironment().getActualExternalFailureCause().isPresent());
+		assertTrue(testHarness.getOutput().isEmpty());
+	}
+
+	private static class DoublingAsyncBatchFunction implements AsyncBatchFunction<Integer, Integer> {
+		private static final long serialVersionUID = 3384370284925873548L;
+
+		private final transient ExecutorService executor;
+
+		private final List<Integer> batchSizes = new ArrayList<>();
+
+		DoublingAsyncBatchFunction() {
+			this(null);
+		}
+
+		DoublingAsyncBatchFunction(ExecutorService executor) {
+			this.executor = executor;
+		}
+
+		@Override
+		public void asyncInvokeBatch(List<Integer> inputs, BatchResultFuture<Integer> resultFuture) {
+			batchSizes.add(inputs.size());
+
+			final Runnable completion = () -> resultFuture.complete(inputs.stream()
+				.map(input -> Collections.singleton(2 * input))
+				.collect(Collectors.toList()));
+
+			if (executor == null) {
+				completion.run();
+			} else {
+				executor.execute(completion);
+			}
+		}
+	}
+
 	private static class ControllableAsyncFunction<IN> implements AsyncFunction<IN, IN> {
 
 		private static final long serialVersionUID = -4214078239267288636L;
@@ -1009,4 +1233,17 @@ public class AsyncWaitOperatorTest extends TestLogger {
 			new AsyncWaitOperatorFactory<>(function, timeout, capacity, outputMode),
 			IntSerializer.INSTANCE);
 	}
+
+	private static <OUT> OneInputStreamOperatorTestHarness<Integer, OUT> createBatchedTestHarness(
+			AsyncBatchFunction<Integer, OUT> function,
+			long timeout,
+			int capacity,
+			AsyncDataStream.OutputMode outputMode,
+			int batchSize,
+			long batchTimeout) throws Exception {
+
+		return new OneInputStreamOperatorTestHarness<>(
+			new AsyncWaitOperatorFactory<>(function, timeout, capacity, outputMode, batchSize, batchTimeout),
+			IntSerializer.INSTANCE);
+	}
 }
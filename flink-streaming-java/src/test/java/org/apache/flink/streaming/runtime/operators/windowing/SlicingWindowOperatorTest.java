@@ -0,0 +1,331 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.operators.windowing;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.functions.AggregateFunction;
+import org.apache.flink.api.common.functions.ReduceFunction;
+import org.apache.flink.api.common.state.AggregatingStateDescriptor;
+import org.apache.flink.api.common.state.AppendingState;
+import org.apache.flink.api.common.state.ReducingStateDescriptor;
+import org.apache.flink.api.common.state.StateDescriptor;
+import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
+import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.runtime.checkpoint.OperatorSubtaskState;
+import org.apache.flink.streaming.api.functions.windowing.PassThroughWindowFunction;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.api.windowing.assigners.SlidingEventTimeWindows;
+import org.apache.flink.streaming.api.windowing.time.Time;
+import org.apache.flink.streaming.api.windowing.triggers.EventTimeTrigger;
+import org.apache.flink.streaming.api.windowing.windows.TimeWindow;
+import org.apache.flink.streaming.runtime.operators.windowing.functions.InternalSingleValueWindowFunction;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.KeyedOneInputStreamOperatorTestHarness;
+import org.apache.flink.util.OutputTag;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+
+/**
+ * Tests for {@link SlicingWindowOperator}, mostly by comparing it to a {@link WindowOperator} with the same
+ * {@link SlidingEventTimeWindows}.
+ */
+public class SlicingWindowOperatorTest extends TestLogger {
+
+	private static final TypeInformation<Tuple2<String, Integer>> STRING_INT_TUPLE =
+		TypeInformation.of(new TypeHint<Tuple2<String, Integer>>(){});
+
+	private static final OutputTag<Tuple2<String, Integer>> LATE_OUTPUT_TAG =
+		new OutputTag<Tuple2<String, Integer>>("late-data"){};
+
+	@Test
+	public void testSliceSize() {
+		Assert.assertEquals(1000L, createSlicingOperator(SlidingEventTimeWindows.of(Time.seconds(3), Time.seconds(1))).getSliceSize());
+		Assert.assertEquals(500L, createSlicingOperator(SlidingEventTimeWindows.of(Time.milliseconds(2500), Time.seconds(1))).getSliceSize());
+	}
+
+	@Test
+	public void testSlidingEventTimeWindowsReduce() throws Exception {
+		final KeyedOneInputStreamOperatorTestHarness<String, Tuple2<String, Integer>, Tuple2<String, Integer>> testHarness =
+			createTestHarness(createSlicingOperator(SlidingEventTimeWindows.of(Time.seconds(3), Time.seconds(1))));
+		testHarness.open();
+
+		testHarness.processElement(new StreamRecord<>(new Tuple2<>("key2", 1), 3999));
+		testHarness.processElement(new StreamRecord<>(new Tuple2<>("key2", 1), 3000));
+		testHarness.processElement(new StreamRecord<>(new Tuple2<>("key1", 1), 20));
+		testHarness.processElement(new StreamRecord<>(new Tuple2<>("key1", 1), 0));
+		testHarness.processElement(new StreamRecord<>(new Tuple2<>("key1", 1), 999));
+		testHarness.processElement(new StreamRecord<>(new Tuple2<>("key2", 1), 1998));
+		testHarness.processElement(new StreamRecord<>(new Tuple2<>("key2", 1), 1999));
+		testHarness.processElement(new StreamRecord<>(new Tuple2<>("key2", 1), 1000));
+
+		// there is only a timer for the first window of each slice
+		Assert.assertEquals(3, testHarness.numEventTimeTimers());
+
+		testHarness.processWatermark(new Watermark(999));
+		testHarness.processWatermark(new Watermark(1999));
+		testHarness.processWatermark(new Watermark(2999));
+		testHarness.processWatermark(new Watermark(3999));
+		testHarness.processWatermark(new Watermark(4999));
+		testHarness.processWatermark(new Watermark(5999));
+
+		final List<String> expectedOutput = Arrays.asList(
+			"key1=3@999", "key1=3@1999", "key1=3@2999",
+			"key2=3@1999", "key2=3@2999", "key2=5@3999", "key2=2@4999", "key2=2@5999");
+		Collections.sort(expectedOutput);
+		Assert.assertEquals(expectedOutput, sortedRecords(testHarness.extractOutputStreamRecords()));
+
+		// all slices and timers are cleaned up
+		Assert.assertEquals(0, testHarness.numKeyedStateEntries());
+		Assert.assertEquals(0, testHarness.numEventTimeTimers());
+
+		testHarness.close();
+	}
+
+	@Test
+	public void testRandomInputMatchesWindowOperatorWithReduce() throws Exception {
+		final SlidingEventTimeWindows windowAssigner = SlidingEventTimeWindows.of(Time.seconds(10), Time.seconds(4), Time.seconds(1));
+		testRandomInputMatchesWindowOperator(
+			createReducingOperator(windowAssigner, 3000L, false),
+			createReducingOperator(windowAssigner, 3000L, true));
+	}
+
+	@Test
+	public void testRandomInputMatchesWindowOperatorWithAggregate() throws Exception {
+		final SlidingEventTimeWindows windowAssigner = SlidingEventTimeWindows.of(Time.seconds(6), Time.seconds(2));
+		testRandomInputMatchesWindowOperator(
+			createAggregatingOperator(windowAssigner, 0L, false),
+			createAggregatingOperator(windowAssigner, 0L, true));
+	}
+
+	private void testRandomInputMatchesWindowOperator(
+		WindowOperator<String, Tuple2<String, Integer>, Tuple2<String, Integer>, Tuple2<String, Integer>, TimeWindow> windowOperator,
+		WindowOperator<String, Tuple2<String, Integer>, Tuple2<String, Integer>, Tuple2<String, Integer>, TimeWindow> slicingOperator) throws Exception {
+
+		final KeyedOneInputStreamOperatorTestHarness<String, Tuple2<String, Integer>, Tuple2<String, Integer>> expectedHarness =
+			createTestHarness(windowOperator);
+		KeyedOneInputStreamOperatorTestHarness<String, Tuple2<String, Integer>, Tuple2<String, Integer>> slicingHarness =
+			createTestHarness(slicingOperator);
+		expectedHarness.open();
+		slicingHarness.open();
+
+		final List<String> expectedOutput = new ArrayList<>();
+		final List<String> slicingOutput = new ArrayList<>();
+
+		final Random random = new Random(42);
+		long watermark = 10_000L;
+		for (int i = 0; i < 10_000; i++) {
+			if (random.nextInt(20) == 0) {
+				watermark += random.nextInt(3000);
+				expectedHarness.processWatermark(new Watermark(watermark));
+				slicingHarness.processWatermark(new Watermark(watermark));
+
+				drainOutput(expectedHarness, expectedOutput);
+				drainOutput(slicingHarness, slicingOutput);
+				Assert.assertEquals(expectedOutput, slicingOutput);
+			}
+
+			if (i % 2_000 == 1_999) {
+				drainOutput(expectedHarness, expectedOutput);
+				drainOutput(slicingHarness, slicingOutput);
+
+				final OperatorSubtaskState snapshot = slicingHarness.snapshot(i, i);
+				slicingHarness.close();
+				slicingHarness = createTestHarness(slicingOperator);
+				slicingHarness.setup();
+				slicingHarness.initializeState(snapshot);
+				slicingHarness.open();
+				// the watermark is not part of the snapshot
+				slicingHarness.processWatermark(new Watermark(watermark));
+			}
+
+			// elements may be up to 8 seconds behind the watermark, so some are within the allowed lateness
+			final StreamRecord<Tuple2<String, Integer>> element = new StreamRecord<>(
+				new Tuple2<>("key" + random.nextInt(10), random.nextInt(100)),
+				watermark - 8000 + random.nextInt(12000));
+			expectedHarness.processElement(element.copy(element.getValue().copy()));
+			slicingHarness.processElement(element.copy(element.getValue().copy()));
+		}
+
+		expectedHarness.processWatermark(new Watermark(Long.MAX_VALUE));
+		slicingHarness.processWatermark(new Watermark(Long.MAX_VALUE));
+		drainOutput(expectedHarness, expectedOutput);
+		drainOutput(slicingHarness, slicingOutput);
+
+		Assert.assertFalse(expectedOutput.isEmpty());
+		Assert.assertEquals(expectedOutput, slicingOutput);
+
+		Assert.assertEquals(0, slicingHarness.numKeyedStateEntries());
+		Assert.assertEquals(0, slicingHarness.numEventTimeTimers());
+
+		expectedHarness.close();
+		slicingHarness.close();
+	}
+
+	// ------------------------------------------------------------------------
+	//  Utilities
+	// ------------------------------------------------------------------------
+
+	private static SlicingWindowOperator<String, Tuple2<String, Integer>, Tuple2<String, Integer>, Tuple2<String, Integer>> createSlicingOperator(
+		SlidingEventTimeWindows windowAssigner) {
+
+		return (SlicingWindowOperator<String, Tuple2<String, Integer>, Tuple2<String, Integer>, Tuple2<String, Integer>>)
+			createReducingOperator(windowAssigner, 0L, true);
+	}
+
+	private static WindowOperator<String, Tuple2<String, Integer>, Tuple2<String, Integer>, Tuple2<String, Integer>, TimeWindow> createReducingOperator(
+		SlidingEventTimeWindows windowAssigner, long allowedLateness, boolean slicing) {
+
+		final ReducingStateDescriptor<Tuple2<String, Integer>> stateDesc = new ReducingStateDescriptor<>("window-contents",
+			new SumReducer(),
+			STRING_INT_TUPLE.createSerializer(new ExecutionConfig()));
+
+		return createOperator(windowAssigner, stateDesc, allowedLateness, slicing);
+	}
+
+	private static WindowOperator<String, Tuple2<String, Integer>, Tuple2<String, Integer>, Tuple2<String, Integer>, TimeWindow> createAggregatingOperator(
+		SlidingEventTimeWindows windowAssigner, long allowedLateness, boolean slicing) {
+
+		final AggregatingStateDescriptor<Tuple2<String, Integer>, Tuple2<String, Integer>, Tuple2<String, Integer>> stateDesc =
+			new AggregatingStateDescriptor<>("window-contents",
+				new MaxAggregate(),
+				STRING_INT_TUPLE.createSerializer(new ExecutionConfig()));
+
+		return createOperator(windowAssigner, stateDesc, allowedLateness, slicing);
+	}
+
+	private static WindowOperator<String, Tuple2<String, Integer>, Tuple2<String, Integer>, Tuple2<String, Integer>, TimeWindow> createOperator(
+		SlidingEventTimeWindows windowAssigner,
+		StateDescriptor<? extends AppendingState<Tuple2<String, Integer>, Tuple2<String, Integer>>, ?> stateDesc,
+		long allowedLateness,
+		boolean slicing) {
+
+		if (slicing) {
+			return new SlicingWindowOperator<>(
+				windowAssigner,
+				new TimeWindow.Serializer(),
+				new TupleKeySelector(),
+				BasicTypeInfo.STRING_TYPE_INFO.createSerializer(new ExecutionConfig()),
+				stateDesc,
+				new InternalSingleValueWindowFunction<>(new PassThroughWindowFunction<String, TimeWindow, Tuple2<String, Integer>>()),
+				allowedLateness,
+				LATE_OUTPUT_TAG);
+		}
+
+		return new WindowOperator<>(
+			windowAssigner,
+			new TimeWindow.Serializer(),
+			new TupleKeySelector(),
+			BasicTypeInfo.STRING_TYPE_INFO.createSerializer(new ExecutionConfig()),
+			stateDesc,
+			new InternalSingleValueWindowFunction<>(new PassThroughWindowFunction<String, TimeWindow, Tuple2<String, Integer>>()),
+			EventTimeTrigger.create(),
+			allowedLateness,
+			LATE_OUTPUT_TAG);
+	}
+
+	private static KeyedOneInputStreamOperatorTestHarness<String, Tuple2<String, Integer>, Tuple2<String, Integer>> createTestHarness(
+		WindowOperator<String, Tuple2<String, Integer>, Tuple2<String, Integer>, Tuple2<String, Integer>, TimeWindow> operator) throws Exception {
+		return new KeyedOneInputStreamOperatorTestHarness<>(operator, new TupleKeySelector(), BasicTypeInfo.STRING_TYPE_INFO);
+	}
+
+	/**
+	 * Moves the records and the late records of the harness into the given list, in a deterministic order.
+	 */
+	private static void drainOutput(
+		KeyedOneInputStreamOperatorTestHarness<String, Tuple2<String, Integer>, Tuple2<String, Integer>> testHarness,
+		List<String> output) {
+
+		output.addAll(sortedRecords(testHarness.extractOutputStreamRecords()));
+		testHarness.getOutput().clear();
+
+		final Queue<StreamRecord<Tuple2<String, Integer>>> lateRecords = testHarness.getSideOutput(LATE_OUTPUT_TAG);
+		if (lateRecords != null) {
+			for (String lateRecord : sortedRecords(new ArrayList<>(lateRecords))) {
+				output.add("late: " + lateRecord);
+			}
+			lateRecords.clear();
+		}
+	}
+
+	private static List<String> sortedRecords(List<? extends StreamRecord<? extends Tuple2<String, Integer>>> records) {
+		final List<String> result = new ArrayList<>(records.size());
+		for (StreamRecord<? extends Tuple2<String, Integer>> record : records) {
+			result.add(record.getValue().f0 + "=" + record.getValue().f1 + "@" + record.getTimestamp());
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	private static class SumReducer implements ReduceFunction<Tuple2<String, Integer>> {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public Tuple2<String, Integer> reduce(Tuple2<String, Integer> value1, Tuple2<String, Integer> value2) {
+			return new Tuple2<>(value1.f0, value1.f1 + value2.f1);
+		}
+	}
+
+	private static class MaxAggregate implements AggregateFunction<Tuple2<String, Integer>, Tuple2<String, Integer>, Tuple2<String, Integer>> {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public Tuple2<String, Integer> createAccumulator() {
+			return new Tuple2<>("", Integer.MIN_VALUE);
+		}
+
+		@Override
+		public Tuple2<String, Integer> add(Tuple2<String, Integer> value, Tuple2<String, Integer> accumulator) {
+			accumulator.f0 = value.f0;
+			accumulator.f1 = Math.max(accumulator.f1, value.f1);
+			return accumulator;
+		}
+
+		@Override
+		public Tuple2<String, Integer> getResult(Tuple2<String, Integer> accumulator) {
+			return accumulator;
+		}
+
+		@Override
+		public Tuple2<String, Integer> merge(Tuple2<String, Integer> a, Tuple2<String, Integer> b) {
+			b.f1 = Math.max(a.f1, b.f1);
+			return b;
+		}
+	}
+
+	private static class TupleKeySelector implements KeySelector<Tuple2<String, Integer>, String> {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public String getKey(Tuple2<String, Integer> value) {
+			return value.f0;
+		}
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.tasks;
+
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link TimingWheelProcessingTimeService}.
+ */
+public class TimingWheelProcessingTimeServiceTest extends TestLogger {
+
+	private TestProcessingTimeService timerService;
+
+	private int numTicks;
+
+	@Before
+	public void setup() throws Exception {
+		timerService = new TestProcessingTimeService();
+		timerService.setCurrentTime(0L);
+		numTicks = 0;
+	}
+
+	@Test
+	public void testTimersOfATickFireTogether() throws Exception {
+		final TimingWheelProcessingTimeService service = createService(10L);
+		final List<Long> firedTimers = new ArrayList<>();
+
+		for (long timestamp : new long[] {25L, 10L, 5L, 11L, 1L}) {
+			service.registerTimer(timestamp, firedTimers::add);
+		}
+		assertEquals(1, timerService.getNumActiveTimers());
+
+		timerService.setCurrentTime(9L);
+		assertTrue(firedTimers.isEmpty());
+
+		timerService.setCurrentTime(10L);
+		assertEquals(Arrays.asList(1L, 5L, 10L), firedTimers);
+		assertEquals(1, numTicks);
+
+		timerService.setCurrentTime(19L);
+		assertEquals(3, firedTimers.size());
+
+		timerService.setCurrentTime(20L);
+		assertEquals(Arrays.asList(1L, 5L, 10L, 11L), firedTimers);
+
+		// the timers of all ticks that passed fire together
+		service.registerTimer(31L, firedTimers::add);
+		timerService.setCurrentTime(40L);
+		assertEquals(Arrays.asList(1L, 5L, 10L, 11L, 25L, 31L), firedTimers);
+		assertEquals(3, numTicks);
+		assertEquals(0, timerService.getNumActiveTimers());
+	}
+
+	@Test
+	public void testTimersInThePastFireAtTheNextTick() throws Exception {
+		final TimingWheelProcessingTimeService service = createService(10L);
+		final List<Long> firedTimers = new ArrayList<>();
+
+		timerService.setCurrentTime(1234L);
+		service.registerTimer(1000L, firedTimers::add);
+		service.registerTimer(1234L, firedTimers::add);
+
+		timerService.setCurrentTime(1239L);
+		assertEquals(Arrays.asList(1000L), firedTimers);
+
+		timerService.setCurrentTime(1240L);
+		assertEquals(Arrays.asList(1000L, 1234L), firedTimers);
+	}
+
+	@Test
+	public void testCancelledTimersDoNotFire() throws Exception {
+		final TimingWheelProcessingTimeService service = createService(5L);
+		final List<Long> firedTimers = new ArrayList<>();
+
+		final ScheduledFuture<?> cancelled = service.registerTimer(7L, firedTimers::add);
+		final ScheduledFuture<?> fired = service.registerTimer(8L, firedTimers::add);
+		final ScheduledFuture<?> cancelledFarAway = service.registerTimer(1_000_000L, firedTimers::add);
+
+		assertTrue(cancelled.cancel(false));
+		assertTrue(cancelled.isCancelled());
+		assertTrue(cancelledFarAway.cancel(false));
+		assertFalse(fired.isDone());
+
+		timerService.setCurrentTime(2_000_000L);
+
+		assertEquals(Arrays.asList(8L), firedTimers);
+		assertTrue(fired.isDone());
+		assertFalse(fired.isCancelled());
+		assertFalse(fired.cancel(false));
+	}
+
+	/**
+	 * Registers random timers, also from within the callbacks of timers, and advances the processing time
+	 * in random steps. Checks that each timer fires exactly once, never before the end of its tick, and
+	 * at the latest when the processing time reaches the end of its tick.
+	 */
+	@Test
+	public void testRandomTimers() throws Exception {
+		final Random random = new Random(42L);
+
+		for (long tick : new long[] {1L, 7L, 100L}) {
+			setup();
+			final TimingWheelProcessingTimeService service = createService(tick);
+			final Map<Integer, Long> pendingTimers = new HashMap<>();
+			final List<Integer> firedTimers = new ArrayList<>();
+
+			for (int i = 0; i < 10_000; i++) {
+				registerRandomTimer(service, random, i, tick, pendingTimers, firedTimers);
+			}
+			assertTrue(service.getNumLevels() > 3);
+
+			long time = 0L;
+			while (!pendingTimers.isEmpty()) {
+				time += random.nextBoolean() ? random.nextInt(10 * (int) tick) : random.nextInt(1_000_000);
+				timerService.setCurrentTime(time);
+
+				for (long timestamp : pendingTimers.values()) {
+					assertTrue(endOfTick(timestamp, tick) > time);
+				}
+			}
+
+			assertEquals(firedTimers.size(), firedTimers.stream().distinct().count());
+			assertEquals(0, timerService.getNumActiveTimers());
+		}
+	}
+
+	private void registerRandomTimer(
+			TimingWheelProcessingTimeService service,
+			Random random,
+			int id,
+			long tick,
+			Map<Integer, Long> pendingTimers,
+			List<Integer> firedTimers) {
+
+		final long now = service.getCurrentProcessingTime();
+		final long timestamp = now + (random.nextBoolean() ? random.nextInt(1000) : random.nextInt(100_000_000)) - 100;
+		pendingTimers.put(id, timestamp);
+
+		service.registerTimer(timestamp, firingTime -> {
+			assertEquals(timestamp, firingTime);
+			assertTrue(service.getCurrentProcessingTime() >= endOfTick(timestamp, tick));
+			assertEquals(timestamp, (long) pendingTimers.remove(id));
+			firedTimers.add(id);
+
+			if (id < 20_000 && random.nextInt(4) == 0) {
+				registerRandomTimer(service, random, id + 10_000, tick, pendingTimers, firedTimers);
+			}
+		});
+	}
+
+	private static long endOfTick(long timestamp, long tick) {
+		return Math.floorDiv(timestamp + tick - 1, tick) * tick;
+	}
+
+	private TimingWheelProcessingTimeService createService(long tick) {
+		return new TimingWheelProcessingTimeService(
+			timerService,
+			callback -> timestamp -> {
+				numTicks++;
+				callback.onProcessingTime(timestamp);
+			},
+			tick);
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.tasks.mailbox;
+
+import org.apache.flink.core.testutils.CheckedThread;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.apache.flink.streaming.runtime.tasks.mailbox.TaskMailbox.MAX_PRIORITY;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link MpscTaskMailbox}, in addition to the contract tests of {@link TaskMailboxImplTest}.
+ */
+public class MpscTaskMailboxTest extends TaskMailboxImplTest {
+
+	@Override
+	protected TaskMailbox createTaskMailbox() {
+		return new MpscTaskMailbox();
+	}
+
+	/**
+	 * Tests that mails put as head from other threads overtake all mails that have not been taken yet, the last one
+	 * first, as in {@link TaskMailboxImpl}.
+	 */
+	@Test
+	public void testPutAsHeadFromOtherThread() throws Exception {
+		Mail mailA = new Mail(NO_OP, MAX_PRIORITY, "mailA");
+		Mail mailB = new Mail(NO_OP, MAX_PRIORITY, "mailB");
+		Mail mailC = new Mail(NO_OP, DEFAULT_PRIORITY, "mailC");
+		Mail mailD = new Mail(NO_OP, DEFAULT_PRIORITY, "mailD");
+		Mail mailE = new Mail(NO_OP, DEFAULT_PRIORITY, "mailE");
+
+		taskMailbox.put(mailC);
+		runInOtherThread(() -> taskMailbox.putFirst(mailB));
+		Assert.assertSame(mailB, taskMailbox.take(DEFAULT_PRIORITY));
+
+		taskMailbox.put(mailD);
+		runInOtherThread(() -> taskMailbox.putFirst(mailB));
+		runInOtherThread(() -> taskMailbox.putFirst(mailA));
+		taskMailbox.put(mailE);
+
+		Assert.assertTrue(taskMailbox.createBatch());
+		assertEquals(Arrays.asList(mailA, mailB, mailC, mailD, mailE), taskMailbox.drain());
+	}
+
+	/**
+	 * Tests that a mailbox thread that waits for a mail of a given priority is woken up by each new mail but only
+	 * returns once a mail of that priority arrives.
+	 */
+	@Test
+	public void testTakeWaitsForPriority() throws Exception {
+		final int numMails = 1000;
+		Mail lowPriorityMail = new Mail(NO_OP, DEFAULT_PRIORITY, "low");
+		Mail highPriorityMail = new Mail(NO_OP, MAX_PRIORITY, "high");
+
+		CheckedThread writer = new CheckedThread() {
+			@Override
+			public void go() throws Exception {
+				for (int i = 0; i < numMails; i++) {
+					taskMailbox.put(lowPriorityMail);
+					Thread.yield();
+				}
+				taskMailbox.put(highPriorityMail);
+			}
+		};
+		writer.start();
+
+		Assert.assertSame(highPriorityMail, taskMailbox.take(MAX_PRIORITY));
+		writer.sync();
+		assertEquals(numMails, taskMailbox.drain().size());
+	}
+
+	/**
+	 * Tests that no mail is lost or duplicated if many threads put mails, also as head, while the mailbox thread
+	 * alternates between batches and single takes.
+	 */
+	@Test
+	public void testConcurrentPutFirstAndBatches() throws Exception {
+		final int numThreads = 8;
+		final int numMailsPerThread = 10_000;
+		final Set<Mail> takenMails = new HashSet<>();
+
+		CheckedThread[] writers = new CheckedThread[numThreads];
+		for (int i = 0; i < numThreads; i++) {
+			final boolean asHead = i % 2 == 0;
+			writers[i] = new CheckedThread() {
+				@Override
+				public void go() throws Exception {
+					for (int k = 0; k < numMailsPerThread; k++) {
+						Mail mail = new Mail(NO_OP, DEFAULT_PRIORITY, "mail");
+						if (asHead) {
+							taskMailbox.putFirst(mail);
+						} else {
+							taskMailbox.put(mail);
+						}
+					}
+				}
+			};
+			writers[i].start();
+		}
+
+		while (takenMails.size() < numThreads * numMailsPerThread) {
+			if (taskMailbox.createBatch()) {
+				Mail mail;
+				while ((mail = taskMailbox.tryTakeFromBatch().orElse(null)) != null) {
+					Assert.assertTrue(takenMails.add(mail));
+				}
+			} else {
+				Assert.assertTrue(takenMails.add(taskMailbox.take(DEFAULT_PRIORITY)));
+			}
+		}
+
+		for (CheckedThread writer : writers) {
+			writer.sync();
+		}
+		Assert.assertFalse(taskMailbox.hasMail());
+	}
+
+	private void runInOtherThread(Runnable runnable) throws Exception {
+		CheckedThread thread = new CheckedThread() {
+			@Override
+			public void go() {
+				runnable.run();
+			}
+		};
+		thread.start();
+		thread.sync();
+	}
+}
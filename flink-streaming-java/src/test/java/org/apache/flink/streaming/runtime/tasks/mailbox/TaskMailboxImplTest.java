@@ -47,16 +47,20 @@ import static org.junit.Assert.assertEquals;
  */
 public class TaskMailboxImplTest {
 
-	private static final RunnableWithException NO_OP = () -> {};
-	private static final int DEFAULT_PRIORITY = 0;
+	protected static final RunnableWithException NO_OP = () -> {};
+	protected static final int DEFAULT_PRIORITY = 0;
 	/**
 	 * Object under test.
 	 */
-	private TaskMailbox taskMailbox;
+	protected TaskMailbox taskMailbox;
 
 	@Before
 	public void setUp() {
-		taskMailbox = new TaskMailboxImpl();
+		taskMailbox = createTaskMailbox();
+	}
+
+	protected TaskMailbox createTaskMailbox() {
+		return new TaskMailboxImpl();
 	}
 
 	@After
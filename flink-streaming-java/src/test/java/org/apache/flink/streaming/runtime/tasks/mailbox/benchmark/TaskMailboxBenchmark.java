@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.tasks.mailbox.benchmark;
+
+import org.apache.flink.core.testutils.CheckedThread;
+import org.apache.flink.streaming.runtime.tasks.mailbox.Mail;
+import org.apache.flink.streaming.runtime.tasks.mailbox.MpscTaskMailbox;
+import org.apache.flink.streaming.runtime.tasks.mailbox.TaskMailbox;
+import org.apache.flink.streaming.runtime.tasks.mailbox.TaskMailboxImpl;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Mailbox throughput and latency benchmarks executed by the external
+ * <a href="https://github.com/dataArtisans/flink-benchmarks">flink-benchmarks</a> project.
+ *
+ * <p>A dedicated mailbox thread processes the mails like the {@link
+ * org.apache.flink.streaming.runtime.tasks.mailbox.MailboxProcessor} does, i.e., batch-wise while there are mails and
+ * blocking in {@link TaskMailbox#take(int)} otherwise.
+ */
+public class TaskMailboxBenchmark {
+
+	/**
+	 * The {@link TaskMailbox} implementations to compare.
+	 */
+	public enum MailboxType {
+		LOCKING(TaskMailboxImpl::new),
+		LOCK_FREE(MpscTaskMailbox::new);
+
+		private final Function<Thread, TaskMailbox> factory;
+
+		MailboxType(Function<Thread, TaskMailbox> factory) {
+			this.factory = factory;
+		}
+	}
+
+	private static final String BENCHMARK_MAIL = "benchmark mail";
+
+	protected TaskMailbox mailbox;
+	protected CheckedThread mailboxThread;
+	protected CheckedThread[] writerThreads;
+
+	private volatile boolean running;
+
+	private volatile boolean backgroundMailsRunning;
+
+	/**
+	 * Initializes the benchmark with the given mailbox implementation and number of threads that put mails.
+	 */
+	public void setUp(MailboxType mailboxType, int writers) {
+		running = true;
+		mailboxThread = new CheckedThread("mailbox thread") {
+			@Override
+			public void go() throws Exception {
+				runMailboxLoop();
+			}
+		};
+		mailbox = mailboxType.factory.apply(mailboxThread);
+		mailboxThread.start();
+		writerThreads = new CheckedThread[writers];
+	}
+
+	/**
+	 * Executes the throughput benchmark, i.e., all writers concurrently put their share of the given number of mails
+	 * and the benchmark returns once the mailbox thread has run all of them.
+	 *
+	 * @param mails to pass through the mailbox
+	 */
+	public void executeThroughputBenchmark(long mails) throws Exception {
+		executeThroughputBenchmark(mails, Long.MAX_VALUE);
+	}
+
+	public void executeThroughputBenchmark(long mails, long timeout) throws Exception {
+		final long mailsPerWriter = mails / writerThreads.length;
+		final CountDownLatch mailsProcessed = new CountDownLatch(writerThreads.length);
+
+		for (int writer = 0; writer < writerThreads.length; writer++) {
+			writerThreads[writer] = new CheckedThread("mailbox writer " + writer) {
+				@Override
+				public void go() {
+					for (long i = 1; i < mailsPerWriter; i++) {
+						mailbox.put(new Mail(() -> {}, TaskMailbox.MIN_PRIORITY, BENCHMARK_MAIL));
+					}
+					mailbox.put(new Mail(mailsProcessed::countDown, TaskMailbox.MIN_PRIORITY, BENCHMARK_MAIL));
+				}
+			};
+			writerThreads[writer].start();
+		}
+
+		for (CheckedThread writerThread : writerThreads) {
+			writerThread.sync(timeout);
+		}
+		if (!mailsProcessed.await(timeout, TimeUnit.MILLISECONDS)) {
+			throw new TimeoutException();
+		}
+	}
+
+	/**
+	 * Executes the latency benchmark, i.e., the calling thread puts the given number of mails one after the other,
+	 * each once the previous one has run, while the writers keep the mailbox busy with background mails.
+	 *
+	 * @return the average time in nanoseconds from putting a mail until the mailbox thread has run it
+	 */
+	public long executeLatencyBenchmark(long mails) throws Exception {
+		final CheckedThread[] backgroundWriters = new CheckedThread[writerThreads.length - 1];
+		backgroundMailsRunning = true;
+
+		for (int writer = 0; writer < backgroundWriters.length; writer++) {
+			backgroundWriters[writer] = new CheckedThread("mailbox writer " + writer) {
+				@Override
+				public void go() {
+					while (backgroundMailsRunning) {
+						mailbox.put(new Mail(() -> {}, TaskMailbox.MIN_PRIORITY, BENCHMARK_MAIL));
+						Thread.yield();
+					}
+				}
+			};
+			backgroundWriters[writer].start();
+		}
+
+		long totalNanos = 0L;
+		try {
+			for (long i = 0; i < mails; i++) {
+				final CountDownLatch mailProcessed = new CountDownLatch(1);
+				final long start = System.nanoTime();
+				mailbox.put(new Mail(mailProcessed::countDown, TaskMailbox.MIN_PRIORITY, BENCHMARK_MAIL));
+				mailProcessed.await();
+				totalNanos += System.nanoTime() - start;
+			}
+		} finally {
+			backgroundMailsRunning = false;
+		}
+
+		for (CheckedThread backgroundWriter : backgroundWriters) {
+			backgroundWriter.sync();
+		}
+		return mails == 0 ? 0L : totalNanos / mails;
+	}
+
+	/**
+	 * Shuts down a benchmark previously set up via {@link #setUp}.
+	 */
+	public void tearDown() throws Exception {
+		mailbox.put(new Mail(() -> running = false, TaskMailbox.MIN_PRIORITY, "poison mail"));
+		mailboxThread.sync(5000);
+	}
+
+	private void runMailboxLoop() throws Exception {
+		while (running) {
+			if (mailbox.createBatch()) {
+				Optional<Mail> mail;
+				while ((mail = mailbox.tryTakeFromBatch()).isPresent()) {
+					mail.get().run();
+				}
+			} else {
+				mailbox.take(TaskMailbox.MIN_PRIORITY).run();
+			}
+		}
+		mailbox.quiesce();
+		mailbox.close();
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.tasks.mailbox.benchmark;
+
+import org.apache.flink.streaming.runtime.tasks.mailbox.benchmark.TaskMailboxBenchmark.MailboxType;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link TaskMailboxBenchmark}.
+ */
+public class TaskMailboxBenchmarkTest {
+
+	@Test
+	public void singleWriterThroughput() throws Exception {
+		for (MailboxType mailboxType : MailboxType.values()) {
+			TaskMailboxBenchmark benchmark = new TaskMailboxBenchmark();
+			benchmark.setUp(mailboxType, 1);
+			try {
+				benchmark.executeThroughputBenchmark(10_000);
+			} finally {
+				benchmark.tearDown();
+			}
+		}
+	}
+
+	@Test
+	public void multipleWritersThroughput() throws Exception {
+		for (MailboxType mailboxType : MailboxType.values()) {
+			TaskMailboxBenchmark benchmark = new TaskMailboxBenchmark();
+			benchmark.setUp(mailboxType, 4);
+			try {
+				benchmark.executeThroughputBenchmark(100_000);
+				benchmark.executeThroughputBenchmark(100_000);
+			} finally {
+				benchmark.tearDown();
+			}
+		}
+	}
+
+	@Test
+	public void latency() throws Exception {
+		for (MailboxType mailboxType : MailboxType.values()) {
+			for (int writers : new int[] {1, 4}) {
+				TaskMailboxBenchmark benchmark = new TaskMailboxBenchmark();
+				benchmark.setUp(mailboxType, writers);
+				try {
+					benchmark.executeLatencyBenchmark(1_000);
+				} finally {
+					benchmark.tearDown();
+				}
+			}
+		}
+	}
+}
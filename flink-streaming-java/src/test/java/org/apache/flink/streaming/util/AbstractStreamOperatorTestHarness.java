@@ -254,6 +254,7 @@ public class AbstractStreamOperatorTestHarness<OUT> implements AutoCloseable {
 			.setStreamTaskStateInitializer(streamTaskStateInitializer)
 			.setClosableRegistry(closableRegistry)
 			.setCheckpointStorage(checkpointStorage)
+			.setStateBackend(stateBackend)
 			.setTimerService(processingTimeService)
 			.setHandleAsyncException(handleAsyncException)
 			.build();
@@ -347,6 +348,7 @@ public class AbstractStreamOperatorTestHarness<OUT> implements AutoCloseable {
 			streamTaskStateInitializer =
 				createStreamTaskStateManager(environment, stateBackend, processingTimeService);
 			mockTask.setStreamTaskStateInitializer(streamTaskStateInitializer);
+			mockTask.setStateBackend(stateBackend);
 
 			if (operator == null) {
 				this.operator = StreamOperatorFactoryUtil.createOperator(factory, mockTask, config,
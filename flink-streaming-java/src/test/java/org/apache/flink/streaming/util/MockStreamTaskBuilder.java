@@ -52,6 +52,7 @@ public class MockStreamTaskBuilder {
 	private CloseableRegistry closableRegistry = new CloseableRegistry();
 	private StreamStatusMaintainer streamStatusMaintainer = new MockStreamStatusMaintainer();
 	private CheckpointStorageWorkerView checkpointStorage;
+	private StateBackend stateBackend = new MemoryStateBackend();
 	private TimerService timerService = new TestProcessingTimeService();
 	private StreamTaskStateInitializer streamTaskStateInitializer;
 	private BiConsumer<String, Throwable> handleAsyncException = (message, throwable) -> { };
@@ -60,7 +61,6 @@ public class MockStreamTaskBuilder {
 	public MockStreamTaskBuilder(Environment environment) throws Exception {
 		this.environment = environment;
 
-		StateBackend stateBackend = new MemoryStateBackend();
 		this.checkpointStorage = stateBackend.createCheckpointStorage(new JobID());
 		this.streamTaskStateInitializer = new StreamTaskStateInitializerImpl(environment, stateBackend);
 	}
@@ -105,6 +105,11 @@ public class MockStreamTaskBuilder {
 		return this;
 	}
 
+	public MockStreamTaskBuilder setStateBackend(StateBackend stateBackend) {
+		this.stateBackend = stateBackend;
+		return this;
+	}
+
 	public MockStreamTaskBuilder setTimerService(TimerService timerService) {
 		this.timerService = timerService;
 		return this;
@@ -126,6 +131,7 @@ public class MockStreamTaskBuilder {
 			closableRegistry,
 			streamStatusMaintainer,
 			checkpointStorage,
+			stateBackend,
 			timerService,
 			handleAsyncException,
 			accumulatorMap);
@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.util.keys;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.InvalidProgramException;
+import org.apache.flink.api.common.functions.InvalidTypesException;
+import org.apache.flink.api.common.operators.Keys;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeinfo.Types;
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.api.common.typeutils.base.StringSerializer;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.api.java.tuple.Tuple3;
+import org.apache.flink.api.java.typeutils.GenericTypeInfo;
+import org.apache.flink.api.java.typeutils.TupleTypeInfo;
+import org.apache.flink.api.java.typeutils.TypeExtractor;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.runtime.checkpoint.OperatorSubtaskState;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.streaming.api.datastream.KeyedStream;
+import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.streaming.api.functions.KeyedProcessFunction;
+import org.apache.flink.streaming.api.operators.KeyedProcessOperator;
+import org.apache.flink.streaming.util.KeyedOneInputStreamOperatorTestHarness;
+import org.apache.flink.util.Collector;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link KeySelectorUtil.BinaryKeySelector} and the {@link BinaryKey}.
+ */
+public class BinaryKeySelectorTest {
+
+	private static final TypeInformation<Tuple3<Integer, String, Long>> TUPLE_TYPE =
+		TypeInformation.of(new TypeHint<Tuple3<Integer, String, Long>>() {});
+
+	@Test
+	public void testTupleKeys() throws Exception {
+		KeySelectorUtil.BinaryKeySelector<Tuple3<Integer, String, Long>> selector = KeySelectorUtil.getBinarySelectorForKeys(
+			new Keys.ExpressionKeys<>(new int[] {1, 0}, TUPLE_TYPE), TUPLE_TYPE, new ExecutionConfig());
+
+		BinaryKey key = selector.getKey(Tuple3.of(42, "a", 1L));
+
+		DataOutputSerializer expected = new DataOutputSerializer(16);
+		StringSerializer.INSTANCE.serialize("a", expected);
+		IntSerializer.INSTANCE.serialize(42, expected);
+		assertArrayEquals(expected.getCopyOfBuffer(), key.getBytes());
+
+		// the key does not depend on non-key fields or on the reused buffer
+		BinaryKey sameKey = selector.getKey(Tuple3.of(42, "a", 2L));
+		assertEquals(key, sameKey);
+		assertEquals(key.hashCode(), sameKey.hashCode());
+
+		assertNotEquals(key, selector.getKey(Tuple3.of(42, "b", 1L)));
+		assertNotEquals(key, selector.getKey(Tuple3.of(43, "a", 1L)));
+	}
+
+	@Test
+	public void testPojoKeys() throws Exception {
+		TypeInformation<TestPojo> pojoType = TypeExtractor.createTypeInfo(TestPojo.class);
+		KeySelectorUtil.BinaryKeySelector<TestPojo> selector = KeySelectorUtil.getBinarySelectorForKeys(
+			new Keys.ExpressionKeys<>(new String[] {"id", "name"}, pojoType), pojoType, new ExecutionConfig());
+
+		assertEquals(selector.getKey(new TestPojo(1, "a", 2.0)), selector.getKey(new TestPojo(1, "a", 3.0)));
+		assertNotEquals(selector.getKey(new TestPojo(1, "a", 2.0)), selector.getKey(new TestPojo(1, "b", 2.0)));
+	}
+
+	@Test(expected = InvalidTypesException.class)
+	public void testGenericKeyFieldsAreRejected() {
+		TypeInformation<GenericPojo> pojoType = TypeExtractor.createTypeInfo(GenericPojo.class);
+		KeySelectorUtil.getBinarySelectorForKeys(
+			new Keys.ExpressionKeys<>(new String[] {"value"}, pojoType), pojoType, new ExecutionConfig());
+	}
+
+	@Test(expected = InvalidTypesException.class)
+	public void testNestedGenericKeyFieldsAreRejected() {
+		TypeInformation<Tuple2<Integer, Tuple2<String, UUID>>> tupleType = new TupleTypeInfo<>(
+			Types.INT, new TupleTypeInfo<Tuple2<String, UUID>>(Types.STRING, new GenericTypeInfo<>(UUID.class)));
+		KeySelectorUtil.getBinarySelectorForKeys(
+			new Keys.ExpressionKeys<>(new int[] {0, 1}, tupleType), tupleType, new ExecutionConfig());
+	}
+
+	@Test(expected = InvalidProgramException.class)
+	public void testMapKeyFieldsAreRejected() {
+		TypeInformation<Tuple2<Integer, Map<String, Integer>>> tupleType =
+			new TupleTypeInfo<>(Types.INT, Types.MAP(Types.STRING, Types.INT));
+		StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+		env.fromCollection(Collections.singletonList(Tuple2.of(1, Collections.singletonMap("a", 1))), tupleType)
+			.keyByBinary(0, 1);
+	}
+
+	@Test
+	public void testHashSpread() {
+		Set<Integer> hashes = new HashSet<>();
+		for (int i = 0; i < 1000; i++) {
+			hashes.add(new BinaryKey(new byte[] {(byte) i, (byte) (i >> 8)}).hashCode());
+		}
+		assertEquals(1000, hashes.size());
+
+		assertEquals(new BinaryKey(new byte[] {1, 2, 3}).hashCode(), new BinaryKey(new byte[] {1, 2, 3}).hashCode());
+	}
+
+	@Test
+	public void testCompareTo() {
+		BinaryKey a = new BinaryKey(new byte[] {1, 2});
+		BinaryKey b = new BinaryKey(new byte[] {1, (byte) 0xff});
+		BinaryKey c = new BinaryKey(new byte[] {1, 2, 0});
+
+		assertTrue(a.compareTo(b) < 0);
+		assertTrue(b.compareTo(a) > 0);
+		assertTrue(a.compareTo(c) < 0);
+		assertEquals(0, a.compareTo(new BinaryKey(new byte[] {1, 2})));
+	}
+
+	@Test
+	public void testKeyByBinary() {
+		StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+		DataStream<Tuple3<Integer, String, Long>> stream = env.fromElements(Tuple3.of(1, "a", 1L));
+
+		KeyedStream<Tuple3<Integer, String, Long>, BinaryKey> keyedByPosition = stream.keyByBinary(0, 1);
+		assertSame(BinaryKeyTypeInfo.INSTANCE, keyedByPosition.getKeyType());
+
+		KeyedStream<Tuple3<Integer, String, Long>, BinaryKey> keyedByExpression = stream.keyByBinary("f1");
+		assertSame(BinaryKeyTypeInfo.INSTANCE, keyedByExpression.getKeyType());
+
+		assertEquals(BinaryKeyTypeInfo.INSTANCE, TypeExtractor.createTypeInfo(BinaryKey.class));
+	}
+
+	@Test
+	public void testKeyedStateWithBinaryKeys() throws Exception {
+		KeySelectorUtil.BinaryKeySelector<Tuple3<Integer, String, Long>> selector = KeySelectorUtil.getBinarySelectorForKeys(
+			new Keys.ExpressionKeys<>(new int[] {0, 1}, TUPLE_TYPE), TUPLE_TYPE, new ExecutionConfig());
+
+		OperatorSubtaskState snapshot;
+		try (KeyedOneInputStreamOperatorTestHarness<BinaryKey, Tuple3<Integer, String, Long>, Long> harness = createHarness(selector)) {
+			harness.open();
+			harness.processElement(Tuple3.of(1, "a", 1L), 0L);
+			harness.processElement(Tuple3.of(1, "b", 2L), 0L);
+			harness.processElement(Tuple3.of(1, "a", 3L), 0L);
+			assertEquals(Arrays.asList(1L, 2L, 4L), harness.extractOutputValues());
+			snapshot = harness.snapshot(1L, 1L);
+		}
+
+		try (KeyedOneInputStreamOperatorTestHarness<BinaryKey, Tuple3<Integer, String, Long>, Long> harness = createHarness(selector)) {
+			harness.initializeState(snapshot);
+			harness.open();
+			harness.processElement(Tuple3.of(1, "b", 5L), 0L);
+			harness.processElement(Tuple3.of(1, "a", 6L), 0L);
+			assertEquals(Arrays.asList(7L, 10L), harness.extractOutputValues());
+		}
+	}
+
+	private static KeyedOneInputStreamOperatorTestHarness<BinaryKey, Tuple3<Integer, String, Long>, Long> createHarness(
+			KeySelectorUtil.BinaryKeySelector<Tuple3<Integer, String, Long>> selector) throws Exception {
+		return new KeyedOneInputStreamOperatorTestHarness<>(
+			new KeyedProcessOperator<>(new SumFunction()), selector, BinaryKeyTypeInfo.INSTANCE, 128, 1, 0);
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Emits the running sum of the third field per key.
+	 */
+	private static class SumFunction extends KeyedProcessFunction<BinaryKey, Tuple3<Integer, String, Long>, Long> {
+
+		private static final long serialVersionUID = 1L;
+
+		private transient ValueState<Long> sum;
+
+		@Override
+		public void open(Configuration parameters) {
+			sum = getRuntimeContext().getState(new ValueStateDescriptor<>("sum", Long.class));
+		}
+
+		@Override
+		public void processElement(Tuple3<Integer, String, Long> value, Context ctx, Collector<Long> out) throws Exception {
+			Long current = sum.value();
+			long updated = (current == null ? 0L : current) + value.f2;
+			sum.update(updated);
+			out.collect(updated);
+		}
+	}
+
+	/**
+	 * POJO with a composite key.
+	 */
+	public static class TestPojo {
+
+		public int id;
+		public String name;
+		public double value;
+
+		public TestPojo() {}
+
+		TestPojo(int id, String name, double value) {
+			this.id = id;
+			this.name = name;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * POJO with a field of a comparable generic type.
+	 */
+	public static class GenericPojo {
+
+		public UUID value;
+	}
+}
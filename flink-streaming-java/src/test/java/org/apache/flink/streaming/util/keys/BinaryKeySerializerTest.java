@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.util.keys;
+
+import org.apache.flink.api.common.typeutils.SerializerTestBase;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+
+import java.util.Random;
+
+/**
+ * Tests for the {@link BinaryKeySerializer}.
+ */
+public class BinaryKeySerializerTest extends SerializerTestBase<BinaryKey> {
+
+	private final Random rnd = new Random(7382947182L);
+
+	@Override
+	protected TypeSerializer<BinaryKey> createSerializer() {
+		return BinaryKeySerializer.INSTANCE;
+	}
+
+	@Override
+	protected int getLength() {
+		return -1;
+	}
+
+	@Override
+	protected Class<BinaryKey> getTypeClass() {
+		return BinaryKey.class;
+	}
+
+	@Override
+	protected BinaryKey[] getTestData() {
+		return new BinaryKey[] {
+			new BinaryKey(new byte[0]),
+			randomKey(1),
+			randomKey(3),
+			randomKey(17),
+			randomKey(1024),
+			new BinaryKey(new byte[0])
+		};
+	}
+
+	private BinaryKey randomKey(int length) {
+		byte[] bytes = new byte[length];
+		rnd.nextBytes(bytes);
+		return new BinaryKey(bytes);
+	}
+}
@@ -0,0 +1,371 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.util.typeutils;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeutils.SerializerTestInstance;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.api.java.tuple.Tuple3;
+import org.apache.flink.api.java.tuple.Tuple4;
+import org.apache.flink.api.java.typeutils.TypeExtractor;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.util.InstantiationUtil;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests for the {@link SerializerCodeGenerator} and the serializers that it generates.
+ */
+public class SerializerCodeGeneratorTest {
+
+	@Test
+	public void testPojo() throws Exception {
+		runTests(
+			TestPojo.class,
+			new TestPojo(),
+			new TestPojo(1, 2, "a", new double[] {1.0, 2.0}, new NestedPojo(3L, "b"), list("c", "d"), 4L, "e", true),
+			new TestPojo(-1, null, null, null, null, null, Long.MIN_VALUE, null, false),
+			new TestPojo(Integer.MAX_VALUE, Integer.MIN_VALUE, "", new double[0], new NestedPojo(), list(), 5L, "f", true));
+	}
+
+	@Test
+	public void testPojoWithSubclasses() throws Exception {
+		runTests(
+			TestPojo.class,
+			new TestPojo(1, 2, "a", new double[] {1.0}, new NestedPojo(3L, "b"), list("c"), 4L, "e", true),
+			new TestPojoSubclass(5, "g"),
+			new TestPojo(),
+			new TestPojoSubclass(6, null));
+	}
+
+	@Test
+	public void testPojoWithReflectiveFieldAccess() throws Exception {
+		runTests(
+			ReflectivePojo.class,
+			new ReflectivePojo(1, 2L),
+			new ReflectivePojo(3, Long.MIN_VALUE));
+	}
+
+	@Test
+	public void testTuple() throws Exception {
+		TypeInformation<Tuple4<Integer, String, NestedPojo, List<Long>>> typeInfo =
+			TypeInformation.of(new TypeHint<Tuple4<Integer, String, NestedPojo, List<Long>>>() {});
+
+		runTests(
+			typeInfo.createSerializer(new ExecutionConfig()),
+			typeInfo.getTypeClass(),
+			Tuple4.of(1, "a", new NestedPojo(2L, "b"), list(3L, 4L)),
+			Tuple4.of(-1, null, new NestedPojo(), list()),
+			Tuple4.of(Integer.MAX_VALUE, "", new NestedPojo(Long.MIN_VALUE, null), list(5L)));
+	}
+
+	@Test
+	public void testTupleWithFixedLength() throws Exception {
+		TypeInformation<Tuple3<Long, Double, Boolean>> typeInfo =
+			TypeInformation.of(new TypeHint<Tuple3<Long, Double, Boolean>>() {});
+
+		runTests(
+			typeInfo.createSerializer(new ExecutionConfig()),
+			typeInfo.getTypeClass(),
+			Tuple3.of(1L, 2.0, true),
+			Tuple3.of(Long.MAX_VALUE, Double.NaN, false));
+	}
+
+	@Test
+	public void testOtherSerializersAreNotGenerated() {
+		assertSame(IntSerializer.INSTANCE, SerializerCodeGenerator.generateSerializer(IntSerializer.INSTANCE));
+	}
+
+	@Test
+	public void testUnwrap() throws Exception {
+		TypeSerializer<TestPojo> originalSerializer = createPojoSerializer(TestPojo.class);
+		TypeSerializer<TestPojo> serializer = SerializerCodeGenerator.generateSerializer(originalSerializer);
+
+		assertSame(originalSerializer, GeneratedSerializer.unwrap(serializer));
+		assertSame(originalSerializer, GeneratedSerializer.unwrap(originalSerializer));
+
+		TypeSerializer<TestPojo> deserializedSerializer = InstantiationUtil.clone(serializer);
+		assertThat(deserializedSerializer, instanceOf(serializer.getClass()));
+		assertEquals(originalSerializer, GeneratedSerializer.unwrap(deserializedSerializer));
+	}
+
+	@Test
+	public void testCompiledClassesDoNotKeepClassLoaderAlive() throws Exception {
+		ClassLoader classLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+		WeakReference<ClassLoader> classLoaderReference = new WeakReference<>(classLoader);
+
+		Class<?> compiledClass = SerializerCodeGenerator.Compiler.compile(
+			classLoader, "TestCompiledClass", "public class TestCompiledClass {}");
+		assertSame(compiledClass, SerializerCodeGenerator.Compiler.compile(
+			classLoader, "TestCompiledClass", "public class TestCompiledClass {}"));
+
+		//noinspection UnusedAssignment
+		compiledClass = null;
+		//noinspection UnusedAssignment
+		classLoader = null;
+		for (int i = 0; i < 10 && classLoaderReference.get() != null; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		assertNull(classLoaderReference.get());
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	@SafeVarargs
+	private static <T> void runTests(Class<T> pojoClass, T... instances) throws IOException {
+		runTests(createPojoSerializer(pojoClass), pojoClass, instances);
+	}
+
+	@SafeVarargs
+	private static <T> void runTests(TypeSerializer<T> originalSerializer, Class<T> typeClass, T... instances) throws IOException {
+		TypeSerializer<T> serializer = SerializerCodeGenerator.generateSerializer(originalSerializer);
+		assertThat(serializer, instanceOf(GeneratedSerializer.class));
+
+		new SerializerTestInstance<T>(serializer, typeClass, originalSerializer.getLength(), instances) {
+			@Override
+			public void testSnapshotConfigurationAndReconfigure() {
+				// generated serializers are restored as their original serializers
+				assertEquals(originalSerializer.getClass(), serializer.snapshotConfiguration().restoreSerializer().getClass());
+			}
+		}.testAll();
+
+		// the generated serializer writes the same format as the original serializer
+		for (T instance : instances) {
+			DataOutputSerializer expected = new DataOutputSerializer(64);
+			originalSerializer.serialize(instance, expected);
+			DataOutputSerializer actual = new DataOutputSerializer(64);
+			serializer.serialize(instance, actual);
+			assertArrayEquals(expected.getCopyOfBuffer(), actual.getCopyOfBuffer());
+		}
+	}
+
+	@SafeVarargs
+	private static <T> List<T> list(T... elements) {
+		return new ArrayList<>(Arrays.asList(elements));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> TypeSerializer<T> createPojoSerializer(Class<T> pojoClass) {
+		return TypeExtractor.createTypeInfo(pojoClass).createSerializer(new ExecutionConfig());
+	}
+
+	// --------------------------------------------------------------------------------------------
+	// Test types
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * POJO with public fields and with private fields that have getters and setters.
+	 */
+	public static class TestPojo {
+
+		public int primitiveInt;
+		public Integer boxedInt;
+		public String string;
+		public double[] doubles;
+		public NestedPojo nested;
+		public List<String> list;
+
+		private long privateLong;
+		private String privateString;
+		private boolean flag;
+
+		public TestPojo() {}
+
+		public TestPojo(
+				int primitiveInt,
+				Integer boxedInt,
+				String string,
+				double[] doubles,
+				NestedPojo nested,
+				List<String> list,
+				long privateLong,
+				String privateString,
+				boolean flag) {
+			this.primitiveInt = primitiveInt;
+			this.boxedInt = boxedInt;
+			this.string = string;
+			this.doubles = doubles;
+			this.nested = nested;
+			this.list = list;
+			this.privateLong = privateLong;
+			this.privateString = privateString;
+			this.flag = flag;
+		}
+
+		public long getPrivateLong() {
+			return privateLong;
+		}
+
+		public void setPrivateLong(long privateLong) {
+			this.privateLong = privateLong;
+		}
+
+		public String getPrivateString() {
+			return privateString;
+		}
+
+		public void setPrivateString(String privateString) {
+			this.privateString = privateString;
+		}
+
+		public boolean isFlag() {
+			return flag;
+		}
+
+		public void setFlag(boolean flag) {
+			this.flag = flag;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (o == null || o.getClass() != getClass()) {
+				return false;
+			}
+			TestPojo that = (TestPojo) o;
+			return primitiveInt == that.primitiveInt
+				&& Objects.equals(boxedInt, that.boxedInt)
+				&& Objects.equals(string, that.string)
+				&& Arrays.equals(doubles, that.doubles)
+				&& Objects.equals(nested, that.nested)
+				&& Objects.equals(list, that.list)
+				&& privateLong == that.privateLong
+				&& Objects.equals(privateString, that.privateString)
+				&& flag == that.flag;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(primitiveInt, boxedInt, string, nested, list, privateLong, privateString, flag);
+		}
+	}
+
+	/**
+	 * Subclass of the {@link TestPojo}.
+	 */
+	public static class TestPojoSubclass extends TestPojo {
+
+		public String extra;
+
+		public TestPojoSubclass() {}
+
+		public TestPojoSubclass(int primitiveInt, String extra) {
+			this.primitiveInt = primitiveInt;
+			this.extra = extra;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return super.equals(o) && Objects.equals(extra, ((TestPojoSubclass) o).extra);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * super.hashCode() + Objects.hashCode(extra);
+		}
+	}
+
+	/**
+	 * POJO that is nested in other types.
+	 */
+	public static class NestedPojo {
+
+		public long id;
+		public String name;
+
+		public NestedPojo() {}
+
+		public NestedPojo(long id, String name) {
+			this.id = id;
+			this.name = name;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (o == null || o.getClass() != getClass()) {
+				return false;
+			}
+			NestedPojo that = (NestedPojo) o;
+			return id == that.id && Objects.equals(name, that.name);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(id, name);
+		}
+	}
+
+	/**
+	 * POJO with a field that the generated code accesses through reflection, because the getter
+	 * and setter use the wrapper type of the field.
+	 */
+	public static class ReflectivePojo {
+
+		public int id;
+		private long count;
+
+		public ReflectivePojo() {}
+
+		ReflectivePojo(int id, long count) {
+			this.id = id;
+			this.count = count;
+		}
+
+		public Long getCount() {
+			return count;
+		}
+
+		public void setCount(Long count) {
+			this.count = count;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (o == null || o.getClass() != getClass()) {
+				return false;
+			}
+			ReflectivePojo that = (ReflectivePojo) o;
+			return id == that.id && count == that.count;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(id, count);
+		}
+	}
+}
@@ -38,6 +38,7 @@ import org.apache.flink.streaming.api.functions.timestamps.{AscendingTimestampEx
 import org.apache.flink.streaming.api.functions.{AssignerWithPeriodicWatermarks, AssignerWithPunctuatedWatermarks, ProcessFunction, TimestampExtractor}
 import org.apache.flink.streaming.api.operators.OneInputStreamOperator
 import org.apache.flink.streaming.api.windowing.assigners._
+import org.apache.flink.streaming.util.keys.BinaryKey
 import org.apache.flink.streaming.api.windowing.time.Time
 import org.apache.flink.streaming.api.windowing.windows.{GlobalWindow, TimeWindow, Window}
 import org.apache.flink.util.Collector
@@ -398,6 +399,23 @@ class DataStream[T](stream: JavaStream[T]) {
   def keyBy(firstField: String, otherFields: String*): KeyedStream[T, JavaTuple] =
     asScalaStream(stream.keyBy(firstField +: otherFields.toArray: _*))
 
+  /**
+   * Groups the elements of a DataStream by the given key positions (for tuple types), keeping
+   * the key in its serialized form, a [[BinaryKey]]. Binary keys are assigned to different key
+   * groups than tuple keys, so state written with `keyBy` cannot be restored with this method.
+   */
+  @PublicEvolving
+  def keyByBinary(fields: Int*): KeyedStream[T, BinaryKey] =
+    asScalaStream(stream.keyByBinary(fields: _*))
+
+  /**
+   * Groups the elements of a DataStream by the given field expressions, keeping the key in its
+   * serialized form, a [[BinaryKey]].
+   */
+  @PublicEvolving
+  def keyByBinary(firstField: String, otherFields: String*): KeyedStream[T, BinaryKey] =
+    asScalaStream(stream.keyByBinary(firstField +: otherFields.toArray: _*))
+
   /**
    * Groups the elements of a DataStream by the given K key to
    * be used with grouped operators like grouped reduce or grouped aggregations.
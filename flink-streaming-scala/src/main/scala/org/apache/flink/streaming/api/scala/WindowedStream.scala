@@ -108,6 +108,20 @@ class WindowedStream[T, K, W <: Window](javaStream: JavaWStream[T, K, W]) {
     this
   }
 
+  /**
+   * Enables the slicing of the windows for incremental aggregations, i.e. for `reduce()` and
+   * `aggregate()`. Elements are aggregated per slice and the slices are merged when a window
+   * fires, so that every element updates a single accumulator.
+   *
+   * Slicing is only supported for sliding event-time windows that are larger than their slide,
+   * with the default trigger and without an evictor.
+   */
+  @PublicEvolving
+  def enableSlicing(): WindowedStream[T, K, W] = {
+    javaStream.enableSlicing()
+    this
+  }
+
   // ------------------------------------------------------------------------
   //  Operations on the keyed windows
   // ------------------------------------------------------------------------
@@ -168,6 +168,39 @@ public class ExecutionConfigOptions {
 			.defaultValue("3 min")
 			.withDescription("The async timeout for the asynchronous operation to complete.");
 
+	// ------------------------------------------------------------------------
+	//  Lookup Cache Options
+	// ------------------------------------------------------------------------
+	@Documentation.TableOption(execMode = Documentation.ExecMode.BATCH_STREAMING)
+	public static final ConfigOption<Long> TABLE_EXEC_LOOKUP_CACHE_MAX_ROWS =
+		key("table.exec.lookup.cache.max-rows")
+			.defaultValue(-1L)
+			.withDescription("The max number of lookup keys whose rows the lookup join caches in each parallel " +
+				"instance, independent of the connector of the dimension table. " +
+				"-1 disables the cache.");
+
+	@Documentation.TableOption(execMode = Documentation.ExecMode.BATCH_STREAMING)
+	public static final ConfigOption<String> TABLE_EXEC_LOOKUP_CACHE_TTL =
+		key("table.exec.lookup.cache.ttl")
+			.defaultValue("10 min")
+			.withDescription("The time after which a cached lookup key expires. The lookup join does not see " +
+				"changes of the dimension table for a cached key before it expires.");
+
+	@Documentation.TableOption(execMode = Documentation.ExecMode.BATCH_STREAMING)
+	public static final ConfigOption<Boolean> TABLE_EXEC_LOOKUP_CACHE_MISSING_KEY =
+		key("table.exec.lookup.cache.cache-missing-key")
+			.defaultValue(true)
+			.withDescription("Whether the lookup cache also caches the keys that are not found in the dimension table.");
+
+	@Documentation.TableOption(execMode = Documentation.ExecMode.BATCH_STREAMING)
+	public static final ConfigOption<Boolean> TABLE_EXEC_LOOKUP_KEY_PARTITIONING =
+		key("table.exec.lookup.key-partitioning")
+			.defaultValue(false)
+			.withDescription("When true, the input of the lookup join is partitioned by the lookup keys, " +
+				"so that each parallel instance looks up and caches a disjoint subset of the keys. " +
+				"This adds a network shuffle in front of the lookup join, which does not keep the order of " +
+				"the changes of an input row whose lookup keys change.");
+
 	// ------------------------------------------------------------------------
 	//  MiniBatch Options
 	// ------------------------------------------------------------------------
@@ -197,9 +230,30 @@ public class ExecutionConfigOptions {
 			.withDescription("The maximum number of input records can be buffered for MiniBatch. " +
 				"MiniBatch is an optimization to buffer input records to reduce state access. " +
 				"MiniBatch is triggered with the allowed latency interval and when the maximum number of buffered records reached. " +
-				"NOTE: MiniBatch only works for non-windowed aggregations currently. If " + TABLE_EXEC_MINIBATCH_ENABLED.key() +
+				"NOTE: MiniBatch only works for non-windowed aggregations and regular joins currently. If " + TABLE_EXEC_MINIBATCH_ENABLED.key() +
 				" is set true, its value must be positive.");
 
+	@Documentation.TableOption(execMode = Documentation.ExecMode.STREAMING)
+	public static final ConfigOption<Boolean> TABLE_EXEC_MINIBATCH_MANAGED_MEMORY_ENABLED =
+		key("table.exec.mini-batch.managed-memory-enabled")
+			.defaultValue(false)
+			.withDescription("When true, the local aggregation of a two-phase MiniBatch aggregation buffers " +
+				"the accumulators in binary form in managed memory instead of as objects on the heap. " +
+				"The buffered records are then bounded by the managed memory of the operator instead of '" +
+				TABLE_EXEC_MINIBATCH_SIZE.key() + "'. This only applies when all accumulators are of fixed-length types. " +
+				"It is not applied when the state backend of the task uses managed memory, e.g. RocksDB with " +
+				"'state.backend.rocksdb.memory.managed', because the state backend reserves all managed memory " +
+				"of a slot for itself.");
+
+	@Documentation.TableOption(execMode = Documentation.ExecMode.STREAMING)
+	public static final ConfigOption<String> TABLE_EXEC_MINIBATCH_MANAGED_MEMORY_SIZE =
+		key("table.exec.mini-batch.managed-memory-size")
+			.defaultValue("32 mb")
+			.withDescription("Sets the managed memory size of the local aggregation of a two-phase MiniBatch " +
+				"aggregation when '" + TABLE_EXEC_MINIBATCH_MANAGED_MEMORY_ENABLED.key() + "' is true. Note: memory " +
+				"size is only a weight hint, it will affect the weight of memory that can be applied by a single " +
+				"operator in the task, the actual memory used depends on the running environment.");
+
 	// ------------------------------------------------------------------------
 	//  Other Exec Options
 	// ------------------------------------------------------------------------
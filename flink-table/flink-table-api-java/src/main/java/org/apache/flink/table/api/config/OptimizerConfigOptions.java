@@ -53,6 +53,43 @@ public class OptimizerConfigOptions {
 			.withDescription("Configures the maximum size in bytes for a table that will be broadcast to all worker " +
 				"nodes when performing a join. By setting this value to -1 to disable broadcasting.");
 
+	@Documentation.TableOption(execMode = Documentation.ExecMode.BATCH)
+	public static final ConfigOption<Boolean> TABLE_OPTIMIZER_JOIN_RUNTIME_FILTER_ENABLED =
+		key("table.optimizer.join.runtime-filter.enabled")
+			.defaultValue(false)
+			.withDescription("When it is true, a bloom filter is built from the join keys of the build side of a shuffled " +
+				"hash join at runtime, and the rows of the probe side whose keys can not match any row of the build side " +
+				"are dropped before the probe side is shuffled. This works only for inner, semi and build side outer " +
+				"joins, and the probe side is only read after the build side is finished. Default is false.");
+
+	@Documentation.TableOption(execMode = Documentation.ExecMode.BATCH)
+	public static final ConfigOption<Long> TABLE_OPTIMIZER_JOIN_RUNTIME_FILTER_MAX_SIZE =
+		key("table.optimizer.join.runtime-filter.max-size")
+			.defaultValue(4 * 1024 * 1024L)
+			.withDescription("Configures the maximum size in bytes of the bloom filter of a join, which is sent to all " +
+				"parallel instances of the probe side. No filter is built if the estimated number of rows of the build " +
+				"side is too large for a filter of this size. This works only when " +
+				TABLE_OPTIMIZER_JOIN_RUNTIME_FILTER_ENABLED.key() + " is true.");
+
+	@Documentation.TableOption(execMode = Documentation.ExecMode.BATCH)
+	public static final ConfigOption<Boolean> TABLE_OPTIMIZER_JOIN_SKEW_HANDLING_ENABLED =
+		key("table.optimizer.join.skew-handling.enabled")
+			.defaultValue(false)
+			.withDescription("When it is true, the hot join keys of one side of a shuffled hash join or sort merge join " +
+				"are counted at runtime before the shuffle. The rows of the hot keys of that side are spread over all " +
+				"tasks of the join, and the rows of the hot keys of the other side are broadcast to all tasks. " +
+				"For hash joins, the hot keys of the build side are counted, which keeps a single key from filling the " +
+				"hash table of one task. This works only if the rows of the other side do not need to be joined " +
+				"exactly once, e.g. not for full outer joins, and the output of the join is not required to be " +
+				"distributed by the join keys. The counted side is materialized before it is shuffled. Default is false.");
+
+	@Documentation.TableOption(execMode = Documentation.ExecMode.BATCH)
+	public static final ConfigOption<Double> TABLE_OPTIMIZER_JOIN_SKEW_HANDLING_HOT_KEY_RATIO =
+		key("table.optimizer.join.skew-handling.hot-key-ratio")
+			.defaultValue(0.05)
+			.withDescription("The minimum ratio of the rows of a join side a key must have to be handled as a hot key. " +
+				"This works only when " + TABLE_OPTIMIZER_JOIN_SKEW_HANDLING_ENABLED.key() + " is true.");
+
 	@Documentation.TableOption(execMode = Documentation.ExecMode.STREAMING)
 	public static final ConfigOption<Boolean> TABLE_OPTIMIZER_DISTINCT_AGG_SPLIT_ENABLED =
 		key("table.optimizer.distinct-agg.split.enabled")
@@ -72,6 +109,16 @@ public class OptimizerConfigOptions {
 				"The number is used in the first level aggregation to calculate a bucket key " +
 				"'hash_code(distinct_key) % BUCKET_NUM' which is used as an additional group key after splitting.");
 
+	@Documentation.TableOption(execMode = Documentation.ExecMode.STREAMING)
+	public static final ConfigOption<Boolean> TABLE_OPTIMIZER_WINDOW_AGG_TWO_PHASE_ENABLED =
+		key("table.optimizer.window-agg.two-phase-enabled")
+			.defaultValue(false)
+			.withDescription("Tells the optimizer whether to split event-time TUMBLE and HOP window aggregations into a local " +
+				"aggregation before the shuffle, which pre-aggregates the rows of every slice of the windows, and a " +
+				"global aggregation after the shuffle, which merges the slices into the windows. " +
+				"This works only when mini-batch is enabled, " + TABLE_OPTIMIZER_AGG_PHASE_STRATEGY.key() + " is not " +
+				"ONE_PHASE and all aggregate functions are mergeable. Default is false.");
+
 	@Documentation.TableOption(execMode = Documentation.ExecMode.BATCH_STREAMING)
 	public static final ConfigOption<Boolean> TABLE_OPTIMIZER_REUSE_SUB_PLAN_ENABLED =
 		key("table.optimizer.reuse-sub-plan-enabled")
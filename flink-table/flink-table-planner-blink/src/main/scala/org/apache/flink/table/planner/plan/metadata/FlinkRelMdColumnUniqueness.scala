@@ -332,6 +332,14 @@ class FlinkRelMdColumnUniqueness private extends MetadataHandler[BuiltInMetadata
     areColumnsUniqueOnAggregate(rel.grouping, mq, columns, ignoreNulls)
   }
 
+  def areColumnsUnique(
+      rel: StreamExecDeduplicateGroupAggregate,
+      mq: RelMetadataQuery,
+      columns: ImmutableBitSet,
+      ignoreNulls: Boolean): JBoolean = {
+    areColumnsUniqueOnAggregate(rel.grouping, mq, columns, ignoreNulls)
+  }
+
   def areColumnsUnique(
       rel: StreamExecGlobalGroupAggregate,
       mq: RelMetadataQuery,
@@ -402,6 +410,26 @@ class FlinkRelMdColumnUniqueness private extends MetadataHandler[BuiltInMetadata
       ignoreNulls)
   }
 
+  def areColumnsUnique(
+      rel: StreamExecLocalGroupWindowAggregate,
+      mq: RelMetadataQuery,
+      columns: ImmutableBitSet,
+      ignoreNulls: Boolean): JBoolean = null
+
+  def areColumnsUnique(
+      rel: StreamExecGlobalGroupWindowAggregate,
+      mq: RelMetadataQuery,
+      columns: ImmutableBitSet,
+      ignoreNulls: Boolean): JBoolean = {
+    areColumnsUniqueOnWindowAggregate(
+      rel.getGrouping,
+      rel.getWindowProperties,
+      rel.getRowType.getFieldCount,
+      mq,
+      columns,
+      ignoreNulls)
+  }
+
   private def areColumnsUniqueOnWindowAggregate(
       grouping: Array[Int],
       namedProperties: Seq[PlannerNamedWindowProperty],
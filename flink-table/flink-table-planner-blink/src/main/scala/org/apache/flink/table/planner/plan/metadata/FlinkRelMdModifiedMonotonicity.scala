@@ -299,6 +299,26 @@ class FlinkRelMdModifiedMonotonicity private extends MetadataHandler[ModifiedMon
     }
   }
 
+  def getRelModifiedMonotonicity(
+      rel: StreamExecLocalGroupWindowAggregate,
+      mq: RelMetadataQuery): RelModifiedMonotonicity = {
+    if (allAppend(mq, rel.getInput)) {
+      constants(rel.getRowType.getFieldCount)
+    } else {
+      null
+    }
+  }
+
+  def getRelModifiedMonotonicity(
+      rel: StreamExecGlobalGroupWindowAggregate,
+      mq: RelMetadataQuery): RelModifiedMonotonicity = {
+    if (allAppend(mq, rel.getInput) && !rel.producesUpdates) {
+      constants(rel.getRowType.getFieldCount)
+    } else {
+      null
+    }
+  }
+
   def getRelModifiedMonotonicity(
     rel: StreamExecGroupWindowTableAggregate,
     mq: RelMetadataQuery): RelModifiedMonotonicity = {
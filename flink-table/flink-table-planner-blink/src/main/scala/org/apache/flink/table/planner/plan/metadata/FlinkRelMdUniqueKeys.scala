@@ -299,6 +299,13 @@ class FlinkRelMdUniqueKeys private extends MetadataHandler[BuiltInMetadata.Uniqu
     getUniqueKeysOnAggregate(rel.grouping, mq, ignoreNulls)
   }
 
+  def getUniqueKeys(
+      rel: StreamExecDeduplicateGroupAggregate,
+      mq: RelMetadataQuery,
+      ignoreNulls: Boolean): JSet[ImmutableBitSet] = {
+    getUniqueKeysOnAggregate(rel.grouping, mq, ignoreNulls)
+  }
+
   def getUniqueKeys(
       rel: StreamExecLocalGroupAggregate,
       mq: RelMetadataQuery,
@@ -355,6 +362,19 @@ class FlinkRelMdUniqueKeys private extends MetadataHandler[BuiltInMetadata.Uniqu
       rel.getRowType.getFieldCount, rel.getWindowProperties, rel.getGrouping, mq, ignoreNulls)
   }
 
+  def getUniqueKeys(
+      rel: StreamExecLocalGroupWindowAggregate,
+      mq: RelMetadataQuery,
+      ignoreNulls: Boolean): util.Set[ImmutableBitSet] = null
+
+  def getUniqueKeys(
+      rel: StreamExecGlobalGroupWindowAggregate,
+      mq: RelMetadataQuery,
+      ignoreNulls: Boolean): util.Set[ImmutableBitSet] = {
+    getUniqueKeysOnWindowAgg(
+      rel.getRowType.getFieldCount, rel.getWindowProperties, rel.getGrouping, mq, ignoreNulls)
+  }
+
   private def getUniqueKeysOnWindowAgg(
       fieldCount: Int,
       namedProperties: Seq[PlannerNamedWindowProperty],
@@ -35,11 +35,11 @@ import org.apache.flink.table.planner.functions.utils.UserDefinedFunctionUtils.{
 import org.apache.flink.table.planner.plan.nodes.FlinkRelNode
 import org.apache.flink.table.planner.plan.nodes.exec.ExecNode
 import org.apache.flink.table.planner.plan.utils.LookupJoinUtil._
-import org.apache.flink.table.planner.plan.utils.{JoinTypeUtil, RelExplainUtil}
+import org.apache.flink.table.planner.plan.utils.{JoinTypeUtil, KeySelectorUtil, RelExplainUtil}
 import org.apache.flink.table.planner.plan.utils.PythonUtil.containsPythonCall
 import org.apache.flink.table.planner.plan.utils.RelExplainUtil.preferExpressionFormat
 import org.apache.flink.table.planner.utils.TableConfigUtils.getMillisecondFromConfigDuration
-import org.apache.flink.table.runtime.operators.join.lookup.{AsyncLookupJoinRunner, AsyncLookupJoinWithCalcRunner, LookupJoinRunner, LookupJoinWithCalcRunner}
+import org.apache.flink.table.runtime.operators.join.lookup.{AsyncLookupJoinRunner, AsyncLookupJoinWithCalcRunner, LookupCache, LookupJoinRunner, LookupJoinWithCalcRunner}
 import org.apache.flink.table.runtime.types.ClassLogicalTypeConverter
 import org.apache.flink.table.runtime.types.ClassLogicalTypeConverter.getInternalClassForType
 import org.apache.flink.table.runtime.types.LogicalTypeDataTypeConverter.fromDataTypeToLogicalType
@@ -131,6 +131,13 @@ abstract class CommonLookupJoin(
     joinKeyPairs,
     tableSource.getTableSchema,
     calcOnTemporalTable)
+  // the input fields that the lookup keys refer to, constant lookup keys are not part of it
+  val lookupKeyInputFields: Array[Int] = allLookupKeys.keys.toList.sorted.flatMap { field =>
+    allLookupKeys(field) match {
+      case FieldRefLookupKey(index) => Some(index)
+      case _ => None
+    }
+  }.toArray
   // remaining condition the filter joined records (left input record X lookup-ed records)
   val remainingCondition: Option[RexNode] = getRemainingJoinCondition(
     cluster.getRexBuilder,
@@ -237,6 +244,9 @@ abstract class CommonLookupJoin(
     val lookupableTableSource = tableSource.asInstanceOf[LookupableTableSource[_]]
     val leftOuterJoin = joinType == JoinRelType.LEFT
 
+    val lookupCache = createLookupCache(
+      config, inputRowType, tableSourceRowType, lookupKeyInputFields)
+
     val operatorFactory = if (lookupableTableSource.isAsyncEnabled) {
       val asyncBufferCapacity= config.getConfiguration
         .getInteger(ExecutionConfigOptions.TABLE_EXEC_ASYNC_LOOKUP_BUFFER_CAPACITY)
@@ -297,7 +307,8 @@ abstract class CommonLookupJoin(
           producedTypeInfo,
           BaseRowTypeInfo.of(rightRowType),
           leftOuterJoin,
-          asyncBufferCapacity)
+          asyncBufferCapacity,
+          lookupCache.orNull)
       } else {
         // right type is the same as table source row type, because no calc after temporal table
         val rightRowType = tableSourceRowType
@@ -313,7 +324,8 @@ abstract class CommonLookupJoin(
           producedTypeInfo,
           BaseRowTypeInfo.of(rightRowType),
           leftOuterJoin,
-          asyncBufferCapacity)
+          asyncBufferCapacity,
+          lookupCache.orNull)
       }
 
       // force ORDERED output mode currently, optimize it to UNORDERED
@@ -372,7 +384,8 @@ abstract class CommonLookupJoin(
           generatedCalc,
           generatedCollector,
           leftOuterJoin,
-          rightRowType.getFieldCount)
+          rightRowType.getFieldCount,
+          lookupCache.orNull)
       } else {
         // right type is the same as table source row type, because no calc after temporal table
         val rightRowType = tableSourceRowType
@@ -387,7 +400,8 @@ abstract class CommonLookupJoin(
           generatedFetcher,
           generatedCollector,
           leftOuterJoin,
-          rightRowType.getFieldCount)
+          rightRowType.getFieldCount,
+          lookupCache.orNull)
       }
       SimpleOperatorFactory.of(new ProcessOperator(processFunc))
     }
@@ -400,6 +414,34 @@ abstract class CommonLookupJoin(
       inputTransformation.getParallelism)
   }
 
+  /**
+    * Creates the [[LookupCache]] of the lookup join, if the cache is enabled.
+    */
+  private def createLookupCache(
+      config: TableConfig,
+      inputRowType: RowType,
+      tableSourceRowType: RowType,
+      lookupKeyInputFields: Array[Int]): Option[LookupCache] = {
+    val maxRows = config.getConfiguration.getLong(
+      ExecutionConfigOptions.TABLE_EXEC_LOOKUP_CACHE_MAX_ROWS)
+    if (maxRows > 0) {
+      val ttl = getMillisecondFromConfigDuration(
+        config, ExecutionConfigOptions.TABLE_EXEC_LOOKUP_CACHE_TTL)
+      val cacheMissingKey = config.getConfiguration.getBoolean(
+        ExecutionConfigOptions.TABLE_EXEC_LOOKUP_CACHE_MISSING_KEY)
+      val keySelector = KeySelectorUtil.getBaseRowSelector(
+        lookupKeyInputFields, BaseRowTypeInfo.of(inputRowType))
+      Some(new LookupCache(
+        keySelector,
+        BaseRowTypeInfo.of(tableSourceRowType),
+        maxRows,
+        ttl,
+        cacheMissingKey))
+    } else {
+      None
+    }
+  }
+
   private def rowTypeEquals(expected: TypeInformation[_], actual: TypeInformation[_]): Boolean = {
     // check internal and external type, cause we will auto convert external class to internal
     // class (eg: Row => BaseRow).
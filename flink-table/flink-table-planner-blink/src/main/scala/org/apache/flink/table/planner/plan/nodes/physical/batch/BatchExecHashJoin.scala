@@ -20,8 +20,12 @@ package org.apache.flink.table.planner.plan.nodes.physical.batch
 import org.apache.flink.api.dag.Transformation
 import org.apache.flink.configuration.MemorySize
 import org.apache.flink.runtime.operators.DamBehavior
+import org.apache.flink.runtime.operators.util.BloomFilter
 import org.apache.flink.streaming.api.operators.SimpleOperatorFactory
-import org.apache.flink.table.api.config.ExecutionConfigOptions
+import org.apache.flink.streaming.api.transformations.PartitionTransformation
+import org.apache.flink.streaming.runtime.partitioner.{BroadcastPartitioner, GlobalPartitioner}
+import org.apache.flink.table.api.TableConfig
+import org.apache.flink.table.api.config.{ExecutionConfigOptions, OptimizerConfigOptions}
 import org.apache.flink.table.dataformat.BaseRow
 import org.apache.flink.table.planner.calcite.FlinkTypeFactory
 import org.apache.flink.table.planner.codegen.ProjectionCodeGenerator.generateProjection
@@ -32,11 +36,14 @@ import org.apache.flink.table.planner.plan.cost.{FlinkCost, FlinkCostFactory}
 import org.apache.flink.table.planner.plan.nodes.FlinkConventions
 import org.apache.flink.table.planner.plan.nodes.exec.ExecNode
 import org.apache.flink.table.planner.plan.utils.{FlinkRelMdUtil, JoinUtil}
+import org.apache.flink.table.runtime.generated.GeneratedProjection
+import org.apache.flink.table.runtime.operators.join.runtimefilter.{GlobalRuntimeFilterBuilderOperator, LocalRuntimeFilterBuilderOperator, RuntimeBloomFilter, RuntimeFilterOperator}
 import org.apache.flink.table.runtime.operators.join.{HashJoinOperator, HashJoinType}
 import org.apache.flink.table.runtime.typeutils.{BaseRowTypeInfo, BinaryRowSerializer}
-import org.apache.flink.table.types.logical.RowType
+import org.apache.flink.table.types.logical.{RowType, VarBinaryType}
 
 import org.apache.calcite.plan._
+import org.apache.calcite.rel.RelDistribution
 import org.apache.calcite.rel.core._
 import org.apache.calcite.rel.metadata.RelMetadataQuery
 import org.apache.calcite.rel.{RelNode, RelWriter}
@@ -222,6 +229,17 @@ class BatchExecHashJoin(
     val buildRowCount = Util.first(mq.getRowCount(buildRel), 200000).toLong
     val probeRowCount = Util.first(mq.getRowCount(probeRel), 200000).toLong
 
+    val filteredProbe = createRuntimeFilter(planner, probe, bProj, pProj, buildRowCount)
+      .getOrElse(probe)
+    // the hot keys of the build side are split, so the probe rows must not be preserved
+    val (buildShuffle, probeShuffle) = hashJoinType match {
+      case HashJoinType.INNER | HashJoinType.BUILD_OUTER | HashJoinType.BUILD_LEFT_SEMI |
+           HashJoinType.BUILD_LEFT_ANTI if !isBroadcast =>
+        createSkewedJoinShuffles(planner, buildRel, probeRel, build, filteredProbe, bProj, pProj)
+          .getOrElse((build, filteredProbe))
+      case _ => (build, filteredProbe)
+    }
+
     // operator
     val operator = if (LongHashJoinGenerator.support(hashJoinType, keyType, filterNulls)) {
       LongHashJoinGenerator.gen(
@@ -255,12 +273,114 @@ class BatchExecHashJoin(
     val managedMemory = MemorySize.parse(config.getConfiguration.getString(
       ExecutionConfigOptions.TABLE_EXEC_RESOURCE_HASH_JOIN_MEMORY)).getBytes
     ExecNode.createTwoInputTransformation(
-      build,
-      probe,
+      buildShuffle,
+      probeShuffle,
       getRelDetailedDescription,
       operator,
       BaseRowTypeInfo.of(FlinkTypeFactory.toLogicalRowType(getRowType)),
       probe.getParallelism,
       managedMemory)
   }
+
+  /**
+    * Creates the runtime filter of the probe side if it is enabled and applicable, and returns
+    * the probe side exchange over the filtered rows.
+    *
+    * The join keys of the build side are hashed into a bloom filter before the build side
+    * exchange, the filters of all build side tasks are merged by a single task and broadcast to
+    * a filter before the probe side exchange. The probe side exchange is replaced by a copy over
+    * the filter.
+    */
+  private def createRuntimeFilter(
+      planner: BatchPlanner,
+      probe: Transformation[BaseRow],
+      buildProjection: GeneratedProjection,
+      probeProjection: GeneratedProjection,
+      buildRowCount: Long): Option[Transformation[BaseRow]] = {
+    val config = planner.getTableConfig
+    if (!isRuntimeFilterApplicable(config)) {
+      return None
+    }
+    val probeExchange = probe match {
+      case p: PartitionTransformation[_] => p.asInstanceOf[PartitionTransformation[BaseRow]]
+      case _ => return None
+    }
+
+    val maxByteSize = Math.min(
+      config.getConfiguration.getLong(
+        OptimizerConfigOptions.TABLE_OPTIMIZER_JOIN_RUNTIME_FILTER_MAX_SIZE),
+      Int.MaxValue / 8).toInt
+    if (maxByteSize <= 0) {
+      return None
+    }
+    val expectedEntries = Math.max(1L, Math.min(buildRowCount, Int.MaxValue)).toInt
+    val byteSize = RuntimeBloomFilter.computeByteSize(
+      expectedEntries, BatchExecHashJoin.RUNTIME_FILTER_FPP, maxByteSize)
+    if (BloomFilter.estimateFalsePositiveProbability(expectedEntries, byteSize * 8) >
+        BatchExecHashJoin.RUNTIME_FILTER_MAX_FPP) {
+      // the build side is too large for the filter
+      return None
+    }
+
+    val filterType = BaseRowTypeInfo.of(RowType.of(new VarBinaryType(VarBinaryType.MAX_LENGTH)))
+    val buildInput = buildRel.getInput(0).asInstanceOf[ExecNode[BatchPlanner, _]]
+      .translateToPlan(planner).asInstanceOf[Transformation[BaseRow]]
+    val localBuilder = ExecNode.createOneInputTransformation(
+      buildInput,
+      s"LocalRuntimeFilterBuilder(${getRelDetailedDescription})",
+      SimpleOperatorFactory.of(new LocalRuntimeFilterBuilderOperator(
+        buildProjection, expectedEntries, byteSize)),
+      filterType,
+      buildInput.getParallelism)
+    val globalBuilder = ExecNode.createOneInputTransformation(
+      new PartitionTransformation(localBuilder, new GlobalPartitioner[BaseRow]),
+      s"GlobalRuntimeFilterBuilder(${getRelDetailedDescription})",
+      SimpleOperatorFactory.of(new GlobalRuntimeFilterBuilderOperator),
+      filterType,
+      1)
+
+    val probeInput = probeExchange.getInput
+    val runtimeFilter = ExecNode.createTwoInputTransformation(
+      new PartitionTransformation(globalBuilder, new BroadcastPartitioner[BaseRow]),
+      probeInput,
+      s"RuntimeFilter(${getRelDetailedDescription})",
+      SimpleOperatorFactory.of(new RuntimeFilterOperator(probeProjection, expectedEntries)),
+      probeInput.getOutputType,
+      probeInput.getParallelism)
+    val filteredProbe = new PartitionTransformation(
+      runtimeFilter, probeExchange.getPartitioner, probeExchange.getShuffleMode)
+    filteredProbe.setOutputType(probeExchange.getOutputType)
+    filteredProbe.setParallelism(probeExchange.getParallelism)
+    Some(filteredProbe)
+  }
+
+  private def isRuntimeFilterApplicable(config: TableConfig): Boolean = {
+    if (!config.getConfiguration.getBoolean(
+        OptimizerConfigOptions.TABLE_OPTIMIZER_JOIN_RUNTIME_FILTER_ENABLED)) {
+      return false
+    }
+    // only the probe rows which can not match are dropped by the join
+    val dropsUnmatchedProbeRows = hashJoinType match {
+      case HashJoinType.INNER | HashJoinType.BUILD_OUTER | HashJoinType.SEMI |
+           HashJoinType.BUILD_LEFT_SEMI | HashJoinType.BUILD_LEFT_ANTI => true
+      case _ => false
+    }
+    val isHashExchange = (rel: RelNode) => rel match {
+      case e: BatchExecExchange =>
+        e.getDistribution.getType == RelDistribution.Type.HASH_DISTRIBUTED
+      case _ => false
+    }
+    dropsUnmatchedProbeRows && !isBroadcast && buildKeys.nonEmpty &&
+      isHashExchange(buildRel) && isHashExchange(probeRel) &&
+      !sharesInputs(buildRel.getInput(0), probeRel.getInput(0))
+  }
+}
+
+object BatchExecHashJoin {
+
+  /** The false positive probability the runtime filter is sized for. */
+  val RUNTIME_FILTER_FPP = 0.05
+
+  /** The max estimated false positive probability to still build a runtime filter. */
+  val RUNTIME_FILTER_MAX_FPP = 0.3
 }
@@ -17,22 +17,33 @@
  */
 package org.apache.flink.table.planner.plan.nodes.physical.batch
 
+import org.apache.flink.api.dag.Transformation
+import org.apache.flink.streaming.api.operators.SimpleOperatorFactory
+import org.apache.flink.streaming.api.transformations.{PartitionTransformation, ShuffleMode, SideOutputTransformation, UnionTransformation}
+import org.apache.flink.streaming.runtime.partitioner.{BroadcastPartitioner, ForwardPartitioner, GlobalPartitioner, RebalancePartitioner, StreamPartitioner}
 import org.apache.flink.table.api.TableConfig
+import org.apache.flink.table.api.config.OptimizerConfigOptions
 import org.apache.flink.table.dataformat.BaseRow
 import org.apache.flink.table.planner.codegen.{CodeGeneratorContext, ExprCodeGenerator, FunctionCodeGenerator}
+import org.apache.flink.table.planner.delegation.BatchPlanner
 import org.apache.flink.table.planner.plan.`trait`.{FlinkRelDistribution, FlinkRelDistributionTraitDef}
 import org.apache.flink.table.planner.plan.nodes.common.CommonPhysicalJoin
-import org.apache.flink.table.planner.plan.nodes.exec.BatchExecNode
-import org.apache.flink.table.runtime.generated.GeneratedJoinCondition
-import org.apache.flink.table.types.logical.RowType
+import org.apache.flink.table.planner.plan.nodes.exec.{BatchExecNode, ExecNode}
+import org.apache.flink.table.runtime.generated.{GeneratedJoinCondition, GeneratedProjection}
+import org.apache.flink.table.runtime.operators.join.skew.{GlobalHotKeySelectorOperator, LocalHotKeyCounterOperator, SkewedKeySplitOperator}
+import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo
+import org.apache.flink.table.types.logical.{BigIntType, IntType, RowType}
+import org.apache.flink.util.OutputTag
 
 import org.apache.calcite.plan.{RelOptCluster, RelOptRule, RelTraitSet}
-import org.apache.calcite.rel.RelDistribution.Type.{HASH_DISTRIBUTED, RANGE_DISTRIBUTED}
+import org.apache.calcite.rel.RelDistribution.Type.{ANY, HASH_DISTRIBUTED, RANGE_DISTRIBUTED}
 import org.apache.calcite.rel.core.{Join, JoinRelType}
 import org.apache.calcite.rel.{RelCollations, RelNode}
 import org.apache.calcite.rex.RexNode
 import org.apache.calcite.util.ImmutableIntList
 
+import java.util.{Collections, IdentityHashMap}
+
 import scala.collection.JavaConversions._
 import scala.collection.mutable
 
@@ -222,4 +233,133 @@ abstract class BatchExecJoinBase(
     val providedTraitSet = requiredTraitSet.replace(RelCollations.EMPTY)
     Some(copy(providedTraitSet, Seq(newLeft, newRight)))
   }
+
+  /**
+    * Returns true if the given inputs have a common (reused) input. An input which is blocked
+    * until the other input is finished would deadlock the common input.
+    */
+  protected def sharesInputs(input1: RelNode, input2: RelNode): Boolean = {
+    val nodes = Collections.newSetFromMap(new IdentityHashMap[RelNode, java.lang.Boolean]())
+    def collect(node: RelNode): Unit = {
+      if (nodes.add(node)) {
+        node.getInputs.foreach(collect)
+      }
+    }
+    collect(input1)
+    def exists(node: RelNode): Boolean = {
+      nodes.contains(node) || node.getInputs.exists(exists)
+    }
+    exists(input2)
+  }
+
+  /**
+    * Creates the shuffles of both sides of the join with skew handling if it is enabled and
+    * applicable, and returns the new shuffles of the split side and the replicated side.
+    *
+    * The join keys of the split side are counted before the split side is shuffled, and the hash
+    * codes of the hot keys are broadcast to both sides. The rows of the hot keys of the split
+    * side are spread over all tasks of the join, the rows of the hot keys of the replicated side
+    * are broadcast to all tasks, and all other rows are shuffled by the original hash
+    * partitioners. So the caller must ensure that the join emits every row of the replicated
+    * side at most once if it matches, i.e. no outer, semi or anti join on the replicated side.
+    *
+    * The split side is materialized before it is split, as it has to be counted completely.
+    */
+  protected def createSkewedJoinShuffles(
+      planner: BatchPlanner,
+      splitRel: RelNode,
+      replicatedRel: RelNode,
+      splitShuffle: Transformation[BaseRow],
+      replicatedShuffle: Transformation[BaseRow],
+      splitProjection: GeneratedProjection,
+      replicatedProjection: GeneratedProjection)
+    : Option[(Transformation[BaseRow], Transformation[BaseRow])] = {
+    val config = planner.getTableConfig.getConfiguration
+    if (!config.getBoolean(OptimizerConfigOptions.TABLE_OPTIMIZER_JOIN_SKEW_HANDLING_ENABLED)) {
+      return None
+    }
+    // the rows of a key are not in the same task anymore
+    val distribution = getTraitSet.getTrait(FlinkRelDistributionTraitDef.INSTANCE)
+    if (distribution != null && distribution.getType != ANY) {
+      return None
+    }
+    val isHashExchange = (rel: RelNode) => rel match {
+      case e: BatchExecExchange => e.getDistribution.getType == HASH_DISTRIBUTED
+      case _ => false
+    }
+    if (!isHashExchange(splitRel) || !isHashExchange(replicatedRel) ||
+        sharesInputs(splitRel.getInput(0), replicatedRel.getInput(0))) {
+      return None
+    }
+    val (splitExchange, replicatedExchange) = (splitShuffle, replicatedShuffle) match {
+      case (s: PartitionTransformation[_], r: PartitionTransformation[_]) =>
+        (s.asInstanceOf[PartitionTransformation[BaseRow]],
+          r.asInstanceOf[PartitionTransformation[BaseRow]])
+      case _ => return None
+    }
+
+    val splitInput = splitExchange.getInput
+    val counter = ExecNode.createOneInputTransformation(
+      splitInput,
+      s"LocalHotKeyCounter(${getRelDetailedDescription})",
+      SimpleOperatorFactory.of(new LocalHotKeyCounterOperator(
+        splitProjection, BatchExecJoinBase.HOT_KEY_COUNTER_CAPACITY)),
+      BaseRowTypeInfo.of(RowType.of(new IntType(), new BigIntType())),
+      splitInput.getParallelism)
+    val selector = ExecNode.createOneInputTransformation(
+      new PartitionTransformation(counter, new GlobalPartitioner[BaseRow]),
+      s"GlobalHotKeySelector(${getRelDetailedDescription})",
+      SimpleOperatorFactory.of(new GlobalHotKeySelectorOperator(config.getDouble(
+        OptimizerConfigOptions.TABLE_OPTIMIZER_JOIN_SKEW_HANDLING_HOT_KEY_RATIO))),
+      BaseRowTypeInfo.of(RowType.of(new IntType())),
+      1)
+
+    def createShuffle(
+        input: Transformation[BaseRow],
+        exchange: PartitionTransformation[BaseRow],
+        projection: GeneratedProjection,
+        hotKeyPartitioner: StreamPartitioner[BaseRow],
+        name: String): Transformation[BaseRow] = {
+      val hotKeyTag = new OutputTag[BaseRow]("hot-keys", input.getOutputType)
+      val split = ExecNode.createTwoInputTransformation(
+        new PartitionTransformation(selector, new BroadcastPartitioner[BaseRow]),
+        input,
+        s"$name(${getRelDetailedDescription})",
+        SimpleOperatorFactory.of(new SkewedKeySplitOperator(projection, hotKeyTag)),
+        input.getOutputType,
+        input.getParallelism)
+      val hashed = new PartitionTransformation(
+        split, exchange.getPartitioner, exchange.getShuffleMode)
+      val hot = new PartitionTransformation(
+        new SideOutputTransformation(split, hotKeyTag), hotKeyPartitioner, exchange.getShuffleMode)
+      Seq(hashed, hot).foreach { t =>
+        t.setOutputType(exchange.getOutputType)
+        t.setParallelism(exchange.getParallelism)
+      }
+      new UnionTransformation(Seq[Transformation[BaseRow]](hashed, hot))
+    }
+
+    // the split side is counted completely before its rows are split
+    val materializedSplitInput = new PartitionTransformation(
+      splitInput, new ForwardPartitioner[BaseRow], ShuffleMode.BATCH)
+    val newSplitShuffle = createShuffle(
+      materializedSplitInput,
+      splitExchange,
+      splitProjection,
+      new RebalancePartitioner[BaseRow],
+      "SkewedKeySplit")
+    val newReplicatedShuffle = createShuffle(
+      replicatedExchange.getInput,
+      replicatedExchange,
+      replicatedProjection,
+      new BroadcastPartitioner[BaseRow],
+      "SkewedKeyReplicate")
+    Some((newSplitShuffle, newReplicatedShuffle))
+  }
+}
+
+object BatchExecJoinBase {
+
+  /** The number of keys the hot key counter of every task keeps. */
+  val HOT_KEY_COUNTER_CAPACITY = 1000
 }
@@ -239,15 +239,37 @@ class BatchExecSortMergeJoin(
     val leftSortGen = newSortGen(leftAllKey, leftType)
     val rightSortGen = newSortGen(rightAllKey, rightType)
 
+    val leftIsSmaller = estimateOutputSize(getLeft) < estimateOutputSize(getRight)
+    val leftProjection = generateProjection(
+      CodeGeneratorContext(config), "SMJProjection", leftType, keyType, leftAllKey)
+    val rightProjection = generateProjection(
+      CodeGeneratorContext(config), "SMJProjection", rightType, keyType, rightAllKey)
+
+    // the hot keys of the side whose rows are preserved are split, for inner joins of the
+    // smaller side, as it is materialized
+    val splitLeft = flinkJoinType match {
+      case FlinkJoinType.INNER => Some(leftIsSmaller)
+      case FlinkJoinType.LEFT | FlinkJoinType.SEMI | FlinkJoinType.ANTI => Some(true)
+      case FlinkJoinType.RIGHT => Some(false)
+      case _ => None
+    }
+    val (leftShuffle, rightShuffle) = splitLeft match {
+      case Some(true) =>
+        createSkewedJoinShuffles(planner, getLeft, getRight, leftInput, rightInput,
+          leftProjection, rightProjection).getOrElse((leftInput, rightInput))
+      case Some(false) =>
+        createSkewedJoinShuffles(planner, getRight, getLeft, rightInput, leftInput,
+          rightProjection, leftProjection).map(_.swap).getOrElse((leftInput, rightInput))
+      case None => (leftInput, rightInput)
+    }
+
     val operator = new SortMergeJoinOperator(
       externalBufferMemory.toDouble / managedMemory,
       flinkJoinType,
-      estimateOutputSize(getLeft) < estimateOutputSize(getRight),
+      leftIsSmaller,
       condFunc,
-      generateProjection(
-        CodeGeneratorContext(config), "SMJProjection", leftType, keyType, leftAllKey),
-      generateProjection(
-        CodeGeneratorContext(config), "SMJProjection", rightType, keyType, rightAllKey),
+      leftProjection,
+      rightProjection,
       leftSortGen.generateNormalizedKeyComputer("LeftComputer"),
       leftSortGen.generateRecordComparator("LeftComparator"),
       rightSortGen.generateNormalizedKeyComputer("RightComputer"),
@@ -256,8 +278,8 @@ class BatchExecSortMergeJoin(
       filterNulls)
 
     ExecNode.createTwoInputTransformation(
-      leftInput,
-      rightInput,
+      leftShuffle,
+      rightShuffle,
       getRelDetailedDescription,
       SimpleOperatorFactory.of(operator),
       BaseRowTypeInfo.of(FlinkTypeFactory.toLogicalRowType(getRowType)),
@@ -59,6 +59,8 @@ class StreamExecDeduplicate(
 
   def getUniqueKeys: Array[Int] = uniqueKeys
 
+  def isKeepLastRow: Boolean = keepLastRow
+
   override def producesUpdates: Boolean = keepLastRow
 
   override def needsUpdatesAsRetraction(input: RelNode): Boolean = true
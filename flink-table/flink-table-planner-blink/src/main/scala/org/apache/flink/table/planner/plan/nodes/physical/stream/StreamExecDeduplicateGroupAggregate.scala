@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.nodes.physical.stream
+
+import org.apache.flink.api.dag.Transformation
+import org.apache.flink.streaming.api.operators.KeyedProcessOperator
+import org.apache.flink.streaming.api.transformations.OneInputTransformation
+import org.apache.flink.table.api.TableException
+import org.apache.flink.table.api.config.ExecutionConfigOptions
+import org.apache.flink.table.dataformat.BaseRow
+import org.apache.flink.table.planner.calcite.FlinkTypeFactory
+import org.apache.flink.table.planner.codegen.agg.AggsHandlerCodeGenerator
+import org.apache.flink.table.planner.codegen.{CodeGeneratorContext, EqualiserCodeGenerator}
+import org.apache.flink.table.planner.delegation.StreamPlanner
+import org.apache.flink.table.planner.plan.nodes.exec.{ExecNode, StreamExecNode}
+import org.apache.flink.table.planner.plan.rules.physical.stream.StreamExecRetractionRules
+import org.apache.flink.table.planner.plan.utils.{AggregateInfoList, AggregateUtil, KeySelectorUtil, RelExplainUtil}
+import org.apache.flink.table.runtime.operators.aggregate.{DeduplicateGroupAggFunction, MiniBatchDeduplicateGroupAggFunction}
+import org.apache.flink.table.runtime.operators.bundle.KeyedMapBundleOperator
+import org.apache.flink.table.runtime.types.LogicalTypeDataTypeConverter.fromDataTypeToLogicalType
+import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo
+
+import org.apache.calcite.plan.{RelOptCluster, RelTraitSet}
+import org.apache.calcite.rel.`type`.RelDataType
+import org.apache.calcite.rel.core.AggregateCall
+import org.apache.calcite.rel.{RelNode, RelWriter}
+
+import java.util
+
+import scala.collection.JavaConversions._
+
+/**
+  * Stream physical RelNode for unbounded group aggregate on the last row of every unique key,
+  * which combines a [[StreamExecDeduplicate]] keeping the last row and the following
+  * [[StreamExecGroupAggregate]].
+  *
+  * The grouping keys must be a subset of the unique keys of the deduplication. The last row of
+  * every unique key is kept in the state of its group, and an updated row is applied to the
+  * accumulators as a retraction of the previous row and an accumulation of the new row at once,
+  * instead of the deduplication emitting a retraction and an insertion which are aggregated one
+  * after the other.
+  *
+  * @see [[org.apache.flink.table.planner.plan.rules.physical.stream.DeduplicateGroupAggregateRule]]
+  */
+class StreamExecDeduplicateGroupAggregate(
+    cluster: RelOptCluster,
+    traitSet: RelTraitSet,
+    inputRel: RelNode,
+    outputRowType: RelDataType,
+    val grouping: Array[Int],
+    val aggCalls: Seq[AggregateCall],
+    val uniqueKeys: Array[Int])
+  extends StreamExecGroupAggregateBase(cluster, traitSet, inputRel)
+  with StreamExecNode[BaseRow] {
+
+  val aggInfoList: AggregateInfoList = {
+    // every updated row retracts the previous row of its unique key,
+    // but a group never becomes empty, so no count(*) is needed
+    AggregateUtil.transformToStreamAggregateInfoList(
+      aggCalls,
+      getInput.getRowType,
+      Array.fill(aggCalls.size)(true),
+      needInputCount = false,
+      isStateBackendDataViews = true)
+  }
+
+  override def producesUpdates = true
+
+  override def needsUpdatesAsRetraction(input: RelNode) = true
+
+  override def consumesRetractions = false
+
+  override def producesRetractions: Boolean = false
+
+  override def requireWatermark: Boolean = false
+
+  override def deriveRowType(): RelDataType = outputRowType
+
+  override def copy(traitSet: RelTraitSet, inputs: util.List[RelNode]): RelNode = {
+    new StreamExecDeduplicateGroupAggregate(
+      cluster,
+      traitSet,
+      inputs.get(0),
+      outputRowType,
+      grouping,
+      aggCalls,
+      uniqueKeys)
+  }
+
+  override def explainTerms(pw: RelWriter): RelWriter = {
+    val inputRowType = getInput.getRowType
+    super.explainTerms(pw)
+      .item("groupBy", RelExplainUtil.fieldToString(grouping, inputRowType))
+      .item("uniqueKey", RelExplainUtil.fieldToString(uniqueKeys, inputRowType))
+      .item("select", RelExplainUtil.streamGroupAggregationToString(
+        inputRowType,
+        getRowType,
+        aggInfoList,
+        grouping))
+  }
+
+  //~ ExecNode methods -----------------------------------------------------------
+
+  override def getInputNodes: util.List[ExecNode[StreamPlanner, _]] = {
+    getInputs.map(_.asInstanceOf[ExecNode[StreamPlanner, _]])
+  }
+
+  override def replaceInputNode(
+      ordinalInParent: Int,
+      newInputNode: ExecNode[StreamPlanner, _]): Unit = {
+    replaceInput(ordinalInParent, newInputNode.asInstanceOf[RelNode])
+  }
+
+  override protected def translateToPlanInternal(
+      planner: StreamPlanner): Transformation[BaseRow] = {
+
+    if (StreamExecRetractionRules.isAccRetract(getInput)) {
+      throw new TableException("Deduplicate doesn't support retraction input stream currently.")
+    }
+
+    val tableConfig = planner.getTableConfig
+
+    if (tableConfig.getMinIdleStateRetentionTime < 0) {
+      LOG.warn("No state retention interval configured for a query which accumulates state. " +
+        "Please provide a query configuration with valid retention interval to prevent excessive " +
+        "state size. You may specify a retention time of 0 to not clean up the state.")
+    }
+
+    val inputTransformation = getInputNodes.get(0).translateToPlan(planner)
+      .asInstanceOf[Transformation[BaseRow]]
+
+    val outRowType = FlinkTypeFactory.toLogicalRowType(outputRowType)
+    val inputRowType = FlinkTypeFactory.toLogicalRowType(getInput.getRowType)
+    val inputRowTypeInfo = BaseRowTypeInfo.of(inputRowType)
+
+    val generateRetraction = StreamExecRetractionRules.isAccRetract(this)
+
+    val generator = new AggsHandlerCodeGenerator(
+      CodeGeneratorContext(tableConfig),
+      planner.getRelBuilder,
+      inputRowType.getChildren,
+      // the last rows are kept in state and retracted later, see StreamExecGroupAggregate
+      copyInputField = true)
+
+    val aggsHandler = generator
+      .needAccumulate()
+      .needRetract()
+      .generateAggsHandler("DeduplicateGroupAggsHandler", aggInfoList)
+    val accTypes = aggInfoList.getAccTypes.map(fromDataTypeToLogicalType)
+    val aggValueTypes = aggInfoList.getActualValueTypes.map(fromDataTypeToLogicalType)
+    val recordEqualiser = new EqualiserCodeGenerator(aggValueTypes)
+      .generateRecordEqualiser("DeduplicateGroupAggValueEqualiser")
+
+    val uniqueKeySelector = KeySelectorUtil.getBaseRowSelector(uniqueKeys, inputRowTypeInfo)
+
+    val isMiniBatchEnabled = tableConfig.getConfiguration.getBoolean(
+      ExecutionConfigOptions.TABLE_EXEC_MINIBATCH_ENABLED)
+
+    val operator = if (isMiniBatchEnabled) {
+      val aggFunction = new MiniBatchDeduplicateGroupAggFunction(
+        aggsHandler,
+        recordEqualiser,
+        accTypes,
+        inputRowTypeInfo,
+        uniqueKeySelector,
+        inputRowTypeInfo.createSerializer(planner.getExecEnv.getConfig),
+        generateRetraction)
+
+      new KeyedMapBundleOperator(
+        aggFunction,
+        AggregateUtil.createMiniBatchTrigger(tableConfig))
+    } else {
+      val aggFunction = new DeduplicateGroupAggFunction(
+        tableConfig.getMinIdleStateRetentionTime,
+        tableConfig.getMaxIdleStateRetentionTime,
+        aggsHandler,
+        recordEqualiser,
+        accTypes,
+        inputRowTypeInfo,
+        uniqueKeySelector,
+        generateRetraction)
+
+      new KeyedProcessOperator[BaseRow, BaseRow, BaseRow](aggFunction)
+    }
+
+    val selector = KeySelectorUtil.getBaseRowSelector(grouping, inputRowTypeInfo)
+
+    // partitioned aggregation
+    val ret = new OneInputTransformation(
+      inputTransformation,
+      getRelDetailedDescription,
+      operator,
+      BaseRowTypeInfo.of(outRowType),
+      inputTransformation.getParallelism)
+
+    if (inputsContainSingleton()) {
+      ret.setParallelism(1)
+      ret.setMaxParallelism(1)
+    }
+
+    // set KeyType and Selector for state
+    ret.setStateKeySelector(selector)
+    ret.setStateKeyType(selector.getProducedType)
+    ret
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.nodes.physical.stream
+
+import org.apache.flink.api.dag.Transformation
+import org.apache.flink.streaming.api.transformations.OneInputTransformation
+import org.apache.flink.table.dataformat.BaseRow
+import org.apache.flink.table.planner.calcite.FlinkRelBuilder.PlannerNamedWindowProperty
+import org.apache.flink.table.planner.calcite.FlinkTypeFactory
+import org.apache.flink.table.planner.codegen.agg.AggsHandlerCodeGenerator
+import org.apache.flink.table.planner.codegen.{CodeGeneratorContext, EqualiserCodeGenerator}
+import org.apache.flink.table.planner.delegation.StreamPlanner
+import org.apache.flink.table.planner.plan.logical.LogicalWindow
+import org.apache.flink.table.planner.plan.utils.{AggregateInfoList, KeySelectorUtil, WindowEmitStrategy}
+import org.apache.flink.table.runtime.operators.window.TimeWindow
+import org.apache.flink.table.runtime.types.LogicalTypeDataTypeConverter.fromDataTypeToLogicalType
+import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo
+
+import org.apache.calcite.plan.{RelOptCluster, RelTraitSet}
+import org.apache.calcite.rel.RelNode
+import org.apache.calcite.rel.`type`.RelDataType
+import org.apache.calcite.rel.core.AggregateCall
+
+/**
+  * Stream physical RelNode for the global part of a two-phase event-time group window aggregate.
+  *
+  * <p>The input rows are the accumulators of slices produced by
+  * [[StreamExecLocalGroupWindowAggregate]], with the layout
+  * (accumulators, group keys, slice timestamp). They are merged into the windows instead of
+  * being accumulated, so the window operator keeps one accumulator per slice and key.
+  *
+  * @param localInputRowType the input type of the local aggregate, which the aggregate calls
+  *                          and the grouping refer to
+  */
+class StreamExecGlobalGroupWindowAggregate(
+    cluster: RelOptCluster,
+    traitSet: RelTraitSet,
+    inputRel: RelNode,
+    outputRowType: RelDataType,
+    val localInputRowType: RelDataType,
+    grouping: Array[Int],
+    aggCalls: Seq[AggregateCall],
+    window: LogicalWindow,
+    namedProperties: Seq[PlannerNamedWindowProperty],
+    inputTimeFieldIndex: Int,
+    emitStrategy: WindowEmitStrategy,
+    val aggInfoList: AggregateInfoList)
+  extends StreamExecGroupWindowAggregateBase(
+    cluster,
+    traitSet,
+    inputRel,
+    outputRowType,
+    localInputRowType,
+    grouping,
+    aggCalls,
+    window,
+    namedProperties,
+    inputTimeFieldIndex,
+    emitStrategy,
+    "Aggregate") {
+
+  override def consumesRetractions = false
+
+  override def copy(traitSet: RelTraitSet, inputs: java.util.List[RelNode]): RelNode = {
+    new StreamExecGlobalGroupWindowAggregate(
+      cluster,
+      traitSet,
+      inputs.get(0),
+      outputRowType,
+      localInputRowType,
+      grouping,
+      aggCalls,
+      window,
+      namedProperties,
+      inputTimeFieldIndex,
+      emitStrategy,
+      aggInfoList)
+  }
+
+  override protected def translateToPlanInternal(
+      planner: StreamPlanner): Transformation[BaseRow] = {
+    val config = planner.getTableConfig
+
+    val inputTransform = getInputNodes.get(0).translateToPlan(planner)
+      .asInstanceOf[Transformation[BaseRow]]
+
+    val inputRowTypeInfo = inputTransform.getOutputType.asInstanceOf[BaseRowTypeInfo]
+    val outRowType = BaseRowTypeInfo.of(FlinkTypeFactory.toLogicalRowType(outputRowType))
+
+    // the input rows are (accumulators, group keys, slice timestamp)
+    val accTypes = aggInfoList.getAccTypes.map(fromDataTypeToLogicalType)
+    val globalGrouping = grouping.indices.map(_ + accTypes.length).toArray
+    val timeIdx = accTypes.length + grouping.length
+
+    val generator = new AggsHandlerCodeGenerator(
+      CodeGeneratorContext(config),
+      planner.getRelBuilder,
+      FlinkTypeFactory.toLogicalRowType(localInputRowType).getChildren,
+      copyInputField = false)
+    // the accumulators are at the beginning of both the input rows and the pane accumulators
+    generator.needMerge(mergedAccOffset = 0, mergedAccOnHeap = true)
+    val aggsHandler = generator.generateNamespaceAggsHandler(
+      "GlobalGroupingWindowAggsHandler",
+      aggInfoList,
+      namedProperties.map(_.property),
+      classOf[TimeWindow])
+
+    val aggValueTypes = aggInfoList.getActualValueTypes.map(fromDataTypeToLogicalType)
+    val windowPropertyTypes = namedProperties.map(_.property.resultType).toArray
+    val equaliser = new EqualiserCodeGenerator(aggValueTypes ++ windowPropertyTypes)
+      .generateRecordEqualiser("WindowValueEqualiser")
+
+    val operator = createWindowOperator(
+      config,
+      aggsHandler,
+      equaliser,
+      accTypes,
+      windowPropertyTypes,
+      aggValueTypes,
+      inputRowTypeInfo.getLogicalTypes,
+      timeIdx,
+      inputIsAccumulators = true)
+
+    val transformation = new OneInputTransformation(
+      inputTransform,
+      getRelDetailedDescription,
+      operator,
+      outRowType,
+      inputTransform.getParallelism)
+
+    if (inputsContainSingleton()) {
+      transformation.setParallelism(1)
+      transformation.setMaxParallelism(1)
+    }
+
+    val selector = KeySelectorUtil.getBaseRowSelector(globalGrouping, inputRowTypeInfo)
+
+    // set KeyType and Selector for state
+    transformation.setStateKeySelector(selector)
+    transformation.setStateKeyType(selector.getProducedType)
+    transformation
+  }
+}
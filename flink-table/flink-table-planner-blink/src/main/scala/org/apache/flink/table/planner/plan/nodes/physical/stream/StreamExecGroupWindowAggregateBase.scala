@@ -90,6 +90,10 @@ abstract class StreamExecGroupWindowAggregateBase(
 
   def getWindowProperties: Seq[PlannerNamedWindowProperty] = namedProperties
 
+  def getInputTimeFieldIndex: Int = inputTimeFieldIndex
+
+  def getEmitStrategy: WindowEmitStrategy = emitStrategy
+
   override def deriveRowType(): RelDataType = outputRowType
 
   override def explainTerms(pw: RelWriter): RelWriter = {
@@ -194,7 +198,8 @@ abstract class StreamExecGroupWindowAggregateBase(
       windowPropertyTypes,
       aggValueTypes,
       inputRowTypeInfo.getLogicalTypes,
-      timeIdx)
+      timeIdx,
+      inputIsAccumulators = false)
 
     val transformation = new OneInputTransformation(
       inputTransform,
@@ -267,7 +272,7 @@ abstract class StreamExecGroupWindowAggregateBase(
     }
   }
 
-  private def createWindowOperator(
+  protected def createWindowOperator(
       config: TableConfig,
       aggsHandler: GeneratedClass[_],
       recordEqualiser: GeneratedRecordEqualiser,
@@ -275,7 +280,8 @@ abstract class StreamExecGroupWindowAggregateBase(
       windowPropertyTypes: Array[LogicalType],
       aggValueTypes: Array[LogicalType],
       inputFields: Seq[LogicalType],
-      timeIdx: Int): WindowOperator[_, _] = {
+      timeIdx: Int,
+      inputIsAccumulators: Boolean): WindowOperator[_, _] = {
 
     val builder = WindowOperatorBuilder
       .builder()
@@ -339,6 +345,11 @@ abstract class StreamExecGroupWindowAggregateBase(
         .withAllowedLateness(Duration.ofMillis(emitStrategy.getAllowLateness))
     }
 
+    if (inputIsAccumulators) {
+      // the input rows are the accumulators of slices which are merged into the windows
+      newBuilder.withInputAccumulators()
+    }
+
     aggsHandler match {
       case agg: GeneratedNamespaceAggsHandleFunction[_] =>
         newBuilder
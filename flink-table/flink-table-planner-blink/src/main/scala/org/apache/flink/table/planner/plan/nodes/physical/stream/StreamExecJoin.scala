@@ -20,15 +20,18 @@ package org.apache.flink.table.planner.plan.nodes.physical.stream
 
 import org.apache.flink.api.dag.Transformation
 import org.apache.flink.streaming.api.transformations.TwoInputTransformation
+import org.apache.flink.table.api.TableConfig
+import org.apache.flink.table.api.config.ExecutionConfigOptions
 import org.apache.flink.table.dataformat.BaseRow
 import org.apache.flink.table.planner.calcite.FlinkTypeFactory
 import org.apache.flink.table.planner.delegation.StreamPlanner
 import org.apache.flink.table.planner.plan.nodes.common.CommonPhysicalJoin
 import org.apache.flink.table.planner.plan.nodes.exec.{ExecNode, StreamExecNode}
-import org.apache.flink.table.planner.plan.utils.{JoinUtil, KeySelectorUtil, RelExplainUtil}
+import org.apache.flink.table.planner.plan.utils.{FlinkRelOptUtil, JoinUtil, KeySelectorUtil, RelExplainUtil}
+import org.apache.flink.table.runtime.operators.bundle.trigger.CountCoBundleTrigger
 import org.apache.flink.table.runtime.operators.join.FlinkJoinType
 import org.apache.flink.table.runtime.operators.join.stream.state.JoinInputSideSpec
-import org.apache.flink.table.runtime.operators.join.stream.{StreamingJoinOperator, StreamingSemiAntiJoinOperator}
+import org.apache.flink.table.runtime.operators.join.stream.{MiniBatchStreamingJoinOperator, StreamingJoinOperator, StreamingSemiAntiJoinOperator}
 import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo
 
 import org.apache.calcite.plan._
@@ -115,6 +118,18 @@ class StreamExecJoin(
       .explainTerms(pw)
       .item("leftInputSpec", analyzeJoinInput(left))
       .item("rightInputSpec", analyzeJoinInput(right))
+      .itemIf("miniBatch", "true", isMiniBatchJoin)
+  }
+
+  /**
+    * Whether the join buffers its inputs in mini-batches, which is supported for all joins
+    * but semi and anti joins.
+    */
+  private def isMiniBatchJoin: Boolean = {
+    val tableConfig = FlinkRelOptUtil.getTableConfigFromContext(this)
+    val isMiniBatchEnabled = tableConfig.getConfiguration.getBoolean(
+      ExecutionConfigOptions.TABLE_EXEC_MINIBATCH_ENABLED)
+    isMiniBatchEnabled && joinType != JoinRelType.ANTI && joinType != JoinRelType.SEMI
   }
 
   override def computeSelfCost(planner: RelOptPlanner, metadata: RelMetadataQuery): RelOptCost = {
@@ -179,16 +194,30 @@ class StreamExecJoin(
     } else {
       val leftIsOuter = joinType == JoinRelType.LEFT || joinType == JoinRelType.FULL
       val rightIsOuter = joinType == JoinRelType.RIGHT || joinType == JoinRelType.FULL
-      new StreamingJoinOperator(
-        leftType,
-        rightType,
-        generatedCondition,
-        leftInputSpec,
-        rightInputSpec,
-        leftIsOuter,
-        rightIsOuter,
-        filterNulls,
-        minRetentionTime)
+      if (isMiniBatchJoin) {
+        new MiniBatchStreamingJoinOperator(
+          leftType,
+          rightType,
+          generatedCondition,
+          leftInputSpec,
+          rightInputSpec,
+          leftIsOuter,
+          rightIsOuter,
+          filterNulls,
+          minRetentionTime,
+          createMiniBatchTrigger(tableConfig))
+      } else {
+        new StreamingJoinOperator(
+          leftType,
+          rightType,
+          generatedCondition,
+          leftInputSpec,
+          rightInputSpec,
+          leftIsOuter,
+          rightIsOuter,
+          filterNulls,
+          minRetentionTime)
+      }
     }
 
     val ret = new TwoInputTransformation[BaseRow, BaseRow, BaseRow](
@@ -210,6 +239,17 @@ class StreamExecJoin(
     ret
   }
 
+  private def createMiniBatchTrigger(
+      tableConfig: TableConfig): CountCoBundleTrigger[BaseRow, BaseRow] = {
+    val size = tableConfig.getConfiguration.getLong(
+      ExecutionConfigOptions.TABLE_EXEC_MINIBATCH_SIZE)
+    if (size <= 0) {
+      throw new IllegalArgumentException(
+        ExecutionConfigOptions.TABLE_EXEC_MINIBATCH_SIZE + " must be > 0.")
+    }
+    new CountCoBundleTrigger[BaseRow, BaseRow](size)
+  }
+
   private def analyzeJoinInput(input: RelNode): JoinInputSideSpec = {
     val uniqueKeys = cluster.getMetadataQuery.getUniqueKeys(input)
     if (uniqueKeys == null || uniqueKeys.isEmpty) {
@@ -19,8 +19,11 @@ package org.apache.flink.table.planner.plan.nodes.physical.stream
 
 import org.apache.flink.api.dag.Transformation
 import org.apache.flink.api.java.functions.KeySelector
+import org.apache.flink.configuration.MemorySize
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator
 import org.apache.flink.streaming.api.transformations.OneInputTransformation
-import org.apache.flink.table.dataformat.BaseRow
+import org.apache.flink.table.api.config.ExecutionConfigOptions
+import org.apache.flink.table.dataformat.{BaseRow, BinaryRow}
 import org.apache.flink.table.planner.calcite.FlinkTypeFactory
 import org.apache.flink.table.planner.codegen.CodeGeneratorContext
 import org.apache.flink.table.planner.codegen.agg.AggsHandlerCodeGenerator
@@ -29,8 +32,9 @@ import org.apache.flink.table.planner.plan.PartialFinalType
 import org.apache.flink.table.planner.plan.nodes.exec.{ExecNode, StreamExecNode}
 import org.apache.flink.table.planner.plan.rules.physical.stream.StreamExecRetractionRules
 import org.apache.flink.table.planner.plan.utils.{KeySelectorUtil, _}
-import org.apache.flink.table.runtime.operators.aggregate.MiniBatchLocalGroupAggFunction
+import org.apache.flink.table.runtime.operators.aggregate.{MiniBatchLocalAggOperatorFactory, MiniBatchLocalGroupAggFunction, MiniBatchLocalHashAggOperator}
 import org.apache.flink.table.runtime.operators.bundle.MapBundleOperator
+import org.apache.flink.table.runtime.types.LogicalTypeDataTypeConverter.fromDataTypeToLogicalType
 import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo
 
 import org.apache.calcite.plan.{RelOptCluster, RelTraitSet}
@@ -134,22 +138,49 @@ class StreamExecLocalGroupAggregate(
     }
 
     val aggsHandler = generator.generateAggsHandler("GroupAggsHandler", aggInfoList)
-    val aggFunction = new MiniBatchLocalGroupAggFunction(aggsHandler)
 
     val inputTypeInfo = inputTransformation.getOutputType.asInstanceOf[BaseRowTypeInfo]
     val selector = KeySelectorUtil.getBaseRowSelector(grouping, inputTypeInfo)
 
-    val operator = new MapBundleOperator(
+    val config = planner.getTableConfig.getConfiguration
+    val accTypes = aggInfoList.getAccTypes.map(fromDataTypeToLogicalType)
+    val aggFunction = new MiniBatchLocalGroupAggFunction(aggsHandler)
+    val bundleOperator = new MapBundleOperator(
       aggFunction,
       AggregateUtil.createMiniBatchTrigger(planner.getTableConfig),
       selector.asInstanceOf[KeySelector[BaseRow, BaseRow]])
-
-    val transformation = new OneInputTransformation(
-      inputTransformation,
-      getRelDetailedDescription,
-      operator,
-      BaseRowTypeInfo.of(outRowType),
-      inputTransformation.getParallelism)
+    // the accumulators are updated in place in managed memory, so they must be of fixed-length
+    val useManagedMemory = grouping.nonEmpty &&
+      accTypes.forall(BinaryRow.isInFixedLengthPart) &&
+      config.getBoolean(ExecutionConfigOptions.TABLE_EXEC_MINIBATCH_MANAGED_MEMORY_ENABLED)
+
+    val transformation = if (useManagedMemory) {
+      val keyTypes = grouping.map(inRowType.getTypeAt)
+      val hashAggOperator = new MiniBatchLocalHashAggOperator(
+        aggsHandler,
+        selector,
+        keyTypes,
+        accTypes)
+      // the heap operator is used instead if the state backend uses the managed memory
+      val operatorFactory = new MiniBatchLocalAggOperatorFactory(hashAggOperator, bundleOperator)
+      val ret = new OneInputTransformation(
+        inputTransformation,
+        getRelDetailedDescription,
+        operatorFactory,
+        BaseRowTypeInfo.of(outRowType),
+        inputTransformation.getParallelism)
+      val memory = MemorySize.parse(config.getString(
+        ExecutionConfigOptions.TABLE_EXEC_MINIBATCH_MANAGED_MEMORY_SIZE)).getBytes
+      ExecNode.setManagedMemoryWeight(ret, memory)
+      ret
+    } else {
+      new OneInputTransformation(
+        inputTransformation,
+        getRelDetailedDescription,
+        bundleOperator.asInstanceOf[OneInputStreamOperator[BaseRow, BaseRow]],
+        BaseRowTypeInfo.of(outRowType),
+        inputTransformation.getParallelism)
+    }
 
     if (inputsContainSingleton()) {
       transformation.setParallelism(1)
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.nodes.physical.stream
+
+import org.apache.flink.api.dag.Transformation
+import org.apache.flink.streaming.api.transformations.OneInputTransformation
+import org.apache.flink.table.api.TableException
+import org.apache.flink.table.dataformat.BaseRow
+import org.apache.flink.table.planner.calcite.FlinkTypeFactory
+import org.apache.flink.table.planner.codegen.CodeGeneratorContext
+import org.apache.flink.table.planner.codegen.agg.AggsHandlerCodeGenerator
+import org.apache.flink.table.planner.delegation.StreamPlanner
+import org.apache.flink.table.planner.plan.logical.{LogicalWindow, SlidingGroupWindow, TumblingGroupWindow}
+import org.apache.flink.table.planner.plan.nodes.exec.{ExecNode, StreamExecNode}
+import org.apache.flink.table.planner.plan.utils.AggregateUtil.toDuration
+import org.apache.flink.table.planner.plan.utils.{AggregateInfoList, AggregateUtil, KeySelectorUtil, RelExplainUtil}
+import org.apache.flink.table.runtime.operators.window.LocalSlicingWindowAggOperator
+import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo
+
+import org.apache.calcite.plan.{RelOptCluster, RelTraitSet}
+import org.apache.calcite.rel.`type`.RelDataType
+import org.apache.calcite.rel.core.AggregateCall
+import org.apache.calcite.rel.{RelNode, RelWriter, SingleRel}
+
+import java.util
+
+import scala.collection.JavaConversions._
+
+/**
+  * Stream physical RelNode for the local part of a two-phase event-time group window aggregate.
+  *
+  * <p>It pre-aggregates the input rows per group key and per slice of the windows before the
+  * shuffle, and produces rows with the layout (accumulators, group keys, slice timestamp).
+  *
+  * @see [[StreamExecGlobalGroupWindowAggregate]] for the global part.
+  */
+class StreamExecLocalGroupWindowAggregate(
+    cluster: RelOptCluster,
+    traitSet: RelTraitSet,
+    inputRel: RelNode,
+    outputRowType: RelDataType,
+    val grouping: Array[Int],
+    val aggCalls: Seq[AggregateCall],
+    val window: LogicalWindow,
+    val inputTimeFieldIndex: Int,
+    val aggInfoList: AggregateInfoList)
+  extends SingleRel(cluster, traitSet, inputRel)
+  with StreamPhysicalRel
+  with StreamExecNode[BaseRow] {
+
+  override def producesUpdates = false
+
+  override def needsUpdatesAsRetraction(input: RelNode): Boolean = false
+
+  override def consumesRetractions = false
+
+  override def producesRetractions: Boolean = false
+
+  override def requireWatermark: Boolean = true
+
+  override def deriveRowType(): RelDataType = outputRowType
+
+  override def copy(traitSet: RelTraitSet, inputs: util.List[RelNode]): RelNode = {
+    new StreamExecLocalGroupWindowAggregate(
+      cluster,
+      traitSet,
+      inputs.get(0),
+      outputRowType,
+      grouping,
+      aggCalls,
+      window,
+      inputTimeFieldIndex,
+      aggInfoList)
+  }
+
+  override def explainTerms(pw: RelWriter): RelWriter = {
+    val inputRowType = getInput.getRowType
+    super.explainTerms(pw)
+      .itemIf("groupBy", RelExplainUtil.fieldToString(grouping, inputRowType), grouping.nonEmpty)
+      .item("window", window)
+      .item("select", RelExplainUtil.streamWindowAggregationToString(
+        inputRowType,
+        grouping,
+        getRowType,
+        aggCalls,
+        Seq(),
+        withOutputFieldNames = false))
+  }
+
+  /**
+    * Returns the size of the slices of the window: the size of a tumbling window, and the
+    * greatest common divisor of size and slide of a sliding window.
+    */
+  def getSliceSize: Long = window match {
+    case TumblingGroupWindow(_, _, size) => toDuration(size).toMillis
+    case SlidingGroupWindow(_, _, size, slide) =>
+      BigInt(toDuration(size).toMillis).gcd(toDuration(slide).toMillis).toLong
+    case _ => throw new TableException(s"Window $window can not be sliced.")
+  }
+
+  //~ ExecNode methods -----------------------------------------------------------
+
+  override def getInputNodes: util.List[ExecNode[StreamPlanner, _]] = {
+    getInputs.map(_.asInstanceOf[ExecNode[StreamPlanner, _]])
+  }
+
+  override def replaceInputNode(
+      ordinalInParent: Int,
+      newInputNode: ExecNode[StreamPlanner, _]): Unit = {
+    replaceInput(ordinalInParent, newInputNode.asInstanceOf[RelNode])
+  }
+
+  override protected def translateToPlanInternal(
+      planner: StreamPlanner): Transformation[BaseRow] = {
+    val inputTransformation = getInputNodes.get(0).translateToPlan(planner)
+      .asInstanceOf[Transformation[BaseRow]]
+    val inRowType = FlinkTypeFactory.toLogicalRowType(getInput.getRowType)
+    val outRowType = FlinkTypeFactory.toLogicalRowType(outputRowType)
+
+    val generator = new AggsHandlerCodeGenerator(
+      CodeGeneratorContext(planner.getTableConfig),
+      planner.getRelBuilder,
+      inRowType.getChildren,
+      // the local aggregate result will be buffered, so need copy
+      copyInputField = true)
+
+    val aggsHandler = generator
+      .needAccumulate()
+      .generateAggsHandler("LocalGroupingWindowAggsHandler", aggInfoList)
+
+    val inputTypeInfo = inputTransformation.getOutputType.asInstanceOf[BaseRowTypeInfo]
+    val selector = KeySelectorUtil.getBaseRowSelector(grouping, inputTypeInfo)
+
+    val operator = new LocalSlicingWindowAggOperator(
+      aggsHandler,
+      selector,
+      AggregateUtil.createMiniBatchTrigger(planner.getTableConfig),
+      inputTimeFieldIndex,
+      getSliceSize)
+
+    val transformation = new OneInputTransformation(
+      inputTransformation,
+      getRelDetailedDescription,
+      operator,
+      BaseRowTypeInfo.of(outRowType),
+      inputTransformation.getParallelism)
+
+    if (inputsContainSingleton()) {
+      transformation.setParallelism(1)
+      transformation.setMaxParallelism(1)
+    }
+
+    transformation
+  }
+}
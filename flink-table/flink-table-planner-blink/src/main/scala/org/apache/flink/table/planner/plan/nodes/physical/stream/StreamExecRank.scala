@@ -187,8 +187,9 @@ class StreamExecRank(
           outputRankNumber,
           cacheSize)
 
-      // TODO Use UnaryUpdateTopNFunction after SortedMapState is merged
       case RetractStrategy =>
+        val sortedMapPageSize = tableConfig.getConfiguration.getInteger(
+          StreamExecRank.TABLE_EXEC_TOPN_SORTED_MAP_PAGE_SIZE)
         val equaliserCodeGen = new EqualiserCodeGenerator(inputRowTypeInfo.getLogicalTypes)
         val generatedEqualiser = equaliserCodeGen.generateRecordEqualiser("RankValueEqualiser")
 
@@ -202,7 +203,8 @@ class StreamExecRank(
           rankRange,
           generatedEqualiser,
           generateRetraction,
-          outputRankNumber)
+          outputRankNumber,
+          sortedMapPageSize)
     }
     val operator = new KeyedProcessOperator(processFunction)
     processFunction.setKeyContext(operator)
@@ -238,4 +240,15 @@ object StreamExecRank {
       .defaultValue(JLong.valueOf(10000L))
       .withDescription("TopN operator has a cache which caches partial state contents to reduce" +
           " state access. Cache size is the number of records in each TopN task.")
+
+  // It is a experimental config, will may be removed later.
+  @Experimental
+  val TABLE_EXEC_TOPN_SORTED_MAP_PAGE_SIZE: ConfigOption[Integer] =
+  key("table.exec.topn.sorted-map.page-size")
+      .defaultValue(Integer.valueOf(0))
+      .withDescription("The retractable TopN operator keeps the sorted keys of each partition in" +
+          " a sorted map. By default, the sorted map is a single state value which is read and" +
+          " written for every record. If the page size is larger than 1, the sorted map is kept" +
+          " in pages of at most this number of keys, and a record only accesses the pages up to" +
+          " the rank end and the pages it modifies. This is recommended for large partitions.")
 }
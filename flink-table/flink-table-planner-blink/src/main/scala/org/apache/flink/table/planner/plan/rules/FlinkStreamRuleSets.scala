@@ -425,8 +425,11 @@ object FlinkStreamRuleSets {
     * RuleSet to optimize plans after stream exec execution.
     */
   val PHYSICAL_REWRITE: RuleSet = RuleSets.ofList(
+    // deduplicate agg rule, before the agg is split into local and global agg
+    DeduplicateGroupAggregateRule.INSTANCE,
     //optimize agg rule
     TwoStageOptimizedAggregateRule.INSTANCE,
+    TwoStageOptimizedWindowAggregateRule.INSTANCE,
     // incremental agg rule
     IncrementalAggregateRule.INSTANCE
   )
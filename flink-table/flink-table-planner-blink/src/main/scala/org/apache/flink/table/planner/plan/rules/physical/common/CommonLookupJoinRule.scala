@@ -18,11 +18,13 @@
 package org.apache.flink.table.planner.plan.rules.physical.common
 
 import org.apache.flink.table.api.TableException
+import org.apache.flink.table.api.config.ExecutionConfigOptions
+import org.apache.flink.table.planner.plan.`trait`.FlinkRelDistribution
 import org.apache.flink.table.planner.plan.nodes.common.CommonLookupJoin
 import org.apache.flink.table.planner.plan.nodes.logical._
 import org.apache.flink.table.planner.plan.nodes.physical.PhysicalTableSourceScan
 import org.apache.flink.table.planner.plan.schema.TimeIndicatorRelDataType
-import org.apache.flink.table.planner.plan.utils.JoinUtil
+import org.apache.flink.table.planner.plan.utils.{FlinkRelOptUtil, JoinUtil}
 import org.apache.flink.table.sources.{LookupableTableSource, TableSource}
 
 import org.apache.calcite.plan.RelOptRule.{any, operand}
@@ -32,6 +34,7 @@ import org.apache.calcite.rel.core.TableScan
 import org.apache.calcite.rex.{RexCorrelVariable, RexFieldAccess, RexProgram}
 
 import java.util
+import java.util.Collections
 
 import scala.collection.JavaConversions._
 
@@ -108,6 +111,27 @@ trait CommonLookupJoinRule {
     }
   }
 
+  /**
+    * Requires the input of the lookup join to be hash distributed by the input fields of the
+    * lookup keys if [[ExecutionConfigOptions.TABLE_EXEC_LOOKUP_KEY_PARTITIONING]] is enabled,
+    * so that each parallel instance looks up a disjoint subset of the keys.
+    */
+  protected def distributeByLookupKeys(temporalJoin: CommonLookupJoin): RelNode = {
+    val config = FlinkRelOptUtil.getTableConfigFromContext(temporalJoin)
+    val keyPartitioning = config.getConfiguration.getBoolean(
+      ExecutionConfigOptions.TABLE_EXEC_LOOKUP_KEY_PARTITIONING)
+    if (keyPartitioning && temporalJoin.lookupKeyInputFields.nonEmpty) {
+      val input = temporalJoin.getInput
+      val requiredDistribution = FlinkRelDistribution.hash(
+        temporalJoin.lookupKeyInputFields, requireStrict = true)
+      val requiredTrait = input.getTraitSet.replace(requiredDistribution)
+      val newInput = RelOptRule.convert(input, requiredTrait)
+      temporalJoin.copy(temporalJoin.getTraitSet, Collections.singletonList(newInput))
+    } else {
+      temporalJoin
+    }
+  }
+
   protected def transform(
     join: FlinkLogicalJoin,
     input: FlinkLogicalRel,
@@ -139,7 +163,7 @@ abstract class BaseSnapshotOnTableScanRule(description: String)
 
     validateJoin(join)
     val temporalJoin = transform(join, input, tableSource, None)
-    call.transformTo(temporalJoin)
+    call.transformTo(distributeByLookupKeys(temporalJoin))
   }
 
 }
@@ -171,7 +195,7 @@ abstract class BaseSnapshotOnCalcTableScanRule(description: String)
     validateJoin(join)
     val temporalJoin = transform(
       join, input, tableSource, Some(calc.getProgram))
-    call.transformTo(temporalJoin)
+    call.transformTo(distributeByLookupKeys(temporalJoin))
   }
 
 }
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.rules.physical.stream
+
+import org.apache.flink.annotation.Experimental
+import org.apache.flink.configuration.ConfigOption
+import org.apache.flink.configuration.ConfigOptions.key
+import org.apache.flink.table.planner.calcite.FlinkContext
+import org.apache.flink.table.planner.plan.PartialFinalType
+import org.apache.flink.table.planner.plan.`trait`.FlinkRelDistribution
+import org.apache.flink.table.planner.plan.nodes.physical.stream.{StreamExecCalc, StreamExecDeduplicate, StreamExecDeduplicateGroupAggregate, StreamExecExchange, StreamExecGroupAggregate}
+
+import org.apache.calcite.plan.RelOptRule.{any, operand}
+import org.apache.calcite.plan.{RelOptRule, RelOptRuleCall}
+import org.apache.calcite.rel.core.AggregateCall
+import org.apache.calcite.rex.RexInputRef
+
+import java.lang.{Boolean => JBoolean}
+import java.util
+
+import scala.collection.JavaConversions._
+
+/**
+  * Rule that matches [[StreamExecGroupAggregate]] on [[StreamExecExchange]]
+  * on [[StreamExecCalc]] which only projects fields
+  * on [[StreamExecDeduplicate]] keeping the last row
+  * on [[StreamExecExchange]],
+  * where the grouping keys are a subset of the unique keys of the deduplication,
+  * and converts them to
+  * {{{
+  *   StreamExecDeduplicateGroupAggregate
+  *   +- StreamExecExchange (hash by grouping keys)
+  *      +- input of deduplicate exchange
+  * }}}
+  *
+  * The combined aggregate applies every updated row as the delta to the previous row of its
+  * unique key at once, and saves the shuffle by the unique keys.
+  *
+  * NOTES: A deduplication is always followed by a calc here, because it orders by proctime and
+  * the time indicator field is either projected out or materialized before the aggregate.
+  */
+class DeduplicateGroupAggregateRule extends RelOptRule(
+  operand(classOf[StreamExecGroupAggregate],
+    operand(classOf[StreamExecExchange],
+      operand(classOf[StreamExecCalc],
+        operand(classOf[StreamExecDeduplicate],
+          operand(classOf[StreamExecExchange], any()))))),
+  "DeduplicateGroupAggregateRule") {
+
+  override def matches(call: RelOptRuleCall): Boolean = {
+    val tableConfig = call.getPlanner.getContext.unwrap(classOf[FlinkContext]).getTableConfig
+    val enabled = tableConfig.getConfiguration.getBoolean(
+      DeduplicateGroupAggregateRule.TABLE_OPTIMIZER_DEDUPLICATE_AGG_ENABLED)
+    val agg: StreamExecGroupAggregate = call.rel(0)
+    val calc: StreamExecCalc = call.rel(2)
+    val dedup: StreamExecDeduplicate = call.rel(3)
+    val dedupExchange: StreamExecExchange = call.rel(4)
+
+    enabled &&
+      dedup.isKeepLastRow &&
+      !StreamExecRetractionRules.isAccRetract(dedupExchange) &&
+      agg.partialFinalType == PartialFinalType.NONE &&
+      agg.aggCalls.forall(_.getCollation.getFieldCollations.isEmpty) &&
+      (getProjection(calc) match {
+        case Some(fields) =>
+          val grouping = agg.grouping.map(fields(_))
+          grouping.nonEmpty && grouping.forall(dedup.getUniqueKeys.contains)
+        case None => false
+      })
+  }
+
+  override def onMatch(call: RelOptRuleCall): Unit = {
+    val agg: StreamExecGroupAggregate = call.rel(0)
+    val calc: StreamExecCalc = call.rel(2)
+    val dedup: StreamExecDeduplicate = call.rel(3)
+    val dedupExchange: StreamExecExchange = call.rel(4)
+
+    val fields = getProjection(calc).get
+    val grouping = agg.grouping.map(fields(_))
+    val aggCalls = agg.aggCalls.map(mapAggCall(_, fields))
+
+    // all rows of a unique key are shuffled to the same group
+    val distribution = FlinkRelDistribution.hash(grouping, requireStrict = true)
+    val newExchange = dedupExchange.copy(
+      dedupExchange.getTraitSet.replace(distribution),
+      dedupExchange.getInput,
+      distribution)
+
+    val newAgg = new StreamExecDeduplicateGroupAggregate(
+      agg.getCluster,
+      agg.getTraitSet,
+      newExchange,
+      agg.getRowType,
+      grouping,
+      aggCalls,
+      dedup.getUniqueKeys)
+    call.transformTo(newAgg)
+  }
+
+  /**
+    * Returns the input fields of the deduplicate which are projected by the calc, or None if
+    * the calc does not only project fields.
+    */
+  private def getProjection(calc: StreamExecCalc): Option[Array[Int]] = {
+    val program = calc.getProgram
+    if (program.getCondition != null) {
+      return None
+    }
+    val projects = program.getProjectList.map(program.expandLocalRef)
+    if (projects.forall(_.isInstanceOf[RexInputRef])) {
+      Some(projects.map(_.asInstanceOf[RexInputRef].getIndex).toArray)
+    } else {
+      None
+    }
+  }
+
+  private def mapAggCall(aggCall: AggregateCall, fields: Array[Int]): AggregateCall = {
+    val args = new util.ArrayList[Integer]()
+    aggCall.getArgList.foreach(arg => args.add(fields(arg)))
+    val filterArg = if (aggCall.filterArg >= 0) fields(aggCall.filterArg) else aggCall.filterArg
+    aggCall.copy(args, filterArg, aggCall.getCollation)
+  }
+}
+
+object DeduplicateGroupAggregateRule {
+  val INSTANCE: RelOptRule = new DeduplicateGroupAggregateRule
+
+  // It is a experimental config, will may be removed later.
+  @Experimental
+  val TABLE_OPTIMIZER_DEDUPLICATE_AGG_ENABLED: ConfigOption[JBoolean] =
+  key("table.optimizer.deduplicate-agg-enabled")
+      .defaultValue(JBoolean.valueOf(false))
+      .withDescription("When a deduplication which keeps the last row of every unique key " +
+          "is followed by a group aggregation on a subset of the unique keys, the two " +
+          "operators can be combined into a single operator (we call it deduplicate agg). " +
+          "It applies an updated row to the accumulators as the delta to the previous row " +
+          "of its unique key at once, instead of retracting and accumulating it one after " +
+          "the other, and saves a shuffle. Default is disabled.")
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.rules.physical.stream
+
+import org.apache.flink.table.api.config.{ExecutionConfigOptions, OptimizerConfigOptions}
+import org.apache.flink.table.planner.calcite.{FlinkContext, FlinkTypeFactory}
+import org.apache.flink.table.planner.plan.`trait`.{AccMode, AccModeTrait, FlinkRelDistribution, FlinkRelDistributionTraitDef}
+import org.apache.flink.table.planner.plan.logical.{SlidingGroupWindow, TumblingGroupWindow}
+import org.apache.flink.table.planner.plan.nodes.FlinkConventions
+import org.apache.flink.table.planner.plan.nodes.physical.stream._
+import org.apache.flink.table.planner.plan.rules.physical.FlinkExpandConversionRule._
+import org.apache.flink.table.planner.plan.utils.AggregateUtil.{hasTimeIntervalType, inferAggAccumulatorNames, isRowtimeAttribute}
+import org.apache.flink.table.planner.plan.utils.{AggregateInfoList, AggregateUtil}
+import org.apache.flink.table.planner.utils.AggregatePhaseStrategy
+import org.apache.flink.table.planner.utils.TableConfigUtils.getAggPhaseStrategy
+import org.apache.flink.table.runtime.types.LogicalTypeDataTypeConverter.fromDataTypeToLogicalType
+import org.apache.flink.table.types.logical.BigIntType
+
+import org.apache.calcite.plan.RelOptRule.{any, operand}
+import org.apache.calcite.plan.{RelOptRule, RelOptRuleCall}
+import org.apache.calcite.rel.RelNode
+import org.apache.calcite.rel.`type`.RelDataType
+
+import java.util
+
+import scala.collection.JavaConversions._
+
+/**
+  * Rule that matches [[StreamExecGroupWindowAggregate]] on [[StreamExecExchange]]
+  * with the following condition:
+  * 1. mini-batch is enabled in given TableConfig,
+  * 2. two-phase aggregation is enabled in given TableConfig,
+  * 3. two-phase window aggregation is enabled in given TableConfig,
+  * 4. the window is an event-time tumbling or sliding window on a time interval,
+  * 5. the window emits no early or late results,
+  * 6. all aggregate functions are mergeable and use no data views,
+  * 7. the input of exchange does not satisfy the shuffle distribution,
+  *
+  * and converts them to
+  * {{{
+  *   StreamExecGlobalGroupWindowAggregate
+  *   +- StreamExecExchange
+  *      +- StreamExecLocalGroupWindowAggregate
+  *         +- input of exchange
+  * }}}
+  *
+  * <p>The local aggregate accumulates every input row once into the slice it belongs to, and the
+  * global aggregate merges the slices into the windows, so a row is no longer accumulated for
+  * every window it belongs to, and only one row per slice and key is shuffled.
+  */
+class TwoStageOptimizedWindowAggregateRule extends RelOptRule(
+  operand(classOf[StreamExecGroupWindowAggregate],
+    operand(classOf[StreamExecExchange],
+      operand(classOf[RelNode], any))),
+  "TwoStageOptimizedWindowAggregateRule") {
+
+  override def matches(call: RelOptRuleCall): Boolean = {
+    val tableConfig = call.getPlanner.getContext.unwrap(classOf[FlinkContext]).getTableConfig
+    val agg: StreamExecGroupWindowAggregate = call.rel(0)
+    val realInput: RelNode = call.rel(2)
+
+    val isMiniBatchEnabled = tableConfig.getConfiguration.getBoolean(
+      ExecutionConfigOptions.TABLE_EXEC_MINIBATCH_ENABLED)
+    val isTwoPhaseEnabled = getAggPhaseStrategy(tableConfig) != AggregatePhaseStrategy.ONE_PHASE
+    val isTwoPhaseWindowEnabled = tableConfig.getConfiguration.getBoolean(
+      OptimizerConfigOptions.TABLE_OPTIMIZER_WINDOW_AGG_TWO_PHASE_ENABLED)
+
+    if (!isMiniBatchEnabled || !isTwoPhaseEnabled || !isTwoPhaseWindowEnabled) {
+      return false
+    }
+
+    val isSliceable = agg.window match {
+      case TumblingGroupWindow(_, timeField, size) =>
+        isRowtimeAttribute(timeField) && hasTimeIntervalType(size)
+      case SlidingGroupWindow(_, timeField, size, _) =>
+        isRowtimeAttribute(timeField) && hasTimeIntervalType(size)
+      case _ => false
+    }
+    if (!isSliceable || agg.getEmitStrategy.produceUpdates ||
+      StreamExecRetractionRules.isAccRetract(realInput) ||
+      AggregateUtil.isTableAggregate(agg.aggCalls.toList)) {
+      return false
+    }
+
+    val aggInfoList = AggregateUtil.transformToStreamAggregateInfoList(
+      agg.aggCalls,
+      agg.getInput.getRowType,
+      Array.fill(agg.aggCalls.size)(false),
+      needInputCount = false,
+      isStateBackendDataViews = true)
+
+    // the accumulators with data views can not be sent to the global aggregate
+    val hasDataViews = aggInfoList.distinctInfos.nonEmpty ||
+      aggInfoList.aggInfos.exists(_.viewSpecs.nonEmpty)
+
+    AggregateUtil.doAllSupportPartialMerge(aggInfoList.aggInfos) &&
+      !hasDataViews &&
+      !isInputSatisfyRequiredDistribution(realInput, agg.getGrouping)
+  }
+
+  private def isInputSatisfyRequiredDistribution(input: RelNode, keys: Array[Int]): Boolean = {
+    val requiredDistribution = createDistribution(keys)
+    val inputDistribution = input.getTraitSet.getTrait(FlinkRelDistributionTraitDef.INSTANCE)
+    inputDistribution.satisfies(requiredDistribution)
+  }
+
+  override def onMatch(call: RelOptRuleCall): Unit = {
+    val agg: StreamExecGroupWindowAggregate = call.rel(0)
+    val realInput: RelNode = call.rel(2)
+
+    // no data views are used, so the local and global aggregates share the aggregate infos
+    val aggInfoList = AggregateUtil.transformToStreamAggregateInfoList(
+      agg.aggCalls,
+      realInput.getRowType,
+      Array.fill(agg.aggCalls.size)(false),
+      needInputCount = false,
+      isStateBackendDataViews = true)
+
+    call.transformTo(createTwoStageAgg(realInput, aggInfoList, agg))
+  }
+
+  private def createTwoStageAgg(
+      input: RelNode,
+      aggInfoList: AggregateInfoList,
+      agg: StreamExecGroupWindowAggregate): StreamExecGlobalGroupWindowAggregate = {
+    val localAggRowType = inferLocalWindowAggRowType(
+      aggInfoList,
+      input.getRowType,
+      agg.getGrouping,
+      input.getCluster.getTypeFactory.asInstanceOf[FlinkTypeFactory])
+
+    // local agg shouldn't produce AccRetract Message
+    val localAggTraitSet = input.getTraitSet.plus(AccModeTrait(AccMode.Acc))
+    val localAgg = new StreamExecLocalGroupWindowAggregate(
+      agg.getCluster,
+      localAggTraitSet,
+      input,
+      localAggRowType,
+      agg.getGrouping,
+      agg.aggCalls,
+      agg.window,
+      agg.getInputTimeFieldIndex,
+      aggInfoList)
+
+    // grouping keys are forwarded by local agg after the accumulators
+    val accCount = aggInfoList.getAccTypes.length
+    val globalDistribution = createDistribution(
+      agg.getGrouping.indices.map(_ + accCount).toArray)
+    // create exchange if needed
+    val newInput = satisfyDistribution(
+      FlinkConventions.STREAM_PHYSICAL, localAgg, globalDistribution)
+
+    new StreamExecGlobalGroupWindowAggregate(
+      agg.getCluster,
+      agg.getTraitSet,
+      newInput,
+      agg.getRowType,
+      input.getRowType,
+      agg.getGrouping,
+      agg.aggCalls,
+      agg.window,
+      agg.getWindowProperties,
+      agg.getInputTimeFieldIndex,
+      agg.getEmitStrategy,
+      aggInfoList)
+  }
+
+  /**
+    * Derives the output row type of the local window aggregate, which is
+    * (accumulators, group keys, slice timestamp).
+    */
+  private def inferLocalWindowAggRowType(
+      aggInfoList: AggregateInfoList,
+      inputRowType: RelDataType,
+      grouping: Array[Int],
+      typeFactory: FlinkTypeFactory): RelDataType = {
+    val accTypes = aggInfoList.getAccTypes.map(fromDataTypeToLogicalType)
+    val groupingTypes = grouping
+      .map(inputRowType.getFieldList.get(_).getType)
+      .map(FlinkTypeFactory.toLogicalType)
+    val groupingNames = grouping.map(inputRowType.getFieldNames.get(_))
+
+    typeFactory.buildRelNodeRowType(
+      inferAggAccumulatorNames(aggInfoList) ++ groupingNames :+ "$slice_time",
+      accTypes ++ groupingTypes :+ new BigIntType(false))
+  }
+
+  private def createDistribution(keys: Array[Int]): FlinkRelDistribution = {
+    if (keys.nonEmpty) {
+      val fields = new util.ArrayList[Integer]()
+      keys.foreach(fields.add(_))
+      FlinkRelDistribution.hash(fields)
+    } else {
+      FlinkRelDistribution.SINGLETON
+    }
+  }
+}
+
+object TwoStageOptimizedWindowAggregateRule {
+  val INSTANCE: RelOptRule = new TwoStageOptimizedWindowAggregateRule
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.stream.sql.agg
+
+import org.apache.flink.api.scala._
+import org.apache.flink.table.api.config.OptimizerConfigOptions
+import org.apache.flink.table.api.scala._
+import org.apache.flink.table.planner.plan.rules.physical.stream.DeduplicateGroupAggregateRule
+import org.apache.flink.table.planner.utils.{StreamTableTestUtil, TableTestBase}
+
+import org.junit.{Before, Test}
+
+/**
+  * Tests for [[DeduplicateGroupAggregateRule]].
+  */
+class DeduplicateGroupAggregateTest extends TableTestBase {
+
+  private val util: StreamTableTestUtil = streamTestUtil()
+  util.addDataStream[(Int, String, Long)]("MyTable", 'a, 'b, 'c, 'proctime.proctime)
+
+  @Before
+  def before(): Unit = {
+    util.tableEnv.getConfig.getConfiguration.setBoolean(
+      DeduplicateGroupAggregateRule.TABLE_OPTIMIZER_DEDUPLICATE_AGG_ENABLED, true)
+  }
+
+  @Test
+  def testGroupByUniqueKeys(): Unit = {
+    val sql =
+      """
+        |SELECT a, SUM(c)
+        |FROM (
+        |  SELECT *,
+        |    ROW_NUMBER() OVER (PARTITION BY a ORDER BY proctime DESC) as rn
+        |  FROM MyTable)
+        |WHERE rn = 1
+        |GROUP BY a
+      """.stripMargin
+    util.verifyPlan(sql)
+  }
+
+  @Test
+  def testGroupBySubsetOfUniqueKeys(): Unit = {
+    val sql =
+      """
+        |SELECT a, SUM(c)
+        |FROM (
+        |  SELECT *,
+        |    ROW_NUMBER() OVER (PARTITION BY a, b ORDER BY proctime DESC) as rn
+        |  FROM MyTable)
+        |WHERE rn = 1
+        |GROUP BY a
+      """.stripMargin
+    util.verifyPlan(sql)
+  }
+
+  @Test
+  def testGroupByUniqueKeysWithMiniBatch(): Unit = {
+    // the deduplicate agg is not split into local and global agg
+    util.enableMiniBatch()
+    val sql =
+      """
+        |SELECT a, SUM(c)
+        |FROM (
+        |  SELECT *,
+        |    ROW_NUMBER() OVER (PARTITION BY a ORDER BY proctime DESC) as rn
+        |  FROM MyTable)
+        |WHERE rn = 1
+        |GROUP BY a
+      """.stripMargin
+    util.verifyPlan(sql)
+  }
+
+  @Test
+  def testGroupByFieldsOutOfUniqueKeys(): Unit = {
+    // can not be converted, the rows of a unique key are in different groups
+    val sql =
+      """
+        |SELECT b, SUM(c)
+        |FROM (
+        |  SELECT *,
+        |    ROW_NUMBER() OVER (PARTITION BY a ORDER BY proctime DESC) as rn
+        |  FROM MyTable)
+        |WHERE rn = 1
+        |GROUP BY b
+      """.stripMargin
+    util.verifyPlan(sql)
+  }
+
+  @Test
+  def testCalcWithFilter(): Unit = {
+    // can not be converted, a filtered new row only retracts the previous row of its unique key
+    val sql =
+      """
+        |SELECT a, SUM(c)
+        |FROM (
+        |  SELECT *,
+        |    ROW_NUMBER() OVER (PARTITION BY a ORDER BY proctime DESC) as rn
+        |  FROM MyTable)
+        |WHERE rn = 1 AND c > 10
+        |GROUP BY a
+      """.stripMargin
+    util.verifyPlan(sql)
+  }
+
+  @Test
+  def testSplitDistinctAgg(): Unit = {
+    // can not be converted, the partial agg groups by the bucket of the distinct field
+    util.tableEnv.getConfig.getConfiguration.setBoolean(
+      OptimizerConfigOptions.TABLE_OPTIMIZER_DISTINCT_AGG_SPLIT_ENABLED, true)
+    val sql =
+      """
+        |SELECT a, COUNT(DISTINCT c)
+        |FROM (
+        |  SELECT *,
+        |    ROW_NUMBER() OVER (PARTITION BY a ORDER BY proctime DESC) as rn
+        |  FROM MyTable)
+        |WHERE rn = 1
+        |GROUP BY a
+      """.stripMargin
+    util.verifyPlan(sql)
+  }
+
+  @Test
+  def testDeduplicateAggDisabled(): Unit = {
+    util.tableEnv.getConfig.getConfiguration.setBoolean(
+      DeduplicateGroupAggregateRule.TABLE_OPTIMIZER_DEDUPLICATE_AGG_ENABLED, false)
+    val sql =
+      """
+        |SELECT a, SUM(c)
+        |FROM (
+        |  SELECT *,
+        |    ROW_NUMBER() OVER (PARTITION BY a ORDER BY proctime DESC) as rn
+        |  FROM MyTable)
+        |WHERE rn = 1
+        |GROUP BY a
+      """.stripMargin
+    util.verifyPlan(sql)
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.plan.stream.sql.agg
+
+import org.apache.flink.api.scala._
+import org.apache.flink.table.api.config.OptimizerConfigOptions
+import org.apache.flink.table.api.scala._
+import org.apache.flink.table.planner.utils.TableTestBase
+
+import org.junit.{Before, Test}
+
+class TwoStageWindowAggregateTest extends TableTestBase {
+
+  private val util = streamTestUtil()
+  util.addDataStream[(Long, Int, String)](
+    "T1", 'long, 'int, 'str, 'rowtime.rowtime, 'proctime.proctime)
+
+  @Before
+  def before(): Unit = {
+    util.enableMiniBatch()
+    util.tableEnv.getConfig.getConfiguration.setBoolean(
+      OptimizerConfigOptions.TABLE_OPTIMIZER_WINDOW_AGG_TWO_PHASE_ENABLED, true)
+  }
+
+  @Test
+  def testTumbleWindow(): Unit = {
+    val sql =
+      """
+        |SELECT long,
+        |  COUNT(str) AS cnt,
+        |  TUMBLE_END(rowtime, INTERVAL '10' SECOND) AS rt
+        |FROM T1
+        |GROUP BY long, TUMBLE(rowtime, INTERVAL '10' SECOND)
+      """.stripMargin
+    util.verifyPlan(sql)
+  }
+
+  @Test
+  def testHopWindow(): Unit = {
+    val sql =
+      """
+        |SELECT long,
+        |  COUNT(str) AS cnt,
+        |  HOP_END(rowtime, INTERVAL '5' SECOND, INTERVAL '10' SECOND) AS rt
+        |FROM T1
+        |GROUP BY long, HOP(rowtime, INTERVAL '5' SECOND, INTERVAL '10' SECOND)
+      """.stripMargin
+    util.verifyPlan(sql)
+  }
+
+  @Test
+  def testTumbleWindowWithoutGroupBy(): Unit = {
+    val sql =
+      """
+        |SELECT COUNT(*) AS cnt, SUM(`int`) AS s
+        |FROM T1
+        |GROUP BY TUMBLE(rowtime, INTERVAL '10' SECOND)
+      """.stripMargin
+    util.verifyPlan(sql)
+  }
+
+  @Test
+  def testTumbleWindowWithTwoPhaseDisabled(): Unit = {
+    util.tableEnv.getConfig.getConfiguration.setBoolean(
+      OptimizerConfigOptions.TABLE_OPTIMIZER_WINDOW_AGG_TWO_PHASE_ENABLED, false)
+    val sql =
+      """
+        |SELECT long,
+        |  COUNT(str) AS cnt,
+        |  TUMBLE_END(rowtime, INTERVAL '10' SECOND) AS rt
+        |FROM T1
+        |GROUP BY long, TUMBLE(rowtime, INTERVAL '10' SECOND)
+      """.stripMargin
+    util.verifyPlan(sql)
+  }
+
+  @Test
+  def testTumbleWindowWithDistinctAgg(): Unit = {
+    val sql =
+      """
+        |SELECT long,
+        |  COUNT(DISTINCT str) AS cnt,
+        |  TUMBLE_END(rowtime, INTERVAL '10' SECOND) AS rt
+        |FROM T1
+        |GROUP BY long, TUMBLE(rowtime, INTERVAL '10' SECOND)
+      """.stripMargin
+    util.verifyPlan(sql)
+  }
+
+  @Test
+  def testHopWindowWithProctime(): Unit = {
+    val sql =
+      """
+        |SELECT long, COUNT(str) AS cnt
+        |FROM T1
+        |GROUP BY long, HOP(proctime, INTERVAL '5' SECOND, INTERVAL '10' SECOND)
+      """.stripMargin
+    util.verifyPlan(sql)
+  }
+}
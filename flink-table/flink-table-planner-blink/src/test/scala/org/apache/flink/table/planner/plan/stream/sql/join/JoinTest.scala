@@ -37,6 +37,18 @@ class JoinTest extends TableTestBase {
     util.verifyPlan("SELECT a1, b1 FROM A JOIN B ON a1 = b1")
   }
 
+  @Test
+  def testInnerJoinWithMiniBatch(): Unit = {
+    util.enableMiniBatch()
+    util.verifyPlan("SELECT a1, b1 FROM A JOIN B ON a1 = b1")
+  }
+
+  @Test
+  def testLeftJoinNonEquiWithMiniBatch(): Unit = {
+    util.enableMiniBatch()
+    util.verifyPlan("SELECT a1, b1 FROM A LEFT JOIN B ON a1 = b1 AND a2 > b2")
+  }
+
   @Test
   def testInnerJoinWithEqualPk(): Unit = {
     val query1 = "SELECT SUM(a2) AS a2, a1 FROM A GROUP BY a1"
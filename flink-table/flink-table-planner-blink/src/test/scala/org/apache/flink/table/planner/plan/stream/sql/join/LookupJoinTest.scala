@@ -22,6 +22,7 @@ import org.apache.flink.api.common.typeinfo.TypeInformation
 import org.apache.flink.api.scala._
 import org.apache.flink.streaming.api.functions.async.ResultFuture
 import org.apache.flink.table.api._
+import org.apache.flink.table.api.config.ExecutionConfigOptions
 import org.apache.flink.table.api.scala._
 import org.apache.flink.table.dataformat.{BaseRow, BinaryString}
 import org.apache.flink.table.functions.{AsyncTableFunction, TableFunction}
@@ -253,6 +254,16 @@ class LookupJoinTest extends TableTestBase with Serializable {
     streamUtil.verifyPlan(sql)
   }
 
+  @Test
+  def testJoinTemporalTableWithKeyPartitioning(): Unit = {
+    streamUtil.tableEnv.getConfig.getConfiguration.setBoolean(
+      ExecutionConfigOptions.TABLE_EXEC_LOOKUP_KEY_PARTITIONING, true)
+    val sql = "SELECT * FROM MyTable AS T JOIN temporalTest " +
+      "FOR SYSTEM_TIME AS OF T.proctime AS D ON T.a = D.id AND D.age = 10"
+
+    streamUtil.verifyPlan(sql)
+  }
+
   @Test
   def testJoinTemporalTableWithNestedQuery(): Unit = {
     val sql = "SELECT * FROM " +
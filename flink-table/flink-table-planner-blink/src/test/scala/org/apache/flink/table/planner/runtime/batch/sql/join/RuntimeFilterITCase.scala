@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.runtime.batch.sql.join
+
+import org.apache.flink.table.api.config.OptimizerConfigOptions
+import org.apache.flink.table.plan.stats.TableStats
+import org.apache.flink.table.planner.plan.stats.FlinkStatistic
+import org.apache.flink.table.planner.runtime.batch.sql.join.JoinITCaseHelper.disableOtherJoinOpForJoin
+import org.apache.flink.table.planner.runtime.batch.sql.join.JoinType.HashJoin
+import org.apache.flink.table.planner.runtime.utils.BatchTestBase
+import org.apache.flink.table.planner.runtime.utils.BatchTestBase.row
+import org.apache.flink.table.planner.runtime.utils.TestData.INT_STRING
+import org.apache.flink.types.Row
+
+import org.junit.Assert.assertEquals
+import org.junit.{Before, Test}
+
+import scala.collection.Seq
+
+/**
+  * Runs shuffled hash joins with and without the runtime filter of the probe side, which must
+  * produce the same results.
+  */
+class RuntimeFilterITCase extends BatchTestBase {
+
+  private lazy val probeData = Seq(
+    row(1, "p1"),
+    row(2, "p2"),
+    row(2, "p2'"),
+    row(3, "p3"),
+    row(4, "p4"),
+    row(5, "p5"),
+    row(6, "p6"),
+    row(null, "pnull"))
+
+  private lazy val buildData = Seq(
+    row(2, "b2"),
+    row(4, "b4"),
+    row(4, "b4'"),
+    row(7, "b7"),
+    row(null, "bnull"))
+
+  @Before
+  override def before(): Unit = {
+    super.before()
+    // the row counts decide the build side, and are small enough for a runtime filter
+    registerCollection("probeT", probeData, INT_STRING, "a, b", Array(true, true),
+      FlinkStatistic.builder().tableStats(new TableStats(1000)).build())
+    registerCollection("buildT", buildData, INT_STRING, "c, d", Array(true, true),
+      FlinkStatistic.builder().tableStats(new TableStats(10)).build())
+    disableOtherJoinOpForJoin(tEnv, HashJoin)
+  }
+
+  @Test
+  def testInnerJoin(): Unit = {
+    checkRuntimeFilterResult(
+      "SELECT a, b, d FROM probeT JOIN buildT ON a = c",
+      Seq(
+        row(2, "p2", "b2"),
+        row(2, "p2'", "b2"),
+        row(4, "p4", "b4"),
+        row(4, "p4", "b4'")),
+      expectRuntimeFilter = true)
+  }
+
+  @Test
+  def testSemiJoin(): Unit = {
+    checkRuntimeFilterResult(
+      "SELECT * FROM probeT WHERE a IN (SELECT c FROM buildT)",
+      Seq(
+        row(2, "p2"),
+        row(2, "p2'"),
+        row(4, "p4")),
+      expectRuntimeFilter = true)
+  }
+
+  @Test
+  def testBuildLeftAntiJoin(): Unit = {
+    checkRuntimeFilterResult(
+      "SELECT * FROM buildT WHERE NOT EXISTS (SELECT * FROM probeT WHERE a = c)",
+      Seq(
+        row(7, "b7"),
+        row(null, "bnull")),
+      expectRuntimeFilter = true)
+  }
+
+  @Test
+  def testBuildOuterJoin(): Unit = {
+    checkRuntimeFilterResult(
+      "SELECT c, d, a, b FROM buildT LEFT JOIN probeT ON c = a",
+      Seq(
+        row(2, "b2", 2, "p2"),
+        row(2, "b2", 2, "p2'"),
+        row(4, "b4", 4, "p4"),
+        row(4, "b4'", 4, "p4"),
+        row(7, "b7", null, null),
+        row(null, "bnull", null, null)),
+      expectRuntimeFilter = true)
+  }
+
+  @Test
+  def testReusedSource(): Unit = {
+    // both sides read the same reused source, the probe side must not wait for the build side
+    checkRuntimeFilterResult(
+      "SELECT t1.a, t1.b, t2.b FROM probeT t1 JOIN " +
+        "(SELECT a, b FROM probeT WHERE a < 3) t2 ON t1.a = t2.a",
+      Seq(
+        row(1, "p1", "p1"),
+        row(2, "p2", "p2"),
+        row(2, "p2", "p2'"),
+        row(2, "p2'", "p2"),
+        row(2, "p2'", "p2'")),
+      expectRuntimeFilter = false)
+  }
+
+  private def checkRuntimeFilterResult(
+      sql: String,
+      expected: Seq[Row],
+      expectRuntimeFilter: Boolean): Unit = {
+    val conf = tEnv.getConfig.getConfiguration
+    conf.setBoolean(OptimizerConfigOptions.TABLE_OPTIMIZER_JOIN_RUNTIME_FILTER_ENABLED, false)
+    checkResult(sql, expected)
+    assertEquals(false, hasRuntimeFilter(sql))
+
+    conf.setBoolean(OptimizerConfigOptions.TABLE_OPTIMIZER_JOIN_RUNTIME_FILTER_ENABLED, true)
+    checkResult(sql, expected)
+    assertEquals(expectRuntimeFilter, hasRuntimeFilter(sql))
+  }
+
+  private def hasRuntimeFilter(sql: String): Boolean = {
+    tEnv.explain(parseQuery(sql)).contains("RuntimeFilter(")
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.flink.table.planner.runtime.batch.sql.join
+
+import org.apache.flink.table.api.config.OptimizerConfigOptions
+import org.apache.flink.table.plan.stats.TableStats
+import org.apache.flink.table.planner.plan.stats.FlinkStatistic
+import org.apache.flink.table.planner.runtime.batch.sql.join.JoinITCaseHelper.disableOtherJoinOpForJoin
+import org.apache.flink.table.planner.runtime.batch.sql.join.JoinType.{HashJoin, JoinType, SortMergeJoin}
+import org.apache.flink.table.planner.runtime.utils.BatchTestBase
+import org.apache.flink.table.planner.runtime.utils.BatchTestBase.row
+import org.apache.flink.table.planner.runtime.utils.TestData.INT_INT
+
+import org.junit.Assert.assertEquals
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import org.junit.{Before, Test}
+
+import java.util
+
+import scala.collection.Seq
+
+/**
+  * Runs shuffled hash joins and sort merge joins on a skewed join side with and without the
+  * handling of hot join keys, which must produce the same results.
+  */
+@RunWith(classOf[Parameterized])
+class SkewedJoinITCase(joinType: JoinType) extends BatchTestBase {
+
+  // key 1 has 40 of the 48 rows
+  private lazy val skewedData =
+    (0 until 40).map(i => row(1, i)) ++ (2 to 8).map(i => row(i, i)) :+ row(null, -1)
+
+  private lazy val otherData = Seq(
+    row(1, 100),
+    row(1, 101),
+    row(1, 102),
+    row(3, 103),
+    row(5, 105),
+    row(9, 109),
+    row(null, 110))
+
+  @Before
+  override def before(): Unit = {
+    super.before()
+    // the row counts make the skewed side the build side of hash joins and the smaller side
+    // of sort merge joins, which is the side whose hot keys are split
+    registerCollection("skewedT", skewedData, INT_INT, "a, b", Array(true, true),
+      FlinkStatistic.builder().tableStats(new TableStats(10)).build())
+    registerCollection("otherT", otherData, INT_INT, "c, d", Array(true, true),
+      FlinkStatistic.builder().tableStats(new TableStats(1000)).build())
+    disableOtherJoinOpForJoin(tEnv, joinType)
+  }
+
+  @Test
+  def testInnerJoin(): Unit = {
+    // 40 * 3 rows of key 1 and the rows of keys 3 and 5
+    checkSkewedJoinResult("SELECT a, b, d FROM skewedT JOIN otherT ON a = c", 122)
+  }
+
+  @Test
+  def testLeftOuterJoin(): Unit = {
+    // the inner join rows and the rows of keys 2, 4, 6, 7, 8 and null
+    checkSkewedJoinResult("SELECT a, b, c, d FROM skewedT LEFT JOIN otherT ON a = c", 128)
+  }
+
+  @Test
+  def testSemiJoin(): Unit = {
+    checkSkewedJoinResult("SELECT * FROM skewedT WHERE a IN (SELECT c FROM otherT)", 42)
+  }
+
+  @Test
+  def testAntiJoin(): Unit = {
+    checkSkewedJoinResult(
+      "SELECT * FROM skewedT WHERE NOT EXISTS (SELECT * FROM otherT WHERE a = c)", 6)
+  }
+
+  private def checkSkewedJoinResult(sql: String, expectedRowCount: Int): Unit = {
+    val conf = tEnv.getConfig.getConfiguration
+    conf.setBoolean(OptimizerConfigOptions.TABLE_OPTIMIZER_JOIN_SKEW_HANDLING_ENABLED, false)
+    assertEquals(false, hasSkewHandling(sql))
+    val expected = executeQuery(sql)
+    assertEquals(expectedRowCount, expected.size)
+
+    conf.setBoolean(OptimizerConfigOptions.TABLE_OPTIMIZER_JOIN_SKEW_HANDLING_ENABLED, true)
+    assertEquals(true, hasSkewHandling(sql))
+    checkResult(sql, expected)
+  }
+
+  private def hasSkewHandling(sql: String): Boolean = {
+    tEnv.explain(parseQuery(sql)).contains("SkewedKeySplit(")
+  }
+}
+
+object SkewedJoinITCase {
+  @Parameterized.Parameters(name = "{0}")
+  def parameters(): util.Collection[Any] = {
+    util.Arrays.asList(
+      Array(HashJoin),
+      Array(SortMergeJoin))
+  }
+}
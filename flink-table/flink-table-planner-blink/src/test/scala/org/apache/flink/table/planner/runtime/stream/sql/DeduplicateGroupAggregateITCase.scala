@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.runtime.stream.sql
+
+import org.apache.flink.api.scala._
+import org.apache.flink.table.api.scala._
+import org.apache.flink.table.planner.plan.rules.physical.stream.DeduplicateGroupAggregateRule
+import org.apache.flink.table.planner.runtime.stream.sql.DeduplicateGroupAggregateITCase.{DeduplicateAggMode, DeduplicateAggOff, DeduplicateAggOn}
+import org.apache.flink.table.planner.runtime.utils.StreamingWithMiniBatchTestBase.{MiniBatchMode, MiniBatchOff, MiniBatchOn}
+import org.apache.flink.table.planner.runtime.utils.StreamingWithStateTestBase.{HEAP_BACKEND, ROCKSDB_BACKEND, StateBackendMode}
+import org.apache.flink.table.planner.runtime.utils.{StreamingWithMiniBatchTestBase, TestingRetractSink}
+import org.apache.flink.types.Row
+
+import org.junit.Assert.assertEquals
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import org.junit.{Before, Test}
+
+import java.util
+
+import scala.collection.JavaConversions._
+
+/**
+  * Deduplications keeping the last row followed by group aggregations, whose results must be
+  * the same with and without [[DeduplicateGroupAggregateRule]].
+  */
+@RunWith(classOf[Parameterized])
+class DeduplicateGroupAggregateITCase(
+    dedupAggMode: DeduplicateAggMode,
+    miniBatch: MiniBatchMode,
+    backend: StateBackendMode)
+  extends StreamingWithMiniBatchTestBase(miniBatch, backend) {
+
+  @Before
+  override def before(): Unit = {
+    super.before()
+    tEnv.getConfig.getConfiguration.setBoolean(
+      DeduplicateGroupAggregateRule.TABLE_OPTIMIZER_DEDUPLICATE_AGG_ENABLED,
+      dedupAggMode.isDeduplicateAggEnabled)
+
+    val data = List(
+      (1, "a", 1L),
+      (1, "b", 2L),
+      (2, "a", 3L),
+      (1, "a", 4L),
+      (2, "b", 5L),
+      (2, "a", 6L),
+      (1, "b", 7L),
+      (3, "a", 8L),
+      (1, "a", 9L))
+
+    val t = failingDataSource(data).toTable(tEnv, 'a, 'b, 'c, 'proctime.proctime)
+    tEnv.registerTable("T", t)
+  }
+
+  @Test
+  def testGroupByUniqueKeys(): Unit = {
+    val sql =
+      """
+        |SELECT a, SUM(c), MAX(c)
+        |FROM (
+        |  SELECT *,
+        |    ROW_NUMBER() OVER (PARTITION BY a ORDER BY proctime DESC) as rowNum
+        |  FROM T
+        |)
+        |WHERE rowNum = 1
+        |GROUP BY a
+      """.stripMargin
+
+    checkResult(sql, List("1,9,9", "2,6,6", "3,8,8"))
+  }
+
+  @Test
+  def testGroupBySubsetOfUniqueKeys(): Unit = {
+    val sql =
+      """
+        |SELECT a, COUNT(*), SUM(c), MAX(c), MIN(b)
+        |FROM (
+        |  SELECT *,
+        |    ROW_NUMBER() OVER (PARTITION BY a, b ORDER BY proctime DESC) as rowNum
+        |  FROM T
+        |)
+        |WHERE rowNum = 1
+        |GROUP BY a
+      """.stripMargin
+
+    checkResult(sql, List("1,2,16,9,a", "2,2,11,6,a", "3,1,8,8,a"))
+  }
+
+  @Test
+  def testGroupByUniqueKeysInOtherOrder(): Unit = {
+    val sql =
+      """
+        |SELECT b, a, SUM(c)
+        |FROM (
+        |  SELECT *,
+        |    ROW_NUMBER() OVER (PARTITION BY a, b ORDER BY proctime DESC) as rowNum
+        |  FROM T
+        |)
+        |WHERE rowNum = 1
+        |GROUP BY b, a
+      """.stripMargin
+
+    checkResult(sql, List("a,1,9", "b,1,7", "a,2,6", "b,2,5", "a,3,8"))
+  }
+
+  private def checkResult(sql: String, expected: List[String]): Unit = {
+    val table = tEnv.sqlQuery(sql)
+    assertEquals(
+      dedupAggMode.isDeduplicateAggEnabled,
+      tEnv.explain(table).contains("DeduplicateGroupAggregate("))
+
+    val sink = new TestingRetractSink
+    table.toRetractStream[Row].addSink(sink)
+    env.execute()
+
+    assertEquals(expected.sorted, sink.getRetractResults.sorted)
+  }
+}
+
+object DeduplicateGroupAggregateITCase {
+
+  case class DeduplicateAggMode(isDeduplicateAggEnabled: Boolean) {
+    override def toString: String = if (isDeduplicateAggEnabled) "ON" else "OFF"
+  }
+
+  val DeduplicateAggOn = DeduplicateAggMode(isDeduplicateAggEnabled = true)
+  val DeduplicateAggOff = DeduplicateAggMode(isDeduplicateAggEnabled = false)
+
+  @Parameterized.Parameters(name = "DeduplicateAgg={0}, {1}, StateBackend={2}")
+  def parameters(): util.Collection[Array[java.lang.Object]] = {
+    Seq[Array[AnyRef]](
+      Array(DeduplicateAggOff, MiniBatchOff, HEAP_BACKEND),
+      Array(DeduplicateAggOff, MiniBatchOn, HEAP_BACKEND),
+      Array(DeduplicateAggOn, MiniBatchOff, HEAP_BACKEND),
+      Array(DeduplicateAggOn, MiniBatchOn, HEAP_BACKEND),
+      Array(DeduplicateAggOn, MiniBatchOff, ROCKSDB_BACKEND),
+      Array(DeduplicateAggOn, MiniBatchOn, ROCKSDB_BACKEND))
+  }
+}
@@ -22,6 +22,7 @@ import org.apache.flink.api.scala._
 import org.apache.flink.streaming.api.TimeCharacteristic
 import org.apache.flink.table.api.scala._
 import org.apache.flink.table.planner.expressions.utils.FuncWithOpen
+import org.apache.flink.table.planner.runtime.utils.StreamingWithMiniBatchTestBase.MiniBatchMode
 import org.apache.flink.table.planner.runtime.utils.StreamingWithStateTestBase.StateBackendMode
 import org.apache.flink.table.planner.runtime.utils._
 import org.apache.flink.types.Row
@@ -34,7 +35,8 @@ import org.junit.runners.Parameterized
 import scala.collection.{Seq, mutable}
 
 @RunWith(classOf[Parameterized])
-class JoinITCase(state: StateBackendMode) extends StreamingWithStateTestBase(state) {
+class JoinITCase(miniBatch: MiniBatchMode, state: StateBackendMode)
+  extends StreamingWithMiniBatchTestBase(miniBatch, state) {
 
   val smallTuple5Data = List(
     (1, 1L, 0, "Hallo", 1L),
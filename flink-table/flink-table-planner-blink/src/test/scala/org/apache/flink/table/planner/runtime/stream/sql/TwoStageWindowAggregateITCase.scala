@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.planner.runtime.stream.sql
+
+import org.apache.flink.api.scala._
+import org.apache.flink.table.api.config.OptimizerConfigOptions
+import org.apache.flink.table.api.scala._
+import org.apache.flink.table.planner.runtime.stream.sql.TwoStageWindowAggregateITCase.WindowAggMode
+import org.apache.flink.table.planner.runtime.utils.StreamingWithAggTestBase.LocalGlobalOn
+import org.apache.flink.table.planner.runtime.utils.StreamingWithMiniBatchTestBase.MiniBatchOn
+import org.apache.flink.table.planner.runtime.utils.StreamingWithStateTestBase.{HEAP_BACKEND, ROCKSDB_BACKEND, StateBackendMode}
+import org.apache.flink.table.planner.runtime.utils.TimeTestUtil.TimestampAndWatermarkWithOffset
+import org.apache.flink.table.planner.runtime.utils.{StreamingWithAggTestBase, TestingAppendSink}
+import org.apache.flink.types.Row
+
+import org.junit.Assert.assertEquals
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import org.junit.{Before, Test}
+
+import java.util
+
+import scala.collection.JavaConversions._
+
+/**
+  * Runs event-time window aggregates with the one-phase and the two-phase window aggregate,
+  * which must produce the same results.
+  */
+@RunWith(classOf[Parameterized])
+class TwoStageWindowAggregateITCase(
+    windowAggMode: WindowAggMode,
+    backend: StateBackendMode)
+  extends StreamingWithAggTestBase(LocalGlobalOn, MiniBatchOn, backend) {
+
+  val data = List(
+    (1L, 1, "Hi"),
+    (2L, 2, "Hallo"),
+    (3L, 2, "Hello"),
+    (4L, 5, "Hello"),
+    (7L, 3, "Hello"),
+    (6L, 5, "Hello"),
+    (8L, 3, "Hello world"),
+    (16L, 4, "Hello world"),
+    (32L, 4, null.asInstanceOf[String]))
+
+  @Before
+  override def before(): Unit = {
+    super.before()
+    tEnv.getConfig.getConfiguration.setBoolean(
+      OptimizerConfigOptions.TABLE_OPTIMIZER_WINDOW_AGG_TWO_PHASE_ENABLED,
+      windowAggMode.isTwoPhaseEnabled)
+
+    val stream = failingDataSource(data)
+      .assignTimestampsAndWatermarks(
+        new TimestampAndWatermarkWithOffset[(Long, Int, String)](10L))
+    val table = stream.toTable(tEnv, 'rowtime.rowtime, 'int, 'string)
+    tEnv.registerTable("T1", table)
+  }
+
+  @Test
+  def testEventTimeTumbleWindow(): Unit = {
+    val sql =
+      """
+        |SELECT
+        |  `string`,
+        |  TUMBLE_START(rowtime, INTERVAL '0.005' SECOND),
+        |  TUMBLE_END(rowtime, INTERVAL '0.005' SECOND),
+        |  COUNT(*),
+        |  SUM(`int`),
+        |  MAX(`int`)
+        |FROM T1
+        |GROUP BY `string`, TUMBLE(rowtime, INTERVAL '0.005' SECOND)
+      """.stripMargin
+
+    val sink = new TestingAppendSink
+    tEnv.sqlQuery(sql).toAppendStream[Row].addSink(sink)
+    env.execute()
+
+    val expected = Seq(
+      "Hallo,1970-01-01T00:00,1970-01-01T00:00:00.005,1,2,2",
+      "Hello world,1970-01-01T00:00:00.005,1970-01-01T00:00:00.010,1,3,3",
+      "Hello world,1970-01-01T00:00:00.015,1970-01-01T00:00:00.020,1,4,4",
+      "Hello,1970-01-01T00:00,1970-01-01T00:00:00.005,2,7,5",
+      "Hello,1970-01-01T00:00:00.005,1970-01-01T00:00:00.010,2,8,5",
+      "Hi,1970-01-01T00:00,1970-01-01T00:00:00.005,1,1,1",
+      "null,1970-01-01T00:00:00.030,1970-01-01T00:00:00.035,1,4,4")
+    assertEquals(expected.sorted, sink.getAppendResults.sorted)
+  }
+
+  @Test
+  def testEventTimeTumbleWindowWithoutGroupBy(): Unit = {
+    val sql =
+      """
+        |SELECT
+        |  TUMBLE_START(rowtime, INTERVAL '0.005' SECOND),
+        |  COUNT(*),
+        |  SUM(`int`)
+        |FROM T1
+        |GROUP BY TUMBLE(rowtime, INTERVAL '0.005' SECOND)
+      """.stripMargin
+
+    val sink = new TestingAppendSink
+    tEnv.sqlQuery(sql).toAppendStream[Row].addSink(sink)
+    env.execute()
+
+    val expected = Seq(
+      "1970-01-01T00:00,4,10",
+      "1970-01-01T00:00:00.005,3,11",
+      "1970-01-01T00:00:00.015,1,4",
+      "1970-01-01T00:00:00.030,1,4")
+    assertEquals(expected.sorted, sink.getAppendResults.sorted)
+  }
+
+  @Test
+  def testEventTimeHopWindow(): Unit = {
+    // the size is not a multiple of the slide, so the windows are merged from 1ms slices
+    val sql =
+      """
+        |SELECT
+        |  `string`,
+        |  HOP_START(rowtime, INTERVAL '0.004' SECOND, INTERVAL '0.005' SECOND),
+        |  HOP_END(rowtime, INTERVAL '0.004' SECOND, INTERVAL '0.005' SECOND),
+        |  COUNT(*),
+        |  SUM(`int`),
+        |  MAX(`int`)
+        |FROM T1
+        |GROUP BY `string`, HOP(rowtime, INTERVAL '0.004' SECOND, INTERVAL '0.005' SECOND)
+      """.stripMargin
+
+    val sink = new TestingAppendSink
+    tEnv.sqlQuery(sql).toAppendStream[Row].addSink(sink)
+    env.execute()
+
+    val expected = Seq(
+      "Hallo,1970-01-01T00:00,1970-01-01T00:00:00.005,1,2,2",
+      "Hello world,1970-01-01T00:00:00.004,1970-01-01T00:00:00.009,1,3,3",
+      "Hello world,1970-01-01T00:00:00.008,1970-01-01T00:00:00.013,1,3,3",
+      "Hello world,1970-01-01T00:00:00.012,1970-01-01T00:00:00.017,1,4,4",
+      "Hello world,1970-01-01T00:00:00.016,1970-01-01T00:00:00.021,1,4,4",
+      "Hello,1970-01-01T00:00,1970-01-01T00:00:00.005,2,7,5",
+      "Hello,1970-01-01T00:00:00.004,1970-01-01T00:00:00.009,3,13,5",
+      "Hi,1970-01-01T00:00,1970-01-01T00:00:00.005,1,1,1",
+      "null,1970-01-01T00:00:00.028,1970-01-01T00:00:00.033,1,4,4",
+      "null,1970-01-01T00:00:00.032,1970-01-01T00:00:00.037,1,4,4")
+    assertEquals(expected.sorted, sink.getAppendResults.sorted)
+  }
+}
+
+object TwoStageWindowAggregateITCase {
+
+  case class WindowAggMode(isTwoPhaseEnabled: Boolean) {
+    override def toString: String = if (isTwoPhaseEnabled) "TWO_PHASE" else "ONE_PHASE"
+  }
+
+  val OnePhase = WindowAggMode(isTwoPhaseEnabled = false)
+  val TwoPhase = WindowAggMode(isTwoPhaseEnabled = true)
+
+  @Parameterized.Parameters(name = "WindowAgg={0}, StateBackend={1}")
+  def parameters(): util.Collection[Array[java.lang.Object]] = {
+    Seq[Array[AnyRef]](
+      Array(OnePhase, HEAP_BACKEND),
+      Array(TwoPhase, HEAP_BACKEND),
+      Array(OnePhase, ROCKSDB_BACKEND),
+      Array(TwoPhase, ROCKSDB_BACKEND))
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.dataformat.vector.filter;
+
+import org.apache.flink.table.dataformat.vector.VectorizedColumnBatch;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * A {@link ColumnBatchFilter} which only passes the rows which pass all of the given filters. The
+ * filters are evaluated one after another on the remaining rows.
+ */
+public class AndFilter implements ColumnBatchFilter {
+
+	private static final long serialVersionUID = 1L;
+
+	private final ColumnBatchFilter[] filters;
+
+	public AndFilter(List<ColumnBatchFilter> filters) {
+		checkArgument(!filters.isEmpty(), "The filters must not be empty.");
+		this.filters = filters.toArray(new ColumnBatchFilter[0]);
+	}
+
+	@Override
+	public int filter(VectorizedColumnBatch batch, int[] selected, int size) {
+		for (int i = 0; i < filters.length && size > 0; i++) {
+			size = filters[i].filter(batch, selected, size);
+		}
+		return size;
+	}
+
+	@Override
+	public String toString() {
+		return "AND" + Arrays.toString(filters);
+	}
+}
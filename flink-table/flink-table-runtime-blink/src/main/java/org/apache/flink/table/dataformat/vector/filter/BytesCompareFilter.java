@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.dataformat.vector.filter;
+
+import org.apache.flink.table.dataformat.vector.BytesColumnVector;
+import org.apache.flink.table.dataformat.vector.VectorizedColumnBatch;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * A {@link ColumnBatchFilter} which compares a string column of a {@link BytesColumnVector} to a
+ * string literal. The strings are compared by their UTF-8 bytes, like
+ * {@link org.apache.flink.table.dataformat.BinaryString#compareTo}. Null values never pass the
+ * filter.
+ */
+public class BytesCompareFilter implements ColumnBatchFilter {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int column;
+	private final CompareOperator operator;
+	private final byte[] literal;
+
+	public BytesCompareFilter(int column, CompareOperator operator, String literal) {
+		this.column = column;
+		this.operator = checkNotNull(operator);
+		this.literal = literal.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public int filter(VectorizedColumnBatch batch, int[] selected, int size) {
+		BytesColumnVector vector = (BytesColumnVector) batch.columns[column];
+		int newSize = 0;
+		for (int i = 0; i < size; i++) {
+			int row = selected[i];
+			if (!vector.isNullAt(row) && operator.accept(compare(vector.getBytes(row)))) {
+				selected[newSize++] = row;
+			}
+		}
+		return newSize;
+	}
+
+	private int compare(BytesColumnVector.Bytes bytes) {
+		int len = Math.min(bytes.len, literal.length);
+		for (int i = 0; i < len; i++) {
+			int res = (bytes.data[bytes.offset + i] & 0xFF) - (literal[i] & 0xFF);
+			if (res != 0) {
+				return res;
+			}
+		}
+		return bytes.len - literal.length;
+	}
+
+	@Override
+	public String toString() {
+		return "$" + column + " " + operator + " '" + new String(literal, StandardCharsets.UTF_8) + "'";
+	}
+}
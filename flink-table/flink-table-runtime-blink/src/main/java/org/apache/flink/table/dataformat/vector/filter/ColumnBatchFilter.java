@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.dataformat.vector.filter;
+
+import org.apache.flink.table.dataformat.vector.VectorizedColumnBatch;
+
+import java.io.Serializable;
+
+/**
+ * A filter which is evaluated on a whole {@link VectorizedColumnBatch} at once, instead of row by
+ * row. The filter narrows down a selection vector, which contains the ids of the selected rows in
+ * ascending order.
+ *
+ * <p>Implementations run a tight loop over the column vectors, which avoids the per row virtual
+ * calls and the row objects of the row-based evaluation.
+ *
+ * <p>NOTE: The filters are only evaluated by the columnar readers of the sources, to skip rows
+ * before they are returned as records. The operators after the source, including the Calc which
+ * still evaluates the same predicates, process one record at a time.
+ */
+public interface ColumnBatchFilter extends Serializable {
+
+	/**
+	 * Removes the rows which do not pass the filter from the selection vector.
+	 *
+	 * @param batch the batch to filter
+	 * @param selected the ids of the selected rows in ascending order, the ids of the rows which
+	 *                 pass the filter are moved to the front
+	 * @param size the number of selected rows
+	 * @return the number of rows which pass the filter
+	 */
+	int filter(VectorizedColumnBatch batch, int[] selected, int size);
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.dataformat.vector.filter;
+
+/**
+ * Comparison operators of the {@link ColumnBatchFilter}s.
+ */
+public enum CompareOperator {
+
+	EQUALS("=") {
+		@Override
+		public boolean accept(int compareResult) {
+			return compareResult == 0;
+		}
+	},
+
+	NOT_EQUALS("<>") {
+		@Override
+		public boolean accept(int compareResult) {
+			return compareResult != 0;
+		}
+	},
+
+	LESS_THAN("<") {
+		@Override
+		public boolean accept(int compareResult) {
+			return compareResult < 0;
+		}
+	},
+
+	LESS_THAN_OR_EQUAL("<=") {
+		@Override
+		public boolean accept(int compareResult) {
+			return compareResult <= 0;
+		}
+	},
+
+	GREATER_THAN(">") {
+		@Override
+		public boolean accept(int compareResult) {
+			return compareResult > 0;
+		}
+	},
+
+	GREATER_THAN_OR_EQUAL(">=") {
+		@Override
+		public boolean accept(int compareResult) {
+			return compareResult >= 0;
+		}
+	};
+
+	private final String symbol;
+
+	CompareOperator(String symbol) {
+		this.symbol = symbol;
+	}
+
+	/**
+	 * Returns whether the result of comparing the column value to the literal, as returned by
+	 * {@link Comparable#compareTo}, passes the comparison.
+	 */
+	public abstract boolean accept(int compareResult);
+
+	/**
+	 * Returns the operator which gives the same result if the operands are swapped.
+	 */
+	public CompareOperator reverse() {
+		switch (this) {
+			case LESS_THAN:
+				return GREATER_THAN;
+			case LESS_THAN_OR_EQUAL:
+				return GREATER_THAN_OR_EQUAL;
+			case GREATER_THAN:
+				return LESS_THAN;
+			case GREATER_THAN_OR_EQUAL:
+				return LESS_THAN_OR_EQUAL;
+			default:
+				return this;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return symbol;
+	}
+}
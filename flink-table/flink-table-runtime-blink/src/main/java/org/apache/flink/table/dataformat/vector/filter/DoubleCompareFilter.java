@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.dataformat.vector.filter;
+
+import org.apache.flink.table.dataformat.vector.ColumnVector;
+import org.apache.flink.table.dataformat.vector.DoubleColumnVector;
+import org.apache.flink.table.dataformat.vector.FloatColumnVector;
+import org.apache.flink.table.dataformat.vector.VectorizedColumnBatch;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * A {@link ColumnBatchFilter} which compares a floating point column, i.e. a column of a
+ * {@link DoubleColumnVector} or {@link FloatColumnVector}, to a literal. Null values never pass the
+ * filter. The values are compared like the primitive comparison operators of Java, which are used
+ * by the generated code, so a NaN value only passes a NOT_EQUALS filter.
+ */
+public class DoubleCompareFilter implements ColumnBatchFilter {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int column;
+	private final CompareOperator operator;
+	private final double literal;
+
+	public DoubleCompareFilter(int column, CompareOperator operator, double literal) {
+		this.column = column;
+		this.operator = checkNotNull(operator);
+		this.literal = literal;
+	}
+
+	@Override
+	public int filter(VectorizedColumnBatch batch, int[] selected, int size) {
+		ColumnVector vector = batch.columns[column];
+		int newSize = 0;
+		if (vector instanceof DoubleColumnVector) {
+			DoubleColumnVector doubleVector = (DoubleColumnVector) vector;
+			for (int i = 0; i < size; i++) {
+				int row = selected[i];
+				if (!doubleVector.isNullAt(row) && accept(doubleVector.getDouble(row))) {
+					selected[newSize++] = row;
+				}
+			}
+		} else if (vector instanceof FloatColumnVector) {
+			FloatColumnVector floatVector = (FloatColumnVector) vector;
+			for (int i = 0; i < size; i++) {
+				int row = selected[i];
+				if (!floatVector.isNullAt(row) && accept(floatVector.getFloat(row))) {
+					selected[newSize++] = row;
+				}
+			}
+		} else {
+			throw new UnsupportedOperationException("Unsupported column vector for a floating point filter: " + vector);
+		}
+		return newSize;
+	}
+
+	private boolean accept(double value) {
+		if (value < literal) {
+			return operator.accept(-1);
+		} else if (value > literal) {
+			return operator.accept(1);
+		} else if (value == literal) {
+			return operator.accept(0);
+		} else {
+			// one of the values is NaN
+			return operator == CompareOperator.NOT_EQUALS;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "$" + column + " " + operator + " " + literal;
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.dataformat.vector.filter;
+
+import org.apache.flink.table.dataformat.vector.ByteColumnVector;
+import org.apache.flink.table.dataformat.vector.ColumnVector;
+import org.apache.flink.table.dataformat.vector.IntColumnVector;
+import org.apache.flink.table.dataformat.vector.LongColumnVector;
+import org.apache.flink.table.dataformat.vector.ShortColumnVector;
+import org.apache.flink.table.dataformat.vector.VectorizedColumnBatch;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * A {@link ColumnBatchFilter} which compares an integral column, i.e. a column of a
+ * {@link LongColumnVector}, {@link IntColumnVector}, {@link ShortColumnVector} or
+ * {@link ByteColumnVector}, to a literal. Null values never pass the filter.
+ */
+public class LongCompareFilter implements ColumnBatchFilter {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int column;
+	private final CompareOperator operator;
+	private final long literal;
+
+	public LongCompareFilter(int column, CompareOperator operator, long literal) {
+		this.column = column;
+		this.operator = checkNotNull(operator);
+		this.literal = literal;
+	}
+
+	@Override
+	public int filter(VectorizedColumnBatch batch, int[] selected, int size) {
+		ColumnVector vector = batch.columns[column];
+		int newSize = 0;
+		if (vector instanceof LongColumnVector) {
+			LongColumnVector longVector = (LongColumnVector) vector;
+			for (int i = 0; i < size; i++) {
+				int row = selected[i];
+				if (!longVector.isNullAt(row) && operator.accept(Long.compare(longVector.getLong(row), literal))) {
+					selected[newSize++] = row;
+				}
+			}
+		} else if (vector instanceof IntColumnVector) {
+			IntColumnVector intVector = (IntColumnVector) vector;
+			for (int i = 0; i < size; i++) {
+				int row = selected[i];
+				if (!intVector.isNullAt(row) && operator.accept(Long.compare(intVector.getInt(row), literal))) {
+					selected[newSize++] = row;
+				}
+			}
+		} else if (vector instanceof ShortColumnVector) {
+			ShortColumnVector shortVector = (ShortColumnVector) vector;
+			for (int i = 0; i < size; i++) {
+				int row = selected[i];
+				if (!shortVector.isNullAt(row) && operator.accept(Long.compare(shortVector.getShort(row), literal))) {
+					selected[newSize++] = row;
+				}
+			}
+		} else if (vector instanceof ByteColumnVector) {
+			ByteColumnVector byteVector = (ByteColumnVector) vector;
+			for (int i = 0; i < size; i++) {
+				int row = selected[i];
+				if (!byteVector.isNullAt(row) && operator.accept(Long.compare(byteVector.getByte(row), literal))) {
+					selected[newSize++] = row;
+				}
+			}
+		} else {
+			throw new UnsupportedOperationException("Unsupported column vector for an integral filter: " + vector);
+		}
+		return newSize;
+	}
+
+	@Override
+	public String toString() {
+		return "$" + column + " " + operator + " " + literal;
+	}
+}
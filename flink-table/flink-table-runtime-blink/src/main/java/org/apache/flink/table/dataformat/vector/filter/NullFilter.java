@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.dataformat.vector.filter;
+
+import org.apache.flink.table.dataformat.vector.ColumnVector;
+import org.apache.flink.table.dataformat.vector.VectorizedColumnBatch;
+
+/**
+ * A {@link ColumnBatchFilter} which checks whether a column is null or not null.
+ */
+public class NullFilter implements ColumnBatchFilter {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int column;
+	private final boolean isNull;
+
+	public NullFilter(int column, boolean isNull) {
+		this.column = column;
+		this.isNull = isNull;
+	}
+
+	@Override
+	public int filter(VectorizedColumnBatch batch, int[] selected, int size) {
+		ColumnVector vector = batch.columns[column];
+		int newSize = 0;
+		for (int i = 0; i < size; i++) {
+			int row = selected[i];
+			if (vector.isNullAt(row) == isNull) {
+				selected[newSize++] = row;
+			}
+		}
+		return newSize;
+	}
+
+	@Override
+	public String toString() {
+		return "$" + column + (isNull ? " IS NULL" : " IS NOT NULL");
+	}
+}
@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.flink.table.runtime.generated;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Checks that the classes, methods and fields which are referenced by a class file exist.
+ *
+ * <p>The JVM resolves the references of a class lazily, so a class file which has been compiled
+ * against other versions of the referenced classes is loaded without errors, and fails with a
+ * {@link NoSuchMethodError} or {@link NoSuchFieldError} only when the missing member is used. This
+ * is used to detect such stale class files of the {@link CompiledCodeCache} before they are used.
+ */
+final class ClassFileReferences {
+
+	private static final int MAGIC = 0xCAFEBABE;
+
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int CONSTANT_INTEGER = 3;
+	private static final int CONSTANT_FLOAT = 4;
+	private static final int CONSTANT_LONG = 5;
+	private static final int CONSTANT_DOUBLE = 6;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_STRING = 8;
+	private static final int CONSTANT_FIELDREF = 9;
+	private static final int CONSTANT_METHODREF = 10;
+	private static final int CONSTANT_INTERFACE_METHODREF = 11;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+	private static final int CONSTANT_METHOD_HANDLE = 15;
+	private static final int CONSTANT_METHOD_TYPE = 16;
+	private static final int CONSTANT_DYNAMIC = 17;
+	private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+	private static final int CONSTANT_MODULE = 19;
+	private static final int CONSTANT_PACKAGE = 20;
+
+	private ClassFileReferences() {
+	}
+
+	/**
+	 * Checks that all classes, methods and fields referenced by the given class file can be
+	 * resolved by the given class loader.
+	 *
+	 * @throws ReflectiveOperationException if a referenced class or member does not exist
+	 * @throws IOException if the class file is malformed
+	 */
+	static void check(ClassLoader cl, byte[] classFile) throws ReflectiveOperationException, IOException {
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(classFile));
+		if (input.readInt() != MAGIC) {
+			throw new IOException("Not a class file.");
+		}
+		// minor and major version
+		input.readUnsignedShort();
+		input.readUnsignedShort();
+
+		int count = input.readUnsignedShort();
+		int[] tags = new int[count];
+		String[] utf8s = new String[count];
+		int[] firstIndices = new int[count];
+		int[] secondIndices = new int[count];
+		for (int i = 1; i < count; i++) {
+			tags[i] = input.readUnsignedByte();
+			switch (tags[i]) {
+				case CONSTANT_UTF8:
+					utf8s[i] = input.readUTF();
+					break;
+				case CONSTANT_CLASS:
+				case CONSTANT_STRING:
+				case CONSTANT_METHOD_TYPE:
+				case CONSTANT_MODULE:
+				case CONSTANT_PACKAGE:
+					firstIndices[i] = input.readUnsignedShort();
+					break;
+				case CONSTANT_FIELDREF:
+				case CONSTANT_METHODREF:
+				case CONSTANT_INTERFACE_METHODREF:
+				case CONSTANT_NAME_AND_TYPE:
+				case CONSTANT_DYNAMIC:
+				case CONSTANT_INVOKE_DYNAMIC:
+					firstIndices[i] = input.readUnsignedShort();
+					secondIndices[i] = input.readUnsignedShort();
+					break;
+				case CONSTANT_INTEGER:
+				case CONSTANT_FLOAT:
+					input.readInt();
+					break;
+				case CONSTANT_LONG:
+				case CONSTANT_DOUBLE:
+					input.readLong();
+					// takes two entries of the constant pool
+					i++;
+					break;
+				case CONSTANT_METHOD_HANDLE:
+					input.readUnsignedByte();
+					input.readUnsignedShort();
+					break;
+				default:
+					throw new IOException("Unknown constant pool tag " + tags[i] + ".");
+			}
+		}
+
+		for (int i = 1; i < count; i++) {
+			switch (tags[i]) {
+				case CONSTANT_CLASS:
+					loadClass(cl, utf8s[firstIndices[i]]);
+					break;
+				case CONSTANT_FIELDREF:
+				case CONSTANT_METHODREF:
+				case CONSTANT_INTERFACE_METHODREF:
+					// the class and the name and type of the member
+					checkMember(
+						cl,
+						tags[i] == CONSTANT_FIELDREF,
+						utf8s[firstIndices[firstIndices[i]]],
+						utf8s[firstIndices[secondIndices[i]]],
+						utf8s[secondIndices[secondIndices[i]]]);
+					break;
+				default:
+					break;
+			}
+		}
+	}
+
+	private static void checkMember(
+			ClassLoader cl,
+			boolean isField,
+			String ownerName,
+			String name,
+			String descriptor) throws ReflectiveOperationException {
+		if (ownerName.startsWith("[")) {
+			// a method of an array, e.g. clone()
+			return;
+		}
+		Class<?> owner = loadClass(cl, ownerName);
+		if (isField) {
+			checkField(owner, name, descriptor);
+		} else {
+			checkMethod(owner, name, descriptor);
+		}
+	}
+
+	/**
+	 * Loads the class of the given internal name, or the element class of an array. Returns null
+	 * for arrays of primitives.
+	 */
+	private static Class<?> loadClass(ClassLoader cl, String internalName) throws ClassNotFoundException {
+		String name = internalName;
+		if (name.startsWith("[")) {
+			name = name.substring(name.lastIndexOf('[') + 1);
+			if (!name.startsWith("L")) {
+				return null;
+			}
+			name = name.substring(1, name.length() - 1);
+		}
+		return Class.forName(name.replace('/', '.'), false, cl);
+	}
+
+	private static void checkField(Class<?> owner, String name, String descriptor) throws NoSuchFieldException {
+		for (Class<?> clazz : supertypes(owner)) {
+			for (Field field : clazz.getDeclaredFields()) {
+				if (field.getName().equals(name) && descriptor(field.getType()).equals(descriptor)) {
+					return;
+				}
+			}
+		}
+		throw new NoSuchFieldException(owner.getName() + "." + name + ":" + descriptor);
+	}
+
+	private static void checkMethod(Class<?> owner, String name, String descriptor) throws NoSuchMethodException {
+		if ("<init>".equals(name)) {
+			for (Constructor<?> constructor : owner.getDeclaredConstructors()) {
+				if (descriptor(constructor.getParameterTypes(), void.class).equals(descriptor)) {
+					return;
+				}
+			}
+		} else {
+			for (Class<?> clazz : supertypes(owner)) {
+				for (Method method : clazz.getDeclaredMethods()) {
+					if (method.getName().equals(name) &&
+							descriptor(method.getParameterTypes(), method.getReturnType()).equals(descriptor)) {
+						return;
+					}
+				}
+			}
+		}
+		throw new NoSuchMethodException(owner.getName() + "." + name + descriptor);
+	}
+
+	/**
+	 * Returns the given class and all its superclasses and interfaces, and {@link Object} for
+	 * interfaces, in which the JVM looks up the referenced members.
+	 */
+	private static Set<Class<?>> supertypes(Class<?> clazz) {
+		Set<Class<?>> supertypes = new HashSet<>();
+		Deque<Class<?>> queue = new ArrayDeque<>();
+		queue.add(clazz);
+		queue.add(Object.class);
+		while (!queue.isEmpty()) {
+			Class<?> current = queue.poll();
+			if (supertypes.add(current)) {
+				if (current.getSuperclass() != null) {
+					queue.add(current.getSuperclass());
+				}
+				for (Class<?> anInterface : current.getInterfaces()) {
+					queue.add(anInterface);
+				}
+			}
+		}
+		return supertypes;
+	}
+
+	private static String descriptor(Class<?>[] parameterTypes, Class<?> returnType) {
+		StringBuilder builder = new StringBuilder("(");
+		for (Class<?> parameterType : parameterTypes) {
+			builder.append(descriptor(parameterType));
+		}
+		return builder.append(')').append(descriptor(returnType)).toString();
+	}
+
+	private static String descriptor(Class<?> type) {
+		if (type.isArray()) {
+			return type.getName().replace('.', '/');
+		} else if (!type.isPrimitive()) {
+			return "L" + type.getName().replace('.', '/') + ";";
+		} else if (type == int.class) {
+			return "I";
+		} else if (type == long.class) {
+			return "J";
+		} else if (type == boolean.class) {
+			return "Z";
+		} else if (type == byte.class) {
+			return "B";
+		} else if (type == short.class) {
+			return "S";
+		} else if (type == char.class) {
+			return "C";
+		} else if (type == float.class) {
+			return "F";
+		} else if (type == double.class) {
+			return "D";
+		} else {
+			return "V";
+		}
+	}
+}
@@ -19,15 +19,30 @@
 package org.apache.flink.table.runtime.generated;
 
 import org.apache.flink.api.common.InvalidProgramException;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.configuration.TaskManagerOptions;
+import org.apache.flink.core.fs.Path;
 import org.apache.flink.util.FlinkRuntimeException;
 
 import org.apache.flink.shaded.guava18.com.google.common.cache.Cache;
 import org.apache.flink.shaded.guava18.com.google.common.cache.CacheBuilder;
 
+import org.codehaus.janino.ClassLoaderIClassLoader;
+import org.codehaus.janino.Java;
+import org.codehaus.janino.Parser;
+import org.codehaus.janino.Scanner;
 import org.codehaus.janino.SimpleCompiler;
+import org.codehaus.janino.UnitCompiler;
+import org.codehaus.janino.util.ClassFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
 import static org.apache.flink.util.Preconditions.checkNotNull;
 
 /**
@@ -50,6 +65,26 @@ public final class CompileUtils {
 		.maximumSize(100)   // estimated cache size
 		.build();
 
+	/** The cache of compiled class files across jobs, null if it is not configured. */
+	private static volatile CompiledCodeCache compiledCodeCache;
+
+	/**
+	 * Configures the cache of compiled class files across jobs from the configuration of the
+	 * TaskManager. The cache is shared by all tasks of the TaskManager.
+	 */
+	public static void configureCompiledCodeCache(Configuration configuration) {
+		String directory = configuration.getString(TaskManagerOptions.COMPILED_CODE_CACHE_DIR);
+		long maxSize = configuration.get(TaskManagerOptions.COMPILED_CODE_CACHE_MAX_SIZE).getBytes();
+		CompiledCodeCache cache = compiledCodeCache;
+		if (directory == null) {
+			compiledCodeCache = null;
+		} else if (cache == null ||
+				!Objects.equals(cache.getDirectory(), new Path(directory)) ||
+				cache.getMaxSize() != maxSize) {
+			compiledCodeCache = new CompiledCodeCache(new Path(directory), maxSize);
+		}
+	}
+
 	/**
 	 * Compiles a generated code to a Class.
 	 * @param cl the ClassLoader used to load the class
@@ -63,14 +98,18 @@ public final class CompileUtils {
 		try {
 			Cache<ClassLoader, Class> compiledClasses = COMPILED_CACHE.get(name,
 					() -> CacheBuilder.newBuilder().maximumSize(5).weakKeys().softValues().build());
-			return compiledClasses.get(cl, () -> doCompile(cl, name, code));
+			return compiledClasses.get(cl, () -> doCompile(cl, name, code, true));
 		} catch (Exception e) {
 			throw new FlinkRuntimeException(e.getMessage(), e);
 		}
 	}
 
-	private static <T> Class<T> doCompile(ClassLoader cl, String name, String code) {
+	private static <T> Class<T> doCompile(ClassLoader cl, String name, String code, boolean useCache) {
 		checkNotNull(cl, "Classloader must not be null.");
+		CompiledCodeCache cache = compiledCodeCache;
+		if (useCache && cache != null) {
+			return compileWithCache(cache, cl, name, code);
+		}
 		CODE_LOG.debug("Compiling: {} \n\n Code:\n{}", name, code);
 		SimpleCompiler compiler = new SimpleCompiler();
 		compiler.setParentClassLoader(cl);
@@ -89,6 +128,138 @@ public final class CompileUtils {
 		}
 	}
 
+	/**
+	 * Compiles the given code with the {@link CompiledCodeCache}, or loads the class files from
+	 * it. The returned class is named by {@link #canonicalizeNames}, so that the same code which
+	 * has been generated again with other names is found in the cache.
+	 */
+	private static <T> Class<T> compileWithCache(
+			CompiledCodeCache cache, ClassLoader cl, String name, String code) {
+		Map<String, String> numbers = new HashMap<>();
+		String canonicalCode = canonicalizeNames(code, numbers);
+		String canonicalName = canonicalizeNames(name, numbers);
+
+		Map<String, byte[]> classFiles = cache.get(cl, canonicalName, canonicalCode);
+		if (classFiles != null) {
+			CODE_LOG.debug("Loading compiled class: {} as {} from {}", name, canonicalName, cache.getDirectory());
+			try {
+				Class<T> clazz = loadClass(cl, canonicalName, classFiles);
+				// the classes referenced by the code may have changed since it has been compiled
+				for (byte[] classFile : classFiles.values()) {
+					ClassFileReferences.check(clazz.getClassLoader(), classFile);
+				}
+				return clazz;
+			} catch (LinkageError | ReflectiveOperationException | IOException e) {
+				CODE_LOG.warn("Failed to load the cached class {}, compiling it again.", name, e);
+			}
+		}
+
+		CODE_LOG.debug("Compiling: {} as {} \n\n Code:\n{}", name, canonicalName, canonicalCode);
+		try {
+			classFiles = compileToClassFiles(cl, canonicalCode);
+		} catch (Throwable t) {
+			// the renamed code should compile like the original code, just in case it does not
+			CODE_LOG.warn("Failed to compile the canonical code of {}, compiling it without cache.", name, t);
+			return doCompile(cl, name, code, false);
+		}
+		cache.put(cl, canonicalName, canonicalCode, classFiles);
+		try {
+			return loadClass(cl, canonicalName, classFiles);
+		} catch (ClassNotFoundException e) {
+			throw new RuntimeException("Can not load class " + canonicalName, e);
+		}
+	}
+
+	private static Map<String, byte[]> compileToClassFiles(ClassLoader cl, String code) throws Exception {
+		Java.CompilationUnit unit = new Parser(new Scanner(null, new StringReader(code)))
+			.parseCompilationUnit();
+		ClassFile[] compiled = new UnitCompiler(unit, new ClassLoaderIClassLoader(cl))
+			.compileUnit(false, true, false);
+		Map<String, byte[]> classFiles = new HashMap<>();
+		for (ClassFile classFile : compiled) {
+			classFiles.put(classFile.getThisClassName(), classFile.toByteArray());
+		}
+		return classFiles;
+	}
+
+	/**
+	 * Renumbers the generated names of the given code, which are made unique by a global counter
+	 * of the planner (e.g. {@code isNull$123}), in the order of their first occurrence. So the
+	 * same code which has been generated again, e.g. for the same query by a long running client,
+	 * has the same canonical code. String and character literals and comments are not changed.
+	 *
+	 * @param code the code or a name of the code
+	 * @param numbers the new numbers by the numbers of the names, which are shared by the code and
+	 *                its class name
+	 */
+	private static String canonicalizeNames(String code, Map<String, String> numbers) {
+		StringBuilder builder = new StringBuilder(code.length());
+		int length = code.length();
+		int i = 0;
+		while (i < length) {
+			char c = code.charAt(i);
+			int end;
+			if (c == '"' || c == '\'') {
+				end = i + 1;
+				while (end < length && code.charAt(end) != c) {
+					end += code.charAt(end) == '\\' ? 2 : 1;
+				}
+				end = Math.min(end + 1, length);
+				builder.append(code, i, end);
+			} else if (code.startsWith("//", i)) {
+				end = code.indexOf('\n', i);
+				end = end < 0 ? length : end;
+				builder.append(code, i, end);
+			} else if (code.startsWith("/*", i)) {
+				end = code.indexOf("*/", i + 2);
+				end = end < 0 ? length : end + 2;
+				builder.append(code, i, end);
+			} else if (Character.isJavaIdentifierStart(c)) {
+				end = i + 1;
+				while (end < length && Character.isJavaIdentifierPart(code.charAt(end))) {
+					end++;
+				}
+				builder.append(canonicalizeIdentifier(code.substring(i, end), numbers));
+			} else if (Character.isJavaIdentifierPart(c)) {
+				// a number literal, e.g. 10L
+				end = i + 1;
+				while (end < length && Character.isJavaIdentifierPart(code.charAt(end))) {
+					end++;
+				}
+				builder.append(code, i, end);
+			} else {
+				end = i + 1;
+				builder.append(c);
+			}
+			i = end;
+		}
+		return builder.toString();
+	}
+
+	private static String canonicalizeIdentifier(String identifier, Map<String, String> numbers) {
+		if (identifier.indexOf('$') < 0) {
+			return identifier;
+		}
+		String[] parts = identifier.split("\\$", -1);
+		for (int i = 1; i < parts.length; i++) {
+			if (!parts[i].isEmpty() && parts[i].chars().allMatch(Character::isDigit)) {
+				String number = numbers.get(parts[i]);
+				if (number == null) {
+					number = String.valueOf(numbers.size());
+					numbers.put(parts[i], number);
+				}
+				parts[i] = number;
+			}
+		}
+		return String.join("$", parts);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> Class<T> loadClass(
+			ClassLoader cl, String name, Map<String, byte[]> classFiles) throws ClassNotFoundException {
+		return (Class<T>) new ClassFilesClassLoader(cl, classFiles).loadClass(name);
+	}
+
 	/**
 	 * To output more information when an error occurs.
 	 * Generally, when cook fails, it shows which line is wrong. This line number starts at 1.
@@ -101,4 +272,27 @@ public final class CompileUtils {
 		}
 		return builder.toString();
 	}
+
+	/**
+	 * Class loader which defines the classes of the given class files, like the class loader
+	 * created by Janino for every compile.
+	 */
+	private static final class ClassFilesClassLoader extends ClassLoader {
+
+		private final Map<String, byte[]> classFiles;
+
+		ClassFilesClassLoader(ClassLoader parent, Map<String, byte[]> classFiles) {
+			super(parent);
+			this.classFiles = classFiles;
+		}
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			byte[] bytes = classFiles.get(name);
+			if (bytes == null) {
+				throw new ClassNotFoundException(name);
+			}
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
 }
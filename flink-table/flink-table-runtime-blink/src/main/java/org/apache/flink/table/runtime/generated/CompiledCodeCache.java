@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.generated;
+
+import org.apache.flink.core.fs.FSDataInputStream;
+import org.apache.flink.core.fs.FSDataOutputStream;
+import org.apache.flink.core.fs.FileStatus;
+import org.apache.flink.core.fs.FileSystem;
+import org.apache.flink.core.fs.Path;
+import org.apache.flink.runtime.util.EnvironmentInformation;
+import org.apache.flink.util.StringUtils;
+
+import org.apache.flink.shaded.guava18.com.google.common.cache.Cache;
+import org.apache.flink.shaded.guava18.com.google.common.cache.CacheBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * A cache of the compiled class files of generated code in a directory of any Flink
+ * {@link FileSystem}, which is shared by all jobs which use the same directory. With a local
+ * directory the compiled classes are shared by the jobs of a TaskManager, with a directory on a
+ * distributed file system they are shared by all TaskManagers.
+ *
+ * <p>The class files of a generated class are stored in one file, which is named by a hash of the
+ * class name, the code, the Flink version and the contents of the user code class path of the
+ * class loader. The files are written to a temporary file first and then renamed, so that readers
+ * never see incomplete files. When the total size of the files exceeds the maximum size after a
+ * file has been written, the oldest files are deleted. Failures to read or write the cache are
+ * logged and otherwise ignored, the code is compiled instead.
+ */
+final class CompiledCodeCache {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CompiledCodeCache.class);
+
+	private static final int VERSION = 1;
+
+	private static final String FILE_SUFFIX = ".classes";
+
+	/** The hashes of the user code class paths of the class loaders, see {@link #hashClassPath}. */
+	private static final Cache<ClassLoader, String> CLASS_PATH_HASHES = CacheBuilder
+		.newBuilder()
+		.weakKeys()
+		.build();
+
+	private final Path directory;
+
+	private final long maxSize;
+
+	CompiledCodeCache(Path directory, long maxSize) {
+		checkArgument(maxSize > 0, "The maximum size of the cache must be positive.");
+		this.directory = checkNotNull(directory);
+		this.maxSize = maxSize;
+	}
+
+	Path getDirectory() {
+		return directory;
+	}
+
+	long getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Returns the class files of the given generated class by class name, or null if they are not
+	 * in the cache.
+	 */
+	@Nullable
+	Map<String, byte[]> get(ClassLoader cl, String name, String code) {
+		Path file = null;
+		try {
+			file = getFile(cl, name, code);
+			FileSystem fs = file.getFileSystem();
+			if (!fs.exists(file)) {
+				return null;
+			}
+			try (FSDataInputStream in = fs.open(file)) {
+				DataInputStream input = new DataInputStream(in);
+				if (input.readInt() != VERSION || !name.equals(input.readUTF())) {
+					return null;
+				}
+				int numClasses = input.readInt();
+				Map<String, byte[]> classFiles = new HashMap<>(numClasses);
+				for (int i = 0; i < numClasses; i++) {
+					String className = input.readUTF();
+					byte[] bytes = new byte[input.readInt()];
+					input.readFully(bytes);
+					classFiles.put(className, bytes);
+				}
+				return classFiles;
+			}
+		} catch (IOException e) {
+			LOG.warn("Failed to read the compiled class {} from {}.", name, file, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the class files of the given generated class to the cache, and deletes the oldest
+	 * files of the cache if it is too large.
+	 */
+	void put(ClassLoader cl, String name, String code, Map<String, byte[]> classFiles) {
+		Path file = null;
+		try {
+			file = getFile(cl, name, code);
+			Path tmpFile = new Path(directory, file.getName() + "." + UUID.randomUUID() + ".tmp");
+			FileSystem fs = file.getFileSystem();
+			try (FSDataOutputStream out = fs.create(tmpFile, FileSystem.WriteMode.NO_OVERWRITE)) {
+				DataOutputStream output = new DataOutputStream(out);
+				output.writeInt(VERSION);
+				output.writeUTF(name);
+				output.writeInt(classFiles.size());
+				for (Map.Entry<String, byte[]> entry : classFiles.entrySet()) {
+					output.writeUTF(entry.getKey());
+					output.writeInt(entry.getValue().length);
+					output.write(entry.getValue());
+				}
+				output.flush();
+			}
+			if (!fs.rename(tmpFile, file)) {
+				// the class has been written by another task in the meantime
+				fs.delete(tmpFile, false);
+			}
+			evict(fs);
+		} catch (IOException e) {
+			LOG.warn("Failed to write the compiled class {} to {}.", name, file, e);
+		}
+	}
+
+	/**
+	 * Deletes the oldest files of the cache until their total size does not exceed the maximum
+	 * size. Reading a file does not change its modification time, so this is not a LRU eviction.
+	 */
+	private void evict(FileSystem fs) throws IOException {
+		FileStatus[] statuses = fs.listStatus(directory);
+		if (statuses == null) {
+			return;
+		}
+		List<FileStatus> files = new ArrayList<>();
+		long size = 0;
+		for (FileStatus status : statuses) {
+			if (!status.isDir() && status.getPath().getName().endsWith(FILE_SUFFIX)) {
+				files.add(status);
+				size += status.getLen();
+			}
+		}
+		if (size <= maxSize) {
+			return;
+		}
+		files.sort(Comparator.comparingLong(FileStatus::getModificationTime));
+		for (FileStatus file : files) {
+			if (size <= maxSize) {
+				break;
+			}
+			// the file may have been deleted by another task in the meantime
+			fs.delete(file.getPath(), false);
+			size -= file.getLen();
+		}
+	}
+
+	private Path getFile(ClassLoader cl, String name, String code) throws IOException {
+		return new Path(directory, hash(hashClassPath(cl), name, code) + FILE_SUFFIX);
+	}
+
+	private static String hash(String classPathHash, String name, String code) {
+		MessageDigest digest = newDigest();
+		digest.update(EnvironmentInformation.getVersion().getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+		digest.update(String.valueOf(EnvironmentInformation.getRevisionInformation().commitId)
+			.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+		digest.update(classPathHash.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+		digest.update(name.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+		digest.update(code.getBytes(StandardCharsets.UTF_8));
+		return StringUtils.byteToHexString(digest.digest());
+	}
+
+	/**
+	 * Returns a hash of the contents of the user code class path of the given class loader, i.e.
+	 * the URLs of all {@link URLClassLoader}s between the given class loader and the class loader
+	 * of Flink. The classes of Flink are covered by the Flink version. The jar files are hashed by
+	 * their contents, as the jars of every job are stored in other files by the BlobServer. The
+	 * hash is computed once per class loader.
+	 */
+	private static String hashClassPath(ClassLoader cl) throws IOException {
+		try {
+			return CLASS_PATH_HASHES.get(cl, () -> {
+				Set<ClassLoader> flinkClassLoaders = Collections.newSetFromMap(new IdentityHashMap<>());
+				for (ClassLoader loader = CompiledCodeCache.class.getClassLoader(); loader != null;
+						loader = loader.getParent()) {
+					flinkClassLoaders.add(loader);
+				}
+				MessageDigest digest = newDigest();
+				for (ClassLoader loader = cl; loader != null && !flinkClassLoaders.contains(loader);
+						loader = loader.getParent()) {
+					if (loader instanceof URLClassLoader) {
+						for (URL url : ((URLClassLoader) loader).getURLs()) {
+							hashUrl(digest, url);
+						}
+					}
+				}
+				return StringUtils.byteToHexString(digest.digest());
+			});
+		} catch (ExecutionException e) {
+			throw new IOException("Failed to hash the class path of " + cl + ".", e.getCause());
+		}
+	}
+
+	private static void hashUrl(MessageDigest digest, URL url) throws IOException, URISyntaxException {
+		File file = "file".equals(url.getProtocol()) ? new File(url.toURI()) : null;
+		if (file != null && file.isFile()) {
+			byte[] buffer = new byte[64 * 1024];
+			try (InputStream in = Files.newInputStream(file.toPath())) {
+				int read;
+				while ((read = in.read(buffer)) != -1) {
+					digest.update(buffer, 0, read);
+				}
+			}
+		} else {
+			// the contents of directories are not hashed, stale classes compiled against them are
+			// detected when the cached classes are loaded, see ClassFileReferences
+			digest.update(url.toString().getBytes(StandardCharsets.UTF_8));
+		}
+		digest.update((byte) 0);
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not supported.", e);
+		}
+	}
+}
@@ -25,6 +25,7 @@ import org.apache.flink.streaming.api.operators.StreamOperator;
 import org.apache.flink.streaming.api.operators.StreamOperatorFactory;
 import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
 import org.apache.flink.streaming.runtime.tasks.StreamTask;
+import org.apache.flink.table.runtime.generated.CompileUtils;
 import org.apache.flink.table.runtime.generated.GeneratedClass;
 
 /**
@@ -43,6 +44,8 @@ public class CodeGenOperatorFactory<OUT> implements StreamOperatorFactory<OUT> {
 	@Override
 	public <T extends StreamOperator<OUT>> T createStreamOperator(StreamTask<?, ?> containingTask,
 			StreamConfig config, Output<StreamRecord<OUT>> output) {
+		CompileUtils.configureCompiledCodeCache(
+				containingTask.getEnvironment().getTaskManagerInfo().getConfiguration());
 		return (T) generatedClass.newInstance(containingTask.getUserCodeClassLoader(),
 				generatedClass.getReferences(), containingTask, config, output);
 	}
@@ -18,8 +18,13 @@
 
 package org.apache.flink.table.runtime.operators;
 
+import org.apache.flink.streaming.api.graph.StreamConfig;
 import org.apache.flink.streaming.api.operators.AbstractStreamOperator;
 import org.apache.flink.streaming.api.operators.ChainingStrategy;
+import org.apache.flink.streaming.api.operators.Output;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.runtime.tasks.StreamTask;
+import org.apache.flink.table.runtime.generated.CompileUtils;
 
 /**
  * Table operator to invoke close always.
@@ -32,6 +37,14 @@ public class TableStreamOperator<OUT> extends AbstractStreamOperator<OUT> {
 		setChainingStrategy(ChainingStrategy.ALWAYS);
 	}
 
+	@Override
+	public void setup(StreamTask<?, ?> containingTask, StreamConfig config, Output<StreamRecord<OUT>> output) {
+		super.setup(containingTask, config, output);
+		// the generated code of this operator is compiled on open
+		CompileUtils.configureCompiledCodeCache(
+				containingTask.getEnvironment().getTaskManagerInfo().getConfiguration());
+	}
+
 	@Override
 	public void close() throws Exception {
 		super.close();
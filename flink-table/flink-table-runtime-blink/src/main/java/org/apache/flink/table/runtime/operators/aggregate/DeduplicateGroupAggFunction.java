@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.aggregate;
+
+import org.apache.flink.api.common.state.MapState;
+import org.apache.flink.api.common.state.MapStateDescriptor;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.dataformat.JoinedRow;
+import org.apache.flink.table.runtime.dataview.PerKeyStateDataViewStore;
+import org.apache.flink.table.runtime.functions.KeyedProcessFunctionWithCleanupState;
+import org.apache.flink.table.runtime.generated.AggsHandleFunction;
+import org.apache.flink.table.runtime.generated.GeneratedAggsHandleFunction;
+import org.apache.flink.table.runtime.generated.GeneratedRecordEqualiser;
+import org.apache.flink.table.runtime.generated.RecordEqualiser;
+import org.apache.flink.table.runtime.keyselector.BaseRowKeySelector;
+import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.util.Collector;
+import org.apache.flink.util.Preconditions;
+
+import static org.apache.flink.table.dataformat.util.BaseRowUtil.ACCUMULATE_MSG;
+import static org.apache.flink.table.dataformat.util.BaseRowUtil.RETRACT_MSG;
+import static org.apache.flink.table.dataformat.util.BaseRowUtil.isAccumulateMsg;
+
+/**
+ * Aggregate Function used for the groupby (without window) aggregate on the last row of every
+ * unique key, i.e. a deduplication which keeps the last row followed by a group aggregate.
+ *
+ * <p>The group keys must be a subset of the unique keys, so that all rows of a unique key belong
+ * to the same group. The last row of every unique key is kept in a map state of the group, and an
+ * updated row is applied to the accumulators as the delta of retracting the previous row and
+ * accumulating the new one, with a single access of the accumulator state and a single update of
+ * the aggregate result. The deduplication does not emit a retraction and an insertion which are
+ * aggregated one after the other.
+ */
+public class DeduplicateGroupAggFunction extends KeyedProcessFunctionWithCleanupState<BaseRow, BaseRow, BaseRow> {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The code generated function used to handle aggregates.
+	 */
+	private final GeneratedAggsHandleFunction genAggsHandler;
+
+	/**
+	 * The code generated equaliser used to equal BaseRow.
+	 */
+	private final GeneratedRecordEqualiser genRecordEqualiser;
+
+	/**
+	 * The accumulator types.
+	 */
+	private final LogicalType[] accTypes;
+
+	/**
+	 * The type of the input rows, which are kept as the last rows.
+	 */
+	private final BaseRowTypeInfo inputRowType;
+
+	/**
+	 * Extracts the unique key of the deduplication from an input row.
+	 */
+	private final BaseRowKeySelector uniqueKeySelector;
+
+	/**
+	 * Whether this operator will generate retraction.
+	 */
+	private final boolean generateRetraction;
+
+	/**
+	 * Reused output row.
+	 */
+	private transient JoinedRow resultRow = null;
+
+	// function used to handle all aggregates
+	private transient AggsHandleFunction function = null;
+
+	// function used to equal BaseRow
+	private transient RecordEqualiser equaliser = null;
+
+	// stores the accumulators
+	private transient ValueState<BaseRow> accState = null;
+
+	// stores the last row of every unique key of the group
+	private transient MapState<BaseRow, BaseRow> lastRowState = null;
+
+	/**
+	 * Creates a {@link DeduplicateGroupAggFunction}.
+	 *
+	 * @param minRetentionTime minimal state idle retention time.
+	 * @param maxRetentionTime maximal state idle retention time.
+	 * @param genAggsHandler The code generated function used to handle aggregates, which must
+	 *                       support retraction.
+	 * @param genRecordEqualiser The code generated equaliser used to equal BaseRow.
+	 * @param accTypes The accumulator types.
+	 * @param inputRowType The input row type.
+	 * @param uniqueKeySelector The key selector of the unique keys of the deduplication.
+	 * @param generateRetraction Whether this operator will generate retraction.
+	 */
+	public DeduplicateGroupAggFunction(
+			long minRetentionTime,
+			long maxRetentionTime,
+			GeneratedAggsHandleFunction genAggsHandler,
+			GeneratedRecordEqualiser genRecordEqualiser,
+			LogicalType[] accTypes,
+			BaseRowTypeInfo inputRowType,
+			BaseRowKeySelector uniqueKeySelector,
+			boolean generateRetraction) {
+		super(minRetentionTime, maxRetentionTime);
+		this.genAggsHandler = genAggsHandler;
+		this.genRecordEqualiser = genRecordEqualiser;
+		this.accTypes = accTypes;
+		this.inputRowType = inputRowType;
+		this.uniqueKeySelector = uniqueKeySelector;
+		this.generateRetraction = generateRetraction;
+	}
+
+	@Override
+	public void open(Configuration parameters) throws Exception {
+		super.open(parameters);
+		// instantiate function
+		function = genAggsHandler.newInstance(getRuntimeContext().getUserCodeClassLoader());
+		function.open(new PerKeyStateDataViewStore(getRuntimeContext()));
+		// instantiate equaliser
+		equaliser = genRecordEqualiser.newInstance(getRuntimeContext().getUserCodeClassLoader());
+
+		BaseRowTypeInfo accTypeInfo = new BaseRowTypeInfo(accTypes);
+		ValueStateDescriptor<BaseRow> accDesc = new ValueStateDescriptor<>("accState", accTypeInfo);
+		accState = getRuntimeContext().getState(accDesc);
+
+		MapStateDescriptor<BaseRow, BaseRow> lastRowDesc = new MapStateDescriptor<>(
+			"lastRowState", uniqueKeySelector.getProducedType(), inputRowType);
+		lastRowState = getRuntimeContext().getMapState(lastRowDesc);
+
+		initCleanupTimeState("DeduplicateGroupAggregateCleanupTime");
+
+		resultRow = new JoinedRow();
+	}
+
+	@Override
+	public void processElement(BaseRow input, Context ctx, Collector<BaseRow> out) throws Exception {
+		// the input of the deduplication is append-only
+		Preconditions.checkArgument(isAccumulateMsg(input));
+
+		long currentTime = ctx.timerService().currentProcessingTime();
+		// register state-cleanup timer
+		registerProcessingCleanupTimer(ctx, currentTime);
+
+		BaseRow currentKey = ctx.getCurrentKey();
+
+		BaseRow uniqueKey = uniqueKeySelector.getKey(input);
+		BaseRow prevRow = lastRowState.get(uniqueKey);
+		lastRowState.put(uniqueKey, input);
+
+		boolean firstRow;
+		BaseRow accumulators = accState.value();
+		if (null == accumulators) {
+			firstRow = true;
+			accumulators = function.createAccumulators();
+		} else {
+			firstRow = false;
+		}
+
+		// set accumulators to handler first
+		function.setAccumulators(accumulators);
+		// get previous aggregate result
+		BaseRow prevAggValue = function.getValue();
+
+		// apply the delta between the previous and the new row of the unique key
+		if (prevRow != null) {
+			function.retract(prevRow);
+		}
+		function.accumulate(input);
+
+		// get current aggregate result
+		BaseRow newAggValue = function.getValue();
+
+		// a group never becomes empty, every retracted row is replaced by a new one
+		accumulators = function.getAccumulators();
+		accState.update(accumulators);
+
+		// if this was not the first row and we have to emit retractions
+		if (!firstRow) {
+			if (!stateCleaningEnabled && equaliser.equalsWithoutHeader(prevAggValue, newAggValue)) {
+				// newRow is the same as before and state cleaning is not enabled.
+				// We do not emit retraction and acc message.
+				// If state cleaning is enabled, we have to emit messages to prevent too early
+				// state eviction of downstream operators.
+				return;
+			} else {
+				// retract previous result
+				if (generateRetraction) {
+					// prepare retraction message for previous row
+					resultRow.replace(currentKey, prevAggValue).setHeader(RETRACT_MSG);
+					out.collect(resultRow);
+				}
+			}
+		}
+		// emit the new result
+		resultRow.replace(currentKey, newAggValue).setHeader(ACCUMULATE_MSG);
+		out.collect(resultRow);
+	}
+
+	@Override
+	public void onTimer(long timestamp, OnTimerContext ctx, Collector<BaseRow> out) throws Exception {
+		if (stateCleaningEnabled) {
+			cleanupState(accState, lastRowState);
+			function.cleanup();
+		}
+	}
+
+	@Override
+	public void close() throws Exception {
+		if (function != null) {
+			function.close();
+		}
+	}
+}
@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.aggregate;
+
+import org.apache.flink.api.common.state.MapState;
+import org.apache.flink.api.common.state.MapStateDescriptor;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.dataformat.JoinedRow;
+import org.apache.flink.table.runtime.context.ExecutionContext;
+import org.apache.flink.table.runtime.dataview.PerKeyStateDataViewStore;
+import org.apache.flink.table.runtime.generated.AggsHandleFunction;
+import org.apache.flink.table.runtime.generated.GeneratedAggsHandleFunction;
+import org.apache.flink.table.runtime.generated.GeneratedRecordEqualiser;
+import org.apache.flink.table.runtime.generated.RecordEqualiser;
+import org.apache.flink.table.runtime.keyselector.BaseRowKeySelector;
+import org.apache.flink.table.runtime.operators.bundle.MapBundleFunction;
+import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.util.Collector;
+import org.apache.flink.util.Preconditions;
+
+import javax.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.apache.flink.table.dataformat.util.BaseRowUtil.ACCUMULATE_MSG;
+import static org.apache.flink.table.dataformat.util.BaseRowUtil.RETRACT_MSG;
+import static org.apache.flink.table.dataformat.util.BaseRowUtil.isAccumulateMsg;
+
+/**
+ * Aggregate Function used for the groupby (without window) aggregate on the last row of every
+ * unique key in miniBatch mode, see {@link DeduplicateGroupAggFunction}.
+ *
+ * <p>This function buffers only the last input row of every unique key of a group in heap
+ * HashMap, and applies them to the accumulators when minibatch invoked.
+ */
+public class MiniBatchDeduplicateGroupAggFunction
+		extends MapBundleFunction<BaseRow, Map<BaseRow, BaseRow>, BaseRow, BaseRow> {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The code generated function used to handle aggregates.
+	 */
+	private final GeneratedAggsHandleFunction genAggsHandler;
+
+	/**
+	 * The code generated equaliser used to equal BaseRow.
+	 */
+	private final GeneratedRecordEqualiser genRecordEqualiser;
+
+	/**
+	 * The accumulator types.
+	 */
+	private final LogicalType[] accTypes;
+
+	/**
+	 * The type of the input rows, which are kept as the last rows.
+	 */
+	private final BaseRowTypeInfo inputRowType;
+
+	/**
+	 * Extracts the unique key of the deduplication from an input row.
+	 */
+	private final BaseRowKeySelector uniqueKeySelector;
+
+	/**
+	 * Serializer used to deep copy input row.
+	 */
+	private final TypeSerializer<BaseRow> inputRowSerializer;
+
+	/**
+	 * Whether this operator will generate retraction.
+	 */
+	private final boolean generateRetraction;
+
+	/**
+	 * Reused output row.
+	 */
+	private transient JoinedRow resultRow = new JoinedRow();
+
+	// function used to handle all aggregates
+	private transient AggsHandleFunction function = null;
+
+	// function used to equal BaseRow
+	private transient RecordEqualiser equaliser = null;
+
+	// stores the accumulators
+	private transient ValueState<BaseRow> accState = null;
+
+	// stores the last row of every unique key of the group
+	private transient MapState<BaseRow, BaseRow> lastRowState = null;
+
+	/**
+	 * Creates a {@link MiniBatchDeduplicateGroupAggFunction}.
+	 *
+	 * @param genAggsHandler The code generated function used to handle aggregates, which must
+	 *                       support retraction.
+	 * @param genRecordEqualiser The code generated equaliser used to equal BaseRow.
+	 * @param accTypes The accumulator types.
+	 * @param inputRowType The input row type.
+	 * @param uniqueKeySelector The key selector of the unique keys of the deduplication.
+	 * @param inputRowSerializer The serializer used to deep copy input row.
+	 * @param generateRetraction Whether this operator will generate retraction.
+	 */
+	public MiniBatchDeduplicateGroupAggFunction(
+			GeneratedAggsHandleFunction genAggsHandler,
+			GeneratedRecordEqualiser genRecordEqualiser,
+			LogicalType[] accTypes,
+			BaseRowTypeInfo inputRowType,
+			BaseRowKeySelector uniqueKeySelector,
+			TypeSerializer<BaseRow> inputRowSerializer,
+			boolean generateRetraction) {
+		this.genAggsHandler = genAggsHandler;
+		this.genRecordEqualiser = genRecordEqualiser;
+		this.accTypes = accTypes;
+		this.inputRowType = inputRowType;
+		this.uniqueKeySelector = uniqueKeySelector;
+		this.inputRowSerializer = inputRowSerializer;
+		this.generateRetraction = generateRetraction;
+	}
+
+	@Override
+	public void open(ExecutionContext ctx) throws Exception {
+		super.open(ctx);
+		// instantiate function
+		function = genAggsHandler.newInstance(ctx.getRuntimeContext().getUserCodeClassLoader());
+		function.open(new PerKeyStateDataViewStore(ctx.getRuntimeContext()));
+		// instantiate equaliser
+		equaliser = genRecordEqualiser.newInstance(ctx.getRuntimeContext().getUserCodeClassLoader());
+
+		BaseRowTypeInfo accTypeInfo = new BaseRowTypeInfo(accTypes);
+		ValueStateDescriptor<BaseRow> accDesc = new ValueStateDescriptor<>("accState", accTypeInfo);
+		accState = ctx.getRuntimeContext().getState(accDesc);
+
+		MapStateDescriptor<BaseRow, BaseRow> lastRowDesc = new MapStateDescriptor<>(
+			"lastRowState", uniqueKeySelector.getProducedType(), inputRowType);
+		lastRowState = ctx.getRuntimeContext().getMapState(lastRowDesc);
+
+		resultRow = new JoinedRow();
+	}
+
+	@Override
+	public Map<BaseRow, BaseRow> addInput(@Nullable Map<BaseRow, BaseRow> value, BaseRow input) throws Exception {
+		// the input of the deduplication is append-only
+		Preconditions.checkArgument(isAccumulateMsg(input));
+		Map<BaseRow, BaseRow> lastRows = value;
+		if (value == null) {
+			lastRows = new HashMap<>();
+		}
+		// only the last row of a unique key is kept, the input row maybe reused, we need deep copy here
+		lastRows.put(uniqueKeySelector.getKey(input), inputRowSerializer.copy(input));
+		return lastRows;
+	}
+
+	@Override
+	public void finishBundle(Map<BaseRow, Map<BaseRow, BaseRow>> buffer, Collector<BaseRow> out) throws Exception {
+		for (Map.Entry<BaseRow, Map<BaseRow, BaseRow>> entry : buffer.entrySet()) {
+			BaseRow currentKey = entry.getKey();
+			Map<BaseRow, BaseRow> lastRows = entry.getValue();
+
+			boolean firstRow = false;
+
+			// step 1: get the accumulator for the current key
+
+			// set current key to access state under the key
+			ctx.setCurrentKey(currentKey);
+			BaseRow acc = accState.value();
+			if (acc == null) {
+				acc = function.createAccumulators();
+				firstRow = true;
+			}
+
+			// step 2: apply the delta between the previous and the new row of every unique key
+			function.setAccumulators(acc);
+
+			// get previous aggregate result
+			BaseRow prevAggValue = function.getValue();
+
+			for (Map.Entry<BaseRow, BaseRow> lastRow : lastRows.entrySet()) {
+				BaseRow prevRow = lastRowState.get(lastRow.getKey());
+				if (prevRow != null) {
+					function.retract(prevRow);
+				}
+				function.accumulate(lastRow.getValue());
+			}
+			lastRowState.putAll(lastRows);
+
+			// get current aggregate result
+			BaseRow newAggValue = function.getValue();
+
+			// get updated accumulator, a group never becomes empty
+			acc = function.getAccumulators();
+
+			// update acc to state
+			accState.update(acc);
+
+			// if this was not the first row and we have to emit retractions
+			if (!firstRow) {
+				if (!equaliser.equalsWithoutHeader(prevAggValue, newAggValue)) {
+					// new row is not same with prev row
+					if (generateRetraction) {
+						// prepare retraction message for previous row
+						resultRow.replace(currentKey, prevAggValue).setHeader(RETRACT_MSG);
+						out.collect(resultRow);
+					}
+					// prepare accumulation message for new row
+					resultRow.replace(currentKey, newAggValue).setHeader(ACCUMULATE_MSG);
+					out.collect(resultRow);
+				}
+				// new row is same with prev row, no need to output
+			} else {
+				// this is the first, output new result
+
+				// prepare accumulation message for new row
+				resultRow.replace(currentKey, newAggValue).setHeader(ACCUMULATE_MSG);
+				out.collect(resultRow);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws Exception {
+		if (function != null) {
+			function.close();
+		}
+	}
+}
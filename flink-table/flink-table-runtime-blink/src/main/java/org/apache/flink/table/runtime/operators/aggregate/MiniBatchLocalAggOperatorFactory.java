@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.aggregate;
+
+import org.apache.flink.streaming.api.graph.StreamConfig;
+import org.apache.flink.streaming.api.operators.AbstractStreamOperator;
+import org.apache.flink.streaming.api.operators.ChainingStrategy;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperatorFactory;
+import org.apache.flink.streaming.api.operators.Output;
+import org.apache.flink.streaming.api.operators.StreamOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.runtime.tasks.StreamTask;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.runtime.operators.bundle.MapBundleOperator;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Stream operator factory for the local groupby (without window) aggregate in miniBatch mode,
+ * which chooses between the {@link MiniBatchLocalHashAggOperator} and the heap based
+ * {@link MapBundleOperator} when the operator is set up.
+ *
+ * <p>The {@link MiniBatchLocalHashAggOperator} buffers the accumulators in managed memory. A state
+ * backend which uses the managed memory of the slot, like the RocksDB state backend by default,
+ * reserves all of it, so the {@link MapBundleOperator} is used instead. The state backend is only
+ * known in the task, as it may be configured by the application or by the cluster.
+ */
+public class MiniBatchLocalAggOperatorFactory implements OneInputStreamOperatorFactory<BaseRow, BaseRow> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final MiniBatchLocalHashAggOperator hashAggOperator;
+
+	private final MapBundleOperator<BaseRow, BaseRow, BaseRow, BaseRow> bundleOperator;
+
+	private ChainingStrategy strategy = ChainingStrategy.ALWAYS;
+
+	public MiniBatchLocalAggOperatorFactory(
+			MiniBatchLocalHashAggOperator hashAggOperator,
+			MapBundleOperator<BaseRow, BaseRow, BaseRow, BaseRow> bundleOperator) {
+		this.hashAggOperator = checkNotNull(hashAggOperator);
+		this.bundleOperator = checkNotNull(bundleOperator);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T extends StreamOperator<BaseRow>> T createStreamOperator(
+			StreamTask<?, ?> containingTask,
+			StreamConfig config,
+			Output<StreamRecord<BaseRow>> output) {
+		AbstractStreamOperator<BaseRow> operator;
+		if (containingTask.getStateBackend().useManagedMemory()) {
+			operator = bundleOperator;
+		} else {
+			operator = hashAggOperator;
+		}
+		operator.setChainingStrategy(strategy);
+		operator.setup(containingTask, config, output);
+		return (T) operator;
+	}
+
+	@Override
+	public void setChainingStrategy(ChainingStrategy strategy) {
+		this.strategy = strategy;
+	}
+
+	@Override
+	public ChainingStrategy getChainingStrategy() {
+		return strategy;
+	}
+
+	@Override
+	public Class<? extends StreamOperator> getStreamOperatorClass(ClassLoader classLoader) {
+		return MiniBatchLocalHashAggOperator.class;
+	}
+}
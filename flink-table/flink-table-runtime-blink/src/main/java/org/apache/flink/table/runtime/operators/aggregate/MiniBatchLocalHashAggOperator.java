@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.aggregate;
+
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.dataformat.BinaryRow;
+import org.apache.flink.table.dataformat.JoinedRow;
+import org.apache.flink.table.runtime.dataview.PerKeyStateDataViewStore;
+import org.apache.flink.table.runtime.generated.AggsHandleFunction;
+import org.apache.flink.table.runtime.generated.GeneratedAggsHandleFunction;
+import org.apache.flink.table.runtime.keyselector.BaseRowKeySelector;
+import org.apache.flink.table.runtime.operators.TableStreamOperator;
+import org.apache.flink.table.runtime.typeutils.BaseRowSerializer;
+import org.apache.flink.table.runtime.util.SegmentsUtil;
+import org.apache.flink.table.runtime.util.StreamRecordCollector;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.util.Collector;
+import org.apache.flink.util.MutableObjectIterator;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+import static org.apache.flink.table.dataformat.util.BaseRowUtil.isAccumulateMsg;
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Operator for the local groupby (without window) aggregate in miniBatch mode, which buffers the
+ * accumulators in a {@link BytesHashMap} in managed memory instead of a heap map.
+ *
+ * <p>The accumulators must be of fixed-length types, so that they can be updated in place. The
+ * bundle is finished when the map is out of memory, on every watermark, before a checkpoint
+ * barrier and on close. Compared to {@link MiniBatchLocalGroupAggFunction}, the size of the bundle
+ * is bounded by memory instead of by the number of records, and the buffered groups do not create
+ * any objects on the heap.
+ *
+ * <p>NOTE: A state backend which uses managed memory, like the RocksDB state backend by default,
+ * reserves all managed memory of a slot, so this operator must not be used together with it. See
+ * {@link MiniBatchLocalAggOperatorFactory}.
+ *
+ * <p>NOTE: The emitted rows point into the memory of the map, which is reused by the next bundle.
+ * The operator is always followed by a shuffle, which serializes the rows.
+ */
+public class MiniBatchLocalHashAggOperator extends TableStreamOperator<BaseRow>
+		implements OneInputStreamOperator<BaseRow, BaseRow> {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The code generated function used to handle aggregates. */
+	private final GeneratedAggsHandleFunction genAggsHandler;
+
+	/** Extracts the group key from an input row. */
+	private final BaseRowKeySelector keySelector;
+
+	private final LogicalType[] keyTypes;
+
+	private final LogicalType[] accTypes;
+
+	// function used to handle all aggregates
+	private transient AggsHandleFunction function;
+
+	/** The buffered accumulators by group key. */
+	private transient BytesHashMap aggregateMap;
+
+	/** Serializes the accumulators of the function to binary rows. */
+	private transient BaseRowSerializer accSerializer;
+
+	/** Reused buffer to copy the new accumulators over the old ones. */
+	private transient byte[] accBuffer;
+
+	private transient Collector<BaseRow> collector;
+
+	private transient BytesHashMap.Entry reuseEntry;
+	private transient JoinedRow resultRow;
+
+	public MiniBatchLocalHashAggOperator(
+			GeneratedAggsHandleFunction genAggsHandler,
+			BaseRowKeySelector keySelector,
+			LogicalType[] keyTypes,
+			LogicalType[] accTypes) {
+		checkArgument(keyTypes.length > 0, "The hash aggregate requires group keys.");
+		for (LogicalType accType : accTypes) {
+			checkArgument(BinaryRow.isInFixedLengthPart(accType),
+				"The accumulators of the hash aggregate must be of fixed-length types, but is: " + accType);
+		}
+		this.genAggsHandler = checkNotNull(genAggsHandler);
+		this.keySelector = checkNotNull(keySelector);
+		this.keyTypes = keyTypes;
+		this.accTypes = accTypes;
+	}
+
+	@Override
+	public void open() throws Exception {
+		super.open();
+		function = genAggsHandler.newInstance(getRuntimeContext().getUserCodeClassLoader());
+		function.open(new PerKeyStateDataViewStore(getRuntimeContext()));
+
+		aggregateMap = new BytesHashMap(
+			getContainingTask(),
+			getContainingTask().getEnvironment().getMemoryManager(),
+			computeMemorySize(),
+			keyTypes,
+			accTypes);
+		accSerializer = new BaseRowSerializer(getExecutionConfig(), accTypes);
+		accBuffer = new byte[BinaryRow.calculateFixPartSizeInBytes(accTypes.length)];
+
+		collector = new StreamRecordCollector<>(output);
+		reuseEntry = new BytesHashMap.Entry(new BinaryRow(keyTypes.length), new BinaryRow(accTypes.length));
+		resultRow = new JoinedRow();
+
+		getRuntimeContext().getMetricGroup().gauge(
+			"bundleSize", (Gauge<Long>) () -> aggregateMap.getNumElements());
+		getRuntimeContext().getMetricGroup().gauge(
+			"bundleMemoryInBytes", (Gauge<Long>) () -> aggregateMap.getUsedMemoryInBytes());
+	}
+
+	@Override
+	public void processElement(StreamRecord<BaseRow> element) throws Exception {
+		BaseRow input = element.getValue();
+		BinaryRow key = (BinaryRow) keySelector.getKey(input);
+
+		BytesHashMap.LookupInfo lookupInfo = aggregateMap.lookup(key);
+		if (lookupInfo.isFound()) {
+			BinaryRow currentAcc = lookupInfo.getValue();
+			function.setAccumulators(currentAcc);
+			aggregate(input);
+			// the accumulators are of fixed-length, so the new ones are written over the old ones
+			BinaryRow newAcc = accSerializer.toBinaryRow(function.getAccumulators());
+			int sizeInBytes = newAcc.getSizeInBytes();
+			SegmentsUtil.copyToBytes(newAcc.getSegments(), newAcc.getOffset(), accBuffer, 0, sizeInBytes);
+			SegmentsUtil.copyFromBytes(currentAcc.getSegments(), currentAcc.getOffset(), accBuffer, 0, sizeInBytes);
+		} else {
+			function.setAccumulators(function.createAccumulators());
+			aggregate(input);
+			BinaryRow newAcc = accSerializer.toBinaryRow(function.getAccumulators());
+			try {
+				aggregateMap.append(lookupInfo, newAcc);
+			} catch (EOFException e) {
+				// the map is full, emit the bundle and retry with the empty map
+				finishBundle();
+				lookupInfo = aggregateMap.lookup(key);
+				try {
+					aggregateMap.append(lookupInfo, newAcc);
+				} catch (EOFException e1) {
+					throw new IOException("The managed memory of the local aggregate can not hold a single group.", e1);
+				}
+			}
+		}
+	}
+
+	private void aggregate(BaseRow input) throws Exception {
+		if (isAccumulateMsg(input)) {
+			function.accumulate(input);
+		} else {
+			function.retract(input);
+		}
+	}
+
+	private void finishBundle() throws Exception {
+		if (aggregateMap.getNumElements() > 0) {
+			MutableObjectIterator<BytesHashMap.Entry> iterator = aggregateMap.getEntryIterator();
+			while (iterator.next(reuseEntry) != null) {
+				resultRow.replace(reuseEntry.getKey(), reuseEntry.getValue());
+				collector.collect(resultRow);
+			}
+			aggregateMap.reset();
+		}
+	}
+
+	@Override
+	public void processWatermark(Watermark mark) throws Exception {
+		finishBundle();
+		super.processWatermark(mark);
+	}
+
+	@Override
+	public void prepareSnapshotPreBarrier(long checkpointId) throws Exception {
+		finishBundle();
+	}
+
+	@Override
+	public void close() throws Exception {
+		try {
+			if (aggregateMap != null) {
+				finishBundle();
+			}
+		} finally {
+			super.close();
+			if (function != null) {
+				function.close();
+			}
+			if (aggregateMap != null) {
+				aggregateMap.free();
+			}
+		}
+	}
+}
@@ -59,6 +59,8 @@ public class AsyncLookupJoinRunner extends RichAsyncFunction<BaseRow, BaseRow> {
 	private final int asyncBufferCapacity;
 	private final TypeInformation<?> fetcherReturnType;
 	private final BaseRowTypeInfo rightRowTypeInfo;
+	@Nullable
+	private final LookupCache cache;
 
 	private transient AsyncFunction<BaseRow, Object> fetcher;
 
@@ -82,12 +84,25 @@ public class AsyncLookupJoinRunner extends RichAsyncFunction<BaseRow, BaseRow> {
 			BaseRowTypeInfo rightRowTypeInfo,
 			boolean isLeftOuterJoin,
 			int asyncBufferCapacity) {
+		this(generatedFetcher, generatedResultFuture, fetcherReturnType, rightRowTypeInfo,
+			isLeftOuterJoin, asyncBufferCapacity, null);
+	}
+
+	public AsyncLookupJoinRunner(
+			GeneratedFunction<AsyncFunction<BaseRow, Object>> generatedFetcher,
+			GeneratedResultFuture<TableFunctionResultFuture<BaseRow>> generatedResultFuture,
+			TypeInformation<?> fetcherReturnType,
+			BaseRowTypeInfo rightRowTypeInfo,
+			boolean isLeftOuterJoin,
+			int asyncBufferCapacity,
+			@Nullable LookupCache cache) {
 		this.generatedFetcher = generatedFetcher;
 		this.generatedResultFuture = generatedResultFuture;
 		this.isLeftOuterJoin = isLeftOuterJoin;
 		this.asyncBufferCapacity = asyncBufferCapacity;
 		this.fetcherReturnType = fetcherReturnType;
 		this.rightRowTypeInfo = rightRowTypeInfo;
+		this.cache = cache;
 	}
 
 	@Override
@@ -112,6 +127,10 @@ public class AsyncLookupJoinRunner extends RichAsyncFunction<BaseRow, BaseRow> {
 				"currently fetcherReturnType can only be BaseRowTypeInfo or RowTypeInfo");
 		}
 
+		if (cache != null) {
+			cache.open(getRuntimeContext());
+		}
+
 		// asyncBufferCapacity + 1 as the queue size in order to avoid
 		// blocking on the queue when taking a collector.
 		this.resultFutureBuffer = new ArrayBlockingQueue<>(asyncBufferCapacity + 1);
@@ -121,6 +140,7 @@ public class AsyncLookupJoinRunner extends RichAsyncFunction<BaseRow, BaseRow> {
 				resultFutureBuffer,
 				createFetcherResultFuture(parameters),
 				rowConverter,
+				cache,
 				isLeftOuterJoin,
 				rightRowTypeInfo.getArity());
 			// add will throw exception immediately if the queue is full which should never happen
@@ -132,11 +152,24 @@ public class AsyncLookupJoinRunner extends RichAsyncFunction<BaseRow, BaseRow> {
 	@Override
 	public void asyncInvoke(BaseRow input, ResultFuture<BaseRow> resultFuture) throws Exception {
 		JoinedRowResultFuture outResultFuture = resultFutureBuffer.take();
-		// the input row is copied when object reuse in AsyncWaitOperator
-		outResultFuture.reset(input, resultFuture);
 
-		// fetcher has copied the input field when object reuse is enabled
-		fetcher.asyncInvoke(input, outResultFuture);
+		if (cache == null) {
+			// the input row is copied when object reuse in AsyncWaitOperator
+			outResultFuture.reset(input, resultFuture, null);
+
+			// fetcher has copied the input field when object reuse is enabled
+			fetcher.asyncInvoke(input, outResultFuture);
+		} else {
+			BaseRow key = cache.getKey(input);
+			List<BaseRow> cachedRows = cache.getIfPresent(key);
+			if (cachedRows != null) {
+				outResultFuture.reset(input, resultFuture, null);
+				outResultFuture.completeWithLookupRows(cachedRows);
+			} else {
+				outResultFuture.reset(input, resultFuture, key);
+				fetcher.asyncInvoke(input, outResultFuture);
+			}
+		}
 	}
 
 	public TableFunctionResultFuture<BaseRow> createFetcherResultFuture(Configuration parameters) throws Exception {
@@ -156,6 +189,9 @@ public class AsyncLookupJoinRunner extends RichAsyncFunction<BaseRow, BaseRow> {
 		for (JoinedRowResultFuture rf : allResultFutures) {
 			rf.close();
 		}
+		if (cache != null) {
+			cache.close();
+		}
 	}
 
 	/**
@@ -165,7 +201,8 @@ public class AsyncLookupJoinRunner extends RichAsyncFunction<BaseRow, BaseRow> {
 	 * <p>There are 3 phases in this collector.
 	 *
 	 * <ol>
-	 *     <li>accept lookup function return result and convert it into BaseRow, call it right result</li>
+	 *     <li>accept lookup function return result and convert it into BaseRow, call it right result,
+	 *     and put it into the {@link LookupCache} if there is one</li>
 	 *     <li>project & filter the right result if there is a calc on the temporal table,
 	 *     see {@link AsyncLookupJoinWithCalcRunner#createFetcherResultFuture(Configuration)}</li>
 	 *     <li>filter the result if a join condition exist,
@@ -180,6 +217,7 @@ public class AsyncLookupJoinRunner extends RichAsyncFunction<BaseRow, BaseRow> {
 		private final BlockingQueue<JoinedRowResultFuture> resultFutureBuffer;
 		private final TableFunctionResultFuture<BaseRow> joinConditionResultFuture;
 		private final RowConverter rowConverter;
+		private final LookupCache cache;
 		private final boolean isLeftOuterJoin;
 
 		private final DelegateResultFuture delegate;
@@ -187,24 +225,32 @@ public class AsyncLookupJoinRunner extends RichAsyncFunction<BaseRow, BaseRow> {
 
 		private BaseRow leftRow;
 		private ResultFuture<BaseRow> realOutput;
+		private BaseRow cacheKey;
 
 		private JoinedRowResultFuture(
 				BlockingQueue<JoinedRowResultFuture> resultFutureBuffer,
 				TableFunctionResultFuture<BaseRow> joinConditionResultFuture,
 				@Nullable RowConverter rowConverter,
+				@Nullable LookupCache cache,
 				boolean isLeftOuterJoin,
 				int rightArity) {
 			this.resultFutureBuffer = resultFutureBuffer;
 			this.joinConditionResultFuture = joinConditionResultFuture;
 			this.rowConverter = rowConverter;
+			this.cache = cache;
 			this.isLeftOuterJoin = isLeftOuterJoin;
 			this.delegate = new DelegateResultFuture();
 			this.nullRow = new GenericRow(rightArity);
 		}
 
-		public void reset(BaseRow row, ResultFuture<BaseRow> realOutput) {
+		/**
+		 * Prepares this future for the given left row. The result of the lookup function is cached
+		 * under the given key, unless it is null.
+		 */
+		public void reset(BaseRow row, ResultFuture<BaseRow> realOutput, @Nullable BaseRow cacheKey) {
 			this.realOutput = realOutput;
 			this.leftRow = row;
+			this.cacheKey = cacheKey;
 			joinConditionResultFuture.setInput(row);
 			joinConditionResultFuture.setResultFuture(delegate);
 			delegate.reset();
@@ -225,6 +271,24 @@ public class AsyncLookupJoinRunner extends RichAsyncFunction<BaseRow, BaseRow> {
 				}
 			}
 
+			if (cacheKey != null) {
+				List<BaseRow> cachedRows = new ArrayList<>();
+				if (baseRows != null) {
+					for (BaseRow baseRow : baseRows) {
+						cachedRows.add(cache.copyLookupRow(baseRow));
+					}
+				}
+				cache.put(cacheKey, cachedRows);
+			}
+
+			completeWithLookupRows(baseRows);
+		}
+
+		/**
+		 * Completes this future with the right result, which is either returned by the lookup
+		 * function or taken from the {@link LookupCache}.
+		 */
+		public void completeWithLookupRows(Collection<BaseRow> baseRows) {
 			// call condition collector first,
 			// the filtered result will be routed to the delegateCollector
 			try {
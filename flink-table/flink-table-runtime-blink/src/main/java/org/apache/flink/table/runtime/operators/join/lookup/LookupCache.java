@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.lookup;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.functions.RuntimeContext;
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.runtime.keyselector.BaseRowKeySelector;
+import org.apache.flink.table.runtime.typeutils.BaseRowSerializer;
+import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo;
+
+import org.apache.flink.shaded.guava18.com.google.common.cache.Cache;
+import org.apache.flink.shaded.guava18.com.google.common.cache.CacheBuilder;
+
+import javax.annotation.Nullable;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * A cache of the rows that a lookup function returns for the lookup keys of the probe rows,
+ * independent of the connector of the dimension table. It is used by the {@link LookupJoinRunner}
+ * and the {@link AsyncLookupJoinRunner}.
+ *
+ * <p>The cache holds at most {@code maxRows} keys, and an entry expires {@code ttlMillis} after it
+ * was written. If {@code cacheMissingKey} is set, the cache also holds the keys for which the lookup
+ * function returned no rows.
+ *
+ * <p>The cached rows are copies of the rows of the lookup function, so that the function may
+ * reuse its rows. This class is thread-safe after {@link #open(RuntimeContext)}, because the
+ * async lookup functions complete on their own threads.
+ */
+public class LookupCache implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final BaseRowKeySelector keySelector;
+	private final BaseRowTypeInfo lookupRowTypeInfo;
+	private final long maxRows;
+	private final long ttlMillis;
+	private final boolean cacheMissingKey;
+
+	private transient Cache<BaseRow, List<BaseRow>> cache;
+	private transient BaseRowSerializer lookupRowSerializer;
+	private transient Counter hitCounter;
+	private transient Counter missCounter;
+
+	/**
+	 * Creates a lookup cache.
+	 *
+	 * @param keySelector extracts the lookup key from a probe row
+	 * @param lookupRowTypeInfo the type of the rows that the lookup function returns
+	 * @param maxRows the maximum number of cached keys
+	 * @param ttlMillis the time after which an entry expires, in milliseconds
+	 * @param cacheMissingKey whether to cache the keys for which no rows were found
+	 */
+	public LookupCache(
+			BaseRowKeySelector keySelector,
+			BaseRowTypeInfo lookupRowTypeInfo,
+			long maxRows,
+			long ttlMillis,
+			boolean cacheMissingKey) {
+		checkArgument(maxRows > 0, "The maximum number of cached rows must be positive.");
+		checkArgument(ttlMillis > 0, "The time-to-live of the cached rows must be positive.");
+		this.keySelector = checkNotNull(keySelector);
+		this.lookupRowTypeInfo = checkNotNull(lookupRowTypeInfo);
+		this.maxRows = maxRows;
+		this.ttlMillis = ttlMillis;
+		this.cacheMissingKey = cacheMissingKey;
+	}
+
+	public void open(RuntimeContext context) {
+		this.cache = CacheBuilder.newBuilder()
+			.expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+			.maximumSize(maxRows)
+			.build();
+		this.lookupRowSerializer = lookupRowTypeInfo.createSerializer(new ExecutionConfig());
+
+		MetricGroup metricGroup = context.getMetricGroup().addGroup("lookupCache");
+		this.hitCounter = metricGroup.counter("hits");
+		this.missCounter = metricGroup.counter("misses");
+		metricGroup.gauge("size", (Gauge<Long>) () -> cache == null ? 0L : cache.size());
+	}
+
+	/**
+	 * Returns the lookup key of the given probe row. The key does not share memory with the row.
+	 */
+	public BaseRow getKey(BaseRow probeRow) throws Exception {
+		return keySelector.getKey(probeRow);
+	}
+
+	/**
+	 * Returns the cached rows of the given lookup key, or null if the key is not cached.
+	 */
+	@Nullable
+	public List<BaseRow> getIfPresent(BaseRow key) {
+		List<BaseRow> rows = cache.getIfPresent(key);
+		if (rows == null) {
+			missCounter.inc();
+		} else {
+			hitCounter.inc();
+		}
+		return rows;
+	}
+
+	/**
+	 * Returns a copy of a row that the lookup function returned, which can be put into the cache.
+	 */
+	public BaseRow copyLookupRow(BaseRow row) {
+		// the field serializers are not thread-safe
+		synchronized (lookupRowSerializer) {
+			return lookupRowSerializer.copy(row);
+		}
+	}
+
+	/**
+	 * Caches the rows that the lookup function returned for the given lookup key. The rows must
+	 * be copies obtained from {@link #copyLookupRow(BaseRow)}.
+	 */
+	public void put(BaseRow key, List<BaseRow> rows) {
+		if (!rows.isEmpty()) {
+			cache.put(key, rows);
+		} else if (cacheMissingKey) {
+			cache.put(key, Collections.emptyList());
+		}
+	}
+
+	public void close() {
+		if (cache != null) {
+			cache.invalidateAll();
+			cache.cleanUp();
+			cache = null;
+		}
+	}
+}
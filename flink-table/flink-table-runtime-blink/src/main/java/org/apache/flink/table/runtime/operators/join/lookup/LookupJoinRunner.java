@@ -30,6 +30,11 @@ import org.apache.flink.table.runtime.generated.GeneratedCollector;
 import org.apache.flink.table.runtime.generated.GeneratedFunction;
 import org.apache.flink.util.Collector;
 
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * The join runner to lookup the dimension table.
  */
@@ -40,21 +45,34 @@ public class LookupJoinRunner extends ProcessFunction<BaseRow, BaseRow> {
 	private final GeneratedCollector<TableFunctionCollector<BaseRow>> generatedCollector;
 	private final boolean isLeftOuterJoin;
 	private final int tableFieldsCount;
+	@Nullable
+	private final LookupCache cache;
 
 	private transient FlatMapFunction<BaseRow, BaseRow> fetcher;
 	protected transient TableFunctionCollector<BaseRow> collector;
 	private transient GenericRow nullRow;
 	private transient JoinedRow outRow;
+	private transient CachingCollector cachingCollector;
 
 	public LookupJoinRunner(
 			GeneratedFunction<FlatMapFunction<BaseRow, BaseRow>> generatedFetcher,
 			GeneratedCollector<TableFunctionCollector<BaseRow>> generatedCollector,
 			boolean isLeftOuterJoin,
 			int tableFieldsCount) {
+		this(generatedFetcher, generatedCollector, isLeftOuterJoin, tableFieldsCount, null);
+	}
+
+	public LookupJoinRunner(
+			GeneratedFunction<FlatMapFunction<BaseRow, BaseRow>> generatedFetcher,
+			GeneratedCollector<TableFunctionCollector<BaseRow>> generatedCollector,
+			boolean isLeftOuterJoin,
+			int tableFieldsCount,
+			@Nullable LookupCache cache) {
 		this.generatedFetcher = generatedFetcher;
 		this.generatedCollector = generatedCollector;
 		this.isLeftOuterJoin = isLeftOuterJoin;
 		this.tableFieldsCount = tableFieldsCount;
+		this.cache = cache;
 	}
 
 	@Override
@@ -70,6 +88,11 @@ public class LookupJoinRunner extends ProcessFunction<BaseRow, BaseRow> {
 
 		this.nullRow = new GenericRow(tableFieldsCount);
 		this.outRow = new JoinedRow();
+
+		if (cache != null) {
+			cache.open(getRuntimeContext());
+			this.cachingCollector = new CachingCollector(cache);
+		}
 	}
 
 	@Override
@@ -78,8 +101,12 @@ public class LookupJoinRunner extends ProcessFunction<BaseRow, BaseRow> {
 		collector.setInput(in);
 		collector.reset();
 
-		// fetcher has copied the input field when object reuse is enabled
-		fetcher.flatMap(in, getFetcherCollector());
+		if (cache == null) {
+			// fetcher has copied the input field when object reuse is enabled
+			fetcher.flatMap(in, getFetcherCollector());
+		} else {
+			fetchWithCache(in);
+		}
 
 		if (isLeftOuterJoin && !collector.isCollected()) {
 			outRow.replace(in, nullRow);
@@ -88,6 +115,21 @@ public class LookupJoinRunner extends ProcessFunction<BaseRow, BaseRow> {
 		}
 	}
 
+	private void fetchWithCache(BaseRow in) throws Exception {
+		Collector<BaseRow> fetcherCollector = getFetcherCollector();
+		BaseRow key = cache.getKey(in);
+		List<BaseRow> cachedRows = cache.getIfPresent(key);
+		if (cachedRows != null) {
+			for (BaseRow cachedRow : cachedRows) {
+				fetcherCollector.collect(cachedRow);
+			}
+		} else {
+			cachingCollector.reset(fetcherCollector);
+			fetcher.flatMap(in, cachingCollector);
+			cache.put(key, cachingCollector.rows);
+		}
+	}
+
 	public Collector<BaseRow> getFetcherCollector() {
 		return collector;
 	}
@@ -101,5 +143,40 @@ public class LookupJoinRunner extends ProcessFunction<BaseRow, BaseRow> {
 		if (collector != null) {
 			FunctionUtils.closeFunction(collector);
 		}
+		if (cache != null) {
+			cache.close();
+		}
+	}
+
+	/**
+	 * Forwards the rows of the lookup function and keeps copies of them for the {@link LookupCache}.
+	 */
+	private static final class CachingCollector implements Collector<BaseRow> {
+
+		private final LookupCache cache;
+
+		private Collector<BaseRow> delegate;
+		private List<BaseRow> rows;
+
+		private CachingCollector(LookupCache cache) {
+			this.cache = cache;
+		}
+
+		private void reset(Collector<BaseRow> delegate) {
+			this.delegate = delegate;
+			// a new list for every lookup, because the previous list is held by the cache
+			this.rows = new ArrayList<>(1);
+		}
+
+		@Override
+		public void collect(BaseRow record) {
+			rows.add(cache.copyLookupRow(record));
+			delegate.collect(record);
+		}
+
+		@Override
+		public void close() {
+			delegate.close();
+		}
 	}
 }
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.runtimefilter;
+
+import org.apache.flink.streaming.api.operators.BoundedOneInput;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.dataformat.GenericRow;
+import org.apache.flink.table.runtime.operators.TableStreamOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Operator which merges the {@link RuntimeBloomFilter}s of all parallel instances of the
+ * {@link LocalRuntimeFilterBuilderOperator}, and emits the merged filter at the end of the input.
+ * It must run with a parallelism of 1.
+ *
+ * <p>If too many bits of the merged filter are set, e.g. because the build side is much larger
+ * than estimated, a row with a null filter is emitted instead, which accepts all rows.
+ */
+public class GlobalRuntimeFilterBuilderOperator extends TableStreamOperator<BaseRow>
+		implements OneInputStreamOperator<BaseRow, BaseRow>, BoundedOneInput {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final Logger LOG = LoggerFactory.getLogger(GlobalRuntimeFilterBuilderOperator.class);
+
+	private transient byte[] bits;
+
+	@Override
+	public void processElement(StreamRecord<BaseRow> element) throws Exception {
+		byte[] otherBits = element.getValue().getBinary(0);
+		if (bits == null) {
+			bits = otherBits.clone();
+		} else {
+			RuntimeBloomFilter.merge(bits, otherBits);
+		}
+	}
+
+	@Override
+	public void endInput() throws Exception {
+		if (bits != null) {
+			double fillRatio = RuntimeBloomFilter.fillRatio(bits);
+			if (fillRatio > RuntimeBloomFilter.MAX_FILL_RATIO) {
+				LOG.info("Drop the runtime filter of {} bytes, because {} of its bits are set.",
+					bits.length, fillRatio);
+				bits = null;
+			}
+		}
+		output.collect(new StreamRecord<>(GenericRow.of((Object) bits)));
+	}
+}
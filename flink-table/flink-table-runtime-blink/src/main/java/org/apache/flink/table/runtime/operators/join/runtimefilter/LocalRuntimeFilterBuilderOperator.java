@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.runtimefilter;
+
+import org.apache.flink.streaming.api.operators.BoundedOneInput;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.dataformat.BinaryRow;
+import org.apache.flink.table.dataformat.GenericRow;
+import org.apache.flink.table.runtime.generated.GeneratedProjection;
+import org.apache.flink.table.runtime.generated.Projection;
+import org.apache.flink.table.runtime.operators.TableStreamOperator;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Operator which builds a {@link RuntimeBloomFilter} from the join keys of the rows of the build
+ * side of a hash join, before the build side is shuffled.
+ *
+ * <p>The filter is emitted at the end of the input, as a row with the bits of the filter in a
+ * single binary field. The filters of all parallel instances are merged by the
+ * {@link GlobalRuntimeFilterBuilderOperator}.
+ */
+public class LocalRuntimeFilterBuilderOperator extends TableStreamOperator<BaseRow>
+		implements OneInputStreamOperator<BaseRow, BaseRow>, BoundedOneInput {
+
+	private static final long serialVersionUID = 1L;
+
+	private GeneratedProjection keyProjectionCode;
+	private final int expectedEntries;
+	private final int byteSize;
+
+	private transient Projection<BaseRow, BinaryRow> keyProjection;
+	private transient RuntimeBloomFilter filter;
+
+	public LocalRuntimeFilterBuilderOperator(
+			GeneratedProjection keyProjectionCode,
+			int expectedEntries,
+			int byteSize) {
+		this.keyProjectionCode = checkNotNull(keyProjectionCode);
+		this.expectedEntries = expectedEntries;
+		this.byteSize = byteSize;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void open() throws Exception {
+		super.open();
+		this.keyProjection = keyProjectionCode.newInstance(getContainingTask().getUserCodeClassLoader());
+		this.filter = RuntimeBloomFilter.create(expectedEntries, byteSize);
+		keyProjectionCode = null;
+	}
+
+	@Override
+	public void processElement(StreamRecord<BaseRow> element) throws Exception {
+		filter.addHash(keyProjection.apply(element.getValue()).hashCode());
+	}
+
+	@Override
+	public void endInput() throws Exception {
+		output.collect(new StreamRecord<>(GenericRow.of((Object) filter.getBits())));
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.runtimefilter;
+
+import org.apache.flink.core.memory.MemorySegmentFactory;
+import org.apache.flink.runtime.operators.util.BloomFilter;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * A {@link BloomFilter} over the hash codes of the join keys of one side of a hash join. The bits
+ * are kept in a byte array, so that the filter can be shipped in a row between the operators of
+ * the runtime filter.
+ *
+ * <p>The number of hash functions depends on the expected number of entries and the size of the
+ * filter, so the filters which are merged or tested against each other must be created with the
+ * same parameters.
+ */
+public final class RuntimeBloomFilter {
+
+	/**
+	 * The max ratio of set bits of a useful filter. About half of the bits of a filter of the optimal
+	 * size are set, filters with many more set bits accept too many keys to be worth testing the
+	 * rows against, and are dropped by the global builder.
+	 */
+	static final double MAX_FILL_RATIO = 0.8;
+
+	private final byte[] bits;
+	private final BloomFilter filter;
+
+	RuntimeBloomFilter(int expectedEntries, byte[] bits) {
+		this.bits = bits;
+		this.filter = new BloomFilter(expectedEntries, bits.length);
+		this.filter.setBitsLocation(MemorySegmentFactory.wrap(bits), 0);
+	}
+
+	/**
+	 * Creates an empty filter, which rejects all keys.
+	 */
+	static RuntimeBloomFilter create(int expectedEntries, int byteSize) {
+		return new RuntimeBloomFilter(expectedEntries, new byte[byteSize]);
+	}
+
+	void addHash(int hash) {
+		filter.addHash(hash);
+	}
+
+	boolean testHash(int hash) {
+		return filter.testHash(hash);
+	}
+
+	byte[] getBits() {
+		return bits;
+	}
+
+	/**
+	 * Merges the bits of another filter of the same size into the given bits.
+	 */
+	static void merge(byte[] bits, byte[] otherBits) {
+		checkArgument(bits.length == otherBits.length,
+			"Only runtime filters of the same size can be merged.");
+		for (int i = 0; i < bits.length; i++) {
+			bits[i] |= otherBits[i];
+		}
+	}
+
+	/**
+	 * Returns the ratio of set bits of the given bits.
+	 */
+	static double fillRatio(byte[] bits) {
+		long numSetBits = 0;
+		for (byte b : bits) {
+			numSetBits += Integer.bitCount(b & 0xFF);
+		}
+		return (double) numSetBits / (bits.length * 8L);
+	}
+
+	/**
+	 * Returns the size in bytes of a filter for the given number of entries with the given false
+	 * positive probability, which is at most the given max size.
+	 */
+	public static int computeByteSize(long expectedEntries, double fpp, int maxByteSize) {
+		checkArgument(maxByteSize > 0, "The max size of the runtime filter must be positive.");
+		long numBits = BloomFilter.optimalNumOfBits(Math.max(1, expectedEntries), fpp);
+		return (int) Math.max(1, Math.min(maxByteSize, (numBits + 7) / 8));
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.runtimefilter;
+
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.streaming.api.operators.BoundedMultiInput;
+import org.apache.flink.streaming.api.operators.InputSelectable;
+import org.apache.flink.streaming.api.operators.InputSelection;
+import org.apache.flink.streaming.api.operators.TwoInputStreamOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.dataformat.BinaryRow;
+import org.apache.flink.table.runtime.generated.GeneratedProjection;
+import org.apache.flink.table.runtime.generated.Projection;
+import org.apache.flink.table.runtime.operators.TableStreamOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * Operator which drops the rows of the probe side of a hash join whose join keys can not match
+ * any row of the build side, before the probe side is shuffled.
+ *
+ * <p>The first input is the broadcast {@link RuntimeBloomFilter} of the build side, which is
+ * emitted by the {@link GlobalRuntimeFilterBuilderOperator}, and the second input are the rows of
+ * the probe side. The second input is only read after the first input is finished. A null filter
+ * accepts all rows.
+ *
+ * <p>The filter must be created with the same parameters as the
+ * {@link LocalRuntimeFilterBuilderOperator}s, and the key projection must produce the same binary
+ * rows for equal keys as the projection of the build side.
+ */
+public class RuntimeFilterOperator extends TableStreamOperator<BaseRow>
+		implements TwoInputStreamOperator<BaseRow, BaseRow, BaseRow>, BoundedMultiInput, InputSelectable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final Logger LOG = LoggerFactory.getLogger(RuntimeFilterOperator.class);
+
+	private GeneratedProjection keyProjectionCode;
+	private final int expectedEntries;
+
+	private transient Projection<BaseRow, BinaryRow> keyProjection;
+	private transient RuntimeBloomFilter filter;
+	private transient boolean filterEnd;
+	private transient Counter numFilteredRecords;
+
+	public RuntimeFilterOperator(GeneratedProjection keyProjectionCode, int expectedEntries) {
+		this.keyProjectionCode = checkNotNull(keyProjectionCode);
+		this.expectedEntries = expectedEntries;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void open() throws Exception {
+		super.open();
+		this.keyProjection = keyProjectionCode.newInstance(getContainingTask().getUserCodeClassLoader());
+		this.filterEnd = false;
+		this.numFilteredRecords = getMetricGroup().counter("numFilteredRecords");
+		keyProjectionCode = null;
+	}
+
+	@Override
+	public void processElement1(StreamRecord<BaseRow> element) throws Exception {
+		checkState(!filterEnd, "Should not receive a filter after the filter input ended.");
+		BaseRow row = element.getValue();
+		if (!row.isNullAt(0)) {
+			filter = new RuntimeBloomFilter(expectedEntries, row.getBinary(0));
+		}
+	}
+
+	@Override
+	public void processElement2(StreamRecord<BaseRow> element) throws Exception {
+		checkState(filterEnd, "Should not receive rows before the filter input ended.");
+		if (filter == null || filter.testHash(keyProjection.apply(element.getValue()).hashCode())) {
+			output.collect(element);
+		} else {
+			numFilteredRecords.inc();
+		}
+	}
+
+	@Override
+	public InputSelection nextSelection() {
+		return filterEnd ? InputSelection.SECOND : InputSelection.FIRST;
+	}
+
+	@Override
+	public void endInput(int inputId) throws Exception {
+		if (inputId == 1) {
+			LOG.info(filter == null ?
+				"No runtime filter is received, all rows are accepted." :
+				"Received the runtime filter, start filtering the rows.");
+			filterEnd = true;
+		}
+	}
+}
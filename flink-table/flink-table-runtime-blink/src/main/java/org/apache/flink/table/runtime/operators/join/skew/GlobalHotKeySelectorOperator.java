@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.skew;
+
+import org.apache.flink.streaming.api.operators.BoundedOneInput;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.dataformat.GenericRow;
+import org.apache.flink.table.runtime.operators.TableStreamOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * Operator which merges the key counts of all parallel instances of the
+ * {@link LocalHotKeyCounterOperator}, and emits a row with the hash code of every hot key at the
+ * end of the input. A key is hot if it has more than the given ratio of all rows. It must run with
+ * a parallelism of 1.
+ */
+public class GlobalHotKeySelectorOperator extends TableStreamOperator<BaseRow>
+		implements OneInputStreamOperator<BaseRow, BaseRow>, BoundedOneInput {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final Logger LOG = LoggerFactory.getLogger(GlobalHotKeySelectorOperator.class);
+
+	private final double hotKeyRatio;
+
+	private transient Map<Integer, long[]> counts;
+	private transient long numRows;
+
+	public GlobalHotKeySelectorOperator(double hotKeyRatio) {
+		checkArgument(hotKeyRatio > 0 && hotKeyRatio <= 1, "The hot key ratio must be in (0, 1].");
+		this.hotKeyRatio = hotKeyRatio;
+	}
+
+	@Override
+	public void open() throws Exception {
+		super.open();
+		this.counts = new HashMap<>();
+		this.numRows = 0L;
+	}
+
+	@Override
+	public void processElement(StreamRecord<BaseRow> element) throws Exception {
+		BaseRow row = element.getValue();
+		if (row.isNullAt(0)) {
+			numRows += row.getLong(1);
+		} else {
+			counts.computeIfAbsent(row.getInt(0), k -> new long[1])[0] += row.getLong(1);
+		}
+	}
+
+	@Override
+	public void endInput() throws Exception {
+		int numHotKeys = 0;
+		for (Map.Entry<Integer, long[]> entry : counts.entrySet()) {
+			if (entry.getValue()[0] > numRows * hotKeyRatio) {
+				output.collect(new StreamRecord<>(GenericRow.of(entry.getKey())));
+				numHotKeys++;
+			}
+		}
+		LOG.info("Found {} hot keys in {} rows.", numHotKeys, numRows);
+		counts.clear();
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.skew;
+
+import org.apache.flink.streaming.api.operators.BoundedOneInput;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.dataformat.BinaryRow;
+import org.apache.flink.table.dataformat.GenericRow;
+import org.apache.flink.table.runtime.generated.GeneratedProjection;
+import org.apache.flink.table.runtime.generated.Projection;
+import org.apache.flink.table.runtime.operators.TableStreamOperator;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Operator which counts the most frequent join keys of one side of a join, before that side is
+ * shuffled. The keys are identified by the hash codes of the projected join keys.
+ *
+ * <p>The counts are kept in a summary of bounded size with the Misra-Gries algorithm: if a new
+ * key does not fit into the full summary, the counts of all keys are decremented and the keys
+ * with a count of zero are removed. Every key with more than {@code n / (capacity + 1)} of the
+ * {@code n} rows is kept in the summary, with a count which is at most that much too low.
+ *
+ * <p>At the end of the input, a row of (hash, count) is emitted for every key in the summary,
+ * followed by a row of (null, number of rows). The counts of all parallel instances are merged by
+ * the {@link GlobalHotKeySelectorOperator}.
+ */
+public class LocalHotKeyCounterOperator extends TableStreamOperator<BaseRow>
+		implements OneInputStreamOperator<BaseRow, BaseRow>, BoundedOneInput {
+
+	private static final long serialVersionUID = 1L;
+
+	private GeneratedProjection keyProjectionCode;
+	private final int capacity;
+
+	private transient Projection<BaseRow, BinaryRow> keyProjection;
+	private transient Map<Integer, long[]> counts;
+	private transient long numRows;
+
+	public LocalHotKeyCounterOperator(GeneratedProjection keyProjectionCode, int capacity) {
+		checkArgument(capacity > 0, "The capacity of the hot key counter must be positive.");
+		this.keyProjectionCode = checkNotNull(keyProjectionCode);
+		this.capacity = capacity;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void open() throws Exception {
+		super.open();
+		this.keyProjection = keyProjectionCode.newInstance(getContainingTask().getUserCodeClassLoader());
+		this.counts = new HashMap<>();
+		this.numRows = 0L;
+		keyProjectionCode = null;
+	}
+
+	@Override
+	public void processElement(StreamRecord<BaseRow> element) throws Exception {
+		numRows++;
+		int hash = keyProjection.apply(element.getValue()).hashCode();
+		long[] count = counts.get(hash);
+		if (count != null) {
+			count[0]++;
+		} else if (counts.size() < capacity) {
+			counts.put(hash, new long[] {1L});
+		} else {
+			// the new key is counted by decrementing all other keys
+			Iterator<long[]> iterator = counts.values().iterator();
+			while (iterator.hasNext()) {
+				if (--iterator.next()[0] == 0L) {
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	@Override
+	public void endInput() throws Exception {
+		for (Map.Entry<Integer, long[]> entry : counts.entrySet()) {
+			output.collect(new StreamRecord<>(GenericRow.of(entry.getKey(), entry.getValue()[0])));
+		}
+		output.collect(new StreamRecord<>(GenericRow.of(null, numRows)));
+		counts.clear();
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.skew;
+
+import org.apache.flink.streaming.api.operators.BoundedMultiInput;
+import org.apache.flink.streaming.api.operators.InputSelectable;
+import org.apache.flink.streaming.api.operators.InputSelection;
+import org.apache.flink.streaming.api.operators.TwoInputStreamOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.dataformat.BinaryRow;
+import org.apache.flink.table.runtime.generated.GeneratedProjection;
+import org.apache.flink.table.runtime.generated.Projection;
+import org.apache.flink.table.runtime.operators.TableStreamOperator;
+import org.apache.flink.util.OutputTag;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * Operator which separates the rows of the hot join keys of one side of a join from the other
+ * rows, before that side is shuffled.
+ *
+ * <p>The first input are the hash codes of the hot keys, which are emitted by the
+ * {@link GlobalHotKeySelectorOperator}, and the second input are the rows of the join side. The
+ * second input is only read after the first input is finished. The rows of the hot keys are
+ * emitted to the given side output, the other rows to the main output.
+ *
+ * <p>The rows of the main output are shuffled by hash as usual. The rows of the hot keys of one
+ * side of the join are spread over all tasks of the join, and the rows of the hot keys of the
+ * other side are broadcast to all of them, so that every pair of rows with the same key still
+ * meets exactly once.
+ */
+public class SkewedKeySplitOperator extends TableStreamOperator<BaseRow>
+		implements TwoInputStreamOperator<BaseRow, BaseRow, BaseRow>, BoundedMultiInput, InputSelectable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final Logger LOG = LoggerFactory.getLogger(SkewedKeySplitOperator.class);
+
+	private GeneratedProjection keyProjectionCode;
+	private final OutputTag<BaseRow> hotKeyOutputTag;
+
+	private transient Projection<BaseRow, BinaryRow> keyProjection;
+	private transient Set<Integer> hotKeys;
+	private transient boolean hotKeysEnd;
+
+	public SkewedKeySplitOperator(GeneratedProjection keyProjectionCode, OutputTag<BaseRow> hotKeyOutputTag) {
+		this.keyProjectionCode = checkNotNull(keyProjectionCode);
+		this.hotKeyOutputTag = checkNotNull(hotKeyOutputTag);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void open() throws Exception {
+		super.open();
+		this.keyProjection = keyProjectionCode.newInstance(getContainingTask().getUserCodeClassLoader());
+		this.hotKeys = new HashSet<>();
+		this.hotKeysEnd = false;
+		keyProjectionCode = null;
+	}
+
+	@Override
+	public void processElement1(StreamRecord<BaseRow> element) throws Exception {
+		checkState(!hotKeysEnd, "Should not receive a hot key after the hot key input ended.");
+		hotKeys.add(element.getValue().getInt(0));
+	}
+
+	@Override
+	public void processElement2(StreamRecord<BaseRow> element) throws Exception {
+		checkState(hotKeysEnd, "Should not receive rows before the hot key input ended.");
+		if (!hotKeys.isEmpty() && hotKeys.contains(keyProjection.apply(element.getValue()).hashCode())) {
+			output.collect(hotKeyOutputTag, element);
+		} else {
+			output.collect(element);
+		}
+	}
+
+	@Override
+	public InputSelection nextSelection() {
+		return hotKeysEnd ? InputSelection.SECOND : InputSelection.FIRST;
+	}
+
+	@Override
+	public void endInput(int inputId) throws Exception {
+		if (inputId == 1) {
+			LOG.info("Received {} hot keys, start splitting the rows.", hotKeys.size());
+			hotKeysEnd = true;
+		}
+	}
+}
@@ -0,0 +1,395 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.stream;
+
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.dataformat.BinaryRow;
+import org.apache.flink.table.dataformat.util.BaseRowUtil;
+import org.apache.flink.table.runtime.generated.GeneratedJoinCondition;
+import org.apache.flink.table.runtime.operators.bundle.trigger.BundleTriggerCallback;
+import org.apache.flink.table.runtime.operators.bundle.trigger.CoBundleTrigger;
+import org.apache.flink.table.runtime.operators.join.stream.state.JoinInputSideSpec;
+import org.apache.flink.table.runtime.operators.join.stream.state.JoinRecordStateView;
+import org.apache.flink.table.runtime.operators.join.stream.state.OuterJoinRecordStateView;
+import org.apache.flink.table.runtime.typeutils.BaseRowSerializer;
+import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Mini-batch version of {@link StreamingJoinOperator}, which supports INNER/LEFT/RIGHT/FULL JOIN.
+ *
+ * <p>The input rows are buffered in heap per join key and per side, and folded into the net
+ * number of times every distinct row is accumulated (positive) or retracted (negative) within
+ * the bundle. When the bundle is finished, every join key with a net change is joined once:
+ * the records of each side are read from the state at most once, the changed output rows are
+ * derived from the old and the new records of both sides, and the net changes are written to
+ * the state in one pass.
+ *
+ * <p>The output of a bundle is the difference between the join results before and after the
+ * bundle, so a pair of rows which is both accumulated and retracted within a bundle is never
+ * emitted.
+ *
+ * <p>The bundle is finished when the trigger fires, on every watermark, before a checkpoint
+ * barrier and on close, so the buffer never needs to be checkpointed.
+ */
+public class MiniBatchStreamingJoinOperator extends StreamingJoinOperator implements BundleTriggerCallback {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The trigger that determines how many elements should be put into a bundle. */
+	private final CoBundleTrigger<BaseRow, BaseRow> bundleTrigger;
+
+	private transient BaseRowSerializer leftSerializer;
+	private transient BaseRowSerializer rightSerializer;
+
+	/** The net changes of the rows of the left side by join key. */
+	private transient Map<BaseRow, Map<BinaryRow, Integer>> leftBundle;
+	/** The net changes of the rows of the right side by join key. */
+	private transient Map<BaseRow, Map<BinaryRow, Integer>> rightBundle;
+
+	private transient int numOfElements;
+
+	public MiniBatchStreamingJoinOperator(
+			BaseRowTypeInfo leftType,
+			BaseRowTypeInfo rightType,
+			GeneratedJoinCondition generatedJoinCondition,
+			JoinInputSideSpec leftInputSideSpec,
+			JoinInputSideSpec rightInputSideSpec,
+			boolean leftIsOuter,
+			boolean rightIsOuter,
+			boolean[] filterNullKeys,
+			long minRetentionTime,
+			CoBundleTrigger<BaseRow, BaseRow> bundleTrigger) {
+		super(leftType, rightType, generatedJoinCondition, leftInputSideSpec, rightInputSideSpec,
+			leftIsOuter, rightIsOuter, filterNullKeys, minRetentionTime);
+		this.bundleTrigger = checkNotNull(bundleTrigger, "bundleTrigger is null");
+	}
+
+	@Override
+	public void open() throws Exception {
+		super.open();
+
+		this.leftSerializer = leftType.createSerializer(getExecutionConfig());
+		this.rightSerializer = rightType.createSerializer(getExecutionConfig());
+		this.leftBundle = new LinkedHashMap<>();
+		this.rightBundle = new LinkedHashMap<>();
+		this.numOfElements = 0;
+
+		bundleTrigger.registerCallback(this);
+		// reset trigger
+		bundleTrigger.reset();
+		LOG.info("Mini-batch join's trigger info: " + bundleTrigger.explain());
+
+		// counter metric to get the size of bundle
+		getRuntimeContext().getMetricGroup().gauge("bundleSize", (Gauge<Integer>) () -> numOfElements);
+	}
+
+	@Override
+	public void processElement1(StreamRecord<BaseRow> element) throws Exception {
+		BaseRow input = element.getValue();
+		addToBundle(leftBundle, leftSerializer, input);
+		numOfElements++;
+		bundleTrigger.onElement1(input);
+	}
+
+	@Override
+	public void processElement2(StreamRecord<BaseRow> element) throws Exception {
+		BaseRow input = element.getValue();
+		addToBundle(rightBundle, rightSerializer, input);
+		numOfElements++;
+		bundleTrigger.onElement2(input);
+	}
+
+	/**
+	 * Folds the input row into the net changes of the current key. The rows are kept with the
+	 * accumulate header, the sign of the count tells whether they are accumulated or retracted.
+	 */
+	private void addToBundle(
+			Map<BaseRow, Map<BinaryRow, Integer>> bundle,
+			BaseRowSerializer serializer,
+			BaseRow input) {
+		// the key is copied by the key selector
+		BaseRow key = (BaseRow) getCurrentKey();
+		Map<BinaryRow, Integer> changes = bundle.computeIfAbsent(key, k -> new LinkedHashMap<>());
+		BinaryRow record = serializer.toBinaryRow(input).copy();
+		int delta = BaseRowUtil.isAccumulateMsg(record) ? 1 : -1;
+		record.setHeader(BaseRowUtil.ACCUMULATE_MSG);
+		// the count is removed when the changes cancel each other
+		changes.merge(record, delta, (c1, c2) -> c1 + c2 == 0 ? null : c1 + c2);
+	}
+
+	@Override
+	public void finishBundle() throws Exception {
+		if (numOfElements > 0) {
+			numOfElements = 0;
+			Set<BaseRow> keys = new LinkedHashSet<>(leftBundle.keySet());
+			keys.addAll(rightBundle.keySet());
+			for (BaseRow key : keys) {
+				Map<BinaryRow, Integer> leftChanges = leftBundle.getOrDefault(key, Collections.emptyMap());
+				Map<BinaryRow, Integer> rightChanges = rightBundle.getOrDefault(key, Collections.emptyMap());
+				if (!leftChanges.isEmpty() || !rightChanges.isEmpty()) {
+					setCurrentKey(key);
+					joinChanges(leftChanges, rightChanges);
+				}
+			}
+			leftBundle.clear();
+			rightBundle.clear();
+		}
+		bundleTrigger.reset();
+	}
+
+	/**
+	 * Joins the net changes of both sides of the current key.
+	 *
+	 * <p>The records of a side are only read from the state when the other side has changed.
+	 * A pair of matched rows changes by {@code leftDelta * newRightCount + oldLeftCount * rightDelta},
+	 * which only needs the old records of the side whose rows have changed, and the null padded
+	 * row of an outer row changes with its count or when its number of associations changes from
+	 * or to zero. Every pair with a changed row is tested exactly once, and the numbers of
+	 * associations of both sides are counted along the way.
+	 */
+	private void joinChanges(
+			Map<BinaryRow, Integer> leftChanges,
+			Map<BinaryRow, Integer> rightChanges) throws Exception {
+		List<ChangedRecord> leftRecords = new ArrayList<>();
+		List<ChangedRecord> leftChangedRecords = new ArrayList<>();
+		readChangedRecords(
+			leftChanges, !rightChanges.isEmpty(), leftRecordStateView, leftIsOuter,
+			leftRecords, leftChangedRecords);
+		List<ChangedRecord> rightRecords = new ArrayList<>();
+		List<ChangedRecord> rightChangedRecords = new ArrayList<>();
+		readChangedRecords(
+			rightChanges, !leftChanges.isEmpty(), rightRecordStateView, rightIsOuter,
+			rightRecords, rightChangedRecords);
+
+		for (ChangedRecord left : leftRecords) {
+			// an unchanged left row only changes its pairs with the changed right rows
+			List<ChangedRecord> candidates = left.delta != 0 ? rightRecords : rightChangedRecords;
+			for (ChangedRecord right : candidates) {
+				if (left.delta == 0 && right.delta == 0) {
+					continue;
+				}
+				if (!joinCondition.apply(left.record, right.record)) {
+					continue;
+				}
+				int change = left.delta * right.newCount() + left.oldCount * right.delta;
+				emit(left.record, right.record, change);
+				left.associate(right);
+				right.associate(left);
+			}
+		}
+
+		if (leftIsOuter) {
+			for (ChangedRecord left : leftRecords) {
+				emit(left.record, null, left.nullPaddingChange());
+			}
+		}
+		if (rightIsOuter) {
+			for (ChangedRecord right : rightRecords) {
+				emit(null, right.record, right.nullPaddingChange());
+			}
+		}
+
+		updateState(leftChangedRecords, leftRecords, leftRecordStateView, leftIsOuter);
+		updateState(rightChangedRecords, rightRecords, rightRecordStateView, rightIsOuter);
+	}
+
+	/**
+	 * Collects the changed rows of a side, and the old records of the side from the state if
+	 * they are needed.
+	 */
+	private static void readChangedRecords(
+			Map<BinaryRow, Integer> changes,
+			boolean readState,
+			JoinRecordStateView stateView,
+			boolean isOuter,
+			List<ChangedRecord> records,
+			List<ChangedRecord> changedRecords) throws Exception {
+		Map<BaseRow, ChangedRecord> recordsByRow = new LinkedHashMap<>();
+		for (Map.Entry<BinaryRow, Integer> change : changes.entrySet()) {
+			ChangedRecord record = new ChangedRecord(change.getKey(), change.getValue());
+			recordsByRow.put(record.record, record);
+			changedRecords.add(record);
+		}
+		if (readState) {
+			// the rows without a unique key are returned once per appearance
+			if (isOuter) {
+				OuterJoinRecordStateView outerStateView = (OuterJoinRecordStateView) stateView;
+				for (Tuple2<BaseRow, Integer> stored : outerStateView.getRecordsAndNumOfAssociations()) {
+					ChangedRecord record = recordsByRow.get(stored.f0);
+					if (record == null) {
+						record = new ChangedRecord(stored.f0, 0);
+						record.oldAssociations = stored.f1;
+						record.newAssociations = stored.f1;
+						recordsByRow.put(stored.f0, record);
+					}
+					record.oldCount++;
+				}
+			} else {
+				for (BaseRow stored : stateView.getRecords()) {
+					ChangedRecord record = recordsByRow.get(stored);
+					if (record == null) {
+						record = new ChangedRecord(stored, 0);
+						recordsByRow.put(stored, record);
+					}
+					record.oldCount++;
+				}
+			}
+		}
+		records.addAll(recordsByRow.values());
+	}
+
+	/**
+	 * Writes the net changes of a side to the state. The retractions are applied before the
+	 * accumulations, so that a row which replaces another row of the same unique key is kept.
+	 */
+	private static void updateState(
+			List<ChangedRecord> changedRecords,
+			List<ChangedRecord> records,
+			JoinRecordStateView stateView,
+			boolean isOuter) throws Exception {
+		for (ChangedRecord record : changedRecords) {
+			for (int i = record.delta; i < 0; i++) {
+				stateView.retractRecord(record.record);
+			}
+		}
+		for (ChangedRecord record : changedRecords) {
+			for (int i = 0; i < record.delta; i++) {
+				if (isOuter) {
+					((OuterJoinRecordStateView) stateView).addRecord(record.record, record.newAssociations);
+				} else {
+					stateView.addRecord(record.record);
+				}
+			}
+		}
+		if (isOuter) {
+			OuterJoinRecordStateView outerStateView = (OuterJoinRecordStateView) stateView;
+			for (ChangedRecord record : records) {
+				if (record.delta <= 0 &&
+						record.newAssociations != record.oldAssociations &&
+						record.newCount() > 0) {
+					outerStateView.updateNumOfAssociations(record.record, record.newAssociations);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Emits the joined row of the given rows, or the null padded row if one of them is null,
+	 * as many times as it has changed.
+	 */
+	private void emit(BaseRow left, BaseRow right, int change) {
+		if (change == 0) {
+			return;
+		}
+		outRow.setHeader(change > 0 ? BaseRowUtil.ACCUMULATE_MSG : BaseRowUtil.RETRACT_MSG);
+		for (int i = Math.abs(change); i > 0; i--) {
+			if (left == null) {
+				outputNullPadding(right, false);
+			} else if (right == null) {
+				outputNullPadding(left, true);
+			} else {
+				output(left, right, true);
+			}
+		}
+	}
+
+	@Override
+	public void processWatermark(Watermark mark) throws Exception {
+		finishBundle();
+		super.processWatermark(mark);
+	}
+
+	@Override
+	public void prepareSnapshotPreBarrier(long checkpointId) throws Exception {
+		finishBundle();
+	}
+
+	@Override
+	public void close() throws Exception {
+		try {
+			if (leftBundle != null) {
+				finishBundle();
+			}
+		} finally {
+			super.close();
+		}
+	}
+
+	// ----------------------------------------------------------------------------------------
+	// Utility Classes
+	// ----------------------------------------------------------------------------------------
+
+	/**
+	 * A distinct row of one side of the current key, with its number of appearances in the state
+	 * before the bundle and its net change in the bundle.
+	 *
+	 * <p>The number of associations before and after the bundle is the total count of the
+	 * matched rows of the other side. It is counted from the other side for a changed row, and
+	 * taken from the state and adjusted by the changed rows of the other side for an unchanged
+	 * row of an outer side.
+	 */
+	private static final class ChangedRecord {
+		private final BaseRow record;
+		private final int delta;
+		private int oldCount;
+		private int oldAssociations;
+		private int newAssociations;
+
+		private ChangedRecord(BaseRow record, int delta) {
+			this.record = record;
+			this.delta = delta;
+		}
+
+		private int newCount() {
+			return oldCount + delta;
+		}
+
+		/** Accounts a matched row of the other side. */
+		private void associate(ChangedRecord other) {
+			if (delta != 0) {
+				// all the rows of the other side are matched against a changed row
+				oldAssociations += other.oldCount;
+				newAssociations += other.newCount();
+			} else {
+				newAssociations += other.delta;
+			}
+		}
+
+		/** Returns the change of the null padded row of this row on an outer side. */
+		private int nullPaddingChange() {
+			int newPadded = newAssociations == 0 ? newCount() : 0;
+			int oldPadded = oldAssociations == 0 ? oldCount : 0;
+			return newPadded - oldPadded;
+		}
+	}
+}
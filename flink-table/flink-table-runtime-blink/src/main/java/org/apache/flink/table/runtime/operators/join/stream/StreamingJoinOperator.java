@@ -39,18 +39,18 @@ public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
 	private static final long serialVersionUID = -376944622236540545L;
 
 	// whether left side is outer side, e.g. left is outer but right is not when LEFT OUTER JOIN
-	private final boolean leftIsOuter;
+	protected final boolean leftIsOuter;
 	// whether right side is outer side, e.g. right is outer but left is not when RIGHT OUTER JOIN
-	private final boolean rightIsOuter;
+	protected final boolean rightIsOuter;
 
-	private transient JoinedRow outRow;
+	protected transient JoinedRow outRow;
 	private transient BaseRow leftNullRow;
 	private transient BaseRow rightNullRow;
 
 	// left join state
-	private transient JoinRecordStateView leftRecordStateView;
+	protected transient JoinRecordStateView leftRecordStateView;
 	// right join state
-	private transient JoinRecordStateView rightRecordStateView;
+	protected transient JoinRecordStateView rightRecordStateView;
 
 	public StreamingJoinOperator(
 			BaseRowTypeInfo leftType,
@@ -280,7 +280,7 @@ public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
 
 	// -------------------------------------------------------------------------------------
 
-	private void output(BaseRow inputRow, BaseRow otherRow, boolean inputIsLeft) {
+	protected void output(BaseRow inputRow, BaseRow otherRow, boolean inputIsLeft) {
 		if (inputIsLeft) {
 			outRow.replace(inputRow, otherRow);
 		} else {
@@ -289,7 +289,7 @@ public class StreamingJoinOperator extends AbstractStreamingJoinOperator {
 		collector.collect(outRow);
 	}
 
-	private void outputNullPadding(BaseRow row, boolean isLeft) {
+	protected void outputNullPadding(BaseRow row, boolean isLeft) {
 		if (isLeft) {
 			outRow.replace(row, rightNullRow);
 		} else {
@@ -34,6 +34,7 @@ import org.apache.flink.table.runtime.keyselector.BaseRowKeySelector;
 import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo;
 import org.apache.flink.table.runtime.typeutils.SortedMapTypeInfo;
 import org.apache.flink.util.Collector;
+import org.apache.flink.util.Preconditions;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,6 +51,11 @@ import java.util.TreeMap;
 
 /**
  * The function could handle retract stream. Input stream could only contain acc, delete or retract record.
+ *
+ * <p>The sorted map from sort key to records count is kept in a single state value by default, which
+ * is read and written completely for every record. If a positive sorted map page size is given, the
+ * sorted map is kept in pages of bounded size by a {@link SortedMapStateView} instead, so that a
+ * record only reads the pages up to the rank end and only writes the pages it modifies.
  */
 public class RetractableTopNFunction extends AbstractTopNFunction {
 
@@ -69,15 +75,25 @@ public class RetractableTopNFunction extends AbstractTopNFunction {
 	// a map state stores mapping from sort key to records list
 	private transient MapState<BaseRow, List<BaseRow>> dataState;
 
-	// a sorted map stores mapping from sort key to records count
+	// a sorted map stores mapping from sort key to records count,
+	// or the directory of the pages if the sorted map is paged
 	private transient ValueState<SortedMap<BaseRow, Long>> treeMap;
 
+	// the pages of the sorted map by page id, only used if the sorted map is paged
+	private transient MapState<Long, SortedMap<BaseRow, Long>> pageState;
+
 	// The util to compare two BaseRow equals to each other.
 	private GeneratedRecordEqualiser generatedEqualiser;
 	private RecordEqualiser equaliser;
 
 	private Comparator<BaseRow> serializableComparator;
 
+	// the max number of sort keys of a sorted map page, 0 if the sorted map is not paged
+	private final int sortedMapPageSize;
+
+	// the paged sorted map of the current key, only used if the sorted map is paged
+	private transient SortedMapStateView sortedMapView;
+
 	public RetractableTopNFunction(
 			long minRetentionTime,
 			long maxRetentionTime,
@@ -89,11 +105,30 @@ public class RetractableTopNFunction extends AbstractTopNFunction {
 			GeneratedRecordEqualiser generatedEqualiser,
 			boolean generateRetraction,
 			boolean outputRankNumber) {
+		this(minRetentionTime, maxRetentionTime, inputRowType, generatedRecordComparator, sortKeySelector, rankType,
+				rankRange, generatedEqualiser, generateRetraction, outputRankNumber, 0);
+	}
+
+	public RetractableTopNFunction(
+			long minRetentionTime,
+			long maxRetentionTime,
+			BaseRowTypeInfo inputRowType,
+			GeneratedRecordComparator generatedRecordComparator,
+			BaseRowKeySelector sortKeySelector,
+			RankType rankType,
+			RankRange rankRange,
+			GeneratedRecordEqualiser generatedEqualiser,
+			boolean generateRetraction,
+			boolean outputRankNumber,
+			int sortedMapPageSize) {
 		super(minRetentionTime, maxRetentionTime, inputRowType, generatedRecordComparator, sortKeySelector, rankType,
 				rankRange, generateRetraction, outputRankNumber);
+		Preconditions.checkArgument(sortedMapPageSize == 0 || sortedMapPageSize > 1,
+				"The sorted map page size must be 0 or larger than 1, but is " + sortedMapPageSize);
 		this.sortKeyType = sortKeySelector.getProducedType();
 		this.serializableComparator = new ComparatorWrapper(generatedRecordComparator);
 		this.generatedEqualiser = generatedEqualiser;
+		this.sortedMapPageSize = sortedMapPageSize;
 	}
 
 	@Override
@@ -109,10 +144,22 @@ public class RetractableTopNFunction extends AbstractTopNFunction {
 				"data-state", sortKeyType, valueTypeInfo);
 		dataState = getRuntimeContext().getMapState(mapStateDescriptor);
 
-		ValueStateDescriptor<SortedMap<BaseRow, Long>> valueStateDescriptor = new ValueStateDescriptor<>(
-				"sorted-map",
-				new SortedMapTypeInfo<>(sortKeyType, BasicTypeInfo.LONG_TYPE_INFO, serializableComparator));
-		treeMap = getRuntimeContext().getState(valueStateDescriptor);
+		SortedMapTypeInfo<BaseRow, Long> sortedMapTypeInfo =
+				new SortedMapTypeInfo<>(sortKeyType, BasicTypeInfo.LONG_TYPE_INFO, serializableComparator);
+		if (sortedMapPageSize > 0) {
+			// the directory maps the first sort key of every page to the page id
+			ValueStateDescriptor<SortedMap<BaseRow, Long>> directoryStateDescriptor = new ValueStateDescriptor<>(
+					"sorted-map-directory", sortedMapTypeInfo);
+			treeMap = getRuntimeContext().getState(directoryStateDescriptor);
+			MapStateDescriptor<Long, SortedMap<BaseRow, Long>> pageStateDescriptor = new MapStateDescriptor<>(
+					"sorted-map-pages", BasicTypeInfo.LONG_TYPE_INFO, sortedMapTypeInfo);
+			pageState = getRuntimeContext().getMapState(pageStateDescriptor);
+			sortedMapView = new SortedMapStateView(treeMap, pageState, sortKeyComparator, sortedMapPageSize);
+		} else {
+			ValueStateDescriptor<SortedMap<BaseRow, Long>> valueStateDescriptor = new ValueStateDescriptor<>(
+					"sorted-map", sortedMapTypeInfo);
+			treeMap = getRuntimeContext().getState(valueStateDescriptor);
+		}
 	}
 
 	@Override
@@ -121,9 +168,16 @@ public class RetractableTopNFunction extends AbstractTopNFunction {
 		// register state-cleanup timer
 		registerProcessingCleanupTimer(ctx, currentTime);
 		initRankEnd(input);
-		SortedMap<BaseRow, Long> sortedMap = treeMap.value();
-		if (sortedMap == null) {
-			sortedMap = new TreeMap<>(sortKeyComparator);
+		Map<BaseRow, Long> sortedMap;
+		if (sortedMapView != null) {
+			// the view writes the modified pages through to the state
+			sortedMapView.load();
+			sortedMap = sortedMapView;
+		} else {
+			sortedMap = treeMap.value();
+			if (sortedMap == null) {
+				sortedMap = new TreeMap<>(sortKeyComparator);
+			}
 		}
 		BaseRow sortKey = sortKeySelector.getKey(input);
 		if (BaseRowUtil.isAccumulateMsg(input)) {
@@ -182,20 +236,26 @@ public class RetractableTopNFunction extends AbstractTopNFunction {
 			}
 
 		}
-		treeMap.update(sortedMap);
+		if (sortedMapView == null) {
+			treeMap.update((SortedMap<BaseRow, Long>) sortedMap);
+		}
 	}
 
 	@Override
 	public void onTimer(long timestamp, OnTimerContext ctx, Collector<BaseRow> out) throws Exception {
 		if (stateCleaningEnabled) {
-			cleanupState(dataState, treeMap);
+			if (pageState != null) {
+				cleanupState(dataState, treeMap, pageState);
+			} else {
+				cleanupState(dataState, treeMap);
+			}
 		}
 	}
 
 	// ------------- ROW_NUMBER-------------------------------
 
 	private void emitRecordsWithRowNumber(
-			SortedMap<BaseRow, Long> sortedMap, BaseRow sortKey, BaseRow inputRow, Collector<BaseRow> out)
+			Map<BaseRow, Long> sortedMap, BaseRow sortKey, BaseRow inputRow, Collector<BaseRow> out)
 			throws Exception {
 		Iterator<Map.Entry<BaseRow, Long>> iterator = sortedMap.entrySet().iterator();
 		long curRank = 0L;
@@ -233,7 +293,7 @@ public class RetractableTopNFunction extends AbstractTopNFunction {
 	}
 
 	private void emitRecordsWithoutRowNumber(
-			SortedMap<BaseRow, Long> sortedMap, BaseRow sortKey, BaseRow inputRow, Collector<BaseRow> out)
+			Map<BaseRow, Long> sortedMap, BaseRow sortKey, BaseRow inputRow, Collector<BaseRow> out)
 			throws Exception {
 		Iterator<Map.Entry<BaseRow, Long>> iterator = sortedMap.entrySet().iterator();
 		long curRank = 0L;
@@ -284,7 +344,7 @@ public class RetractableTopNFunction extends AbstractTopNFunction {
 	}
 
 	private void retractRecordWithRowNumber(
-			SortedMap<BaseRow, Long> sortedMap, BaseRow sortKey, BaseRow inputRow, Collector<BaseRow> out)
+			Map<BaseRow, Long> sortedMap, BaseRow sortKey, BaseRow inputRow, Collector<BaseRow> out)
 			throws Exception {
 		Iterator<Map.Entry<BaseRow, Long>> iterator = sortedMap.entrySet().iterator();
 		long curRank = 0L;
@@ -339,7 +399,7 @@ public class RetractableTopNFunction extends AbstractTopNFunction {
 	}
 
 	private void retractRecordWithoutRowNumber(
-			SortedMap<BaseRow, Long> sortedMap, BaseRow sortKey, BaseRow inputRow, Collector<BaseRow> out)
+			Map<BaseRow, Long> sortedMap, BaseRow sortKey, BaseRow inputRow, Collector<BaseRow> out)
 			throws Exception {
 		Iterator<Map.Entry<BaseRow, Long>> iterator = sortedMap.entrySet().iterator();
 		long curRank = 0L;
@@ -0,0 +1,324 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.rank;
+
+import org.apache.flink.api.common.state.MapState;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.table.dataformat.BaseRow;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * A sorted map from sort key to count of the current key, which is kept in keyed state in pages
+ * of bounded size, instead of in a single state value.
+ *
+ * <p>The pages are stored in a {@link MapState} by page id, and a directory in a
+ * {@link ValueState} maps the first sort key of every page to its page id. The entries are
+ * iterated in order and the pages are read lazily, so iterating the first N entries only reads
+ * the pages which contain them. Updates only write the modified page, and the directory only if
+ * the first key of a page changes or pages are split or merged.
+ *
+ * <p>The view caches the directory and the read pages of the current key, {@link #load()} must be
+ * called whenever the current key changes.
+ */
+class SortedMapStateView extends AbstractMap<BaseRow, Long> {
+
+	private final ValueState<SortedMap<BaseRow, Long>> directoryState;
+	private final MapState<Long, SortedMap<BaseRow, Long>> pageState;
+	private final Comparator<BaseRow> comparator;
+
+	/** The max number of entries of a page, a page is split when it becomes larger. */
+	private final int maxPageSize;
+
+	/** The first sort key of every page to the page id, of the current key. */
+	private SortedMap<BaseRow, Long> directory;
+
+	/** The pages of the current key which have been read. */
+	private final Map<Long, SortedMap<BaseRow, Long>> loadedPages = new HashMap<>();
+
+	SortedMapStateView(
+			ValueState<SortedMap<BaseRow, Long>> directoryState,
+			MapState<Long, SortedMap<BaseRow, Long>> pageState,
+			Comparator<BaseRow> comparator,
+			int maxPageSize) {
+		checkArgument(maxPageSize > 1, "The page size must be larger than 1.");
+		this.directoryState = directoryState;
+		this.pageState = pageState;
+		this.comparator = comparator;
+		this.maxPageSize = maxPageSize;
+	}
+
+	/**
+	 * Reads the directory of the current key and drops the cached pages of the previous key.
+	 */
+	void load() throws Exception {
+		directory = directoryState.value();
+		if (directory == null) {
+			directory = new TreeMap<>(comparator);
+		}
+		loadedPages.clear();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return directory.isEmpty();
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public Long get(Object key) {
+		BaseRow sortKey = (BaseRow) key;
+		Long pageId = findPageId(sortKey);
+		if (pageId == null) {
+			return null;
+		}
+		SortedMap<BaseRow, Long> page = getPage(pageId);
+		return page == null ? null : page.get(sortKey);
+	}
+
+	@Override
+	public Long put(BaseRow key, Long value) {
+		try {
+			Long pageId = findPageId(key);
+			if (pageId == null) {
+				// the first entry
+				SortedMap<BaseRow, Long> page = new TreeMap<>(comparator);
+				page.put(key, value);
+				pageId = 0L;
+				loadedPages.put(pageId, page);
+				pageState.put(pageId, page);
+				directory.put(key, pageId);
+				directoryState.update(directory);
+				return null;
+			}
+
+			SortedMap<BaseRow, Long> page = getPage(pageId);
+			boolean directoryChanged = false;
+			BaseRow firstKey = page.firstKey();
+			if (comparator.compare(key, firstKey) < 0) {
+				// the key is smaller than all keys, and becomes the first key of the first page
+				directory.remove(firstKey);
+				directory.put(key, pageId);
+				directoryChanged = true;
+			}
+			Long oldValue = page.put(key, value);
+			if (page.size() > maxPageSize) {
+				splitPage(pageId, page);
+				directoryChanged = true;
+			} else {
+				pageState.put(pageId, page);
+			}
+			if (directoryChanged) {
+				directoryState.update(directory);
+			}
+			return oldValue;
+		} catch (Exception e) {
+			throw new RuntimeException("Failed to update the sorted map state.", e);
+		}
+	}
+
+	@Override
+	public Long remove(Object key) {
+		try {
+			BaseRow sortKey = (BaseRow) key;
+			Long pageId = findPageId(sortKey);
+			if (pageId == null) {
+				return null;
+			}
+			SortedMap<BaseRow, Long> page = getPage(pageId);
+			if (page == null) {
+				return null;
+			}
+			BaseRow firstKey = page.firstKey();
+			Long oldValue = page.remove(sortKey);
+			if (oldValue == null) {
+				return null;
+			}
+
+			if (page.isEmpty()) {
+				loadedPages.remove(pageId);
+				pageState.remove(pageId);
+				directory.remove(firstKey);
+				directoryState.update(directory);
+				return oldValue;
+			}
+
+			boolean directoryChanged = false;
+			if (comparator.compare(sortKey, firstKey) == 0) {
+				directory.remove(firstKey);
+				directory.put(page.firstKey(), pageId);
+				directoryChanged = true;
+			}
+			if (page.size() < maxPageSize / 4 && mergeWithNextPage(pageId, page)) {
+				directoryChanged = true;
+			} else {
+				pageState.put(pageId, page);
+			}
+			if (directoryChanged) {
+				directoryState.update(directory);
+			}
+			return oldValue;
+		} catch (Exception e) {
+			throw new RuntimeException("Failed to update the sorted map state.", e);
+		}
+	}
+
+	@Override
+	public Set<Entry<BaseRow, Long>> entrySet() {
+		return new AbstractSet<Entry<BaseRow, Long>>() {
+			@Override
+			public Iterator<Entry<BaseRow, Long>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				int size = 0;
+				for (Long pageId : directory.values()) {
+					size += getPage(pageId).size();
+				}
+				return size;
+			}
+		};
+	}
+
+	// ------------------------------------------------------------------------------------------
+
+	/**
+	 * Returns the id of the page which contains the given key if it exists, i.e. the page with the
+	 * greatest first key which is not greater than the given key, or the first page.
+	 */
+	private Long findPageId(BaseRow key) {
+		if (directory.isEmpty()) {
+			return null;
+		}
+		Long pageId = directory.get(key);
+		if (pageId != null) {
+			return pageId;
+		}
+		SortedMap<BaseRow, Long> head = directory.headMap(key);
+		return head.isEmpty() ? directory.get(directory.firstKey()) : head.get(head.lastKey());
+	}
+
+	private SortedMap<BaseRow, Long> getPage(Long pageId) {
+		SortedMap<BaseRow, Long> page = loadedPages.get(pageId);
+		if (page == null) {
+			try {
+				page = pageState.get(pageId);
+			} catch (Exception e) {
+				throw new RuntimeException("Failed to read the sorted map state.", e);
+			}
+			if (page != null) {
+				loadedPages.put(pageId, page);
+			}
+		}
+		return page;
+	}
+
+	private void splitPage(Long pageId, SortedMap<BaseRow, Long> page) throws Exception {
+		Iterator<BaseRow> keys = page.keySet().iterator();
+		for (int i = 0; i < page.size() / 2; i++) {
+			keys.next();
+		}
+		BaseRow splitKey = keys.next();
+		SortedMap<BaseRow, Long> upperHalf = page.tailMap(splitKey);
+		SortedMap<BaseRow, Long> newPage = new TreeMap<>(comparator);
+		newPage.putAll(upperHalf);
+		upperHalf.clear();
+
+		Long newPageId = Collections.max(directory.values()) + 1;
+		loadedPages.put(newPageId, newPage);
+		pageState.put(pageId, page);
+		pageState.put(newPageId, newPage);
+		directory.put(splitKey, newPageId);
+	}
+
+	/**
+	 * Moves the entries of the next page into the given page if they fit into one page.
+	 *
+	 * @return true if the pages are merged and written, false if nothing is changed
+	 */
+	private boolean mergeWithNextPage(Long pageId, SortedMap<BaseRow, Long> page) throws Exception {
+		SortedMap<BaseRow, Long> tail = directory.tailMap(page.firstKey());
+		Iterator<Entry<BaseRow, Long>> iterator = tail.entrySet().iterator();
+		// skip the given page itself
+		iterator.next();
+		if (!iterator.hasNext()) {
+			return false;
+		}
+		Entry<BaseRow, Long> next = iterator.next();
+		SortedMap<BaseRow, Long> nextPage = getPage(next.getValue());
+		if (nextPage == null || page.size() + nextPage.size() > maxPageSize) {
+			return false;
+		}
+		page.putAll(nextPage);
+		loadedPages.remove(next.getValue());
+		pageState.remove(next.getValue());
+		pageState.put(pageId, page);
+		directory.remove(next.getKey());
+		return true;
+	}
+
+	/**
+	 * Iterates the entries in order and reads the pages lazily.
+	 */
+	private class EntryIterator implements Iterator<Entry<BaseRow, Long>> {
+
+		private final Iterator<Long> pageIds = directory.values().iterator();
+		private Iterator<Entry<BaseRow, Long>> currentPage = Collections.emptyIterator();
+
+		@Override
+		public boolean hasNext() {
+			while (!currentPage.hasNext()) {
+				if (!pageIds.hasNext()) {
+					return false;
+				}
+				SortedMap<BaseRow, Long> page = getPage(pageIds.next());
+				if (page != null) {
+					currentPage = page.entrySet().iterator();
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public Entry<BaseRow, Long> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return currentPage.next();
+		}
+	}
+}
@@ -79,7 +79,8 @@ public class AggregateWindowOperator<K, W extends Window> extends WindowOperator
 			LogicalType[] windowPropertyTypes,
 			int rowtimeIndex,
 			boolean sendRetraction,
-			long allowedLateness) {
+			long allowedLateness,
+			boolean inputIsAccumulators) {
 		super(windowAggregator,
 			windowAssigner,
 			trigger,
@@ -90,7 +91,8 @@ public class AggregateWindowOperator<K, W extends Window> extends WindowOperator
 			windowPropertyTypes,
 			rowtimeIndex,
 			sendRetraction,
-			allowedLateness);
+			allowedLateness,
+			inputIsAccumulators);
 		this.aggWindowAggregator = windowAggregator;
 		this.equaliser = checkNotNull(equaliser);
 	}
@@ -107,7 +109,8 @@ public class AggregateWindowOperator<K, W extends Window> extends WindowOperator
 			LogicalType[] windowPropertyTypes,
 			int rowtimeIndex,
 			boolean sendRetraction,
-			long allowedLateness) {
+			long allowedLateness,
+			boolean inputIsAccumulators) {
 		super(windowAssigner,
 			trigger,
 			windowSerializer,
@@ -117,7 +120,8 @@ public class AggregateWindowOperator<K, W extends Window> extends WindowOperator
 			windowPropertyTypes,
 			rowtimeIndex,
 			sendRetraction,
-			allowedLateness);
+			allowedLateness,
+			inputIsAccumulators);
 		this.generatedAggWindowAggregator = generatedAggWindowAggregator;
 		this.generatedEqualiser = checkNotNull(generatedEqualiser);
 	}
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.window;
+
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.streaming.api.operators.AbstractStreamOperator;
+import org.apache.flink.streaming.api.operators.ChainingStrategy;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.dataformat.GenericRow;
+import org.apache.flink.table.dataformat.JoinedRow;
+import org.apache.flink.table.runtime.dataview.PerKeyStateDataViewStore;
+import org.apache.flink.table.runtime.generated.AggsHandleFunction;
+import org.apache.flink.table.runtime.generated.GeneratedAggsHandleFunction;
+import org.apache.flink.table.runtime.keyselector.BaseRowKeySelector;
+import org.apache.flink.table.runtime.operators.bundle.trigger.BundleTrigger;
+import org.apache.flink.table.runtime.operators.bundle.trigger.BundleTriggerCallback;
+import org.apache.flink.table.runtime.util.StreamRecordCollector;
+import org.apache.flink.util.Collector;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * The local operator of a two-phase event-time window aggregate. It runs before the shuffle and
+ * pre-aggregates the input rows per group key and per slice in heap, so that every input row is
+ * accumulated exactly once, no matter how many windows it belongs to.
+ *
+ * <p>A slice is the smallest time range that windows can be composed of: the window itself for
+ * tumbling windows, and the pane (the greatest common divisor of size and slide) for sliding
+ * windows. The global {@link WindowOperator} merges the slices into the windows.
+ *
+ * <p>The output rows have the layout {@code (accumulators, group keys, slice timestamp)}, where the
+ * slice timestamp is the max timestamp of the slice. The accumulators come first, so that the
+ * global operator can merge both the input rows and its own panes with the same merge method.
+ *
+ * <p>The slices whose max timestamp is not later than the watermark are emitted before the
+ * watermark is forwarded. All buffered slices are emitted when the bundle trigger fires, before
+ * a checkpoint barrier, and on close, so that the operator does not keep any state.
+ */
+public class LocalSlicingWindowAggOperator extends AbstractStreamOperator<BaseRow>
+		implements OneInputStreamOperator<BaseRow, BaseRow>, BundleTriggerCallback {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The code generated function used to handle aggregates. */
+	private final GeneratedAggsHandleFunction genAggsHandler;
+
+	/** Extracts the group key from an input row. */
+	private final BaseRowKeySelector keySelector;
+
+	/** The trigger that bounds the number of buffered rows. */
+	private final BundleTrigger<BaseRow> bundleTrigger;
+
+	private final int rowtimeIndex;
+
+	private final long sliceSize;
+
+	// function used to handle all aggregates
+	private transient AggsHandleFunction function;
+
+	/** The buffered accumulators by slice end and group key, ordered by slice end. */
+	private transient TreeMap<Long, Map<BaseRow, BaseRow>> slices;
+
+	private transient Collector<BaseRow> collector;
+
+	private transient GenericRow sliceTimestamp;
+	private transient JoinedRow accWithKey;
+	private transient JoinedRow resultRow;
+
+	private transient int numOfElements;
+
+	public LocalSlicingWindowAggOperator(
+			GeneratedAggsHandleFunction genAggsHandler,
+			BaseRowKeySelector keySelector,
+			BundleTrigger<BaseRow> bundleTrigger,
+			int rowtimeIndex,
+			long sliceSize) {
+		checkArgument(rowtimeIndex >= 0, "The local window aggregate only supports event time.");
+		checkArgument(sliceSize > 0, "The slice size must be positive.");
+		this.genAggsHandler = checkNotNull(genAggsHandler);
+		this.keySelector = checkNotNull(keySelector);
+		this.bundleTrigger = checkNotNull(bundleTrigger);
+		this.rowtimeIndex = rowtimeIndex;
+		this.sliceSize = sliceSize;
+		this.chainingStrategy = ChainingStrategy.ALWAYS;
+	}
+
+	@Override
+	public void open() throws Exception {
+		super.open();
+		function = genAggsHandler.newInstance(getRuntimeContext().getUserCodeClassLoader());
+		function.open(new PerKeyStateDataViewStore(getRuntimeContext()));
+
+		slices = new TreeMap<>();
+		collector = new StreamRecordCollector<>(output);
+		sliceTimestamp = new GenericRow(1);
+		accWithKey = new JoinedRow();
+		resultRow = new JoinedRow();
+		numOfElements = 0;
+
+		bundleTrigger.registerCallback(this);
+		// reset trigger
+		bundleTrigger.reset();
+
+		getRuntimeContext().getMetricGroup().gauge("bundleSize", (Gauge<Integer>) () -> numOfElements);
+	}
+
+	@Override
+	public void processElement(StreamRecord<BaseRow> element) throws Exception {
+		BaseRow input = element.getValue();
+		long timestamp = input.getLong(rowtimeIndex);
+		long sliceEnd = TimeWindow.getWindowStartWithOffset(timestamp, 0L, sliceSize) + sliceSize;
+
+		Map<BaseRow, BaseRow> accumulators = slices.computeIfAbsent(sliceEnd, k -> new HashMap<>());
+		BaseRow key = keySelector.getKey(input);
+		BaseRow acc = accumulators.get(key);
+		if (acc == null) {
+			acc = function.createAccumulators();
+		}
+		function.setAccumulators(acc);
+		function.accumulate(input);
+		accumulators.put(key, function.getAccumulators());
+
+		numOfElements++;
+		bundleTrigger.onElement(input);
+	}
+
+	@Override
+	public void processWatermark(Watermark mark) throws Exception {
+		// emits the slices which are complete, the later slices can still be pre-aggregated
+		Iterator<Map.Entry<Long, Map<BaseRow, BaseRow>>> iterator = slices.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<Long, Map<BaseRow, BaseRow>> slice = iterator.next();
+			if (slice.getKey() - 1 > mark.getTimestamp()) {
+				break;
+			}
+			emitSlice(slice.getKey(), slice.getValue());
+			iterator.remove();
+		}
+		if (slices.isEmpty()) {
+			numOfElements = 0;
+			bundleTrigger.reset();
+		}
+		super.processWatermark(mark);
+	}
+
+	@Override
+	public void finishBundle() throws Exception {
+		for (Map.Entry<Long, Map<BaseRow, BaseRow>> slice : slices.entrySet()) {
+			emitSlice(slice.getKey(), slice.getValue());
+		}
+		slices.clear();
+		numOfElements = 0;
+		bundleTrigger.reset();
+	}
+
+	private void emitSlice(long sliceEnd, Map<BaseRow, BaseRow> accumulators) {
+		// the max timestamp of the slice, which is assigned to the same slice by the global operator
+		sliceTimestamp.setLong(0, sliceEnd - 1);
+		for (Map.Entry<BaseRow, BaseRow> entry : accumulators.entrySet()) {
+			accWithKey.replace(entry.getValue(), entry.getKey());
+			resultRow.replace(accWithKey, sliceTimestamp);
+			collector.collect(resultRow);
+		}
+	}
+
+	@Override
+	public void prepareSnapshotPreBarrier(long checkpointId) throws Exception {
+		finishBundle();
+	}
+
+	@Override
+	public void close() throws Exception {
+		try {
+			finishBundle();
+		} finally {
+			super.close();
+			if (function != null) {
+				function.close();
+			}
+		}
+	}
+}
@@ -75,7 +75,8 @@ public class TableAggregateWindowOperator<K, W extends Window> extends WindowOpe
 			windowPropertyTypes,
 			rowtimeIndex,
 			sendRetraction,
-			allowedLateness);
+			allowedLateness,
+			false);
 		this.tableAggWindowAggregator = windowTableAggregator;
 	}
 
@@ -100,7 +101,8 @@ public class TableAggregateWindowOperator<K, W extends Window> extends WindowOpe
 			windowPropertyTypes,
 			rowtimeIndex,
 			sendRetraction,
-			allowedLateness);
+			allowedLateness,
+			false);
 		this.generatedTableAggWindowAggregator = generatedTableAggWindowAggregator;
 	}
 
@@ -138,6 +138,12 @@ public abstract class WindowOperator<K, W extends Window>
 	 */
 	private final long allowedLateness;
 
+	/**
+	 * Whether the input rows are the partial accumulators of a local window aggregate, which are
+	 * merged into the window accumulators instead of being accumulated.
+	 */
+	private final boolean inputIsAccumulators;
+
 	// --------------------------------------------------------------------------------
 
 	protected NamespaceAggsHandleFunctionBase<W> windowAggregator;
@@ -179,7 +185,8 @@ public abstract class WindowOperator<K, W extends Window>
 			LogicalType[] windowPropertyTypes,
 			int rowtimeIndex,
 			boolean sendRetraction,
-			long allowedLateness) {
+			long allowedLateness,
+			boolean inputIsAccumulators) {
 		checkArgument(allowedLateness >= 0);
 		this.windowAggregator = checkNotNull(windowAggregator);
 		this.windowAssigner = checkNotNull(windowAssigner);
@@ -195,6 +202,7 @@ public abstract class WindowOperator<K, W extends Window>
 		// rowtime index should >= 0 when in event time mode
 		checkArgument(!windowAssigner.isEventTime() || rowtimeIndex >= 0);
 		this.rowtimeIndex = rowtimeIndex;
+		this.inputIsAccumulators = inputIsAccumulators;
 
 		setChainingStrategy(ChainingStrategy.ALWAYS);
 	}
@@ -209,7 +217,8 @@ public abstract class WindowOperator<K, W extends Window>
 			LogicalType[] windowPropertyTypes,
 			int rowtimeIndex,
 			boolean sendRetraction,
-			long allowedLateness) {
+			long allowedLateness,
+			boolean inputIsAccumulators) {
 		checkArgument(allowedLateness >= 0);
 		this.windowAssigner = checkNotNull(windowAssigner);
 		this.trigger = checkNotNull(trigger);
@@ -224,6 +233,7 @@ public abstract class WindowOperator<K, W extends Window>
 		// rowtime index should >= 0 when in event time mode
 		checkArgument(!windowAssigner.isEventTime() || rowtimeIndex >= 0);
 		this.rowtimeIndex = rowtimeIndex;
+		this.inputIsAccumulators = inputIsAccumulators;
 
 		setChainingStrategy(ChainingStrategy.ALWAYS);
 	}
@@ -340,7 +350,9 @@ public abstract class WindowOperator<K, W extends Window>
 			}
 			windowAggregator.setAccumulators(window, acc);
 
-			if (BaseRowUtil.isAccumulateMsg(inputRow)) {
+			if (inputIsAccumulators) {
+				windowAggregator.merge(window, inputRow);
+			} else if (BaseRowUtil.isAccumulateMsg(inputRow)) {
 				windowAggregator.accumulate(inputRow);
 			} else {
 				windowAggregator.retract(inputRow);
@@ -71,6 +71,7 @@ public class WindowOperatorBuilder {
 	protected long allowedLateness = 0L;
 	protected boolean sendRetraction = false;
 	protected int rowtimeIndex = -1;
+	protected boolean inputIsAccumulators = false;
 
 	public static WindowOperatorBuilder builder() {
 		return new WindowOperatorBuilder();
@@ -166,6 +167,15 @@ public class WindowOperatorBuilder {
 		return this;
 	}
 
+	/**
+	 * The input rows are the partial accumulators of a {@link LocalSlicingWindowAggOperator},
+	 * which are merged into the windows instead of being accumulated.
+	 */
+	public WindowOperatorBuilder withInputAccumulators() {
+		this.inputIsAccumulators = true;
+		return this;
+	}
+
 	protected void aggregate(
 		LogicalType[] accumulatorTypes,
 		LogicalType[] aggResultTypes,
@@ -258,6 +268,8 @@ public class WindowOperatorBuilder {
 
 		public WindowOperator build() {
 			checkNotNull(windowOperatorBuilder.trigger, "trigger is not set");
+			checkArgument(!windowOperatorBuilder.inputIsAccumulators,
+				"Table aggregate windows do not support accumulators as input.");
 			if (generatedTableAggregateFunction != null) {
 				//noinspection unchecked
 				return new TableAggregateWindowOperator(
@@ -334,7 +346,8 @@ public class WindowOperatorBuilder {
 					windowOperatorBuilder.windowPropertyTypes,
 					windowOperatorBuilder.rowtimeIndex,
 					windowOperatorBuilder.sendRetraction,
-					windowOperatorBuilder.allowedLateness);
+					windowOperatorBuilder.allowedLateness,
+					windowOperatorBuilder.inputIsAccumulators);
 			} else {
 				//noinspection unchecked
 				return new AggregateWindowOperator(
@@ -349,7 +362,8 @@ public class WindowOperatorBuilder {
 					windowOperatorBuilder.windowPropertyTypes,
 					windowOperatorBuilder.rowtimeIndex,
 					windowOperatorBuilder.sendRetraction,
-					windowOperatorBuilder.allowedLateness);
+					windowOperatorBuilder.allowedLateness,
+					windowOperatorBuilder.inputIsAccumulators);
 			}
 		}
 	}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.dataformat.vector.filter;
+
+import org.apache.flink.table.dataformat.vector.ColumnVector;
+import org.apache.flink.table.dataformat.vector.VectorizedColumnBatch;
+import org.apache.flink.table.dataformat.vector.heap.HeapBytesVector;
+import org.apache.flink.table.dataformat.vector.heap.HeapDoubleVector;
+import org.apache.flink.table.dataformat.vector.heap.HeapIntVector;
+import org.apache.flink.table.dataformat.vector.heap.HeapLongVector;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Tests for {@link ColumnBatchFilter}s.
+ */
+public class ColumnBatchFilterTest {
+
+	private static final int VECTOR_SIZE = 8;
+
+	@Test
+	public void testLongCompareFilter() {
+		VectorizedColumnBatch batch = createBatch();
+
+		assertArrayEquals(new int[] {5, 6, 7},
+			filter(batch, new LongCompareFilter(0, CompareOperator.GREATER_THAN, 4L)));
+		assertArrayEquals(new int[] {0, 2, 4},
+			filter(batch, new LongCompareFilter(0, CompareOperator.LESS_THAN_OR_EQUAL, 4L)));
+		assertArrayEquals(new int[] {4},
+			filter(batch, new LongCompareFilter(1, CompareOperator.EQUALS, 40L)));
+		// null values never pass
+		assertArrayEquals(new int[] {0, 2, 5, 6, 7},
+			filter(batch, new LongCompareFilter(0, CompareOperator.NOT_EQUALS, 4L)));
+	}
+
+	@Test
+	public void testDoubleCompareFilter() {
+		VectorizedColumnBatch batch = createBatch();
+
+		assertArrayEquals(new int[] {0, 1},
+			filter(batch, new DoubleCompareFilter(2, CompareOperator.LESS_THAN, 1.5)));
+		// NaN only passes a not equals filter
+		assertArrayEquals(new int[] {},
+			filter(batch, new DoubleCompareFilter(2, CompareOperator.GREATER_THAN, 6.5)));
+		assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5, 6, 7},
+			filter(batch, new DoubleCompareFilter(2, CompareOperator.NOT_EQUALS, 6.5)));
+		// -0.0 equals 0.0
+		assertArrayEquals(new int[] {0},
+			filter(batch, new DoubleCompareFilter(2, CompareOperator.EQUALS, 0.0)));
+	}
+
+	@Test
+	public void testBytesCompareFilter() {
+		VectorizedColumnBatch batch = createBatch();
+
+		assertArrayEquals(new int[] {3},
+			filter(batch, new BytesCompareFilter(3, CompareOperator.EQUALS, "b")));
+		assertArrayEquals(new int[] {0, 1, 2},
+			filter(batch, new BytesCompareFilter(3, CompareOperator.LESS_THAN, "b")));
+		// compared by the unsigned bytes
+		assertArrayEquals(new int[] {7},
+			filter(batch, new BytesCompareFilter(3, CompareOperator.GREATER_THAN, "z")));
+	}
+
+	@Test
+	public void testNullAndAndFilter() {
+		VectorizedColumnBatch batch = createBatch();
+
+		assertArrayEquals(new int[] {1, 3},
+			filter(batch, new NullFilter(0, true)));
+		assertArrayEquals(new int[] {5},
+			filter(batch, new AndFilter(Arrays.asList(
+				new NullFilter(0, false),
+				new LongCompareFilter(1, CompareOperator.GREATER_THAN_OR_EQUAL, 50L),
+				new DoubleCompareFilter(2, CompareOperator.LESS_THAN, 6.0)))));
+	}
+
+	/**
+	 * Creates a batch of the columns (INT with nulls, BIGINT, DOUBLE, STRING).
+	 */
+	private static VectorizedColumnBatch createBatch() {
+		HeapIntVector col0 = new HeapIntVector(VECTOR_SIZE);
+		HeapLongVector col1 = new HeapLongVector(VECTOR_SIZE);
+		HeapDoubleVector col2 = new HeapDoubleVector(VECTOR_SIZE);
+		HeapBytesVector col3 = new HeapBytesVector(VECTOR_SIZE);
+		String[] strings = {"", "a", "aa", "b", "ba", "x", "z", "ä"};
+		for (int i = 0; i < VECTOR_SIZE; i++) {
+			if (i == 1 || i == 3) {
+				col0.setNullAt(i);
+			} else {
+				col0.vector[i] = i;
+			}
+			col1.vector[i] = i * 10;
+			col2.vector[i] = i;
+			byte[] bytes = strings[i].getBytes(StandardCharsets.UTF_8);
+			col3.setVal(i, bytes, 0, bytes.length);
+		}
+		col2.vector[0] = -0.0;
+		col2.vector[7] = Double.NaN;
+		VectorizedColumnBatch batch = new VectorizedColumnBatch(new ColumnVector[] {col0, col1, col2, col3});
+		batch.setNumRows(VECTOR_SIZE);
+		return batch;
+	}
+
+	private static int[] filter(VectorizedColumnBatch batch, ColumnBatchFilter filter) {
+		int[] selected = new int[batch.getNumRows()];
+		for (int i = 0; i < selected.length; i++) {
+			selected[i] = i;
+		}
+		int size = filter.filter(batch, selected, selected.length);
+		return Arrays.copyOf(selected, size);
+	}
+}
@@ -18,18 +18,31 @@
 
 package org.apache.flink.table.runtime.generated;
 
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.configuration.MemorySize;
+import org.apache.flink.configuration.TaskManagerOptions;
 import org.apache.flink.util.FlinkRuntimeException;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 
 /**
  * Tests for {@link CompileUtils}.
@@ -39,12 +52,20 @@ public class CompileUtilsTest {
 	@Rule
 	public ExpectedException thrown = ExpectedException.none();
 
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 	@Before
 	public void before() {
 		// cleanup cached class before tests
 		CompileUtils.COMPILED_CACHE.invalidateAll();
 	}
 
+	@After
+	public void after() {
+		CompileUtils.configureCompiledCodeCache(new Configuration());
+	}
+
 	@Test
 	public void testCacheReuse() {
 		String code =
@@ -72,6 +93,146 @@ public class CompileUtilsTest {
 		CompileUtils.compile(this.getClass().getClassLoader(), "Main", code);
 	}
 
+	@Test
+	public void testCompiledCodeCache() throws Exception {
+		File cacheDir = temporaryFolder.newFolder();
+		configureCompiledCodeCache(cacheDir, MemorySize.parse("1m"));
+		Class<?> class1 = CompileUtils.compile(this.getClass().getClassLoader(), "Main", mainCode(42));
+		assertEquals(42, get(class1));
+		File cachedFile = getCachedFile(cacheDir);
+
+		// replace the cached class files by the ones of other code, which are loaded instead of
+		// compiling the code again
+		File otherCacheDir = temporaryFolder.newFolder();
+		configureCompiledCodeCache(otherCacheDir, MemorySize.parse("1m"));
+		CompileUtils.COMPILED_CACHE.invalidateAll();
+		CompileUtils.compile(this.getClass().getClassLoader(), "Main", mainCode(43));
+		Files.copy(getCachedFile(otherCacheDir).toPath(), cachedFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+		// a new job on the TaskManager loads the cached class files
+		configureCompiledCodeCache(cacheDir, MemorySize.parse("1m"));
+		CompileUtils.COMPILED_CACHE.invalidateAll();
+		Class<?> class2 = CompileUtils.compile(new TestClassLoader(), "Main", mainCode(42));
+		assertNotSame(class1, class2);
+		assertEquals(43, get(class2));
+		assertEquals(1, cacheDir.listFiles().length);
+	}
+
+	@Test
+	public void testCompiledCodeCacheWithOtherNames() throws Exception {
+		File cacheDir = temporaryFolder.newFolder();
+		configureCompiledCodeCache(cacheDir, MemorySize.parse("1m"));
+		Class<?> class1 = CompileUtils.compile(
+			this.getClass().getClassLoader(), "Main$12", numberedCode(12, 13));
+		assertEquals(42, get(class1));
+		getCachedFile(cacheDir);
+
+		// the same code generated again by the planner has other names
+		CompileUtils.COMPILED_CACHE.invalidateAll();
+		Class<?> class2 = CompileUtils.compile(
+			this.getClass().getClassLoader(), "Main$20", numberedCode(20, 21));
+		assertEquals(class1.getName(), class2.getName());
+		assertEquals(42, get(class2));
+		assertEquals(1, cacheDir.listFiles().length);
+	}
+
+	@Test
+	public void testStaleCompiledClass() throws Exception {
+		File cacheDir = temporaryFolder.newFolder();
+		configureCompiledCodeCache(cacheDir, MemorySize.parse("1m"));
+		CompileUtils.compile(this.getClass().getClassLoader(), "Main", mainCode(42));
+		File cachedFile = getCachedFile(cacheDir);
+
+		// cached class files which call a method that does not exist anymore
+		File otherCacheDir = temporaryFolder.newFolder();
+		configureCompiledCodeCache(otherCacheDir, MemorySize.parse("1m"));
+		CompileUtils.COMPILED_CACHE.invalidateAll();
+		String code =
+			"public class Main {\n" +
+			"  public int get() {\n" +
+			"    return Integer.parseInt(\"43\");\n" +
+			"  }\n" +
+			"}";
+		CompileUtils.compile(this.getClass().getClassLoader(), "Main", code);
+		byte[] bytes = Files.readAllBytes(getCachedFile(otherCacheDir).toPath());
+		replace(bytes, "parseInt", "parseIns");
+		Files.write(cachedFile.toPath(), bytes);
+
+		// the stale class files are not used, the code is compiled again
+		configureCompiledCodeCache(cacheDir, MemorySize.parse("1m"));
+		CompileUtils.COMPILED_CACHE.invalidateAll();
+		Class<?> clazz = CompileUtils.compile(new TestClassLoader(), "Main", mainCode(42));
+		assertEquals(42, get(clazz));
+	}
+
+	@Test
+	public void testCompiledCodeCacheEviction() throws Exception {
+		File cacheDir = temporaryFolder.newFolder();
+		configureCompiledCodeCache(cacheDir, MemorySize.parse("1m"));
+		CompileUtils.compile(this.getClass().getClassLoader(), "Main", mainCode(42));
+		long fileSize = getCachedFile(cacheDir).length();
+
+		// the class files of the other code have the same size, only one of them fits
+		configureCompiledCodeCache(cacheDir, new MemorySize(fileSize));
+		CompileUtils.COMPILED_CACHE.invalidateAll();
+		Class<?> clazz = CompileUtils.compile(this.getClass().getClassLoader(), "Main", mainCode(43));
+		assertEquals(43, get(clazz));
+		assertEquals(1, cacheDir.listFiles().length);
+	}
+
+	private static String mainCode(int value) {
+		return
+			"public class Main {\n" +
+			"  public int get() {\n" +
+			"    return new Inner().i;\n" +
+			"  }\n" +
+			"  public static class Inner {\n" +
+			"    int i = " + value + ";\n" +
+			"  }\n" +
+			"}";
+	}
+
+	private static String numberedCode(int classNumber, int fieldNumber) {
+		return
+			"public class Main$" + classNumber + " {\n" +
+			"  // literals and comments are not renamed, e.g. i$7\n" +
+			"  int i$" + fieldNumber + " = \"i$7\".length() + 39;\n" +
+			"  public int get() {\n" +
+			"    return i$" + fieldNumber + ";\n" +
+			"  }\n" +
+			"}";
+	}
+
+	private static void configureCompiledCodeCache(File directory, MemorySize maxSize) {
+		Configuration configuration = new Configuration();
+		configuration.setString(TaskManagerOptions.COMPILED_CODE_CACHE_DIR, directory.getAbsolutePath());
+		configuration.set(TaskManagerOptions.COMPILED_CODE_CACHE_MAX_SIZE, maxSize);
+		CompileUtils.configureCompiledCodeCache(configuration);
+	}
+
+	private static File getCachedFile(File directory) {
+		File[] cachedFiles = directory.listFiles();
+		assertNotNull(cachedFiles);
+		assertEquals(1, cachedFiles.length);
+		return cachedFiles[0];
+	}
+
+	private static int get(Class<?> clazz) throws Exception {
+		return (int) clazz.getMethod("get").invoke(clazz.newInstance());
+	}
+
+	private static void replace(byte[] bytes, String target, String replacement) {
+		byte[] targetBytes = target.getBytes(StandardCharsets.UTF_8);
+		byte[] replacementBytes = replacement.getBytes(StandardCharsets.UTF_8);
+		for (int i = 0; i + targetBytes.length <= bytes.length; i++) {
+			if (Arrays.equals(targetBytes, Arrays.copyOfRange(bytes, i, i + targetBytes.length))) {
+				System.arraycopy(replacementBytes, 0, bytes, i, replacementBytes.length);
+				return;
+			}
+		}
+		fail("The bytes do not contain " + target + ".");
+	}
+
 	private static class TestClassLoader extends URLClassLoader {
 
 		TestClassLoader() {
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.aggregate;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.streaming.api.operators.KeyedProcessOperator;
+import org.apache.flink.streaming.util.KeyedOneInputStreamOperatorTestHarness;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.runtime.generated.AggsHandleFunction;
+import org.apache.flink.table.runtime.generated.GeneratedAggsHandleFunction;
+import org.apache.flink.table.runtime.generated.GeneratedRecordEqualiser;
+import org.apache.flink.table.runtime.generated.RecordEqualiser;
+import org.apache.flink.table.runtime.operators.over.SumAggsHandleFunction;
+import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo;
+import org.apache.flink.table.runtime.util.BaseRowHarnessAssertor;
+import org.apache.flink.table.runtime.util.BaseRowRecordEqualiser;
+import org.apache.flink.table.runtime.util.BinaryRowKeySelector;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.LogicalType;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.record;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.retractRecord;
+
+/**
+ * Tests for {@link DeduplicateGroupAggFunction}.
+ */
+public class DeduplicateGroupAggFunctionTest {
+
+	static final GeneratedAggsHandleFunction SUM_FUNCTION =
+		new GeneratedAggsHandleFunction("SumFunction", "", new Object[0]) {
+			@Override
+			public AggsHandleFunction newInstance(ClassLoader classLoader) {
+				return new SumAggsHandleFunction(2);
+			}
+		};
+
+	static final GeneratedRecordEqualiser EQUALISER =
+		new GeneratedRecordEqualiser("Equaliser", "", new Object[0]) {
+			@Override
+			public RecordEqualiser newInstance(ClassLoader classLoader) {
+				return new BaseRowRecordEqualiser();
+			}
+		};
+
+	// input: (group, id, value), the unique key is (group, id)
+	static final BaseRowTypeInfo INPUT_TYPE = new BaseRowTypeInfo(
+		new BigIntType(),
+		new BigIntType(),
+		new BigIntType());
+
+	// output: (group, sum)
+	static final BaseRowTypeInfo OUTPUT_TYPE = new BaseRowTypeInfo(
+		new BigIntType(),
+		new BigIntType());
+
+	static final BinaryRowKeySelector GROUP_KEY_SELECTOR = new BinaryRowKeySelector(
+		new int[] { 0 }, INPUT_TYPE.getLogicalTypes());
+
+	static final BinaryRowKeySelector UNIQUE_KEY_SELECTOR = new BinaryRowKeySelector(
+		new int[] { 0, 1 }, INPUT_TYPE.getLogicalTypes());
+
+	private final BaseRowHarnessAssertor assertor = new BaseRowHarnessAssertor(OUTPUT_TYPE.getFieldTypes());
+
+	@Test
+	public void testAggregateLastRows() throws Exception {
+		KeyedOneInputStreamOperatorTestHarness<BaseRow, BaseRow, BaseRow> testHarness = createTestHarness();
+		testHarness.open();
+
+		testHarness.processElement(record(1L, 1L, 10L));
+		testHarness.processElement(record(1L, 2L, 5L));
+		// the previous row of the unique key is replaced
+		testHarness.processElement(record(1L, 1L, 20L));
+		testHarness.processElement(record(2L, 1L, 3L));
+		// the aggregate result does not change
+		testHarness.processElement(record(1L, 2L, 5L));
+
+		List<Object> expected = new ArrayList<>();
+		expected.add(record(1L, 10L));
+		expected.add(retractRecord(1L, 10L));
+		expected.add(record(1L, 15L));
+		expected.add(retractRecord(1L, 15L));
+		expected.add(record(1L, 25L));
+		expected.add(record(2L, 3L));
+		assertor.assertOutputEquals("output wrong.", expected, testHarness.getOutput());
+
+		testHarness.close();
+	}
+
+	private KeyedOneInputStreamOperatorTestHarness<BaseRow, BaseRow, BaseRow> createTestHarness() throws Exception {
+		DeduplicateGroupAggFunction function = new DeduplicateGroupAggFunction(
+			0L,
+			0L,
+			SUM_FUNCTION,
+			EQUALISER,
+			new LogicalType[] { new BigIntType() },
+			INPUT_TYPE,
+			UNIQUE_KEY_SELECTOR,
+			true);
+		KeyedOneInputStreamOperatorTestHarness<BaseRow, BaseRow, BaseRow> testHarness =
+			new KeyedOneInputStreamOperatorTestHarness<>(
+				new KeyedProcessOperator<>(function), GROUP_KEY_SELECTOR, GROUP_KEY_SELECTOR.getProducedType());
+		// the function reuses its output rows
+		testHarness.setup(OUTPUT_TYPE.createSerializer(new ExecutionConfig()));
+		return testHarness;
+	}
+}
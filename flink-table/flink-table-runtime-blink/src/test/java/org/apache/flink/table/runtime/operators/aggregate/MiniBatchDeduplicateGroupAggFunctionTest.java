@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.aggregate;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.streaming.util.KeyedOneInputStreamOperatorTestHarness;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.runtime.operators.bundle.KeyedMapBundleOperator;
+import org.apache.flink.table.runtime.operators.bundle.trigger.CountBundleTrigger;
+import org.apache.flink.table.runtime.util.BaseRowHarnessAssertor;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.LogicalType;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.flink.table.runtime.operators.aggregate.DeduplicateGroupAggFunctionTest.EQUALISER;
+import static org.apache.flink.table.runtime.operators.aggregate.DeduplicateGroupAggFunctionTest.GROUP_KEY_SELECTOR;
+import static org.apache.flink.table.runtime.operators.aggregate.DeduplicateGroupAggFunctionTest.INPUT_TYPE;
+import static org.apache.flink.table.runtime.operators.aggregate.DeduplicateGroupAggFunctionTest.OUTPUT_TYPE;
+import static org.apache.flink.table.runtime.operators.aggregate.DeduplicateGroupAggFunctionTest.SUM_FUNCTION;
+import static org.apache.flink.table.runtime.operators.aggregate.DeduplicateGroupAggFunctionTest.UNIQUE_KEY_SELECTOR;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.record;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.retractRecord;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link MiniBatchDeduplicateGroupAggFunction}.
+ */
+public class MiniBatchDeduplicateGroupAggFunctionTest {
+
+	private final BaseRowHarnessAssertor assertor = new BaseRowHarnessAssertor(OUTPUT_TYPE.getFieldTypes());
+
+	@Test
+	public void testAggregateLastRowsOfBundle() throws Exception {
+		KeyedOneInputStreamOperatorTestHarness<BaseRow, BaseRow, BaseRow> testHarness = createTestHarness();
+		testHarness.open();
+
+		testHarness.processElement(record(1L, 1L, 10L));
+		testHarness.processElement(record(1L, 2L, 5L));
+		// output is empty because bundle not trigger yet.
+		assertTrue(testHarness.getOutput().isEmpty());
+
+		// only the last row of the unique key in the bundle is aggregated
+		testHarness.processElement(record(1L, 1L, 20L));
+
+		List<Object> expected = new ArrayList<>();
+		expected.add(record(1L, 25L));
+		assertor.assertOutputEqualsSorted("output wrong.", expected, testHarness.getOutput());
+
+		// the previous rows of the unique keys are retracted from the accumulators
+		testHarness.processElement(record(1L, 2L, 7L));
+		testHarness.processElement(record(2L, 1L, 3L));
+		testHarness.processElement(record(1L, 1L, 20L));
+
+		expected.add(retractRecord(1L, 25L));
+		expected.add(record(1L, 27L));
+		expected.add(record(2L, 3L));
+		assertor.assertOutputEqualsSorted("output wrong.", expected, testHarness.getOutput());
+
+		// the aggregate results do not change
+		testHarness.processElement(record(1L, 1L, 20L));
+		testHarness.processElement(record(1L, 2L, 7L));
+		testHarness.processElement(record(2L, 1L, 3L));
+
+		assertor.assertOutputEqualsSorted("output wrong.", expected, testHarness.getOutput());
+
+		testHarness.close();
+	}
+
+	private KeyedOneInputStreamOperatorTestHarness<BaseRow, BaseRow, BaseRow> createTestHarness() throws Exception {
+		MiniBatchDeduplicateGroupAggFunction function = new MiniBatchDeduplicateGroupAggFunction(
+			SUM_FUNCTION,
+			EQUALISER,
+			new LogicalType[] { new BigIntType() },
+			INPUT_TYPE,
+			UNIQUE_KEY_SELECTOR,
+			INPUT_TYPE.createSerializer(new ExecutionConfig()),
+			true);
+		KeyedMapBundleOperator<BaseRow, Map<BaseRow, BaseRow>, BaseRow, BaseRow> operator =
+			new KeyedMapBundleOperator<>(function, new CountBundleTrigger<>(3));
+		KeyedOneInputStreamOperatorTestHarness<BaseRow, BaseRow, BaseRow> testHarness =
+			new KeyedOneInputStreamOperatorTestHarness<>(
+				operator, GROUP_KEY_SELECTOR, GROUP_KEY_SELECTOR.getProducedType());
+		// the function reuses its output rows
+		testHarness.setup(OUTPUT_TYPE.createSerializer(new ExecutionConfig()));
+		return testHarness;
+	}
+}
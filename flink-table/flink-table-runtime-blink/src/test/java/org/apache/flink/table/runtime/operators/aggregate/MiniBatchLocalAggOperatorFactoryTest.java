@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.aggregate;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.runtime.state.StateBackend;
+import org.apache.flink.runtime.state.memory.MemoryStateBackend;
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.runtime.generated.AggsHandleFunction;
+import org.apache.flink.table.runtime.generated.GeneratedAggsHandleFunction;
+import org.apache.flink.table.runtime.operators.bundle.MapBundleOperator;
+import org.apache.flink.table.runtime.operators.bundle.trigger.CountBundleTrigger;
+import org.apache.flink.table.runtime.operators.over.SumAggsHandleFunction;
+import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo;
+import org.apache.flink.table.runtime.util.BaseRowHarnessAssertor;
+import org.apache.flink.table.runtime.util.BinaryRowKeySelector;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.LogicalType;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.record;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for {@link MiniBatchLocalAggOperatorFactory}.
+ */
+public class MiniBatchLocalAggOperatorFactoryTest {
+
+	private static final GeneratedAggsHandleFunction SUM_FUNCTION =
+		new GeneratedAggsHandleFunction("SumFunction", "", new Object[0]) {
+			@Override
+			public AggsHandleFunction newInstance(ClassLoader classLoader) {
+				return new SumAggsHandleFunction(1);
+			}
+		};
+
+	// input: (key, value)
+	private final LogicalType[] inputFieldTypes = new LogicalType[] {
+		new BigIntType(),
+		new BigIntType() };
+
+	// output: (key, sum)
+	private final BaseRowTypeInfo outputType = new BaseRowTypeInfo(
+		new BigIntType(),
+		new BigIntType());
+
+	private final BaseRowHarnessAssertor assertor = new BaseRowHarnessAssertor(outputType.getFieldTypes());
+
+	@Test
+	public void testHashAggOperatorWithoutManagedMemoryOfStateBackend() throws Exception {
+		OneInputStreamOperatorTestHarness<BaseRow, BaseRow> testHarness =
+			createTestHarness(new MemoryStateBackend());
+		assertThat(testHarness.getOneInputOperator(), instanceOf(MiniBatchLocalHashAggOperator.class));
+
+		testHarness.open();
+		testHarness.processElement(record(1L, 1L));
+		testHarness.processElement(record(1L, 2L));
+		testHarness.prepareSnapshotPreBarrier(1L);
+
+		List<Object> expected = new ArrayList<>();
+		expected.add(record(1L, 3L));
+		assertor.assertOutputEqualsSorted("output wrong.", expected, testHarness.getOutput());
+
+		testHarness.close();
+	}
+
+	@Test
+	public void testHeapOperatorWithManagedMemoryOfStateBackend() throws Exception {
+		OneInputStreamOperatorTestHarness<BaseRow, BaseRow> testHarness =
+			createTestHarness(new ManagedMemoryStateBackend());
+		assertThat(testHarness.getOneInputOperator(), instanceOf(MapBundleOperator.class));
+
+		testHarness.open();
+		testHarness.processElement(record(1L, 1L));
+		testHarness.processElement(record(1L, 2L));
+
+		List<Object> expected = new ArrayList<>();
+		expected.add(record(1L, 3L));
+		assertor.assertOutputEqualsSorted("output wrong.", expected, testHarness.getOutput());
+
+		testHarness.close();
+	}
+
+	private OneInputStreamOperatorTestHarness<BaseRow, BaseRow> createTestHarness(
+			StateBackend stateBackend) throws Exception {
+		BinaryRowKeySelector keySelector = new BinaryRowKeySelector(new int[] { 0 }, inputFieldTypes);
+		MiniBatchLocalHashAggOperator hashAggOperator = new MiniBatchLocalHashAggOperator(
+			SUM_FUNCTION,
+			keySelector,
+			new LogicalType[] { new BigIntType() },
+			new LogicalType[] { new BigIntType() });
+		MapBundleOperator<BaseRow, BaseRow, BaseRow, BaseRow> bundleOperator = new MapBundleOperator<>(
+			new MiniBatchLocalGroupAggFunction(SUM_FUNCTION),
+			new CountBundleTrigger<>(2),
+			keySelector);
+		OneInputStreamOperatorTestHarness<BaseRow, BaseRow> testHarness = new OneInputStreamOperatorTestHarness<>(
+			new MiniBatchLocalAggOperatorFactory(hashAggOperator, bundleOperator), 1, 1, 0);
+		testHarness.getStreamConfig().setManagedMemoryFraction(0.99);
+		testHarness.setStateBackend(stateBackend);
+		testHarness.setup(outputType.createSerializer(new ExecutionConfig()));
+		return testHarness;
+	}
+
+	/**
+	 * A state backend which uses the managed memory of the slot, like the RocksDB state backend.
+	 */
+	private static class ManagedMemoryStateBackend extends MemoryStateBackend {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public boolean useManagedMemory() {
+			return true;
+		}
+	}
+}
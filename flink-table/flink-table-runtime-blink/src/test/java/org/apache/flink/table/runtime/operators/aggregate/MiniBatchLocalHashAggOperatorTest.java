@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.aggregate;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.runtime.generated.AggsHandleFunction;
+import org.apache.flink.table.runtime.generated.GeneratedAggsHandleFunction;
+import org.apache.flink.table.runtime.operators.over.SumAggsHandleFunction;
+import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo;
+import org.apache.flink.table.runtime.util.BaseRowHarnessAssertor;
+import org.apache.flink.table.runtime.util.BinaryRowKeySelector;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.LogicalType;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.record;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.retractRecord;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link MiniBatchLocalHashAggOperator}.
+ */
+public class MiniBatchLocalHashAggOperatorTest {
+
+	private static final GeneratedAggsHandleFunction SUM_FUNCTION =
+		new GeneratedAggsHandleFunction("SumFunction", "", new Object[0]) {
+			@Override
+			public AggsHandleFunction newInstance(ClassLoader classLoader) {
+				return new SumAggsHandleFunction(1);
+			}
+		};
+
+	// input: (key, value)
+	private final LogicalType[] inputFieldTypes = new LogicalType[] {
+		new BigIntType(),
+		new BigIntType() };
+
+	// output: (key, sum)
+	private final BaseRowTypeInfo outputType = new BaseRowTypeInfo(
+		new BigIntType(),
+		new BigIntType());
+
+	private final BaseRowHarnessAssertor assertor = new BaseRowHarnessAssertor(outputType.getFieldTypes());
+
+	@Test
+	public void testEmitBundleOnWatermarkAndCheckpoint() throws Exception {
+		OneInputStreamOperatorTestHarness<BaseRow, BaseRow> testHarness = createTestHarness();
+		testHarness.open();
+
+		testHarness.processElement(record(1L, 1L));
+		testHarness.processElement(record(2L, 2L));
+		testHarness.processElement(record(1L, 3L));
+		testHarness.processElement(retractRecord(2L, 2L));
+		testHarness.processElement(record(2L, 4L));
+
+		List<Object> expected = new ArrayList<>();
+		assertor.assertOutputEqualsSorted("The accumulators should be buffered.",
+			expected, testHarness.getOutput());
+
+		testHarness.processWatermark(new Watermark(1000L));
+
+		expected.add(record(1L, 4L));
+		expected.add(record(2L, 4L));
+		expected.add(new Watermark(1000L));
+		assertor.assertOutputEqualsSorted("output wrong.", expected, testHarness.getOutput());
+
+		// the map is empty after the bundle is emitted
+		testHarness.processElement(record(1L, 5L));
+		testHarness.prepareSnapshotPreBarrier(1L);
+
+		expected.add(record(1L, 5L));
+		assertor.assertOutputEqualsSorted("output wrong.", expected, testHarness.getOutput());
+
+		testHarness.close();
+	}
+
+	@Test
+	public void testEmitBundleWhenOutOfMemory() throws Exception {
+		OneInputStreamOperatorTestHarness<BaseRow, BaseRow> testHarness = createTestHarness();
+		testHarness.open();
+
+		int numKeys = 200_000;
+		for (long i = 0; i < numKeys; i++) {
+			testHarness.processElement(record(i, 1L));
+		}
+		// the managed memory can not hold all the keys
+		assertTrue(testHarness.getOutput().size() > 0);
+
+		testHarness.processWatermark(new Watermark(1000L));
+
+		int numRecords = 0;
+		long sum = 0L;
+		for (Object output : testHarness.getOutput()) {
+			if (output instanceof StreamRecord) {
+				numRecords++;
+				sum += ((BaseRow) ((StreamRecord) output).getValue()).getLong(1);
+			}
+		}
+		assertEquals(numKeys, numRecords);
+		assertEquals(numKeys, sum);
+
+		testHarness.close();
+	}
+
+	private OneInputStreamOperatorTestHarness<BaseRow, BaseRow> createTestHarness() throws Exception {
+		MiniBatchLocalHashAggOperator operator = new MiniBatchLocalHashAggOperator(
+			SUM_FUNCTION,
+			new BinaryRowKeySelector(new int[] { 0 }, inputFieldTypes),
+			new LogicalType[] { new BigIntType() },
+			new LogicalType[] { new BigIntType() });
+		OneInputStreamOperatorTestHarness<BaseRow, BaseRow> testHarness =
+			new OneInputStreamOperatorTestHarness<>(operator);
+		testHarness.getStreamConfig().setManagedMemoryFraction(0.99);
+		// the operator reuses its output rows
+		testHarness.setup(outputType.createSerializer(new ExecutionConfig()));
+		return testHarness;
+	}
+}
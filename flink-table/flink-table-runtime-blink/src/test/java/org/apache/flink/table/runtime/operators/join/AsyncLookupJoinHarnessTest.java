@@ -40,17 +40,22 @@ import org.apache.flink.table.runtime.generated.GeneratedFunctionWrapper;
 import org.apache.flink.table.runtime.generated.GeneratedResultFutureWrapper;
 import org.apache.flink.table.runtime.operators.join.lookup.AsyncLookupJoinRunner;
 import org.apache.flink.table.runtime.operators.join.lookup.AsyncLookupJoinWithCalcRunner;
+import org.apache.flink.table.runtime.operators.join.lookup.LookupCache;
 import org.apache.flink.table.runtime.operators.join.lookup.LookupJoinRunner;
 import org.apache.flink.table.runtime.operators.join.lookup.LookupJoinWithCalcRunner;
 import org.apache.flink.table.runtime.typeutils.BaseRowSerializer;
 import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo;
 import org.apache.flink.table.runtime.util.BaseRowHarnessAssertor;
+import org.apache.flink.table.runtime.util.BinaryRowKeySelector;
 import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.LogicalType;
 import org.apache.flink.table.types.logical.VarCharType;
 import org.apache.flink.util.Collector;
 
 import org.junit.Test;
 
+import javax.annotation.Nullable;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -61,10 +66,12 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import static org.apache.flink.table.dataformat.BinaryString.fromString;
 import static org.apache.flink.table.runtime.util.StreamRecordUtils.record;
+import static org.junit.Assert.assertEquals;
 
 /**
  * Harness tests for {@link LookupJoinRunner} and {@link LookupJoinWithCalcRunner}.
@@ -211,12 +218,73 @@ public class AsyncLookupJoinHarnessTest {
 		assertor.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
 	}
 
+	@Test
+	public void testTemporalLeftAsyncJoinWithCache() throws Exception {
+		LogicalType[] types = new LogicalType[]{new IntType(), new VarCharType(VarCharType.MAX_LENGTH)};
+		LookupCache cache = new LookupCache(
+			new BinaryRowKeySelector(new int[]{0}, types),
+			rightRowTypeInfo,
+			100,
+			60_000,
+			true);
+		OneInputStreamOperatorTestHarness<BaseRow, BaseRow> testHarness = createHarness(
+			JoinType.LEFT_JOIN,
+			FilterOnTable.WITHOUT_FILTER,
+			cache);
+
+		testHarness.open();
+		TestingFetcherFunction.NUM_LOOKUPS.set(0);
+		TestingFetcherFunction.NUM_COMPLETED_LOOKUPS.set(0);
+
+		synchronized (testHarness.getCheckpointLock()) {
+			testHarness.processElement(record(1, "a"));
+			testHarness.processElement(record(2, "b"));
+			testHarness.processElement(record(3, "c"));
+		}
+
+		// wait until the results of the lookups are cached
+		while (TestingFetcherFunction.NUM_COMPLETED_LOOKUPS.get() < 3) {
+			Thread.sleep(10);
+		}
+
+		synchronized (testHarness.getCheckpointLock()) {
+			testHarness.processElement(record(1, "d"));
+			testHarness.processElement(record(2, "e"));
+			testHarness.processElement(record(3, "f"));
+		}
+
+		// wait until all async collectors in the buffer have been emitted out.
+		synchronized (testHarness.getCheckpointLock()) {
+			testHarness.close();
+		}
+
+		List<Object> expectedOutput = new ArrayList<>();
+		expectedOutput.add(record(1, "a", 1, "Julian"));
+		expectedOutput.add(record(2, "b", null, null));
+		expectedOutput.add(record(3, "c", 3, "Jark"));
+		expectedOutput.add(record(3, "c", 3, "Jackson"));
+		expectedOutput.add(record(1, "d", 1, "Julian"));
+		expectedOutput.add(record(2, "e", null, null));
+		expectedOutput.add(record(3, "f", 3, "Jark"));
+		expectedOutput.add(record(3, "f", 3, "Jackson"));
+
+		assertor.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+		assertEquals(3, TestingFetcherFunction.NUM_LOOKUPS.get());
+	}
+
 	// ---------------------------------------------------------------------------------
 
-	@SuppressWarnings("unchecked")
 	private OneInputStreamOperatorTestHarness<BaseRow, BaseRow> createHarness(
 			JoinType joinType,
 			FilterOnTable filterOnTable) throws Exception {
+		return createHarness(joinType, filterOnTable, null);
+	}
+
+	@SuppressWarnings("unchecked")
+	private OneInputStreamOperatorTestHarness<BaseRow, BaseRow> createHarness(
+			JoinType joinType,
+			FilterOnTable filterOnTable,
+			@Nullable LookupCache cache) throws Exception {
 		RichAsyncFunction<BaseRow, BaseRow> joinRunner;
 		boolean isLeftJoin = joinType == JoinType.LEFT_JOIN;
 		if (filterOnTable == FilterOnTable.WITHOUT_FILTER) {
@@ -226,7 +294,8 @@ public class AsyncLookupJoinHarnessTest {
 				fetcherReturnType,
 				rightRowTypeInfo,
 				isLeftJoin,
-				ASYNC_BUFFER_CAPACITY);
+				ASYNC_BUFFER_CAPACITY,
+				cache);
 		} else {
 			joinRunner = new AsyncLookupJoinWithCalcRunner(
 				new GeneratedFunctionWrapper(new TestingFetcherFunction()),
@@ -235,7 +304,8 @@ public class AsyncLookupJoinHarnessTest {
 				fetcherReturnType,
 				rightRowTypeInfo,
 				isLeftJoin,
-				ASYNC_BUFFER_CAPACITY);
+				ASYNC_BUFFER_CAPACITY,
+				cache);
 		}
 
 		return new OneInputStreamOperatorTestHarness<>(
@@ -276,6 +346,9 @@ public class AsyncLookupJoinHarnessTest {
 
 		private static final long serialVersionUID = 4018474964018227081L;
 
+		private static final AtomicInteger NUM_LOOKUPS = new AtomicInteger();
+		private static final AtomicInteger NUM_COMPLETED_LOOKUPS = new AtomicInteger();
+
 		private static final Map<Integer, List<BaseRow>> data = new HashMap<>();
 
 		static {
@@ -298,10 +371,14 @@ public class AsyncLookupJoinHarnessTest {
 
 		@Override
 		public void asyncInvoke(BaseRow input, ResultFuture<BaseRow> resultFuture) throws Exception {
+			NUM_LOOKUPS.incrementAndGet();
 			int id = input.getInt(0);
 			CompletableFuture
 				.supplyAsync((Supplier<Collection<BaseRow>>) () -> data.get(id), executor)
-				.thenAcceptAsync(resultFuture::complete, executor);
+				.thenAcceptAsync(result -> {
+					resultFuture.complete(result);
+					NUM_COMPLETED_LOOKUPS.incrementAndGet();
+				}, executor);
 		}
 
 		@Override
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.flink.table.runtime.operators.join;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.streaming.api.operators.BoundedOneInput;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.runtime.generated.GeneratedProjection;
+import org.apache.flink.table.runtime.generated.Projection;
+import org.apache.flink.table.runtime.operators.join.Int2HashJoinOperatorTest.MyProjection;
+import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utilities for the tests of the operators which prepare the inputs of a batch join,
+ * e.g. the runtime filter and the skewed key split operators.
+ */
+public class JoinOperatorTestUtil {
+
+	/**
+	 * Projects the int key in the first field of a row.
+	 */
+	public static final GeneratedProjection KEY_PROJECTION =
+		new GeneratedProjection("", "", new Object[0]) {
+			@Override
+			public Projection newInstance(ClassLoader classLoader) {
+				return new MyProjection();
+			}
+		};
+
+	/**
+	 * Processes all input rows with the given bounded operator, ends its input and returns the
+	 * emitted rows.
+	 */
+	public static List<BaseRow> processAndEndInput(
+			OneInputStreamOperator<BaseRow, BaseRow> operator,
+			List<BaseRow> input,
+			BaseRowTypeInfo outputType) throws Exception {
+		OneInputStreamOperatorTestHarness<BaseRow, BaseRow> testHarness =
+			new OneInputStreamOperatorTestHarness<>(operator);
+		testHarness.setup(outputType.createSerializer(new ExecutionConfig()));
+		testHarness.open();
+		for (BaseRow row : input) {
+			testHarness.processElement(new StreamRecord<>(row));
+		}
+		((BoundedOneInput) operator).endInput();
+		List<BaseRow> output = extractRows(testHarness.getOutput());
+		testHarness.close();
+		return output;
+	}
+
+	/**
+	 * Returns the rows of the records in the output of a test harness, skipping watermarks and
+	 * other stream elements.
+	 */
+	@SuppressWarnings("unchecked")
+	public static List<BaseRow> extractRows(Iterable<Object> output) {
+		List<BaseRow> rows = new ArrayList<>();
+		for (Object record : output) {
+			if (record instanceof StreamRecord) {
+				rows.add(((StreamRecord<BaseRow>) record).getValue());
+			}
+		}
+		return rows;
+	}
+}
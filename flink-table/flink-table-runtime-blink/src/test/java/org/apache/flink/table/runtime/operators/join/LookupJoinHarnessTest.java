@@ -33,25 +33,33 @@ import org.apache.flink.table.dataformat.JoinedRow;
 import org.apache.flink.table.runtime.collector.TableFunctionCollector;
 import org.apache.flink.table.runtime.generated.GeneratedCollectorWrapper;
 import org.apache.flink.table.runtime.generated.GeneratedFunctionWrapper;
+import org.apache.flink.table.runtime.operators.join.lookup.LookupCache;
 import org.apache.flink.table.runtime.operators.join.lookup.LookupJoinRunner;
 import org.apache.flink.table.runtime.operators.join.lookup.LookupJoinWithCalcRunner;
 import org.apache.flink.table.runtime.typeutils.BaseRowSerializer;
+import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo;
 import org.apache.flink.table.runtime.util.BaseRowHarnessAssertor;
+import org.apache.flink.table.runtime.util.BinaryRowKeySelector;
 import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.LogicalType;
 import org.apache.flink.table.types.logical.VarCharType;
 import org.apache.flink.util.Collector;
 
 import org.junit.Test;
 
+import javax.annotation.Nullable;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.apache.flink.table.dataformat.BinaryString.fromString;
 import static org.apache.flink.table.runtime.util.StreamRecordUtils.record;
+import static org.junit.Assert.assertEquals;
 
 /**
  * Harness tests for {@link LookupJoinRunner} and {@link LookupJoinWithCalcRunner}.
@@ -168,12 +176,78 @@ public class LookupJoinHarnessTest {
 		testHarness.close();
 	}
 
+	@Test
+	public void testTemporalLeftJoinWithCache() throws Exception {
+		OneInputStreamOperatorTestHarness<BaseRow, BaseRow> testHarness = createHarness(
+			JoinType.LEFT_JOIN,
+			FilterOnTable.WITHOUT_FILTER,
+			createLookupCache());
+
+		testHarness.open();
+		TestingFetcherFunction.NUM_LOOKUPS.set(0);
+
+		testHarness.processElement(record(1, "a"));
+		testHarness.processElement(record(2, "b"));
+		testHarness.processElement(record(1, "c"));
+		testHarness.processElement(record(2, "d"));
+		testHarness.processElement(record(3, "e"));
+		testHarness.processElement(record(3, "f"));
+
+		List<Object> expectedOutput = new ArrayList<>();
+		expectedOutput.add(record(1, "a", 1, "Julian"));
+		expectedOutput.add(record(2, "b", null, null));
+		expectedOutput.add(record(1, "c", 1, "Julian"));
+		expectedOutput.add(record(2, "d", null, null));
+		expectedOutput.add(record(3, "e", 3, "Jark"));
+		expectedOutput.add(record(3, "e", 3, "Jackson"));
+		expectedOutput.add(record(3, "f", 3, "Jark"));
+		expectedOutput.add(record(3, "f", 3, "Jackson"));
+
+		assertor.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+		// the missing key 2 is cached as well
+		assertEquals(3, TestingFetcherFunction.NUM_LOOKUPS.get());
+		testHarness.close();
+	}
+
+	@Test
+	public void testTemporalInnerJoinWithFilterAndCache() throws Exception {
+		OneInputStreamOperatorTestHarness<BaseRow, BaseRow> testHarness = createHarness(
+			JoinType.INNER_JOIN,
+			FilterOnTable.WITH_FILTER,
+			createLookupCache());
+
+		testHarness.open();
+		TestingFetcherFunction.NUM_LOOKUPS.set(0);
+
+		testHarness.processElement(record(3, "a"));
+		testHarness.processElement(record(4, "b"));
+		testHarness.processElement(record(3, "c"));
+		testHarness.processElement(record(4, "d"));
+
+		List<Object> expectedOutput = new ArrayList<>();
+		expectedOutput.add(record(3, "a", 3, "Jackson"));
+		expectedOutput.add(record(4, "b", 4, "Fabian"));
+		expectedOutput.add(record(3, "c", 3, "Jackson"));
+		expectedOutput.add(record(4, "d", 4, "Fabian"));
+
+		assertor.assertOutputEquals("output wrong.", expectedOutput, testHarness.getOutput());
+		assertEquals(2, TestingFetcherFunction.NUM_LOOKUPS.get());
+		testHarness.close();
+	}
+
 	// ---------------------------------------------------------------------------------
 
-	@SuppressWarnings("unchecked")
 	private OneInputStreamOperatorTestHarness<BaseRow, BaseRow> createHarness(
 			JoinType joinType,
 			FilterOnTable filterOnTable) throws Exception {
+		return createHarness(joinType, filterOnTable, null);
+	}
+
+	@SuppressWarnings("unchecked")
+	private OneInputStreamOperatorTestHarness<BaseRow, BaseRow> createHarness(
+			JoinType joinType,
+			FilterOnTable filterOnTable,
+			@Nullable LookupCache cache) throws Exception {
 		boolean isLeftJoin = joinType == JoinType.LEFT_JOIN;
 		ProcessFunction<BaseRow, BaseRow> joinRunner;
 		if (filterOnTable == FilterOnTable.WITHOUT_FILTER) {
@@ -181,14 +255,16 @@ public class LookupJoinHarnessTest {
 				new GeneratedFunctionWrapper<>(new TestingFetcherFunction()),
 				new GeneratedCollectorWrapper<>(new TestingFetcherCollector()),
 				isLeftJoin,
-				2);
+				2,
+				cache);
 		} else {
 			joinRunner = new LookupJoinWithCalcRunner(
 				new GeneratedFunctionWrapper<>(new TestingFetcherFunction()),
 				new GeneratedFunctionWrapper<>(new CalculateOnTemporalTable()),
 				new GeneratedCollectorWrapper<>(new TestingFetcherCollector()),
 				isLeftJoin,
-				2);
+				2,
+				cache);
 		}
 
 		ProcessOperator<BaseRow, BaseRow> operator = new ProcessOperator<>(joinRunner);
@@ -197,6 +273,16 @@ public class LookupJoinHarnessTest {
 			inSerializer);
 	}
 
+	private static LookupCache createLookupCache() {
+		LogicalType[] types = new LogicalType[]{new IntType(), new VarCharType(VarCharType.MAX_LENGTH)};
+		return new LookupCache(
+			new BinaryRowKeySelector(new int[]{0}, types),
+			new BaseRowTypeInfo(types),
+			100,
+			60_000,
+			true);
+	}
+
 	/**
 	 * Whether this is a inner join or left join.
 	 */
@@ -223,6 +309,8 @@ public class LookupJoinHarnessTest {
 
 		private static final long serialVersionUID = 4018474964018227081L;
 
+		private static final AtomicInteger NUM_LOOKUPS = new AtomicInteger();
+
 		private static final Map<Integer, List<GenericRow>> data = new HashMap<>();
 
 		static {
@@ -237,6 +325,7 @@ public class LookupJoinHarnessTest {
 
 		@Override
 		public void flatMap(BaseRow value, Collector<BaseRow> out) throws Exception {
+			NUM_LOOKUPS.incrementAndGet();
 			int id = value.getInt(0);
 			List<GenericRow> rows = data.get(id);
 			if (rows != null) {
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.runtimefilter;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.TwoInputStreamOperatorTestHarness;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.dataformat.GenericRow;
+import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.VarBinaryType;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.apache.flink.table.runtime.operators.join.JoinOperatorTestUtil.KEY_PROJECTION;
+import static org.apache.flink.table.runtime.operators.join.JoinOperatorTestUtil.extractRows;
+import static org.apache.flink.table.runtime.operators.join.JoinOperatorTestUtil.processAndEndInput;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link LocalRuntimeFilterBuilderOperator}, {@link GlobalRuntimeFilterBuilderOperator}
+ * and {@link RuntimeFilterOperator}.
+ */
+public class RuntimeFilterOperatorTest {
+
+	private static final int EXPECTED_ENTRIES = 100;
+
+	private final BaseRowTypeInfo rowType = new BaseRowTypeInfo(new IntType());
+
+	private final BaseRowTypeInfo filterType = new BaseRowTypeInfo(new VarBinaryType(VarBinaryType.MAX_LENGTH));
+
+	@Test
+	public void testFilterProbeRows() throws Exception {
+		int byteSize = RuntimeBloomFilter.computeByteSize(EXPECTED_ENTRIES, 0.01, 1024);
+		List<BaseRow> localFilters = new ArrayList<>();
+		localFilters.add(buildLocalFilter(0, 50, byteSize));
+		localFilters.add(buildLocalFilter(50, 100, byteSize));
+		BaseRow filter = buildGlobalFilter(localFilters);
+
+		Set<Integer> accepted = filterProbeRows(filter, 1000);
+		// a bloom filter has no false negatives
+		for (int i = 0; i < 100; i++) {
+			assertTrue(accepted.contains(i));
+		}
+		// about 1% of the other 900 keys are false positives
+		assertTrue(accepted.size() < 150);
+	}
+
+	@Test
+	public void testEmptyBuildSideRejectsAllRows() throws Exception {
+		int byteSize = RuntimeBloomFilter.computeByteSize(EXPECTED_ENTRIES, 0.01, 1024);
+		List<BaseRow> localFilters = new ArrayList<>();
+		localFilters.add(buildLocalFilter(0, 0, byteSize));
+		BaseRow filter = buildGlobalFilter(localFilters);
+
+		assertEquals(0, filterProbeRows(filter, 1000).size());
+	}
+
+	@Test
+	public void testDropFilterWithTooManySetBits() throws Exception {
+		// the filter is much too small for the build side
+		int byteSize = 8;
+		List<BaseRow> localFilters = new ArrayList<>();
+		localFilters.add(buildLocalFilter(0, 1000, byteSize));
+		localFilters.add(buildLocalFilter(1000, 2000, byteSize));
+		BaseRow filter = buildGlobalFilter(localFilters);
+
+		assertTrue(filter.isNullAt(0));
+		assertEquals(5000, filterProbeRows(filter, 5000).size());
+	}
+
+	private BaseRow buildLocalFilter(int from, int to, int byteSize) throws Exception {
+		LocalRuntimeFilterBuilderOperator operator =
+			new LocalRuntimeFilterBuilderOperator(KEY_PROJECTION, EXPECTED_ENTRIES, byteSize);
+		List<BaseRow> output = processAndEndInput(operator, rows(from, to), filterType);
+		assertEquals(1, output.size());
+		return output.get(0);
+	}
+
+	private BaseRow buildGlobalFilter(List<BaseRow> localFilters) throws Exception {
+		List<BaseRow> output = processAndEndInput(new GlobalRuntimeFilterBuilderOperator(), localFilters, filterType);
+		assertEquals(1, output.size());
+		return output.get(0);
+	}
+
+	private Set<Integer> filterProbeRows(BaseRow filter, int numRows) throws Exception {
+		RuntimeFilterOperator operator = new RuntimeFilterOperator(KEY_PROJECTION, EXPECTED_ENTRIES);
+		TwoInputStreamOperatorTestHarness<BaseRow, BaseRow, BaseRow> testHarness =
+			new TwoInputStreamOperatorTestHarness<>(operator);
+		testHarness.setup(rowType.createSerializer(new ExecutionConfig()));
+		testHarness.open();
+		testHarness.processElement1(new StreamRecord<>(filter));
+		operator.endInput(1);
+		for (BaseRow row : rows(0, numRows)) {
+			testHarness.processElement2(new StreamRecord<>(row));
+		}
+		operator.endInput(2);
+
+		Set<Integer> accepted = new HashSet<>();
+		for (BaseRow row : extractRows(testHarness.getOutput())) {
+			accepted.add(row.getInt(0));
+		}
+		testHarness.close();
+		return accepted;
+	}
+
+	private static List<BaseRow> rows(int from, int to) {
+		List<BaseRow> rows = new ArrayList<>();
+		for (int i = from; i < to; i++) {
+			rows.add(GenericRow.of(i));
+		}
+		return rows;
+	}
+}
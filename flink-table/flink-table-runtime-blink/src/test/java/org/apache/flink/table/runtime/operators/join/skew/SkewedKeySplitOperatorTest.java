@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.skew;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.TwoInputStreamOperatorTestHarness;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.dataformat.GenericRow;
+import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.util.OutputTag;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.apache.flink.table.runtime.operators.join.JoinOperatorTestUtil.KEY_PROJECTION;
+import static org.apache.flink.table.runtime.operators.join.JoinOperatorTestUtil.extractRows;
+import static org.apache.flink.table.runtime.operators.join.JoinOperatorTestUtil.processAndEndInput;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link LocalHotKeyCounterOperator}, {@link GlobalHotKeySelectorOperator} and
+ * {@link SkewedKeySplitOperator}.
+ */
+public class SkewedKeySplitOperatorTest {
+
+	private final BaseRowTypeInfo rowType = new BaseRowTypeInfo(new IntType());
+
+	private final BaseRowTypeInfo countType = new BaseRowTypeInfo(new IntType(), new BigIntType());
+
+	private final OutputTag<BaseRow> hotKeyTag = new OutputTag<>("hot-keys", rowType);
+
+	@Test
+	public void testSplitHotKeys() throws Exception {
+		// key 7 has 1/3 and key 8 has 1/6 of the rows of both tasks, all other keys are unique
+		List<BaseRow> counts = new ArrayList<>();
+		counts.addAll(countKeys(skewedRows(0), 50));
+		counts.addAll(countKeys(skewedRows(1000), 50));
+		Set<Integer> hotKeyHashes = selectHotKeys(counts, 0.1);
+		assertEquals(2, hotKeyHashes.size());
+
+		List<BaseRow> input = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			input.add(GenericRow.of(i));
+		}
+		List<Integer> normalKeys = new ArrayList<>();
+		List<Integer> hotKeys = new ArrayList<>();
+		split(hotKeyHashes, input, normalKeys, hotKeys);
+
+		assertEquals(18, normalKeys.size());
+		Collections.sort(hotKeys);
+		List<Integer> expectedHotKeys = new ArrayList<>();
+		expectedHotKeys.add(7);
+		expectedHotKeys.add(8);
+		assertEquals(expectedHotKeys, hotKeys);
+	}
+
+	@Test
+	public void testNoHotKeys() throws Exception {
+		List<BaseRow> input = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			input.add(GenericRow.of(i));
+		}
+		Set<Integer> hotKeyHashes = selectHotKeys(countKeys(input, 10), 0.1);
+		assertEquals(0, hotKeyHashes.size());
+
+		List<Integer> normalKeys = new ArrayList<>();
+		List<Integer> hotKeys = new ArrayList<>();
+		split(hotKeyHashes, input, normalKeys, hotKeys);
+		assertEquals(1000, normalKeys.size());
+		assertEquals(0, hotKeys.size());
+	}
+
+	/**
+	 * Returns 600 rows: 200 rows of key 7, 100 rows of key 8 and 300 rows of unique keys, which
+	 * start at the given offset.
+	 */
+	private static List<BaseRow> skewedRows(int offset) {
+		List<BaseRow> rows = new ArrayList<>();
+		for (int i = 0; i < 600; i++) {
+			if (i % 3 == 0) {
+				rows.add(GenericRow.of(7));
+			} else if (i % 6 == 1) {
+				rows.add(GenericRow.of(8));
+			} else {
+				rows.add(GenericRow.of(100 + offset + i));
+			}
+		}
+		return rows;
+	}
+
+	private List<BaseRow> countKeys(List<BaseRow> input, int capacity) throws Exception {
+		return processAndEndInput(new LocalHotKeyCounterOperator(KEY_PROJECTION, capacity), input, countType);
+	}
+
+	private Set<Integer> selectHotKeys(List<BaseRow> counts, double ratio) throws Exception {
+		Set<Integer> hashes = new HashSet<>();
+		for (BaseRow row : processAndEndInput(new GlobalHotKeySelectorOperator(ratio), counts, rowType)) {
+			hashes.add(row.getInt(0));
+		}
+		return hashes;
+	}
+
+	private void split(
+			Set<Integer> hotKeyHashes,
+			List<BaseRow> input,
+			List<Integer> normalKeys,
+			List<Integer> hotKeys) throws Exception {
+		SkewedKeySplitOperator operator = new SkewedKeySplitOperator(KEY_PROJECTION, hotKeyTag);
+		TwoInputStreamOperatorTestHarness<BaseRow, BaseRow, BaseRow> testHarness =
+			new TwoInputStreamOperatorTestHarness<>(operator);
+		testHarness.setup(rowType.createSerializer(new ExecutionConfig()));
+		testHarness.open();
+		for (int hash : hotKeyHashes) {
+			testHarness.processElement1(new StreamRecord<>(GenericRow.of(hash)));
+		}
+		operator.endInput(1);
+		for (BaseRow row : input) {
+			testHarness.processElement2(new StreamRecord<>(row));
+		}
+		operator.endInput(2);
+
+		for (BaseRow row : extractRows(testHarness.getOutput())) {
+			normalKeys.add(row.getInt(0));
+		}
+		if (testHarness.getSideOutput(hotKeyTag) != null) {
+			for (StreamRecord<BaseRow> record : testHarness.getSideOutput(hotKeyTag)) {
+				hotKeys.add(record.getValue().getInt(0));
+			}
+		}
+		testHarness.close();
+	}
+}
@@ -0,0 +1,390 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.join.stream;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.functions.AbstractRichFunction;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.KeyedTwoInputStreamOperatorTestHarness;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.dataformat.GenericRow;
+import org.apache.flink.table.dataformat.util.BaseRowUtil;
+import org.apache.flink.table.runtime.generated.GeneratedJoinCondition;
+import org.apache.flink.table.runtime.generated.JoinCondition;
+import org.apache.flink.table.runtime.operators.bundle.trigger.CountCoBundleTrigger;
+import org.apache.flink.table.runtime.operators.join.stream.state.JoinInputSideSpec;
+import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo;
+import org.apache.flink.table.runtime.util.BaseRowHarnessAssertor;
+import org.apache.flink.table.runtime.util.BinaryRowKeySelector;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.VarCharType;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.record;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.retractRecord;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link MiniBatchStreamingJoinOperator}.
+ */
+public class MiniBatchStreamingJoinOperatorTest {
+
+	// (key, value) on both sides
+	private final BaseRowTypeInfo inputType = new BaseRowTypeInfo(
+		new BigIntType(),
+		new VarCharType(VarCharType.MAX_LENGTH));
+
+	private final BaseRowTypeInfo outputType = new BaseRowTypeInfo(
+		new BigIntType(),
+		new VarCharType(VarCharType.MAX_LENGTH),
+		new BigIntType(),
+		new VarCharType(VarCharType.MAX_LENGTH));
+
+	private final BaseRowHarnessAssertor assertor = new BaseRowHarnessAssertor(outputType.getFieldTypes());
+
+	private final BinaryRowKeySelector keySelector = new BinaryRowKeySelector(
+		new int[] { 0 }, inputType.getLogicalTypes());
+
+	// the rows are only joined with rows of the same key
+	private final GeneratedJoinCondition joinCondition =
+		new GeneratedJoinCondition("JoinCondition", "", new Object[0]) {
+			@Override
+			public JoinCondition newInstance(ClassLoader classLoader) {
+				return new TrueJoinCondition();
+			}
+		};
+
+	// the rows of the same key are joined if the left value is not greater than the right value
+	private final GeneratedJoinCondition nonEquiJoinCondition =
+		new GeneratedJoinCondition("JoinCondition", "", new Object[0]) {
+			@Override
+			public JoinCondition newInstance(ClassLoader classLoader) {
+				return new NotGreaterJoinCondition();
+			}
+		};
+
+	@Test
+	public void testInnerJoinCancelsRetractedRowsInBundle() throws Exception {
+		KeyedTwoInputStreamOperatorTestHarness<BaseRow, BaseRow, BaseRow, BaseRow> testHarness =
+			createTestHarness(false, false, 4);
+		testHarness.open();
+
+		testHarness.processElement1(record(1L, "a"));
+		testHarness.processElement1(retractRecord(1L, "a"));
+		testHarness.processElement2(record(1L, "b"));
+
+		List<Object> expected = new ArrayList<>();
+		assertor.assertOutputEqualsSorted("The rows should be buffered.",
+			expected, testHarness.getOutput());
+
+		// the bundle is full, the retracted row "a" is never joined
+		testHarness.processElement1(record(1L, "c"));
+
+		expected.add(record(1L, "c", 1L, "b"));
+		assertor.assertOutputEqualsSorted("output wrong.", expected, testHarness.getOutput());
+
+		testHarness.close();
+	}
+
+	@Test
+	public void testLeftOuterJoinFinishesBundleOnCheckpointAndWatermark() throws Exception {
+		KeyedTwoInputStreamOperatorTestHarness<BaseRow, BaseRow, BaseRow, BaseRow> testHarness =
+			createTestHarness(true, false, 100);
+		testHarness.open();
+
+		testHarness.processElement1(record(1L, "a"));
+		testHarness.processElement2(record(1L, "b"));
+		testHarness.processElement2(retractRecord(1L, "b"));
+		testHarness.prepareSnapshotPreBarrier(1L);
+
+		List<Object> expected = new ArrayList<>();
+		expected.add(record(1L, "a", null, null));
+		assertor.assertOutputEqualsSorted("output wrong.", expected, testHarness.getOutput());
+
+		testHarness.processElement2(record(1L, "d"));
+		testHarness.processWatermark1(new Watermark(10L));
+		testHarness.processWatermark2(new Watermark(10L));
+
+		expected.add(retractRecord(1L, "a", null, null));
+		expected.add(record(1L, "a", 1L, "d"));
+		expected.add(new Watermark(10L));
+		assertor.assertOutputEqualsSorted("output wrong.", expected, testHarness.getOutput());
+
+		testHarness.close();
+	}
+
+	@Test
+	public void testPairAccumulatedAndRetractedInBundleIsNotEmitted() throws Exception {
+		KeyedTwoInputStreamOperatorTestHarness<BaseRow, BaseRow, BaseRow, BaseRow> testHarness =
+			createTestHarness(true, true, 100);
+		testHarness.open();
+
+		testHarness.processElement1(record(1L, "a"));
+		testHarness.processElement2(record(1L, "b"));
+		testHarness.prepareSnapshotPreBarrier(1L);
+
+		List<Object> expected = new ArrayList<>();
+		expected.add(record(1L, "a", 1L, "b"));
+		assertor.assertOutputEqualsSorted("output wrong.", expected, testHarness.getOutput());
+
+		// "c" is accumulated and retracted within the bundle, it is never joined with "b" or "d"
+		testHarness.processElement1(record(1L, "c"));
+		testHarness.processElement2(record(1L, "d"));
+		testHarness.processElement1(retractRecord(1L, "c"));
+		testHarness.prepareSnapshotPreBarrier(2L);
+
+		expected.add(record(1L, "a", 1L, "d"));
+		assertor.assertOutputEqualsSorted("output wrong.", expected, testHarness.getOutput());
+
+		// the only match of "b" is retracted, "b" is null padded again
+		testHarness.processElement1(retractRecord(1L, "a"));
+		testHarness.prepareSnapshotPreBarrier(3L);
+
+		expected.add(retractRecord(1L, "a", 1L, "b"));
+		expected.add(retractRecord(1L, "a", 1L, "d"));
+		expected.add(record(null, null, 1L, "b"));
+		expected.add(record(null, null, 1L, "d"));
+		assertor.assertOutputEqualsSorted("output wrong.", expected, testHarness.getOutput());
+
+		testHarness.close();
+	}
+
+	@Test
+	public void testUpdateOfUniqueKeyInBundle() throws Exception {
+		JoinInputSideSpec leftInputSideSpec = JoinInputSideSpec.withUniqueKeyContainedByJoinKey(
+			keySelector.getProducedType(), keySelector);
+		KeyedTwoInputStreamOperatorTestHarness<BaseRow, BaseRow, BaseRow, BaseRow> testHarness =
+			createTestHarness(new MiniBatchStreamingJoinOperator(
+				inputType,
+				inputType,
+				joinCondition,
+				leftInputSideSpec,
+				JoinInputSideSpec.withoutUniqueKey(),
+				false,
+				false,
+				new boolean[] { true },
+				0L,
+				new CountCoBundleTrigger<>(100)));
+		testHarness.open();
+
+		testHarness.processElement1(record(1L, "a"));
+		testHarness.processElement2(record(1L, "x"));
+		testHarness.prepareSnapshotPreBarrier(1L);
+
+		List<Object> expected = new ArrayList<>();
+		expected.add(record(1L, "a", 1L, "x"));
+		assertor.assertOutputEqualsSorted("output wrong.", expected, testHarness.getOutput());
+
+		// the update replaces the row of the unique key, the retraction is applied first
+		testHarness.processElement1(retractRecord(1L, "a"));
+		testHarness.processElement1(record(1L, "b"));
+		testHarness.prepareSnapshotPreBarrier(2L);
+
+		expected.add(retractRecord(1L, "a", 1L, "x"));
+		expected.add(record(1L, "b", 1L, "x"));
+		assertor.assertOutputEqualsSorted("output wrong.", expected, testHarness.getOutput());
+
+		testHarness.processElement2(record(1L, "y"));
+		testHarness.prepareSnapshotPreBarrier(3L);
+
+		expected.add(record(1L, "b", 1L, "y"));
+		assertor.assertOutputEqualsSorted("output wrong.", expected, testHarness.getOutput());
+
+		testHarness.close();
+	}
+
+	@Test
+	public void testSameResultsAsStreamingJoinOperator() throws Exception {
+		Random random = new Random(42);
+		boolean[][] outerSides = { { false, false }, { true, false }, { false, true }, { true, true } };
+		for (boolean[] outerSide : outerSides) {
+			List<Change> changes = generateChanges(random, 300);
+			for (long maxBundleSize : new long[] { 1, 3, 20 }) {
+				StreamingJoinOperator joinOperator = new StreamingJoinOperator(
+					inputType,
+					inputType,
+					nonEquiJoinCondition,
+					JoinInputSideSpec.withoutUniqueKey(),
+					JoinInputSideSpec.withoutUniqueKey(),
+					outerSide[0],
+					outerSide[1],
+					new boolean[] { true },
+					0L);
+				MiniBatchStreamingJoinOperator miniBatchJoinOperator = new MiniBatchStreamingJoinOperator(
+					inputType,
+					inputType,
+					nonEquiJoinCondition,
+					JoinInputSideSpec.withoutUniqueKey(),
+					JoinInputSideSpec.withoutUniqueKey(),
+					outerSide[0],
+					outerSide[1],
+					new boolean[] { true },
+					0L,
+					new CountCoBundleTrigger<>(maxBundleSize));
+
+				assertEquals(
+					"outer sides: " + outerSide[0] + ", " + outerSide[1] + ", bundle size: " + maxBundleSize,
+					joinResults(createTestHarness(joinOperator), changes),
+					joinResults(createTestHarness(miniBatchJoinOperator), changes));
+			}
+		}
+	}
+
+	/**
+	 * Generates a valid changelog of both sides, which only retracts rows accumulated before.
+	 */
+	private static List<Change> generateChanges(Random random, int numChanges) {
+		List<Change> changes = new ArrayList<>();
+		List<List<Change>> accumulated = new ArrayList<>();
+		accumulated.add(new ArrayList<>());
+		accumulated.add(new ArrayList<>());
+		for (int i = 0; i < numChanges; i++) {
+			boolean isLeft = random.nextBoolean();
+			List<Change> rows = accumulated.get(isLeft ? 0 : 1);
+			if (!rows.isEmpty() && random.nextInt(3) == 0) {
+				Change row = rows.remove(random.nextInt(rows.size()));
+				changes.add(new Change(isLeft, true, row.key, row.value));
+			} else {
+				Change row = new Change(
+					isLeft, false, (long) random.nextInt(3), String.valueOf((char) ('a' + random.nextInt(4))));
+				rows.add(row);
+				changes.add(row);
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * Processes the changes and returns the materialized join result, the number of times every
+	 * joined row is contained.
+	 */
+	private Map<String, Integer> joinResults(
+			KeyedTwoInputStreamOperatorTestHarness<BaseRow, BaseRow, BaseRow, BaseRow> testHarness,
+			List<Change> changes) throws Exception {
+		testHarness.open();
+		for (Change change : changes) {
+			StreamRecord<BaseRow> element = change.isRetract ?
+				retractRecord(change.key, change.value) : record(change.key, change.value);
+			if (change.isLeft) {
+				testHarness.processElement1(element);
+			} else {
+				testHarness.processElement2(element);
+			}
+		}
+		testHarness.prepareSnapshotPreBarrier(1L);
+
+		Map<String, Integer> results = new HashMap<>();
+		for (Object output : testHarness.getOutput()) {
+			BaseRow row = (BaseRow) ((StreamRecord) output).getValue();
+			GenericRow genericRow = BaseRowUtil.toGenericRow(row, outputType.getLogicalTypes());
+			int delta = BaseRowUtil.isAccumulateMsg(row) ? 1 : -1;
+			genericRow.setHeader(BaseRowUtil.ACCUMULATE_MSG);
+			int count = results.getOrDefault(genericRow.toString(), 0) + delta;
+			// a joined row is never retracted before it is accumulated
+			assertTrue("retraction of missing row " + genericRow, count >= 0);
+			if (count == 0) {
+				results.remove(genericRow.toString());
+			} else {
+				results.put(genericRow.toString(), count);
+			}
+		}
+		testHarness.close();
+		return results;
+	}
+
+	private KeyedTwoInputStreamOperatorTestHarness<BaseRow, BaseRow, BaseRow, BaseRow> createTestHarness(
+			boolean leftIsOuter,
+			boolean rightIsOuter,
+			long maxBundleSize) throws Exception {
+		return createTestHarness(new MiniBatchStreamingJoinOperator(
+			inputType,
+			inputType,
+			joinCondition,
+			JoinInputSideSpec.withoutUniqueKey(),
+			JoinInputSideSpec.withoutUniqueKey(),
+			leftIsOuter,
+			rightIsOuter,
+			new boolean[] { true },
+			0L,
+			new CountCoBundleTrigger<>(maxBundleSize)));
+	}
+
+	private KeyedTwoInputStreamOperatorTestHarness<BaseRow, BaseRow, BaseRow, BaseRow> createTestHarness(
+			StreamingJoinOperator operator) throws Exception {
+		KeyedTwoInputStreamOperatorTestHarness<BaseRow, BaseRow, BaseRow, BaseRow> testHarness =
+			new KeyedTwoInputStreamOperatorTestHarness<>(
+				operator, keySelector, keySelector, keySelector.getProducedType());
+		// the operator reuses its output rows
+		testHarness.setup(outputType.createSerializer(new ExecutionConfig()));
+		return testHarness;
+	}
+
+	/**
+	 * A change of one side of the join.
+	 */
+	private static class Change {
+		private final boolean isLeft;
+		private final boolean isRetract;
+		private final long key;
+		private final String value;
+
+		private Change(boolean isLeft, boolean isRetract, long key, String value) {
+			this.isLeft = isLeft;
+			this.isRetract = isRetract;
+			this.key = key;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * A {@link JoinCondition} which accepts the pairs of rows whose left value is not greater
+	 * than the right value.
+	 */
+	private static class NotGreaterJoinCondition extends AbstractRichFunction implements JoinCondition {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public boolean apply(BaseRow in1, BaseRow in2) {
+			return in1.getString(1).compareTo(in2.getString(1)) <= 0;
+		}
+	}
+
+	/**
+	 * A {@link JoinCondition} which accepts all pairs of rows.
+	 */
+	private static class TrueJoinCondition extends AbstractRichFunction implements JoinCondition {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public boolean apply(BaseRow in1, BaseRow in2) {
+			return true;
+		}
+	}
+}
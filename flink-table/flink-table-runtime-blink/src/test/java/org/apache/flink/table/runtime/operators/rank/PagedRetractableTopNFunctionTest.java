@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.rank;
+
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.apache.flink.table.dataformat.BaseRow;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.deleteRecord;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.record;
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.retractRecord;
+
+/**
+ * Tests for {@link RetractableTopNFunction} with a paged sorted map. The pages are small, so that
+ * they are split and removed by the tests.
+ */
+public class PagedRetractableTopNFunctionTest extends RetractableTopNFunctionTest {
+
+	@Override
+	protected AbstractTopNFunction createFunction(RankType rankType, RankRange rankRange,
+			boolean generateRetraction, boolean outputRankNumber) {
+		return new RetractableTopNFunction(minTime.toMilliseconds(), maxTime.toMilliseconds(),
+				inputRowType, sortKeyComparator, sortKeySelector, rankType, rankRange, generatedEqualiser,
+				generateRetraction, outputRankNumber, 2);
+	}
+
+	@Test
+	public void testSortKeysAcrossPages() throws Exception {
+		AbstractTopNFunction func = createFunction(RankType.ROW_NUMBER, new ConstantRankRange(1, 2), false,
+				false);
+		OneInputStreamOperatorTestHarness<BaseRow, BaseRow> testHarness = createTestHarness(func);
+		testHarness.open();
+		// every record becomes the first one, and the pages are split
+		testHarness.processElement(record("book", 1L, 50));
+		testHarness.processElement(record("book", 2L, 40));
+		testHarness.processElement(record("book", 3L, 30));
+		testHarness.processElement(record("book", 4L, 20));
+		testHarness.processElement(record("book", 5L, 10));
+		// the first page becomes empty and is removed
+		testHarness.processElement(retractRecord("book", 5L, 10));
+		testHarness.processElement(retractRecord("book", 4L, 20));
+		testHarness.close();
+
+		List<Object> expectedOutput = new ArrayList<>();
+		expectedOutput.add(record("book", 1L, 50));
+		expectedOutput.add(record("book", 2L, 40));
+		expectedOutput.add(deleteRecord("book", 1L, 50));
+		expectedOutput.add(record("book", 3L, 30));
+		expectedOutput.add(deleteRecord("book", 2L, 40));
+		expectedOutput.add(record("book", 4L, 20));
+		expectedOutput.add(deleteRecord("book", 3L, 30));
+		expectedOutput.add(record("book", 5L, 10));
+		expectedOutput.add(deleteRecord("book", 5L, 10));
+		expectedOutput.add(record("book", 3L, 30));
+		expectedOutput.add(deleteRecord("book", 4L, 20));
+		expectedOutput.add(record("book", 2L, 40));
+		assertorWithoutRowNumber.assertOutputEqualsSorted("output wrong.", expectedOutput, testHarness.getOutput());
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.operators.window;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.apache.flink.table.dataformat.BaseRow;
+import org.apache.flink.table.runtime.generated.AggsHandleFunction;
+import org.apache.flink.table.runtime.generated.GeneratedAggsHandleFunction;
+import org.apache.flink.table.runtime.operators.bundle.trigger.CountBundleTrigger;
+import org.apache.flink.table.runtime.operators.over.SumAggsHandleFunction;
+import org.apache.flink.table.runtime.typeutils.BaseRowTypeInfo;
+import org.apache.flink.table.runtime.util.BaseRowHarnessAssertor;
+import org.apache.flink.table.runtime.util.BinaryRowKeySelector;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.VarCharType;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.flink.table.runtime.util.StreamRecordUtils.record;
+
+/**
+ * Tests for {@link LocalSlicingWindowAggOperator}.
+ */
+public class LocalSlicingWindowAggOperatorTest {
+
+	private static final GeneratedAggsHandleFunction SUM_FUNCTION =
+		new GeneratedAggsHandleFunction("SumFunction", "", new Object[0]) {
+			@Override
+			public AggsHandleFunction newInstance(ClassLoader classLoader) {
+				return new SumAggsHandleFunction(1);
+			}
+		};
+
+	// input: (key, value, rowtime)
+	private final LogicalType[] inputFieldTypes = new LogicalType[] {
+		new VarCharType(VarCharType.MAX_LENGTH),
+		new BigIntType(),
+		new BigIntType() };
+
+	// output: (sum, key, slice timestamp)
+	private final BaseRowTypeInfo outputType = new BaseRowTypeInfo(
+		new BigIntType(),
+		new VarCharType(VarCharType.MAX_LENGTH),
+		new BigIntType());
+
+	private final BaseRowHarnessAssertor assertor = new BaseRowHarnessAssertor(outputType.getFieldTypes());
+
+	@Test
+	public void testEmitCompleteSlicesOnWatermark() throws Exception {
+		OneInputStreamOperatorTestHarness<BaseRow, BaseRow> testHarness = createTestHarness(100);
+		testHarness.open();
+
+		testHarness.processElement(record("key1", 1L, 1000L));
+		testHarness.processElement(record("key1", 2L, 2000L));
+		testHarness.processElement(record("key2", 3L, 4999L));
+		// the next slice
+		testHarness.processElement(record("key1", 4L, 5000L));
+		testHarness.processElement(record("key1", 5L, 7000L));
+
+		testHarness.processWatermark(new Watermark(4999L));
+
+		List<Object> expected = new ArrayList<>();
+		expected.add(record(3L, "key1", 4999L));
+		expected.add(record(3L, "key2", 4999L));
+		expected.add(new Watermark(4999L));
+		assertor.assertOutputEqualsSorted("Complete slices should be emitted.",
+			expected, testHarness.getOutput());
+
+		// the slice [5000, 10000) is still pre-aggregated
+		testHarness.processElement(record("key1", 6L, 9999L));
+		testHarness.processWatermark(new Watermark(10000L));
+
+		expected.add(record(15L, "key1", 9999L));
+		expected.add(new Watermark(10000L));
+		assertor.assertOutputEqualsSorted("Complete slices should be emitted.",
+			expected, testHarness.getOutput());
+
+		testHarness.close();
+	}
+
+	@Test
+	public void testEmitAllSlicesOnBundleTriggerAndCheckpoint() throws Exception {
+		OneInputStreamOperatorTestHarness<BaseRow, BaseRow> testHarness = createTestHarness(3);
+		testHarness.open();
+
+		testHarness.processElement(record("key1", 1L, 1000L));
+		testHarness.processElement(record("key1", 2L, 6000L));
+		testHarness.processElement(record("key1", 3L, 6500L));
+
+		List<Object> expected = new ArrayList<>();
+		expected.add(record(1L, "key1", 4999L));
+		expected.add(record(5L, "key1", 9999L));
+		assertor.assertOutputEqualsSorted("All slices should be emitted when the bundle is full.",
+			expected, testHarness.getOutput());
+
+		testHarness.processElement(record("key2", 4L, 12000L));
+		testHarness.prepareSnapshotPreBarrier(1L);
+
+		expected.add(record(4L, "key2", 14999L));
+		assertor.assertOutputEqualsSorted("All slices should be emitted before a checkpoint.",
+			expected, testHarness.getOutput());
+
+		testHarness.close();
+	}
+
+	private OneInputStreamOperatorTestHarness<BaseRow, BaseRow> createTestHarness(
+			long maxBundleSize) throws Exception {
+		LocalSlicingWindowAggOperator operator = new LocalSlicingWindowAggOperator(
+			SUM_FUNCTION,
+			new BinaryRowKeySelector(new int[] { 0 }, inputFieldTypes),
+			new CountBundleTrigger<>(maxBundleSize),
+			2,
+			5000L);
+		OneInputStreamOperatorTestHarness<BaseRow, BaseRow> testHarness =
+			new OneInputStreamOperatorTestHarness<>(operator);
+		// the operator reuses its output rows
+		testHarness.setup(outputType.createSerializer(new ExecutionConfig()));
+		return testHarness;
+	}
+}
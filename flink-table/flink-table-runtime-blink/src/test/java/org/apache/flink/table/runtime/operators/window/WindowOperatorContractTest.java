@@ -214,7 +214,8 @@ public class WindowOperatorContractTest {
 					windowTypes,
 					2,
 					sendRetraction,
-					allowedLateness);
+					allowedLateness,
+					false);
 			return new KeyedOneInputStreamOperatorTestHarness<BaseRow, BaseRow, BaseRow>(
 				operator, keySelector, keyType);
 		} else {
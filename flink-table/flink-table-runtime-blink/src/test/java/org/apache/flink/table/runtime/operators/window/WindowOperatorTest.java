@@ -49,6 +49,7 @@ import org.apache.flink.table.types.logical.LogicalType;
 import org.apache.flink.table.types.logical.VarCharType;
 import org.apache.flink.util.Collector;
 
+import org.junit.Assume;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
@@ -227,6 +228,64 @@ public class WindowOperatorTest {
 		assertEquals("Close was not called.", 2, closeCalled.get());
 	}
 
+	@Test
+	public void testEventTimeSlidingWindowsWithInputAccumulators() throws Exception {
+		// only aggregate windows merge the accumulators of a local window aggregate
+		Assume.assumeFalse(isTableAggregate);
+		closeCalled.set(0);
+
+		// (sum, count, key, slice timestamp)
+		LogicalType[] accInputFieldTypes = new LogicalType[] {
+				new BigIntType(),
+				new BigIntType(),
+				new VarCharType(VarCharType.MAX_LENGTH),
+				new BigIntType()};
+
+		WindowOperator operator = WindowOperatorBuilder
+				.builder()
+				.withInputFields(accInputFieldTypes)
+				.sliding(Duration.ofSeconds(3), Duration.ofSeconds(1))
+				.withEventTime(3)
+				.withInputAccumulators()
+				.aggregateAndBuild(getTimeWindowAggFunction(), equaliser, accTypes, aggResultTypes, windowTypes);
+
+		BinaryRowKeySelector accKeySelector = new BinaryRowKeySelector(new int[] { 2 }, accInputFieldTypes);
+		OneInputStreamOperatorTestHarness<BaseRow, BaseRow> testHarness =
+				new KeyedOneInputStreamOperatorTestHarness<BaseRow, BaseRow, BaseRow>(
+						operator, accKeySelector, accKeySelector.getProducedType());
+
+		testHarness.open();
+
+		ConcurrentLinkedQueue<Object> expectedOutput = new ConcurrentLinkedQueue<>();
+
+		// two partial accumulators of the same slice
+		testHarness.processElement(record(2L, 2L, "key1", 999L));
+		testHarness.processElement(record(1L, 1L, "key1", 999L));
+		testHarness.processElement(record(3L, 3L, "key1", 1999L));
+
+		testHarness.processWatermark(new Watermark(999));
+		expectedOutput.add(record("key1", 3L, 3L, -2000L, 1000L, 999L));
+		expectedOutput.add(new Watermark(999));
+		assertor.assertOutputEqualsSorted("Output was not correct.", expectedOutput, testHarness.getOutput());
+
+		testHarness.processWatermark(new Watermark(1999));
+		expectedOutput.add(record("key1", 6L, 6L, -1000L, 2000L, 1999L));
+		expectedOutput.add(new Watermark(1999));
+		assertor.assertOutputEqualsSorted("Output was not correct.", expectedOutput, testHarness.getOutput());
+
+		testHarness.processWatermark(new Watermark(2999));
+		expectedOutput.add(record("key1", 6L, 6L, 0L, 3000L, 2999L));
+		expectedOutput.add(new Watermark(2999));
+		assertor.assertOutputEqualsSorted("Output was not correct.", expectedOutput, testHarness.getOutput());
+
+		testHarness.processWatermark(new Watermark(3999));
+		expectedOutput.add(record("key1", 3L, 3L, 1000L, 4000L, 3999L));
+		expectedOutput.add(new Watermark(3999));
+		assertor.assertOutputEqualsSorted("Output was not correct.", expectedOutput, testHarness.getOutput());
+
+		testHarness.close();
+	}
+
 	@Test
 	public void testProcessingTimeSlidingWindows() throws Throwable {
 		closeCalled.set(0);